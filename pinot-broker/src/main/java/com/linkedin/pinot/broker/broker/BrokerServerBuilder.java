@@ -25,7 +25,9 @@ import org.eclipse.jetty.server.Server;
 import org.eclipse.jetty.webapp.WebAppContext;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.linkedin.pinot.broker.broker.helix.LiveInstancesChangeListenerImpl;
+import com.linkedin.pinot.broker.queryquota.TableQueryQuotaManager;
 import com.linkedin.pinot.broker.requesthandler.BrokerRequestHandler;
 import com.linkedin.pinot.broker.servlet.PinotBrokerHealthCheckServlet;
 import com.linkedin.pinot.broker.servlet.PinotBrokerRoutingTableDebugServlet;
@@ -45,7 +47,9 @@ import com.linkedin.pinot.routing.TimeBoundaryService;
 import com.linkedin.pinot.transport.conf.TransportClientConf;
 import com.linkedin.pinot.transport.conf.TransportClientConf.RoutingMode;
 import com.linkedin.pinot.transport.config.ConnectionPoolConfig;
+import com.linkedin.pinot.transport.config.MultiplexedConnectionConfig;
 import com.linkedin.pinot.transport.metrics.NettyClientMetrics;
+import com.linkedin.pinot.transport.netty.MultiplexedConnectionManager;
 import com.linkedin.pinot.transport.netty.PooledNettyClientResourceManager;
 import com.linkedin.pinot.transport.pool.KeyedPool;
 import com.linkedin.pinot.transport.pool.KeyedPoolImpl;
@@ -69,7 +73,10 @@ public class BrokerServerBuilder {
   // Connection Pool Related
   private KeyedPool<PooledNettyClientResourceManager.PooledClientConnection> _connPool;
   private ScheduledThreadPoolExecutor _poolTimeoutExecutor;
-  private ExecutorService _requestSenderPool;
+  // Runs the blocking connection creation and the pool callbacks, kept apart from the timeout and hedging scheduler
+  private ExecutorService _poolCallbackExecutor;
+  // Shared connections, used instead of the connection pool if enabled
+  private MultiplexedConnectionManager _multiplexedConnections;
 
   // Netty Specific
   private EventLoopGroup _eventLoopGroup;
@@ -92,6 +99,7 @@ public class BrokerServerBuilder {
   private Server _server;
   private final Configuration _config;
   private final LiveInstancesChangeListenerImpl listener;
+  private final TableQueryQuotaManager _tableQueryQuotaManager;
 
   public static enum State {
     INIT,
@@ -106,6 +114,12 @@ public class BrokerServerBuilder {
 
   public BrokerServerBuilder(Configuration configuration, HelixExternalViewBasedRouting helixExternalViewBasedRouting,
       TimeBoundaryService timeBoundaryService, LiveInstancesChangeListenerImpl listener) throws ConfigurationException {
+    this(configuration, helixExternalViewBasedRouting, timeBoundaryService, listener, null);
+  }
+
+  public BrokerServerBuilder(Configuration configuration, HelixExternalViewBasedRouting helixExternalViewBasedRouting,
+      TimeBoundaryService timeBoundaryService, LiveInstancesChangeListenerImpl listener,
+      TableQueryQuotaManager tableQueryQuotaManager) throws ConfigurationException {
     _config = configuration;
     if (_config.containsKey(BROKER_DELAY_SHUTDOWN_TIME_CONFIG)) {
       delayedShutdownTimeMs = _config.getLong(BROKER_DELAY_SHUTDOWN_TIME_CONFIG, DEFAULT_BROKER_DELAY_SHUTDOWN_TIME_MS);
@@ -113,6 +127,7 @@ public class BrokerServerBuilder {
     _routingTable = helixExternalViewBasedRouting;
     _timeBoundaryService = timeBoundaryService;
     this.listener = listener;
+    _tableQueryQuotaManager = tableQueryQuotaManager;
   }
 
   public void buildNetwork() throws ConfigurationException {
@@ -136,18 +151,17 @@ public class BrokerServerBuilder {
     final NettyClientMetrics clientMetrics = new NettyClientMetrics(_registry, "client_");
 
     // Setup Netty Connection Pool
-    _resourceManager = new PooledNettyClientResourceManager(_eventLoopGroup, new HashedWheelTimer(), clientMetrics);
+    HashedWheelTimer timer = new HashedWheelTimer();
+    _resourceManager = new PooledNettyClientResourceManager(_eventLoopGroup, timer, clientMetrics);
     _poolTimeoutExecutor = new ScheduledThreadPoolExecutor(50);
-    // _requestSenderPool = MoreExecutors.sameThreadExecutor();
-
-    _requestSenderPool = Executors.newCachedThreadPool();
+    _poolCallbackExecutor = Executors.newCachedThreadPool(
+        new ThreadFactoryBuilder().setDaemon(true).setNameFormat("BrokerConnectionPool-%d").build());
 
     final ConnectionPoolConfig connPoolCfg = conf.getConnPool();
 
     _connPool = new KeyedPoolImpl<PooledNettyClientResourceManager.PooledClientConnection>(connPoolCfg.getMinConnectionsPerServer(),
         connPoolCfg.getMaxConnectionsPerServer(), connPoolCfg.getIdleTimeoutMs(), connPoolCfg.getMaxBacklogPerServer(),
-        _resourceManager, _poolTimeoutExecutor, _requestSenderPool, _registry);
-    // MoreExecutors.sameThreadExecutor(), _registry);
+        _resourceManager, _poolTimeoutExecutor, _poolCallbackExecutor, _registry);
     _resourceManager.setPool(_connPool);
 
     // Setup Routing Table
@@ -160,14 +174,25 @@ public class BrokerServerBuilder {
     }
 
     // Setup ScatterGather
-    _scatterGather = new ScatterGatherImpl(_connPool, _requestSenderPool);
+    MultiplexedConnectionConfig multiplexedConnectionCfg = conf.getMultiplexedConnection();
+    if (multiplexedConnectionCfg.isEnabled()) {
+      _multiplexedConnections = new MultiplexedConnectionManager(_eventLoopGroup, timer, clientMetrics,
+          multiplexedConnectionCfg.getConnectionsPerServer(),
+          multiplexedConnectionCfg.getMaxOutstandingRequestsPerServer());
+      _scatterGather = new ScatterGatherImpl(_multiplexedConnections, _poolTimeoutExecutor);
+    } else {
+      _scatterGather = new ScatterGatherImpl(_connPool, _poolTimeoutExecutor);
+    }
 
     // Setup Broker Request Handler
 
 
     ReduceServiceRegistry reduceServiceRegistry = buildReduceServiceRegistry();
     _requestHandler = new BrokerRequestHandler(_routingTable, _timeBoundaryService, _scatterGather,
-        reduceServiceRegistry, _brokerMetrics, _config);
+        reduceServiceRegistry, _brokerMetrics, _config, _tableQueryQuotaManager);
+    if (_routingTable instanceof HelixExternalViewBasedRouting) {
+      ((HelixExternalViewBasedRouting) _routingTable).setEnableReplicaGroups(_requestHandler.isReplicaGroupsNeeded());
+    }
 
     LOGGER.info("Network initialized !!");
   }
@@ -240,10 +265,13 @@ public class BrokerServerBuilder {
     }
     _state.set(State.SHUTTING_DOWN);
     _connPool.shutdown();
+    if (_multiplexedConnections != null) {
+      _multiplexedConnections.shutdown();
+    }
     _eventLoopGroup.shutdownGracefully();
     _routingTable.shutdown();
     _poolTimeoutExecutor.shutdown();
-    _requestSenderPool.shutdown();
+    _poolCallbackExecutor.shutdown();
     _state.set(State.SHUTDOWN);
     LOGGER.info("Network shutdown!!");
 
@@ -15,6 +15,7 @@
  */
 package com.linkedin.pinot.broker.broker.helix;
 
+import com.linkedin.pinot.broker.queryquota.TableQueryQuotaManager;
 import com.linkedin.pinot.common.Utils;
 import com.linkedin.pinot.common.utils.helix.HelixHelper;
 import com.linkedin.pinot.routing.HelixExternalViewBasedRouting;
@@ -46,12 +47,14 @@ public class BrokerResourceOnlineOfflineStateModelFactory extends StateModelFact
   private final HelixManager _helixManager;
   private final HelixAdmin _helixAdmin;
   private final HelixExternalViewBasedRouting _helixExternalViewBasedRouting;
+  private final TableQueryQuotaManager _tableQueryQuotaManager;
 
   public BrokerResourceOnlineOfflineStateModelFactory(HelixManager helixManager,
-      HelixExternalViewBasedRouting helixExternalViewBasedRouting) {
+      HelixExternalViewBasedRouting helixExternalViewBasedRouting, TableQueryQuotaManager tableQueryQuotaManager) {
     _helixManager = helixManager;
     _helixAdmin = helixManager.getClusterManagmentTool();
     _helixExternalViewBasedRouting = helixExternalViewBasedRouting;
+    _tableQueryQuotaManager = tableQueryQuotaManager;
   }
 
   public static String getStateModelDef() {
@@ -79,6 +82,12 @@ public class BrokerResourceOnlineOfflineStateModelFactory extends StateModelFact
             tableName,
             HelixHelper.getExternalViewForResource(_helixAdmin, _helixManager.getClusterName(), tableName),
             instanceConfigList);
+        try {
+          _tableQueryQuotaManager.initTableQueryQuota(tableName);
+        } catch (Exception e) {
+          // Serve the table without query quota rather than failing the transition
+          LOGGER.warn("Caught exception while setting up query quota for table {}", tableName, e);
+        }
       } catch (Exception e) {
         LOGGER.error("Caught exception during OFFLINE -> ONLINE transition", e);
         Utils.rethrowException(e);
@@ -92,6 +101,7 @@ public class BrokerResourceOnlineOfflineStateModelFactory extends StateModelFact
         LOGGER.info("BrokerResourceOnlineOfflineStateModel.onBecomeOfflineFromOnline() : " + message);
         String tableName = message.getPartitionName();
         _helixExternalViewBasedRouting.markDataResourceOffline(tableName);
+        _tableQueryQuotaManager.dropTableQueryQuota(tableName);
       } catch (Exception e) {
         LOGGER.error("Caught exception during ONLINE -> OFFLINE transition", e);
         Utils.rethrowException(e);
@@ -105,6 +115,7 @@ public class BrokerResourceOnlineOfflineStateModelFactory extends StateModelFact
         LOGGER.info("BrokerResourceOnlineOfflineStateModel.onBecomeDroppedFromOffline() : " + message);
         String tableName = message.getPartitionName();
         _helixExternalViewBasedRouting.markDataResourceOffline(tableName);
+        _tableQueryQuotaManager.dropTableQueryQuota(tableName);
       } catch (Exception e) {
         LOGGER.error("Caught exception during OFFLINE -> DROPPED transition", e);
         Utils.rethrowException(e);
@@ -118,6 +129,7 @@ public class BrokerResourceOnlineOfflineStateModelFactory extends StateModelFact
         LOGGER.info("BrokerResourceOnlineOfflineStateModel.onBecomeDroppedFromOnline() : " + message);
         String tableName = message.getPartitionName();
         _helixExternalViewBasedRouting.markDataResourceOffline(tableName);
+        _tableQueryQuotaManager.dropTableQueryQuota(tableName);
       } catch (Exception e) {
         LOGGER.error("Caught exception during ONLINE -> DROPPED transition", e);
         Utils.rethrowException(e);
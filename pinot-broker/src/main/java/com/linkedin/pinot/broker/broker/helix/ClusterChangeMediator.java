@@ -16,6 +16,7 @@
 
 package com.linkedin.pinot.broker.broker.helix;
 
+import com.linkedin.pinot.broker.queryquota.TableQueryQuotaManager;
 import com.linkedin.pinot.common.metrics.BrokerMetrics;
 import com.linkedin.pinot.common.metrics.BrokerTimer;
 import com.linkedin.pinot.routing.HelixExternalViewBasedRouting;
@@ -37,11 +38,12 @@ import org.slf4j.LoggerFactory;
 
 
 /**
- * Manages the interactions between Helix cluster changes, the routing table and the connection pool.
+ * Manages the interactions between Helix cluster changes, the routing table, the query quotas and the connection pool.
  */
 public class ClusterChangeMediator implements LiveInstanceChangeListener, ExternalViewChangeListener, InstanceConfigChangeListener {
   private static final Logger LOGGER = LoggerFactory.getLogger(ClusterChangeMediator.class);
   private final HelixExternalViewBasedRouting _helixExternalViewBasedRouting;
+  private final TableQueryQuotaManager _tableQueryQuotaManager;
 
   private enum UpdateType {
     EXTERNAL_VIEW,
@@ -53,8 +55,9 @@ public class ClusterChangeMediator implements LiveInstanceChangeListener, Extern
   private Thread _deferredClusterUpdater = null;
 
   public ClusterChangeMediator(HelixExternalViewBasedRouting helixExternalViewBasedRouting,
-      final BrokerMetrics brokerMetrics) {
+      TableQueryQuotaManager tableQueryQuotaManager, final BrokerMetrics brokerMetrics) {
     _helixExternalViewBasedRouting = helixExternalViewBasedRouting;
+    _tableQueryQuotaManager = tableQueryQuotaManager;
 
     // Simple thread that polls every 10 seconds to check if there are any cluster updates to apply
     _deferredClusterUpdater = new Thread("Deferred cluster state updater") {
@@ -92,6 +95,11 @@ public class ClusterChangeMediator implements LiveInstanceChangeListener, Extern
               } catch (Exception e) {
                 LOGGER.warn("Caught exception while updating external view", e);
               }
+              try {
+                _tableQueryQuotaManager.processQueryQuotaChange();
+              } catch (Exception e) {
+                LOGGER.warn("Caught exception while updating query quotas", e);
+              }
             }
 
             if (instanceConfigUpdated) {
@@ -127,6 +135,7 @@ public class ClusterChangeMediator implements LiveInstanceChangeListener, Extern
     } else {
       LOGGER.warn("Deferred cluster updater thread is null or stopped, not deferring external view routing table rebuild");
       _helixExternalViewBasedRouting.processExternalViewChange();
+      _tableQueryQuotaManager.processQueryQuotaChange();
     }
   }
 
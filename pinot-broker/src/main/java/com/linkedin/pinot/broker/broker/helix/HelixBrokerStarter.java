@@ -17,6 +17,7 @@ package com.linkedin.pinot.broker.broker.helix;
 
 import com.google.common.collect.ImmutableList;
 import com.linkedin.pinot.broker.broker.BrokerServerBuilder;
+import com.linkedin.pinot.broker.queryquota.TableQueryQuotaManager;
 import com.linkedin.pinot.broker.requesthandler.BrokerRequestHandler;
 import com.linkedin.pinot.common.metadata.ZKMetadataProvider;
 import com.linkedin.pinot.common.metrics.BrokerMeter;
@@ -65,6 +66,7 @@ public class HelixBrokerStarter {
   private final BrokerServerBuilder _brokerServerBuilder;
   private final ZkHelixPropertyStore<ZNRecord> _propertyStore;
   private final LiveInstancesChangeListenerImpl _liveInstancesListener;
+  private final TableQueryQuotaManager _tableQueryQuotaManager;
 
   private static final Logger LOGGER = LoggerFactory.getLogger(HelixBrokerStarter.class);
 
@@ -107,9 +109,11 @@ public class HelixBrokerStarter {
         pinotHelixProperties.subset(ROUTING_TABLE_SELECTOR_SUBSET_KEY), _propertyStore);
     _helixExternalViewBasedRouting = new HelixExternalViewBasedRouting(_propertyStore, selector, _spectatorHelixManager,
         pinotHelixProperties.subset(ROUTING_TABLE_PARAMS_SUBSET_KEY));
+    _tableQueryQuotaManager = new TableQueryQuotaManager(_spectatorHelixManager);
     _brokerServerBuilder = startBroker(_pinotHelixProperties);
     ClusterChangeMediator clusterChangeMediator =
-        new ClusterChangeMediator(_helixExternalViewBasedRouting, _brokerServerBuilder.getBrokerMetrics());
+        new ClusterChangeMediator(_helixExternalViewBasedRouting, _tableQueryQuotaManager,
+            _brokerServerBuilder.getBrokerMetrics());
     _spectatorHelixManager.addExternalViewChangeListener(clusterChangeMediator);
     _spectatorHelixManager.addInstanceConfigChangeListener(clusterChangeMediator);
     _spectatorHelixManager.addLiveInstanceChangeListener(_liveInstancesListener);
@@ -119,7 +123,8 @@ public class HelixBrokerStarter {
         HelixManagerFactory.getZKHelixManager(helixClusterName, brokerId, InstanceType.PARTICIPANT, zkServers);
     StateMachineEngine stateMachineEngine = _helixManager.getStateMachineEngine();
     StateModelFactory<?> stateModelFactory =
-        new BrokerResourceOnlineOfflineStateModelFactory(_spectatorHelixManager, _helixExternalViewBasedRouting);
+        new BrokerResourceOnlineOfflineStateModelFactory(_spectatorHelixManager, _helixExternalViewBasedRouting,
+            _tableQueryQuotaManager);
     stateMachineEngine.registerStateModelFactory(BrokerResourceOnlineOfflineStateModelFactory.getStateModelDef(),
         stateModelFactory);
     _helixManager.connect();
@@ -176,7 +181,7 @@ public class HelixBrokerStarter {
     }
     final BrokerServerBuilder brokerServerBuilder =
         new BrokerServerBuilder(config, _helixExternalViewBasedRouting,
-            _helixExternalViewBasedRouting.getTimeBoundaryService(), _liveInstancesListener);
+            _helixExternalViewBasedRouting.getTimeBoundaryService(), _liveInstancesListener, _tableQueryQuotaManager);
     brokerServerBuilder.buildNetwork();
     brokerServerBuilder.buildHTTP();
     _helixExternalViewBasedRouting.setBrokerMetrics(brokerServerBuilder.getBrokerMetrics());
@@ -236,6 +241,10 @@ public class HelixBrokerStarter {
     return _brokerServerBuilder;
   }
 
+  public TableQueryQuotaManager getTableQueryQuotaManager() {
+    return _tableQueryQuotaManager;
+  }
+
   public static HelixBrokerStarter startDefault() throws Exception {
     Configuration configuration = new PropertiesConfiguration();
     int port = 5001;
@@ -0,0 +1,312 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.broker.queryquota;
+
+import com.google.common.base.Splitter;
+import com.linkedin.pinot.common.config.AbstractTableConfig;
+import com.linkedin.pinot.common.config.QuotaConfig;
+import com.linkedin.pinot.common.config.TableNameBuilder;
+import com.linkedin.pinot.common.metadata.ZKMetadataProvider;
+import com.linkedin.pinot.common.utils.CommonConstants;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+import org.I0Itec.zkclient.IZkDataListener;
+import org.apache.helix.HelixDataAccessor;
+import org.apache.helix.HelixManager;
+import org.apache.helix.model.ExternalView;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * Enforces the query rate quota (<code>maxQueriesPerSecond</code> in the table quota config) of the tables served by
+ * this broker.
+ * <p>The quota of a table is shared by all the brokers serving it: each broker allows the table quota divided by the
+ * number of brokers online for the table in the external view of the broker resource. The number of online brokers is
+ * refreshed on external view changes, so the quota of a broker going down is taken over by the remaining ones. The
+ * table configs of the tables served are watched, so quota changes are applied without waiting for an external view
+ * change.
+ */
+@ThreadSafe
+public class TableQueryQuotaManager {
+  private static final Logger LOGGER = LoggerFactory.getLogger(TableQueryQuotaManager.class);
+  private static final String ONLINE = "ONLINE";
+
+  private final HelixManager _helixManager;
+  // Keyed by table name with type, only contains the tables with a query rate quota
+  private final ConcurrentMap<String, QueryQuota> _queryQuotas = new ConcurrentHashMap<>();
+  // Tables served by this broker whose table config is watched
+  private final Set<String> _watchedTables = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+  private volatile int _lastKnownBrokerResourceVersion = -1;
+
+  private final IZkDataListener _tableConfigChangeListener = new IZkDataListener() {
+    @Override
+    public void handleDataChange(String dataPath, Object data)
+        throws Exception {
+      refreshTableQueryQuota(getTableName(dataPath));
+    }
+
+    @Override
+    public void handleDataDeleted(String dataPath)
+        throws Exception {
+      removeTableQueryQuota(getTableName(dataPath));
+    }
+
+    private String getTableName(String dataPath) {
+      // The path is prefixed with the property store root
+      List<String> zkPathParts = Splitter.on('/').splitToList(dataPath);
+      return zkPathParts.get(zkPathParts.size() - 1);
+    }
+  };
+
+  public TableQueryQuotaManager(HelixManager helixManager) {
+    _helixManager = helixManager;
+  }
+
+  /**
+   * Sets up the query rate quota of a table this broker starts serving.
+   */
+  public void initTableQueryQuota(@Nonnull String tableName) {
+    watchTableConfig(tableName);
+    AbstractTableConfig tableConfig = fetchTableConfig(tableName);
+    if (tableConfig == null) {
+      LOGGER.warn("Failed to find table config for table {}, no query quota enforced", tableName);
+      removeTableQueryQuota(tableName);
+      return;
+    }
+    initTableQueryQuota(tableConfig, fetchBrokerResource());
+  }
+
+  /**
+   * Sets up the query rate quota of a table from its config and the external view of the broker resource.
+   */
+  public synchronized void initTableQueryQuota(@Nonnull AbstractTableConfig tableConfig,
+      @Nullable ExternalView brokerResource) {
+    String tableName = tableConfig.getTableName();
+    QuotaConfig quotaConfig = tableConfig.getQuotaConfig();
+    double maxQueriesPerSecond = (quotaConfig == null) ? -1 : quotaConfig.maxQueriesPerSecondValue();
+    if (maxQueriesPerSecond <= 0) {
+      removeTableQueryQuota(tableName);
+      return;
+    }
+
+    int numOnlineBrokers = getNumOnlineBrokers(tableName, brokerResource);
+    double maxQueriesPerSecondPerBroker = maxQueriesPerSecond / numOnlineBrokers;
+    QueryQuota queryQuota = _queryQuotas.get(tableName);
+    if (queryQuota == null) {
+      _queryQuotas.put(tableName,
+          new QueryQuota(maxQueriesPerSecond, numOnlineBrokers, new TokenBucket(maxQueriesPerSecondPerBroker)));
+    } else {
+      queryQuota.update(maxQueriesPerSecond, numOnlineBrokers);
+    }
+    LOGGER.info("Query quota of table {}: {} queries per second, {} on this broker ({} online brokers)", tableName,
+        maxQueriesPerSecond, maxQueriesPerSecondPerBroker, numOnlineBrokers);
+  }
+
+  /**
+   * Removes the query rate quota of a table this broker stops serving.
+   */
+  public void dropTableQueryQuota(@Nonnull String tableName) {
+    unwatchTableConfig(tableName);
+    removeTableQueryQuota(tableName);
+  }
+
+  /**
+   * Refreshes the query rate quotas if the external view of the broker resource changed, so the quota of each table is
+   * split among its currently online brokers. Quota changes in the table configs are applied by
+   * {@link #refreshTableQueryQuota(String)} when the table config changes.
+   */
+  public void processQueryQuotaChange() {
+    ExternalView brokerResource = fetchBrokerResource();
+    if (brokerResource == null) {
+      LOGGER.warn("Failed to find external view of the broker resource, query quotas not updated");
+      return;
+    }
+    int version = brokerResource.getRecord().getVersion();
+    if (version == _lastKnownBrokerResourceVersion) {
+      return;
+    }
+
+    String instanceName = _helixManager.getInstanceName();
+    List<String> tablesServed = new ArrayList<>();
+    for (String tableName : brokerResource.getPartitionSet()) {
+      if (ONLINE.equals(brokerResource.getStateMap(tableName).get(instanceName))) {
+        tablesServed.add(tableName);
+      }
+    }
+    for (String tableName : tablesServed) {
+      watchTableConfig(tableName);
+      AbstractTableConfig tableConfig = fetchTableConfig(tableName);
+      if (tableConfig != null) {
+        initTableQueryQuota(tableConfig, brokerResource);
+      } else {
+        removeTableQueryQuota(tableName);
+      }
+    }
+    List<String> tablesToDrop = new ArrayList<>(_watchedTables);
+    tablesToDrop.addAll(_queryQuotas.keySet());
+    for (String tableName : tablesToDrop) {
+      if (!tablesServed.contains(tableName)) {
+        dropTableQueryQuota(tableName);
+      }
+    }
+    _lastKnownBrokerResourceVersion = version;
+  }
+
+  /**
+   * Re-reads the table config of a table served by this broker and applies its query rate quota. The quota is removed
+   * if the table config can no longer be found.
+   */
+  public void refreshTableQueryQuota(@Nonnull String tableName) {
+    if (!_watchedTables.contains(tableName)) {
+      return;
+    }
+    AbstractTableConfig tableConfig = fetchTableConfig(tableName);
+    if (tableConfig == null) {
+      LOGGER.warn("Failed to find table config for table {}, no query quota enforced", tableName);
+      removeTableQueryQuota(tableName);
+      return;
+    }
+    initTableQueryQuota(tableConfig, fetchBrokerResource());
+  }
+
+  /**
+   * Takes a permit from the query rate quotas of the table queried. For a query on a raw table name, both the offline
+   * and realtime tables need a permit, and no permit is taken from either of them if one is over its quota.
+   *
+   * @return false if the query exceeds a quota and should be rejected.
+   */
+  public boolean acquire(@Nonnull String tableName) {
+    if (_queryQuotas.isEmpty()) {
+      return true;
+    }
+    if (TableNameBuilder.getTableTypeFromTableName(tableName) != null) {
+      return tryAcquire(tableName);
+    }
+    QueryQuota offlineQueryQuota = _queryQuotas.get(TableNameBuilder.OFFLINE_TABLE_NAME_BUILDER.forTable(tableName));
+    QueryQuota realtimeQueryQuota =
+        _queryQuotas.get(TableNameBuilder.REALTIME_TABLE_NAME_BUILDER.forTable(tableName));
+    if (offlineQueryQuota == null) {
+      return realtimeQueryQuota == null || realtimeQueryQuota._tokenBucket.tryAcquire();
+    }
+    if (realtimeQueryQuota == null) {
+      return offlineQueryQuota._tokenBucket.tryAcquire();
+    }
+    // Always offline before realtime, the buckets are locked in this order
+    return TokenBucket.tryAcquire(offlineQueryQuota._tokenBucket, realtimeQueryQuota._tokenBucket);
+  }
+
+  /**
+   * Returns the number of queries per second allowed by this broker for the table, or -1 if the table has no quota.
+   */
+  public double getMaxQueriesPerSecondPerBroker(@Nonnull String tableName) {
+    QueryQuota queryQuota = _queryQuotas.get(tableName);
+    if (queryQuota == null) {
+      return -1;
+    }
+    return queryQuota._tokenBucket.getPermitsPerSecond();
+  }
+
+  private synchronized void removeTableQueryQuota(String tableName) {
+    if (_queryQuotas.remove(tableName) != null) {
+      LOGGER.info("Removed query quota of table {}", tableName);
+    }
+  }
+
+  private void watchTableConfig(String tableName) {
+    if (_watchedTables.add(tableName)) {
+      _helixManager.getHelixPropertyStore()
+          .subscribeDataChanges(ZKMetadataProvider.constructPropertyStorePathForResourceConfig(tableName),
+              _tableConfigChangeListener);
+    }
+  }
+
+  private void unwatchTableConfig(String tableName) {
+    if (_watchedTables.remove(tableName)) {
+      _helixManager.getHelixPropertyStore()
+          .unsubscribeDataChanges(ZKMetadataProvider.constructPropertyStorePathForResourceConfig(tableName),
+              _tableConfigChangeListener);
+    }
+  }
+
+  private boolean tryAcquire(String tableName) {
+    QueryQuota queryQuota = _queryQuotas.get(tableName);
+    return queryQuota == null || queryQuota._tokenBucket.tryAcquire();
+  }
+
+  private static int getNumOnlineBrokers(String tableName, @Nullable ExternalView brokerResource) {
+    int numOnlineBrokers = 0;
+    if (brokerResource != null) {
+      Map<String, String> stateMap = brokerResource.getStateMap(tableName);
+      if (stateMap != null) {
+        for (String state : stateMap.values()) {
+          if (ONLINE.equals(state)) {
+            numOnlineBrokers++;
+          }
+        }
+      }
+    }
+    // The external view might not reflect this broker yet
+    return Math.max(1, numOnlineBrokers);
+  }
+
+  @Nullable
+  private AbstractTableConfig fetchTableConfig(String tableName) {
+    CommonConstants.Helix.TableType tableType = TableNameBuilder.getTableTypeFromTableName(tableName);
+    if (tableType == CommonConstants.Helix.TableType.OFFLINE) {
+      return ZKMetadataProvider.getOfflineTableConfig(_helixManager.getHelixPropertyStore(), tableName);
+    } else if (tableType == CommonConstants.Helix.TableType.REALTIME) {
+      return ZKMetadataProvider.getRealtimeTableConfig(_helixManager.getHelixPropertyStore(), tableName);
+    }
+    return null;
+  }
+
+  @Nullable
+  private ExternalView fetchBrokerResource() {
+    HelixDataAccessor helixDataAccessor = _helixManager.getHelixDataAccessor();
+    return helixDataAccessor.getProperty(
+        helixDataAccessor.keyBuilder().externalView(CommonConstants.Helix.BROKER_RESOURCE_INSTANCE));
+  }
+
+  private static class QueryQuota {
+    private final TokenBucket _tokenBucket;
+    // Guarded by this
+    private double _maxQueriesPerSecond;
+    private int _numOnlineBrokers;
+
+    QueryQuota(double maxQueriesPerSecond, int numOnlineBrokers, TokenBucket tokenBucket) {
+      _maxQueriesPerSecond = maxQueriesPerSecond;
+      _numOnlineBrokers = numOnlineBrokers;
+      _tokenBucket = tokenBucket;
+    }
+
+    synchronized void update(double maxQueriesPerSecond, int numOnlineBrokers) {
+      if (maxQueriesPerSecond != _maxQueriesPerSecond || numOnlineBrokers != _numOnlineBrokers) {
+        _maxQueriesPerSecond = maxQueriesPerSecond;
+        _numOnlineBrokers = numOnlineBrokers;
+        _tokenBucket.setPermitsPerSecond(maxQueriesPerSecond / numOnlineBrokers);
+      }
+    }
+  }
+}
@@ -0,0 +1,124 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.broker.queryquota;
+
+import java.util.concurrent.TimeUnit;
+import javax.annotation.concurrent.ThreadSafe;
+
+
+/**
+ * Token bucket handing out on average the given number of permits per second. Unused permits accumulate up to one
+ * second worth of permits (at least one permit), which allows short bursts. The bucket starts full.
+ */
+@ThreadSafe
+public class TokenBucket {
+  private static final double NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+  // Guarded by this
+  private double _permitsPerSecond;
+  private double _capacity;
+  private double _numTokens;
+  private long _lastRefillTimeNs;
+
+  public TokenBucket(double permitsPerSecond) {
+    this(permitsPerSecond, System.nanoTime());
+  }
+
+  TokenBucket(double permitsPerSecond, long nowNs) {
+    checkPermitsPerSecond(permitsPerSecond);
+    _permitsPerSecond = permitsPerSecond;
+    _capacity = Math.max(1.0, permitsPerSecond);
+    _numTokens = _capacity;
+    _lastRefillTimeNs = nowNs;
+  }
+
+  /**
+   * Takes one permit from the bucket if available, without waiting.
+   *
+   * @return true if a permit was acquired.
+   */
+  public boolean tryAcquire() {
+    return tryAcquire(System.nanoTime());
+  }
+
+  synchronized boolean tryAcquire(long nowNs) {
+    refill(nowNs);
+    if (_numTokens >= 1.0) {
+      _numTokens -= 1.0;
+      return true;
+    }
+    return false;
+  }
+
+  /**
+   * Takes one permit from each of the two buckets if both have one available, without waiting. No permit is taken
+   * when either bucket is empty.
+   * <p>Both buckets are locked while checking, so callers must always pass the buckets in the same order.
+   *
+   * @return true if the permits were acquired.
+   */
+  public static boolean tryAcquire(TokenBucket first, TokenBucket second) {
+    return tryAcquire(first, second, System.nanoTime());
+  }
+
+  static boolean tryAcquire(TokenBucket first, TokenBucket second, long nowNs) {
+    synchronized (first) {
+      synchronized (second) {
+        first.refill(nowNs);
+        second.refill(nowNs);
+        if (first._numTokens >= 1.0 && second._numTokens >= 1.0) {
+          first._numTokens -= 1.0;
+          second._numTokens -= 1.0;
+          return true;
+        }
+        return false;
+      }
+    }
+  }
+
+  public synchronized double getPermitsPerSecond() {
+    return _permitsPerSecond;
+  }
+
+  /**
+   * Changes the rate of the bucket. Tokens accumulated so far are kept, up to the capacity for the new rate.
+   */
+  public void setPermitsPerSecond(double permitsPerSecond) {
+    setPermitsPerSecond(permitsPerSecond, System.nanoTime());
+  }
+
+  synchronized void setPermitsPerSecond(double permitsPerSecond, long nowNs) {
+    checkPermitsPerSecond(permitsPerSecond);
+    refill(nowNs);
+    _permitsPerSecond = permitsPerSecond;
+    _capacity = Math.max(1.0, permitsPerSecond);
+    _numTokens = Math.min(_numTokens, _capacity);
+  }
+
+  private void refill(long nowNs) {
+    long elapsedNs = nowNs - _lastRefillTimeNs;
+    if (elapsedNs > 0) {
+      _numTokens = Math.min(_capacity, _numTokens + elapsedNs * _permitsPerSecond / NANOS_PER_SECOND);
+      _lastRefillTimeNs = nowNs;
+    }
+  }
+
+  private static void checkPermitsPerSecond(double permitsPerSecond) {
+    if (!(permitsPerSecond > 0) || Double.isInfinite(permitsPerSecond)) {
+      throw new IllegalArgumentException("Permits per second must be positive, got: " + permitsPerSecond);
+    }
+  }
+}
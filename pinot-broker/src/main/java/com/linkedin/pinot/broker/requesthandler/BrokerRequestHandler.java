@@ -31,6 +31,7 @@ import org.json.JSONObject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import com.google.common.base.Splitter;
+import com.linkedin.pinot.broker.queryquota.TableQueryQuotaManager;
 import com.linkedin.pinot.common.config.TableNameBuilder;
 import com.linkedin.pinot.common.exception.QueryException;
 import com.linkedin.pinot.common.metrics.BrokerMeter;
@@ -49,7 +50,11 @@ import com.linkedin.pinot.common.response.BrokerResponseFactory.ResponseType;
 import com.linkedin.pinot.common.response.ProcessingException;
 import com.linkedin.pinot.common.response.ServerInstance;
 import com.linkedin.pinot.common.utils.DataTable;
+import com.linkedin.pinot.core.common.datatable.DataTableBuilder;
+import com.linkedin.pinot.core.common.datatable.DataTableCompression;
 import com.linkedin.pinot.core.common.datatable.DataTableFactory;
+import com.linkedin.pinot.core.io.compression.ChunkCompressorFactory;
+import com.linkedin.pinot.core.io.compression.ChunkCompressorFactory.CompressionType;
 import com.linkedin.pinot.pql.parsers.Pql2Compiler;
 import com.linkedin.pinot.routing.RoutingTable;
 import com.linkedin.pinot.routing.RoutingTableLookupRequest;
@@ -58,6 +63,7 @@ import com.linkedin.pinot.routing.TimeBoundaryService.TimeBoundaryInfo;
 import com.linkedin.pinot.serde.SerDe;
 import com.linkedin.pinot.transport.common.BucketingSelection;
 import com.linkedin.pinot.transport.common.CompositeFuture;
+import com.linkedin.pinot.transport.common.AdaptiveReplicaSelection;
 import com.linkedin.pinot.transport.common.ReplicaSelection;
 import com.linkedin.pinot.transport.common.ReplicaSelectionGranularity;
 import com.linkedin.pinot.transport.common.RoundRobinReplicaSelection;
@@ -86,7 +92,17 @@ public class BrokerRequestHandler {
   private static final String BROKER_TIME_OUT_CONFIG = "pinot.broker.timeoutMs";
   private static final String DEFAULT_BROKER_ID;
   public static final String BROKER_ID_CONFIG_KEY = "pinot.broker.id";
+  public static final String BROKER_REPLICA_SELECTION_CONFIG = "pinot.broker.replica.selection";
+  public static final String ROUND_ROBIN_REPLICA_SELECTION = "roundRobin";
+  public static final String ADAPTIVE_REPLICA_SELECTION = "adaptive";
+  public static final String BROKER_HEDGING_ENABLED_CONFIG = "pinot.broker.hedging.enabled";
+  public static final String BROKER_HEDGING_PERCENTILE_CONFIG = "pinot.broker.hedging.percentile";
+  public static final String BROKER_HEDGING_MIN_DELAY_MS_CONFIG = "pinot.broker.hedging.minDelayMs";
+  public static final String BROKER_OVERLOAD_RETRY_ENABLED_CONFIG = "pinot.broker.overloadRetry.enabled";
+  public static final String BROKER_RESPONSE_COMPRESSION_CONFIG = "pinot.broker.responseCompression";
   private static final ResponseType DEFAULT_BROKER_RESPONSE_TYPE = ResponseType.BROKER_RESPONSE_TYPE_NATIVE;
+  // Placeholder instance for the empty data table reduced when the routing pruned all the segments
+  private static final ServerInstance PRUNED_SEGMENTS_INSTANCE = new ServerInstance("localhost", 0);
 
   static {
     String defaultBrokerId = "";
@@ -108,17 +124,58 @@ public class BrokerRequestHandler {
   private final int _queryResponseLimit;
   private final AtomicLong _requestIdGenerator;
   private final String _brokerId;
-  // TODO: Currently only using RoundRobin selection. But, this can be allowed to be configured.
-  private RoundRobinReplicaSelection _replicaSelection;
+  private final ReplicaSelection _replicaSelection;
+  // Whether to pick the replica of each segment group per request instead of using the precomputed routing tables
+  private final boolean _selectReplicaPerRequest;
+  // Null if request hedging is disabled
+  private final HedgeDelayTracker _hedgeDelayTracker;
+  // Whether to re-issue the requests rejected by overloaded servers to another replica
+  private final boolean _retryOverloadedServers;
+  // Compression type asked to the servers for their responses, null if response compression is disabled
+  private final String _responseCompression;
+  // Null if query quotas are not enforced
+  private final TableQueryQuotaManager _tableQueryQuotaManager;
 
   public BrokerRequestHandler(RoutingTable table, TimeBoundaryService timeBoundaryService,
       ScatterGather scatterGatherer, ReduceServiceRegistry reduceServiceRegistry, BrokerMetrics brokerMetrics,
       Configuration config) {
+    this(table, timeBoundaryService, scatterGatherer, reduceServiceRegistry, brokerMetrics, config, null);
+  }
+
+  public BrokerRequestHandler(RoutingTable table, TimeBoundaryService timeBoundaryService,
+      ScatterGather scatterGatherer, ReduceServiceRegistry reduceServiceRegistry, BrokerMetrics brokerMetrics,
+      Configuration config, @Nullable TableQueryQuotaManager tableQueryQuotaManager) {
     _routingTable = table;
     _timeBoundaryService = timeBoundaryService;
     _reduceServiceRegistry = reduceServiceRegistry;
     _scatterGatherer = scatterGatherer;
-    _replicaSelection = new RoundRobinReplicaSelection();
+    String replicaSelection = config.getString(BROKER_REPLICA_SELECTION_CONFIG, ROUND_ROBIN_REPLICA_SELECTION);
+    if (ADAPTIVE_REPLICA_SELECTION.equalsIgnoreCase(replicaSelection)) {
+      _replicaSelection = new AdaptiveReplicaSelection();
+      _selectReplicaPerRequest = true;
+    } else {
+      _replicaSelection = new RoundRobinReplicaSelection();
+      _selectReplicaPerRequest = false;
+    }
+    if (config.getBoolean(BROKER_HEDGING_ENABLED_CONFIG, false)) {
+      _hedgeDelayTracker =
+          new HedgeDelayTracker(config.getInt(BROKER_HEDGING_PERCENTILE_CONFIG, HedgeDelayTracker.DEFAULT_PERCENTILE),
+              config.getLong(BROKER_HEDGING_MIN_DELAY_MS_CONFIG, HedgeDelayTracker.DEFAULT_MIN_DELAY_MS));
+    } else {
+      _hedgeDelayTracker = null;
+    }
+    _retryOverloadedServers = config.getBoolean(BROKER_OVERLOAD_RETRY_ENABLED_CONFIG, false);
+    String responseCompression = config.getString(BROKER_RESPONSE_COMPRESSION_CONFIG);
+    if (responseCompression != null) {
+      CompressionType compressionType = ChunkCompressorFactory.getCompressionType(responseCompression);
+      if (!DataTableCompression.isSupported(compressionType)) {
+        throw new IllegalArgumentException("Unsupported response compression: " + responseCompression);
+      }
+      _responseCompression = compressionType.name();
+    } else {
+      _responseCompression = null;
+    }
+    _tableQueryQuotaManager = tableQueryQuotaManager;
     _brokerMetrics = brokerMetrics;
     _optimizer = new BrokerRequestOptimizer();
     _requestIdGenerator = new AtomicLong(0);
@@ -128,6 +185,18 @@ public class BrokerRequestHandler {
     LOGGER.info("Broker response limit is: " + _queryResponseLimit);
     LOGGER.info("Broker timeout is - " + _brokerTimeOutMs + " ms");
     LOGGER.info("Broker id: " + _brokerId);
+    LOGGER.info("Broker replica selection: " + _replicaSelection.getClass().getSimpleName());
+    LOGGER.info("Broker request hedging enabled: " + (_hedgeDelayTracker != null));
+    LOGGER.info("Broker retry of requests rejected by overloaded servers enabled: " + _retryOverloadedServers);
+    LOGGER.info("Broker response compression: " + _responseCompression);
+  }
+
+  /**
+   * Returns true if the requests need the replica groups of the routing table, to pick the replicas per request, to
+   * hedge requests or to retry the requests rejected by overloaded servers.
+   */
+  public boolean isReplicaGroupsNeeded() {
+    return _selectReplicaPerRequest || _hedgeDelayTracker != null || _retryOverloadedServers;
   }
 
   /**
@@ -170,6 +239,7 @@ public class BrokerRequestHandler {
           QueryException.getException(QueryException.PQL_PARSING_ERROR, e));
     }
     String tableName = brokerRequest.getQuerySource().getTableName();
+
     try {
       validateRequest(brokerRequest);
     } catch (Exception e) {
@@ -178,6 +248,16 @@ public class BrokerRequestHandler {
       return BrokerResponseFactory.getBrokerResponseWithException(DEFAULT_BROKER_RESPONSE_TYPE,
           QueryException.getException(QueryException.QUERY_VALIDATION_ERROR, e));
     }
+
+    // Reject the request before executing it if the table is over its query quota, invalid requests do not take a
+    // permit.
+    if (_tableQueryQuotaManager != null && !_tableQueryQuotaManager.acquire(tableName)) {
+      LOGGER.debug("Query quota exceeded for table {} on requestId {}: {}", tableName, requestId, pql);
+      _brokerMetrics.addMeteredTableValue(tableName, BrokerMeter.QUERY_QUOTA_EXCEEDED, 1);
+      return BrokerResponseFactory.getBrokerResponseWithException(DEFAULT_BROKER_RESPONSE_TYPE,
+          QueryException.getException(QueryException.TOO_MANY_REQUESTS_ERROR,
+              "Query quota exceeded for table: " + tableName));
+    }
     if (isTraceEnabled) {
       brokerRequest.setEnableTrace(true);
     }
@@ -434,22 +514,30 @@ public class BrokerRequestHandler {
     // Step 1: find the candidate servers to be queried for each set of segments from the routing table.
     // Step 2: select servers for each segment set and scatter request to the servers.
     String offlineTableName = null;
+    RoutingTableLookupRequest offlineRoutingTableLookupRequest = null;
     CompositeFuture<ByteBuf> offlineCompositeFuture = null;
     if (offlineBrokerRequest != null) {
       offlineTableName = offlineBrokerRequest.getQuerySource().getTableName();
+      offlineRoutingTableLookupRequest = buildRoutingTableLookupRequest(offlineBrokerRequest);
       offlineCompositeFuture =
-          routeAndScatterBrokerRequest(offlineBrokerRequest, phaseTimes, scatterGatherStats, true, bucketingSelection,
-              requestId);
+          routeAndScatterBrokerRequest(offlineBrokerRequest, offlineRoutingTableLookupRequest, phaseTimes,
+              scatterGatherStats, true, bucketingSelection, requestId);
     }
     String realtimeTableName = null;
+    RoutingTableLookupRequest realtimeRoutingTableLookupRequest = null;
     CompositeFuture<ByteBuf> realtimeCompositeFuture = null;
     if (realtimeBrokerRequest != null) {
       realtimeTableName = realtimeBrokerRequest.getQuerySource().getTableName();
+      realtimeRoutingTableLookupRequest = buildRoutingTableLookupRequest(realtimeBrokerRequest);
       realtimeCompositeFuture =
-          routeAndScatterBrokerRequest(realtimeBrokerRequest, phaseTimes, scatterGatherStats, false, bucketingSelection,
-              requestId);
+          routeAndScatterBrokerRequest(realtimeBrokerRequest, realtimeRoutingTableLookupRequest, phaseTimes,
+              scatterGatherStats, false, bucketingSelection, requestId);
     }
     if ((offlineCompositeFuture == null) && (realtimeCompositeFuture == null)) {
+      if (isAllSegmentsPruned(offlineRoutingTableLookupRequest) || isAllSegmentsPruned(
+          realtimeRoutingTableLookupRequest)) {
+        return reduceOnEmptyDataTable(originalBrokerRequest, reduceService, serverResponseType);
+      }
       // No server found in either OFFLINE or REALTIME table.
       return BrokerResponseFactory.getStaticEmptyBrokerResponse(serverResponseType);
     }
@@ -518,6 +606,42 @@ public class BrokerRequestHandler {
     return brokerResponse;
   }
 
+  /**
+   * Returns whether the routing pruned all the segments of the table based on their partitions or value ranges. A
+   * table without online replicas is not pruned, it has no server to query.
+   *
+   * @param routingTableLookupRequest routing table lookup request, null if the table is not queried.
+   * @return whether all the segments of the table were pruned.
+   */
+  private static boolean isAllSegmentsPruned(@Nullable RoutingTableLookupRequest routingTableLookupRequest) {
+    return routingTableLookupRequest != null && routingTableLookupRequest.isAllSegmentsPruned();
+  }
+
+  /**
+   * Reduce over an empty data table built from the broker request, used when the routing pruned all the segments.
+   * <p>The response is the same as the one of servers whose segments were all pruned, e.g. 0 for count(*).
+   *
+   * @param originalBrokerRequest original broker request.
+   * @param reduceService reduce service.
+   * @param serverResponseType response type, used for the empty broker response if the data table cannot be built.
+   * @return broker response.
+   */
+  @Nonnull
+  private BrokerResponse reduceOnEmptyDataTable(@Nonnull BrokerRequest originalBrokerRequest,
+      @Nonnull ReduceService reduceService, @Nonnull ResponseType serverResponseType) {
+    DataTable emptyDataTable;
+    try {
+      emptyDataTable = DataTableBuilder.buildEmptyDataTable(originalBrokerRequest);
+    } catch (Exception e) {
+      LOGGER.warn("Caught exception while building the empty data table for table: {}",
+          originalBrokerRequest.getQuerySource().getTableName(), e);
+      return BrokerResponseFactory.getStaticEmptyBrokerResponse(serverResponseType);
+    }
+    Map<ServerInstance, DataTable> dataTableMap = new HashMap<>();
+    dataTableMap.put(PRUNED_SEGMENTS_INSTANCE, emptyDataTable);
+    return reduceService.reduceOnDataTable(originalBrokerRequest, dataTableMap, _brokerMetrics);
+  }
+
   /**
    * Route and scatter the broker request.
    *
@@ -525,16 +649,36 @@ public class BrokerRequestHandler {
    */
   @Nullable
   private CompositeFuture<ByteBuf> routeAndScatterBrokerRequest(@Nonnull BrokerRequest brokerRequest,
-      @Nonnull PhaseTimes phaseTimes, @Nonnull ScatterGatherStats scatterGatherStats, boolean isOfflineTable,
+      @Nonnull RoutingTableLookupRequest routingTableLookupRequest, @Nonnull PhaseTimes phaseTimes,
+      @Nonnull ScatterGatherStats scatterGatherStats, boolean isOfflineTable,
       @Nullable BucketingSelection bucketingSelection, long requestId)
       throws InterruptedException {
     // Step 1: find the candidate servers to be queried for each set of segments from the routing table.
     // TODO: add checks for whether all segments are covered.
     long routingStartTime = System.nanoTime();
-    Map<ServerInstance, SegmentIdSet> segmentServices = findCandidateServers(brokerRequest);
+    Map<List<ServerInstance>, SegmentIdSet> segmentReplicaGroups = null;
+    Map<ServerInstance, SegmentIdSet> segmentServices = null;
+    if (_selectReplicaPerRequest) {
+      segmentReplicaGroups = _routingTable.findReplicaGroups(routingTableLookupRequest);
+    }
+    if (segmentReplicaGroups == null) {
+      segmentServices = _routingTable.findServers(routingTableLookupRequest);
+      // The servers of the precomputed routing table are kept, hedging and retries only need the replicas of each
+      // segment group to pick the alternate servers
+      if (segmentServices != null && !segmentServices.isEmpty() && (_hedgeDelayTracker != null
+          || _retryOverloadedServers)) {
+        segmentReplicaGroups = _routingTable.findReplicaGroups(routingTableLookupRequest);
+      }
+    }
     phaseTimes.addToRoutingTime(System.nanoTime() - routingStartTime);
-    if (segmentServices == null || segmentServices.isEmpty()) {
+    if ((segmentServices == null || segmentServices.isEmpty()) && (segmentReplicaGroups == null
+        || segmentReplicaGroups.isEmpty())) {
       String tableName = brokerRequest.getQuerySource().getTableName();
+      if (routingTableLookupRequest.isAllSegmentsPruned()) {
+        // All the segments were pruned by the routing
+        LOGGER.debug("No segment to query for table: {}", tableName);
+        return null;
+      }
       LOGGER.info("No server found for table: {}", tableName);
       _brokerMetrics.addMeteredTableValue(tableName, BrokerMeter.NO_SERVER_FOUND_EXCEPTIONS, 1);
       return null;
@@ -542,10 +686,14 @@ public class BrokerRequestHandler {
 
     // Step 2: select servers for each segment set and scatter request to the servers.
     long scatterStartTime = System.nanoTime();
+    long hedgeDelayMs = -1L;
+    if (_hedgeDelayTracker != null && segmentReplicaGroups != null) {
+      hedgeDelayMs = _hedgeDelayTracker.getHedgeDelayMs(brokerRequest.getQuerySource().getTableName());
+    }
     ScatterGatherRequestImpl scatterRequest =
-        new ScatterGatherRequestImpl(brokerRequest, segmentServices, _replicaSelection,
+        new ScatterGatherRequestImpl(brokerRequest, segmentServices, segmentReplicaGroups, _replicaSelection,
             ReplicaSelectionGranularity.SEGMENT_ID_SET, brokerRequest.getBucketHashKey(), 0, bucketingSelection,
-            requestId, _brokerTimeOutMs, _brokerId);
+            requestId, _brokerTimeOutMs, hedgeDelayMs, _retryOverloadedServers, _responseCompression, _brokerId);
     CompositeFuture<ByteBuf> compositeFuture =
         _scatterGatherer.scatterGather(scatterRequest, scatterGatherStats, isOfflineTable, _brokerMetrics);
     phaseTimes.addToScatterTime(System.nanoTime() - scatterStartTime);
@@ -553,13 +701,13 @@ public class BrokerRequestHandler {
   }
 
   /**
-   * Find the candidate servers to be queried for each set of segments from the routing table.
+   * Build the request to look up the candidate servers to be queried for each set of segments from the routing table.
    *
    * @param brokerRequest broker request.
-   * @return map from server to set of segments.
+   * @return routing table lookup request.
    */
-  @Nullable
-  private Map<ServerInstance, SegmentIdSet> findCandidateServers(@Nonnull BrokerRequest brokerRequest) {
+  @Nonnull
+  private RoutingTableLookupRequest buildRoutingTableLookupRequest(@Nonnull BrokerRequest brokerRequest) {
     String tableName = brokerRequest.getQuerySource().getTableName();
     List<String> routingOptions;
     Map<String, String> debugOptions = brokerRequest.getDebugOptions();
@@ -569,8 +717,7 @@ public class BrokerRequestHandler {
       routingOptions =
           Splitter.on(",").omitEmptyStrings().trimResults().splitToList(debugOptions.get("routingOptions"));
     }
-    RoutingTableLookupRequest routingTableLookupRequest = new RoutingTableLookupRequest(tableName, routingOptions);
-    return _routingTable.findServers(routingTableLookupRequest);
+    return new RoutingTableLookupRequest(tableName, routingOptions, brokerRequest);
   }
 
   /**
@@ -591,6 +738,9 @@ public class BrokerRequestHandler {
       Map<ServerInstance, ByteBuf> serverResponseMap = compositeFuture.get();
       Map<ServerInstance, Long> responseTimes = compositeFuture.getResponseTimes();
       scatterGatherStats.setResponseTimeMillis(responseTimes, isOfflineTable);
+      if (_hedgeDelayTracker != null) {
+        _hedgeDelayTracker.recordResponseTimes(tableName, responseTimes);
+      }
       return serverResponseMap;
     } catch (Exception e) {
       LOGGER.error("Caught exception while fetching responses for table: {}", tableName, e);
@@ -624,6 +774,17 @@ public class BrokerRequestHandler {
       try {
         byte[] byteArray = new byte[byteBuf.readableBytes()];
         byteBuf.readBytes(byteArray);
+        if (DataTableCompression.isCompressed(byteArray)) {
+          long decompressionStartTime = System.nanoTime();
+          byte[] compressedByteArray = byteArray;
+          byteArray = DataTableCompression.decompress(compressedByteArray);
+          _brokerMetrics.addPhaseTiming(tableName, BrokerQueryPhase.RESPONSE_DECOMPRESSION,
+              System.nanoTime() - decompressionStartTime);
+          _brokerMetrics.addMeteredTableValue(tableName, BrokerMeter.COMPRESSED_RESPONSES, 1);
+          _brokerMetrics.addMeteredTableValue(tableName, BrokerMeter.COMPRESSED_RESPONSE_BYTES,
+              compressedByteArray.length);
+          _brokerMetrics.addMeteredTableValue(tableName, BrokerMeter.DECOMPRESSED_RESPONSE_BYTES, byteArray.length);
+        }
         dataTableMap.put(serverInstance, DataTableFactory.getDataTable(byteArray));
       } catch (Exception e) {
         LOGGER.error("Caught exceptions while deserializing response for table: {} from server: {}", tableName,
@@ -675,6 +836,7 @@ public class BrokerRequestHandler {
   private static class ScatterGatherRequestImpl implements ScatterGatherRequest {
     private final BrokerRequest _brokerRequest;
     private final Map<ServerInstance, SegmentIdSet> _segmentServices;
+    private final Map<List<ServerInstance>, SegmentIdSet> _segmentReplicaGroups;
     private final ReplicaSelection _replicaSelection;
     private final ReplicaSelectionGranularity _replicaSelectionGranularity;
     private final Object _hashKey;
@@ -682,14 +844,20 @@ public class BrokerRequestHandler {
     private final BucketingSelection _bucketingSelection;
     private final long _requestId;
     private final long _requestTimeoutMs;
+    private final long _hedgeDelayMs;
+    private final boolean _retryOverloadedServers;
+    private final String _responseCompression;
     private final String _brokerId;
+    private final long _startTimeMs;
 
     public ScatterGatherRequestImpl(BrokerRequest request, Map<ServerInstance, SegmentIdSet> segmentServices,
-        ReplicaSelection replicaSelection, ReplicaSelectionGranularity replicaSelectionGranularity, Object hashKey,
+        Map<List<ServerInstance>, SegmentIdSet> segmentReplicaGroups, ReplicaSelection replicaSelection,
+        ReplicaSelectionGranularity replicaSelectionGranularity, Object hashKey,
         int numSpeculativeRequests, BucketingSelection bucketingSelection, long requestId, long requestTimeoutMs,
-        String brokerId) {
+        long hedgeDelayMs, boolean retryOverloadedServers, @Nullable String responseCompression, String brokerId) {
       _brokerRequest = request;
       _segmentServices = segmentServices;
+      _segmentReplicaGroups = segmentReplicaGroups;
       _replicaSelection = replicaSelection;
       _replicaSelectionGranularity = replicaSelectionGranularity;
       _hashKey = hashKey;
@@ -697,7 +865,11 @@ public class BrokerRequestHandler {
       _bucketingSelection = bucketingSelection;
       _requestId = requestId;
       _requestTimeoutMs = requestTimeoutMs;
+      _hedgeDelayMs = hedgeDelayMs;
+      _retryOverloadedServers = retryOverloadedServers;
+      _responseCompression = responseCompression;
       _brokerId = brokerId;
+      _startTimeMs = System.currentTimeMillis();
     }
 
     @Override
@@ -705,6 +877,11 @@ public class BrokerRequestHandler {
       return _segmentServices;
     }
 
+    @Override
+    public Map<List<ServerInstance>, SegmentIdSet> getSegmentReplicaGroups() {
+      return _segmentReplicaGroups;
+    }
+
     @Override
     public byte[] getRequestForService(ServerInstance service, SegmentIdSet querySegments) {
       InstanceRequest r = new InstanceRequest();
@@ -713,6 +890,13 @@ public class BrokerRequestHandler {
       r.setQuery(_brokerRequest);
       r.setSearchSegments(querySegments.getSegmentsNameList());
       r.setBrokerId(_brokerId);
+      if (_requestTimeoutMs > 0) {
+        // Lets the server drop the request if it cannot start processing it before the broker times out
+        r.setTimeoutMs(Math.max(0L, _requestTimeoutMs - (System.currentTimeMillis() - _startTimeMs)));
+      }
+      if (_responseCompression != null) {
+        r.setResponseCompression(_responseCompression);
+      }
       // _serde is not threadsafe.
       return getSerde().serialize(r);
       //      return _serde.serialize(r);
@@ -738,6 +922,21 @@ public class BrokerRequestHandler {
       return _numSpeculativeRequests;
     }
 
+    @Override
+    public long getHedgeDelayMs() {
+      return _hedgeDelayMs;
+    }
+
+    @Override
+    public boolean isRetryOverloadedServers() {
+      return _retryOverloadedServers;
+    }
+
+    @Override
+    public boolean isServerOverloadedResponse(ByteBuf response) {
+      return DataTableFactory.isEmptyWithException(response.nioBuffer(), QueryException.SERVER_OVERLOADED_ERROR_CODE);
+    }
+
     @Override
     public BucketingSelection getPredefinedSelection() {
       return _bucketingSelection;
@@ -0,0 +1,108 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.broker.requesthandler;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import javax.annotation.concurrent.ThreadSafe;
+
+
+/**
+ * Keeps the latest server response times of each table, and derives from them the delay after which a request to a
+ * server that has not responded yet is hedged: the configured percentile of the response times, but at least the
+ * configured minimum delay.
+ */
+@ThreadSafe
+public class HedgeDelayTracker {
+  public static final int DEFAULT_PERCENTILE = 95;
+  public static final long DEFAULT_MIN_DELAY_MS = 10L;
+
+  private static final int NUM_SAMPLES = 1024;
+  // No hedging until this many response times have been recorded for the table
+  private static final int MIN_NUM_SAMPLES = 100;
+  // The percentile is recomputed after this many new response times
+  private static final int NUM_SAMPLES_BETWEEN_UPDATES = 64;
+
+  private final ConcurrentMap<String, TableResponseTimes> _tableResponseTimes = new ConcurrentHashMap<>();
+  private final int _percentile;
+  private final long _minDelayMs;
+
+  public HedgeDelayTracker(int percentile, long minDelayMs) {
+    if (percentile <= 0 || percentile > 100) {
+      throw new IllegalArgumentException("Percentile must be in (0, 100], got: " + percentile);
+    }
+    _percentile = percentile;
+    _minDelayMs = minDelayMs;
+  }
+
+  /**
+   * Records the response times of the servers queried for the table.
+   */
+  public void recordResponseTimes(String tableName, Map<?, Long> responseTimes) {
+    TableResponseTimes tableResponseTimes = _tableResponseTimes.get(tableName);
+    if (tableResponseTimes == null) {
+      tableResponseTimes = new TableResponseTimes();
+      TableResponseTimes existing = _tableResponseTimes.putIfAbsent(tableName, tableResponseTimes);
+      if (existing != null) {
+        tableResponseTimes = existing;
+      }
+    }
+    for (Long responseTime : responseTimes.values()) {
+      if (responseTime != null && responseTime >= 0) {
+        tableResponseTimes.record(responseTime, _percentile);
+      }
+    }
+  }
+
+  /**
+   * Returns the hedge delay for the table, or -1 if not enough response times have been recorded yet.
+   */
+  public long getHedgeDelayMs(String tableName) {
+    TableResponseTimes tableResponseTimes = _tableResponseTimes.get(tableName);
+    if (tableResponseTimes == null) {
+      return -1L;
+    }
+    long percentileMs = tableResponseTimes.getPercentileMs();
+    if (percentileMs < 0) {
+      return -1L;
+    }
+    return Math.max(percentileMs, _minDelayMs);
+  }
+
+  private static class TableResponseTimes {
+    private final long[] _samples = new long[NUM_SAMPLES];
+    private long _numSamples;
+    private volatile long _percentileMs = -1L;
+
+    synchronized void record(long responseTimeMs, int percentile) {
+      _samples[(int) (_numSamples % NUM_SAMPLES)] = responseTimeMs;
+      _numSamples++;
+      if (_numSamples >= MIN_NUM_SAMPLES && _numSamples % NUM_SAMPLES_BETWEEN_UPDATES == 0) {
+        int size = (int) Math.min(_numSamples, NUM_SAMPLES);
+        long[] sorted = Arrays.copyOf(_samples, size);
+        Arrays.sort(sorted);
+        int index = (int) Math.ceil(percentile / 100.0 * size) - 1;
+        _percentileMs = sorted[Math.max(0, index)];
+      }
+    }
+
+    long getPercentileMs() {
+      return _percentileMs;
+    }
+  }
+}
@@ -40,7 +40,9 @@ import org.testng.annotations.BeforeTest;
 import org.testng.annotations.Test;
 import com.linkedin.pinot.broker.broker.helix.DefaultHelixBrokerConfig;
 import com.linkedin.pinot.broker.broker.helix.HelixBrokerStarter;
+import com.linkedin.pinot.broker.queryquota.TableQueryQuotaManager;
 import com.linkedin.pinot.common.config.AbstractTableConfig;
+import com.linkedin.pinot.common.config.QuotaConfig;
 import com.linkedin.pinot.common.config.TableNameBuilder;
 import com.linkedin.pinot.common.segment.SegmentMetadata;
 import com.linkedin.pinot.common.utils.CommonConstants;
@@ -220,6 +222,36 @@ public class HelixBrokerStarterTest {
 
   }
 
+  @Test
+  public void testQueryQuotaUpdatedOnTableConfigChange() throws Exception {
+    final TableQueryQuotaManager tableQueryQuotaManager = _helixBrokerStarter.getTableQueryQuotaManager();
+    Assert.assertEquals(tableQueryQuotaManager.getMaxQueriesPerSecondPerBroker(DINING_TABLE_NAME), -1.0);
+
+    // Only the table config changes, the external view of the broker resource stays the same
+    AbstractTableConfig tableConfig = _pinotResourceManager.getOfflineTableConfig(DINING_TABLE_NAME);
+    QuotaConfig quotaConfig = new QuotaConfig();
+    quotaConfig.setMaxQueriesPerSecond("100");
+    tableConfig.setQuotaConfig(quotaConfig);
+    _pinotResourceManager.setExistingTableConfig(tableConfig, DINING_TABLE_NAME, CommonConstants.Helix.TableType.OFFLINE);
+    waitForPredicate(new Callable<Boolean>() {
+      @Override
+      public Boolean call() throws Exception {
+        return tableQueryQuotaManager.getMaxQueriesPerSecondPerBroker(DINING_TABLE_NAME) > 0;
+      }
+    }, 30000L);
+    Assert.assertTrue(tableQueryQuotaManager.getMaxQueriesPerSecondPerBroker(DINING_TABLE_NAME) > 0);
+
+    tableConfig.setQuotaConfig(null);
+    _pinotResourceManager.setExistingTableConfig(tableConfig, DINING_TABLE_NAME, CommonConstants.Helix.TableType.OFFLINE);
+    waitForPredicate(new Callable<Boolean>() {
+      @Override
+      public Boolean call() throws Exception {
+        return tableQueryQuotaManager.getMaxQueriesPerSecondPerBroker(DINING_TABLE_NAME) < 0;
+      }
+    }, 30000L);
+    Assert.assertEquals(tableQueryQuotaManager.getMaxQueriesPerSecondPerBroker(DINING_TABLE_NAME), -1.0);
+  }
+
   private void waitForPredicate(Callable<Boolean> predicate, long timeout) {
     long deadline = System.currentTimeMillis() + timeout;
     while (System.currentTimeMillis() < deadline) {
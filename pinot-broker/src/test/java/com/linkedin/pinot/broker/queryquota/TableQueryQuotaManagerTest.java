@@ -0,0 +1,104 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.broker.queryquota;
+
+import com.linkedin.pinot.common.config.AbstractTableConfig;
+import com.linkedin.pinot.common.utils.CommonConstants;
+import org.apache.helix.model.ExternalView;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+
+public class TableQueryQuotaManagerTest {
+  private static final String RAW_TABLE_NAME = "myTable";
+  private static final String OFFLINE_TABLE_NAME = "myTable_OFFLINE";
+  private static final String REALTIME_TABLE_NAME = "myTable_REALTIME";
+
+  @Test
+  public void testQuotaSplitAmongOnlineBrokers()
+      throws Exception {
+    TableQueryQuotaManager manager = new TableQueryQuotaManager(null);
+    ExternalView brokerResource = new ExternalView(CommonConstants.Helix.BROKER_RESOURCE_INSTANCE);
+    brokerResource.setState(OFFLINE_TABLE_NAME, "Broker_1", "ONLINE");
+    brokerResource.setState(OFFLINE_TABLE_NAME, "Broker_2", "ONLINE");
+    brokerResource.setState(OFFLINE_TABLE_NAME, "Broker_3", "ONLINE");
+    brokerResource.setState(OFFLINE_TABLE_NAME, "Broker_4", "OFFLINE");
+
+    manager.initTableQueryQuota(getTableConfig("OFFLINE", "30"), brokerResource);
+    Assert.assertEquals(manager.getMaxQueriesPerSecondPerBroker(OFFLINE_TABLE_NAME), 10.0);
+
+    // A broker going offline increases the share of the others
+    brokerResource.setState(OFFLINE_TABLE_NAME, "Broker_3", "OFFLINE");
+    manager.initTableQueryQuota(getTableConfig("OFFLINE", "30"), brokerResource);
+    Assert.assertEquals(manager.getMaxQueriesPerSecondPerBroker(OFFLINE_TABLE_NAME), 15.0);
+
+    // No online broker in the external view yet
+    manager.initTableQueryQuota(getTableConfig("OFFLINE", "30"), null);
+    Assert.assertEquals(manager.getMaxQueriesPerSecondPerBroker(OFFLINE_TABLE_NAME), 30.0);
+
+    // Quota removed from the table config
+    manager.initTableQueryQuota(getTableConfig("OFFLINE", null), brokerResource);
+    Assert.assertEquals(manager.getMaxQueriesPerSecondPerBroker(OFFLINE_TABLE_NAME), -1.0);
+  }
+
+  @Test
+  public void testAcquire()
+      throws Exception {
+    TableQueryQuotaManager manager = new TableQueryQuotaManager(null);
+    Assert.assertTrue(manager.acquire(RAW_TABLE_NAME));
+
+    manager.initTableQueryQuota(getTableConfig("REALTIME", "2"), null);
+    Assert.assertTrue(manager.acquire(RAW_TABLE_NAME));
+    Assert.assertTrue(manager.acquire(REALTIME_TABLE_NAME));
+    Assert.assertFalse(manager.acquire(RAW_TABLE_NAME));
+    Assert.assertFalse(manager.acquire(REALTIME_TABLE_NAME));
+
+    // The offline table has no quota
+    Assert.assertTrue(manager.acquire(OFFLINE_TABLE_NAME));
+    Assert.assertTrue(manager.acquire("otherTable"));
+
+    manager.dropTableQueryQuota(REALTIME_TABLE_NAME);
+    Assert.assertTrue(manager.acquire(RAW_TABLE_NAME));
+  }
+
+  @Test
+  public void testAcquireHybridTable()
+      throws Exception {
+    TableQueryQuotaManager manager = new TableQueryQuotaManager(null);
+    manager.initTableQueryQuota(getTableConfig("OFFLINE", "3"), null);
+    manager.initTableQueryQuota(getTableConfig("REALTIME", "1"), null);
+
+    Assert.assertTrue(manager.acquire(RAW_TABLE_NAME));
+    // The realtime table is over its quota, the offline permit must not be consumed
+    Assert.assertFalse(manager.acquire(RAW_TABLE_NAME));
+    Assert.assertFalse(manager.acquire(RAW_TABLE_NAME));
+    Assert.assertTrue(manager.acquire(OFFLINE_TABLE_NAME));
+    Assert.assertTrue(manager.acquire(OFFLINE_TABLE_NAME));
+    Assert.assertFalse(manager.acquire(OFFLINE_TABLE_NAME));
+  }
+
+  private static AbstractTableConfig getTableConfig(String tableType, String maxQueriesPerSecond)
+      throws Exception {
+    String quota = (maxQueriesPerSecond == null) ? "{}" : "{\"maxQueriesPerSecond\":\"" + maxQueriesPerSecond + "\"}";
+    String tableConfigStr = "{\"tableName\":\"" + RAW_TABLE_NAME + "\",\"tableType\":\"" + tableType + "\",\"quota\":"
+        + quota + ",\"segmentsConfig\":{\"retentionTimeUnit\":\"DAYS\",\"retentionTimeValue\":\"60\","
+        + "\"segmentPushFrequency\":\"daily\",\"segmentPushType\":\"APPEND\",\"replication\":\"2\",\"schemaName\":\"\","
+        + "\"timeColumnName\":\"\",\"timeType\":\"\",\"segmentAssignmentStrategy\":\"BalanceNumSegmentAssignmentStrategy\"},"
+        + "\"tableIndexConfig\":{\"invertedIndexColumns\":[],\"loadMode\":\"HEAP\",\"lazyLoad\":\"false\"},"
+        + "\"tenants\":{\"broker\":\"colocated\",\"server\":\"myServer\"},\"metadata\":{\"customConfigs\":{}}}";
+    return AbstractTableConfig.init(tableConfigStr);
+  }
+}
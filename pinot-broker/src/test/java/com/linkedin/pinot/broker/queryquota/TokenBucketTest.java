@@ -0,0 +1,89 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.broker.queryquota;
+
+import java.util.concurrent.TimeUnit;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+
+public class TokenBucketTest {
+  private static final long ONE_SECOND_NS = TimeUnit.SECONDS.toNanos(1);
+
+  @Test
+  public void testBurstAndRefill() {
+    TokenBucket tokenBucket = new TokenBucket(10, 0L);
+
+    // Starts full with one second worth of permits
+    for (int i = 0; i < 10; i++) {
+      Assert.assertTrue(tokenBucket.tryAcquire(0L));
+    }
+    Assert.assertFalse(tokenBucket.tryAcquire(0L));
+
+    // One permit every 100ms
+    Assert.assertFalse(tokenBucket.tryAcquire(ONE_SECOND_NS / 20));
+    Assert.assertTrue(tokenBucket.tryAcquire(ONE_SECOND_NS / 10));
+    Assert.assertFalse(tokenBucket.tryAcquire(ONE_SECOND_NS / 10));
+
+    // Permits do not accumulate beyond the capacity
+    long later = 100 * ONE_SECOND_NS;
+    for (int i = 0; i < 10; i++) {
+      Assert.assertTrue(tokenBucket.tryAcquire(later));
+    }
+    Assert.assertFalse(tokenBucket.tryAcquire(later));
+  }
+
+  @Test
+  public void testTryAcquireBoth() {
+    TokenBucket first = new TokenBucket(2, 0L);
+    TokenBucket second = new TokenBucket(1, 0L);
+
+    Assert.assertTrue(TokenBucket.tryAcquire(first, second, 0L));
+    // The second bucket is empty, no permit is taken from the first one
+    Assert.assertFalse(TokenBucket.tryAcquire(first, second, 0L));
+    Assert.assertTrue(first.tryAcquire(0L));
+    Assert.assertFalse(first.tryAcquire(0L));
+
+    Assert.assertTrue(TokenBucket.tryAcquire(first, second, ONE_SECOND_NS));
+  }
+
+  @Test
+  public void testLowRate() {
+    // Capacity is at least one permit
+    TokenBucket tokenBucket = new TokenBucket(0.5, 0L);
+    Assert.assertTrue(tokenBucket.tryAcquire(0L));
+    Assert.assertFalse(tokenBucket.tryAcquire(ONE_SECOND_NS));
+    Assert.assertTrue(tokenBucket.tryAcquire(2 * ONE_SECOND_NS));
+  }
+
+  @Test
+  public void testSetPermitsPerSecond() {
+    TokenBucket tokenBucket = new TokenBucket(100, 0L);
+    tokenBucket.setPermitsPerSecond(2, 0L);
+    Assert.assertEquals(tokenBucket.getPermitsPerSecond(), 2.0);
+
+    // Accumulated permits are capped by the new capacity
+    Assert.assertTrue(tokenBucket.tryAcquire(0L));
+    Assert.assertTrue(tokenBucket.tryAcquire(0L));
+    Assert.assertFalse(tokenBucket.tryAcquire(0L));
+    Assert.assertTrue(tokenBucket.tryAcquire(ONE_SECOND_NS / 2));
+  }
+
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void testInvalidRate() {
+    new TokenBucket(0);
+  }
+}
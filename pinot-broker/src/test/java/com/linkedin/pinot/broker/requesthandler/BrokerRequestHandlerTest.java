@@ -0,0 +1,157 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.broker.requesthandler;
+
+import com.linkedin.pinot.common.metrics.BrokerMetrics;
+import com.linkedin.pinot.common.query.ReduceServiceRegistry;
+import com.linkedin.pinot.common.response.BrokerResponse;
+import com.linkedin.pinot.common.response.BrokerResponseFactory;
+import com.linkedin.pinot.common.response.ServerInstance;
+import com.linkedin.pinot.common.response.broker.BrokerResponseNative;
+import com.linkedin.pinot.core.query.reduce.BrokerReduceService;
+import com.linkedin.pinot.routing.RoutingTable;
+import com.linkedin.pinot.routing.RoutingTableLookupRequest;
+import com.linkedin.pinot.routing.TimeBoundaryService;
+import com.linkedin.pinot.transport.common.SegmentIdSet;
+import com.yammer.metrics.core.Meter;
+import com.yammer.metrics.core.Metric;
+import com.yammer.metrics.core.MetricName;
+import com.yammer.metrics.core.MetricsRegistry;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import org.apache.commons.configuration.BaseConfiguration;
+import org.json.JSONObject;
+import org.testng.Assert;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+
+public class BrokerRequestHandlerTest {
+  private static final String NO_SERVER_FOUND_METER = "myTable_OFFLINE.noServerFoundExceptions";
+
+  private ReduceServiceRegistry _reduceServiceRegistry;
+
+  @BeforeClass
+  public void setUp() {
+    _reduceServiceRegistry = new ReduceServiceRegistry();
+    BrokerReduceService reduceService = new BrokerReduceService();
+    _reduceServiceRegistry.register(BrokerResponseFactory.ResponseType.BROKER_RESPONSE_TYPE_NATIVE, reduceService);
+    _reduceServiceRegistry.registerDefault(reduceService);
+  }
+
+  @Test
+  public void testAllSegmentsPruned()
+      throws Exception {
+    MetricsRegistry metricsRegistry = new MetricsRegistry();
+    BrokerRequestHandler brokerRequestHandler =
+        new BrokerRequestHandler(new NoServerRoutingTable(true), new NoTimeBoundaryService(), null,
+            _reduceServiceRegistry, new BrokerMetrics(metricsRegistry), new BaseConfiguration());
+
+    BrokerResponse brokerResponse =
+        brokerRequestHandler.handleRequest(new JSONObject().put("pql", "select count(*) from myTable"));
+    Assert.assertEquals(brokerResponse.getExceptionsSize(), 0);
+    Assert.assertEquals(brokerResponse.getNumDocsScanned(), 0L);
+    BrokerResponseNative brokerResponseNative = (BrokerResponseNative) brokerResponse;
+    Assert.assertEquals(brokerResponseNative.getAggregationResults().size(), 1);
+    Assert.assertEquals(brokerResponseNative.getAggregationResults().get(0).getValue().toString(), "0");
+
+    brokerResponse = brokerRequestHandler.handleRequest(
+        new JSONObject().put("pql", "select count(*) from myTable group by country"));
+    Assert.assertEquals(brokerResponse.getExceptionsSize(), 0);
+    brokerResponseNative = (BrokerResponseNative) brokerResponse;
+    Assert.assertEquals(brokerResponseNative.getAggregationResults().size(), 1);
+    Assert.assertTrue(brokerResponseNative.getAggregationResults().get(0).getGroupByResult().isEmpty());
+    Assert.assertEquals(getMeterCount(metricsRegistry, NO_SERVER_FOUND_METER), 0L);
+  }
+
+  @Test
+  public void testNoServerFound()
+      throws Exception {
+    // The routing table exists but no replica is online, the query must not be answered as if it matched nothing
+    MetricsRegistry metricsRegistry = new MetricsRegistry();
+    BrokerRequestHandler brokerRequestHandler =
+        new BrokerRequestHandler(new NoServerRoutingTable(false), new NoTimeBoundaryService(), null,
+            _reduceServiceRegistry, new BrokerMetrics(metricsRegistry), new BaseConfiguration());
+
+    BrokerResponse brokerResponse =
+        brokerRequestHandler.handleRequest(new JSONObject().put("pql", "select count(*) from myTable"));
+    Assert.assertSame(brokerResponse, BrokerResponseNative.EMPTY_RESULT);
+    Assert.assertEquals(getMeterCount(metricsRegistry, NO_SERVER_FOUND_METER), 1L);
+  }
+
+  private static long getMeterCount(MetricsRegistry metricsRegistry, String meterNameSuffix) {
+    for (Map.Entry<MetricName, Metric> entry : metricsRegistry.allMetrics().entrySet()) {
+      if (entry.getKey().getName().endsWith(meterNameSuffix)) {
+        return ((Meter) entry.getValue()).count();
+      }
+    }
+    return 0L;
+  }
+
+  /**
+   * Routing table of an offline table which returns no server for any query, either because all its segments are
+   * pruned or because no replica is online.
+   */
+  private static class NoServerRoutingTable implements RoutingTable {
+    private final boolean _allSegmentsPruned;
+
+    NoServerRoutingTable(boolean allSegmentsPruned) {
+      _allSegmentsPruned = allSegmentsPruned;
+    }
+
+    @Override
+    public Map<ServerInstance, SegmentIdSet> findServers(RoutingTableLookupRequest request) {
+      request.setAllSegmentsPruned(_allSegmentsPruned);
+      return Collections.emptyMap();
+    }
+
+    @Override
+    public Map<List<ServerInstance>, SegmentIdSet> findReplicaGroups(RoutingTableLookupRequest request) {
+      return null;
+    }
+
+    @Override
+    public boolean routingTableExists(String tableName) {
+      return "myTable_OFFLINE".equals(tableName);
+    }
+
+    @Override
+    public void start() {
+    }
+
+    @Override
+    public void shutdown() {
+    }
+
+    @Override
+    public String dumpSnapshot(String tableName)
+        throws Exception {
+      return null;
+    }
+  }
+
+  private static class NoTimeBoundaryService implements TimeBoundaryService {
+    @Override
+    public TimeBoundaryInfo getTimeBoundaryInfoFor(String table) {
+      return null;
+    }
+
+    @Override
+    public void remove(String tableName) {
+    }
+  }
+}
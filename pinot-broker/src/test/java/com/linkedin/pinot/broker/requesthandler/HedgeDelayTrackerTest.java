@@ -0,0 +1,63 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.broker.requesthandler;
+
+import java.util.Collections;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+
+public class HedgeDelayTrackerTest {
+  private static final String TABLE_NAME = "myTable_OFFLINE";
+
+  @Test
+  public void testPercentile() {
+    HedgeDelayTracker tracker = new HedgeDelayTracker(90, 0L);
+    Assert.assertEquals(tracker.getHedgeDelayMs(TABLE_NAME), -1L);
+
+    // Response times 1 to 64, not enough samples yet
+    for (long i = 1; i <= 64; i++) {
+      tracker.recordResponseTimes(TABLE_NAME, Collections.singletonMap("server", i));
+    }
+    Assert.assertEquals(tracker.getHedgeDelayMs(TABLE_NAME), -1L);
+
+    // Response times 65 to 128
+    for (long i = 65; i <= 128; i++) {
+      tracker.recordResponseTimes(TABLE_NAME, Collections.singletonMap("server", i));
+    }
+    // 90th percentile of 1 to 128
+    Assert.assertEquals(tracker.getHedgeDelayMs(TABLE_NAME), 116L);
+    Assert.assertEquals(tracker.getHedgeDelayMs("otherTable_OFFLINE"), -1L);
+  }
+
+  @Test
+  public void testMinDelay() {
+    HedgeDelayTracker tracker = new HedgeDelayTracker(95, 50L);
+    for (int i = 0; i < 128; i++) {
+      tracker.recordResponseTimes(TABLE_NAME, Collections.singletonMap("server", 5L));
+    }
+    Assert.assertEquals(tracker.getHedgeDelayMs(TABLE_NAME), 50L);
+  }
+
+  @Test
+  public void testNegativeResponseTimesIgnored() {
+    HedgeDelayTracker tracker = new HedgeDelayTracker(95, 0L);
+    for (int i = 0; i < 128; i++) {
+      tracker.recordResponseTimes(TABLE_NAME, Collections.singletonMap("server", -1L));
+    }
+    Assert.assertEquals(tracker.getHedgeDelayMs(TABLE_NAME), -1L);
+  }
+}
@@ -41,6 +41,9 @@ public class IndexingConfig {
   private String _starTreeFormat;
   private String _columnMinMaxValueGeneratorMode;
   private List<String> _noDictionaryColumns;
+  private Map<String, String> _noDictionaryConfig;
+  private List<String> _zoneMapColumns;
+  private List<String> _runLengthEncodedColumns;
   private StarTreeIndexSpec _starTreeIndexSpec;
   private SegmentPartitionConfig _segmentPartitionConfig;
 
@@ -125,6 +128,42 @@ public class IndexingConfig {
     _noDictionaryColumns = noDictionaryColumns;
   }
 
+  /**
+   * Returns the per column config for no-dictionary columns, currently the chunk compression type (e.g. SNAPPY, LZ4
+   * or PASS_THROUGH) of the raw index.
+   */
+  public Map<String, String> getNoDictionaryConfig() {
+    return _noDictionaryConfig;
+  }
+
+  public void setNoDictionaryConfig(Map<String, String> noDictionaryConfig) {
+    _noDictionaryConfig = noDictionaryConfig;
+  }
+
+  /**
+   * Returns the columns with a zone map (min and max dictionary id of every block of documents), used to skip blocks
+   * when scanning the column for a filter.
+   */
+  public List<String> getZoneMapColumns() {
+    return _zoneMapColumns;
+  }
+
+  public void setZoneMapColumns(List<String> zoneMapColumns) {
+    _zoneMapColumns = zoneMapColumns;
+  }
+
+  /**
+   * Returns the columns whose forward index is stored as runs of (start document id, dictionary id), for clustered
+   * single-value columns. Applied when segments are created.
+   */
+  public List<String> getRunLengthEncodedColumns() {
+    return _runLengthEncodedColumns;
+  }
+
+  public void setRunLengthEncodedColumns(List<String> runLengthEncodedColumns) {
+    _runLengthEncodedColumns = runLengthEncodedColumns;
+  }
+
   public void setStarTreeIndexSpec(StarTreeIndexSpec starTreeIndexSpec) {
     _starTreeIndexSpec = starTreeIndexSpec;
   }
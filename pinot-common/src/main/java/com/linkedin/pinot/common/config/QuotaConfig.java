@@ -32,8 +32,10 @@ public class QuotaConfig {
   private static final Logger LOGGER = LoggerFactory.getLogger(QuotaConfig.class);
 
   private String storage;
+  private String maxQueriesPerSecond;
 
   static final String STORAGE_FIELD_NAME = "storage";
+  static final String MAX_QUERIES_PER_SECOND_FIELD_NAME = "maxQueriesPerSecond";
   static final String QUOTA_SECTION_NAME = "quota";
 
   public @Nullable String getStorage() {
@@ -53,10 +55,39 @@ public class QuotaConfig {
     return DataSize.toBytes(this.storage);
   }
 
+  public @Nullable String getMaxQueriesPerSecond() {
+    return maxQueriesPerSecond;
+  }
+
+  public void setMaxQueriesPerSecond(@Nullable String maxQueriesPerSecond) {
+    this.maxQueriesPerSecond = maxQueriesPerSecond;
+  }
+
+  /**
+   * Get the query rate quota of the table, shared by all the brokers serving it
+   * @return configured maximum number of queries per second or -1 if the value
+   *    is missing, unparseable or not positive
+   */
+  public double maxQueriesPerSecondValue() {
+    if (maxQueriesPerSecond == null) {
+      return -1;
+    }
+    try {
+      double value = Double.parseDouble(maxQueriesPerSecond);
+      if (value > 0 && !Double.isInfinite(value)) {
+        return value;
+      }
+    } catch (NumberFormatException e) {
+      // Fall through
+    }
+    return -1;
+  }
+
   public JSONObject toJson() {
     JSONObject quotaObject = new JSONObject();
     try {
       quotaObject.put(STORAGE_FIELD_NAME, storage);
+      quotaObject.put(MAX_QUERIES_PER_SECOND_FIELD_NAME, maxQueriesPerSecond);
     } catch (JSONException e) {
       LOGGER.error("Failed to convert to json", e);
     }
@@ -74,6 +105,11 @@ public class QuotaConfig {
       throw new ConfigurationRuntimeException("Failed to convert storage quota config: "
        + storage + " to bytes");
     }
+    if (maxQueriesPerSecond != null && maxQueriesPerSecondValue() < 0) {
+      LOGGER.error("Invalid max queries per second quota config: {}", maxQueriesPerSecond);
+      throw new ConfigurationRuntimeException("Invalid max queries per second quota config: "
+          + maxQueriesPerSecond + ", must be a positive number");
+    }
   }
 
 }
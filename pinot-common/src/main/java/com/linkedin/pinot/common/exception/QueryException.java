@@ -38,6 +38,8 @@ public class QueryException {
   public static final int SEGMENT_PLAN_EXECUTION_ERROR_CODE = 160;
   public static final int COMBINE_SEGMENT_PLAN_TIMEOUT_ERROR_CODE = 170;
   public static final int QUERY_EXECUTION_ERROR_CODE = 200;
+  public static final int SERVER_OVERLOADED_ERROR_CODE = 240;
+  public static final int QUERY_SCHEDULING_TIMEOUT_ERROR_CODE = 245;
   public static final int EXECUTION_TIMEOUT_ERROR_CODE = 250;
   public static final int BROKER_GATHER_ERROR_CODE = 300;
   public static final int DATA_TABLE_DESERIALIZATION_ERROR_CODE = 310;
@@ -45,6 +47,7 @@ public class QueryException {
   public static final int BROKER_TIMEOUT_ERROR_CODE = 400;
   public static final int BROKER_RESOURCE_MISSING_ERROR_CODE = 410;
   public static final int BROKER_INSTANCE_MISSING_ERROR_CODE = 420;
+  public static final int TOO_MANY_REQUESTS_ERROR_CODE = 429;
   public static final int INTERNAL_ERROR_CODE = 450;
   public static final int MERGE_RESPONSE_ERROR_CODE = 500;
   public static final int FEDERATED_BROKER_UNAVAILABLE_ERROR_CODE = 550;
@@ -60,6 +63,9 @@ public class QueryException {
   public static final ProcessingException COMBINE_SEGMENT_PLAN_TIMEOUT_ERROR =
       new ProcessingException(COMBINE_SEGMENT_PLAN_TIMEOUT_ERROR_CODE);
   public static final ProcessingException QUERY_EXECUTION_ERROR = new ProcessingException(QUERY_EXECUTION_ERROR_CODE);
+  public static final ProcessingException SERVER_OVERLOADED_ERROR = new ProcessingException(SERVER_OVERLOADED_ERROR_CODE);
+  public static final ProcessingException QUERY_SCHEDULING_TIMEOUT_ERROR =
+      new ProcessingException(QUERY_SCHEDULING_TIMEOUT_ERROR_CODE);
   public static final ProcessingException EXECUTION_TIMEOUT_ERROR =
       new ProcessingException(EXECUTION_TIMEOUT_ERROR_CODE);
   public static final ProcessingException BROKER_GATHER_ERROR = new ProcessingException(BROKER_GATHER_ERROR_CODE);
@@ -71,6 +77,8 @@ public class QueryException {
       new ProcessingException(BROKER_RESOURCE_MISSING_ERROR_CODE);
   public static final ProcessingException BROKER_INSTANCE_MISSING_ERROR =
       new ProcessingException(BROKER_INSTANCE_MISSING_ERROR_CODE);
+  public static final ProcessingException TOO_MANY_REQUESTS_ERROR =
+      new ProcessingException(TOO_MANY_REQUESTS_ERROR_CODE);
   public static final ProcessingException INTERNAL_ERROR = new ProcessingException(INTERNAL_ERROR_CODE);
   public static final ProcessingException MERGE_RESPONSE_ERROR = new ProcessingException(MERGE_RESPONSE_ERROR_CODE);
   public static final ProcessingException FEDERATED_BROKER_UNAVAILABLE_ERROR =
@@ -87,6 +95,8 @@ public class QueryException {
     SEGMENT_PLAN_EXECUTION_ERROR.setMessage("SegmentPlanExecutionError");
     COMBINE_SEGMENT_PLAN_TIMEOUT_ERROR.setMessage("CombineSegmentPlanTimeoutError");
     QUERY_EXECUTION_ERROR.setMessage("QueryExecutionError");
+    SERVER_OVERLOADED_ERROR.setMessage("ServerOverloadedError");
+    QUERY_SCHEDULING_TIMEOUT_ERROR.setMessage("QuerySchedulingTimeoutError");
     EXECUTION_TIMEOUT_ERROR.setMessage("ExecutionTimeoutError");
     BROKER_GATHER_ERROR.setMessage("BrokerGatherError");
     DATA_TABLE_DESERIALIZATION_ERROR.setMessage("DataTableDeserializationError");
@@ -94,6 +104,7 @@ public class QueryException {
     BROKER_TIMEOUT_ERROR.setMessage("BrokerTimeoutError");
     BROKER_RESOURCE_MISSING_ERROR.setMessage("BrokerResourceMissingError");
     BROKER_INSTANCE_MISSING_ERROR.setMessage("BrokerInstanceMissingError");
+    TOO_MANY_REQUESTS_ERROR.setMessage("TooManyRequestsError");
     INTERNAL_ERROR.setMessage("InternalError");
     MERGE_RESPONSE_ERROR.setMessage("MergeResponseError");
     FEDERATED_BROKER_UNAVAILABLE_ERROR.setMessage("FederatedBrokerUnavailableError");
@@ -0,0 +1,118 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.common.metadata.segment;
+
+import com.linkedin.pinot.common.data.FieldSpec;
+import com.linkedin.pinot.common.utils.EqualityUtils;
+import java.io.IOException;
+import java.util.Map;
+import javax.annotation.Nonnull;
+import org.codehaus.jackson.annotate.JsonIgnoreProperties;
+import org.codehaus.jackson.annotate.JsonProperty;
+import org.codehaus.jackson.map.ObjectMapper;
+import org.codehaus.jackson.type.TypeReference;
+
+
+/**
+ * Minimum and maximum values of a column of a segment, in their string form, along with the data type of the column to
+ * compare them with the values of query predicates.
+ */
+@SuppressWarnings("unused") // Suppress incorrect warnings as methods used for ser/de.
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class ColumnMinMaxMetadata {
+  private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+  private static final TypeReference<Map<String, ColumnMinMaxMetadata>> MAP_TYPE_REFERENCE =
+      new TypeReference<Map<String, ColumnMinMaxMetadata>>() {
+      };
+
+  private final FieldSpec.DataType _dataType;
+  private final String _minValue;
+  private final String _maxValue;
+
+  /**
+   * Constructor for the class.
+   *
+   * @param dataType Data type of the column.
+   * @param minValue Minimum value of the column in the segment.
+   * @param maxValue Maximum value of the column in the segment.
+   */
+  public ColumnMinMaxMetadata(@Nonnull @JsonProperty("dataType") FieldSpec.DataType dataType,
+      @Nonnull @JsonProperty("minValue") String minValue, @Nonnull @JsonProperty("maxValue") String maxValue) {
+    _dataType = dataType;
+    _minValue = minValue;
+    _maxValue = maxValue;
+  }
+
+  public FieldSpec.DataType getDataType() {
+    return _dataType;
+  }
+
+  public String getMinValue() {
+    return _minValue;
+  }
+
+  public String getMaxValue() {
+    return _maxValue;
+  }
+
+  /**
+   * Given a JSON string, de-serialize and return a map from column name to {@link ColumnMinMaxMetadata}.
+   *
+   * @param jsonString Input JSON string
+   * @return Map from column name to min/max metadata built from the input string.
+   * @throws IOException
+   */
+  public static Map<String, ColumnMinMaxMetadata> fromJsonString(String jsonString)
+      throws IOException {
+    return OBJECT_MAPPER.readValue(jsonString, MAP_TYPE_REFERENCE);
+  }
+
+  /**
+   * Returns the JSON equivalent of a map from column name to {@link ColumnMinMaxMetadata}.
+   *
+   * @param columnMinMaxMap Map from column name to min/max metadata.
+   * @return JSON string equivalent of the map.
+   * @throws IOException
+   */
+  public static String toJsonString(Map<String, ColumnMinMaxMetadata> columnMinMaxMap)
+      throws IOException {
+    return OBJECT_MAPPER.writeValueAsString(columnMinMaxMap);
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (EqualityUtils.isSameReference(this, o)) {
+      return true;
+    }
+
+    if (EqualityUtils.isNullOrNotSameClass(this, o)) {
+      return false;
+    }
+
+    ColumnMinMaxMetadata that = (ColumnMinMaxMetadata) o;
+    return EqualityUtils.isEqual(_dataType, that._dataType) &&
+        EqualityUtils.isEqual(_minValue, that._minValue) &&
+        EqualityUtils.isEqual(_maxValue, that._maxValue);
+  }
+
+  @Override
+  public int hashCode() {
+    int result = EqualityUtils.hashCodeOf(_dataType);
+    result = EqualityUtils.hashCodeOf(result, _minValue);
+    result = EqualityUtils.hashCodeOf(result, _maxValue);
+    return result;
+  }
+}
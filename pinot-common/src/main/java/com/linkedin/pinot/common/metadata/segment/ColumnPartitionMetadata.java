@@ -0,0 +1,138 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.common.metadata.segment;
+
+import com.google.common.base.Preconditions;
+import com.linkedin.pinot.common.config.ColumnPartitionConfig;
+import com.linkedin.pinot.common.data.FieldSpec;
+import com.linkedin.pinot.common.utils.EqualityUtils;
+import java.util.List;
+import javax.annotation.Nonnull;
+import org.apache.commons.lang.math.IntRange;
+import org.codehaus.jackson.annotate.JsonCreator;
+import org.codehaus.jackson.annotate.JsonIgnore;
+import org.codehaus.jackson.annotate.JsonIgnoreProperties;
+import org.codehaus.jackson.annotate.JsonProperty;
+
+
+/**
+ * Partition metadata of a column of a segment: the partition function applied to the values of the column, and the
+ * ranges of partition ids of the values present in the segment.
+ *
+ * The data type of the column is kept so that the partition of a value of a query predicate can be computed outside of
+ * the segment, in the same way as it was computed for the values of the segment.
+ */
+@SuppressWarnings("unused") // Suppress incorrect warnings as methods used for ser/de.
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class ColumnPartitionMetadata {
+  private final String _functionName;
+  private final int _numPartitions;
+  private final FieldSpec.DataType _dataType;
+  private final List<IntRange> _partitionRanges;
+
+  /**
+   * Constructor for the class.
+   *
+   * @param functionName Name of the partition function.
+   * @param numPartitions Number of partitions for this column.
+   * @param dataType Data type of the column.
+   * @param partitionRanges Ranges of partition ids of the values of the column in the segment.
+   */
+  public ColumnPartitionMetadata(@Nonnull String functionName, int numPartitions, @Nonnull FieldSpec.DataType dataType,
+      @Nonnull List<IntRange> partitionRanges) {
+    Preconditions.checkArgument(numPartitions > 0, "Number of partitions must be > zero, specified: " + numPartitions);
+    _functionName = functionName;
+    _numPartitions = numPartitions;
+    _dataType = dataType;
+    _partitionRanges = partitionRanges;
+  }
+
+  @JsonCreator
+  private static ColumnPartitionMetadata fromJson(@Nonnull @JsonProperty("functionName") String functionName,
+      @JsonProperty("numPartitions") int numPartitions, @Nonnull @JsonProperty("dataType") FieldSpec.DataType dataType,
+      @Nonnull @JsonProperty("partitionRanges") String partitionRanges) {
+    return new ColumnPartitionMetadata(functionName, numPartitions, dataType,
+        ColumnPartitionConfig.rangesFromString(partitionRanges.split(ColumnPartitionConfig.PARTITION_VALUE_DELIMITER)));
+  }
+
+  /**
+   * Returns the partition function name for the column.
+   *
+   * @return Partition function name.
+   */
+  public String getFunctionName() {
+    return _functionName;
+  }
+
+  /**
+   * Returns the number of partitions for this column.
+   *
+   * @return Number of partitions.
+   */
+  public int getNumPartitions() {
+    return _numPartitions;
+  }
+
+  /**
+   * Returns the data type of the column.
+   *
+   * @return Data type of the column.
+   */
+  public FieldSpec.DataType getDataType() {
+    return _dataType;
+  }
+
+  /**
+   * Returns the ranges of partition ids of the values of the column in the segment.
+   *
+   * @return List of partition id ranges.
+   */
+  @JsonIgnore
+  public List<IntRange> getPartitionRanges() {
+    return _partitionRanges;
+  }
+
+  @JsonProperty("partitionRanges")
+  private String getPartitionRangesString() {
+    return ColumnPartitionConfig.rangesToString(_partitionRanges);
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (EqualityUtils.isSameReference(this, o)) {
+      return true;
+    }
+
+    if (EqualityUtils.isNullOrNotSameClass(this, o)) {
+      return false;
+    }
+
+    ColumnPartitionMetadata that = (ColumnPartitionMetadata) o;
+    return EqualityUtils.isEqual(_functionName, that._functionName) &&
+        EqualityUtils.isEqual(_numPartitions, that._numPartitions) &&
+        EqualityUtils.isEqual(_dataType, that._dataType) &&
+        EqualityUtils.isEqual(_partitionRanges, that._partitionRanges);
+  }
+
+  @Override
+  public int hashCode() {
+    int result = EqualityUtils.hashCodeOf(_functionName);
+    result = EqualityUtils.hashCodeOf(result, _numPartitions);
+    result = EqualityUtils.hashCodeOf(result, _dataType);
+    result = EqualityUtils.hashCodeOf(result, _partitionRanges);
+    return result;
+  }
+}
@@ -0,0 +1,90 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.common.metadata.segment;
+
+import com.google.common.base.Preconditions;
+import com.linkedin.pinot.common.utils.EqualityUtils;
+import java.io.IOException;
+import java.util.Map;
+import javax.annotation.Nonnull;
+import org.codehaus.jackson.annotate.JsonIgnoreProperties;
+import org.codehaus.jackson.annotate.JsonProperty;
+import org.codehaus.jackson.map.ObjectMapper;
+
+
+/**
+ * Partition metadata of the partitioned columns of a segment, kept in the segment ZK metadata so that the broker can
+ * route queries without having to load the segment.
+ */
+@SuppressWarnings("unused") // Suppress incorrect warning, as methods are used for json ser/de.
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class SegmentPartitionMetadata {
+  private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+  private final Map<String, ColumnPartitionMetadata> _columnPartitionMap;
+
+  public SegmentPartitionMetadata(
+      @Nonnull @JsonProperty("columnPartitionMap") Map<String, ColumnPartitionMetadata> columnPartitionMap) {
+    Preconditions.checkNotNull(columnPartitionMap);
+    _columnPartitionMap = columnPartitionMap;
+  }
+
+  public Map<String, ColumnPartitionMetadata> getColumnPartitionMap() {
+    return _columnPartitionMap;
+  }
+
+  /**
+   * Given a JSON string, de-serialize and return an instance of {@link SegmentPartitionMetadata}
+   *
+   * @param jsonString Input JSON string
+   * @return Instance of {@link SegmentPartitionMetadata} built from the input string.
+   * @throws IOException
+   */
+  public static SegmentPartitionMetadata fromJsonString(String jsonString)
+      throws IOException {
+    return OBJECT_MAPPER.readValue(jsonString, SegmentPartitionMetadata.class);
+  }
+
+  /**
+   * Returns the JSON equivalent of the object.
+   *
+   * @return JSON string equivalent of the object.
+   * @throws IOException
+   */
+  public String toJsonString()
+      throws IOException {
+    return OBJECT_MAPPER.writeValueAsString(this);
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (EqualityUtils.isSameReference(this, o)) {
+      return true;
+    }
+
+    if (EqualityUtils.isNullOrNotSameClass(this, o)) {
+      return false;
+    }
+
+    SegmentPartitionMetadata that = (SegmentPartitionMetadata) o;
+    return EqualityUtils.isEqual(_columnPartitionMap, that._columnPartitionMap);
+  }
+
+  @Override
+  public int hashCode() {
+    return EqualityUtils.hashCodeOf(_columnPartitionMap);
+  }
+}
@@ -34,6 +34,8 @@ public enum BrokerMeter implements AbstractMetrics.Meter {
   REQUEST_COMPILATION_EXCEPTIONS("exceptions", true),
   // Query validation phase.
   QUERY_VALIDATION_EXCEPTIONS("exceptions", false),
+  // Query rejected because the query rate quota of the table is exceeded.
+  QUERY_QUOTA_EXCEEDED("exceptions", false),
   // Scatter phase.
   RESOURCE_MISSING_EXCEPTIONS("exceptions", false),
   NO_SERVER_FOUND_EXCEPTIONS("exceptions", false),
@@ -75,7 +77,21 @@ public enum BrokerMeter implements AbstractMetrics.Meter {
   LLC_QUERY_COUNT("queries", false),
   HLC_QUERY_COUNT("queries", false),
 
-  ROUTING_TABLE_REBUILD_FAILURES("failures", false);
+  ROUTING_TABLE_REBUILD_FAILURES("failures", false),
+
+  // Number of requests re-issued to another replica because the server was slow to respond, and number of times the
+  // re-issued request answered first. The metrics are counted on a per-table basis.
+  HEDGED_REQUESTS("requests", false),
+  HEDGED_REQUEST_WINS("requests", false),
+
+  // Number of requests re-issued to another replica because the server rejected them as overloaded. The metric is
+  // counted on a per-table basis.
+  OVERLOADED_SERVER_RETRIES("requests", false),
+  // Number of compressed server responses, and their size before and after decompression. The metrics are counted on a
+  // per-table basis.
+  COMPRESSED_RESPONSES("responses", false),
+  COMPRESSED_RESPONSE_BYTES("bytes", false),
+  DECOMPRESSED_RESPONSE_BYTES("bytes", false);
 
   private final String brokerMeterName;
   private final String unit;
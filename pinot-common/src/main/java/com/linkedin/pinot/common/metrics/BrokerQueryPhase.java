@@ -28,6 +28,7 @@ public enum BrokerQueryPhase implements AbstractMetrics.QueryPhase {
   QUERY_ROUTING,
   SCATTER_GATHER,
   DESERIALIZATION,
+  RESPONSE_DECOMPRESSION,
   REDUCE,
   REQUEST_CONNECTION_WAIT;
 
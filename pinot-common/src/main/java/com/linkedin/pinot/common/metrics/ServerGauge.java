@@ -31,7 +31,9 @@ public enum ServerGauge implements AbstractMetrics.Gauge {
   LAST_REALTIME_SEGMENT_CATCHUP_DURATION_SECONDS("seconds", false),
   LAST_REALTIME_SEGMENT_COMPLETION_DURATION_SECONDS("seconds", false),
   KAFKA_PARTITION_OFFSET_LAG("messages", false),
-  RUNNING_QUERIES("runningQueries", false);
+  REALTIME_SEGMENT_ESTIMATED_MEMORY_USAGE("bytes", false),
+  RUNNING_QUERIES("runningQueries", false),
+  PENDING_QUERIES("queries", true);
 
   private final String gaugeName;
   private final String unit;
@@ -46,7 +46,17 @@ public enum ServerMeter implements AbstractMetrics.Meter {
   LLC_CONTROLLER_RESPONSE_KEEP("messages", false),
   LLC_CONTROLLER_RESPONSE_NOT_LEADER("messages", false),
   LLC_CONTROLLER_RESPONSE_FAILED("messages", false),
-  LLC_CONTROLLER_RESPONSE_COMMIT_SUCCESS("messages", false);
+  LLC_CONTROLLER_RESPONSE_COMMIT_SUCCESS("messages", false),
+  INDEX_BUFFER_CACHE_HITS("buffers", true),
+  INDEX_BUFFER_CACHE_MISSES("buffers", true),
+  INDEX_BUFFER_CACHE_EVICTIONS("buffers", true),
+  INDEX_BUFFER_FETCH_EXCEPTIONS("exceptions", true),
+  REJECTED_QUERIES_SERVER_OVERLOADED("queries", true),
+  DROPPED_QUERIES_DEADLINE_EXPIRED("queries", true),
+  COMPRESSED_RESPONSES("responses", true),
+  RESPONSE_BYTES_BEFORE_COMPRESSION("bytes", true),
+  RESPONSE_BYTES_AFTER_COMPRESSION("bytes", true),
+  RESPONSE_COMPRESSION_EXCEPTIONS("exceptions", true);
 
   private final String meterName;
   private final String unit;
@@ -13,7 +13,7 @@
  * See the License for the specific language governing permissions and
  * limitations under the License.
  */
-package com.linkedin.pinot.core.data.partition;
+package com.linkedin.pinot.common.partition;
 
 /**
  * Interface for partition function.
@@ -129,13 +129,14 @@ public class TimerContext {
   // for logging
   @Override
   public String toString() {
-    return String.format("%d,%d,%d,%d,%d,%d,%d,%d (in ns)", queryArrivalTimeNs,
+    return String.format("%d,%d,%d,%d,%d,%d,%d,%d,%d (in ns)", queryArrivalTimeNs,
         getPhaseDurationNs(ServerQueryPhase.REQUEST_DESERIALIZATION),
         getPhaseDurationNs(ServerQueryPhase.SCHEDULER_WAIT),
         getPhaseDurationNs(ServerQueryPhase.BUILD_QUERY_PLAN),
         getPhaseDurationNs(ServerQueryPhase.QUERY_PLAN_EXECUTION),
         getPhaseDurationNs(ServerQueryPhase.QUERY_PROCESSING),
         getPhaseDurationNs(ServerQueryPhase.RESPONSE_SERIALIZATION),
+        getPhaseDurationNs(ServerQueryPhase.RESPONSE_COMPRESSION),
         getPhaseDurationNs(ServerQueryPhase.TOTAL_QUERY_TIME));
   }
 }
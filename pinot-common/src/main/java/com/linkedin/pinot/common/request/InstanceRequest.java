@@ -48,6 +48,8 @@ public class InstanceRequest implements org.apache.thrift.TBase<InstanceRequest,
   private static final org.apache.thrift.protocol.TField SEARCH_SEGMENTS_FIELD_DESC = new org.apache.thrift.protocol.TField("searchSegments", org.apache.thrift.protocol.TType.LIST, (short)3);
   private static final org.apache.thrift.protocol.TField ENABLE_TRACE_FIELD_DESC = new org.apache.thrift.protocol.TField("enableTrace", org.apache.thrift.protocol.TType.BOOL, (short)4);
   private static final org.apache.thrift.protocol.TField BROKER_ID_FIELD_DESC = new org.apache.thrift.protocol.TField("brokerId", org.apache.thrift.protocol.TType.STRING, (short)5);
+  private static final org.apache.thrift.protocol.TField TIMEOUT_MS_FIELD_DESC = new org.apache.thrift.protocol.TField("timeoutMs", org.apache.thrift.protocol.TType.I64, (short)6);
+  private static final org.apache.thrift.protocol.TField RESPONSE_COMPRESSION_FIELD_DESC = new org.apache.thrift.protocol.TField("responseCompression", org.apache.thrift.protocol.TType.STRING, (short)7);
 
   private static final Map<Class<? extends IScheme>, SchemeFactory> schemes = new HashMap<Class<? extends IScheme>, SchemeFactory>();
   static {
@@ -60,6 +62,8 @@ public class InstanceRequest implements org.apache.thrift.TBase<InstanceRequest,
   private List<String> searchSegments; // optional
   private boolean enableTrace; // optional
   private String brokerId; // optional
+  private long timeoutMs; // optional
+  private String responseCompression; // optional
 
   /** The set of fields this struct contains, along with convenience methods for finding and manipulating them. */
   public enum _Fields implements org.apache.thrift.TFieldIdEnum {
@@ -67,7 +71,9 @@ public class InstanceRequest implements org.apache.thrift.TBase<InstanceRequest,
     QUERY((short)2, "query"),
     SEARCH_SEGMENTS((short)3, "searchSegments"),
     ENABLE_TRACE((short)4, "enableTrace"),
-    BROKER_ID((short)5, "brokerId");
+    BROKER_ID((short)5, "brokerId"),
+    TIMEOUT_MS((short)6, "timeoutMs"),
+    RESPONSE_COMPRESSION((short)7, "responseCompression");
 
     private static final Map<String, _Fields> byName = new HashMap<String, _Fields>();
 
@@ -92,6 +98,10 @@ public class InstanceRequest implements org.apache.thrift.TBase<InstanceRequest,
           return ENABLE_TRACE;
         case 5: // BROKER_ID
           return BROKER_ID;
+        case 6: // TIMEOUT_MS
+          return TIMEOUT_MS;
+        case 7: // RESPONSE_COMPRESSION
+          return RESPONSE_COMPRESSION;
         default:
           return null;
       }
@@ -134,8 +144,9 @@ public class InstanceRequest implements org.apache.thrift.TBase<InstanceRequest,
   // isset id assignments
   private static final int __REQUESTID_ISSET_ID = 0;
   private static final int __ENABLETRACE_ISSET_ID = 1;
+  private static final int __TIMEOUTMS_ISSET_ID = 2;
   private byte __isset_bitfield = 0;
-  private static final _Fields optionals[] = {_Fields.SEARCH_SEGMENTS,_Fields.ENABLE_TRACE,_Fields.BROKER_ID};
+  private static final _Fields optionals[] = {_Fields.SEARCH_SEGMENTS,_Fields.ENABLE_TRACE,_Fields.BROKER_ID,_Fields.TIMEOUT_MS,_Fields.RESPONSE_COMPRESSION};
   public static final Map<_Fields, org.apache.thrift.meta_data.FieldMetaData> metaDataMap;
   static {
     Map<_Fields, org.apache.thrift.meta_data.FieldMetaData> tmpMap = new EnumMap<_Fields, org.apache.thrift.meta_data.FieldMetaData>(_Fields.class);
@@ -150,6 +161,10 @@ public class InstanceRequest implements org.apache.thrift.TBase<InstanceRequest,
         new org.apache.thrift.meta_data.FieldValueMetaData(org.apache.thrift.protocol.TType.BOOL)));
     tmpMap.put(_Fields.BROKER_ID, new org.apache.thrift.meta_data.FieldMetaData("brokerId", org.apache.thrift.TFieldRequirementType.OPTIONAL, 
         new org.apache.thrift.meta_data.FieldValueMetaData(org.apache.thrift.protocol.TType.STRING)));
+    tmpMap.put(_Fields.TIMEOUT_MS, new org.apache.thrift.meta_data.FieldMetaData("timeoutMs", org.apache.thrift.TFieldRequirementType.OPTIONAL, 
+        new org.apache.thrift.meta_data.FieldValueMetaData(org.apache.thrift.protocol.TType.I64)));
+    tmpMap.put(_Fields.RESPONSE_COMPRESSION, new org.apache.thrift.meta_data.FieldMetaData("responseCompression", org.apache.thrift.TFieldRequirementType.OPTIONAL, 
+        new org.apache.thrift.meta_data.FieldValueMetaData(org.apache.thrift.protocol.TType.STRING)));
     metaDataMap = Collections.unmodifiableMap(tmpMap);
     org.apache.thrift.meta_data.FieldMetaData.addStructMetaDataMap(InstanceRequest.class, metaDataMap);
   }
@@ -184,6 +199,10 @@ public class InstanceRequest implements org.apache.thrift.TBase<InstanceRequest,
     if (other.isSetBrokerId()) {
       this.brokerId = other.brokerId;
     }
+    this.timeoutMs = other.timeoutMs;
+    if (other.isSetResponseCompression()) {
+      this.responseCompression = other.responseCompression;
+    }
   }
 
   public InstanceRequest deepCopy() {
@@ -199,6 +218,9 @@ public class InstanceRequest implements org.apache.thrift.TBase<InstanceRequest,
     setEnableTraceIsSet(false);
     this.enableTrace = false;
     this.brokerId = null;
+    setTimeoutMsIsSet(false);
+    this.timeoutMs = 0;
+    this.responseCompression = null;
   }
 
   public long getRequestId() {
@@ -329,6 +351,51 @@ public class InstanceRequest implements org.apache.thrift.TBase<InstanceRequest,
     }
   }
 
+  public long getTimeoutMs() {
+    return this.timeoutMs;
+  }
+
+  public void setTimeoutMs(long timeoutMs) {
+    this.timeoutMs = timeoutMs;
+    setTimeoutMsIsSet(true);
+  }
+
+  public void unsetTimeoutMs() {
+    __isset_bitfield = EncodingUtils.clearBit(__isset_bitfield, __TIMEOUTMS_ISSET_ID);
+  }
+
+  /** Returns true if field timeoutMs is set (has been assigned a value) and false otherwise */
+  public boolean isSetTimeoutMs() {
+    return EncodingUtils.testBit(__isset_bitfield, __TIMEOUTMS_ISSET_ID);
+  }
+
+  public void setTimeoutMsIsSet(boolean value) {
+    __isset_bitfield = EncodingUtils.setBit(__isset_bitfield, __TIMEOUTMS_ISSET_ID, value);
+  }
+
+  public String getResponseCompression() {
+    return this.responseCompression;
+  }
+
+  public void setResponseCompression(String responseCompression) {
+    this.responseCompression = responseCompression;
+  }
+
+  public void unsetResponseCompression() {
+    this.responseCompression = null;
+  }
+
+  /** Returns true if field responseCompression is set (has been assigned a value) and false otherwise */
+  public boolean isSetResponseCompression() {
+    return this.responseCompression != null;
+  }
+
+  public void setResponseCompressionIsSet(boolean value) {
+    if (!value) {
+      this.responseCompression = null;
+    }
+  }
+
   public void setFieldValue(_Fields field, Object value) {
     switch (field) {
     case REQUEST_ID:
@@ -371,6 +438,22 @@ public class InstanceRequest implements org.apache.thrift.TBase<InstanceRequest,
       }
       break;
 
+    case TIMEOUT_MS:
+      if (value == null) {
+        unsetTimeoutMs();
+      } else {
+        setTimeoutMs((Long)value);
+      }
+      break;
+
+    case RESPONSE_COMPRESSION:
+      if (value == null) {
+        unsetResponseCompression();
+      } else {
+        setResponseCompression((String)value);
+      }
+      break;
+
     }
   }
 
@@ -391,6 +474,12 @@ public class InstanceRequest implements org.apache.thrift.TBase<InstanceRequest,
     case BROKER_ID:
       return getBrokerId();
 
+    case TIMEOUT_MS:
+      return Long.valueOf(getTimeoutMs());
+
+    case RESPONSE_COMPRESSION:
+      return getResponseCompression();
+
     }
     throw new IllegalStateException();
   }
@@ -412,6 +501,10 @@ public class InstanceRequest implements org.apache.thrift.TBase<InstanceRequest,
       return isSetEnableTrace();
     case BROKER_ID:
       return isSetBrokerId();
+    case TIMEOUT_MS:
+      return isSetTimeoutMs();
+    case RESPONSE_COMPRESSION:
+      return isSetResponseCompression();
     }
     throw new IllegalStateException();
   }
@@ -474,6 +567,24 @@ public class InstanceRequest implements org.apache.thrift.TBase<InstanceRequest,
         return false;
     }
 
+    boolean this_present_timeoutMs = true && this.isSetTimeoutMs();
+    boolean that_present_timeoutMs = true && that.isSetTimeoutMs();
+    if (this_present_timeoutMs || that_present_timeoutMs) {
+      if (!(this_present_timeoutMs && that_present_timeoutMs))
+        return false;
+      if (this.timeoutMs != that.timeoutMs)
+        return false;
+    }
+
+    boolean this_present_responseCompression = true && this.isSetResponseCompression();
+    boolean that_present_responseCompression = true && that.isSetResponseCompression();
+    if (this_present_responseCompression || that_present_responseCompression) {
+      if (!(this_present_responseCompression && that_present_responseCompression))
+        return false;
+      if (!this.responseCompression.equals(that.responseCompression))
+        return false;
+    }
+
     return true;
   }
 
@@ -506,6 +617,16 @@ public class InstanceRequest implements org.apache.thrift.TBase<InstanceRequest,
     if (present_brokerId)
       list.add(brokerId);
 
+    boolean present_timeoutMs = true && (isSetTimeoutMs());
+    list.add(present_timeoutMs);
+    if (present_timeoutMs)
+      list.add(timeoutMs);
+
+    boolean present_responseCompression = true && (isSetResponseCompression());
+    list.add(present_responseCompression);
+    if (present_responseCompression)
+      list.add(responseCompression);
+
     return list.hashCode();
   }
 
@@ -567,6 +688,26 @@ public class InstanceRequest implements org.apache.thrift.TBase<InstanceRequest,
         return lastComparison;
       }
     }
+    lastComparison = Boolean.valueOf(isSetTimeoutMs()).compareTo(other.isSetTimeoutMs());
+    if (lastComparison != 0) {
+      return lastComparison;
+    }
+    if (isSetTimeoutMs()) {
+      lastComparison = org.apache.thrift.TBaseHelper.compareTo(this.timeoutMs, other.timeoutMs);
+      if (lastComparison != 0) {
+        return lastComparison;
+      }
+    }
+    lastComparison = Boolean.valueOf(isSetResponseCompression()).compareTo(other.isSetResponseCompression());
+    if (lastComparison != 0) {
+      return lastComparison;
+    }
+    if (isSetResponseCompression()) {
+      lastComparison = org.apache.thrift.TBaseHelper.compareTo(this.responseCompression, other.responseCompression);
+      if (lastComparison != 0) {
+        return lastComparison;
+      }
+    }
     return 0;
   }
 
@@ -624,6 +765,22 @@ public class InstanceRequest implements org.apache.thrift.TBase<InstanceRequest,
       }
       first = false;
     }
+    if (isSetTimeoutMs()) {
+      if (!first) sb.append(", ");
+      sb.append("timeoutMs:");
+      sb.append(this.timeoutMs);
+      first = false;
+    }
+    if (isSetResponseCompression()) {
+      if (!first) sb.append(", ");
+      sb.append("responseCompression:");
+      if (this.responseCompression == null) {
+        sb.append("null");
+      } else {
+        sb.append(this.responseCompression);
+      }
+      first = false;
+    }
     sb.append(")");
     return sb.toString();
   }
@@ -731,6 +888,22 @@ public class InstanceRequest implements org.apache.thrift.TBase<InstanceRequest,
               org.apache.thrift.protocol.TProtocolUtil.skip(iprot, schemeField.type);
             }
             break;
+          case 6: // TIMEOUT_MS
+            if (schemeField.type == org.apache.thrift.protocol.TType.I64) {
+              struct.timeoutMs = iprot.readI64();
+              struct.setTimeoutMsIsSet(true);
+            } else { 
+              org.apache.thrift.protocol.TProtocolUtil.skip(iprot, schemeField.type);
+            }
+            break;
+          case 7: // RESPONSE_COMPRESSION
+            if (schemeField.type == org.apache.thrift.protocol.TType.STRING) {
+              struct.responseCompression = iprot.readString();
+              struct.setResponseCompressionIsSet(true);
+            } else { 
+              org.apache.thrift.protocol.TProtocolUtil.skip(iprot, schemeField.type);
+            }
+            break;
           default:
             org.apache.thrift.protocol.TProtocolUtil.skip(iprot, schemeField.type);
         }
@@ -778,6 +951,18 @@ public class InstanceRequest implements org.apache.thrift.TBase<InstanceRequest,
           oprot.writeFieldEnd();
         }
       }
+      if (struct.isSetTimeoutMs()) {
+        oprot.writeFieldBegin(TIMEOUT_MS_FIELD_DESC);
+        oprot.writeI64(struct.timeoutMs);
+        oprot.writeFieldEnd();
+      }
+      if (struct.responseCompression != null) {
+        if (struct.isSetResponseCompression()) {
+          oprot.writeFieldBegin(RESPONSE_COMPRESSION_FIELD_DESC);
+          oprot.writeString(struct.responseCompression);
+          oprot.writeFieldEnd();
+        }
+      }
       oprot.writeFieldStop();
       oprot.writeStructEnd();
     }
@@ -807,7 +992,13 @@ public class InstanceRequest implements org.apache.thrift.TBase<InstanceRequest,
       if (struct.isSetBrokerId()) {
         optionals.set(2);
       }
-      oprot.writeBitSet(optionals, 3);
+      if (struct.isSetTimeoutMs()) {
+        optionals.set(3);
+      }
+      if (struct.isSetResponseCompression()) {
+        optionals.set(4);
+      }
+      oprot.writeBitSet(optionals, 5);
       if (struct.isSetSearchSegments()) {
         {
           oprot.writeI32(struct.searchSegments.size());
@@ -823,6 +1014,12 @@ public class InstanceRequest implements org.apache.thrift.TBase<InstanceRequest,
       if (struct.isSetBrokerId()) {
         oprot.writeString(struct.brokerId);
       }
+      if (struct.isSetTimeoutMs()) {
+        oprot.writeI64(struct.timeoutMs);
+      }
+      if (struct.isSetResponseCompression()) {
+        oprot.writeString(struct.responseCompression);
+      }
     }
 
     @Override
@@ -833,7 +1030,7 @@ public class InstanceRequest implements org.apache.thrift.TBase<InstanceRequest,
       struct.query = new BrokerRequest();
       struct.query.read(iprot);
       struct.setQueryIsSet(true);
-      BitSet incoming = iprot.readBitSet(3);
+      BitSet incoming = iprot.readBitSet(5);
       if (incoming.get(0)) {
         {
           org.apache.thrift.protocol.TList _list91 = new org.apache.thrift.protocol.TList(org.apache.thrift.protocol.TType.STRING, iprot.readI32());
@@ -855,6 +1052,14 @@ public class InstanceRequest implements org.apache.thrift.TBase<InstanceRequest,
         struct.brokerId = iprot.readString();
         struct.setBrokerIdIsSet(true);
       }
+      if (incoming.get(3)) {
+        struct.timeoutMs = iprot.readI64();
+        struct.setTimeoutMsIsSet(true);
+      }
+      if (incoming.get(4)) {
+        struct.responseCompression = iprot.readString();
+        struct.setResponseCompressionIsSet(true);
+      }
     }
   }
 
@@ -108,6 +108,19 @@ public class CommonConstants {
          * to server assignment changes, it's possible to end up with more (or less) than this number of rows in memory.
          */
         public static final String REALTIME_SEGMENT_FLUSH_SIZE = "realtime.segment.flush.threshold.size";
+        /**
+         * Desired size of committed LLC segments, in human readable format (eg. '200M'). When set, the controller
+         * auto-tunes the row count flush threshold of each partition from the size and row count of the previously
+         * committed segment of that partition, so that segments converge to this size regardless of the width of the
+         * schema. The row count flush threshold is then only used for the first segment of each partition.
+         */
+        public static final String REALTIME_SEGMENT_FLUSH_DESIRED_SIZE = "realtime.segment.flush.desired.size";
+        /**
+         * Upper bound on the estimated memory used by a single LLC consuming segment, in human readable format (eg.
+         * '256M'). The consuming segment stops consuming once its estimated memory usage (dictionaries, forward and
+         * inverted indexes) reaches this bound, even if the row count and time thresholds are not reached yet.
+         */
+        public static final String REALTIME_SEGMENT_FLUSH_MEMORY_SIZE = "realtime.segment.flush.threshold.memory";
 
         public static enum StreamType {
           kafka
@@ -207,6 +220,14 @@ public class CommonConstants {
         "pinot.server.segment.minRetryDelayMillis";
     public static final String CONFIG_OF_SEGMENT_FORMAT_VERSION = "pinot.server.instance.segment.format.version";
     public static final String CONFIG_OF_ENABLE_DEFAULT_COLUMNS = "pinot.server.instance.enable.default.columns";
+    public static final String CONFIG_OF_ENABLE_SEGMENT_PRELOAD = "pinot.server.segment.preload.enable";
+    public static final String CONFIG_OF_SEGMENT_PRELOAD_THREADS = "pinot.server.segment.preload.threads";
+    public static final String CONFIG_OF_USE_UNSAFE_DATA_BUFFER = "pinot.server.instance.use.unsafe.data.buffer";
+    // Root URI of the deep store holding the segments whose indexes are fetched on demand
+    public static final String CONFIG_OF_DEEP_STORE_ROOT_URI = "pinot.server.instance.deepStore.rootUri";
+    public static final String CONFIG_OF_INDEX_BUFFER_CACHE_DIR = "pinot.server.instance.indexBufferCache.dir";
+    public static final String CONFIG_OF_INDEX_BUFFER_CACHE_MAX_SIZE_BYTES =
+        "pinot.server.instance.indexBufferCache.maxSizeBytes";
 
     public static final String DEFAULT_ADMIN_API_PORT = "8097";
     public static final String DEFAULT_READ_MODE = "heap";
@@ -223,7 +244,13 @@ public class CommonConstants {
         "com.linkedin.pinot.server.request.SimpleRequestHandlerFactory";
     public static final String DEFAULT_SEGMENT_LOAD_MAX_RETRY_COUNT = "5";
     public static final String DEFAULT_SEGMENT_LOAD_MIN_RETRY_DELAY_MILLIS = "60000";
+    public static final boolean DEFAULT_ENABLE_SEGMENT_PRELOAD = false;
+    public static final int DEFAULT_SEGMENT_PRELOAD_THREADS = 8;
+    public static final boolean DEFAULT_USE_UNSAFE_DATA_BUFFER = false;
     public static final String PREFIX_OF_CONFIG_OF_SEGMENT_FETCHER_FACTORY = "pinot.server.segment.fetcher";
+    public static final String PREFIX_OF_CONFIG_OF_SEGMENT_DEEP_STORE = "pinot.server.segment.deepStore";
+    public static final String DEFAULT_INDEX_BUFFER_CACHE_DIR_NAME = "indexBufferCache";
+    public static final long DEFAULT_INDEX_BUFFER_CACHE_MAX_SIZE_BYTES = 10L * 1024 * 1024 * 1024;
     public static final String DEFAULT_SEGMENT_FORMAT_VERSION = "v3";
     public static final String DEFAULT_STAR_TREE_FORMAT_VERSION = "OFF_HEAP";
     public static final String DEFAULT_COLUMN_MIN_MAX_VALUE_GENERATOR_MODE = "TIME";
@@ -264,6 +291,8 @@ public class CommonConstants {
     public static final String CRC = "segment.crc";
     public static final String CREATION_TIME = "segment.creation.time";
     public static final String FLUSH_THRESHOLD_SIZE = "segment.flush.threshold.size";
+    public static final String PARTITION_METADATA = "segment.partition.metadata";
+    public static final String COLUMN_MIN_MAX_METADATA = "segment.column.min.max.metadata";
 
     public static enum SegmentType {
       OFFLINE,
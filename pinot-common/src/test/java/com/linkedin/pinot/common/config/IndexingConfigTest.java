@@ -41,6 +41,7 @@ public class IndexingConfigTest {
     json.put("invertedIndexColumns", Arrays.asList("a", "b", "c"));
     json.put("sortedColumn", Arrays.asList("d", "e", "f"));
     json.put("loadMode", "MMAP");
+    json.put("runLengthEncodedColumns", Arrays.asList("g"));
     json.put("keyThatIsUnknown", "randomValue");
 
     ObjectMapper mapper = new ObjectMapper();
@@ -59,6 +60,8 @@ public class IndexingConfigTest {
     Assert.assertEquals("d", sortedIndexColumns.get(0));
     Assert.assertEquals("e", sortedIndexColumns.get(1));
     Assert.assertEquals("f", sortedIndexColumns.get(2));
+
+    Assert.assertEquals(indexingConfig.getRunLengthEncodedColumns(), Arrays.asList("g"));
   }
 
   @Test
@@ -18,6 +18,7 @@ package com.linkedin.pinot.common.config;
 import java.io.IOException;
 import org.apache.commons.configuration.ConfigurationRuntimeException;
 import org.codehaus.jackson.map.ObjectMapper;
+import org.json.JSONException;
 import org.testng.Assert;
 import org.testng.annotations.Test;
 
@@ -25,7 +26,7 @@ public class QuotaConfigTest {
 
   @Test
   public void testQuotaConfig()
-      throws IOException {
+      throws IOException, JSONException {
     {
       String quotaConfigStr = "{\"storage\" : \"100g\"}";
       QuotaConfig quotaConfig = new ObjectMapper().readValue(quotaConfigStr, QuotaConfig.class);
@@ -38,9 +39,36 @@ public class QuotaConfigTest {
       QuotaConfig quotaConfig = new ObjectMapper().readValue(quotaConfigStr, QuotaConfig.class);
       Assert.assertNull(quotaConfig.getStorage());
       Assert.assertEquals(quotaConfig.storageSizeBytes(), -1);
+      Assert.assertNull(quotaConfig.getMaxQueriesPerSecond());
+      Assert.assertEquals(quotaConfig.maxQueriesPerSecondValue(), -1.0);
+    }
+    {
+      String quotaConfigStr = "{\"storage\" : \"10g\", \"maxQueriesPerSecond\" : \"100.5\"}";
+      QuotaConfig quotaConfig = new ObjectMapper().readValue(quotaConfigStr, QuotaConfig.class);
+      quotaConfig.validate();
+      Assert.assertEquals(quotaConfig.getMaxQueriesPerSecond(), "100.5");
+      Assert.assertEquals(quotaConfig.maxQueriesPerSecondValue(), 100.5);
+
+      QuotaConfig deserialized =
+          new ObjectMapper().readValue(new ObjectMapper().writeValueAsString(quotaConfig), QuotaConfig.class);
+      Assert.assertEquals(deserialized.getMaxQueriesPerSecond(), "100.5");
+      Assert.assertEquals(quotaConfig.toJson().getString("maxQueriesPerSecond"), "100.5");
+    }
+    {
+      String quotaConfigStr = "{\"maxQueriesPerSecond\" : 50}";
+      QuotaConfig quotaConfig = new ObjectMapper().readValue(quotaConfigStr, QuotaConfig.class);
+      Assert.assertEquals(quotaConfig.maxQueriesPerSecondValue(), 50.0);
     }
   }
 
+  @Test(expectedExceptions = ConfigurationRuntimeException.class)
+  public void testBadMaxQueriesPerSecondConfig()
+      throws IOException {
+    String quotaConfigStr = "{\"maxQueriesPerSecond\":\"0\"}";
+    QuotaConfig quotaConfig = new ObjectMapper().readValue(quotaConfigStr, QuotaConfig.class);
+    quotaConfig.validate();
+  }
+
   @Test
   public void testBadQuotaConfig ()
       throws IOException {
@@ -15,14 +15,21 @@
  */
 package com.linkedin.pinot.common.metadata;
 
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.concurrent.TimeUnit;
 
+import org.apache.commons.lang.math.IntRange;
 import org.apache.helix.ZNRecord;
 import org.testng.Assert;
 import org.testng.annotations.Test;
 
+import com.linkedin.pinot.common.data.FieldSpec;
+import com.linkedin.pinot.common.metadata.segment.ColumnMinMaxMetadata;
+import com.linkedin.pinot.common.metadata.segment.ColumnPartitionMetadata;
 import com.linkedin.pinot.common.metadata.segment.OfflineSegmentZKMetadata;
 import com.linkedin.pinot.common.metadata.segment.RealtimeSegmentZKMetadata;
+import com.linkedin.pinot.common.metadata.segment.SegmentPartitionMetadata;
 import com.linkedin.pinot.common.utils.CommonConstants;
 import com.linkedin.pinot.common.utils.CommonConstants.Segment.Realtime.Status;
 import com.linkedin.pinot.common.utils.CommonConstants.Segment.SegmentType;
@@ -63,6 +70,47 @@ public class SegmentZKMetadataTest {
     Assert.assertTrue(offlineSegmentMetadata.equals(new OfflineSegmentZKMetadata(offlineSegmentMetadata.toZNRecord())));
   }
 
+  @Test
+  public void segmentPartitionMetadataConvertionTest() {
+    OfflineSegmentZKMetadata offlineSegmentMetadata = getTestOfflineSegmentMetadata();
+    ColumnPartitionMetadata columnPartitionMetadata =
+        new ColumnPartitionMetadata("Murmur", 8, FieldSpec.DataType.LONG, Arrays.asList(new IntRange(1, 2),
+            new IntRange(5)));
+    offlineSegmentMetadata.setPartitionMetadata(
+        new SegmentPartitionMetadata(Collections.singletonMap("memberId", columnPartitionMetadata)));
+
+    ZNRecord znRecord = offlineSegmentMetadata.toZNRecord();
+    Assert.assertNotNull(znRecord.getSimpleField(CommonConstants.Segment.PARTITION_METADATA));
+    OfflineSegmentZKMetadata convertedSegmentMetadata = new OfflineSegmentZKMetadata(znRecord);
+    Assert.assertEquals(convertedSegmentMetadata, offlineSegmentMetadata);
+    ColumnPartitionMetadata convertedColumnPartitionMetadata =
+        convertedSegmentMetadata.getPartitionMetadata().getColumnPartitionMap().get("memberId");
+    Assert.assertEquals(convertedColumnPartitionMetadata.getFunctionName(), "Murmur");
+    Assert.assertEquals(convertedColumnPartitionMetadata.getNumPartitions(), 8);
+    Assert.assertEquals(convertedColumnPartitionMetadata.getDataType(), FieldSpec.DataType.LONG);
+    Assert.assertEquals(convertedColumnPartitionMetadata.getPartitionRanges(),
+        Arrays.asList(new IntRange(1, 2), new IntRange(5)));
+
+    // Segments without partition metadata
+    Assert.assertNull(new OfflineSegmentZKMetadata(getTestOfflineSegmentZNRecord()).getPartitionMetadata());
+  }
+
+  @Test
+  public void columnMinMaxMetadataConvertionTest() {
+    RealtimeSegmentZKMetadata realtimeSegmentMetadata = getTestDoneRealtimeSegmentMetadata();
+    realtimeSegmentMetadata.setColumnMinMaxMetadata(
+        Collections.singletonMap("daysSinceEpoch", new ColumnMinMaxMetadata(FieldSpec.DataType.INT, "17000", "17010")));
+
+    RealtimeSegmentZKMetadata convertedSegmentMetadata =
+        new RealtimeSegmentZKMetadata(realtimeSegmentMetadata.toZNRecord());
+    Assert.assertEquals(convertedSegmentMetadata, realtimeSegmentMetadata);
+    ColumnMinMaxMetadata columnMinMaxMetadata = convertedSegmentMetadata.getColumnMinMaxMetadata().get("daysSinceEpoch");
+    Assert.assertEquals(columnMinMaxMetadata.getDataType(), FieldSpec.DataType.INT);
+    Assert.assertEquals(columnMinMaxMetadata.getMinValue(), "17000");
+    Assert.assertEquals(columnMinMaxMetadata.getMaxValue(), "17010");
+    Assert.assertNull(new RealtimeSegmentZKMetadata(getTestDoneRealtimeSegmentZNRecord()).getColumnMinMaxMetadata());
+  }
+
   private ZNRecord getTestDoneRealtimeSegmentZNRecord() {
     String segmentName = "testTable_R_1000_2000_groupId0_part0";
     ZNRecord record = new ZNRecord(segmentName);
@@ -139,4 +139,6 @@ struct InstanceRequest {
   3: optional list<string> searchSegments;
   4: optional bool enableTrace;
   5: optional string brokerId;
+  6: optional i64 timeoutMs;
+  7: optional string responseCompression;
 }
@@ -30,6 +30,7 @@ import com.linkedin.pinot.common.metrics.ControllerMetrics;
 import com.linkedin.pinot.common.protocols.SegmentCompletionProtocol;
 import com.linkedin.pinot.common.utils.CommonConstants;
 import com.linkedin.pinot.common.utils.ControllerTenantNameBuilder;
+import com.linkedin.pinot.common.utils.DataSize;
 import com.linkedin.pinot.common.utils.LLCSegmentName;
 import com.linkedin.pinot.common.utils.SegmentName;
 import com.linkedin.pinot.common.utils.StringUtil;
@@ -41,6 +42,7 @@ import com.linkedin.pinot.controller.ControllerConf;
 import com.linkedin.pinot.controller.helix.core.PinotHelixResourceManager;
 import com.linkedin.pinot.controller.helix.core.PinotHelixSegmentOnlineOfflineStateModelGenerator;
 import com.linkedin.pinot.controller.helix.core.PinotTableIdealStateBuilder;
+import com.linkedin.pinot.controller.helix.core.util.ZKMetadataUtils;
 import com.linkedin.pinot.core.realtime.impl.kafka.KafkaHighLevelStreamProviderConfig;
 import com.linkedin.pinot.core.realtime.impl.kafka.KafkaSimpleConsumerFactoryImpl;
 import com.linkedin.pinot.core.realtime.impl.kafka.SimpleConsumerWrapper;
@@ -498,6 +500,8 @@ public class PinotLLCRealtimeSegmentManager {
     oldSegMetadata.setTimeUnit(TimeUnit.MILLISECONDS);
     oldSegMetadata.setIndexVersion(segmentMetadata.getVersion());
     oldSegMetadata.setTotalRawDocs(segmentMetadata.getTotalRawDocs());
+    oldSegMetadata.setPartitionMetadata(ZKMetadataUtils.extractPartitionMetadata(segmentMetadata));
+    oldSegMetadata.setColumnMinMaxMetadata(ZKMetadataUtils.extractColumnMinMaxMetadata(segmentMetadata));
 
     final ZNRecord oldZnRecord = oldSegMetadata.toZNRecord();
     final String oldZnodePath = ZKMetadataProvider.constructPropertyStorePathForSegment(realtimeTableName, committingSegmentNameStr);
@@ -522,6 +526,20 @@ public class PinotLLCRealtimeSegmentManager {
     final LLCRealtimeSegmentZKMetadata newSegmentZKMetadata = new LLCRealtimeSegmentZKMetadata(newZnRecord);
     updateFlushThresholdForSegmentMetadata(newSegmentZKMetadata, partitionAssignment,
         getRealtimeTableFlushSizeForTable(rawTableName));
+    long desiredSegmentSizeBytes = getRealtimeTableFlushDesiredSizeForTable(rawTableName);
+    if (desiredSegmentSizeBytes > 0) {
+      long committedSegmentSizeBytes = getCommittedSegmentSizeBytes(rawTableName, committingSegmentNameStr);
+      int previousThreshold = oldSegMetadata.getSizeThresholdToFlushSegment();
+      if (previousThreshold <= 0) {
+        previousThreshold = newSegmentZKMetadata.getSizeThresholdToFlushSegment();
+      }
+      int newThreshold = SegmentSizeBasedFlushThresholdComputer.computeThreshold(desiredSegmentSizeBytes,
+          segmentMetadata.getTotalRawDocs(), committedSegmentSizeBytes, previousThreshold);
+      LOGGER.info("Setting flush threshold of {} to {} rows (committed segment {} has {} rows in {} bytes)",
+          newSegmentNameStr, newThreshold, committingSegmentNameStr, segmentMetadata.getTotalRawDocs(),
+          committedSegmentSizeBytes);
+      newSegmentZKMetadata.setSizeThresholdToFlushSegment(newThreshold);
+    }
     newZnRecord = newSegmentZKMetadata.toZNRecord();
 
     final String newZnodePath = ZKMetadataProvider.constructPropertyStorePathForSegment(realtimeTableName, newSegmentNameStr);
@@ -574,6 +592,26 @@ public class PinotLLCRealtimeSegmentManager {
     return getRealtimeTableFlushSize(tableConfig);
   }
 
+  protected long getRealtimeTableFlushDesiredSizeForTable(String tableName) {
+    if (_propertyStore == null) {
+      return -1;
+    }
+    AbstractTableConfig tableConfig = ZKMetadataProvider.getRealtimeTableConfig(_propertyStore, tableName);
+    return getRealtimeTableFlushDesiredSize(tableConfig);
+  }
+
+  /**
+   * Returns the size in bytes of the segment file uploaded for a committing segment, or -1 if it cannot be found.
+   */
+  protected long getCommittedSegmentSizeBytes(final String rawTableName, final String segmentNameStr) {
+    File segmentFile = new File(StringUtil.join("/", _controllerConf.getDataDir(), rawTableName, segmentNameStr));
+    if (!segmentFile.isFile()) {
+      LOGGER.warn("Segment file {} not found", segmentFile);
+      return -1;
+    }
+    return segmentFile.length();
+  }
+
   public long getCommitTimeoutMS(String tableName) {
     long commitTimeoutMS = SegmentCompletionProtocol.getMaxSegmentCommitTimeMs();
     if (_propertyStore == null) {
@@ -612,6 +650,25 @@ public class PinotLLCRealtimeSegmentManager {
     return -1;
   }
 
+  /**
+   * Returns the desired size of committed segments in bytes for the given table, or -1 if not configured.
+   */
+  public static long getRealtimeTableFlushDesiredSize(AbstractTableConfig tableConfig) {
+    final Map<String, String> streamConfigs = tableConfig.getIndexingConfig().getStreamConfigs();
+    if (streamConfigs != null && streamConfigs.containsKey(
+        CommonConstants.Helix.DataSource.Realtime.REALTIME_SEGMENT_FLUSH_DESIRED_SIZE)) {
+      final String desiredSizeStr =
+          streamConfigs.get(CommonConstants.Helix.DataSource.Realtime.REALTIME_SEGMENT_FLUSH_DESIRED_SIZE);
+      long desiredSize = DataSize.toBytes(desiredSizeStr);
+      if (desiredSize <= 0) {
+        LOGGER.warn("Failed to parse desired segment size of {}", desiredSizeStr);
+      }
+      return desiredSize;
+    }
+
+    return -1;
+  }
+
   /**
    * Extract the segment metadata files from the tar-zipped segment file that is expected to be in the directory for the
    * table.
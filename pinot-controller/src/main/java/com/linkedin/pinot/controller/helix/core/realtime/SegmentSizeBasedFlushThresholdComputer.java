@@ -0,0 +1,65 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.controller.helix.core.realtime;
+
+/**
+ * Computes the row count flush threshold of the next LLC segment of a partition so that committed segments converge
+ * to a desired size.
+ * <p>The number of rows that fit in the desired size is extrapolated from the number of rows and the size of the
+ * segment that was just committed for the partition, and then averaged with the previous threshold to smooth out
+ * variations in the data. This works regardless of whether the committed segment ended on the row threshold or on the
+ * time threshold, since only the ratio between its size and its number of rows is used.
+ */
+public class SegmentSizeBasedFlushThresholdComputer {
+  static final int MINIMUM_ROWS_THRESHOLD = 10_000;
+  // Weight of the threshold extrapolated from the committed segment, the rest comes from the previous threshold
+  static final double CURRENT_SEGMENT_WEIGHT = 0.5;
+  // Bound on the growth of the threshold from one segment to the next
+  static final int MAXIMUM_GROWTH_FACTOR = 4;
+
+  private SegmentSizeBasedFlushThresholdComputer() {
+  }
+
+  /**
+   * Computes the row count flush threshold for the next segment of a partition.
+   *
+   * @param desiredSegmentSizeBytes Desired size of committed segments in bytes
+   * @param committedSegmentNumRows Number of rows in the segment that was just committed
+   * @param committedSegmentSizeBytes Size of the segment that was just committed in bytes
+   * @param previousThreshold Row count flush threshold of the segment that was just committed, or a non positive value
+   *                          if unknown
+   * @return The row count flush threshold for the next segment, or the previous threshold if there is not enough
+   *         information to compute a new one
+   */
+  public static int computeThreshold(long desiredSegmentSizeBytes, long committedSegmentNumRows,
+      long committedSegmentSizeBytes, int previousThreshold) {
+    if (desiredSegmentSizeBytes <= 0 || committedSegmentNumRows <= 0 || committedSegmentSizeBytes <= 0) {
+      return previousThreshold;
+    }
+
+    double extrapolatedThreshold =
+        (double) committedSegmentNumRows * desiredSegmentSizeBytes / committedSegmentSizeBytes;
+    double threshold;
+    if (previousThreshold > 0) {
+      threshold = CURRENT_SEGMENT_WEIGHT * extrapolatedThreshold + (1 - CURRENT_SEGMENT_WEIGHT) * previousThreshold;
+      threshold = Math.min(threshold, (double) previousThreshold * MAXIMUM_GROWTH_FACTOR);
+    } else {
+      threshold = extrapolatedThreshold;
+    }
+
+    return (int) Math.max(MINIMUM_ROWS_THRESHOLD, Math.min(threshold, Integer.MAX_VALUE));
+  }
+}
@@ -15,13 +15,25 @@
  */
 package com.linkedin.pinot.controller.helix.core.util;
 
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.TimeUnit;
 
+import javax.annotation.Nullable;
+import org.apache.commons.lang.math.IntRange;
 import org.joda.time.Duration;
 
+import com.linkedin.pinot.common.data.FieldSpec;
+import com.linkedin.pinot.common.metadata.segment.ColumnMinMaxMetadata;
+import com.linkedin.pinot.common.metadata.segment.ColumnPartitionMetadata;
 import com.linkedin.pinot.common.metadata.segment.OfflineSegmentZKMetadata;
+import com.linkedin.pinot.common.metadata.segment.SegmentPartitionMetadata;
+import com.linkedin.pinot.common.partition.PartitionFunction;
 import com.linkedin.pinot.common.segment.SegmentMetadata;
 import com.linkedin.pinot.common.utils.CommonConstants.Segment.SegmentType;
+import com.linkedin.pinot.core.segment.index.ColumnMetadata;
+import com.linkedin.pinot.core.segment.index.SegmentMetadataImpl;
 
 
 public class ZKMetadataUtils {
@@ -45,9 +57,74 @@ public class ZKMetadataUtils {
     offlineSegmentZKMetadata.setTotalRawDocs(segmentMetadata.getTotalRawDocs());
     offlineSegmentZKMetadata.setCreationTime(segmentMetadata.getIndexCreationTime());
     offlineSegmentZKMetadata.setCrc(Long.parseLong(segmentMetadata.getCrc()));
+    offlineSegmentZKMetadata.setPartitionMetadata(extractPartitionMetadata(segmentMetadata));
+    offlineSegmentZKMetadata.setColumnMinMaxMetadata(extractColumnMinMaxMetadata(segmentMetadata));
     return offlineSegmentZKMetadata;
   }
 
+  /**
+   * Returns the partition metadata of the partitioned columns of the segment, or null if it has none.
+   */
+  @Nullable
+  public static SegmentPartitionMetadata extractPartitionMetadata(SegmentMetadata segmentMetadata) {
+    if (!(segmentMetadata instanceof SegmentMetadataImpl)) {
+      return null;
+    }
+    Map<String, ColumnMetadata> columnMetadataMap = ((SegmentMetadataImpl) segmentMetadata).getColumnMetadataMap();
+    if (columnMetadataMap == null) {
+      return null;
+    }
+
+    Map<String, ColumnPartitionMetadata> columnPartitionMap = new HashMap<>();
+    for (Map.Entry<String, ColumnMetadata> entry : columnMetadataMap.entrySet()) {
+      ColumnMetadata columnMetadata = entry.getValue();
+      PartitionFunction partitionFunction = columnMetadata.getPartitionFunction();
+      List<IntRange> partitionRanges = columnMetadata.getPartitionRanges();
+      if (partitionFunction != null && partitionRanges != null && !partitionRanges.isEmpty()) {
+        columnPartitionMap.put(entry.getKey(),
+            new ColumnPartitionMetadata(partitionFunction.toString(), columnMetadata.getNumPartitions(),
+                columnMetadata.getDataType(), partitionRanges));
+      }
+    }
+    return columnPartitionMap.isEmpty() ? null : new SegmentPartitionMetadata(columnPartitionMap);
+  }
+
+  /**
+   * Returns the min/max values of the numeric dimension and time columns of the segment, or null if it has none.
+   * Other columns are left out to keep the segment ZK metadata small.
+   */
+  @Nullable
+  public static Map<String, ColumnMinMaxMetadata> extractColumnMinMaxMetadata(SegmentMetadata segmentMetadata) {
+    if (!(segmentMetadata instanceof SegmentMetadataImpl)) {
+      return null;
+    }
+    Map<String, ColumnMetadata> columnMetadataMap = ((SegmentMetadataImpl) segmentMetadata).getColumnMetadataMap();
+    if (columnMetadataMap == null) {
+      return null;
+    }
+
+    Map<String, ColumnMinMaxMetadata> columnMinMaxMap = new HashMap<>();
+    for (Map.Entry<String, ColumnMetadata> entry : columnMetadataMap.entrySet()) {
+      ColumnMetadata columnMetadata = entry.getValue();
+      FieldSpec.FieldType fieldType = columnMetadata.getFieldType();
+      if (fieldType != FieldSpec.FieldType.DIMENSION && fieldType != FieldSpec.FieldType.TIME) {
+        continue;
+      }
+      FieldSpec.DataType dataType = columnMetadata.getDataType();
+      if (dataType != FieldSpec.DataType.INT && dataType != FieldSpec.DataType.LONG
+          && dataType != FieldSpec.DataType.FLOAT && dataType != FieldSpec.DataType.DOUBLE) {
+        continue;
+      }
+      Comparable minValue = columnMetadata.getMinValue();
+      Comparable maxValue = columnMetadata.getMaxValue();
+      if (minValue != null && maxValue != null) {
+        columnMinMaxMap.put(entry.getKey(),
+            new ColumnMinMaxMetadata(dataType, minValue.toString(), maxValue.toString()));
+      }
+    }
+    return columnMinMaxMap.isEmpty() ? null : columnMinMaxMap;
+  }
+
   private static TimeUnit extractTimeUnitFromDuration(Duration timeGranularity) {
     if (timeGranularity == null) {
       return null;
@@ -0,0 +1,64 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.controller.helix.core.realtime;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+
+public class SegmentSizeBasedFlushThresholdComputerTest {
+  private static final long DESIRED_SIZE = 200L * 1024 * 1024;
+
+  @Test
+  public void testMissingInformation() {
+    Assert.assertEquals(SegmentSizeBasedFlushThresholdComputer.computeThreshold(-1, 100_000, DESIRED_SIZE, 50_000),
+        50_000);
+    Assert.assertEquals(SegmentSizeBasedFlushThresholdComputer.computeThreshold(DESIRED_SIZE, 0, DESIRED_SIZE, 50_000),
+        50_000);
+    Assert.assertEquals(SegmentSizeBasedFlushThresholdComputer.computeThreshold(DESIRED_SIZE, 100_000, -1, 50_000),
+        50_000);
+  }
+
+  @Test
+  public void testConvergence() {
+    // Each row takes 1KB, so the desired size holds 204800 rows
+    final int bytesPerRow = 1024;
+    final int expectedThreshold = (int) (DESIRED_SIZE / bytesPerRow);
+    int threshold = 100_000;
+    for (int i = 0; i < 20; i++) {
+      threshold = SegmentSizeBasedFlushThresholdComputer.computeThreshold(DESIRED_SIZE, threshold,
+          (long) threshold * bytesPerRow, threshold);
+    }
+    Assert.assertTrue(Math.abs(threshold - expectedThreshold) <= 1, "Threshold " + threshold);
+  }
+
+  @Test
+  public void testSmoothingAndBounds() {
+    // Segment half the desired size, committed on the time threshold before reaching the row threshold
+    Assert.assertEquals(
+        SegmentSizeBasedFlushThresholdComputer.computeThreshold(DESIRED_SIZE, 50_000, DESIRED_SIZE / 2, 200_000),
+        150_000);
+
+    // Growth is bounded with respect to the previous threshold
+    Assert.assertEquals(
+        SegmentSizeBasedFlushThresholdComputer.computeThreshold(DESIRED_SIZE, 20_000, 1024, 20_000), 80_000);
+
+    // Threshold never falls below the minimum
+    Assert.assertEquals(
+        SegmentSizeBasedFlushThresholdComputer.computeThreshold(DESIRED_SIZE, 10, DESIRED_SIZE * 10, 20),
+        SegmentSizeBasedFlushThresholdComputer.MINIMUM_ROWS_THRESHOLD);
+  }
+}
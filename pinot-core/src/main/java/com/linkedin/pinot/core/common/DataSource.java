@@ -15,9 +15,11 @@
  */
 package com.linkedin.pinot.core.common;
 
+import com.linkedin.pinot.core.io.reader.impl.RunLengthSingleValueReader;
 import com.linkedin.pinot.core.operator.BaseOperator;
 import com.linkedin.pinot.core.segment.index.readers.InvertedIndexReader;
 import com.linkedin.pinot.core.segment.index.readers.Dictionary;
+import com.linkedin.pinot.core.segment.index.readers.ZoneMapReader;
 
 public abstract class DataSource extends BaseOperator {
 
@@ -28,4 +30,18 @@ public abstract class DataSource extends BaseOperator {
   public abstract InvertedIndexReader getInvertedIndex();
 
   public abstract Dictionary getDictionary();
+
+  /**
+   * Returns the zone map (min/max dictionary id per block of documents) of the column, or null if not available.
+   */
+  public ZoneMapReader getZoneMap() {
+    return null;
+  }
+
+  /**
+   * Returns the run length encoded forward index of the column, or null if the column is not run length encoded.
+   */
+  public RunLengthSingleValueReader getRunLengthIndex() {
+    return null;
+  }
 }
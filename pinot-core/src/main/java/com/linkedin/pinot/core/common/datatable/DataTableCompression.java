@@ -0,0 +1,145 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.core.common.datatable;
+
+import com.linkedin.pinot.core.io.compression.ChunkCompressorFactory.CompressionType;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import javax.annotation.Nonnull;
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Exception;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4SafeDecompressor;
+import org.xerial.snappy.Snappy;
+
+
+/**
+ * Compression of the serialized data tables sent by the servers to the brokers.
+ * <p>A compressed data table starts with {@link #COMPRESSED_DATA_TABLE_MARKER} in place of the data table version,
+ * followed by the id of the compression type, the size of the serialized data table and the compressed bytes. Only
+ * {@link CompressionType#SNAPPY} and {@link CompressionType#LZ4} are supported.
+ */
+public class DataTableCompression {
+  // Data table versions are positive
+  public static final int COMPRESSED_DATA_TABLE_MARKER = -1;
+
+  private static final int HEADER_SIZE = 12;
+  private static final int SNAPPY_ID = 1;
+  private static final int LZ4_ID = 2;
+  // Upper bound of the compression ratio of both Snappy and LZ4, used to reject corrupted sizes before allocating
+  private static final long MAX_COMPRESSION_RATIO = 255L;
+
+  private static final LZ4Compressor LZ4_COMPRESSOR = LZ4Factory.fastestInstance().fastCompressor();
+  private static final LZ4SafeDecompressor LZ4_DECOMPRESSOR = LZ4Factory.fastestInstance().safeDecompressor();
+
+  private DataTableCompression() {
+  }
+
+  public static boolean isSupported(@Nonnull CompressionType compressionType) {
+    return compressionType == CompressionType.SNAPPY || compressionType == CompressionType.LZ4;
+  }
+
+  /**
+   * Compresses the serialized data table.
+   *
+   * @param dataTableBytes Serialized data table.
+   * @param compressionType Compression type, must be supported.
+   * @return Compressed data table.
+   * @throws IOException
+   */
+  public static byte[] compress(@Nonnull byte[] dataTableBytes, @Nonnull CompressionType compressionType)
+      throws IOException {
+    int size = dataTableBytes.length;
+    byte[] compressed;
+    int compressedSize;
+    int compressionId;
+    switch (compressionType) {
+      case SNAPPY:
+        compressionId = SNAPPY_ID;
+        compressed = new byte[HEADER_SIZE + Snappy.maxCompressedLength(size)];
+        compressedSize = Snappy.compress(dataTableBytes, 0, size, compressed, HEADER_SIZE);
+        break;
+      case LZ4:
+        compressionId = LZ4_ID;
+        compressed = new byte[HEADER_SIZE + LZ4_COMPRESSOR.maxCompressedLength(size)];
+        compressedSize = LZ4_COMPRESSOR.compress(dataTableBytes, 0, size, compressed, HEADER_SIZE,
+            compressed.length - HEADER_SIZE);
+        break;
+      default:
+        throw new IllegalArgumentException("Unsupported data table compression type: " + compressionType);
+    }
+
+    ByteBuffer header = ByteBuffer.wrap(compressed);
+    header.putInt(COMPRESSED_DATA_TABLE_MARKER);
+    header.putInt(compressionId);
+    header.putInt(size);
+    return Arrays.copyOf(compressed, HEADER_SIZE + compressedSize);
+  }
+
+  /**
+   * Returns true if the bytes are a compressed data table.
+   */
+  public static boolean isCompressed(@Nonnull byte[] bytes) {
+    return bytes.length >= HEADER_SIZE && ByteBuffer.wrap(bytes).getInt() == COMPRESSED_DATA_TABLE_MARKER;
+  }
+
+  /**
+   * Decompresses a data table compressed by {@link #compress(byte[], CompressionType)}.
+   *
+   * @param bytes Compressed data table.
+   * @return Serialized data table.
+   * @throws IOException If the compressed data table is corrupted.
+   */
+  public static byte[] decompress(@Nonnull byte[] bytes)
+      throws IOException {
+    ByteBuffer header = ByteBuffer.wrap(bytes);
+    int marker = header.getInt();
+    if (marker != COMPRESSED_DATA_TABLE_MARKER) {
+      throw new IllegalArgumentException("Data table is not compressed");
+    }
+    int compressionId = header.getInt();
+    int size = header.getInt();
+    int compressedSize = bytes.length - HEADER_SIZE;
+    if (size < 0 || size > compressedSize * MAX_COMPRESSION_RATIO) {
+      throw new IOException(
+          "Invalid size: " + size + " of data table compressed in " + compressedSize + " bytes, data table corrupted");
+    }
+    byte[] dataTableBytes = new byte[size];
+    int decompressedSize;
+    switch (compressionId) {
+      case SNAPPY_ID:
+        if (Snappy.uncompressedLength(bytes, HEADER_SIZE, compressedSize) != size) {
+          throw new IOException("Snappy uncompressed length does not match data table size: " + size);
+        }
+        decompressedSize = Snappy.uncompress(bytes, HEADER_SIZE, compressedSize, dataTableBytes, 0);
+        break;
+      case LZ4_ID:
+        try {
+          decompressedSize = LZ4_DECOMPRESSOR.decompress(bytes, HEADER_SIZE, compressedSize, dataTableBytes, 0, size);
+        } catch (LZ4Exception e) {
+          throw new IOException("Caught exception while decompressing LZ4 data table", e);
+        }
+        break;
+      default:
+        throw new UnsupportedOperationException("Unsupported data table compression: " + compressionId);
+    }
+    if (decompressedSize != size) {
+      throw new IOException("Decompressed " + decompressedSize + " bytes instead of data table size: " + size);
+    }
+    return dataTableBytes;
+  }
+}
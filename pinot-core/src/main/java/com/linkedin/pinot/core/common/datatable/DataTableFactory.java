@@ -17,6 +17,7 @@ package com.linkedin.pinot.core.common.datatable;
 
 import com.linkedin.pinot.common.utils.DataTable;
 import java.io.IOException;
+import java.nio.BufferUnderflowException;
 import java.nio.ByteBuffer;
 
 
@@ -31,8 +32,32 @@ public class DataTableFactory {
     switch (version) {
       case 2:
         return new DataTableImplV2(byteBuffer);
+      case DataTableCompression.COMPRESSED_DATA_TABLE_MARKER:
+        return getDataTable(DataTableCompression.decompress(bytes));
       default:
         throw new UnsupportedOperationException("Unsupported data table version: " + version);
     }
   }
+
+  /**
+   * Returns true if the serialized data table has no column and carries an exception with the given error code, e.g.
+   * the response of a server which rejected the query. Unlike {@link #getDataTable(byte[])}, only the header and the
+   * metadata of the data table are read, and the position of the byte buffer is not changed. Compressed data tables
+   * are not inspected, this method returns false for them.
+   */
+  public static boolean isEmptyWithException(ByteBuffer byteBuffer, int errorCode) {
+    ByteBuffer duplicate = byteBuffer.duplicate();
+    try {
+      int version = duplicate.getInt();
+      switch (version) {
+        case 2:
+          return DataTableImplV2.isEmptyWithException(duplicate, errorCode);
+        default:
+          return false;
+      }
+    } catch (IndexOutOfBoundsException | BufferUnderflowException e) {
+      // Malformed data tables are reported when deserialized
+      return false;
+    }
+  }
 }
@@ -197,6 +197,45 @@ public class DataTableImplV2 implements DataTable {
     return dictionaryMap;
   }
 
+  /**
+   * Returns true if the serialized data table starting at the current position of the byte buffer (after the version)
+   * has no column and carries an exception with the given error code. Only the header and the metadata are read, and
+   * the position of the byte buffer is not changed.
+   */
+  static boolean isEmptyWithException(@Nonnull ByteBuffer byteBuffer, int errorCode) {
+    // Offsets in the data table start before the version
+    int start = byteBuffer.position() - Integer.SIZE / Byte.SIZE;
+    int numColumns = byteBuffer.getInt(start + 8);
+    if (numColumns != 0) {
+      return false;
+    }
+    int metadataStart = start + byteBuffer.getInt(start + 20);
+    byte[] exceptionKeyBytes = (EXCEPTION_METADATA_KEY + errorCode).getBytes(UTF_8);
+    int position = metadataStart;
+    int numEntries = byteBuffer.getInt(position);
+    position += 4;
+    for (int i = 0; i < numEntries; i++) {
+      int keyLength = byteBuffer.getInt(position);
+      position += 4;
+      if (keyLength == exceptionKeyBytes.length) {
+        boolean matches = true;
+        for (int j = 0; j < keyLength; j++) {
+          if (byteBuffer.get(position + j) != exceptionKeyBytes[j]) {
+            matches = false;
+            break;
+          }
+        }
+        if (matches) {
+          return true;
+        }
+      }
+      position += keyLength;
+      int valueLength = byteBuffer.getInt(position);
+      position += 4 + valueLength;
+    }
+    return false;
+  }
+
   private Map<String, String> deserializeMetadata(byte[] bytes)
       throws IOException {
     ByteArrayInputStream byteArrayInputStream = new ByteArrayInputStream(bytes);
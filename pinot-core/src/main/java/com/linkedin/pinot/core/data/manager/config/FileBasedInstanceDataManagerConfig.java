@@ -54,6 +54,12 @@ public class FileBasedInstanceDataManagerConfig implements InstanceDataManagerCo
   private static final String SEGMENT_FORMAT_VERSION = "segment.format.version";
   // Key of whether to enable default columns
   private static final String ENABLE_DEFAULT_COLUMNS = "enable.default.columns";
+  // Key of the number of threads used to build the indexes of different columns in parallel when committing segments
+  private static final String NUM_INDEX_CREATION_THREADS = "segment.index.creation.threads";
+  // Key of which indexes to read into the page cache when loading segments (NONE, INDEX or ALL)
+  private static final String SEGMENT_WARMUP_MODE = "segment.warmup.mode";
+  // Key of the number of threads used to warm up segments
+  private static final String NUM_SEGMENT_WARMUP_THREADS = "segment.warmup.threads";
 
   private static String[] REQUIRED_KEYS = { INSTANCE_ID, INSTANCE_DATA_DIR, INSTANCE_TABLE_NAME };
   private Configuration _instanceDataManagerConfiguration = null;
@@ -147,6 +153,21 @@ public class FileBasedInstanceDataManagerConfig implements InstanceDataManagerCo
     return _instanceDataManagerConfiguration.getBoolean(ENABLE_DEFAULT_COLUMNS, false);
   }
 
+  @Override
+  public int getNumIndexCreationThreads() {
+    return _instanceDataManagerConfiguration.getInt(NUM_INDEX_CREATION_THREADS, 1);
+  }
+
+  @Override
+  public String getSegmentWarmupMode() {
+    return _instanceDataManagerConfiguration.getString(SEGMENT_WARMUP_MODE, null);
+  }
+
+  @Override
+  public int getNumSegmentWarmupThreads() {
+    return _instanceDataManagerConfiguration.getInt(NUM_SEGMENT_WARMUP_THREADS, 2);
+  }
+
   @Override
   public String toString() {
     String configString = "";
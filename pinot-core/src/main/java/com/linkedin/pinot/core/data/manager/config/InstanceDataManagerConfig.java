@@ -39,4 +39,10 @@ public interface InstanceDataManagerConfig {
   String getAvgMultiValueCount();
 
   boolean isEnableDefaultColumns();
+
+  int getNumIndexCreationThreads();
+
+  String getSegmentWarmupMode();
+
+  int getNumSegmentWarmupThreads();
 }
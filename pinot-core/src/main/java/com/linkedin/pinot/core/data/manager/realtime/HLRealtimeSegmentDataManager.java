@@ -32,6 +32,7 @@ import com.linkedin.pinot.core.data.manager.offline.SegmentDataManager;
 import com.linkedin.pinot.core.indexsegment.IndexSegment;
 import com.linkedin.pinot.core.indexsegment.columnar.ColumnarSegmentLoader;
 import com.linkedin.pinot.core.indexsegment.generator.SegmentVersion;
+import com.linkedin.pinot.core.io.compression.ChunkCompressorFactory;
 import com.linkedin.pinot.core.realtime.StreamProvider;
 import com.linkedin.pinot.core.realtime.StreamProviderConfig;
 import com.linkedin.pinot.core.realtime.StreamProviderFactory;
@@ -85,6 +86,7 @@ public class HLRealtimeSegmentDataManager extends SegmentDataManager {
   private final String sortedColumn;
   private final List<String> invertedIndexColumns;
   private final List<String> noDictionaryColumns;
+  private final Map<String, ChunkCompressorFactory.CompressionType> noDictionaryCompressionTypes;
   private Logger segmentLogger = LOGGER;
   private final SegmentVersion _segmentVersion;
   private final RealtimeTableDataManager _realtimeTableDataManager;
@@ -125,19 +127,16 @@ public class HLRealtimeSegmentDataManager extends SegmentDataManager {
     }
 
     // Inverted index columns
+    // The sorted column does not need an inverted index, the records are sorted on it from its forward index and
+    // dictionary when the realtime in memory segment is converted into an offline segment.
     Set<String> invertedIndexColumns = indexLoadingConfig.getInvertedIndexColumns();
-    // We need to add sorted column into inverted index columns because when we convert realtime in memory segment into
-    // offline segment, we use sorted column's inverted index to maintain the order of the records so that the records
-    // are sorted on the sorted column.
-    if (sortedColumn != null) {
-      invertedIndexColumns.add(sortedColumn);
-    }
     this.invertedIndexColumns = new ArrayList<>(invertedIndexColumns);
 
     this.segmentMetatdaZk = segmentMetadata;
 
     // No DictionaryColumns
     noDictionaryColumns = new ArrayList<>(indexLoadingConfig.getNoDictionaryColumns());
+    noDictionaryCompressionTypes = indexLoadingConfig.getNoDictionaryCompressionTypes();
 
     // create and init stream provider config
     // TODO : ideally resourceMetatda should create and give back a streamProviderConfig
@@ -262,7 +261,9 @@ public class HLRealtimeSegmentDataManager extends SegmentDataManager {
               new RealtimeSegmentConverter(realtimeSegment, tempSegmentFolder.getAbsolutePath(), schema,
                   segmentMetadata.getTableName(), segmentMetadata.getSegmentName(), sortedColumn,
                   HLRealtimeSegmentDataManager.this.invertedIndexColumns,
-                  noDictionaryColumns, null/*StarTreeIndexSpec*/); // Star tree not supported for HLC.
+                  noDictionaryColumns, noDictionaryCompressionTypes, null/*StarTreeIndexSpec*/); // Star tree not supported for HLC.
+          converter.setNumIndexCreationThreads(indexLoadingConfig.getNumIndexCreationThreads());
+          converter.setRunLengthEncodedColumns(new ArrayList<>(indexLoadingConfig.getRunLengthEncodedColumns()));
 
           segmentLogger.info("Trying to build segment");
           final long buildStartTime = System.nanoTime();
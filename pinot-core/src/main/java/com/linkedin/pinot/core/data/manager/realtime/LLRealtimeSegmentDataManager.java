@@ -38,11 +38,12 @@ import com.linkedin.pinot.core.data.GenericRow;
 import com.linkedin.pinot.core.data.extractors.FieldExtractorFactory;
 import com.linkedin.pinot.core.data.extractors.PlainFieldExtractor;
 import com.linkedin.pinot.core.data.manager.offline.SegmentDataManager;
-import com.linkedin.pinot.core.data.partition.PartitionFunctionFactory;
+import com.linkedin.pinot.common.partition.PartitionFunctionFactory;
 import com.linkedin.pinot.core.indexsegment.IndexSegment;
 import com.linkedin.pinot.common.config.ColumnPartitionConfig;
 import com.linkedin.pinot.common.config.SegmentPartitionConfig;
 import com.linkedin.pinot.core.indexsegment.generator.SegmentVersion;
+import com.linkedin.pinot.core.io.compression.ChunkCompressorFactory;
 import com.linkedin.pinot.core.realtime.converter.RealtimeSegmentConverter;
 import com.linkedin.pinot.core.realtime.impl.RealtimeSegmentImpl;
 import com.linkedin.pinot.core.realtime.impl.kafka.KafkaLowLevelStreamProviderConfig;
@@ -77,7 +78,7 @@ public class LLRealtimeSegmentDataManager extends SegmentDataManager {
   protected enum State {
     // The state machine starts off with this state. While in this state we consume kafka events
     // and index them in memory. We continue to be in this state until the end criteria is satisfied
-    // (time or number of rows)
+    // (time, number of rows or estimated memory usage)
     INITIAL_CONSUMING,
 
     // In this state, we consume from kafka until we reach the _finalOffset (exclusive)
@@ -132,6 +133,7 @@ public class LLRealtimeSegmentDataManager extends SegmentDataManager {
   private static final long TIME_THRESHOLD_FOR_LOG_MINUTES = 1;
   private static final long TIME_EXTENSION_ON_EMPTY_SEGMENT_HOURS = 1;
   private static final int MSG_COUNT_THRESHOLD_FOR_LOG = 100000;
+  private static final int ROW_COUNT_INTERVAL_FOR_MEMORY_CHECK = 1000;
   private final int MAX_CONSECUTIVE_ERROR_COUNT = 5;
 
   private final LLCRealtimeSegmentZKMetadata _segmentZKMetadata;
@@ -139,6 +141,7 @@ public class LLRealtimeSegmentDataManager extends SegmentDataManager {
   private final RealtimeTableDataManager _realtimeTableDataManager;
   private final KafkaMessageDecoder _messageDecoder;
   private final int _segmentMaxRowCount;
+  private final long _segmentMaxMemoryBytes;
   private final String _resourceDataDir;
   private final IndexLoadingConfig _indexLoadingConfig;
   private final Schema _schema;
@@ -174,6 +177,7 @@ public class LLRealtimeSegmentDataManager extends SegmentDataManager {
   private final String _tableName;
   private final List<String> _invertedIndexColumns;
   private final List<String> _noDictionaryColumns;
+  private final Map<String, ChunkCompressorFactory.CompressionType> _noDictionaryCompressionTypes;
   private final StarTreeIndexSpec _starTreeIndexSpec;
   private final String _sortedColumn;
   private Logger segmentLogger = LOGGER;
@@ -188,6 +192,8 @@ public class LLRealtimeSegmentDataManager extends SegmentDataManager {
 
   private long _lastLogTime = 0;
   private int _lastConsumedCount = 0;
+  private int _lastMemoryCheckCount = 0;
+  private boolean _memoryLimitReached = false;
 
 
   // TODO each time this method is called, we print reason for stop. Good to print only once.
@@ -211,6 +217,8 @@ public class LLRealtimeSegmentDataManager extends SegmentDataManager {
           segmentLogger.info("Stopping consumption due to row limit nRows={} maxNRows={}", _numRowsConsumed,
               _segmentMaxRowCount);
           return true;
+        } else if (memoryLimitReached()) {
+          return true;
         }
         return false;
 
@@ -250,6 +258,27 @@ public class LLRealtimeSegmentDataManager extends SegmentDataManager {
     }
   }
 
+  /**
+   * Checks the estimated memory usage of the consuming segment against the configured limit. Since the estimate walks
+   * over all columns, it is only computed every {@link #ROW_COUNT_INTERVAL_FOR_MEMORY_CHECK} rows.
+   */
+  private boolean memoryLimitReached() {
+    if (_memoryLimitReached) {
+      return true;
+    }
+    if (_segmentMaxMemoryBytes <= 0 || _numRowsConsumed - _lastMemoryCheckCount < ROW_COUNT_INTERVAL_FOR_MEMORY_CHECK) {
+      return false;
+    }
+    _lastMemoryCheckCount = _numRowsConsumed;
+    long estimatedMemoryBytes = _realtimeSegment.getEstimatedMemoryUsageInBytes();
+    if (estimatedMemoryBytes >= _segmentMaxMemoryBytes) {
+      segmentLogger.info("Stopping consumption due to memory limit nRows={} estimatedMemory={} maxMemory={}",
+          _numRowsConsumed, estimatedMemoryBytes, _segmentMaxMemoryBytes);
+      _memoryLimitReached = true;
+    }
+    return _memoryLimitReached;
+  }
+
   private void handleTransientKafkaErrors(Exception e) throws  Exception {
     consecutiveErrorCount++;
     if (consecutiveErrorCount > MAX_CONSECUTIVE_ERROR_COUNT) {
@@ -535,7 +564,9 @@ public class LLRealtimeSegmentDataManager extends SegmentDataManager {
     RealtimeSegmentConverter converter =
         new RealtimeSegmentConverter(_realtimeSegment, tempSegmentFolder.getAbsolutePath(), _schema,
             _segmentZKMetadata.getTableName(), _segmentZKMetadata.getSegmentName(), _sortedColumn,
-            _invertedIndexColumns, _noDictionaryColumns, _starTreeIndexSpec);
+            _invertedIndexColumns, _noDictionaryColumns, _noDictionaryCompressionTypes, _starTreeIndexSpec);
+    converter.setNumIndexCreationThreads(_indexLoadingConfig.getNumIndexCreationThreads());
+    converter.setRunLengthEncodedColumns(new ArrayList<>(_indexLoadingConfig.getRunLengthEncodedColumns()));
     logStatistics();
     segmentLogger.info("Trying to build segment");
     final long buildStartTime = now();
@@ -810,17 +841,14 @@ public class LLRealtimeSegmentDataManager extends SegmentDataManager {
     }
 
     // Inverted index columns
+    // The sorted column does not need an inverted index, the records are sorted on it from its forward index and
+    // dictionary when the realtime in memory segment is converted into an offline segment.
     Set<String> invertedIndexColumns = indexLoadingConfig.getInvertedIndexColumns();
-    // We need to add sorted column into inverted index columns because when we convert realtime in memory segment into
-    // offline segment, we use sorted column's inverted index to maintain the order of the records so that the records
-    // are sorted on the sorted column.
-    if (_sortedColumn != null) {
-      invertedIndexColumns.add(_sortedColumn);
-    }
     _invertedIndexColumns = new ArrayList<>(invertedIndexColumns);
 
     // No dictionary Columns
     _noDictionaryColumns = new ArrayList<>(indexLoadingConfig.getNoDictionaryColumns());
+    _noDictionaryCompressionTypes = indexLoadingConfig.getNoDictionaryCompressionTypes();
 
     // Read the star tree config
     _starTreeIndexSpec = indexingConfig.getStarTreeIndexSpec();
@@ -833,6 +861,7 @@ public class LLRealtimeSegmentDataManager extends SegmentDataManager {
     }
 
     _segmentMaxRowCount = segmentMaxRowCount;
+    _segmentMaxMemoryBytes = kafkaStreamProviderConfig.getMemoryThresholdToFlushSegment();
 
     // Start new realtime segment
     _realtimeSegment = new RealtimeSegmentImpl(schema, _segmentMaxRowCount, tableConfig.getTableName(),
@@ -924,6 +953,10 @@ public class LLRealtimeSegmentDataManager extends SegmentDataManager {
     _serverMetrics.addValueToTableGauge(_tableName, ServerGauge.DOCUMENT_COUNT, (currentRawDocs - _lastUpdatedRawDocuments
         .get()));
     _lastUpdatedRawDocuments.set(currentRawDocs);
+    if (_segmentMaxMemoryBytes > 0) {
+      _serverMetrics.setValueOfTableGauge(_metricKeyName, ServerGauge.REALTIME_SEGMENT_ESTIMATED_MEMORY_USAGE,
+          _realtimeSegment.getEstimatedMemoryUsageInBytes());
+    }
     final long now = now();
     final int rowsConsumed = _numRowsConsumed - _lastConsumedCount;
     final long prevTime = _lastConsumedCount == 0 ? _consumeStartTime : _lastLogTime;
@@ -40,6 +40,7 @@ import com.linkedin.pinot.core.data.GenericRow;
 import com.linkedin.pinot.core.io.reader.SingleColumnMultiValueReader;
 import com.linkedin.pinot.core.io.reader.SingleColumnSingleValueReader;
 import com.linkedin.pinot.core.io.reader.impl.FixedByteSingleValueMultiColReader;
+import com.linkedin.pinot.core.io.reader.impl.RunLengthSingleValueReader;
 import com.linkedin.pinot.core.io.reader.impl.SortedForwardIndexReader;
 import com.linkedin.pinot.core.io.reader.impl.v1.FixedBitMultiValueReader;
 import com.linkedin.pinot.core.io.reader.impl.v1.FixedBitSingleValueReader;
@@ -109,7 +110,11 @@ public class PinotSegmentRecordReader extends BaseRecordReader {
       isSingleValueMap.put(column, columnMetadataFor.isSingleValue());
       isSortedMap.put(column, columnMetadataFor.isSorted());
 
-      if (columnMetadataFor.isSingleValue() && !columnMetadataFor.isSorted()) {
+      if (columnMetadataFor.isRunLengthEncoded()) {
+        PinotDataBuffer fwdIndexBuffer = reader.getIndexFor(column, ColumnIndexType.FORWARD_INDEX);
+        singleValueReaderMap.put(column, new RunLengthSingleValueReader(fwdIndexBuffer, totalDocs));
+
+      } else if (columnMetadataFor.isSingleValue() && !columnMetadataFor.isSorted()) {
         PinotDataBuffer fwdIndexBuffer = reader.getIndexFor(column, ColumnIndexType.FORWARD_INDEX);
         SingleColumnSingleValueReader fwdIndexReader =
             new FixedBitSingleValueReader(fwdIndexBuffer, columnMetadataFor.getTotalDocs(),
@@ -26,6 +26,7 @@ import com.linkedin.pinot.core.data.readers.CSVRecordReaderConfig;
 import com.linkedin.pinot.core.data.readers.FileFormat;
 import com.linkedin.pinot.core.data.readers.RecordReaderConfig;
 import com.linkedin.pinot.core.indexsegment.utils.AvroUtils;
+import com.linkedin.pinot.core.io.compression.ChunkCompressorFactory;
 import com.linkedin.pinot.core.segment.DefaultSegmentNameGenerator;
 import com.linkedin.pinot.core.segment.SegmentNameGenerator;
 import com.linkedin.pinot.core.segment.creator.impl.V1Constants;
@@ -64,6 +65,7 @@ public class SegmentGeneratorConfig {
 
   private Map<String, String> _customProperties = new HashMap<>();
   private Set<String> _rawIndexCreationColumns = new HashSet<>();
+  private Map<String, ChunkCompressorFactory.CompressionType> _rawIndexCompressionType = new HashMap<>();
   private List<String> _invertedIndexCreationColumns = new ArrayList<>();
   private String _dataDir = null;
   private String _inputFilePath = null;
@@ -84,6 +86,10 @@ public class SegmentGeneratorConfig {
   private String _readerConfigFile = null;
   private RecordReaderConfig _readerConfig = null;
   private boolean _enableStarTreeIndex = false;
+  private boolean _enableSinglePassIndexCreation = false;
+  private int _numIndexCreationThreads = 1;
+  private List<String> _zoneMapCreationColumns = new ArrayList<>();
+  private List<String> _runLengthEncodedColumns = new ArrayList<>();
   private String _starTreeIndexSpecFile = null;
   private StarTreeIndexSpec _starTreeIndexSpec = null;
   private String _creatorVersion = null;
@@ -108,6 +114,7 @@ public class SegmentGeneratorConfig {
     Preconditions.checkNotNull(config);
     _customProperties.putAll(config._customProperties);
     _rawIndexCreationColumns.addAll(config._rawIndexCreationColumns);
+    _rawIndexCompressionType.putAll(config._rawIndexCompressionType);
     _invertedIndexCreationColumns.addAll(config._invertedIndexCreationColumns);
     _dataDir = config._dataDir;
     _inputFilePath = config._inputFilePath;
@@ -128,6 +135,10 @@ public class SegmentGeneratorConfig {
     _readerConfigFile = config._readerConfigFile;
     _readerConfig = config._readerConfig;
     _enableStarTreeIndex = config._enableStarTreeIndex;
+    _enableSinglePassIndexCreation = config._enableSinglePassIndexCreation;
+    _numIndexCreationThreads = config._numIndexCreationThreads;
+    _zoneMapCreationColumns.addAll(config._zoneMapCreationColumns);
+    _runLengthEncodedColumns.addAll(config._runLengthEncodedColumns);
     _starTreeIndexSpecFile = config._starTreeIndexSpecFile;
     _starTreeIndexSpec = config._starTreeIndexSpec;
     _creatorVersion = config._creatorVersion;
@@ -188,6 +199,24 @@ public class SegmentGeneratorConfig {
     _rawIndexCreationColumns.addAll(rawIndexCreationColumns);
   }
 
+  public Map<String, ChunkCompressorFactory.CompressionType> getRawIndexCompressionType() {
+    return _rawIndexCompressionType;
+  }
+
+  /**
+   * Returns the compression type to use for the raw index of the given column, defaults to
+   * {@link ChunkCompressorFactory.CompressionType#DEFAULT} when not configured.
+   */
+  public ChunkCompressorFactory.CompressionType getRawIndexCompressionType(String column) {
+    ChunkCompressorFactory.CompressionType compressionType = _rawIndexCompressionType.get(column);
+    return (compressionType != null) ? compressionType : ChunkCompressorFactory.CompressionType.DEFAULT;
+  }
+
+  public void setRawIndexCompressionType(Map<String, ChunkCompressorFactory.CompressionType> rawIndexCompressionType) {
+    Preconditions.checkNotNull(rawIndexCompressionType);
+    _rawIndexCompressionType.putAll(rawIndexCompressionType);
+  }
+
   public void setInvertedIndexCreationColumns(List<String> indexCreationColumns) {
     Preconditions.checkNotNull(indexCreationColumns);
     _invertedIndexCreationColumns.addAll(indexCreationColumns);
@@ -433,6 +462,59 @@ public class SegmentGeneratorConfig {
     _enableStarTreeIndex = enableStarTreeIndex;
   }
 
+  public boolean isEnableSinglePassIndexCreation() {
+    return _enableSinglePassIndexCreation;
+  }
+
+  /**
+   * When enabled, the input records are read only once: the dictionary encoded values of all columns are buffered
+   * off-heap (spilling to temporary files under the output directory) while the column statistics are collected, and
+   * the indexes are then built column by column from the buffered values. Ignored when star tree index is enabled.
+   */
+  public void setEnableSinglePassIndexCreation(boolean enableSinglePassIndexCreation) {
+    _enableSinglePassIndexCreation = enableSinglePassIndexCreation;
+  }
+
+  public int getNumIndexCreationThreads() {
+    return _numIndexCreationThreads;
+  }
+
+  /**
+   * Sets the number of threads used to build the indexes of different columns in parallel. Dictionaries are always
+   * built and indexes sealed in parallel, while forward and inverted indexes are populated in parallel only when the
+   * segment is built column by column (realtime segment conversion or single pass index creation).
+   */
+  public void setNumIndexCreationThreads(int numIndexCreationThreads) {
+    _numIndexCreationThreads = numIndexCreationThreads;
+  }
+
+  public List<String> getZoneMapCreationColumns() {
+    return _zoneMapCreationColumns;
+  }
+
+  /**
+   * Sets the columns to create a zone map (min and max dictionary id of every block of documents) for, so that scan
+   * based filters on these columns can skip the blocks that cannot match. Sorted and no-dictionary columns are ignored.
+   */
+  public void setZoneMapCreationColumns(List<String> zoneMapCreationColumns) {
+    _zoneMapCreationColumns.clear();
+    _zoneMapCreationColumns.addAll(zoneMapCreationColumns);
+  }
+
+  public List<String> getRunLengthEncodedColumns() {
+    return _runLengthEncodedColumns;
+  }
+
+  /**
+   * Sets the columns to store as runs of (start document id, dictionary id) instead of one bit packed dictionary id per
+   * document, which is much smaller and faster to filter for clustered columns. Only applies to single-value columns
+   * with dictionary, sorted columns already use a run based forward index.
+   */
+  public void setRunLengthEncodedColumns(List<String> runLengthEncodedColumns) {
+    _runLengthEncodedColumns.clear();
+    _runLengthEncodedColumns.addAll(runLengthEncodedColumns);
+  }
+
   public String getStarTreeIndexSpecFile() {
     return _starTreeIndexSpecFile;
   }
@@ -20,7 +20,21 @@ package com.linkedin.pinot.core.io.compression;
  */
 public class ChunkCompressorFactory {
 
-  private static final String SNAPPY = "SNAPPY";
+  /**
+   * Compression codecs supported for raw (no-dictionary) indexes.
+   * <ul>
+   *   <li> PASS_THROUGH: No compression, for columns that are scanned a lot. </li>
+   *   <li> SNAPPY: Default, good balance between size and speed. </li>
+   *   <li> LZ4: Faster decompression than Snappy, at a similar compression ratio. </li>
+   * </ul>
+   */
+  public enum CompressionType {
+    PASS_THROUGH,
+    SNAPPY,
+    LZ4;
+
+    public static final CompressionType DEFAULT = SNAPPY;
+  }
 
   /**
    * Returns the chunk compressor for the specified name.
@@ -29,12 +43,28 @@ public class ChunkCompressorFactory {
    * @return Compressor for the specified name.
    */
   public static ChunkCompressor getCompressor(String compressor) {
-    switch (compressor.toUpperCase()) {
+    return getCompressor(getCompressionType(compressor));
+  }
+
+  /**
+   * Returns the chunk compressor for the specified compression type.
+   *
+   * @param compressionType Compression type.
+   * @return Compressor for the specified type.
+   */
+  public static ChunkCompressor getCompressor(CompressionType compressionType) {
+    switch (compressionType) {
+      case PASS_THROUGH:
+        return new PassThroughCompressor();
+
       case SNAPPY:
         return new SnappyCompressor();
 
+      case LZ4:
+        return new LZ4Compressor();
+
       default:
-        throw new IllegalArgumentException("Illegal compressor name " + compressor);
+        throw new IllegalArgumentException("Illegal compression type " + compressionType);
     }
   }
 
@@ -45,12 +75,42 @@ public class ChunkCompressorFactory {
    * @return decompressor for the specified name
    */
   public static ChunkDecompressor getDecompressor(String deCompressor) {
-    switch (deCompressor.toUpperCase()) {
+    return getDecompressor(getCompressionType(deCompressor));
+  }
+
+  /**
+   * Returns the chunk decompressor for the specified compression type.
+   *
+   * @param compressionType Compression type.
+   * @return Decompressor for the specified type.
+   */
+  public static ChunkDecompressor getDecompressor(CompressionType compressionType) {
+    switch (compressionType) {
+      case PASS_THROUGH:
+        return new PassThroughDecompressor();
+
       case SNAPPY:
         return new SnappyDecompressor();
 
+      case LZ4:
+        return new LZ4Decompressor();
+
       default:
-        throw new IllegalArgumentException("Illegal compressor name " + deCompressor);
+        throw new IllegalArgumentException("Illegal compression type " + compressionType);
+    }
+  }
+
+  /**
+   * Returns the compression type for the specified (case insensitive) name.
+   *
+   * @param name Name of the compression type.
+   * @return Compression type for the specified name.
+   */
+  public static CompressionType getCompressionType(String name) {
+    try {
+      return CompressionType.valueOf(name.toUpperCase());
+    } catch (IllegalArgumentException e) {
+      throw new IllegalArgumentException("Illegal compressor name " + name);
     }
   }
 }
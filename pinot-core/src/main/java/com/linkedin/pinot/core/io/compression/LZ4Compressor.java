@@ -0,0 +1,50 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.core.io.compression;
+
+import java.nio.ByteBuffer;
+import net.jpountz.lz4.LZ4Factory;
+
+
+/**
+ * Implementation of {@link ChunkCompressor} using LZ4, which trades some compression ratio (compared to Snappy) for
+ * faster decompression.
+ */
+public class LZ4Compressor implements ChunkCompressor {
+  private static final net.jpountz.lz4.LZ4Compressor COMPRESSOR = LZ4Factory.fastestInstance().fastCompressor();
+
+  @Override
+  public int compress(ByteBuffer inUncompressed, ByteBuffer outCompressed) {
+    int outStartPosition = outCompressed.position();
+    int uncompressedSize = inUncompressed.remaining();
+
+    // The LZ4 library only works on heap arrays.
+    byte[] uncompressed = new byte[uncompressedSize];
+    inUncompressed.duplicate().get(uncompressed);
+    byte[] compressed = new byte[COMPRESSOR.maxCompressedLength(uncompressedSize)];
+    int compressedSize = COMPRESSOR.compress(uncompressed, 0, uncompressedSize, compressed, 0, compressed.length);
+
+    // Size of the uncompressed data is stored before the compressed data, so that decompression can be sized.
+    outCompressed.limit(outCompressed.capacity());
+    outCompressed.putInt(uncompressedSize);
+    outCompressed.put(compressed, 0, compressedSize);
+
+    int size = outCompressed.position() - outStartPosition;
+    outCompressed.position(outStartPosition);
+    outCompressed.limit(outStartPosition + size);
+    return size;
+  }
+}
@@ -0,0 +1,45 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.core.io.compression;
+
+import java.nio.ByteBuffer;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4FastDecompressor;
+
+
+/**
+ * Implementation of {@link ChunkDecompressor} for chunks written by {@link LZ4Compressor}.
+ */
+public class LZ4Decompressor implements ChunkDecompressor {
+  private static final LZ4FastDecompressor DECOMPRESSOR = LZ4Factory.fastestInstance().fastDecompressor();
+
+  @Override
+  public int decompress(ByteBuffer inCompressed, ByteBuffer outDecompressed) {
+    ByteBuffer in = inCompressed.duplicate();
+    int uncompressedSize = in.getInt();
+
+    byte[] compressed = new byte[in.remaining()];
+    in.get(compressed);
+    byte[] uncompressed = new byte[uncompressedSize];
+    DECOMPRESSOR.decompress(compressed, 0, uncompressed, 0, uncompressedSize);
+
+    int outStartPosition = outDecompressed.position();
+    outDecompressed.put(uncompressed);
+    outDecompressed.position(outStartPosition);
+    outDecompressed.limit(outStartPosition + uncompressedSize);
+    return uncompressedSize;
+  }
+}
@@ -0,0 +1,40 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.core.io.compression;
+
+import java.nio.ByteBuffer;
+
+
+/**
+ * Implementation of {@link ChunkCompressor} that copies the data as is, for columns where scan speed matters more
+ * than size.
+ */
+public class PassThroughCompressor implements ChunkCompressor {
+
+  @Override
+  public int compress(ByteBuffer inUncompressed, ByteBuffer outCompressed) {
+    int outStartPosition = outCompressed.position();
+    int size = inUncompressed.remaining();
+
+    outCompressed.limit(outCompressed.capacity());
+    outCompressed.put(inUncompressed.duplicate());
+
+    // Make the output readable from where it started, same as the other compressors.
+    outCompressed.position(outStartPosition);
+    outCompressed.limit(outStartPosition + size);
+    return size;
+  }
+}
@@ -92,4 +92,12 @@ public abstract class BaseSingleColumnSingleValueReader<T extends ReaderContext>
   public void readValues(int[] rows, int rowStartPos, int rowSize, int[] values, int valuesStartPos) {
     throw new UnsupportedOperationException("not supported");
   }
+
+  @Override
+  public void readValues(int startRow, int length, int[] values, int valuesStartPos) {
+    int endRow = startRow + length;
+    for (int row = startRow; row < endRow; row++) {
+      values[valuesStartPos++] = getInt(row);
+    }
+  }
 }
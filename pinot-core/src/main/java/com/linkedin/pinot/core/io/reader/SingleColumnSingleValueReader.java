@@ -86,8 +86,25 @@ public interface SingleColumnSingleValueReader<T extends ReaderContext> extends
    */
   byte[] getBytes(int row);
 
+  /**
+   * Bulk read of the values for the given rows. Implementations are faster when the rows are sorted.
+   * @param rows rows to read
+   * @param rowStartPos start index in the rows array
+   * @param rowSize number of rows to read
+   * @param values output array
+   * @param valuesStartPos start index in the output array
+   */
   void readValues(int[] rows, int rowStartPos, int rowSize, int[] values, int valuesStartPos);
 
+  /**
+   * Bulk read of the values for the contiguous rows [startRow, startRow + length).
+   * @param startRow first row to read
+   * @param length number of rows to read
+   * @param values output array
+   * @param valuesStartPos start index in the output array
+   */
+  void readValues(int startRow, int length, int[] values, int valuesStartPos);
+
   /**
    * Create reader context.
    * @return Reader context
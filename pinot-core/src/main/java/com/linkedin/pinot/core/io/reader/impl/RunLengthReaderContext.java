@@ -0,0 +1,27 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.core.io.reader.impl;
+
+/**
+ * Reader context for {@link RunLengthSingleValueReader}, caching the last accessed run so that sequential reads do
+ * not need to search the runs.
+ */
+public class RunLengthReaderContext extends UnSortedValueReaderContext {
+  int _runId = -1;
+  int _runStartDocId = -1;
+  int _runEndDocId = -1;
+  int _dictId = -1;
+}
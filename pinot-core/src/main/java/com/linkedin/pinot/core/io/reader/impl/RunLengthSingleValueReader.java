@@ -0,0 +1,172 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.core.io.reader.impl;
+
+import com.linkedin.pinot.core.io.reader.BaseSingleColumnSingleValueReader;
+import com.linkedin.pinot.core.segment.creator.impl.V1Constants;
+import com.linkedin.pinot.core.segment.memory.PinotDataBuffer;
+import java.io.IOException;
+import java.util.Arrays;
+
+
+/**
+ * Reader for the run length encoded single-value forward index, which stores one (start document id, dictionary id)
+ * row per run of consecutive documents with the same dictionary id.
+ * <p>Besides the per document accessors, the runs are exposed so that operators can process a whole run of documents
+ * at once.
+ */
+public class RunLengthSingleValueReader extends BaseSingleColumnSingleValueReader<RunLengthReaderContext> {
+  private static final int RUN_START_DOC_ID_COLUMN = 0;
+  private static final int DICT_ID_COLUMN = 1;
+
+  private final FixedByteSingleValueMultiColReader indexReader;
+  private final int numRuns;
+  private final int numDocs;
+
+  public RunLengthSingleValueReader(PinotDataBuffer dataBuffer, int numDocs) {
+    int[] columnSizes = V1Constants.Idx.RUN_LENGTH_INDEX_COLUMN_SIZE;
+    numRuns = (int) (dataBuffer.size() / (columnSizes[0] + columnSizes[1]));
+    indexReader = new FixedByteSingleValueMultiColReader(dataBuffer, numRuns, 2, columnSizes);
+    this.numDocs = numDocs;
+  }
+
+  public int getNumRuns() {
+    return numRuns;
+  }
+
+  public int getRunStartDocId(int runId) {
+    return indexReader.getInt(runId, RUN_START_DOC_ID_COLUMN);
+  }
+
+  /**
+   * Returns the last document id (inclusive) of the given run.
+   */
+  public int getRunEndDocId(int runId) {
+    return (runId == numRuns - 1) ? numDocs - 1 : indexReader.getInt(runId + 1, RUN_START_DOC_ID_COLUMN) - 1;
+  }
+
+  public int getRunDictId(int runId) {
+    return indexReader.getInt(runId, DICT_ID_COLUMN);
+  }
+
+  /**
+   * Returns the id of the run containing the given document.
+   */
+  public int getRunId(int docId) {
+    int low = 0;
+    int high = numRuns - 1;
+    while (low < high) {
+      int mid = (low + high + 1) >>> 1;
+      if (getRunStartDocId(mid) <= docId) {
+        low = mid;
+      } else {
+        high = mid - 1;
+      }
+    }
+    return low;
+  }
+
+  /**
+   * Returns the id of the run containing the given document, which is not in the previous run. Sequential reads only
+   * need to check the run after the previous one.
+   */
+  private int getRunId(int docId, int previousRunId, int previousRunEndDocId) {
+    int nextRunId = previousRunId + 1;
+    if (docId > previousRunEndDocId && nextRunId < numRuns && docId <= getRunEndDocId(nextRunId)) {
+      return nextRunId;
+    }
+    return getRunId(docId);
+  }
+
+  @Override
+  public int getInt(int docId) {
+    return getRunDictId(getRunId(docId));
+  }
+
+  @Override
+  public int getInt(int docId, RunLengthReaderContext context) {
+    if (docId >= context._runStartDocId && docId <= context._runEndDocId) {
+      return context._dictId;
+    }
+    int runId = (context._runId == -1) ? getRunId(docId) : getRunId(docId, context._runId, context._runEndDocId);
+    context._runId = runId;
+    context._runStartDocId = getRunStartDocId(runId);
+    context._runEndDocId = getRunEndDocId(runId);
+    context._dictId = getRunDictId(runId);
+    return context._dictId;
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p>The rows are expected to be sorted, the dictionary id of each run is read once for all its rows.
+   */
+  @Override
+  public void readValues(int[] rows, int rowStartPos, int rowSize, int[] values, int valuesStartPos) {
+    if (rowSize == 0) {
+      return;
+    }
+    int rowEndPos = rowStartPos + rowSize;
+    int runId = getRunId(rows[rowStartPos]);
+    int runStartDocId = getRunStartDocId(runId);
+    int runEndDocId = getRunEndDocId(runId);
+    int dictId = getRunDictId(runId);
+    for (int i = rowStartPos; i < rowEndPos; i++) {
+      int row = rows[i];
+      if (row > runEndDocId || row < runStartDocId) {
+        runId = getRunId(row, runId, runEndDocId);
+        runStartDocId = getRunStartDocId(runId);
+        runEndDocId = getRunEndDocId(runId);
+        dictId = getRunDictId(runId);
+      }
+      values[valuesStartPos++] = dictId;
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p>Each run overlapping the range is filled in at once.
+   */
+  @Override
+  public void readValues(int startRow, int length, int[] values, int valuesStartPos) {
+    int row = startRow;
+    int endRow = startRow + length;
+    int runId = getRunId(startRow);
+    while (row < endRow) {
+      int runEndRow = Math.min(getRunEndDocId(runId) + 1, endRow);
+      int valuesEndPos = valuesStartPos + runEndRow - row;
+      Arrays.fill(values, valuesStartPos, valuesEndPos, getRunDictId(runId));
+      valuesStartPos = valuesEndPos;
+      row = runEndRow;
+      runId++;
+    }
+  }
+
+  public int getLength() {
+    return numDocs;
+  }
+
+  @Override
+  public void close() throws IOException {
+    indexReader.close();
+  }
+
+  @Override
+  public RunLengthReaderContext createContext() {
+    return new RunLengthReaderContext();
+  }
+}
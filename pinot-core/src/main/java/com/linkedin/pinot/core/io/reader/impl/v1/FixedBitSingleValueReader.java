@@ -19,20 +19,33 @@ import com.linkedin.pinot.core.io.reader.BaseSingleColumnSingleValueReader;
 import com.linkedin.pinot.core.io.reader.ReaderContext;
 import com.linkedin.pinot.core.io.reader.impl.FixedBitSingleValueMultiColReader;
 import com.linkedin.pinot.core.segment.memory.PinotDataBuffer;
+import com.linkedin.pinot.core.util.FixedBitIntUnpacker;
 import java.io.IOException;
 
 
 
 public class FixedBitSingleValueReader extends BaseSingleColumnSingleValueReader {
+  private static final int BATCH_SIZE = FixedBitIntUnpacker.BATCH_SIZE;
+  // Unpack whole batches only if there are at least this many rows to read per batch on average
+  private static final int MIN_ROWS_PER_BATCH_FOR_BULK_READ = 4;
 
   private final FixedBitSingleValueMultiColReader dataFileReader;
   private final int rows;
+  private final PinotDataBuffer indexDataBuffer;
+  private final int numBits;
+  private final int offset;
+  // Batches of 32 values that are fully stored in the buffer, the rows after them are read one at a time
+  private final int numFullBatches;
 
   public FixedBitSingleValueReader(PinotDataBuffer indexDataBuffer, int rows,
       int columnSize, boolean hasNulls) {
     dataFileReader = new FixedBitSingleValueMultiColReader(indexDataBuffer, rows, 1,
         new int[] { columnSize }, new boolean[] { hasNulls });
     this.rows = rows;
+    this.indexDataBuffer = indexDataBuffer;
+    this.numBits = hasNulls ? columnSize + 1 : columnSize;
+    this.offset = hasNulls ? (int) Math.pow(2, columnSize) - 1 : 0;
+    this.numFullBatches = rows / BATCH_SIZE;
   }
 
   public FixedBitSingleValueMultiColReader getDataFileReader() {
@@ -58,9 +71,88 @@ public class FixedBitSingleValueReader extends BaseSingleColumnSingleValueReader
     return dataFileReader.getInt(row, 0);
   }
 
+  /**
+   * {@inheritDoc}
+   *
+   * <p>When the rows are sorted and dense enough, values are unpacked 32 at a time, otherwise they are read one at a
+   * time.
+   */
   @Override
   public void readValues(int[] rows, int rowStartPos, int rowSize, int[] values, int valuesStartPos) {
-    dataFileReader.readValues(rows, 0, rowStartPos, rowSize, values, valuesStartPos);
+    if (rowSize == 0) {
+      return;
+    }
+    int rowEndPos = rowStartPos + rowSize;
+    long rowSpan = (long) rows[rowEndPos - 1] - rows[rowStartPos] + 1;
+    if (rowSpan <= 0 || (long) rowSize * BATCH_SIZE < rowSpan * MIN_ROWS_PER_BATCH_FOR_BULK_READ) {
+      dataFileReader.readValues(rows, 0, rowStartPos, rowSize, values, valuesStartPos);
+      return;
+    }
+
+    int[] packed = new int[numBits];
+    int[] unpacked = new int[BATCH_SIZE];
+    int currentBatch = -1;
+    for (int i = rowStartPos; i < rowEndPos; i++) {
+      int row = rows[i];
+      int batch = row / BATCH_SIZE;
+      if (batch >= numFullBatches) {
+        values[valuesStartPos++] = dataFileReader.getInt(row, 0);
+        continue;
+      }
+      if (batch != currentBatch) {
+        unpackBatch(batch, packed, unpacked, 0);
+        currentBatch = batch;
+      }
+      values[valuesStartPos++] = unpacked[row % BATCH_SIZE];
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p>Values of the batches fully covered by the range are unpacked directly into the output array.
+   */
+  @Override
+  public void readValues(int startRow, int length, int[] values, int valuesStartPos) {
+    int[] packed = new int[numBits];
+    int[] unpacked = null;
+    int row = startRow;
+    int endRow = startRow + length;
+    while (row < endRow) {
+      int batch = row / BATCH_SIZE;
+      if (batch >= numFullBatches) {
+        values[valuesStartPos++] = dataFileReader.getInt(row++, 0);
+        continue;
+      }
+      int batchStartRow = batch * BATCH_SIZE;
+      if (row == batchStartRow && endRow - row >= BATCH_SIZE) {
+        unpackBatch(batch, packed, values, valuesStartPos);
+        valuesStartPos += BATCH_SIZE;
+        row += BATCH_SIZE;
+      } else {
+        if (unpacked == null) {
+          unpacked = new int[BATCH_SIZE];
+        }
+        unpackBatch(batch, packed, unpacked, 0);
+        int batchEndRow = Math.min(batchStartRow + BATCH_SIZE, endRow);
+        System.arraycopy(unpacked, row - batchStartRow, values, valuesStartPos, batchEndRow - row);
+        valuesStartPos += batchEndRow - row;
+        row = batchEndRow;
+      }
+    }
+  }
+
+  /**
+   * Unpacks the 32 values of the given batch into <code>out[outOffset, outOffset + 32)</code>.
+   */
+  private void unpackBatch(int batch, int[] packed, int[] out, int outOffset) {
+    indexDataBuffer.getInts((long) batch * numBits * 4, packed, 0, numBits);
+    FixedBitIntUnpacker.unpack32(packed, 0, numBits, out, outOffset);
+    if (offset != 0) {
+      for (int i = outOffset; i < outOffset + BATCH_SIZE; i++) {
+        out[i] -= offset;
+      }
+    }
   }
 
   @Override
@@ -88,6 +88,14 @@ public class BaseSingleColumnSingleValueReaderWriter<T extends ReaderContext>
     throw new UnsupportedOperationException("not supported");
   }
 
+  @Override
+  public void readValues(int startRow, int length, int[] values, int valuesStartPos) {
+    int endRow = startRow + length;
+    for (int row = startRow; row < endRow; row++) {
+      values[valuesStartPos++] = getInt(row);
+    }
+  }
+
   @Override
   public T createContext() {
     throw new UnsupportedOperationException();
@@ -79,6 +79,7 @@ public class FixedByteSingleColumnMultiValueReaderWriter extends BaseSingleColum
   private int incrementalCapacity;
   private int columnSizeInBytes;
   private int maxNumberOfMultiValuesPerRow;
+  private long allocatedSizeInBytes = 0L;
 
   public FixedByteSingleColumnMultiValueReaderWriter(int rows, int columnSizeInBytes, int maxNumberOfMultiValuesPerRow,
       int avgMultiValueCount)
@@ -95,6 +96,7 @@ public class FixedByteSingleColumnMultiValueReaderWriter extends BaseSingleColum
     this.maxNumberOfMultiValuesPerRow = maxNumberOfMultiValuesPerRow;
     headerSize = rows * SIZE_OF_INT * NUM_COLS_IN_HEADER;
     headerBuffer = PinotDataBuffer.allocateDirect(headerSize);
+    allocatedSizeInBytes += headerSize;
 //    headerBuffer.order(ByteOrder.nativeOrder());
     //dataBufferId, startIndex, length
     headerWriter =
@@ -119,6 +121,7 @@ public class FixedByteSingleColumnMultiValueReaderWriter extends BaseSingleColum
       dataBuffer = PinotDataBuffer.allocateDirect(rowCapacity * columnSizeInBytes);
       //dataBuffer.order(ByteOrder.nativeOrder());
       dataBuffers.add(dataBuffer);
+      allocatedSizeInBytes += rowCapacity * columnSizeInBytes;
       currentDataWriter =
           new FixedByteSingleValueMultiColWriter(dataBuffer, rowCapacity, 1, new int[] { columnSizeInBytes });
       dataWriters.add(currentDataWriter);
@@ -135,6 +138,13 @@ public class FixedByteSingleColumnMultiValueReaderWriter extends BaseSingleColum
     }
   }
 
+  /**
+   * Returns the size of the header buffer and of the data buffers allocated so far, in bytes.
+   */
+  public long getAllocatedSizeInBytes() {
+    return allocatedSizeInBytes;
+  }
+
   @Override
   public void close() {
     for (PinotDataBuffer dataBuffer : dataBuffers) {
@@ -30,6 +30,7 @@ public class FixedByteSingleColumnSingleValueReaderWriter extends BaseSingleColu
   private int[] colOffSets;
   private int rowSize;
   private PinotDataBuffer _buffer;
+  private final long _allocatedSizeInBytes;
 
   public FixedByteSingleColumnSingleValueReaderWriter(int rows, int columnSizesInBytes) throws IOException {
     this(rows, new int[]{columnSizesInBytes});
@@ -49,11 +50,19 @@ public class FixedByteSingleColumnSingleValueReaderWriter extends BaseSingleColu
     }
     final int totalSize = rowSize * rows;
     _buffer = PinotDataBuffer.allocateDirect(totalSize);
+    _allocatedSizeInBytes = totalSize;
     //_buffer.order(ByteOrder.nativeOrder());
     reader = new FixedByteSingleValueMultiColReader(_buffer, rows, cols, columnSizesInBytes);
     writer = new FixedByteSingleValueMultiColWriter(_buffer, rows, cols, columnSizesInBytes);
   }
 
+  /**
+   * Returns the size of the buffer allocated for all the rows, in bytes.
+   */
+  public long getAllocatedSizeInBytes() {
+    return _allocatedSizeInBytes;
+  }
+
   @Override
   public void close() throws IOException {
     reader.close();
@@ -39,6 +39,9 @@ public class MVScanDocIdIterator implements ScanBasedDocIdIterator {
 
   private String datasourceName;
   private int _numEntriesScanned = 0;
+  // Zone map based block filter, null when not available
+  private boolean[] _matchingBlocks;
+  private int _numDocsPerBlock;
 
   public MVScanDocIdIterator(String datasourceName, BlockValSet blockValSet, BlockMetadata blockMetadata,
       PredicateEvaluator evaluator) {
@@ -58,6 +61,18 @@ public class MVScanDocIdIterator implements ScanBasedDocIdIterator {
     valueIterator = (BlockMultiValIterator) blockValSet.iterator();
   }
 
+  /**
+   * Sets the blocks of documents that may contain matching values according to the zone map of the column. Documents
+   * in the other blocks are skipped without reading their values.
+   *
+   * @param matchingBlocks for each block, whether it may contain matching values
+   * @param numDocsPerBlock number of documents in each block
+   */
+  public void setMatchingBlocks(boolean[] matchingBlocks, int numDocsPerBlock) {
+    _matchingBlocks = matchingBlocks;
+    _numDocsPerBlock = numDocsPerBlock;
+  }
+
   /**
    * After setting the startDocId, next calls will always return from &gt;=startDocId
    * @param startDocId
@@ -80,6 +95,9 @@ public class MVScanDocIdIterator implements ScanBasedDocIdIterator {
     if (currentDocId == Constants.EOF) {
       return false;
     }
+    if (_matchingBlocks != null && !_matchingBlocks[docId / _numDocsPerBlock]) {
+      return false;
+    }
     valueIterator.skipTo(docId);
     _numEntriesScanned++;
     int length = valueIterator.nextIntVal(intArray);
@@ -113,6 +131,15 @@ public class MVScanDocIdIterator implements ScanBasedDocIdIterator {
     }
     while (valueIterator.hasNext() && currentDocId < endDocId) {
       currentDocId = currentDocId + 1;
+      if (_matchingBlocks != null) {
+        int blockId = currentDocId / _numDocsPerBlock;
+        if (!_matchingBlocks[blockId]) {
+          // No document in the block can match, move to the last document of the block
+          currentDocId = Math.min((blockId + 1) * _numDocsPerBlock - 1, endDocId);
+          valueIterator.skipTo(currentDocId + 1);
+          continue;
+        }
+      }
       _numEntriesScanned++;
       int length = valueIterator.nextIntVal(intArray);
       if (evaluator.apply(intArray, length)) {
@@ -145,6 +172,9 @@ public class MVScanDocIdIterator implements ScanBasedDocIdIterator {
     while (intIterator.hasNext() && docId < endDocId) {
       docId = intIterator.next();
       if (docId >= startDocId) {
+        if (_matchingBlocks != null && !_matchingBlocks[docId / _numDocsPerBlock]) {
+          continue;
+        }
         valueIterator.skipTo(docId);
         _numEntriesScanned++;
         length = valueIterator.nextIntVal(intArray);
@@ -33,6 +33,9 @@ public class SVScanDocIdIterator implements ScanBasedDocIdIterator {
   private String _datasourceName;
   private int _numEntriesScanned = 0;
   private final ValueMatcher _valueMatcher;
+  // Zone map based block filter, null when not available
+  private boolean[] _matchingBlocks;
+  private int _numDocsPerBlock;
 
   public SVScanDocIdIterator(String datasourceName, BlockValSet blockValSet, BlockMetadata blockMetadata,
       PredicateEvaluator evaluator) {
@@ -57,6 +60,18 @@ public class SVScanDocIdIterator implements ScanBasedDocIdIterator {
     _valueMatcher.setEvaluator(evaluator);
   }
 
+  /**
+   * Sets the blocks of documents that may contain matching values according to the zone map of the column. Documents
+   * in the other blocks are skipped without reading their values.
+   *
+   * @param matchingBlocks for each block, whether it may contain matching values
+   * @param numDocsPerBlock number of documents in each block
+   */
+  public void setMatchingBlocks(boolean[] matchingBlocks, int numDocsPerBlock) {
+    _matchingBlocks = matchingBlocks;
+    _numDocsPerBlock = numDocsPerBlock;
+  }
+
   /**
    * After setting the startDocId, next calls will always return from &gt;=startDocId
    *
@@ -83,6 +98,9 @@ public class SVScanDocIdIterator implements ScanBasedDocIdIterator {
     if (_currentDocId == Constants.EOF) {
       return false;
     }
+    if (_matchingBlocks != null && !_matchingBlocks[docId / _numDocsPerBlock]) {
+      return false;
+    }
     _valueIterator.skipTo(docId);
     _numEntriesScanned++;
     return _valueMatcher.doesCurrentEntryMatch(_valueIterator);
@@ -114,6 +132,15 @@ public class SVScanDocIdIterator implements ScanBasedDocIdIterator {
     }
     while (_valueIterator.hasNext() && _currentDocId < _endDocId) {
       _currentDocId = _currentDocId + 1;
+      if (_matchingBlocks != null) {
+        int blockId = _currentDocId / _numDocsPerBlock;
+        if (!_matchingBlocks[blockId]) {
+          // No document in the block can match, move to the last document of the block
+          _currentDocId = Math.min((blockId + 1) * _numDocsPerBlock - 1, _endDocId);
+          _valueIterator.skipTo(_currentDocId + 1);
+          continue;
+        }
+      }
       _numEntriesScanned++;
       if (_valueMatcher.doesCurrentEntryMatch(_valueIterator)) {
         return _currentDocId;
@@ -144,6 +171,9 @@ public class SVScanDocIdIterator implements ScanBasedDocIdIterator {
     while (intIterator.hasNext() && docId < _endDocId) {
       docId = intIterator.next();
       if (docId >= _startDocId) {
+        if (_matchingBlocks != null && !_matchingBlocks[docId / _numDocsPerBlock]) {
+          continue;
+        }
         _valueIterator.skipTo(docId);
         _numEntriesScanned++;
         if (_valueMatcher.doesCurrentEntryMatch(_valueIterator)) {
@@ -47,6 +47,15 @@ public class ScanBasedSingleValueDocIdSet implements FilterBlockDocIdSet {
     return endDocId;
   }
 
+  /**
+   * Skips the blocks of documents that cannot match according to the zone map of the column.
+   * @param matchingBlocks for each block, whether it may contain matching values
+   * @param numDocsPerBlock number of documents in each block
+   */
+  public void setMatchingBlocks(boolean[] matchingBlocks, int numDocsPerBlock) {
+    blockValSetBlockDocIdIterator.setMatchingBlocks(matchingBlocks, numDocsPerBlock);
+  }
+
   /**
    * After setting the startDocId, next calls will always return from &gt;=startDocId
    * @param startDocId
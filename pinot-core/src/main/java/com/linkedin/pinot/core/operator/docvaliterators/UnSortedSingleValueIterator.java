@@ -21,16 +21,24 @@ import com.linkedin.pinot.core.common.Constants;
 import com.linkedin.pinot.core.io.reader.SingleColumnSingleValueReader;
 import com.linkedin.pinot.core.io.reader.impl.ChunkReaderContext;
 import com.linkedin.pinot.core.io.reader.impl.UnSortedValueReaderContext;
+import com.linkedin.pinot.core.io.reader.impl.v1.FixedBitSingleValueReader;
 import com.linkedin.pinot.core.io.reader.impl.v1.VarByteChunkSingleValueReader;
 import com.linkedin.pinot.core.segment.index.ColumnMetadata;
 
 public final class UnSortedSingleValueIterator extends BlockSingleValIterator {
+  // Number of bit packed values decoded at once by nextIntVal()
+  private static final int INT_VALUE_BUFFER_SIZE = 256;
 
   private int counter = 0;
   private ColumnMetadata columnMetadata;
   private SingleColumnSingleValueReader sVReader;
   private UnSortedValueReaderContext context;
 
+  // Buffer of the decoded values for [intValueBufferStart, intValueBufferEnd), only for bit packed forward indexes
+  private final int[] intValueBuffer;
+  private int intValueBufferStart = 0;
+  private int intValueBufferEnd = 0;
+
   public UnSortedSingleValueIterator(SingleColumnSingleValueReader sVReader,
       ColumnMetadata columnMetadata) {
     this(sVReader, columnMetadata, (UnSortedValueReaderContext) sVReader.createContext());
@@ -42,6 +50,7 @@ public final class UnSortedSingleValueIterator extends BlockSingleValIterator {
     this.sVReader = sVReader;
     this.columnMetadata = columnMetadata;
     this.context = context;
+    intValueBuffer = (sVReader instanceof FixedBitSingleValueReader) ? new int[INT_VALUE_BUFFER_SIZE] : null;
   }
 
   @Override
@@ -66,7 +75,23 @@ public final class UnSortedSingleValueIterator extends BlockSingleValIterator {
       return Constants.EOF;
     }
 
-    return sVReader.getInt(counter++, context);
+    if (intValueBuffer == null) {
+      return sVReader.getInt(counter++, context);
+    }
+    if (counter >= intValueBufferStart && counter < intValueBufferEnd) {
+      return intValueBuffer[counter++ - intValueBufferStart];
+    }
+    if (counter != intValueBufferEnd) {
+      // Random access after skipTo(), read a single value and start buffering if the next reads are sequential
+      intValueBufferStart = counter + 1;
+      intValueBufferEnd = counter + 1;
+      return sVReader.getInt(counter++, context);
+    }
+    int length = Math.min(INT_VALUE_BUFFER_SIZE, columnMetadata.getTotalDocs() - counter);
+    sVReader.readValues(counter, length, intValueBuffer, 0);
+    intValueBufferStart = counter;
+    intValueBufferEnd = counter + length;
+    return intValueBuffer[counter++ - intValueBufferStart];
   }
 
   @Override
@@ -46,4 +46,9 @@ public final class RealtimeMultiValueSet extends BaseBlockValSet {
   public DataType getValueType() {
     return dataType;
   }
+
+  @Override
+  public int getDictionaryIdsForDocId(int docId, int[] outputDictIds) {
+    return reader.getIntArray(docId, outputDictIds);
+  }
 }
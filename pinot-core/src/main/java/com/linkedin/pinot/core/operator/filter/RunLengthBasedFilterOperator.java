@@ -0,0 +1,107 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.core.operator.filter;
+
+import com.linkedin.pinot.common.utils.Pairs.IntPair;
+import com.linkedin.pinot.core.common.BlockId;
+import com.linkedin.pinot.core.common.DataSource;
+import com.linkedin.pinot.core.common.Predicate;
+import com.linkedin.pinot.core.io.reader.impl.RunLengthSingleValueReader;
+import com.linkedin.pinot.core.operator.blocks.BaseFilterBlock;
+import com.linkedin.pinot.core.operator.filter.SortedInvertedIndexBasedFilterOperator.SortedBlock;
+import com.linkedin.pinot.core.operator.filter.predicate.PredicateEvaluator;
+import com.linkedin.pinot.core.operator.filter.predicate.PredicateEvaluatorProvider;
+import java.util.ArrayList;
+import java.util.List;
+
+
+/**
+ * Filter operator for run length encoded columns, which evaluates the predicate once per run of documents with the
+ * same dictionary id and returns the matching runs as docId ranges.
+ */
+public class RunLengthBasedFilterOperator extends BaseFilterOperator {
+  private static final String OPERATOR_NAME = "RunLengthBasedFilterOperator";
+
+  private final PredicateEvaluator predicateEvaluator;
+  private final DataSource dataSource;
+  private final int startDocId;
+  private final int endDocId;
+
+  /**
+   * @param predicate
+   * @param dataSource
+   * @param startDocId inclusive
+   * @param endDocId inclusive
+   */
+  public RunLengthBasedFilterOperator(Predicate predicate, DataSource dataSource, int startDocId, int endDocId) {
+    this.predicateEvaluator = PredicateEvaluatorProvider.getPredicateFunctionFor(predicate, dataSource);
+    this.dataSource = dataSource;
+    this.startDocId = startDocId;
+    this.endDocId = endDocId;
+  }
+
+  @Override
+  public boolean open() {
+    return true;
+  }
+
+  @Override
+  public BaseFilterBlock nextFilterBlock(BlockId blockId) {
+    RunLengthSingleValueReader runLengthIndex = dataSource.getRunLengthIndex();
+    List<IntPair> pairs = new ArrayList<>();
+
+    int numRuns = runLengthIndex.getNumRuns();
+    if (numRuns > 0 && startDocId <= endDocId) {
+      IntPair lastPair = null;
+      for (int runId = runLengthIndex.getRunId(startDocId); runId < numRuns; runId++) {
+        int runStartDocId = runLengthIndex.getRunStartDocId(runId);
+        if (runStartDocId > endDocId) {
+          break;
+        }
+        if (!predicateEvaluator.apply(runLengthIndex.getRunDictId(runId))) {
+          continue;
+        }
+        IntPair currentPair = new IntPair(runStartDocId, runLengthIndex.getRunEndDocId(runId));
+        IntRanges.clip(currentPair, startDocId, endDocId);
+
+        // Runs of adjacent matching dictionary ids are merged into a single range
+        if (lastPair != null && IntRanges.rangesAreMergeable(lastPair, currentPair)) {
+          IntRanges.mergeIntoFirst(lastPair, currentPair);
+        } else {
+          pairs.add(currentPair);
+          lastPair = currentPair;
+        }
+      }
+    }
+
+    return new SortedBlock(dataSource.getOperatorName(), pairs);
+  }
+
+  @Override
+  public boolean isResultEmpty() {
+    return predicateEvaluator.alwaysFalse();
+  }
+
+  @Override
+  public boolean close() {
+    return true;
+  }
+
+  @Override
+  public String getOperatorName() {
+    return OPERATOR_NAME;
+  }
+}
@@ -29,6 +29,8 @@ import com.linkedin.pinot.core.operator.docidsets.ScanBasedMultiValueDocIdSet;
 import com.linkedin.pinot.core.operator.docidsets.ScanBasedSingleValueDocIdSet;
 import com.linkedin.pinot.core.operator.filter.predicate.PredicateEvaluator;
 import com.linkedin.pinot.core.operator.filter.predicate.PredicateEvaluatorProvider;
+import com.linkedin.pinot.core.segment.index.readers.ZoneMapReader;
+import java.util.Arrays;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -37,6 +39,7 @@ public class ScanBasedFilterOperator extends BaseFilterOperator {
   private static final Logger LOGGER = LoggerFactory.getLogger(ScanBasedFilterOperator.class);
   private static final String OPERATOR_NAME = "ScanBasedFilterOperator";
 
+  private final Predicate predicate;
   private final PredicateEvaluator predicateEvaluator;
   private DataSource dataSource;
   private Integer startDocId;
@@ -50,6 +53,7 @@ public class ScanBasedFilterOperator extends BaseFilterOperator {
    * @param endDocId inclusive
    */
   public ScanBasedFilterOperator(Predicate predicate, DataSource dataSource, Integer startDocId, Integer endDocId) {
+    this.predicate = predicate;
     this.predicateEvaluator = PredicateEvaluatorProvider.getPredicateFunctionFor(predicate, dataSource);
     this.dataSource = dataSource;
     this.startDocId = startDocId;
@@ -70,12 +74,23 @@ public class ScanBasedFilterOperator extends BaseFilterOperator {
     Block nextBlock = dataSource.nextBlock();
     BlockValSet blockValueSet = nextBlock.getBlockValueSet();
     BlockMetadata blockMetadata = nextBlock.getMetadata();
+    boolean[] matchingBlocks = getMatchingBlocks();
     if (dataSourceMetadata.isSingleValue()) {
-      docIdSet = new ScanBasedSingleValueDocIdSet(dataSource.getOperatorName(), blockValueSet, blockMetadata,
-          predicateEvaluator);
+      ScanBasedSingleValueDocIdSet singleValueDocIdSet =
+          new ScanBasedSingleValueDocIdSet(dataSource.getOperatorName(), blockValueSet, blockMetadata,
+              predicateEvaluator);
+      if (matchingBlocks != null) {
+        singleValueDocIdSet.setMatchingBlocks(matchingBlocks, dataSource.getZoneMap().getNumDocsPerBlock());
+      }
+      docIdSet = singleValueDocIdSet;
     } else {
-      docIdSet = new ScanBasedMultiValueDocIdSet(dataSource.getOperatorName(), blockValueSet, blockMetadata,
-          predicateEvaluator);
+      ScanBasedMultiValueDocIdSet multiValueDocIdSet =
+          new ScanBasedMultiValueDocIdSet(dataSource.getOperatorName(), blockValueSet, blockMetadata,
+              predicateEvaluator);
+      if (matchingBlocks != null) {
+        multiValueDocIdSet.setMatchingBlocks(matchingBlocks, dataSource.getZoneMap().getNumDocsPerBlock());
+      }
+      docIdSet = multiValueDocIdSet;
     }
 
     if (startDocId != null) {
@@ -88,6 +103,29 @@ public class ScanBasedFilterOperator extends BaseFilterOperator {
     return new ScanBlock(docIdSet);
   }
 
+  /**
+   * Returns for each block of documents whether it may contain matching values according to the zone map of the
+   * column, or null if the zone map cannot be used.
+   * <p>Zone maps are only used for the predicates matching a few dictionary ids (EQ, IN and RANGE). NEQ and NOT_IN
+   * match almost all dictionary ids, and REGEXP_LIKE would need to evaluate the whole dictionary.
+   */
+  private boolean[] getMatchingBlocks() {
+    ZoneMapReader zoneMap = dataSource.getZoneMap();
+    if (zoneMap == null || predicateEvaluator.alwaysFalse()) {
+      return null;
+    }
+    switch (predicate.getType()) {
+      case EQ:
+      case IN:
+      case RANGE:
+        int[] matchingDictIds = predicateEvaluator.getMatchingDictionaryIds().clone();
+        Arrays.sort(matchingDictIds);
+        return zoneMap.getMatchingBlocks(matchingDictIds);
+      default:
+        return null;
+    }
+  }
+
   @Override
   public boolean isResultEmpty() {
     return predicateEvaluator.alwaysFalse();
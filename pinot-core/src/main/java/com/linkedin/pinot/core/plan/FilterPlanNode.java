@@ -31,6 +31,7 @@ import com.linkedin.pinot.core.operator.filter.BitmapBasedFilterOperator;
 import com.linkedin.pinot.core.operator.filter.EmptyFilterOperator;
 import com.linkedin.pinot.core.operator.filter.MatchEntireSegmentOperator;
 import com.linkedin.pinot.core.operator.filter.OrOperator;
+import com.linkedin.pinot.core.operator.filter.RunLengthBasedFilterOperator;
 import com.linkedin.pinot.core.operator.filter.ScanBasedFilterOperator;
 import com.linkedin.pinot.core.operator.filter.SortedInvertedIndexBasedFilterOperator;
 import com.linkedin.pinot.core.operator.filter.StarTreeIndexOperator;
@@ -126,8 +127,11 @@ public class FilterPlanNode implements PlanNode {
       BaseFilterOperator baseFilterOperator;
       int startDocId = 0;
       int endDocId = segment.getSegmentMetadata().getTotalRawDocs() - 1; //end is inclusive
-      //use inverted index only if the column has dictionary.
-      if (dataSourceMetadata.hasInvertedIndex() && dataSourceMetadata.hasDictionary()) {
+      if (ds.getRunLengthIndex() != null) {
+        // run length encoded columns evaluate the predicate once per run of documents
+        baseFilterOperator = new RunLengthBasedFilterOperator(predicate, ds, startDocId, endDocId);
+      } else if (dataSourceMetadata.hasInvertedIndex() && dataSourceMetadata.hasDictionary()) {
+        //use inverted index only if the column has dictionary.
         // RANGE/REGEXP_LIKE evaluation based on inv index is inefficient, so do this only if is NOT range.
         if (!filterType.equals(FilterOperator.RANGE) && !filterType.equals(FilterOperator.REGEXP_LIKE)) {
           if (dataSourceMetadata.isSingleValue() && dataSourceMetadata.isSorted()) {
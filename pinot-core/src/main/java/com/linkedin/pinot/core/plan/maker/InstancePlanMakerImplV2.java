@@ -27,6 +27,7 @@ import com.linkedin.pinot.core.plan.Plan;
 import com.linkedin.pinot.core.plan.PlanNode;
 import com.linkedin.pinot.core.plan.SelectionPlanNode;
 import com.linkedin.pinot.core.query.config.QueryExecutorConfig;
+import com.linkedin.pinot.core.realtime.MutableIndexSegment;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.ExecutorService;
@@ -95,7 +96,12 @@ public class InstancePlanMakerImplV2 implements PlanMaker {
     // TODO: pass in List<IndexSegment> directly.
     List<IndexSegment> indexSegments = new ArrayList<>(segmentDataManagers.size());
     for (SegmentDataManager segmentDataManager : segmentDataManagers) {
-      indexSegments.add(segmentDataManager.getSegment());
+      IndexSegment indexSegment = segmentDataManager.getSegment();
+      // Consuming segments are queried through a snapshot, so that all columns see the same number of documents.
+      if (indexSegment instanceof MutableIndexSegment) {
+        indexSegment = ((MutableIndexSegment) indexSegment).snapshot();
+      }
+      indexSegments.add(indexSegment);
     }
     BrokerRequestPreProcessor.preProcess(indexSegments, brokerRequest);
 
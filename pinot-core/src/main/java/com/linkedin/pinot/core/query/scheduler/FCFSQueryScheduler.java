@@ -17,12 +17,20 @@
 package com.linkedin.pinot.core.query.scheduler;
 
 import com.google.common.base.Preconditions;
+import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.linkedin.pinot.common.exception.QueryException;
 import com.linkedin.pinot.common.metrics.ServerQueryPhase;
 import com.linkedin.pinot.common.query.QueryExecutor;
 import com.linkedin.pinot.common.query.QueryRequest;
+import com.linkedin.pinot.common.query.context.TimerContext;
+import com.linkedin.pinot.common.response.ProcessingException;
 import com.linkedin.pinot.common.utils.DataTable;
+import com.linkedin.pinot.core.common.datatable.DataTableImplV2;
 import java.util.concurrent.Callable;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
 import javax.annotation.Nonnull;
 import org.apache.commons.configuration.Configuration;
 import org.slf4j.Logger;
@@ -46,15 +54,59 @@ public class FCFSQueryScheduler extends QueryScheduler {
   public ListenableFuture<DataTable> submit(final QueryRequest queryRequest) {
     Preconditions.checkNotNull(queryRequest);
 
-    queryRequest.getTimerContext().startNewPhaseTimer(ServerQueryPhase.SCHEDULER_WAIT);
-    ListenableFuture<DataTable> queryResultFuture = queryRunners.submit(new Callable<DataTable>() {
+    final TimerContext.Timer schedulerWaitTimer =
+        queryRequest.getTimerContext().startNewPhaseTimer(ServerQueryPhase.SCHEDULER_WAIT);
+    if (!admissionController.tryAdmit(queryRequest)) {
+      schedulerWaitTimer.stopAndRecord();
+      return Futures.immediateFuture(getErrorResponse(QueryException.SERVER_OVERLOADED_ERROR));
+    }
+    // Releases the pending query slot exactly once, whether the query runs, is cancelled while queued or is
+    // rejected by the query runners
+    final AtomicBoolean queryDone = new AtomicBoolean(false);
+    final ListenableFuture<DataTable> queryResultFuture;
+    try {
+      queryResultFuture = queryRunners.submit(new Callable<DataTable>() {
+        @Override
+        public DataTable call() {
+          long executionTimeNs = -1L;
+          try {
+            if (admissionController.isExpired(queryRequest)) {
+              schedulerWaitTimer.stopAndRecord();
+              return getErrorResponse(QueryException.QUERY_SCHEDULING_TIMEOUT_ERROR);
+            }
+            long startTimeNs = System.nanoTime();
+            DataTable dataTable = queryExecutor.processQuery(queryRequest, queryWorkers);
+            executionTimeNs = System.nanoTime() - startTimeNs;
+            return dataTable;
+          } finally {
+            if (queryDone.compareAndSet(false, true)) {
+              admissionController.onQueryDone(queryRequest, executionTimeNs);
+            }
+          }
+        }
+      });
+    } catch (RejectedExecutionException e) {
+      LOGGER.warn("Query runners rejected query request {}", queryRequest.getInstanceRequest().getRequestId());
+      admissionController.onQueryDone(queryRequest, -1L);
+      schedulerWaitTimer.stopAndRecord();
+      return Futures.immediateFuture(getErrorResponse(QueryException.SERVER_OVERLOADED_ERROR));
+    }
+    queryResultFuture.addListener(new Runnable() {
       @Override
-      public DataTable call() {
-        return queryExecutor.processQuery(queryRequest, queryWorkers);
+      public void run() {
+        if (queryResultFuture.isCancelled() && queryDone.compareAndSet(false, true)) {
+          admissionController.onQueryDone(queryRequest, -1L);
+        }
       }
-    });
+    }, MoreExecutors.directExecutor());
 
     return queryResultFuture;
   }
 
+  private static DataTable getErrorResponse(ProcessingException processingException) {
+    DataTable dataTable = new DataTableImplV2();
+    dataTable.addException(processingException);
+    return dataTable;
+  }
+
 }
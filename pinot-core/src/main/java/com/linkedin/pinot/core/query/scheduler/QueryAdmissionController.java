@@ -0,0 +1,183 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.core.query.scheduler;
+
+import com.google.common.base.Preconditions;
+import com.linkedin.pinot.common.metrics.ServerGauge;
+import com.linkedin.pinot.common.metrics.ServerMeter;
+import com.linkedin.pinot.common.metrics.ServerMetrics;
+import com.linkedin.pinot.common.query.QueryRequest;
+import com.linkedin.pinot.common.request.InstanceRequest;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.ThreadSafe;
+import org.apache.commons.configuration.Configuration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * Admission control of the queries submitted to a {@link QueryScheduler}, so that an overloaded server does not spend
+ * its query runners on queries the broker has already given up on.
+ * <ul>
+ *   <li>A query is rejected on arrival when the server already has the configured maximum number of pending (queued or
+ *   running) queries, or when the expected wait for a query runner exceeds the time left before the broker times out
+ *   the query. Rejected queries are answered right away, so the broker can retry them on another replica.</li>
+ *   <li>An admitted query whose broker deadline elapsed while it was waiting for a query runner is dropped instead of
+ *   being executed.</li>
+ * </ul>
+ * The broker deadline is only known for the requests carrying the broker timeout, the other requests are only subject
+ * to the limit on pending queries.
+ */
+@ThreadSafe
+public class QueryAdmissionController {
+  private static final Logger LOGGER = LoggerFactory.getLogger(QueryAdmissionController.class);
+
+  public static final String MAX_PENDING_QUERIES_CONFIG_KEY = "max_pending_queries";
+  public static final String SHED_EXPIRED_QUERIES_CONFIG_KEY = "shed_expired_queries";
+  // Non-positive value means no limit
+  public static final int DEFAULT_MAX_PENDING_QUERIES = -1;
+  public static final boolean DEFAULT_SHED_EXPIRED_QUERIES = true;
+
+  // Weight of the latest execution time in the moving average of the execution times
+  private static final double EXECUTION_TIME_WEIGHT = 0.1;
+
+  private final int _numQueryRunners;
+  private final int _maxPendingQueries;
+  private final boolean _shedExpiredQueries;
+  private final AtomicInteger _numPendingQueries = new AtomicInteger();
+  // Updated without synchronization, an approximation of the moving average is good enough
+  private volatile long _avgExecutionTimeNs;
+
+  public QueryAdmissionController(@Nonnull Configuration schedulerConfig, int numQueryRunners) {
+    Preconditions.checkArgument(numQueryRunners > 0);
+    _numQueryRunners = numQueryRunners;
+    _maxPendingQueries = schedulerConfig.getInt(MAX_PENDING_QUERIES_CONFIG_KEY, DEFAULT_MAX_PENDING_QUERIES);
+    _shedExpiredQueries = schedulerConfig.getBoolean(SHED_EXPIRED_QUERIES_CONFIG_KEY, DEFAULT_SHED_EXPIRED_QUERIES);
+    LOGGER.info("Initializing with max pending queries: {}, shed expired queries: {}", _maxPendingQueries,
+        _shedExpiredQueries);
+  }
+
+  /**
+   * Admits the query unless the server is overloaded. {@link #onQueryDone(QueryRequest, long)} must be called once an
+   * admitted query is done.
+   *
+   * @return true if the query is admitted, false if it should be rejected.
+   */
+  public boolean tryAdmit(@Nonnull QueryRequest queryRequest) {
+    while (true) {
+      int numPendingQueries = _numPendingQueries.get();
+      if (_maxPendingQueries > 0 && numPendingQueries >= _maxPendingQueries) {
+        return reject(queryRequest, numPendingQueries);
+      }
+      if (_shedExpiredQueries) {
+        long remainingTimeNs = getRemainingTimeNs(queryRequest, System.nanoTime());
+        if (remainingTimeNs != Long.MAX_VALUE && getExpectedWaitTimeNs(numPendingQueries) >= remainingTimeNs) {
+          return reject(queryRequest, numPendingQueries);
+        }
+      }
+      if (_numPendingQueries.compareAndSet(numPendingQueries, numPendingQueries + 1)) {
+        setPendingQueriesGauge(queryRequest, numPendingQueries + 1);
+        return true;
+      }
+    }
+  }
+
+  /**
+   * Returns true if the admitted query should be dropped because the broker deadline elapsed before its execution
+   * could start.
+   */
+  public boolean isExpired(@Nonnull QueryRequest queryRequest) {
+    if (!_shedExpiredQueries || getRemainingTimeNs(queryRequest, System.nanoTime()) > 0) {
+      return false;
+    }
+    InstanceRequest instanceRequest = queryRequest.getInstanceRequest();
+    LOGGER.debug("Dropping requestId: {} from broker: {}, deadline elapsed before execution",
+        instanceRequest.getRequestId(), instanceRequest.getBrokerId());
+    ServerMetrics serverMetrics = queryRequest.getServerMetrics();
+    if (serverMetrics != null) {
+      serverMetrics.addMeteredGlobalValue(ServerMeter.DROPPED_QUERIES_DEADLINE_EXPIRED, 1);
+    }
+    return true;
+  }
+
+  /**
+   * Must be called once an admitted query is done.
+   *
+   * @param executionTimeNs execution time of the query, or a negative value if the query was not executed.
+   */
+  public void onQueryDone(@Nonnull QueryRequest queryRequest, long executionTimeNs) {
+    setPendingQueriesGauge(queryRequest, _numPendingQueries.decrementAndGet());
+    if (executionTimeNs >= 0) {
+      long avgExecutionTimeNs = _avgExecutionTimeNs;
+      if (avgExecutionTimeNs == 0) {
+        _avgExecutionTimeNs = executionTimeNs;
+      } else {
+        _avgExecutionTimeNs =
+            (long) (EXECUTION_TIME_WEIGHT * executionTimeNs + (1 - EXECUTION_TIME_WEIGHT) * avgExecutionTimeNs);
+      }
+    }
+  }
+
+  public int getNumPendingQueries() {
+    return _numPendingQueries.get();
+  }
+
+  /**
+   * Returns the expected wait for a query runner of a query arriving when the given number of queries are pending,
+   * assuming queries take the average execution time.
+   */
+  long getExpectedWaitTimeNs(int numPendingQueries) {
+    int numQueriesAhead = numPendingQueries - _numQueryRunners + 1;
+    if (numQueriesAhead <= 0) {
+      return 0L;
+    }
+    return numQueriesAhead * _avgExecutionTimeNs / _numQueryRunners;
+  }
+
+  /**
+   * Returns the time left before the broker times out the query, or {@link Long#MAX_VALUE} if the broker timeout is
+   * not known.
+   */
+  static long getRemainingTimeNs(@Nonnull QueryRequest queryRequest, long nowNs) {
+    InstanceRequest instanceRequest = queryRequest.getInstanceRequest();
+    if (instanceRequest == null || !instanceRequest.isSetTimeoutMs()) {
+      return Long.MAX_VALUE;
+    }
+    long deadlineNs = queryRequest.getTimerContext().getQueryArrivalTimeNs() + TimeUnit.MILLISECONDS.toNanos(
+        instanceRequest.getTimeoutMs());
+    return deadlineNs - nowNs;
+  }
+
+  private boolean reject(QueryRequest queryRequest, int numPendingQueries) {
+    InstanceRequest instanceRequest = queryRequest.getInstanceRequest();
+    LOGGER.debug("Rejecting requestId: {} from broker: {} with {} pending queries", instanceRequest.getRequestId(),
+        instanceRequest.getBrokerId(), numPendingQueries);
+    ServerMetrics serverMetrics = queryRequest.getServerMetrics();
+    if (serverMetrics != null) {
+      serverMetrics.addMeteredGlobalValue(ServerMeter.REJECTED_QUERIES_SERVER_OVERLOADED, 1);
+    }
+    return false;
+  }
+
+  private static void setPendingQueriesGauge(QueryRequest queryRequest, int numPendingQueries) {
+    ServerMetrics serverMetrics = queryRequest.getServerMetrics();
+    if (serverMetrics != null) {
+      serverMetrics.setValueOfGlobalGauge(ServerGauge.PENDING_QUERIES, numPendingQueries);
+    }
+  }
+}
@@ -69,6 +69,9 @@ public abstract class QueryScheduler {
   // across groups of segments.
   protected ListeningExecutorService queryWorkers;
 
+  // Rejects queries when the server is overloaded and drops the queries the broker has already timed out on
+  protected final QueryAdmissionController admissionController;
+
   final QueryExecutor queryExecutor;
   static {
     int numCores = Runtime.getRuntime().availableProcessors();
@@ -86,6 +89,11 @@ public abstract class QueryScheduler {
    * 'pinot.query.scheduler.query_worker_threads' : controls the total number of workers for query execution.
    * Actual work of parallel processing of a query on each segment is done by these threads.
    * (Default: 2 * number of cores)
+   * 'pinot.query.scheduler.max_pending_queries' : maximum number of queued or running queries, queries arriving
+   * beyond that are rejected as server overloaded. (Default: no limit)
+   * 'pinot.query.scheduler.shed_expired_queries' : whether to reject the queries expected to wait for a query runner
+   * past their broker timeout, and to drop the queries whose broker timeout elapsed before their execution started.
+   * (Default: true)
    */
   public QueryScheduler(@Nonnull Configuration schedulerConfig, @Nonnull  QueryExecutor queryExecutor) {
     Preconditions.checkNotNull(schedulerConfig);
@@ -108,6 +116,7 @@ public abstract class QueryScheduler {
         .setNameFormat("pqw-%d")
         .build();
     queryWorkers = MoreExecutors.listeningDecorator(Executors.newFixedThreadPool(numQueryWorkerThreads, queryWorkersFactory));
+    admissionController = new QueryAdmissionController(schedulerConfig, numQueryRunnerThreads);
     this.queryExecutor = queryExecutor;
   }
 
@@ -123,4 +132,8 @@ public abstract class QueryScheduler {
   }
 
   public ExecutorService getWorkerExecutorService() { return queryWorkers; }
+
+  public QueryAdmissionController getAdmissionController() {
+    return admissionController;
+  }
 }
@@ -45,4 +45,11 @@ public interface MutableIndexSegment extends IndexSegment {
    * @return
    */
   int getAggregateDocumentCount();
+
+  /**
+   * Returns a read-only view of this segment that captures the number of searchable documents once, so that every
+   * column read during a query sees the same set of documents even while new events keep being indexed.
+   * @return
+   */
+  IndexSegment snapshot();
 }
@@ -0,0 +1,91 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.core.realtime.converter;
+
+import com.linkedin.pinot.core.io.reader.SingleColumnMultiValueReader;
+import com.linkedin.pinot.core.io.reader.SingleColumnSingleValueReader;
+import com.linkedin.pinot.core.realtime.impl.datasource.RealtimeColumnDataSource;
+import com.linkedin.pinot.core.realtime.impl.dictionary.BaseOnHeapMutableDictionary;
+import com.linkedin.pinot.core.segment.creator.DictionaryEncodedColumnReader;
+
+
+/**
+ * Dictionary encoded column reader over a column of an in-memory realtime segment, which reads the dictionary ids
+ * directly from the mutable forward index and dictionary of the realtime segment.
+ */
+public class RealtimeDictionaryEncodedColumnReader implements DictionaryEncodedColumnReader {
+  private final BaseOnHeapMutableDictionary _dictionary;
+  private final SingleColumnSingleValueReader _singleValueReader;
+  private final SingleColumnMultiValueReader _multiValueReader;
+  private final int _maxNumberOfMultiValues;
+  private final int _numDocs;
+  private final int[] _sortedDocIdIterationOrder;
+
+  /**
+   * @param dataSource Data source of the column in the realtime segment
+   * @param numDocs Number of documents in the realtime segment
+   * @param sortedDocIdIterationOrder Realtime segment document ids in the order of the segment to build, or null to
+   *                                  keep the realtime segment order
+   */
+  public RealtimeDictionaryEncodedColumnReader(RealtimeColumnDataSource dataSource, int numDocs,
+      int[] sortedDocIdIterationOrder) {
+    _dictionary = dataSource.getDictionary();
+    if (dataSource.getDataSourceMetadata().isSingleValue()) {
+      _singleValueReader = (SingleColumnSingleValueReader) dataSource.getForwardIndex();
+      _multiValueReader = null;
+    } else {
+      _singleValueReader = null;
+      _multiValueReader = (SingleColumnMultiValueReader) dataSource.getForwardIndex();
+    }
+    _maxNumberOfMultiValues = dataSource.getMaxNumberOfMultiValues();
+    _numDocs = numDocs;
+    _sortedDocIdIterationOrder = sortedDocIdIterationOrder;
+  }
+
+  @Override
+  public int getNumDocs() {
+    return _numDocs;
+  }
+
+  @Override
+  public int getCardinality() {
+    return _dictionary.length();
+  }
+
+  @Override
+  public int getMaxNumberOfMultiValues() {
+    return _maxNumberOfMultiValues;
+  }
+
+  @Override
+  public Object getValue(int dictId) {
+    return _dictionary.get(dictId);
+  }
+
+  @Override
+  public int getDictionaryId(int docId) {
+    return _singleValueReader.getInt(getRealtimeDocId(docId));
+  }
+
+  @Override
+  public int getDictionaryIds(int docId, int[] dictIds) {
+    return _multiValueReader.getIntArray(getRealtimeDocId(docId), dictIds);
+  }
+
+  private int getRealtimeDocId(int docId) {
+    return _sortedDocIdIterationOrder == null ? docId : _sortedDocIdIterationOrder[docId];
+  }
+}
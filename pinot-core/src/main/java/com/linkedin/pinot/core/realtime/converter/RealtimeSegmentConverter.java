@@ -18,13 +18,16 @@ package com.linkedin.pinot.core.realtime.converter;
 import com.linkedin.pinot.common.data.StarTreeIndexSpec;
 import java.io.File;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import com.linkedin.pinot.common.data.Schema;
 import com.linkedin.pinot.common.data.TimeFieldSpec;
 import com.linkedin.pinot.common.data.TimeGranularitySpec;
 import com.linkedin.pinot.core.indexsegment.generator.SegmentGeneratorConfig;
 import com.linkedin.pinot.core.indexsegment.generator.SegmentVersion;
+import com.linkedin.pinot.core.io.compression.ChunkCompressorFactory;
 import com.linkedin.pinot.core.realtime.converter.stats.RealtimeSegmentSegmentCreationDataSource;
 import com.linkedin.pinot.core.realtime.impl.RealtimeSegmentImpl;
 import com.linkedin.pinot.core.segment.creator.impl.SegmentIndexCreationDriverImpl;
@@ -40,11 +43,22 @@ public class RealtimeSegmentConverter {
   private String sortedColumn;
   private List<String> invertedIndexColumns;
   private List<String> noDictionaryColumns;
+  private Map<String, ChunkCompressorFactory.CompressionType> noDictionaryCompressionTypes;
   private StarTreeIndexSpec starTreeIndexSpec;
+  private int numIndexCreationThreads = 1;
+  private List<String> runLengthEncodedColumns = new ArrayList<>();
 
   public RealtimeSegmentConverter(RealtimeSegmentImpl realtimeSegment, String outputPath, Schema schema,
       String tableName, String segmentName, String sortedColumn, List<String> invertedIndexColumns,
       List<String> noDictionaryColumns, StarTreeIndexSpec starTreeIndexSpec) {
+    this(realtimeSegment, outputPath, schema, tableName, segmentName, sortedColumn, invertedIndexColumns,
+        noDictionaryColumns, new HashMap<String, ChunkCompressorFactory.CompressionType>(), starTreeIndexSpec);
+  }
+
+  public RealtimeSegmentConverter(RealtimeSegmentImpl realtimeSegment, String outputPath, Schema schema,
+      String tableName, String segmentName, String sortedColumn, List<String> invertedIndexColumns,
+      List<String> noDictionaryColumns, Map<String, ChunkCompressorFactory.CompressionType> noDictionaryCompressionTypes,
+      StarTreeIndexSpec starTreeIndexSpec) {
     if (new File(outputPath).exists()) {
       throw new IllegalAccessError("path already exists:" + outputPath);
     }
@@ -74,6 +88,7 @@ public class RealtimeSegmentConverter {
     this.tableName = tableName;
     this.segmentName = segmentName;
     this.noDictionaryColumns = noDictionaryColumns;
+    this.noDictionaryCompressionTypes = noDictionaryCompressionTypes;
     this.starTreeIndexSpec = starTreeIndexSpec;
   }
 
@@ -83,6 +98,20 @@ public class RealtimeSegmentConverter {
         new ArrayList<String>(), null/*StarTreeIndexSpec*/);
   }
 
+  /**
+   * Sets the number of threads used to build the indexes of different columns in parallel.
+   */
+  public void setNumIndexCreationThreads(int numIndexCreationThreads) {
+    this.numIndexCreationThreads = numIndexCreationThreads;
+  }
+
+  /**
+   * Sets the columns to store with a run length encoded forward index.
+   */
+  public void setRunLengthEncodedColumns(List<String> runLengthEncodedColumns) {
+    this.runLengthEncodedColumns = runLengthEncodedColumns;
+  }
+
   public void build(SegmentVersion segmentVersion) throws Exception {
     // lets create a record reader
     RealtimeSegmentRecordReader reader;
@@ -100,6 +129,10 @@ public class RealtimeSegmentConverter {
     if (noDictionaryColumns != null) {
       genConfig.setRawIndexCreationColumns(noDictionaryColumns);
     }
+    if (noDictionaryCompressionTypes != null) {
+      genConfig.setRawIndexCompressionType(noDictionaryCompressionTypes);
+    }
+    genConfig.setRunLengthEncodedColumns(runLengthEncodedColumns);
 
     // Presence of the spec enables star tree generation.
     if (starTreeIndexSpec != null) {
@@ -114,6 +147,7 @@ public class RealtimeSegmentConverter {
     genConfig.setOutDir(outputPath);
     genConfig.setSegmentName(segmentName);
     genConfig.setSegmentPartitionConfig(realtimeSegmentImpl.getSegmentPartitionConfig());
+    genConfig.setNumIndexCreationThreads(numIndexCreationThreads);
     final SegmentIndexCreationDriverImpl driver = new SegmentIndexCreationDriverImpl();
     driver.init(genConfig, new RealtimeSegmentSegmentCreationDataSource(realtimeSegmentImpl, reader, dataSchema));
     driver.build();
@@ -17,26 +17,35 @@
 package com.linkedin.pinot.core.realtime.converter.stats;
 
 import com.linkedin.pinot.common.data.Schema;
+import com.linkedin.pinot.core.data.extractors.PlainFieldExtractor;
 import com.linkedin.pinot.core.data.readers.RecordReader;
+import com.linkedin.pinot.core.realtime.converter.RealtimeDictionaryEncodedColumnReader;
 import com.linkedin.pinot.core.realtime.converter.RealtimeSegmentRecordReader;
 import com.linkedin.pinot.core.realtime.impl.RealtimeSegmentImpl;
-import com.linkedin.pinot.core.segment.creator.SegmentCreationDataSource;
+import com.linkedin.pinot.core.segment.creator.ColumnarSegmentCreationDataSource;
+import com.linkedin.pinot.core.segment.creator.DictionaryEncodedColumnReader;
 import com.linkedin.pinot.core.segment.creator.SegmentPreIndexStatsContainer;
 import com.linkedin.pinot.core.segment.creator.StatsCollectorConfig;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
 
 
 /**
- * Segment creation data source that is based on an in-memory realtime segment.
+ * Segment creation data source that is based on an in-memory realtime segment. Columns are provided directly from the
+ * mutable dictionaries and forward indexes of the realtime segment, so that the segment can be built column by column.
  */
-public class RealtimeSegmentSegmentCreationDataSource implements SegmentCreationDataSource {
+public class RealtimeSegmentSegmentCreationDataSource implements ColumnarSegmentCreationDataSource {
   private final RealtimeSegmentImpl _realtimeSegment;
   private final RealtimeSegmentRecordReader _realtimeSegmentRecordReader;
   private final Schema _schema;
+  private final Set<String> _realtimeSegmentColumns;
 
   public RealtimeSegmentSegmentCreationDataSource(RealtimeSegmentImpl realtimeSegment, RealtimeSegmentRecordReader realtimeSegmentRecordReader, Schema schema) {
     _realtimeSegment = realtimeSegment;
     _realtimeSegmentRecordReader = realtimeSegmentRecordReader;
     _schema = schema;
+    _realtimeSegmentColumns = new HashSet<>(Arrays.asList(realtimeSegment.getColumnNames()));
   }
 
   @Override
@@ -52,4 +61,19 @@ public class RealtimeSegmentSegmentCreationDataSource implements SegmentCreation
   public RecordReader getRecordReader() {
     return _realtimeSegmentRecordReader;
   }
+
+  @Override
+  public DictionaryEncodedColumnReader getDictionaryEncodedColumn(String column) {
+    if (!_realtimeSegmentColumns.contains(column)) {
+      return null;
+    }
+    return new RealtimeDictionaryEncodedColumnReader(_realtimeSegment.getDataSource(column),
+        _realtimeSegment.getRawDocumentCount(), _realtimeSegmentRecordReader.getSortedDocIdIterationOrder());
+  }
+
+  @Override
+  public PlainFieldExtractor getFieldExtractor() {
+    // The rows were transformed when indexed in the realtime segment
+    return null;
+  }
 }
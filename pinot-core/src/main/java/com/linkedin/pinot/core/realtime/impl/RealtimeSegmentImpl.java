@@ -31,6 +31,7 @@ import com.linkedin.pinot.core.common.DataSource;
 import com.linkedin.pinot.core.common.Predicate;
 import com.linkedin.pinot.core.data.GenericRow;
 import com.linkedin.pinot.core.data.readers.RecordReader;
+import com.linkedin.pinot.core.indexsegment.IndexSegment;
 import com.linkedin.pinot.core.indexsegment.IndexType;
 import com.linkedin.pinot.core.io.reader.DataFileReader;
 import com.linkedin.pinot.core.io.readerwriter.impl.FixedByteSingleColumnMultiValueReaderWriter;
@@ -48,16 +49,12 @@ import com.linkedin.pinot.core.segment.index.SegmentMetadataImpl;
 import com.linkedin.pinot.core.startree.StarTree;
 import com.linkedin.pinot.core.startree.StarTreeBuilderConfig;
 import java.io.IOException;
-import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.atomic.AtomicInteger;
 import org.joda.time.DateTime;
 import org.joda.time.Interval;
-import org.roaringbitmap.IntIterator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -66,6 +63,10 @@ public class RealtimeSegmentImpl implements RealtimeSegment {
   private final Logger LOGGER;
   public static final int[] EMPTY_DICTIONARY_IDS_ARRAY = new int[0];
 
+  // Constants used to estimate the memory used by the segment, see getEstimatedMemoryUsageInBytes()
+  private static final int INVERTED_INDEX_BYTES_PER_ENTRY = 2;
+  private static final int INVERTED_INDEX_BYTES_PER_BITMAP = 64;
+
   private SegmentMetadataImpl _segmentMetadata;
   private final Schema dataSchema;
 
@@ -82,9 +83,10 @@ public class RealtimeSegmentImpl implements RealtimeSegment {
 
   private Map<String, Integer> maxNumberOfMultivaluesMap;
 
-  private int docIdSearchableOffset = -1;
+  private volatile int docIdSearchableOffset = -1;
   private int numDocsIndexed = 0;
   private int numSuccessIndexed = 0;
+  private long numInvertedMultiValueEntriesIndexed = 0L;
 
   // to compute the rolling interval
   private long minTimeVal = Long.MAX_VALUE;
@@ -289,6 +291,9 @@ public class RealtimeSegmentImpl implements RealtimeSegment {
         ((FixedByteSingleColumnMultiValueReaderWriter) columnIndexReaderWriterMap.get(dimension)).setIntArray(docId,
             dicIds);
         rawRowToDicIdMap.put(dimension, dicIds);
+        if (invertedIndexMap.containsKey(dimension)) {
+          numInvertedMultiValueEntriesIndexed += dicIds.length;
+        }
       }
     }
 
@@ -360,18 +365,31 @@ public class RealtimeSegmentImpl implements RealtimeSegment {
 
   @Override
   public RealtimeColumnDataSource getDataSource(String columnName) {
+    return getDataSource(columnName, docIdSearchableOffset);
+  }
+
+  /**
+   * Returns a data source for the given column that only exposes documents up to (and including) the given offset.
+   * Used by {@link RealtimeSegmentSnapshot} so that all columns of a query see the same set of documents.
+   */
+  RealtimeColumnDataSource getDataSource(String columnName, int searchableOffset) {
     FieldSpec fieldSpec = dataSchema.getFieldSpecFor(columnName);
 
     if (fieldSpec.getFieldType() == FieldType.METRIC) {
       return new RealtimeColumnDataSource(fieldSpec, columnIndexReaderWriterMap.get(columnName),
-          invertedIndexMap.get(columnName), docIdSearchableOffset, -1, dataSchema, dictionaryMap.get(columnName));
+          invertedIndexMap.get(columnName), searchableOffset, -1, dataSchema, dictionaryMap.get(columnName));
     }
 
     return new RealtimeColumnDataSource(fieldSpec, columnIndexReaderWriterMap.get(columnName),
-        invertedIndexMap.get(columnName), docIdSearchableOffset, maxNumberOfMultivaluesMap.get(columnName), dataSchema,
+        invertedIndexMap.get(columnName), searchableOffset, maxNumberOfMultivaluesMap.get(columnName), dataSchema,
         dictionaryMap.get(columnName));
   }
 
+  @Override
+  public IndexSegment snapshot() {
+    return new RealtimeSegmentSnapshot(this, docIdSearchableOffset + 1);
+  }
+
   public DataSource getDataSource(String columnName, Predicate p) {
     DataSource ds = getDataSource(columnName);
     ds.setPredicate(p);
@@ -407,6 +425,42 @@ public class RealtimeSegmentImpl implements RealtimeSegment {
     return numSuccessIndexed;
   }
 
+  /**
+   * Returns an estimate of the memory used by the segment, in bytes. This covers the dictionaries, the forward indexes
+   * and the realtime inverted indexes. The forward indexes are counted with the buffers allocated for them, which are
+   * sized for the capacity of the segment up front rather than growing with the rows indexed.
+   * <p>This method should be called from the thread indexing rows.
+   */
+  public long getEstimatedMemoryUsageInBytes() {
+    long numDocs = numDocsIndexed;
+    long estimatedSize = 0L;
+
+    for (BaseOnHeapMutableDictionary dictionary : dictionaryMap.values()) {
+      estimatedSize += dictionary.getEstimatedSizeInBytes();
+    }
+
+    for (FieldSpec fieldSpec : dataSchema.getAllFieldSpecs()) {
+      String column = fieldSpec.getName();
+      if (fieldSpec.isSingleValueField()) {
+        estimatedSize += ((FixedByteSingleColumnSingleValueReaderWriter) columnIndexReaderWriterMap.get(
+            column)).getAllocatedSizeInBytes();
+      } else {
+        estimatedSize += ((FixedByteSingleColumnMultiValueReaderWriter) columnIndexReaderWriterMap.get(
+            column)).getAllocatedSizeInBytes();
+      }
+      if (invertedIndexMap.containsKey(column)) {
+        estimatedSize += (long) dictionaryMap.get(column).length() * INVERTED_INDEX_BYTES_PER_BITMAP;
+        if (fieldSpec.isSingleValueField()) {
+          estimatedSize += numDocs * INVERTED_INDEX_BYTES_PER_ENTRY;
+        }
+      }
+    }
+
+    estimatedSize += numInvertedMultiValueEntriesIndexed * INVERTED_INDEX_BYTES_PER_ENTRY;
+
+    return estimatedSize;
+  }
+
   @Override
   public void destroy() {
     LOGGER.info("Trying to close RealtimeSegmentImpl : {}", this.getSegmentName());
@@ -432,164 +486,54 @@ public class RealtimeSegmentImpl implements RealtimeSegment {
     _segmentMetadata.close();
   }
 
-  private IntIterator[] getSortedBitmapIntIteratorsForStringColumn(final String columnToSortOn) {
-    final RealtimeInvertedIndex index = invertedIndexMap.get(columnToSortOn);
-    final BaseOnHeapMutableDictionary dictionary = dictionaryMap.get(columnToSortOn);
-    final IntIterator[] intIterators = new IntIterator[dictionary.length()];
-
-    final List<String> rawValues = new ArrayList<String>();
-    for (int i = 0; i < dictionary.length(); i++) {
-      rawValues.add((String) dictionary.get(i));
-    }
-
-    long start = System.currentTimeMillis();
-    Collections.sort(rawValues);
-
-    LOGGER.info("Column {}, dictionary len : {}, time to sort : {} ", columnToSortOn, dictionary.length(),
-        (System.currentTimeMillis() - start));
-
-    for (int i = 0; i < rawValues.size(); i++) {
-      intIterators[i] = index.getDocIdSetFor(dictionary.indexOf(rawValues.get(i))).getIntIterator();
-    }
-    return intIterators;
-  }
-
-  private IntIterator[] getSortedBitmapIntIteratorsForIntegerColumn(final String columnToSortOn) {
-    final RealtimeInvertedIndex index = invertedIndexMap.get(columnToSortOn);
-    final BaseOnHeapMutableDictionary dictionary = dictionaryMap.get(columnToSortOn);
-    final IntIterator[] intIterators = new IntIterator[dictionary.length()];
-
-    int[] rawValuesArr = new int[dictionary.length()];
-
-    for (int i = 0; i < dictionary.length(); i++) {
-      rawValuesArr[i] = (Integer) dictionary.get(i);
-    }
-
-    Arrays.sort(rawValuesArr);
-
-    long start = System.currentTimeMillis();
-
-    LOGGER.info("Column {}, dictionary len : {}, time to sort : {} ", columnToSortOn, dictionary.length(),
-        (System.currentTimeMillis() - start));
-
-    for (int i = 0; i < rawValuesArr.length; i++) {
-      intIterators[i] = index.getDocIdSetFor(dictionary.indexOf(rawValuesArr[i])).getIntIterator();
+  /**
+   * Returns the docIds to use for iteration when the data is sorted by <code>columnToSortOn</code>
+   * <p>The docIds are counting sorted on the rank of their value in the sorted dictionary, which only requires the
+   * forward index and the dictionary of the column, and keeps docIds with the same value in increasing order.
+   *
+   * @param columnToSortOn The column to use for sorting
+   * @return The docIds to use for iteration
+   */
+  public int[] getSortedDocIdIterationOrderWithSortedColumn(final String columnToSortOn) {
+    if (!dataSchema.getFieldSpecFor(columnToSortOn).isSingleValueField()) {
+      throw new RuntimeException("Cannot sort on multi-value column " + columnToSortOn);
     }
-    return intIterators;
-  }
-
-  private IntIterator[] getSortedBitmapIntIteratorsForLongColumn(final String columnToSortOn) {
-    final RealtimeInvertedIndex index = invertedIndexMap.get(columnToSortOn);
     final BaseOnHeapMutableDictionary dictionary = dictionaryMap.get(columnToSortOn);
-    final IntIterator[] intIterators = new IntIterator[dictionary.length()];
-
-    final List<Long> rawValues = new ArrayList<Long>();
-    for (int i = 0; i < dictionary.length(); i++) {
-      rawValues.add((Long) dictionary.get(i));
-    }
+    final FixedByteSingleColumnSingleValueReaderWriter forwardIndex =
+        (FixedByteSingleColumnSingleValueReaderWriter) columnIndexReaderWriterMap.get(columnToSortOn);
+    final int numDocs = numDocsIndexed;
 
     long start = System.currentTimeMillis();
-    Collections.sort(rawValues);
 
-    LOGGER.info("Column {}, dictionary len : {}, time to sort : {} ", columnToSortOn, dictionary.length(),
-        (System.currentTimeMillis() - start));
-
-    for (int i = 0; i < rawValues.size(); i++) {
-      intIterators[i] = index.getDocIdSetFor(dictionary.indexOf(rawValues.get(i))).getIntIterator();
+    // Rank of each dictionary id in the sorted dictionary
+    int[] sortedDictIds = dictionary.getSortedDictIds();
+    int cardinality = sortedDictIds.length;
+    int[] dictIdToRank = new int[cardinality];
+    for (int rank = 0; rank < cardinality; rank++) {
+      dictIdToRank[sortedDictIds[rank]] = rank;
     }
-    return intIterators;
-  }
-
-  private IntIterator[] getSortedBitmapIntIteratorsForFloatColumn(final String columnToSortOn) {
-    final RealtimeInvertedIndex index = invertedIndexMap.get(columnToSortOn);
-    final BaseOnHeapMutableDictionary dictionary = dictionaryMap.get(columnToSortOn);
-    final IntIterator[] intIterators = new IntIterator[dictionary.length()];
 
-    final List<Float> rawValues = new ArrayList<Float>();
-    for (int i = 0; i < dictionary.length(); i++) {
-      rawValues.add((Float) dictionary.get(i));
+    // Count the docs for each rank, then turn the counts into the position of the first doc of each rank
+    int[] docRanks = new int[numDocs];
+    int[] rankPositions = new int[cardinality + 1];
+    for (int docId = 0; docId < numDocs; docId++) {
+      int rank = dictIdToRank[forwardIndex.getInt(docId)];
+      docRanks[docId] = rank;
+      rankPositions[rank + 1]++;
     }
-
-    long start = System.currentTimeMillis();
-    Collections.sort(rawValues);
-
-    LOGGER.info("Column {}, dictionary len : {}, time to sort : {} ", columnToSortOn, dictionary.length(),
-        (System.currentTimeMillis() - start));
-
-    for (int i = 0; i < rawValues.size(); i++) {
-      intIterators[i] = index.getDocIdSetFor(dictionary.indexOf(rawValues.get(i))).getIntIterator();
+    for (int rank = 0; rank < cardinality; rank++) {
+      rankPositions[rank + 1] += rankPositions[rank];
     }
-    return intIterators;
-  }
-
-  private IntIterator[] getSortedBitmapIntIteratorsForDoubleColumn(final String columnToSortOn) {
-    final RealtimeInvertedIndex index = invertedIndexMap.get(columnToSortOn);
-    final BaseOnHeapMutableDictionary dictionary = dictionaryMap.get(columnToSortOn);
-    final IntIterator[] intIterators = new IntIterator[dictionary.length()];
 
-    final List<Double> rawValues = new ArrayList<Double>();
-    for (int i = 0; i < dictionary.length(); i++) {
-      rawValues.add((Double) dictionary.get(i));
+    // Place the docIds at their position
+    int[] docIds = new int[numDocs];
+    for (int docId = 0; docId < numDocs; docId++) {
+      docIds[rankPositions[docRanks[docId]]++] = docId;
     }
 
-    long start = System.currentTimeMillis();
-    Collections.sort(rawValues);
-
-    LOGGER.info("Column {}, dictionary len : {}, time to sort : {} ", columnToSortOn, dictionary.length(),
+    LOGGER.info("Column {}, dictionary len : {}, time to sort {} docs : {}", columnToSortOn, cardinality, numDocs,
         (System.currentTimeMillis() - start));
 
-    for (int i = 0; i < rawValues.size(); i++) {
-      intIterators[i] = index.getDocIdSetFor(dictionary.indexOf(rawValues.get(i))).getIntIterator();
-    }
-    return intIterators;
-  }
-
-  /**
-   * Returns the docIds to use for iteration when the data is sorted by <code>columnToSortOn</code>
-   * @param columnToSortOn The column to use for sorting
-   * @return The docIds to use for iteration
-   */
-  public int[] getSortedDocIdIterationOrderWithSortedColumn(final String columnToSortOn) {
-    int[] docIds = new int[numDocsIndexed];
-    final IntIterator[] iterators;
-
-    // Get docId iterators that iterate in order on the data
-    switch (dataSchema.getFieldSpecFor(columnToSortOn).getDataType()) {
-      case INT:
-        iterators = getSortedBitmapIntIteratorsForIntegerColumn(columnToSortOn);
-        break;
-      case LONG:
-        iterators = getSortedBitmapIntIteratorsForLongColumn(columnToSortOn);
-        break;
-      case FLOAT:
-        iterators = getSortedBitmapIntIteratorsForFloatColumn(columnToSortOn);
-        break;
-      case DOUBLE:
-        iterators = getSortedBitmapIntIteratorsForDoubleColumn(columnToSortOn);
-        break;
-      case STRING:
-      case BOOLEAN:
-        iterators = getSortedBitmapIntIteratorsForStringColumn(columnToSortOn);
-        break;
-      default:
-        iterators = null;
-        break;
-    }
-
-    // Drain the iterators into the docIds array
-    int i = 0;
-    for (IntIterator iterator : iterators) {
-      while (iterator.hasNext()) {
-        docIds[i] = iterator.next();
-        ++i;
-      }
-    }
-
-    // Sanity check
-    if (i != numDocsIndexed) {
-      throw new RuntimeException("The number of docs indexed is not equal to the number of sorted documents");
-    }
-
     return docIds;
   }
 
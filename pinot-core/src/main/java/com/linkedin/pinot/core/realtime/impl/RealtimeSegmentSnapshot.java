@@ -0,0 +1,270 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.core.realtime.impl;
+
+import com.linkedin.pinot.common.data.MetricFieldSpec;
+import com.linkedin.pinot.common.data.Schema;
+import com.linkedin.pinot.common.segment.SegmentMetadata;
+import com.linkedin.pinot.common.segment.StarTreeMetadata;
+import com.linkedin.pinot.core.common.DataSource;
+import com.linkedin.pinot.core.indexsegment.IndexSegment;
+import com.linkedin.pinot.core.indexsegment.IndexType;
+import com.linkedin.pinot.core.startree.StarTreeInterf;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.joda.time.Duration;
+import org.joda.time.Interval;
+
+
+/**
+ * Point-in-time view of a consuming {@link RealtimeSegmentImpl}.
+ *
+ * The number of searchable documents is captured once when the snapshot is taken. Every data source handed out by
+ * the snapshot, as well as its segment metadata, is bounded by that count. This keeps all the columns of a query
+ * consistent with each other, and lets the operators treat the consuming segment like an immutable one.
+ */
+public class RealtimeSegmentSnapshot implements IndexSegment {
+  private final RealtimeSegmentImpl _segment;
+  private final int _numDocs;
+  private final SegmentMetadata _segmentMetadata;
+
+  public RealtimeSegmentSnapshot(RealtimeSegmentImpl segment, int numDocs) {
+    _segment = segment;
+    _numDocs = numDocs;
+    _segmentMetadata = new SnapshotSegmentMetadata(segment.getSegmentMetadata(), numDocs);
+  }
+
+  public int getNumDocs() {
+    return _numDocs;
+  }
+
+  @Override
+  public IndexType getIndexType() {
+    return _segment.getIndexType();
+  }
+
+  @Override
+  public String getSegmentName() {
+    return _segment.getSegmentName();
+  }
+
+  @Override
+  public String getAssociatedDirectory() {
+    return _segment.getAssociatedDirectory();
+  }
+
+  @Override
+  public SegmentMetadata getSegmentMetadata() {
+    return _segmentMetadata;
+  }
+
+  @Override
+  public DataSource getDataSource(String columnName) {
+    return _segment.getDataSource(columnName, _numDocs - 1);
+  }
+
+  @Override
+  public String[] getColumnNames() {
+    return _segment.getColumnNames();
+  }
+
+  /**
+   * The snapshot does not own the underlying segment, so this is a no-op.
+   */
+  @Override
+  public void destroy() {
+  }
+
+  @Override
+  public StarTreeInterf getStarTree() {
+    return null;
+  }
+
+  @Override
+  public long getDiskSizeBytes() {
+    return _segment.getDiskSizeBytes();
+  }
+
+  /**
+   * Segment metadata that delegates to the consuming segment's metadata, but reports the document count captured by
+   * the snapshot.
+   */
+  private static class SnapshotSegmentMetadata implements SegmentMetadata {
+    private final SegmentMetadata _delegate;
+    private final int _numDocs;
+
+    SnapshotSegmentMetadata(SegmentMetadata delegate, int numDocs) {
+      _delegate = delegate;
+      _numDocs = numDocs;
+    }
+
+    @Override
+    public String getTableName() {
+      return _delegate.getTableName();
+    }
+
+    @Override
+    public String getIndexType() {
+      return _delegate.getIndexType();
+    }
+
+    @Override
+    public String getTimeColumn() {
+      return _delegate.getTimeColumn();
+    }
+
+    @Override
+    public long getStartTime() {
+      return _delegate.getStartTime();
+    }
+
+    @Override
+    public long getEndTime() {
+      return _delegate.getEndTime();
+    }
+
+    @Override
+    public TimeUnit getTimeUnit() {
+      return _delegate.getTimeUnit();
+    }
+
+    @Override
+    public Duration getTimeGranularity() {
+      return _delegate.getTimeGranularity();
+    }
+
+    @Override
+    public Interval getTimeInterval() {
+      return _delegate.getTimeInterval();
+    }
+
+    @Override
+    public String getCrc() {
+      return _delegate.getCrc();
+    }
+
+    @Override
+    public String getVersion() {
+      return _delegate.getVersion();
+    }
+
+    @Override
+    public Schema getSchema() {
+      return _delegate.getSchema();
+    }
+
+    @Override
+    public String getShardingKey() {
+      return _delegate.getShardingKey();
+    }
+
+    @Override
+    public int getTotalDocs() {
+      return _numDocs;
+    }
+
+    @Override
+    public int getTotalRawDocs() {
+      // In realtime total docs and total raw docs are the same currently.
+      return _numDocs;
+    }
+
+    @Override
+    public String getIndexDir() {
+      return _delegate.getIndexDir();
+    }
+
+    @Override
+    public String getName() {
+      return _delegate.getName();
+    }
+
+    @Override
+    public long getIndexCreationTime() {
+      return _delegate.getIndexCreationTime();
+    }
+
+    @Override
+    public long getPushTime() {
+      return _delegate.getPushTime();
+    }
+
+    @Override
+    public long getRefreshTime() {
+      return _delegate.getRefreshTime();
+    }
+
+    @Override
+    public boolean hasDictionary(String columnName) {
+      return _delegate.hasDictionary(columnName);
+    }
+
+    @Override
+    public boolean hasStarTree() {
+      return _delegate.hasStarTree();
+    }
+
+    @Override
+    public StarTreeMetadata getStarTreeMetadata() {
+      return _delegate.getStarTreeMetadata();
+    }
+
+    @Override
+    public String getForwardIndexFileName(String column, String segmentVersion) {
+      return _delegate.getForwardIndexFileName(column, segmentVersion);
+    }
+
+    @Override
+    public String getDictionaryFileName(String column, String segmentVersion) {
+      return _delegate.getDictionaryFileName(column, segmentVersion);
+    }
+
+    @Override
+    public String getBitmapInvertedIndexFileName(String column, String segmentVersion) {
+      return _delegate.getBitmapInvertedIndexFileName(column, segmentVersion);
+    }
+
+    @Override
+    public String getCreatorName() {
+      return _delegate.getCreatorName();
+    }
+
+    @Override
+    public char getPaddingCharacter() {
+      return _delegate.getPaddingCharacter();
+    }
+
+    @Override
+    public int getHllLog2m() {
+      return _delegate.getHllLog2m();
+    }
+
+    @Override
+    public String getDerivedColumn(String column, MetricFieldSpec.DerivedMetricType derivedMetricType) {
+      return _delegate.getDerivedColumn(column, derivedMetricType);
+    }
+
+    @Override
+    public Map<String, String> toMap() {
+      return _delegate.toMap();
+    }
+
+    @Override
+    public boolean close() {
+      return true;
+    }
+  }
+}
@@ -191,4 +191,18 @@ public class RealtimeColumnDataSource extends DataSource {
   public BaseOnHeapMutableDictionary getDictionary() {
     return dictionary;
   }
+
+  /**
+   * Returns the forward index of the column, which stores dictionary ids.
+   */
+  public DataFileReader getForwardIndex() {
+    return indexReader;
+  }
+
+  /**
+   * Returns the maximum number of values in a document for multi-value columns.
+   */
+  public int getMaxNumberOfMultiValues() {
+    return maxNumberOfMultiValues;
+  }
 }
@@ -16,6 +16,8 @@
 package com.linkedin.pinot.core.realtime.impl.dictionary;
 
 import com.linkedin.pinot.core.segment.index.readers.Dictionary;
+import it.unimi.dsi.fastutil.ints.AbstractIntComparator;
+import it.unimi.dsi.fastutil.ints.IntArrays;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import javax.annotation.Nonnull;
@@ -34,9 +36,15 @@ public abstract class BaseOnHeapMutableDictionary implements Dictionary {
   private static final int INITIAL_DICTIONARY_SIZE = 1 << SHIFT_OFFSET;
   private static final int MASK = 0xFFFFFFFF >>> (Integer.SIZE - SHIFT_OFFSET);
 
+  // Approximate heap overhead of one entry: hash map node, boxed dictionary id and value array slot
+  private static final int ENTRY_OVERHEAD_IN_BYTES = 64;
+  // Approximate size of a boxed numeric value (object header plus up to 8 bytes of payload)
+  protected static final int BOXED_NUMBER_SIZE_IN_BYTES = 24;
+
   private final Map<Object, Integer> _valueToDictId = new ConcurrentHashMap<>(INITIAL_DICTIONARY_SIZE);
   private final Object[][] _dictIdToValue = new Object[INITIAL_DICTIONARY_SIZE][];
   private int _entriesIndexed = 0;
+  private long _valuesSizeInBytes = 0L;
 
   /**
    * For performance, we don't validate the dictId passed in. It should be returned by index() or indexOf().
@@ -101,6 +109,45 @@ public abstract class BaseOnHeapMutableDictionary implements Dictionary {
     return _entriesIndexed == 0;
   }
 
+  /**
+   * Returns an estimate of the heap memory used by this dictionary, in bytes.
+   * <p>This method can be called by reader threads while the writer thread is indexing values, in which case the
+   * estimate may lag slightly behind.
+   */
+  public long getEstimatedSizeInBytes() {
+    return (long) _entriesIndexed * ENTRY_OVERHEAD_IN_BYTES + _valuesSizeInBytes;
+  }
+
+  /**
+   * Returns the estimated heap size of a single value, used for the memory estimate of the dictionary. Dictionaries of
+   * variable length values should override this method.
+   */
+  protected int getValueSizeInBytes(@Nonnull Object value) {
+    return BOXED_NUMBER_SIZE_IN_BYTES;
+  }
+
+  /**
+   * Returns the dictionary ids sorted on their values, i.e. the dictionary id at index <code>i</code> is the one of the
+   * <code>i</code>-th smallest value.
+   * <p>This method should be called by the writer thread, or after the writer thread stopped indexing values.
+   */
+  @Nonnull
+  public int[] getSortedDictIds() {
+    int numValues = _entriesIndexed;
+    int[] sortedDictIds = new int[numValues];
+    for (int i = 0; i < numValues; i++) {
+      sortedDictIds[i] = i;
+    }
+    IntArrays.quickSort(sortedDictIds, new AbstractIntComparator() {
+      @SuppressWarnings("unchecked")
+      @Override
+      public int compare(int dictId1, int dictId2) {
+        return ((Comparable) get(dictId1)).compareTo(get(dictId2));
+      }
+    });
+    return sortedDictIds;
+  }
+
   public abstract void index(@Nonnull Object rawValue);
 
   public abstract boolean inRange(@Nonnull String lower, @Nonnull String upper, int dictIdToCompare,
@@ -135,6 +182,7 @@ public abstract class BaseOnHeapMutableDictionary implements Dictionary {
       // Ensure we can always fetch value by dictId returned by index() or indexOf()
       _dictIdToValue[arrayIndex][arrayOffset] = value;
       _valueToDictId.put(value, _entriesIndexed);
+      _valuesSizeInBytes += getValueSizeInBytes(value);
       _entriesIndexed++;
     }
   }
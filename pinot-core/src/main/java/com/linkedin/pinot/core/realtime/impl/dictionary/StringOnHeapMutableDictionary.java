@@ -20,6 +20,9 @@ import javax.annotation.Nonnull;
 
 
 public class StringOnHeapMutableDictionary extends BaseOnHeapMutableDictionary {
+  // Approximate size of a String object and its backing char array, excluding the characters
+  private static final int STRING_OVERHEAD_IN_BYTES = 56;
+
   private String _min = null;
   private String _max = null;
 
@@ -118,6 +121,11 @@ public class StringOnHeapMutableDictionary extends BaseOnHeapMutableDictionary {
     throw new UnsupportedOperationException();
   }
 
+  @Override
+  protected int getValueSizeInBytes(@Nonnull Object value) {
+    return STRING_OVERHEAD_IN_BYTES + 2 * ((String) value).length();
+  }
+
   private void updateMinMax(String value) {
     if (_min == null) {
       _min = value;
@@ -15,8 +15,8 @@
  */
 package com.linkedin.pinot.core.realtime.impl.kafka;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.ArrayList;
+import java.util.List;
 
 import org.apache.avro.generic.GenericData;
 import org.apache.avro.generic.GenericData.Array;
@@ -37,6 +37,32 @@ public class AvroRecordToPinotRowGenerator {
     this.indexingSchema = indexingSchema;
   }
 
+  /**
+   * Returns a reader schema for the given writer schema that only contains the fields which are columns of the
+   * indexing schema, so that the Avro decoder can skip over all other fields without materializing them. Fields are
+   * kept with the same name, type and default value as in the writer schema, so that reading with the projected schema
+   * is a plain schema resolution.
+   *
+   * @param writerSchema Avro schema with which the records were written
+   * @return Projected reader schema
+   */
+  public org.apache.avro.Schema getProjectedSchema(org.apache.avro.Schema writerSchema) {
+    List<org.apache.avro.Schema.Field> projectedFields = new ArrayList<>();
+    for (String column : indexingSchema.getColumnNames()) {
+      org.apache.avro.Schema.Field field = writerSchema.getField(column);
+      if (field != null) {
+        projectedFields.add(
+            new org.apache.avro.Schema.Field(field.name(), field.schema(), field.doc(), field.defaultValue()));
+      }
+    }
+
+    org.apache.avro.Schema projectedSchema =
+        org.apache.avro.Schema.createRecord(writerSchema.getName(), writerSchema.getDoc(),
+            writerSchema.getNamespace(), writerSchema.isError());
+    projectedSchema.setFields(projectedFields);
+    return projectedSchema;
+  }
+
   public GenericRow transform(GenericData.Record record, org.apache.avro.Schema schema, GenericRow destination) {
     for (String column : indexingSchema.getColumnNames()) {
       Object entry = record.get(column);
@@ -23,9 +23,9 @@ import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.Callable;
-import org.apache.avro.generic.GenericData;
 import org.apache.avro.generic.GenericData.Record;
 import org.apache.avro.generic.GenericDatumReader;
+import org.apache.avro.io.BinaryDecoder;
 import org.apache.avro.io.DatumReader;
 import org.apache.avro.io.DecoderFactory;
 import org.apache.commons.lang.StringUtils;
@@ -42,10 +42,12 @@ public class KafkaAvroMessageDecoder implements KafkaMessageDecoder {
   private static final String SCHEMA_REGISTRY_REST_URL = "schema.registry.rest.url";
   private static final String SCHEMA_REGISTRY_SCHEMA_NAME = "schema.registry.schema.name";
   private org.apache.avro.Schema defaultAvroSchema;
-  private Map<String, org.apache.avro.Schema> md5ToAvroSchemaMap;
+  private ProjectedRecordReader defaultRecordReader;
+  private Map<String, ProjectedRecordReader> md5ToRecordReaderMap;
 
   private String schemaRegistryBaseUrl;
   private DecoderFactory decoderFactory;
+  private BinaryDecoder reusableDecoder;
   private AvroRecordToPinotRowGenerator avroRecordConvetrer;
 
   private static final int MAGIC_BYTE_LENGTH = 1;
@@ -73,7 +75,8 @@ public class KafkaAvroMessageDecoder implements KafkaMessageDecoder {
     defaultAvroSchema = fetchSchema(new URL(schemaRegistryBaseUrl + "/latest_with_type=" + avroSchemaName));
     this.avroRecordConvetrer = new AvroRecordToPinotRowGenerator(indexingSchema);
     this.decoderFactory = new DecoderFactory();
-    md5ToAvroSchemaMap = new HashMap<String, org.apache.avro.Schema>();
+    defaultRecordReader = new ProjectedRecordReader(defaultAvroSchema);
+    md5ToRecordReaderMap = new HashMap<String, ProjectedRecordReader>();
   }
 
   @Override
@@ -90,34 +93,56 @@ public class KafkaAvroMessageDecoder implements KafkaMessageDecoder {
     byte[] md5 = Arrays.copyOfRange(payload, SCHEMA_HASH_START_OFFSET + offset, SCHEMA_HASH_END_OFFSET + offset);
 
     String md5String = hex(md5);
-    org.apache.avro.Schema schema = null;
+    ProjectedRecordReader recordReader = md5ToRecordReaderMap.get(md5String);
     boolean schemaUpdateFailed = false;
-    if (md5ToAvroSchemaMap.containsKey(md5String)) {
-      schema = md5ToAvroSchemaMap.get(md5String);
-    } else {
+    if (recordReader == null) {
       final String schemaUri = schemaRegistryBaseUrl + "/id=" + md5String;
       try {
-        schema = fetchSchema(new URL(schemaUri));
-        md5ToAvroSchemaMap.put(md5String, schema);
+        recordReader = new ProjectedRecordReader(fetchSchema(new URL(schemaUri)));
+        md5ToRecordReaderMap.put(md5String, recordReader);
       } catch (Exception e) {
-        schema = defaultAvroSchema;
+        recordReader = defaultRecordReader;
         LOGGER.error("Error fetching schema using url {}. Attempting to continue with previous schema", schemaUri, e);
         schemaUpdateFailed = true;
       }
     }
-    DatumReader<Record> reader = new GenericDatumReader<Record>(schema);
     try {
-      GenericData.Record avroRecord =
-          reader.read(null, decoderFactory.createBinaryDecoder(payload, HEADER_LENGTH + offset,
-              length - HEADER_LENGTH, null));
-      return avroRecordConvetrer.transform(avroRecord, schema, destination);
+      reusableDecoder =
+          decoderFactory.binaryDecoder(payload, HEADER_LENGTH + offset, length - HEADER_LENGTH, reusableDecoder);
+      return avroRecordConvetrer.transform(recordReader.read(reusableDecoder), recordReader.getWriterSchema(),
+          destination);
     } catch (IOException e) {
+      org.apache.avro.Schema schema = recordReader.getWriterSchema();
       LOGGER.error("Caught exception while reading message using schema {}{}", (schema==null ? "null" : schema.getName()),
           (schemaUpdateFailed? "(possibly due to schema update failure)" : ""), e);
       return null;
     }
   }
 
+  /**
+   * Reads records written with a given schema into a reused record that only contains the columns of the indexing
+   * schema, avoiding the creation of a datum reader and the materialization of unused fields for every message.
+   */
+  private class ProjectedRecordReader {
+    private final org.apache.avro.Schema _writerSchema;
+    private final DatumReader<Record> _datumReader;
+    private Record _reusableRecord;
+
+    ProjectedRecordReader(org.apache.avro.Schema writerSchema) {
+      _writerSchema = writerSchema;
+      _datumReader = new GenericDatumReader<Record>(writerSchema, avroRecordConvetrer.getProjectedSchema(writerSchema));
+    }
+
+    Record read(BinaryDecoder decoder) throws IOException {
+      _reusableRecord = _datumReader.read(_reusableRecord, decoder);
+      return _reusableRecord;
+    }
+
+    org.apache.avro.Schema getWriterSchema() {
+      return _writerSchema;
+    }
+  }
+
   private String hex(byte[] bytes) {
     StringBuilder builder = new StringBuilder(2 * bytes.length);
     for (byte aByte : bytes) {
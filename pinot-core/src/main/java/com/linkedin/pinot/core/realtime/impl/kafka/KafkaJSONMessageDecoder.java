@@ -15,78 +15,91 @@
  */
 package com.linkedin.pinot.core.realtime.impl.kafka;
 
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
-import org.json.JSONArray;
-import org.json.JSONObject;
+import org.codehaus.jackson.JsonFactory;
+import org.codehaus.jackson.JsonParser;
+import org.codehaus.jackson.JsonToken;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.linkedin.pinot.common.data.FieldSpec;
 import com.linkedin.pinot.common.data.Schema;
-import com.linkedin.pinot.common.data.TimeFieldSpec;
 import com.linkedin.pinot.core.data.GenericRow;
 import com.linkedin.pinot.core.data.readers.AvroRecordReader;
 
 
+/**
+ * Decodes JSON messages into {@link GenericRow}s.
+ * <p>The message is read token by token with a streaming parser, and only the top-level fields that are columns of the
+ * Pinot schema are converted; all other fields (including nested objects and arrays) are skipped without being
+ * materialized. Columns absent from the message are filled with their default null value.
+ */
 public class KafkaJSONMessageDecoder implements KafkaMessageDecoder {
   private static final Logger LOGGER = LoggerFactory.getLogger(KafkaJSONMessageDecoder.class);
 
-  private Schema schema;
+  private final JsonFactory _jsonFactory = new JsonFactory();
+
+  // Field specs indexed by position, and the position of each column name
+  private FieldSpec[] _fieldSpecs;
+  private Map<String, Integer> _columnIndexMap;
+
+  // Reused across messages to keep track of the columns present in the current message
+  private boolean[] _columnFound;
+  private final List<Object> _multiValueBuffer = new ArrayList<>();
 
   @Override
   public void init(Map<String, String> props, Schema indexingSchema, String kafkaTopicName) throws Exception {
-    this.schema = indexingSchema;
+    _fieldSpecs = indexingSchema.getAllFieldSpecs().toArray(new FieldSpec[0]);
+    _columnIndexMap = new HashMap<>(_fieldSpecs.length * 2);
+    for (int i = 0; i < _fieldSpecs.length; i++) {
+      _columnIndexMap.put(_fieldSpecs[i].getName(), i);
+    }
+    _columnFound = new boolean[_fieldSpecs.length];
   }
 
   @Override
   public GenericRow decode(byte[] payload, GenericRow destination) {
-    try {
-      String text = new String(payload, "UTF-8");
-      JSONObject message = new JSONObject(text);
-      for (FieldSpec dimensionSpec : schema.getDimensionFieldSpecs()) {
-        if (message.has(dimensionSpec.getName())) {
-          Object entry;
-          if (dimensionSpec.isSingleValueField()) {
-            entry = stringToDataType(dimensionSpec, message.getString(dimensionSpec.getName()));
-          } else {
-            JSONArray jsonArray = message.getJSONArray(dimensionSpec.getName());
-            Object[] array = new Object[jsonArray.length()];
-            for (int i = 0; i < array.length; i++) {
-              array[i] = stringToDataType(dimensionSpec, jsonArray.getString(i));
-            }
-            if (array.length == 0) {
-              entry = new Object[] { AvroRecordReader.getDefaultNullValue(dimensionSpec) };
-            } else {
-              entry = array;
-            }
-          }
-          destination.putField(dimensionSpec.getName(), entry);
-        } else {
-          Object entry = AvroRecordReader.getDefaultNullValue(dimensionSpec);
-          destination.putField(dimensionSpec.getName(), entry);
-        }
+    return decode(payload, 0, payload.length, destination);
+  }
+
+  @Override
+  public GenericRow decode(byte[] payload, int offset, int length, GenericRow destination) {
+    Arrays.fill(_columnFound, false);
+
+    try (JsonParser parser = _jsonFactory.createJsonParser(payload, offset, length)) {
+      if (parser.nextToken() != JsonToken.START_OBJECT) {
+        throw new IOException("Expected a JSON object at the start of the message");
       }
 
-      for (FieldSpec metricSpec : schema.getMetricFieldSpecs()) {
-        if (message.has(metricSpec.getName())) {
-          Object entry = stringToDataType(metricSpec, message.getString(metricSpec.getName()));
-          destination.putField(metricSpec.getName(), entry);
+      while (parser.nextToken() == JsonToken.FIELD_NAME) {
+        Integer columnIndex = _columnIndexMap.get(parser.getCurrentName());
+        JsonToken valueToken = parser.nextToken();
+        if (columnIndex == null) {
+          parser.skipChildren();
+          continue;
+        }
+
+        FieldSpec fieldSpec = _fieldSpecs[columnIndex];
+        Object entry;
+        if (fieldSpec.isSingleValueField()) {
+          entry = readSingleValue(parser, valueToken, fieldSpec);
         } else {
-          Object entry = AvroRecordReader.getDefaultNullValue(metricSpec);
-          destination.putField(metricSpec.getName(), entry);
+          entry = readMultiValue(parser, valueToken, fieldSpec);
         }
+        destination.putField(fieldSpec.getName(), entry);
+        _columnFound[columnIndex] = true;
       }
 
-      TimeFieldSpec timeSpec = schema.getTimeFieldSpec();
-      if (message.has(timeSpec.getName())) {
-        Object entry = stringToDataType(timeSpec, message.getString(timeSpec.getName()));
-        destination.putField(timeSpec.getName(), entry);
-      } else {
-        Object entry = AvroRecordReader.getDefaultNullValue(timeSpec);
-        destination.putField(timeSpec.getName(), entry);
+      for (int i = 0; i < _fieldSpecs.length; i++) {
+        if (!_columnFound[i]) {
+          destination.putField(_fieldSpecs[i].getName(), AvroRecordReader.getDefaultNullValue(_fieldSpecs[i]));
+        }
       }
 
       return destination;
@@ -96,9 +109,29 @@ public class KafkaJSONMessageDecoder implements KafkaMessageDecoder {
     return null;
   }
 
-  @Override
-  public GenericRow decode(byte[] payload, int offset, int length, GenericRow destination) {
-    return decode(Arrays.copyOfRange(payload, offset, offset + length), destination);
+  private Object readSingleValue(JsonParser parser, JsonToken valueToken, FieldSpec fieldSpec) throws IOException {
+    if (valueToken == JsonToken.START_OBJECT || valueToken == JsonToken.START_ARRAY) {
+      parser.skipChildren();
+      return AvroRecordReader.getDefaultNullValue(fieldSpec);
+    }
+    return stringToDataType(fieldSpec, valueToken == JsonToken.VALUE_NULL ? null : parser.getText());
+  }
+
+  private Object readMultiValue(JsonParser parser, JsonToken valueToken, FieldSpec fieldSpec) throws IOException {
+    if (valueToken != JsonToken.START_ARRAY) {
+      parser.skipChildren();
+      return new Object[]{AvroRecordReader.getDefaultNullValue(fieldSpec)};
+    }
+
+    _multiValueBuffer.clear();
+    JsonToken elementToken;
+    while ((elementToken = parser.nextToken()) != JsonToken.END_ARRAY) {
+      _multiValueBuffer.add(readSingleValue(parser, elementToken, fieldSpec));
+    }
+    if (_multiValueBuffer.isEmpty()) {
+      return new Object[]{AvroRecordReader.getDefaultNullValue(fieldSpec)};
+    }
+    return _multiValueBuffer.toArray();
   }
 
   private Object stringToDataType(FieldSpec spec, String inString) {
@@ -108,16 +141,16 @@ public class KafkaJSONMessageDecoder implements KafkaMessageDecoder {
 
     switch (spec.getDataType()) {
       case INT:
-        return new Integer(Integer.parseInt(inString));
+        return Integer.parseInt(inString);
       case LONG:
-        return new Long(Long.parseLong(inString));
+        return Long.parseLong(inString);
       case FLOAT:
-        return new Float(Float.parseFloat(inString));
+        return Float.parseFloat(inString);
       case DOUBLE:
-        return new Double(Double.parseDouble(inString));
+        return Double.parseDouble(inString);
       case BOOLEAN:
       case STRING:
-        return inString.toString();
+        return inString;
       default:
         return null;
     }
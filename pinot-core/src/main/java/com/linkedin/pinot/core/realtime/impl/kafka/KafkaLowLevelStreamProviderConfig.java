@@ -21,6 +21,7 @@ import com.linkedin.pinot.common.config.AbstractTableConfig;
 import com.linkedin.pinot.common.data.Schema;
 import com.linkedin.pinot.common.metadata.instance.InstanceZKMetadata;
 import com.linkedin.pinot.common.utils.CommonConstants;
+import com.linkedin.pinot.common.utils.DataSize;
 
 
 /**
@@ -31,6 +32,7 @@ public class KafkaLowLevelStreamProviderConfig extends KafkaHighLevelStreamProvi
 
   private long llcSegmentTimeInMillis = NOT_DEFINED;
   private int llcRealtimeRecordsThreshold = NOT_DEFINED;
+  private long llcRealtimeMemoryThresholdBytes = NOT_DEFINED;
   public static final String LLC_PROPERTY_SUFFIX = ".llc";
 
   @Override
@@ -46,6 +48,8 @@ public class KafkaLowLevelStreamProviderConfig extends KafkaHighLevelStreamProvi
       llcSegmentTimeInMillis =
           Long.parseLong(tableConfig.getIndexingConfig().getStreamConfigs().get(CommonConstants.Helix.DataSource.Realtime.REALTIME_SEGMENT_FLUSH_TIME + LLC_PROPERTY_SUFFIX));
     }
+
+    initMemoryThreshold(tableConfig.getIndexingConfig().getStreamConfigs());
   }
 
   @Override
@@ -61,6 +65,18 @@ public class KafkaLowLevelStreamProviderConfig extends KafkaHighLevelStreamProvi
       llcSegmentTimeInMillis =
           convertToMs(properties.get(CommonConstants.Helix.DataSource.Realtime.REALTIME_SEGMENT_FLUSH_TIME + LLC_PROPERTY_SUFFIX));
     }
+
+    initMemoryThreshold(properties);
+  }
+
+  private void initMemoryThreshold(Map<String, String> properties) {
+    String memoryThreshold = properties.get(CommonConstants.Helix.DataSource.Realtime.REALTIME_SEGMENT_FLUSH_MEMORY_SIZE);
+    if (memoryThreshold != null) {
+      long memoryThresholdBytes = DataSize.toBytes(memoryThreshold);
+      if (memoryThresholdBytes > 0) {
+        llcRealtimeMemoryThresholdBytes = memoryThresholdBytes;
+      }
+    }
   }
 
   @Override
@@ -72,6 +88,17 @@ public class KafkaLowLevelStreamProviderConfig extends KafkaHighLevelStreamProvi
     }
   }
 
+  /**
+   * Returns the upper bound on the estimated memory used by a consuming segment in bytes, or -1 if not configured.
+   */
+  public long getMemoryThresholdToFlushSegment() {
+    if (llcRealtimeMemoryThresholdBytes != NOT_DEFINED) {
+      return llcRealtimeMemoryThresholdBytes;
+    } else {
+      return -1L;
+    }
+  }
+
   @Override
   public long getTimeThresholdToFlushSegment() {
     if (llcSegmentTimeInMillis != NOT_DEFINED) {
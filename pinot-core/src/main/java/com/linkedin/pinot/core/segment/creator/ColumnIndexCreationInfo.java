@@ -15,7 +15,7 @@
  */
 package com.linkedin.pinot.core.segment.creator;
 
-import com.linkedin.pinot.core.data.partition.PartitionFunction;
+import com.linkedin.pinot.common.partition.PartitionFunction;
 import java.util.List;
 import org.apache.commons.lang.math.IntRange;
 import org.apache.commons.lang3.ArrayUtils;
@@ -0,0 +1,42 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.core.segment.creator;
+
+import com.linkedin.pinot.core.data.extractors.PlainFieldExtractor;
+
+/**
+ * Data source used to build segments that can provide its columns already dictionary encoded. Segments built from such
+ * a data source are indexed column by column, without materializing rows or looking up every value in the segment
+ * dictionary.
+ */
+public interface ColumnarSegmentCreationDataSource extends SegmentCreationDataSource {
+  /**
+   * Returns the dictionary encoded values of a column, in the document order of the segment to build, or null if the
+   * column is not available in dictionary encoded form.
+   *
+   * @param column The column name
+   * @return The dictionary encoded column, or null if not available
+   */
+  DictionaryEncodedColumnReader getDictionaryEncodedColumn(String column);
+
+  /**
+   * Returns the field extractor used by the data source to transform the input records, which holds the counts of
+   * errors, type conversions and nulls, or null if the data source did not read the input records.
+   *
+   * @return The field extractor, or null if not available
+   */
+  PlainFieldExtractor getFieldExtractor();
+}
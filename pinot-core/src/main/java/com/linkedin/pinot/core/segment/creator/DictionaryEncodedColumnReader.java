@@ -0,0 +1,57 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.core.segment.creator;
+
+/**
+ * Reader over the values of a dictionary encoded column, used to build segments column by column. Dictionary ids are in
+ * the range [0, cardinality) but do not need to follow the sort order of the values, and document ids are in the range
+ * [0, numDocs) in the document order of the segment to build.
+ */
+public interface DictionaryEncodedColumnReader {
+  /**
+   * Returns the number of documents in the column.
+   */
+  int getNumDocs();
+
+  /**
+   * Returns the number of distinct values in the column.
+   */
+  int getCardinality();
+
+  /**
+   * Returns the maximum number of values in a document for multi-value columns.
+   */
+  int getMaxNumberOfMultiValues();
+
+  /**
+   * Returns the value for the given dictionary id.
+   */
+  Object getValue(int dictId);
+
+  /**
+   * Returns the dictionary id of the given document for single-value columns.
+   */
+  int getDictionaryId(int docId);
+
+  /**
+   * Reads the dictionary ids of the given document for multi-value columns.
+   *
+   * @param docId Document id
+   * @param dictIds Buffer to read the dictionary ids into, at least as large as the maximum number of multi-values
+   * @return Number of dictionary ids read
+   */
+  int getDictionaryIds(int docId, int[] dictIds);
+}
@@ -16,6 +16,7 @@
 package com.linkedin.pinot.core.segment.creator;
 
 import com.linkedin.pinot.core.data.GenericRow;
+import java.io.Closeable;
 import java.io.File;
 import java.io.IOException;
 import java.util.Map;
@@ -27,8 +28,10 @@ import org.apache.commons.configuration.ConfigurationException;
 
 /**
  * Interface for segment creators, which create an index over a set of rows and writes the resulting index to disk.
+ * <p>The segment creator must be closed once done with, whether or not the segment was sealed, to release the
+ * resources it holds.
  */
-public interface SegmentCreator {
+public interface SegmentCreator extends Closeable {
 
   /**
    * Initializes the segment creation.
@@ -49,6 +52,22 @@ public interface SegmentCreator {
    */
   void indexRow(GenericRow row);
 
+  /**
+   * Adds all the values of a column to the index at once. This is an alternative to {@link #indexRow(GenericRow)}, and
+   * all the columns of the segment must be indexed this way.
+   *
+   * @param column The name of the column to index
+   * @param columnReader The dictionary encoded values of the column
+   */
+  void indexColumn(String column, DictionaryEncodedColumnReader columnReader);
+
+  /**
+   * Adds all the values of the given columns to the index, possibly indexing several columns in parallel.
+   *
+   * @param columnReaders The dictionary encoded values of the columns to index, keyed by column name
+   */
+  void indexColumns(Map<String, DictionaryEncodedColumnReader> columnReaders);
+
   /**
    * Sets the name of the segment.
    *
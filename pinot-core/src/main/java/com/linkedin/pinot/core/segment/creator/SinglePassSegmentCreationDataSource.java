@@ -0,0 +1,135 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.core.segment.creator;
+
+import com.linkedin.pinot.common.Utils;
+import com.linkedin.pinot.common.data.FieldSpec;
+import com.linkedin.pinot.core.data.GenericRow;
+import com.linkedin.pinot.core.data.extractors.FieldExtractorFactory;
+import com.linkedin.pinot.core.data.extractors.PlainFieldExtractor;
+import com.linkedin.pinot.core.data.readers.RecordReader;
+import com.linkedin.pinot.core.segment.creator.impl.stats.SegmentPreIndexStatsCollectorImpl;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import org.apache.commons.io.FileUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * Segment creation data source that reads the input records only once. While the column statistics are collected, the
+ * dictionary encoded values of all columns are buffered off-heap and spilled to temporary files, so that the segment
+ * can then be built column by column without reading and decoding the input records a second time.
+ */
+public class SinglePassSegmentCreationDataSource implements ColumnarSegmentCreationDataSource, Closeable {
+  private static final Logger LOGGER = LoggerFactory.getLogger(SinglePassSegmentCreationDataSource.class);
+
+  private final RecordReader _recordReader;
+  private final File _tempDir;
+  private final Map<String, SpilledDictionaryEncodedColumn> _columns = new HashMap<>();
+  private PlainFieldExtractor _fieldExtractor;
+
+  /**
+   * @param recordReader Reader of the input records
+   * @param tempDir Temporary directory for the spilled dictionary ids, deleted on close
+   */
+  public SinglePassSegmentCreationDataSource(RecordReader recordReader, File tempDir) {
+    _recordReader = recordReader;
+    _tempDir = tempDir;
+
+    try {
+      recordReader.init();
+    } catch (Exception e) {
+      LOGGER.error("Caught exception while initializing record reader", e);
+      Utils.rethrowException(e);
+    }
+  }
+
+  @Override
+  public SegmentPreIndexStatsContainer gatherStats(StatsCollectorConfig statsCollectorConfig) {
+    try {
+      PlainFieldExtractor fieldExtractor = FieldExtractorFactory.getPlainFieldExtractor(statsCollectorConfig.getSchema());
+      _fieldExtractor = fieldExtractor;
+
+      SegmentPreIndexStatsCollector collector = new SegmentPreIndexStatsCollectorImpl(statsCollectorConfig);
+      collector.init();
+
+      FileUtils.forceMkdir(_tempDir);
+      for (FieldSpec fieldSpec : statsCollectorConfig.getSchema().getAllFieldSpecs()) {
+        String column = fieldSpec.getName();
+        _columns.put(column, new SpilledDictionaryEncodedColumn(column, fieldSpec.isSingleValueField(), _tempDir));
+      }
+
+      // Gather the stats and buffer the dictionary encoded values in the same pass
+      GenericRow readRow = new GenericRow();
+      GenericRow transformedRow = new GenericRow();
+      while (_recordReader.hasNext()) {
+        readRow = GenericRow.createOrReuseRow(readRow);
+        readRow = _recordReader.next(readRow);
+        transformedRow = GenericRow.createOrReuseRow(transformedRow);
+        transformedRow = fieldExtractor.transform(readRow, transformedRow);
+        collector.collectRow(transformedRow);
+        for (Map.Entry<String, SpilledDictionaryEncodedColumn> entry : _columns.entrySet()) {
+          entry.getValue().add(transformedRow.getValue(entry.getKey()));
+        }
+      }
+
+      collector.build();
+      for (SpilledDictionaryEncodedColumn column : _columns.values()) {
+        column.seal();
+      }
+      return collector;
+    } catch (Exception e) {
+      LOGGER.error("Caught exception while gathering stats", e);
+      Utils.rethrowException(e);
+      return null;
+    }
+  }
+
+  @Override
+  public RecordReader getRecordReader() {
+    try {
+      _recordReader.rewind();
+    } catch (Exception e) {
+      LOGGER.error("Caught exception while rewinding record reader", e);
+      Utils.rethrowException(e);
+    }
+
+    return _recordReader;
+  }
+
+  @Override
+  public DictionaryEncodedColumnReader getDictionaryEncodedColumn(String column) {
+    return _columns.get(column);
+  }
+
+  @Override
+  public PlainFieldExtractor getFieldExtractor() {
+    return _fieldExtractor;
+  }
+
+  @Override
+  public void close() throws IOException {
+    for (SpilledDictionaryEncodedColumn column : _columns.values()) {
+      column.close();
+    }
+    _columns.clear();
+    FileUtils.deleteQuietly(_tempDir);
+  }
+}
@@ -0,0 +1,213 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.core.segment.creator;
+
+import com.linkedin.pinot.common.segment.ReadMode;
+import com.linkedin.pinot.common.utils.MmapUtils;
+import com.linkedin.pinot.core.segment.memory.PinotDataBuffer;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+
+
+/**
+ * Dictionary encoded column buffered while reading the input records, used for single pass segment creation.
+ * <p>
+ * Each distinct value gets a temporary dictionary id in the order it is first seen, and the dictionary ids of the
+ * documents are appended to an off-heap buffer that is spilled to a temporary file whenever it is full. Once sealed,
+ * the temporary file is memory mapped to read the dictionary ids back. The temporary dictionary ids are remapped to the
+ * sorted segment dictionary ids by the segment creator, looking up each distinct value once.
+ */
+public class SpilledDictionaryEncodedColumn implements DictionaryEncodedColumnReader, Closeable {
+  private static final int SPILL_BUFFER_SIZE = 1024 * 1024;
+
+  private final String _column;
+  private final boolean _isSingleValue;
+  private final Object2IntOpenHashMap<Object> _valueToDictId = new Object2IntOpenHashMap<>();
+  private final List<Object> _values = new ArrayList<>();
+
+  // For single-value columns, the dictionary ids of all documents; for multi-value columns, the flattened dictionary
+  // ids of all documents, with the start offset of each document in _offsets
+  private final IntSpillBuffer _dictIds;
+  private final IntSpillBuffer _offsets;
+
+  private int _numDocs;
+  private int _numValues;
+  private int _maxNumberOfMultiValues;
+
+  public SpilledDictionaryEncodedColumn(String column, boolean isSingleValue, File tempDir) throws IOException {
+    _column = column;
+    _isSingleValue = isSingleValue;
+    _valueToDictId.defaultReturnValue(-1);
+    _dictIds = new IntSpillBuffer(new File(tempDir, column + ".dict.ids"));
+    _offsets = isSingleValue ? null : new IntSpillBuffer(new File(tempDir, column + ".mv.offsets"));
+  }
+
+  /**
+   * Appends the value of the next document, which is an Object[] for multi-value columns.
+   */
+  public void add(Object value) throws IOException {
+    if (_isSingleValue) {
+      _dictIds.add(getOrAddDictId(value));
+    } else {
+      Object[] values = (Object[]) value;
+      _offsets.add(_numValues);
+      for (Object multiValue : values) {
+        _dictIds.add(getOrAddDictId(multiValue));
+      }
+      _numValues += values.length;
+      _maxNumberOfMultiValues = Math.max(_maxNumberOfMultiValues, values.length);
+    }
+    _numDocs++;
+  }
+
+  private int getOrAddDictId(Object value) {
+    int dictId = _valueToDictId.getInt(value);
+    if (dictId == -1) {
+      dictId = _values.size();
+      _valueToDictId.put(value, dictId);
+      _values.add(value);
+    }
+    return dictId;
+  }
+
+  /**
+   * Flushes the buffered dictionary ids and maps them for reading. No more values can be added afterwards.
+   */
+  public void seal() throws IOException {
+    if (!_isSingleValue) {
+      // Sentinel end offset of the last document
+      _offsets.add(_numValues);
+      _offsets.seal(_column);
+    }
+    _dictIds.seal(_column);
+    // The value lookup is not needed anymore, only the values by dictionary id
+    _valueToDictId.clear();
+    _valueToDictId.trim();
+  }
+
+  @Override
+  public int getNumDocs() {
+    return _numDocs;
+  }
+
+  @Override
+  public int getCardinality() {
+    return _values.size();
+  }
+
+  @Override
+  public int getMaxNumberOfMultiValues() {
+    return _maxNumberOfMultiValues;
+  }
+
+  @Override
+  public Object getValue(int dictId) {
+    return _values.get(dictId);
+  }
+
+  @Override
+  public int getDictionaryId(int docId) {
+    return _dictIds.get(docId);
+  }
+
+  @Override
+  public int getDictionaryIds(int docId, int[] dictIds) {
+    int start = _offsets.get(docId);
+    int end = _offsets.get(docId + 1);
+    for (int i = start; i < end; i++) {
+      dictIds[i - start] = _dictIds.get(i);
+    }
+    return end - start;
+  }
+
+  @Override
+  public void close() throws IOException {
+    _dictIds.close();
+    if (_offsets != null) {
+      _offsets.close();
+    }
+  }
+
+  /**
+   * Append-only int buffer, staged in a direct byte buffer and spilled to a file, then memory mapped for reading.
+   */
+  private static class IntSpillBuffer implements Closeable {
+    private final File _file;
+    private FileOutputStream _outputStream;
+    private FileChannel _channel;
+    private ByteBuffer _stagingBuffer;
+    private PinotDataBuffer _dataBuffer;
+
+    IntSpillBuffer(File file) throws IOException {
+      _file = file;
+      _outputStream = new FileOutputStream(file);
+      _channel = _outputStream.getChannel();
+      _stagingBuffer = MmapUtils.allocateDirectByteBuffer(SPILL_BUFFER_SIZE, file, "Single pass segment creation");
+    }
+
+    void add(int value) throws IOException {
+      if (!_stagingBuffer.hasRemaining()) {
+        spill();
+      }
+      _stagingBuffer.putInt(value);
+    }
+
+    private void spill() throws IOException {
+      _stagingBuffer.flip();
+      while (_stagingBuffer.hasRemaining()) {
+        _channel.write(_stagingBuffer);
+      }
+      _stagingBuffer.clear();
+    }
+
+    void seal(String column) throws IOException {
+      spill();
+      releaseStagingBuffer();
+      _dataBuffer = PinotDataBuffer.fromFile(_file, ReadMode.mmap, FileChannel.MapMode.READ_ONLY,
+          "Single pass segment creation, column: " + column);
+    }
+
+    int get(int index) {
+      // Use the int accessor when possible, as not all buffer implementations support long indexes
+      long offset = (long) index * 4;
+      return offset <= Integer.MAX_VALUE ? _dataBuffer.getInt((int) offset) : _dataBuffer.getInt(offset);
+    }
+
+    private void releaseStagingBuffer() throws IOException {
+      if (_stagingBuffer != null) {
+        MmapUtils.unloadByteBuffer(_stagingBuffer);
+        _stagingBuffer = null;
+        _outputStream.close();
+      }
+    }
+
+    @Override
+    public void close() throws IOException {
+      releaseStagingBuffer();
+      if (_dataBuffer != null) {
+        _dataBuffer.close();
+        _dataBuffer = null;
+      }
+    }
+  }
+}
@@ -15,14 +15,17 @@
  */
 package com.linkedin.pinot.core.segment.creator.impl;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.linkedin.pinot.common.data.FieldSpec;
 import com.linkedin.pinot.common.data.Schema;
 import com.linkedin.pinot.common.data.StarTreeIndexSpec;
 import com.linkedin.pinot.core.data.GenericRow;
-import com.linkedin.pinot.core.data.partition.PartitionFunction;
+import com.linkedin.pinot.common.partition.PartitionFunction;
 import com.linkedin.pinot.common.config.ColumnPartitionConfig;
 import com.linkedin.pinot.core.indexsegment.generator.SegmentGeneratorConfig;
+import com.linkedin.pinot.core.io.compression.ChunkCompressorFactory;
 import com.linkedin.pinot.core.segment.creator.ColumnIndexCreationInfo;
+import com.linkedin.pinot.core.segment.creator.DictionaryEncodedColumnReader;
 import com.linkedin.pinot.core.segment.creator.ForwardIndexCreator;
 import com.linkedin.pinot.core.segment.creator.InvertedIndexCreator;
 import com.linkedin.pinot.core.segment.creator.MultiValueForwardIndexCreator;
@@ -32,16 +35,25 @@ import com.linkedin.pinot.core.segment.creator.SingleValueForwardIndexCreator;
 import com.linkedin.pinot.core.segment.creator.SingleValueRawIndexCreator;
 import com.linkedin.pinot.core.segment.creator.impl.fwd.MultiValueUnsortedForwardIndexCreator;
 import com.linkedin.pinot.core.segment.creator.impl.fwd.SingleValueFixedByteRawIndexCreator;
+import com.linkedin.pinot.core.segment.creator.impl.fwd.SingleValueRunLengthForwardIndexCreator;
 import com.linkedin.pinot.core.segment.creator.impl.fwd.SingleValueSortedForwardIndexCreator;
 import com.linkedin.pinot.core.segment.creator.impl.fwd.SingleValueUnsortedForwardIndexCreator;
 import com.linkedin.pinot.core.segment.creator.impl.fwd.SingleValueVarByteRawIndexCreator;
 import com.linkedin.pinot.core.segment.creator.impl.inv.OffHeapBitmapInvertedIndexCreator;
+import com.linkedin.pinot.core.segment.creator.impl.zonemap.ZoneMapCreator;
 import com.linkedin.pinot.core.startree.hll.HllConfig;
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import org.apache.commons.configuration.ConfigurationException;
 import org.apache.commons.configuration.PropertiesConfiguration;
 import org.apache.commons.lang.StringEscapeUtils;
@@ -67,6 +79,7 @@ public class SegmentColumnarIndexCreator implements SegmentCreator {
   private Map<String, ForwardIndexCreator> forwardIndexCreatorMap;
   private Map<String, ForwardIndexCreator> rawIndexCreatorMap;
   private Map<String, InvertedIndexCreator> invertedIndexCreatorMap;
+  private Map<String, ZoneMapCreator> zoneMapCreatorMap;
   private String segmentName;
 
   private Schema schema;
@@ -80,6 +93,9 @@ public class SegmentColumnarIndexCreator implements SegmentCreator {
   private int totalNullCols;
   private int docIdCounter;
   private char paddingCharacter;
+  private int numIndexCreationThreads;
+  // Shared by all the phases of the segment creation, null if the indexes are created sequentially
+  private ExecutorService executorService;
   private Map<String, Map<Object, Object>> dictionaryCache = new HashMap<String, Map<Object, Object>>();
 
   @Override
@@ -92,6 +108,7 @@ public class SegmentColumnarIndexCreator implements SegmentCreator {
     forwardIndexCreatorMap = new HashMap<String, ForwardIndexCreator>();
     this.indexCreationInfoMap = indexCreationInfoMap;
     invertedIndexCreatorMap = new HashMap<String, InvertedIndexCreator>();
+    zoneMapCreatorMap = new HashMap<String, ZoneMapCreator>();
     file = outDir;
 
     // Check that the output directory does not exist
@@ -111,6 +128,11 @@ public class SegmentColumnarIndexCreator implements SegmentCreator {
     this.totalConversions = segmentIndexCreationInfo.getTotalConversions();
     this.totalNullCols = segmentIndexCreationInfo.getTotalNullCols();
     this.paddingCharacter = segmentCreationSpec.getPaddingCharacter();
+    this.numIndexCreationThreads = segmentCreationSpec.getNumIndexCreationThreads();
+    if (numIndexCreationThreads > 1) {
+      executorService = Executors.newFixedThreadPool(numIndexCreationThreads,
+          new ThreadFactoryBuilder().setDaemon(true).setNameFormat("SegmentIndexCreation-%d").build());
+    }
 
     // Initialize and build dictionaries
     for (final FieldSpec spec : schema.getAllFieldSpecs()) {
@@ -124,16 +146,22 @@ public class SegmentColumnarIndexCreator implements SegmentCreator {
       }
     }
 
-    // For each column, build its dictionary and initialize a forwards and an inverted index
+    // Build the dictionaries, which are independent from each other
+    runForEachColumn(dictionaryCreatorMap.keySet(), new ColumnTask() {
+      @Override
+      public void run(String column) throws Exception {
+        ColumnIndexCreationInfo indexCreationInfo = SegmentColumnarIndexCreator.this.indexCreationInfoMap.get(column);
+        boolean[] isSorted = new boolean[1];
+        isSorted[0] = indexCreationInfo.isSorted();
+        dictionaryCreatorMap.get(column).build(isSorted);
+        indexCreationInfo.setSorted(isSorted[0]);
+      }
+    });
+
+    // For each column, initialize a forwards and an inverted index
     for (final String column : indexCreationInfoMap.keySet()) {
       ColumnIndexCreationInfo indexCreationInfo = indexCreationInfoMap.get(column);
-      boolean[] isSorted = new boolean[1];
-      isSorted[0] = indexCreationInfo.isSorted();
-      SegmentDictionaryCreator dictionaryCreator = dictionaryCreatorMap.get(column);
-
-      if (dictionaryCreator != null) {
-        dictionaryCreator.build(isSorted);
-        indexCreationInfo.setSorted(isSorted[0]);
+      if (dictionaryCreatorMap.containsKey(column)) {
         dictionaryCache.put(column, new HashMap<Object, Object>());
       }
       int uniqueValueCount = indexCreationInfo.getDistinctValueCount();
@@ -145,11 +173,14 @@ public class SegmentColumnarIndexCreator implements SegmentCreator {
         // Raw indexes store actual values, instead of dictionary ids.
         if (buildRawIndex) {
           forwardIndexCreatorMap.put(column,
-              getRawIndexCreatorForColumn(file, column, fieldSpec.getDataType(), totalDocs, maxLength));
+              getRawIndexCreatorForColumn(file, column, fieldSpec.getDataType(), totalDocs, maxLength,
+                  config.getRawIndexCompressionType(column)));
         } else {
           if (indexCreationInfo.isSorted()) {
             forwardIndexCreatorMap.put(column,
                 new SingleValueSortedForwardIndexCreator(file, uniqueValueCount, fieldSpec));
+          } else if (config.getRunLengthEncodedColumns().contains(column)) {
+            forwardIndexCreatorMap.put(column, new SingleValueRunLengthForwardIndexCreator(file, fieldSpec));
           } else {
             forwardIndexCreatorMap.put(column,
                 new SingleValueUnsortedForwardIndexCreator(fieldSpec, file, uniqueValueCount,
@@ -201,6 +232,23 @@ public class SegmentColumnarIndexCreator implements SegmentCreator {
           new OffHeapBitmapInvertedIndexCreator(file, cardinality, totalDocs, totalNumberOfEntries, fieldSpec);
       invertedIndexCreatorMap.put(column, invertedIndexCreator);
     }
+
+    for (String column : config.getZoneMapCreationColumns()) {
+      // Zone maps store dictionary ids. Sorted and run length encoded columns do not need them because they are filtered
+      // through their runs.
+      if (!dictionaryCreatorMap.containsKey(column)) {
+        LOGGER.warn("Skip creating zone map for segment: {}, column: {} because column has no dictionary",
+            segmentName, column);
+        continue;
+      }
+      if (indexCreationInfoMap.get(column).isSorted() && schema.getFieldSpecFor(column).isSingleValueField()) {
+        continue;
+      }
+      if (forwardIndexCreatorMap.get(column) instanceof SingleValueRunLengthForwardIndexCreator) {
+        continue;
+      }
+      zoneMapCreatorMap.put(column, new ZoneMapCreator(file, column, totalDocs));
+    }
   }
 
   /**
@@ -250,6 +298,9 @@ public class SegmentColumnarIndexCreator implements SegmentCreator {
             if (invertedIndexCreatorMap.containsKey(column)) {
               invertedIndexCreatorMap.get(column).add(docIdCounter, dictionaryIndex);
             }
+            if (zoneMapCreatorMap.containsKey(column)) {
+              zoneMapCreatorMap.get(column).add(docIdCounter, dictionaryIndex);
+            }
           } else {
             ((SingleValueRawIndexCreator) forwardIndexCreatorMap.get(column)).index(docIdCounter, columnValueToIndex);
           }
@@ -261,6 +312,9 @@ public class SegmentColumnarIndexCreator implements SegmentCreator {
           if (invertedIndexCreatorMap.containsKey(column)) {
             invertedIndexCreatorMap.get(column).add(docIdCounter, dictionaryIndex);
           }
+          if (zoneMapCreatorMap.containsKey(column)) {
+            zoneMapCreatorMap.get(column).add(docIdCounter, dictionaryIndex, dictionaryIndex.length);
+          }
         }
       } catch (Exception e) {
         throw new RuntimeException("Exception while indexing column:"+ column, e);
@@ -269,6 +323,81 @@ public class SegmentColumnarIndexCreator implements SegmentCreator {
     docIdCounter++;
   }
 
+  @Override
+  public void indexColumn(String column, DictionaryEncodedColumnReader columnReader) {
+    try {
+      ForwardIndexCreator forwardIndexCreator = forwardIndexCreatorMap.get(column);
+      SegmentDictionaryCreator dictionaryCreator = dictionaryCreatorMap.get(column);
+      InvertedIndexCreator invertedIndexCreator = invertedIndexCreatorMap.get(column);
+      ZoneMapCreator zoneMapCreator = zoneMapCreatorMap.get(column);
+      int numDocs = columnReader.getNumDocs();
+
+      if (dictionaryCreator == null) {
+        SingleValueRawIndexCreator rawIndexCreator = (SingleValueRawIndexCreator) forwardIndexCreator;
+        for (int docId = 0; docId < numDocs; docId++) {
+          rawIndexCreator.index(docId, columnReader.getValue(columnReader.getDictionaryId(docId)));
+        }
+        return;
+      }
+
+      // Map the dictionary ids of the column to the dictionary ids of the segment, looking up each distinct value once
+      int cardinality = columnReader.getCardinality();
+      int[] dictIdMapping = new int[cardinality];
+      for (int dictId = 0; dictId < cardinality; dictId++) {
+        dictIdMapping[dictId] = dictionaryCreator.indexOfSV(columnReader.getValue(dictId));
+      }
+
+      if (schema.getFieldSpecFor(column).isSingleValueField()) {
+        SingleValueForwardIndexCreator singleValueIndexCreator = (SingleValueForwardIndexCreator) forwardIndexCreator;
+        for (int docId = 0; docId < numDocs; docId++) {
+          int dictionaryIndex = dictIdMapping[columnReader.getDictionaryId(docId)];
+          singleValueIndexCreator.index(docId, dictionaryIndex);
+          if (invertedIndexCreator != null) {
+            invertedIndexCreator.add(docId, dictionaryIndex);
+          }
+          if (zoneMapCreator != null) {
+            zoneMapCreator.add(docId, dictionaryIndex);
+          }
+        }
+      } else {
+        MultiValueForwardIndexCreator multiValueIndexCreator = (MultiValueForwardIndexCreator) forwardIndexCreator;
+        int[] dictIds = new int[columnReader.getMaxNumberOfMultiValues()];
+        for (int docId = 0; docId < numDocs; docId++) {
+          int numValues = columnReader.getDictionaryIds(docId, dictIds);
+          int[] dictionaryIndex = new int[numValues];
+          for (int i = 0; i < numValues; i++) {
+            dictionaryIndex[i] = dictIdMapping[dictIds[i]];
+          }
+          multiValueIndexCreator.index(docId, dictionaryIndex);
+          if (invertedIndexCreator != null) {
+            invertedIndexCreator.add(docId, dictionaryIndex);
+          }
+          if (zoneMapCreator != null) {
+            zoneMapCreator.add(docId, dictionaryIndex, numValues);
+          }
+        }
+      }
+    } catch (Exception e) {
+      throw new RuntimeException("Exception while indexing column:" + column, e);
+    }
+  }
+
+  @Override
+  public void indexColumns(final Map<String, DictionaryEncodedColumnReader> columnReaders) {
+    try {
+      runForEachColumn(columnReaders.keySet(), new ColumnTask() {
+        @Override
+        public void run(String column) {
+          indexColumn(column, columnReaders.get(column));
+        }
+      });
+    } catch (RuntimeException e) {
+      throw e;
+    } catch (Exception e) {
+      throw new RuntimeException(e);
+    }
+  }
+
   @Override
   public void setSegmentName(String segmentName) {
     this.segmentName = segmentName;
@@ -276,19 +405,97 @@ public class SegmentColumnarIndexCreator implements SegmentCreator {
 
   @Override
   public void seal() throws ConfigurationException, IOException {
-    for (final String column : forwardIndexCreatorMap.keySet()) {
-      forwardIndexCreatorMap.get(column).close();
-      SegmentDictionaryCreator dictionaryCreator = dictionaryCreatorMap.get(column);
-      if (dictionaryCreator != null) {
-        dictionaryCreator.close();
+    try {
+      runForEachColumn(forwardIndexCreatorMap.keySet(), new ColumnTask() {
+        @Override
+        public void run(String column) throws Exception {
+          forwardIndexCreatorMap.get(column).close();
+          SegmentDictionaryCreator dictionaryCreator = dictionaryCreatorMap.get(column);
+          if (dictionaryCreator != null) {
+            dictionaryCreator.close();
+          }
+          // The map is only initialized for columns that have inverted index creation enabled.
+          InvertedIndexCreator invertedIndexCreator = invertedIndexCreatorMap.get(column);
+          if (invertedIndexCreator != null) {
+            invertedIndexCreator.seal();
+          }
+          ZoneMapCreator zoneMapCreator = zoneMapCreatorMap.get(column);
+          if (zoneMapCreator != null) {
+            zoneMapCreator.seal();
+          }
+        }
+      });
+    } catch (IOException | RuntimeException e) {
+      throw e;
+    } catch (Exception e) {
+      throw new RuntimeException(e);
+    } finally {
+      shutDownExecutorService();
+    }
+    writeMetadata();
+  }
+
+  /**
+   * Shuts down the index creation threads, if not already done when sealing the segment.
+   */
+  @Override
+  public void close() {
+    shutDownExecutorService();
+  }
+
+  /**
+   * Runs the task for each of the given columns. The indexes of different columns are independent from each other, so
+   * the tasks run in parallel when more than one index creation thread is configured. The executor service is shut
+   * down if a task fails, as the segment creation is then aborted.
+   */
+  private void runForEachColumn(Collection<String> columns, final ColumnTask task) throws Exception {
+    if (executorService == null || columns.size() <= 1) {
+      for (String column : columns) {
+        task.run(column);
+      }
+      return;
+    }
+
+    boolean succeeded = false;
+    try {
+      List<Future<Void>> futures = new ArrayList<>(columns.size());
+      for (final String column : columns) {
+        futures.add(executorService.submit(new Callable<Void>() {
+          @Override
+          public Void call() throws Exception {
+            task.run(column);
+            return null;
+          }
+        }));
+      }
+      for (Future<Void> future : futures) {
+        try {
+          future.get();
+        } catch (ExecutionException e) {
+          Throwable cause = e.getCause();
+          if (cause instanceof Exception) {
+            throw (Exception) cause;
+          }
+          throw new RuntimeException(cause);
+        }
+      }
+      succeeded = true;
+    } finally {
+      if (!succeeded) {
+        shutDownExecutorService();
       }
     }
+  }
 
-    // The map is only initialized for columns that have inverted index creation enabled.
-    for (final String invertedColumn : invertedIndexCreatorMap.keySet()) {
-      invertedIndexCreatorMap.get(invertedColumn).seal();
+  private void shutDownExecutorService() {
+    if (executorService != null) {
+      executorService.shutdownNow();
+      executorService = null;
     }
-    writeMetadata();
+  }
+
+  private interface ColumnTask {
+    void run(String column) throws Exception;
   }
 
   void writeMetadata() throws ConfigurationException {
@@ -376,6 +583,13 @@ public class SegmentColumnarIndexCreator implements SegmentCreator {
       addColumnMetadataInfo(properties, column, columnIndexCreationInfo, totalDocs, totalRawDocs, totalAggDocs,
           schema.getFieldSpecFor(column), dictionaryCreatorMap.containsKey(column), dictionaryElementSize,
           hasInvertedIndex, hllOriginColumn);
+      if (config.getRawIndexCreationColumns().contains(column)) {
+        properties.setProperty(getKeyFor(column, COMPRESSION_TYPE),
+            String.valueOf(config.getRawIndexCompressionType(column)));
+      }
+      if (forwardIndexCreatorMap.get(column) instanceof SingleValueRunLengthForwardIndexCreator) {
+        properties.setProperty(getKeyFor(column, IS_RUN_LENGTH_ENCODED), String.valueOf(true));
+      }
     }
 
     properties.save();
@@ -451,6 +665,7 @@ public class SegmentColumnarIndexCreator implements SegmentCreator {
     properties.clearProperty(getKeyFor(column, DICTIONARY_ELEMENT_SIZE));
     properties.clearProperty(getKeyFor(column, COLUMN_TYPE));
     properties.clearProperty(getKeyFor(column, IS_SORTED));
+    properties.clearProperty(getKeyFor(column, IS_RUN_LENGTH_ENCODED));
     properties.clearProperty(getKeyFor(column, HAS_NULL_VALUE));
     properties.clearProperty(getKeyFor(column, HAS_DICTIONARY));
     properties.clearProperty(getKeyFor(column, HAS_INVERTED_INDEX));
@@ -463,6 +678,7 @@ public class SegmentColumnarIndexCreator implements SegmentCreator {
     properties.clearProperty(getKeyFor(column, ORIGIN_COLUMN));
     properties.clearProperty(getKeyFor(column, MIN_VALUE));
     properties.clearProperty(getKeyFor(column, MAX_VALUE));
+    properties.clearProperty(getKeyFor(column, COMPRESSION_TYPE));
   }
 
   /**
@@ -479,31 +695,56 @@ public class SegmentColumnarIndexCreator implements SegmentCreator {
   public static SingleValueRawIndexCreator getRawIndexCreatorForColumn(File file, String column,
       FieldSpec.DataType dataType, int totalDocs, int lengthOfLongestEntry)
       throws IOException {
+    return getRawIndexCreatorForColumn(file, column, dataType, totalDocs, lengthOfLongestEntry,
+        ChunkCompressorFactory.CompressionType.DEFAULT);
+  }
+
+  /**
+   * Helper method to build the raw index creator for the column, with the given chunk compression.
+   * Assumes that column to be indexed is single valued.
+   *
+   * @param file Output index file
+   * @param column Column name
+   * @param totalDocs Total number of documents to index
+   * @param lengthOfLongestEntry Length of longest entry
+   * @param compressionType Compression type for the chunks of the index
+   * @return
+   * @throws IOException
+   */
+  public static SingleValueRawIndexCreator getRawIndexCreatorForColumn(File file, String column,
+      FieldSpec.DataType dataType, int totalDocs, int lengthOfLongestEntry,
+      ChunkCompressorFactory.CompressionType compressionType)
+      throws IOException {
 
     SingleValueRawIndexCreator indexCreator;
     switch(dataType) {
       case INT:
         indexCreator =
-            new SingleValueFixedByteRawIndexCreator(file, column, totalDocs, V1Constants.Numbers.INTEGER_SIZE);
+            new SingleValueFixedByteRawIndexCreator(file, column, totalDocs, V1Constants.Numbers.INTEGER_SIZE,
+                compressionType);
         break;
 
       case LONG:
         indexCreator =
-            new SingleValueFixedByteRawIndexCreator(file, column, totalDocs, V1Constants.Numbers.LONG_SIZE);
+            new SingleValueFixedByteRawIndexCreator(file, column, totalDocs, V1Constants.Numbers.LONG_SIZE,
+                compressionType);
         break;
 
       case FLOAT:
         indexCreator =
-            new SingleValueFixedByteRawIndexCreator(file, column, totalDocs, V1Constants.Numbers.FLOAT_SIZE);
+            new SingleValueFixedByteRawIndexCreator(file, column, totalDocs, V1Constants.Numbers.FLOAT_SIZE,
+                compressionType);
         break;
 
       case DOUBLE:
         indexCreator =
-            new SingleValueFixedByteRawIndexCreator(file, column, totalDocs, V1Constants.Numbers.DOUBLE_SIZE);
+            new SingleValueFixedByteRawIndexCreator(file, column, totalDocs, V1Constants.Numbers.DOUBLE_SIZE,
+                compressionType);
         break;
 
       case STRING:
-        indexCreator = new SingleValueVarByteRawIndexCreator(file, column, totalDocs, lengthOfLongestEntry);
+        indexCreator = new SingleValueVarByteRawIndexCreator(file, column, totalDocs, lengthOfLongestEntry,
+            compressionType);
         break;
 
       default:
@@ -15,6 +15,7 @@
  */
 package com.linkedin.pinot.core.segment.creator.impl;
 
+import java.io.Closeable;
 import java.io.DataOutputStream;
 import java.io.File;
 import java.io.FileOutputStream;
@@ -47,6 +48,8 @@ import com.linkedin.pinot.core.indexsegment.generator.SegmentGeneratorConfig;
 import com.linkedin.pinot.core.indexsegment.generator.SegmentVersion;
 import com.linkedin.pinot.core.segment.creator.ColumnIndexCreationInfo;
 import com.linkedin.pinot.core.segment.creator.ColumnStatistics;
+import com.linkedin.pinot.core.segment.creator.ColumnarSegmentCreationDataSource;
+import com.linkedin.pinot.core.segment.creator.DictionaryEncodedColumnReader;
 import com.linkedin.pinot.core.segment.creator.ForwardIndexType;
 import com.linkedin.pinot.core.segment.creator.InvertedIndexType;
 import com.linkedin.pinot.core.segment.creator.RecordReaderSegmentCreationDataSource;
@@ -55,6 +58,7 @@ import com.linkedin.pinot.core.segment.creator.SegmentCreator;
 import com.linkedin.pinot.core.segment.creator.SegmentIndexCreationDriver;
 import com.linkedin.pinot.core.segment.creator.SegmentIndexCreationInfo;
 import com.linkedin.pinot.core.segment.creator.SegmentPreIndexStatsContainer;
+import com.linkedin.pinot.core.segment.creator.SinglePassSegmentCreationDataSource;
 import com.linkedin.pinot.core.segment.creator.StatsCollectorConfig;
 import com.linkedin.pinot.core.segment.creator.impl.stats.SegmentPreIndexStatsCollectorImpl;
 import com.linkedin.pinot.core.segment.index.converter.SegmentFormatConverter;
@@ -80,6 +84,7 @@ public class SegmentIndexCreationDriverImpl implements SegmentIndexCreationDrive
   private static final Logger LOGGER = LoggerFactory.getLogger(SegmentIndexCreationDriverImpl.class);
 
   private SegmentGeneratorConfig config;
+  private SegmentCreationDataSource dataSource;
   private RecordReader recordReader;
   private SegmentPreIndexStatsContainer segmentStats;
   private Map<String, ColumnIndexCreationInfo> indexCreationInfoMap;
@@ -105,12 +110,19 @@ public class SegmentIndexCreationDriverImpl implements SegmentIndexCreationDrive
 
   @Override
   public void init(SegmentGeneratorConfig config) throws Exception {
-    init(config, new RecordReaderSegmentCreationDataSource(RecordReaderFactory.get(config)));
+    if (config.isEnableSinglePassIndexCreation() && !config.isEnableStarTreeIndex()) {
+      File singlePassTempDir =
+          new File(config.getOutDir(), com.linkedin.pinot.common.utils.FileUtils.getRandomFileName());
+      init(config, new SinglePassSegmentCreationDataSource(RecordReaderFactory.get(config), singlePassTempDir));
+    } else {
+      init(config, new RecordReaderSegmentCreationDataSource(RecordReaderFactory.get(config)));
+    }
   }
 
   public void init(SegmentGeneratorConfig config, SegmentCreationDataSource dataSource) throws Exception {
     this.config = config;
     this.createStarTree = config.isEnableStarTreeIndex();
+    this.dataSource = dataSource;
     recordReader = dataSource.getRecordReader();
     dataSchema = recordReader.getSchema();
 
@@ -197,10 +209,14 @@ public class SegmentIndexCreationDriverImpl implements SegmentIndexCreationDrive
 
   @Override
   public void build() throws Exception {
-    if (createStarTree) {
-      buildStarTree();
-    } else {
-      buildRaw();
+    try {
+      if (createStarTree) {
+        buildStarTree();
+      } else {
+        buildRaw();
+      }
+    } finally {
+      indexCreator.close();
     }
   }
 
@@ -374,31 +390,53 @@ public class SegmentIndexCreationDriverImpl implements SegmentIndexCreationDrive
 
   private void buildRaw()
       throws Exception {
-    // Count the number of documents and gather per-column statistics
-    LOGGER.debug("Start building StatsCollector!");
-    buildIndexCreationInfo();
-    LOGGER.info("Finished building StatsCollector!");
-    LOGGER.info("Collected stats for {} documents", totalDocs);
-
-    // Initialize the index creation using the per-column statistics information
-    indexCreator.init(config, segmentIndexCreationInfo, indexCreationInfoMap, dataSchema, tempIndexDir);
-
-    // Build the index
-    recordReader.rewind();
-    LOGGER.info("Start building IndexCreator!");
-    GenericRow readRow = new GenericRow();
-    GenericRow transformedRow = new GenericRow();
-    while (recordReader.hasNext()) {
-      long start = System.currentTimeMillis();
-      transformedRow = readNextRowSanitized(readRow, transformedRow);
-      long stop = System.currentTimeMillis();
-      indexCreator.indexRow(transformedRow);
-      long stop1 = System.currentTimeMillis();
-      totalRecordReadTime += (stop - start);
-      totalIndexTime += (stop1 - stop);
+    try {
+      // Count the number of documents and gather per-column statistics
+      LOGGER.debug("Start building StatsCollector!");
+      buildIndexCreationInfo();
+      LOGGER.info("Finished building StatsCollector!");
+      LOGGER.info("Collected stats for {} documents", totalDocs);
+
+      // Initialize the index creation using the per-column statistics information
+      indexCreator.init(config, segmentIndexCreationInfo, indexCreationInfoMap, dataSchema, tempIndexDir);
+
+      // Build the index, column by column if the data source provides dictionary encoded columns
+      Map<String, DictionaryEncodedColumnReader> columnReaders = getDictionaryEncodedColumnReaders();
+      if (columnReaders != null) {
+        LOGGER.info("Start building IndexCreator column by column!");
+        long start = System.currentTimeMillis();
+        indexCreator.indexColumns(columnReaders);
+        totalIndexTime += System.currentTimeMillis() - start;
+        recordReader.close();
+        // The records were only read and transformed by the data source
+        PlainFieldExtractor dataSourceExtractor = ((ColumnarSegmentCreationDataSource) dataSource).getFieldExtractor();
+        if (dataSourceExtractor != null) {
+          extractor = dataSourceExtractor;
+        }
+        LOGGER.info("Finished columns indexing in IndexCreator!");
+      } else {
+        recordReader.rewind();
+        LOGGER.info("Start building IndexCreator!");
+        GenericRow readRow = new GenericRow();
+        GenericRow transformedRow = new GenericRow();
+        while (recordReader.hasNext()) {
+          long start = System.currentTimeMillis();
+          transformedRow = readNextRowSanitized(readRow, transformedRow);
+          long stop = System.currentTimeMillis();
+          indexCreator.indexRow(transformedRow);
+          long stop1 = System.currentTimeMillis();
+          totalRecordReadTime += (stop - start);
+          totalIndexTime += (stop1 - stop);
+        }
+        recordReader.close();
+        LOGGER.info("Finished records indexing in IndexCreator!");
+      }
+    } finally {
+      // Release the temporary files of the data source even if the build fails
+      if (dataSource instanceof Closeable) {
+        ((Closeable) dataSource).close();
+      }
     }
-    recordReader.close();
-    LOGGER.info("Finished records indexing in IndexCreator!");
     int numErrors, numConversions, numNulls, numNullCols;
     if ((numErrors = extractor.getTotalErrors()) > 0) {
       LOGGER.warn("Index creator for schema {} had {} rows with errors", dataSchema.getSchemaName(), numErrors);
@@ -423,6 +461,28 @@ public class SegmentIndexCreationDriverImpl implements SegmentIndexCreationDrive
     handlePostCreation();
   }
 
+  /**
+   * Returns the dictionary encoded readers for all the columns of the schema if the data source can provide them, null
+   * otherwise. When available, the segment is indexed column by column instead of row by row.
+   */
+  private Map<String, DictionaryEncodedColumnReader> getDictionaryEncodedColumnReaders() {
+    if (!(dataSource instanceof ColumnarSegmentCreationDataSource)) {
+      return null;
+    }
+    ColumnarSegmentCreationDataSource columnarDataSource = (ColumnarSegmentCreationDataSource) dataSource;
+    Map<String, DictionaryEncodedColumnReader> columnReaders = new HashMap<>();
+    for (FieldSpec spec : dataSchema.getAllFieldSpecs()) {
+      String column = spec.getName();
+      DictionaryEncodedColumnReader columnReader = columnarDataSource.getDictionaryEncodedColumn(column);
+      if (columnReader == null) {
+        LOGGER.info("Column {} is not available in dictionary encoded form, indexing row by row", column);
+        return null;
+      }
+      columnReaders.put(column, columnReader);
+    }
+    return columnReaders;
+  }
+
   private void handlePostCreation()
       throws Exception {
     final String timeColumn = config.getTimeColumnName();
@@ -57,6 +57,7 @@ public class V1Constants {
 
   public static class Idx {
     public static final int[] SORTED_INDEX_COLUMN_SIZE = new int[] { 4, 4 };
+    public static final int[] RUN_LENGTH_INDEX_COLUMN_SIZE = new int[] { 4, 4 };
   }
 
   public static class Dict {
@@ -87,10 +88,12 @@ public class V1Constants {
     public static final String UN_SORTED_SV_FWD_IDX_FILE_EXTENTION = ".sv.unsorted.fwd";
     public static final String RAW_SV_FWD_IDX_FILE_EXTENTION = ".sv.raw.fwd";
     public static final String SORTED_FWD_IDX_FILE_EXTENTION = ".sv.sorted.fwd";
+    public static final String RUN_LENGTH_SV_FWD_IDX_FILE_EXTENTION = ".sv.rle.fwd";
     public static final String UN_SORTED_MV_FWD_IDX_FILE_EXTENTION = ".mv.fwd";
     public static final String BITMAP_INVERTED_INDEX_FILE_EXTENSION = ".bitmap.inv";
     public static final String SORTED_INVERTED_INDEX_FILE_EXTENSION = ".sorted.inv";
     public static final String INTARRAY_INVERTED_INDEX_FILE_EXTENSION = ".intArray.inv";
+    public static final String ZONE_MAP_FILE_EXTENSION = ".zonemap";
   }
 
   public static class MetadataKeys {
@@ -149,6 +152,7 @@ public class V1Constants {
       public static final String DICTIONARY_ELEMENT_SIZE = "lengthOfEachEntry";
       public static final String COLUMN_TYPE = "columnType";
       public static final String IS_SORTED = "isSorted";
+      public static final String IS_RUN_LENGTH_ENCODED = "isRunLengthEncoded";
       public static final String HAS_NULL_VALUE = "hasNullValue";
       public static final String HAS_DICTIONARY = "hasDictionary";
       public static final String HAS_INVERTED_INDEX = "hasInvertedIndex";
@@ -164,6 +168,7 @@ public class V1Constants {
       public static final String PARTITION_FUNCTION = "partitionFunction";
       public static final String NUM_PARTITIONS = "numPartitions";
       public static final String PARTITION_VALUES = "partitionValues";
+      public static final String COMPRESSION_TYPE = "compressionType";
 
 
       private static final String COLUMN_PROPS_KEY_PREFIX = "column.";
@@ -37,10 +37,9 @@ public class SingleValueFixedByteRawIndexCreator extends BaseSingleValueRawIndex
   private static final int NUM_DOCS_PER_CHUNK = 1000; // TODO: Auto-derive this based on metadata.
 
   final FixedByteChunkSingleValueWriter _indexWriter;
-  private final ChunkCompressor compressor = ChunkCompressorFactory.getCompressor("snappy");
 
   /**
-   * Constructor for the class
+   * Constructor for the class, uses the default chunk compression.
    *
    * @param baseIndexDir Index directory
    * @param column Name of column to index
@@ -51,7 +50,24 @@ public class SingleValueFixedByteRawIndexCreator extends BaseSingleValueRawIndex
   public SingleValueFixedByteRawIndexCreator(File baseIndexDir, String column, int totalDocs,
       int sizeOfEntry)
       throws IOException {
+    this(baseIndexDir, column, totalDocs, sizeOfEntry, ChunkCompressorFactory.CompressionType.DEFAULT);
+  }
+
+  /**
+   * Constructor for the class
+   *
+   * @param baseIndexDir Index directory
+   * @param column Name of column to index
+   * @param totalDocs Total number of documents to index
+   * @param sizeOfEntry Size of entry (in bytes)
+   * @param compressionType Compression type for the chunks
+   * @throws IOException
+   */
+  public SingleValueFixedByteRawIndexCreator(File baseIndexDir, String column, int totalDocs,
+      int sizeOfEntry, ChunkCompressorFactory.CompressionType compressionType)
+      throws IOException {
     File file = new File(baseIndexDir, column + V1Constants.Indexes.RAW_SV_FWD_IDX_FILE_EXTENTION);
+    ChunkCompressor compressor = ChunkCompressorFactory.getCompressor(compressionType);
     _indexWriter = new FixedByteChunkSingleValueWriter(file, compressor, totalDocs, NUM_DOCS_PER_CHUNK, sizeOfEntry);
   }
 
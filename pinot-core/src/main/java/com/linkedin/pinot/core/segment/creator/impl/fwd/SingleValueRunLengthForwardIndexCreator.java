@@ -0,0 +1,71 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.core.segment.creator.impl.fwd;
+
+import com.google.common.base.Preconditions;
+import com.linkedin.pinot.common.data.FieldSpec;
+import com.linkedin.pinot.core.io.writer.impl.FixedByteSingleValueMultiColWriter;
+import com.linkedin.pinot.core.segment.creator.SingleValueForwardIndexCreator;
+import com.linkedin.pinot.core.segment.creator.impl.V1Constants;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+
+
+/**
+ * Forward index creator for clustered single-value columns, which writes one (start document id, dictionary id) row
+ * per run of consecutive documents with the same dictionary id.
+ * <p>Documents must be indexed in document id order.
+ */
+public class SingleValueRunLengthForwardIndexCreator implements SingleValueForwardIndexCreator, Closeable {
+  private final File _indexFile;
+  private final IntArrayList _runStartDocIds = new IntArrayList();
+  private final IntArrayList _runDictIds = new IntArrayList();
+  private int _nextDocId = 0;
+
+  public SingleValueRunLengthForwardIndexCreator(File indexDir, FieldSpec spec) {
+    _indexFile = new File(indexDir, spec.getName() + V1Constants.Indexes.RUN_LENGTH_SV_FWD_IDX_FILE_EXTENTION);
+  }
+
+  @Override
+  public void index(int docId, int dictionaryIndex) {
+    Preconditions.checkState(docId == _nextDocId, "Expected document id: %s, got: %s", _nextDocId, docId);
+    _nextDocId++;
+
+    int numRuns = _runDictIds.size();
+    if (numRuns == 0 || _runDictIds.getInt(numRuns - 1) != dictionaryIndex) {
+      _runStartDocIds.add(docId);
+      _runDictIds.add(dictionaryIndex);
+    }
+  }
+
+  public int getNumRuns() {
+    return _runDictIds.size();
+  }
+
+  @Override
+  public void close() throws IOException {
+    int numRuns = _runDictIds.size();
+    FixedByteSingleValueMultiColWriter indexWriter =
+        new FixedByteSingleValueMultiColWriter(_indexFile, numRuns, 2, V1Constants.Idx.RUN_LENGTH_INDEX_COLUMN_SIZE);
+    for (int i = 0; i < numRuns; i++) {
+      indexWriter.setInt(i, 0, _runStartDocIds.getInt(i));
+      indexWriter.setInt(i, 1, _runDictIds.getInt(i));
+    }
+    indexWriter.close();
+  }
+}
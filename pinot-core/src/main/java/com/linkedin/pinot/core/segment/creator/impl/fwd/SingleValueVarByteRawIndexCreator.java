@@ -30,9 +30,15 @@ public class SingleValueVarByteRawIndexCreator extends BaseSingleValueRawIndexCr
 
   public SingleValueVarByteRawIndexCreator(File baseIndexDir, String column, int totalDocs, int maxLength)
       throws IOException {
+    this(baseIndexDir, column, totalDocs, maxLength, ChunkCompressorFactory.CompressionType.DEFAULT);
+  }
+
+  public SingleValueVarByteRawIndexCreator(File baseIndexDir, String column, int totalDocs, int maxLength,
+      ChunkCompressorFactory.CompressionType compressionType)
+      throws IOException {
     File file = new File(baseIndexDir, column + V1Constants.Indexes.RAW_SV_FWD_IDX_FILE_EXTENTION);
 
-    ChunkCompressor compressor = ChunkCompressorFactory.getCompressor("snappy");
+    ChunkCompressor compressor = ChunkCompressorFactory.getCompressor(compressionType);
     _indexWriter = new VarByteChunkSingleValueWriter(file, compressor, totalDocs, NUM_DOCS_PER_CHUNK, maxLength);
   }
 
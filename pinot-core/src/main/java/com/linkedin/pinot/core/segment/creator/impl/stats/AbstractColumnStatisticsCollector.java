@@ -17,7 +17,7 @@ package com.linkedin.pinot.core.segment.creator.impl.stats;
 
 import com.linkedin.pinot.common.data.FieldSpec;
 import com.linkedin.pinot.common.data.FieldSpec.DataType;
-import com.linkedin.pinot.core.data.partition.PartitionFunction;
+import com.linkedin.pinot.common.partition.PartitionFunction;
 import com.linkedin.pinot.core.segment.creator.ColumnStatistics;
 import com.linkedin.pinot.core.segment.creator.StatsCollectorConfig;
 import com.linkedin.pinot.core.segment.creator.impl.V1Constants;
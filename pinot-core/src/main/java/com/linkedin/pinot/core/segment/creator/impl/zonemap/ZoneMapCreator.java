@@ -0,0 +1,99 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.core.segment.creator.impl.zonemap;
+
+import com.linkedin.pinot.core.segment.creator.impl.V1Constants;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+
+/**
+ * Creates the zone map of a dictionary encoded column: the min and max dictionary id of every block of consecutive
+ * documents. Because dictionaries are sorted, a block whose [min, max] dictionary id range contains no dictionary id
+ * matching a predicate can be skipped without reading its values.
+ * Typical usage
+ * <code>
+ * creator = new ZoneMapCreator(indexDir, column, totalDocs);
+ * creator.add(int docId, int dictId) //single value
+ * creator.add(int docId, int[] dictIds, int length) //multi value
+ * creator.seal() //generates the file
+ * </code>
+ * <p>
+ * OUTPUT FILE FORMAT
+ * </p>
+ * <code>
+ * [NUM DOCS PER BLOCK] -- INT
+ * [NUM BLOCKS] -- INT
+ * [MIN DICT ID, MAX DICT ID] -- one pair of INT for each block
+ * </code>
+ * This file can be read using ZoneMapReader.
+ */
+public class ZoneMapCreator {
+  public static final int DEFAULT_NUM_DOCS_PER_BLOCK = 64 * 1024;
+
+  private final File _zoneMapFile;
+  private final int _numDocsPerBlock;
+  private final int[] _minDictIds;
+  private final int[] _maxDictIds;
+
+  public ZoneMapCreator(File indexDir, String column, int totalDocs) {
+    this(indexDir, column, totalDocs, DEFAULT_NUM_DOCS_PER_BLOCK);
+  }
+
+  public ZoneMapCreator(File indexDir, String column, int totalDocs, int numDocsPerBlock) {
+    _zoneMapFile = new File(indexDir, column + V1Constants.Indexes.ZONE_MAP_FILE_EXTENSION);
+    _numDocsPerBlock = numDocsPerBlock;
+    int numBlocks = (totalDocs + numDocsPerBlock - 1) / numDocsPerBlock;
+    _minDictIds = new int[numBlocks];
+    _maxDictIds = new int[numBlocks];
+    // Empty blocks have min > max so that they never match
+    Arrays.fill(_minDictIds, Integer.MAX_VALUE);
+    Arrays.fill(_maxDictIds, -1);
+  }
+
+  public void add(int docId, int dictId) {
+    int blockId = docId / _numDocsPerBlock;
+    if (dictId < _minDictIds[blockId]) {
+      _minDictIds[blockId] = dictId;
+    }
+    if (dictId > _maxDictIds[blockId]) {
+      _maxDictIds[blockId] = dictId;
+    }
+  }
+
+  public void add(int docId, int[] dictIds, int length) {
+    for (int i = 0; i < length; i++) {
+      add(docId, dictIds[i]);
+    }
+  }
+
+  public void seal()
+      throws IOException {
+    try (DataOutputStream out = new DataOutputStream(
+        new BufferedOutputStream(new FileOutputStream(_zoneMapFile)))) {
+      out.writeInt(_numDocsPerBlock);
+      out.writeInt(_minDictIds.length);
+      for (int i = 0; i < _minDictIds.length; i++) {
+        out.writeInt(_minDictIds[i]);
+        out.writeInt(_maxDictIds[i]);
+      }
+    }
+  }
+}
@@ -23,8 +23,10 @@ import com.linkedin.pinot.common.data.FieldSpec.FieldType;
 import com.linkedin.pinot.common.data.MetricFieldSpec;
 import com.linkedin.pinot.common.data.MetricFieldSpec.DerivedMetricType;
 import com.linkedin.pinot.common.data.TimeFieldSpec;
-import com.linkedin.pinot.core.data.partition.PartitionFunction;
-import com.linkedin.pinot.core.data.partition.PartitionFunctionFactory;
+import com.linkedin.pinot.common.partition.PartitionFunction;
+import com.linkedin.pinot.common.partition.PartitionFunctionFactory;
+import com.linkedin.pinot.core.io.compression.ChunkCompressorFactory;
+import com.linkedin.pinot.core.io.compression.ChunkCompressorFactory.CompressionType;
 import com.linkedin.pinot.core.segment.creator.impl.V1Constants;
 import com.linkedin.pinot.core.startree.hll.HllUtil;
 import java.lang.reflect.Field;
@@ -56,6 +58,7 @@ public class ColumnMetadata {
   private final int stringColumnMaxLength;
   private final FieldType fieldType;
   private final boolean isSorted;
+  private final boolean isRunLengthEncoded;
   @JsonProperty
   private final boolean containsNulls;
   @JsonProperty
@@ -77,6 +80,7 @@ public class ColumnMetadata {
   private final PartitionFunction partitionFunction;
   private final int numPartitions;
   private final List<IntRange> partitionRanges;
+  private final CompressionType compressionType;
 
   public static ColumnMetadata fromPropertiesConfiguration(String column, PropertiesConfiguration config) {
     Builder builder = new Builder();
@@ -93,6 +97,7 @@ public class ColumnMetadata {
     builder.setStringColumnMaxLength(config.getInt(getKeyFor(column, DICTIONARY_ELEMENT_SIZE)));
     builder.setFieldType(FieldType.valueOf(config.getString(getKeyFor(column, COLUMN_TYPE)).toUpperCase()));
     builder.setIsSorted(config.getBoolean(getKeyFor(column, IS_SORTED)));
+    builder.setIsRunLengthEncoded(config.getBoolean(getKeyFor(column, IS_RUN_LENGTH_ENCODED), false));
     builder.setContainsNulls(config.getBoolean(getKeyFor(column, HAS_NULL_VALUE)));
     builder.setHasDictionary(config.getBoolean(getKeyFor(column, HAS_DICTIONARY), true));
     builder.setHasInvertedIndex(config.getBoolean(getKeyFor(column, HAS_INVERTED_INDEX)));
@@ -178,6 +183,12 @@ public class ColumnMetadata {
       builder.setPartitionValues(ColumnPartitionConfig.rangesFromString(valueString));
     }
 
+    // Raw indexes created before the compression type was recorded are compressed with the default codec.
+    String compressionType = config.getString(getKeyFor(column, COMPRESSION_TYPE), null);
+    if (compressionType != null) {
+      builder.setCompressionType(ChunkCompressorFactory.getCompressionType(compressionType));
+    }
+
     return builder.build();
   }
 
@@ -193,6 +204,13 @@ public class ColumnMetadata {
     return partitionRanges;
   }
 
+  /**
+   * Returns the compression type of the raw (no-dictionary) forward index for the column.
+   */
+  public CompressionType getCompressionType() {
+    return compressionType;
+  }
+
   public static class Builder {
     private String columnName;
     private int cardinality;
@@ -204,6 +222,7 @@ public class ColumnMetadata {
     private int stringColumnMaxLength;
     private FieldType fieldType;
     private boolean isSorted;
+    private boolean isRunLengthEncoded;
     private boolean containsNulls;
     private boolean hasDictionary;
     private boolean hasInvertedIndex;
@@ -222,6 +241,7 @@ public class ColumnMetadata {
     private PartitionFunction partitionFunction;
     private List<IntRange> partitionValues = null;
     private int numPartitions;
+    private CompressionType compressionType = CompressionType.DEFAULT;
 
     public Builder setColumnName(String columnName) {
       this.columnName = columnName;
@@ -273,6 +293,11 @@ public class ColumnMetadata {
       return this;
     }
 
+    public Builder setIsRunLengthEncoded(boolean isRunLengthEncoded) {
+      this.isRunLengthEncoded = isRunLengthEncoded;
+      return this;
+    }
+
     public Builder setContainsNulls(boolean containsNulls) {
       this.containsNulls = containsNulls;
       return this;
@@ -362,22 +387,27 @@ public class ColumnMetadata {
       return this;
     }
 
+    public Builder setCompressionType(CompressionType compressionType) {
+      this.compressionType = compressionType;
+      return this;
+    }
+
     public ColumnMetadata build() {
       return new ColumnMetadata(columnName, cardinality, totalDocs, totalRawDocs, totalAggDocs, dataType,
-          bitsPerElement, stringColumnMaxLength, fieldType, isSorted, containsNulls, hasDictionary, hasInvertedIndex,
-          isSingleValue, maxNumberOfMultiValues, totalNumberOfEntries, isAutoGenerated, defaultNullValueString,
+          bitsPerElement, stringColumnMaxLength, fieldType, isSorted, isRunLengthEncoded, containsNulls, hasDictionary,
+          hasInvertedIndex, isSingleValue, maxNumberOfMultiValues, totalNumberOfEntries, isAutoGenerated, defaultNullValueString,
           timeUnit, paddingCharacter, derivedMetricType, fieldSize, originColumnName, minValue, maxValue,
-          partitionFunction, numPartitions, partitionValues);
+          partitionFunction, numPartitions, partitionValues, compressionType);
     }
   }
 
   private ColumnMetadata(String columnName, int cardinality, int totalDocs, int totalRawDocs, int totalAggDocs,
       DataType dataType, int bitsPerElement, int stringColumnMaxLength, FieldType fieldType, boolean isSorted,
-      boolean hasNulls, boolean hasDictionary, boolean hasInvertedIndex, boolean isSingleValue,
+      boolean isRunLengthEncoded, boolean hasNulls, boolean hasDictionary, boolean hasInvertedIndex, boolean isSingleValue,
       int maxNumberOfMultiValues, int totalNumberOfEntries, boolean isAutoGenerated, String defaultNullValueString,
       TimeUnit timeUnit, char paddingCharacter, DerivedMetricType derivedMetricType, int fieldSize,
       String originColumnName, Comparable minValue, Comparable maxValue, PartitionFunction partitionFunction,
-      int numPartitions, List<IntRange> partitionRanges) {
+      int numPartitions, List<IntRange> partitionRanges, CompressionType compressionType) {
     this.columnName = columnName;
     this.cardinality = cardinality;
     this.totalDocs = totalDocs;
@@ -388,6 +418,7 @@ public class ColumnMetadata {
     this.stringColumnMaxLength = stringColumnMaxLength;
     this.fieldType = fieldType;
     this.isSorted = isSorted;
+    this.isRunLengthEncoded = isRunLengthEncoded;
     this.containsNulls = hasNulls;
     this.hasDictionary = hasDictionary;
     this.hasInvertedIndex = hasInvertedIndex;
@@ -406,6 +437,7 @@ public class ColumnMetadata {
     this.partitionFunction = partitionFunction;
     this.numPartitions = numPartitions;
     this.partitionRanges = partitionRanges;
+    this.compressionType = compressionType;
 
     switch (fieldType) {
       case DIMENSION:
@@ -466,6 +498,14 @@ public class ColumnMetadata {
     return isSorted;
   }
 
+  /**
+   * Returns true if the single-value forward index of the column stores runs of dictionary ids instead of one bit
+   * packed dictionary id per document.
+   */
+  public boolean isRunLengthEncoded() {
+    return isRunLengthEncoded;
+  }
+
   public boolean hasNulls() {
     return containsNulls;
   }
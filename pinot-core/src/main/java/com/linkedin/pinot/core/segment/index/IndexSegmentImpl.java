@@ -27,14 +27,17 @@ import com.linkedin.pinot.core.indexsegment.IndexType;
 import com.linkedin.pinot.core.io.reader.DataFileReader;
 import com.linkedin.pinot.core.segment.index.column.ColumnIndexContainer;
 import com.linkedin.pinot.core.segment.index.data.source.ColumnDataSourceImpl;
+import com.linkedin.pinot.core.segment.index.loader.IndexLoadingConfig;
 import com.linkedin.pinot.core.segment.index.readers.Dictionary;
 import com.linkedin.pinot.core.segment.index.readers.ImmutableDictionaryReader;
 import com.linkedin.pinot.core.segment.index.readers.InvertedIndexReader;
 import com.linkedin.pinot.core.segment.store.SegmentDirectory;
 import com.linkedin.pinot.core.startree.StarTreeInterf;
+import java.io.IOException;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -45,6 +48,9 @@ public class IndexSegmentImpl implements IndexSegment {
   private final SegmentMetadataImpl segmentMetadata;
   private final Map<String, ColumnIndexContainer> indexContainerMap;
   private final StarTreeInterf starTree;
+  // Only set for the segments whose columns are loaded the first time they are accessed
+  private final SegmentDirectory.Reader lazySegmentReader;
+  private final IndexLoadingConfig lazyIndexLoadingConfig;
 
   public IndexSegmentImpl(SegmentDirectory segmentDirectory, SegmentMetadataImpl segmentMetadata,
       Map<String, ColumnIndexContainer> columnIndexContainerMap, StarTreeInterf starTree) throws Exception {
@@ -52,19 +58,59 @@ public class IndexSegmentImpl implements IndexSegment {
     this.segmentMetadata = segmentMetadata;
     this.indexContainerMap = columnIndexContainerMap;
     this.starTree = starTree;
+    this.lazySegmentReader = null;
+    this.lazyIndexLoadingConfig = null;
     LOGGER.info("Successfully loaded the index segment : " + segmentDirectory);
   }
 
+  /**
+   * Creates a segment whose column indexes are loaded from the given reader the first time each column is accessed.
+   */
+  public IndexSegmentImpl(SegmentDirectory segmentDirectory, SegmentMetadataImpl segmentMetadata,
+      SegmentDirectory.Reader segmentReader, IndexLoadingConfig indexLoadingConfig, StarTreeInterf starTree) {
+    this.segmentDirectory = segmentDirectory;
+    this.segmentMetadata = segmentMetadata;
+    this.indexContainerMap = new ConcurrentHashMap<>();
+    this.starTree = starTree;
+    this.lazySegmentReader = segmentReader;
+    this.lazyIndexLoadingConfig = indexLoadingConfig;
+    LOGGER.info("Successfully loaded the index segment with lazily loaded columns : " + segmentDirectory);
+  }
+
+  private ColumnIndexContainer getColumnIndexContainer(String column) {
+    ColumnIndexContainer columnIndexContainer = indexContainerMap.get(column);
+    if (columnIndexContainer != null || lazySegmentReader == null) {
+      return columnIndexContainer;
+    }
+    synchronized (indexContainerMap) {
+      columnIndexContainer = indexContainerMap.get(column);
+      if (columnIndexContainer == null) {
+        ColumnMetadata columnMetadata = segmentMetadata.getColumnMetadataFor(column);
+        if (columnMetadata == null) {
+          return null;
+        }
+        try {
+          columnIndexContainer = ColumnIndexContainer.init(lazySegmentReader, columnMetadata, lazyIndexLoadingConfig);
+        } catch (IOException e) {
+          throw new RuntimeException(
+              "Failed to load indexes for column: " + column + " of segment: " + segmentMetadata.getName(), e);
+        }
+        indexContainerMap.put(column, columnIndexContainer);
+      }
+      return columnIndexContainer;
+    }
+  }
+
   public ImmutableDictionaryReader getDictionaryFor(String column) {
-    return indexContainerMap.get(column).getDictionary();
+    return getColumnIndexContainer(column).getDictionary();
   }
 
   public DataFileReader getForwardIndexReaderFor(String column) {
-    return indexContainerMap.get(column).getForwardIndex();
+    return getColumnIndexContainer(column).getForwardIndex();
   }
 
   public InvertedIndexReader getInvertedIndexFor(String column) {
-    return indexContainerMap.get(column).getInvertedIndex();
+    return getColumnIndexContainer(column).getInvertedIndex();
   }
 
   @Override
@@ -89,7 +135,7 @@ public class IndexSegmentImpl implements IndexSegment {
 
   @Override
   public DataSource getDataSource(String columnName) {
-    return new ColumnDataSourceImpl(indexContainerMap.get(columnName));
+    return new ColumnDataSourceImpl(getColumnIndexContainer(columnName));
   }
 
   public DataSource getDataSource(String columnName, Predicate p) {
@@ -637,6 +637,8 @@ public class SegmentMetadataImpl implements SegmentMetadata {
         fileNameBuilder.append(V1Constants.Indexes.RAW_SV_FWD_IDX_FILE_EXTENTION);
       } else if (columnMetadata.isSorted()) {
         fileNameBuilder.append(V1Constants.Indexes.SORTED_FWD_IDX_FILE_EXTENTION);
+      } else if (columnMetadata.isRunLengthEncoded()) {
+        fileNameBuilder.append(V1Constants.Indexes.RUN_LENGTH_SV_FWD_IDX_FILE_EXTENTION);
       } else {
         fileNameBuilder.append(V1Constants.Indexes.UN_SORTED_SV_FWD_IDX_FILE_EXTENTION);
       }
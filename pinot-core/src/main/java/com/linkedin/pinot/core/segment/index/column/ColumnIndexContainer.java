@@ -23,6 +23,7 @@ import com.linkedin.pinot.core.io.reader.ReaderContext;
 import com.linkedin.pinot.core.io.reader.SingleColumnMultiValueReader;
 import com.linkedin.pinot.core.io.reader.SingleColumnSingleValueReader;
 import com.linkedin.pinot.core.io.reader.impl.FixedByteSingleValueMultiColReader;
+import com.linkedin.pinot.core.io.reader.impl.RunLengthSingleValueReader;
 import com.linkedin.pinot.core.io.reader.impl.v1.FixedBitMultiValueReader;
 import com.linkedin.pinot.core.io.reader.impl.v1.FixedBitSingleValueReader;
 import com.linkedin.pinot.core.io.reader.impl.v1.FixedByteChunkSingleValueReader;
@@ -37,6 +38,7 @@ import com.linkedin.pinot.core.segment.index.readers.IntDictionary;
 import com.linkedin.pinot.core.segment.index.readers.InvertedIndexReader;
 import com.linkedin.pinot.core.segment.index.readers.LongDictionary;
 import com.linkedin.pinot.core.segment.index.readers.StringDictionary;
+import com.linkedin.pinot.core.segment.index.readers.ZoneMapReader;
 import com.linkedin.pinot.core.segment.memory.PinotDataBuffer;
 import com.linkedin.pinot.core.segment.store.ColumnIndexType;
 import com.linkedin.pinot.core.segment.store.SegmentDirectory;
@@ -87,7 +89,7 @@ public abstract class ColumnIndexContainer {
     }
 
     return new UnSortedMVColumnIndexContainer(column, metadata, fwdIndexReader, dictionary,
-        invertedIndex);
+        invertedIndex, loadZoneMap(column, segmentReader, dictionary));
   }
 
   private static ColumnIndexContainer loadUnsorted(String column, SegmentDirectory.Reader segmentReader, ColumnMetadata metadata,
@@ -96,13 +98,13 @@ public abstract class ColumnIndexContainer {
 
     PinotDataBuffer fwdIndexBuffer = segmentReader.getIndexFor(column, ColumnIndexType.FORWARD_INDEX);
     SingleColumnSingleValueReader fwdIndexReader;
-    if (dictionary != null) {
+    if (dictionary != null && metadata.isRunLengthEncoded()) {
+      fwdIndexReader = new RunLengthSingleValueReader(fwdIndexBuffer, metadata.getTotalDocs());
+    } else if (dictionary != null) {
       fwdIndexReader =
           new FixedBitSingleValueReader(fwdIndexBuffer, metadata.getTotalDocs(), metadata.getBitsPerElement(), metadata.hasNulls());
     } else {
-      // TODO: Replace hard-coded compressor with getting information from meta-data.
-      fwdIndexReader =
-          getRawIndexReader(fwdIndexBuffer, metadata.getDataType());
+      fwdIndexReader = getRawIndexReader(fwdIndexBuffer, metadata.getDataType(), metadata.getCompressionType());
     }
 
     BitmapInvertedIndexReader invertedIndex = null;
@@ -113,7 +115,17 @@ public abstract class ColumnIndexContainer {
     }
 
     return new UnsortedSVColumnIndexContainer(column, metadata, fwdIndexReader, dictionary,
-        invertedIndex);
+        invertedIndex, loadZoneMap(column, segmentReader, dictionary));
+  }
+
+  private static ZoneMapReader loadZoneMap(String column, SegmentDirectory.Reader segmentReader,
+      ImmutableDictionaryReader dictionary)
+      throws IOException {
+    // Zone maps store dictionary ids, so they are only used for dictionary encoded columns
+    if (dictionary == null || !segmentReader.hasIndexFor(column, ColumnIndexType.ZONE_MAP)) {
+      return null;
+    }
+    return new ZoneMapReader(segmentReader.getIndexFor(column, ColumnIndexType.ZONE_MAP));
   }
 
   private static ColumnIndexContainer loadSorted(String column, SegmentDirectory.Reader segmentReader, ColumnMetadata metadata,
@@ -148,10 +160,14 @@ public abstract class ColumnIndexContainer {
   public static SingleColumnSingleValueReader getRawIndexReader(PinotDataBuffer fwdIndexBuffer,
       FieldSpec.DataType dataType)
       throws IOException {
-    SingleColumnSingleValueReader reader;
+    return getRawIndexReader(fwdIndexBuffer, dataType, ChunkCompressorFactory.CompressionType.DEFAULT);
+  }
 
-    // TODO: Make compression/decompression configurable.
-    ChunkDecompressor decompressor = ChunkCompressorFactory.getDecompressor("snappy");
+  public static SingleColumnSingleValueReader getRawIndexReader(PinotDataBuffer fwdIndexBuffer,
+      FieldSpec.DataType dataType, ChunkCompressorFactory.CompressionType compressionType)
+      throws IOException {
+    SingleColumnSingleValueReader reader;
+    ChunkDecompressor decompressor = ChunkCompressorFactory.getDecompressor(compressionType);
 
     switch (dataType) {
       case INT:
@@ -177,6 +193,11 @@ public abstract class ColumnIndexContainer {
    */
   public abstract InvertedIndexReader getInvertedIndex();
 
+  /**
+   * @return Zone map of the column, or null if the column has no zone map
+   */
+  public abstract ZoneMapReader getZoneMap();
+
   /**
    * @return
    */
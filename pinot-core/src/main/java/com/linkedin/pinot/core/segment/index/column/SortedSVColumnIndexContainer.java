@@ -21,6 +21,7 @@ import com.linkedin.pinot.core.io.reader.impl.SortedForwardIndexReader;
 import com.linkedin.pinot.core.segment.index.ColumnMetadata;
 import com.linkedin.pinot.core.segment.index.readers.InvertedIndexReader;
 import com.linkedin.pinot.core.segment.index.readers.SortedInvertedIndexReader;
+import com.linkedin.pinot.core.segment.index.readers.ZoneMapReader;
 import com.linkedin.pinot.core.segment.index.readers.ImmutableDictionaryReader;
 
 
@@ -48,6 +49,12 @@ public class SortedSVColumnIndexContainer extends ColumnIndexContainer {
     return invertedIndexReader;
   }
 
+  @Override
+  public ZoneMapReader getZoneMap() {
+    // Sorted columns are filtered through the sorted inverted index
+    return null;
+  }
+
   @Override
   public DataFileReader getForwardIndex() {
     return forwardIndexReader;
@@ -21,6 +21,7 @@ import com.linkedin.pinot.core.io.reader.SingleColumnMultiValueReader;
 import com.linkedin.pinot.core.segment.index.ColumnMetadata;
 import com.linkedin.pinot.core.segment.index.readers.InvertedIndexReader;
 import com.linkedin.pinot.core.segment.index.readers.ImmutableDictionaryReader;
+import com.linkedin.pinot.core.segment.index.readers.ZoneMapReader;
 
 
 public class UnSortedMVColumnIndexContainer extends ColumnIndexContainer {
@@ -30,6 +31,7 @@ public class UnSortedMVColumnIndexContainer extends ColumnIndexContainer {
   private final SingleColumnMultiValueReader indexReader;
   private final ImmutableDictionaryReader dictionary;
   private final BitmapInvertedIndexReader invertedIndexReader;
+  private final ZoneMapReader zoneMapReader;
 
   public UnSortedMVColumnIndexContainer(String column, ColumnMetadata columnMetadata,
       SingleColumnMultiValueReader indexReader, ImmutableDictionaryReader dictionary) {
@@ -39,11 +41,18 @@ public class UnSortedMVColumnIndexContainer extends ColumnIndexContainer {
   public UnSortedMVColumnIndexContainer(String column, ColumnMetadata columnMetadata,
       SingleColumnMultiValueReader indexReader, ImmutableDictionaryReader dictionary,
       BitmapInvertedIndexReader invertedIndex) {
+    this(column, columnMetadata, indexReader, dictionary, invertedIndex, null);
+  }
+
+  public UnSortedMVColumnIndexContainer(String column, ColumnMetadata columnMetadata,
+      SingleColumnMultiValueReader indexReader, ImmutableDictionaryReader dictionary,
+      BitmapInvertedIndexReader invertedIndex, ZoneMapReader zoneMap) {
     this.column = column;
     this.columnMetadata = columnMetadata;
     this.indexReader = indexReader;
     this.dictionary = dictionary;
     this.invertedIndexReader = invertedIndex;
+    this.zoneMapReader = zoneMap;
   }
 
   @Override
@@ -51,6 +60,11 @@ public class UnSortedMVColumnIndexContainer extends ColumnIndexContainer {
     return invertedIndexReader;
   }
 
+  @Override
+  public ZoneMapReader getZoneMap() {
+    return zoneMapReader;
+  }
+
   @Override
   public DataFileReader getForwardIndex() {
     return indexReader;
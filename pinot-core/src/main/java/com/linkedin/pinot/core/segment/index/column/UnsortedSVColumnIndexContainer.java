@@ -21,6 +21,7 @@ import com.linkedin.pinot.core.io.reader.SingleColumnSingleValueReader;
 import com.linkedin.pinot.core.segment.index.ColumnMetadata;
 import com.linkedin.pinot.core.segment.index.readers.InvertedIndexReader;
 import com.linkedin.pinot.core.segment.index.readers.ImmutableDictionaryReader;
+import com.linkedin.pinot.core.segment.index.readers.ZoneMapReader;
 
 
 public class UnsortedSVColumnIndexContainer extends ColumnIndexContainer {
@@ -30,6 +31,7 @@ public class UnsortedSVColumnIndexContainer extends ColumnIndexContainer {
   private final SingleColumnSingleValueReader indexReader;
   private final ImmutableDictionaryReader dictionary;
   private final BitmapInvertedIndexReader invertedIndexReader;
+  private final ZoneMapReader zoneMapReader;
 
   public UnsortedSVColumnIndexContainer(String column, ColumnMetadata columnMetadata,
       SingleColumnSingleValueReader indexReader, ImmutableDictionaryReader dictionary) {
@@ -39,11 +41,18 @@ public class UnsortedSVColumnIndexContainer extends ColumnIndexContainer {
   public UnsortedSVColumnIndexContainer(String column, ColumnMetadata columnMetadata,
       SingleColumnSingleValueReader indexReader, ImmutableDictionaryReader dictionary,
       BitmapInvertedIndexReader invertedIndex) {
+    this(column, columnMetadata, indexReader, dictionary, invertedIndex, null);
+  }
+
+  public UnsortedSVColumnIndexContainer(String column, ColumnMetadata columnMetadata,
+      SingleColumnSingleValueReader indexReader, ImmutableDictionaryReader dictionary,
+      BitmapInvertedIndexReader invertedIndex, ZoneMapReader zoneMap) {
     this.column = column;
     this.columnMetadata = columnMetadata;
     this.indexReader = indexReader;
     this.dictionary = dictionary;
     this.invertedIndexReader = invertedIndex;
+    this.zoneMapReader = zoneMap;
   }
 
   @Override
@@ -51,6 +60,11 @@ public class UnsortedSVColumnIndexContainer extends ColumnIndexContainer {
     return invertedIndexReader;
   }
 
+  @Override
+  public ZoneMapReader getZoneMap() {
+    return zoneMapReader;
+  }
+
   @Override
   public DataFileReader getForwardIndex() {
     return indexReader;
@@ -137,6 +137,7 @@ public class SegmentV1V2ToV3FormatConverter implements SegmentFormatConverter {
             copyDictionary(v2DataReader, v3DataWriter, column);
           }
           copyForwardIndex(v2DataReader, v3DataWriter, column);
+          copyExistingZoneMap(v2DataReader, v3DataWriter, column);
         }
 
         // inverted indexes are intentionally stored at the end of the single file
@@ -175,6 +176,15 @@ public class SegmentV1V2ToV3FormatConverter implements SegmentFormatConverter {
     readCopyBuffers(reader, writer, column, ColumnIndexType.FORWARD_INDEX);
   }
 
+  private void copyExistingZoneMap(SegmentDirectory.Reader reader,
+      SegmentDirectory.Writer writer,
+      String column)
+      throws IOException {
+    if (reader.hasIndexFor(column, ColumnIndexType.ZONE_MAP)) {
+      readCopyBuffers(reader, writer, column, ColumnIndexType.ZONE_MAP);
+    }
+  }
+
   private void copyExistingInvertedIndex(SegmentDirectory.Reader reader,
       SegmentDirectory.Writer writer,
       String column)
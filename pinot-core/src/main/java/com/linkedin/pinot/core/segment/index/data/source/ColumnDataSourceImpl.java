@@ -26,8 +26,10 @@ import com.linkedin.pinot.core.common.BlockId;
 import com.linkedin.pinot.core.common.DataSource;
 import com.linkedin.pinot.core.common.DataSourceMetadata;
 import com.linkedin.pinot.core.common.Predicate;
+import com.linkedin.pinot.core.io.reader.DataFileReader;
 import com.linkedin.pinot.core.io.reader.SingleColumnMultiValueReader;
 import com.linkedin.pinot.core.io.reader.SingleColumnSingleValueReader;
+import com.linkedin.pinot.core.io.reader.impl.RunLengthSingleValueReader;
 import com.linkedin.pinot.core.io.reader.impl.SortedForwardIndexReader;
 import com.linkedin.pinot.core.operator.blocks.MultiValueBlock;
 import com.linkedin.pinot.core.operator.blocks.SortedSingleValueBlock;
@@ -35,6 +37,7 @@ import com.linkedin.pinot.core.operator.blocks.UnSortedSingleValueBlock;
 import com.linkedin.pinot.core.segment.index.readers.InvertedIndexReader;
 import com.linkedin.pinot.core.segment.index.column.ColumnIndexContainer;
 import com.linkedin.pinot.core.segment.index.readers.Dictionary;
+import com.linkedin.pinot.core.segment.index.readers.ZoneMapReader;
 
 /**
  * Nov 15, 2014
@@ -159,6 +162,17 @@ public class ColumnDataSourceImpl extends DataSource {
     return indexContainer.getInvertedIndex();
   }
 
+  @Override
+  public ZoneMapReader getZoneMap() {
+    return indexContainer.getZoneMap();
+  }
+
+  @Override
+  public RunLengthSingleValueReader getRunLengthIndex() {
+    DataFileReader forwardIndex = indexContainer.getForwardIndex();
+    return (forwardIndex instanceof RunLengthSingleValueReader) ? (RunLengthSingleValueReader) forwardIndex : null;
+  }
+
   @Override
   public Dictionary getDictionary() {
     return indexContainer.getDictionary();
@@ -20,11 +20,15 @@ import com.linkedin.pinot.common.config.IndexingConfig;
 import com.linkedin.pinot.common.segment.ReadMode;
 import com.linkedin.pinot.core.data.manager.config.InstanceDataManagerConfig;
 import com.linkedin.pinot.core.indexsegment.generator.SegmentVersion;
+import com.linkedin.pinot.core.io.compression.ChunkCompressorFactory;
 import com.linkedin.pinot.core.segment.index.loader.columnminmaxvalue.ColumnMinMaxValueGeneratorMode;
+import com.linkedin.pinot.core.segment.index.loader.warmup.SegmentWarmupMode;
 import com.linkedin.pinot.core.startree.StarTreeFormatVersion;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
@@ -40,11 +44,17 @@ public class IndexLoadingConfig {
   private List<String> _sortedColumns = Collections.emptyList();
   private Set<String> _invertedIndexColumns = new HashSet<>();
   private Set<String> _noDictionaryColumns = new HashSet<>();
+  private Set<String> _zoneMapColumns = new HashSet<>();
+  private Set<String> _runLengthEncodedColumns = new HashSet<>();
+  private Map<String, ChunkCompressorFactory.CompressionType> _noDictionaryCompressionTypes = new HashMap<>();
   private SegmentVersion _segmentVersion = SegmentVersion.DEFAULT_VERSION;
   private StarTreeFormatVersion _starTreeVersion = StarTreeFormatVersion.DEFAULT_VERSION;
   private boolean _enableDefaultColumns = true;
   private ColumnMinMaxValueGeneratorMode _columnMinMaxValueGeneratorMode = ColumnMinMaxValueGeneratorMode.DEFAULT_MODE;
   private int _realtimeAvgMultiValueCount = DEFAULT_REALTIME_AVG_MULTI_VALUE_COUNT;
+  private int _numIndexCreationThreads = 1;
+  private SegmentWarmupMode _segmentWarmupMode = SegmentWarmupMode.DEFAULT_MODE;
+  private int _numSegmentWarmupThreads = 2;
 
   public IndexLoadingConfig(@Nullable InstanceDataManagerConfig instanceDataManagerConfig,
       @Nullable AbstractTableConfig tableConfig) {
@@ -66,6 +76,14 @@ public class IndexLoadingConfig {
       if (avgMultiValueCount != null) {
         _realtimeAvgMultiValueCount = Integer.valueOf(avgMultiValueCount);
       }
+
+      _numIndexCreationThreads = instanceDataManagerConfig.getNumIndexCreationThreads();
+
+      String segmentWarmupMode = instanceDataManagerConfig.getSegmentWarmupMode();
+      if (segmentWarmupMode != null) {
+        _segmentWarmupMode = SegmentWarmupMode.valueOf(segmentWarmupMode.toUpperCase());
+      }
+      _numSegmentWarmupThreads = instanceDataManagerConfig.getNumSegmentWarmupThreads();
     }
 
     // Extract config from table indexing config
@@ -91,6 +109,24 @@ public class IndexLoadingConfig {
         _noDictionaryColumns.addAll(noDictionaryColumns);
       }
 
+      List<String> zoneMapColumns = indexingConfig.getZoneMapColumns();
+      if (zoneMapColumns != null) {
+        _zoneMapColumns.addAll(zoneMapColumns);
+      }
+
+      List<String> runLengthEncodedColumns = indexingConfig.getRunLengthEncodedColumns();
+      if (runLengthEncodedColumns != null) {
+        _runLengthEncodedColumns.addAll(runLengthEncodedColumns);
+      }
+
+      Map<String, String> noDictionaryConfig = indexingConfig.getNoDictionaryConfig();
+      if (noDictionaryConfig != null) {
+        for (Map.Entry<String, String> entry : noDictionaryConfig.entrySet()) {
+          _noDictionaryCompressionTypes.put(entry.getKey(),
+              ChunkCompressorFactory.getCompressionType(entry.getValue()));
+        }
+      }
+
       String tableSegmentVersion = indexingConfig.getSegmentFormatVersion();
       if (tableSegmentVersion != null) {
         _segmentVersion = SegmentVersion.valueOf(tableSegmentVersion.toLowerCase());
@@ -144,11 +180,40 @@ public class IndexLoadingConfig {
     _invertedIndexColumns = invertedIndexColumns;
   }
 
+  @Nonnull
+  public Set<String> getZoneMapColumns() {
+    return _zoneMapColumns;
+  }
+
+  /**
+   * For tests only.
+   */
+  public void setZoneMapColumns(@Nonnull Set<String> zoneMapColumns) {
+    _zoneMapColumns = zoneMapColumns;
+  }
+
+  /**
+   * Returns the columns with a run length encoded forward index. Only used when building segments, e.g. when committing
+   * realtime segments, existing segments are not converted on load.
+   */
+  @Nonnull
+  public Set<String> getRunLengthEncodedColumns() {
+    return _runLengthEncodedColumns;
+  }
+
   @Nonnull
   public Set<String> getNoDictionaryColumns() {
     return _noDictionaryColumns;
   }
 
+  /**
+   * Returns the chunk compression type configured for the raw index of no-dictionary columns.
+   */
+  @Nonnull
+  public Map<String, ChunkCompressorFactory.CompressionType> getNoDictionaryCompressionTypes() {
+    return _noDictionaryCompressionTypes;
+  }
+
   @Nonnull
   public SegmentVersion getSegmentVersion() {
     return _segmentVersion;
@@ -192,4 +257,31 @@ public class IndexLoadingConfig {
   public int getRealtimeAvgMultiValueCount() {
     return _realtimeAvgMultiValueCount;
   }
+
+  public int getNumIndexCreationThreads() {
+    return _numIndexCreationThreads;
+  }
+
+  /**
+   * For tests only.
+   */
+  public void setNumIndexCreationThreads(int numIndexCreationThreads) {
+    _numIndexCreationThreads = numIndexCreationThreads;
+  }
+
+  @Nonnull
+  public SegmentWarmupMode getSegmentWarmupMode() {
+    return _segmentWarmupMode;
+  }
+
+  /**
+   * For tests only.
+   */
+  public void setSegmentWarmupMode(@Nonnull SegmentWarmupMode segmentWarmupMode) {
+    _segmentWarmupMode = segmentWarmupMode;
+  }
+
+  public int getNumSegmentWarmupThreads() {
+    return _numSegmentWarmupThreads;
+  }
 }
@@ -24,6 +24,7 @@ import com.linkedin.pinot.core.segment.index.SegmentMetadataImpl;
 import com.linkedin.pinot.core.segment.index.column.ColumnIndexContainer;
 import com.linkedin.pinot.core.segment.index.converter.SegmentFormatConverter;
 import com.linkedin.pinot.core.segment.index.converter.SegmentFormatConverterFactory;
+import com.linkedin.pinot.core.segment.index.loader.warmup.SegmentWarmer;
 import com.linkedin.pinot.core.segment.store.SegmentDirectory;
 import com.linkedin.pinot.core.segment.store.SegmentDirectoryPaths;
 import com.linkedin.pinot.core.startree.StarTreeInterf;
@@ -74,6 +75,11 @@ public class Loaders {
       StarTreeSerDe.convertStarTreeFormatIfNeeded(indexDir, indexLoadingConfig.getStarTreeVersion());
 
       String segmentName = indexDir.getName();
+      File v3SegmentDirectory = SegmentDirectoryPaths.segmentDirectoryFor(indexDir, SegmentVersion.v3);
+      if (SegmentDirectoryPaths.isRemoteSegmentDirectory(v3SegmentDirectory)) {
+        return loadRemote(indexDir, v3SegmentDirectory, indexLoadingConfig);
+      }
+
       if (!targetFormatAlreadyExists(indexDir, segmentVersionToLoad)) {
         SegmentVersion segmentVersionOnDisk = new SegmentMetadataImpl(indexDir).getSegmentVersion();
         if (segmentVersionOnDisk != segmentVersionToLoad) {
@@ -108,6 +114,12 @@ public class Loaders {
             ColumnIndexContainer.init(segmentReader, segmentMetadata.getColumnMetadataFor(column), indexLoadingConfig));
       }
 
+      // Read the indexes into the page cache before the segment starts serving queries
+      if (readMode == ReadMode.mmap) {
+        SegmentWarmer.warmup(segmentReader, segmentMetadata, indexLoadingConfig.getSegmentWarmupMode(),
+            indexLoadingConfig.getNumSegmentWarmupThreads());
+      }
+
       // Load star tree index if it exists
       StarTreeInterf starTree = null;
       if (segmentReader.hasStarTree()) {
@@ -118,6 +130,34 @@ public class Loaders {
       return new IndexSegmentImpl(segmentDirectory, segmentMetadata, indexContainerMap, starTree);
     }
 
+    /**
+     * Loads a v3 segment whose index file lives in the deep store. The indexes cannot be converted or pre-processed,
+     * and the indexes of each column are fetched the first time the column is accessed.
+     */
+    private static com.linkedin.pinot.core.indexsegment.IndexSegment loadRemote(File indexDir,
+        File segmentDirectoryPath, IndexLoadingConfig indexLoadingConfig)
+        throws Exception {
+      String segmentName = indexDir.getName();
+      if (indexLoadingConfig.getSegmentVersion() != SegmentVersion.v3) {
+        LOGGER.warn("Loading remote segment: {} as v3 instead of {}", segmentName,
+            indexLoadingConfig.getSegmentVersion());
+      }
+      ReadMode readMode = indexLoadingConfig.getReadMode();
+      SegmentMetadataImpl segmentMetadata = new SegmentMetadataImpl(indexDir, SegmentVersion.v3);
+      SegmentDirectory segmentDirectory =
+          SegmentDirectory.createFromLocalFS(segmentDirectoryPath, segmentMetadata, readMode);
+      SegmentDirectory.Reader segmentReader = segmentDirectory.createReader();
+
+      StarTreeInterf starTree = null;
+      if (segmentReader.hasStarTree()) {
+        LOGGER.info("Loading star tree for segment: {}", segmentName);
+        starTree = StarTreeSerDe.fromFile(segmentReader.getStarTreeFile(), readMode);
+      }
+
+      LOGGER.info("Loading remote segment: {}, column indexes will be fetched on demand", segmentName);
+      return new IndexSegmentImpl(segmentDirectory, segmentMetadata, segmentReader, indexLoadingConfig, starTree);
+    }
+
     private static boolean targetFormatAlreadyExists(File indexDir, SegmentVersion expectedSegmentVersion) {
       return SegmentDirectoryPaths.segmentDirectoryFor(indexDir, expectedSegmentVersion).exists();
     }
@@ -24,6 +24,7 @@ import com.linkedin.pinot.core.segment.index.loader.columnminmaxvalue.ColumnMinM
 import com.linkedin.pinot.core.segment.index.loader.defaultcolumn.DefaultColumnHandler;
 import com.linkedin.pinot.core.segment.index.loader.defaultcolumn.DefaultColumnHandlerFactory;
 import com.linkedin.pinot.core.segment.index.loader.invertedindex.InvertedIndexHandler;
+import com.linkedin.pinot.core.segment.index.loader.zonemap.ZoneMapHandler;
 import com.linkedin.pinot.core.segment.store.SegmentDirectory;
 import com.linkedin.pinot.core.segment.store.SegmentDirectoryPaths;
 import java.io.File;
@@ -36,6 +37,7 @@ import javax.annotation.Nullable;
  * <p>Pre-processing steps include:
  * <p>- Use {@link InvertedIndexHandler} to create inverted indices.
  * <p>- Use {@link DefaultColumnHandler} to update auto-generated default columns.
+ * <p>- Use {@link ZoneMapHandler} to create zone maps.
  */
 public class SegmentPreProcessor implements AutoCloseable {
   private final SegmentVersion _segmentVersion;
@@ -98,6 +100,15 @@ public class SegmentPreProcessor implements AutoCloseable {
                   columnMinMaxValueGeneratorMode);
           columnMinMaxValueGenerator.addColumnMinMaxValue();
         }
+
+        if (!_indexLoadingConfig.getZoneMapColumns().isEmpty()) {
+          // Create column zone maps according to the index config.
+          // Reload the metadata because default columns may have been added.
+          _segmentMetadata = new SegmentMetadataImpl(_indexDir, _segmentVersion);
+          ZoneMapHandler zoneMapHandler =
+              new ZoneMapHandler(_segmentDirectoryPath, _segmentMetadata, _indexLoadingConfig, segmentWriter);
+          zoneMapHandler.createZoneMaps();
+        }
       }
     } finally {
       if (segmentWriter != null) {
@@ -18,6 +18,8 @@ package com.linkedin.pinot.core.segment.index.loader.invertedindex;
 import com.linkedin.pinot.core.indexsegment.generator.SegmentVersion;
 import com.linkedin.pinot.core.io.reader.DataFileReader;
 import com.linkedin.pinot.core.io.reader.SingleColumnMultiValueReader;
+import com.linkedin.pinot.core.io.reader.SingleColumnSingleValueReader;
+import com.linkedin.pinot.core.io.reader.impl.RunLengthSingleValueReader;
 import com.linkedin.pinot.core.io.reader.impl.v1.FixedBitMultiValueReader;
 import com.linkedin.pinot.core.io.reader.impl.v1.FixedBitSingleValueReader;
 import com.linkedin.pinot.core.segment.creator.impl.V1Constants;
@@ -149,7 +151,7 @@ public class InvertedIndexHandler {
       if (singleValue) {
         // Single-value column.
 
-        FixedBitSingleValueReader svFwdIndex = (FixedBitSingleValueReader) fwdIndex;
+        SingleColumnSingleValueReader svFwdIndex = (SingleColumnSingleValueReader) fwdIndex;
         for (int i = 0; i < totalDocs; i++) {
           creator.add(i, svFwdIndex.getInt(i));
         }
@@ -181,7 +183,9 @@ public class InvertedIndexHandler {
   private DataFileReader getForwardIndexReader(ColumnMetadata columnMetadata, SegmentDirectory.Writer segmentWriter)
       throws IOException {
     PinotDataBuffer buffer = segmentWriter.getIndexFor(columnMetadata.getColumnName(), ColumnIndexType.FORWARD_INDEX);
-    if (columnMetadata.isSingleValue()) {
+    if (columnMetadata.isRunLengthEncoded()) {
+      return new RunLengthSingleValueReader(buffer, columnMetadata.getTotalDocs());
+    } else if (columnMetadata.isSingleValue()) {
       return new FixedBitSingleValueReader(buffer, columnMetadata.getTotalDocs(), columnMetadata.getBitsPerElement(),
           columnMetadata.hasNulls());
     } else {
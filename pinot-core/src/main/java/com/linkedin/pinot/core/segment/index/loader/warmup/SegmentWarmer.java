@@ -0,0 +1,169 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.core.segment.index.loader.warmup;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.linkedin.pinot.core.segment.index.SegmentMetadataImpl;
+import com.linkedin.pinot.core.segment.memory.PinotDataBuffer;
+import com.linkedin.pinot.core.segment.store.ColumnIndexType;
+import com.linkedin.pinot.core.segment.store.SegmentDirectory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * Warms up the page cache for memory mapped segments, so that the first queries after a server restart do not page
+ * fault their way through the index files.
+ * <p>
+ * Index buffers are read sequentially, touching one byte per page, on a bounded thread pool shared by all the segments
+ * of the instance to limit the concurrent I/O. Dictionaries are read first, then inverted indexes, then forward indexes
+ * if enabled. Warmup runs as part of loading the segment, so the segment does not go ONLINE (and the instance does
+ * not report healthy) until its indexes are in the page cache.
+ */
+public class SegmentWarmer {
+  private static final Logger LOGGER = LoggerFactory.getLogger(SegmentWarmer.class);
+  private static final int PAGE_SIZE = 4096;
+
+  private static final AtomicLong TOTAL_WARMUP_BYTES_READ = new AtomicLong(0L);
+  private static final AtomicLong TOTAL_WARMUP_TIME_MS = new AtomicLong(0L);
+
+  private static ExecutorService _executorService;
+  private static volatile byte _checksum;
+
+  private SegmentWarmer() {
+  }
+
+  /**
+   * Warms up the indexes of a segment according to the warmup mode.
+   *
+   * @param segmentReader Reader of the segment directory
+   * @param segmentMetadata Metadata of the segment
+   * @param warmupMode Which indexes to warm up
+   * @param numThreads Number of warmup threads for the instance, only used the first time a segment is warmed up
+   * @return Number of bytes read
+   */
+  public static long warmup(SegmentDirectory.Reader segmentReader, SegmentMetadataImpl segmentMetadata,
+      SegmentWarmupMode warmupMode, int numThreads) {
+    if (warmupMode == SegmentWarmupMode.NONE) {
+      return 0L;
+    }
+    long startTime = System.currentTimeMillis();
+
+    // Segment directory readers are not thread-safe, so get the buffers on the calling thread
+    List<PinotDataBuffer> buffers = new ArrayList<>();
+    List<ColumnIndexType> indexTypes = new ArrayList<>();
+    indexTypes.add(ColumnIndexType.DICTIONARY);
+    indexTypes.add(ColumnIndexType.INVERTED_INDEX);
+    if (warmupMode == SegmentWarmupMode.ALL) {
+      indexTypes.add(ColumnIndexType.FORWARD_INDEX);
+    }
+    for (ColumnIndexType indexType : indexTypes) {
+      for (String column : segmentMetadata.getColumnMetadataMap().keySet()) {
+        if (segmentReader.hasIndexFor(column, indexType)) {
+          try {
+            buffers.add(segmentReader.getIndexFor(column, indexType));
+          } catch (Exception e) {
+            LOGGER.warn("Caught exception while getting {} of column: {} for warmup in segment: {}", indexType, column,
+                segmentMetadata.getName(), e);
+          }
+        }
+      }
+    }
+
+    ExecutorService executorService = getExecutorService(numThreads);
+    List<Future<Long>> futures = new ArrayList<>(buffers.size());
+    for (final PinotDataBuffer buffer : buffers) {
+      futures.add(executorService.submit(new Callable<Long>() {
+        @Override
+        public Long call() {
+          return touch(buffer);
+        }
+      }));
+    }
+    long bytesRead = 0L;
+    for (Future<Long> future : futures) {
+      try {
+        bytesRead += future.get();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        LOGGER.warn("Interrupted while warming up segment: {}", segmentMetadata.getName());
+        break;
+      } catch (Exception e) {
+        LOGGER.warn("Caught exception while warming up segment: {}", segmentMetadata.getName(), e);
+      }
+    }
+
+    long warmupTimeMs = System.currentTimeMillis() - startTime;
+    TOTAL_WARMUP_BYTES_READ.addAndGet(bytesRead);
+    TOTAL_WARMUP_TIME_MS.addAndGet(warmupTimeMs);
+    LOGGER.info("Warmed up {} indexes ({} bytes) of segment: {} in {}ms", buffers.size(), bytesRead,
+        segmentMetadata.getName(), warmupTimeMs);
+    return bytesRead;
+  }
+
+  /**
+   * Reads one byte per page of the buffer, in sequential order so that the OS read-ahead kicks in.
+   */
+  static long touch(PinotDataBuffer buffer) {
+    long size = buffer.size();
+    byte checksum = 0;
+    for (long offset = 0; offset < size; offset += PAGE_SIZE) {
+      checksum ^= getByte(buffer, offset);
+    }
+    if (size > 0) {
+      checksum ^= getByte(buffer, size - 1);
+    }
+    // Publish the checksum so that the reads cannot be optimized away
+    _checksum = checksum;
+    return size;
+  }
+
+  /**
+   * Reads a byte with an int index when possible, as not all buffer implementations support long indexes.
+   */
+  private static byte getByte(PinotDataBuffer buffer, long offset) {
+    return offset <= Integer.MAX_VALUE ? buffer.getByte((int) offset) : buffer.getByte(offset);
+  }
+
+  private static synchronized ExecutorService getExecutorService(int numThreads) {
+    if (_executorService == null) {
+      _executorService = Executors.newFixedThreadPool(Math.max(1, numThreads),
+          new ThreadFactoryBuilder().setDaemon(true).setNameFormat("SegmentWarmer-%d").build());
+    }
+    return _executorService;
+  }
+
+  /**
+   * Returns the total number of bytes read to warm up segments in this instance.
+   */
+  public static long getTotalWarmupBytesRead() {
+    return TOTAL_WARMUP_BYTES_READ.get();
+  }
+
+  /**
+   * Returns the total time spent warming up segments in this instance, in milliseconds.
+   */
+  public static long getTotalWarmupTimeMs() {
+    return TOTAL_WARMUP_TIME_MS.get();
+  }
+}
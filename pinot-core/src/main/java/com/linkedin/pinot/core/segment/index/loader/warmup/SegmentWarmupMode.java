@@ -0,0 +1,32 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.core.segment.index.loader.warmup;
+
+/**
+ * Mode for {@link SegmentWarmer}.
+ * <ul>
+ *   <li>NONE: do not warm up segments</li>
+ *   <li>INDEX: warm up dictionaries and inverted indexes</li>
+ *   <li>ALL: warm up dictionaries, inverted indexes and forward indexes</li>
+ * </ul>
+ */
+public enum SegmentWarmupMode {
+  NONE,
+  INDEX,
+  ALL;
+
+  public static final SegmentWarmupMode DEFAULT_MODE = NONE;
+}
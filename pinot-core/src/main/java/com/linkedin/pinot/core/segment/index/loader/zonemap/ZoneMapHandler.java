@@ -0,0 +1,150 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.core.segment.index.loader.zonemap;
+
+import com.linkedin.pinot.core.indexsegment.generator.SegmentVersion;
+import com.linkedin.pinot.core.io.reader.DataFileReader;
+import com.linkedin.pinot.core.io.reader.SingleColumnMultiValueReader;
+import com.linkedin.pinot.core.io.reader.impl.v1.FixedBitMultiValueReader;
+import com.linkedin.pinot.core.io.reader.impl.v1.FixedBitSingleValueReader;
+import com.linkedin.pinot.core.segment.creator.impl.V1Constants;
+import com.linkedin.pinot.core.segment.creator.impl.zonemap.ZoneMapCreator;
+import com.linkedin.pinot.core.segment.index.ColumnMetadata;
+import com.linkedin.pinot.core.segment.index.SegmentMetadataImpl;
+import com.linkedin.pinot.core.segment.index.loader.IndexLoadingConfig;
+import com.linkedin.pinot.core.segment.index.loader.LoaderUtils;
+import com.linkedin.pinot.core.segment.memory.PinotDataBuffer;
+import com.linkedin.pinot.core.segment.store.ColumnIndexType;
+import com.linkedin.pinot.core.segment.store.SegmentDirectory;
+import java.io.File;
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.Set;
+import org.apache.commons.io.FileUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * Creates the missing zone maps of the columns configured in the index loading config from their forward indexes.
+ */
+public class ZoneMapHandler {
+  private static final Logger LOGGER = LoggerFactory.getLogger(ZoneMapHandler.class);
+
+  private final File _indexDir;
+  private final SegmentMetadataImpl _segmentMetadata;
+  private final String _segmentName;
+  private final SegmentVersion _segmentVersion;
+  private final IndexLoadingConfig _indexLoadingConfig;
+  private final SegmentDirectory.Writer _segmentWriter;
+
+  public ZoneMapHandler(File indexDir, SegmentMetadataImpl segmentMetadata, IndexLoadingConfig indexLoadingConfig,
+      SegmentDirectory.Writer segmentWriter) {
+    _indexDir = indexDir;
+    _segmentMetadata = segmentMetadata;
+    _segmentName = segmentMetadata.getName();
+    _segmentVersion = SegmentVersion.valueOf(segmentMetadata.getVersion());
+    _indexLoadingConfig = indexLoadingConfig;
+    _segmentWriter = segmentWriter;
+  }
+
+  public void createZoneMaps()
+      throws IOException {
+    for (String column : getZoneMapColumns()) {
+      createZoneMapForColumn(_segmentMetadata.getColumnMetadataFor(column));
+    }
+  }
+
+  private Set<String> getZoneMapColumns() {
+    Set<String> zoneMapColumns = new HashSet<>();
+    for (String column : _indexLoadingConfig.getZoneMapColumns()) {
+      ColumnMetadata columnMetadata = _segmentMetadata.getColumnMetadataFor(column);
+      // Zone maps store dictionary ids, and sorted and run length encoded columns are filtered through their runs
+      if (columnMetadata != null && columnMetadata.hasDictionary() && !(columnMetadata.isSorted()
+          && columnMetadata.isSingleValue()) && !columnMetadata.isRunLengthEncoded()) {
+        zoneMapColumns.add(column);
+      }
+    }
+    return zoneMapColumns;
+  }
+
+  private void createZoneMapForColumn(ColumnMetadata columnMetadata)
+      throws IOException {
+    String column = columnMetadata.getColumnName();
+    File inProgress = new File(_indexDir, column + ".zonemap.inprogress");
+    File zoneMapFile = new File(_indexDir, column + V1Constants.Indexes.ZONE_MAP_FILE_EXTENSION);
+
+    if (!inProgress.exists()) {
+      // Marker file does not exist, which means last run ended normally.
+      if (_segmentWriter.hasIndexFor(column, ColumnIndexType.ZONE_MAP)) {
+        // Skip creating zone map if already exists.
+        LOGGER.info("Found zone map for segment: {}, column: {}", _segmentName, column);
+        return;
+      }
+
+      // Create a marker file.
+      FileUtils.touch(inProgress);
+    } else {
+      // Marker file exists, which means last run gets interrupted.
+      // Remove zone map if exists.
+      // For v1 and v2, it's the actual zone map. For v3, it's the temporary zone map.
+      FileUtils.deleteQuietly(zoneMapFile);
+    }
+
+    // Create new zone map for the column.
+    LOGGER.info("Creating new zone map for segment: {}, column: {}", _segmentName, column);
+    int totalDocs = columnMetadata.getTotalDocs();
+    ZoneMapCreator creator = new ZoneMapCreator(_indexDir, column, totalDocs);
+    try (DataFileReader fwdIndex = getForwardIndexReader(columnMetadata)) {
+      if (columnMetadata.isSingleValue()) {
+        FixedBitSingleValueReader svFwdIndex = (FixedBitSingleValueReader) fwdIndex;
+        for (int i = 0; i < totalDocs; i++) {
+          creator.add(i, svFwdIndex.getInt(i));
+        }
+      } else {
+        SingleColumnMultiValueReader mvFwdIndex = (SingleColumnMultiValueReader) fwdIndex;
+        int[] dictIds = new int[columnMetadata.getMaxNumberOfMultiValues()];
+        for (int i = 0; i < totalDocs; i++) {
+          int length = mvFwdIndex.getIntArray(i, dictIds);
+          creator.add(i, dictIds, length);
+        }
+      }
+    }
+    creator.seal();
+
+    // For v3, write the generated zone map file into the single file and remove it.
+    if (_segmentVersion == SegmentVersion.v3) {
+      LoaderUtils.writeIndexToV3Format(_segmentWriter, column, zoneMapFile, ColumnIndexType.ZONE_MAP);
+    }
+
+    // Delete the marker file.
+    FileUtils.deleteQuietly(inProgress);
+
+    LOGGER.info("Created zone map for segment: {}, column: {}", _segmentName, column);
+  }
+
+  private DataFileReader getForwardIndexReader(ColumnMetadata columnMetadata)
+      throws IOException {
+    PinotDataBuffer buffer = _segmentWriter.getIndexFor(columnMetadata.getColumnName(), ColumnIndexType.FORWARD_INDEX);
+    if (columnMetadata.isSingleValue()) {
+      return new FixedBitSingleValueReader(buffer, columnMetadata.getTotalDocs(), columnMetadata.getBitsPerElement(),
+          columnMetadata.hasNulls());
+    } else {
+      return new FixedBitMultiValueReader(buffer, columnMetadata.getTotalDocs(),
+          columnMetadata.getTotalNumberOfEntries(), columnMetadata.getBitsPerElement(), false);
+    }
+  }
+}
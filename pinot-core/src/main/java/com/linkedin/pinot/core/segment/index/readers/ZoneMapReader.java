@@ -0,0 +1,82 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.core.segment.index.readers;
+
+import com.linkedin.pinot.core.segment.memory.PinotDataBuffer;
+import java.util.Arrays;
+
+
+/**
+ * Reader for the zone map of a dictionary encoded column (min and max dictionary id of every block of documents).
+ * The zone map is small (8 bytes per block), so it is read on heap.
+ *
+ * @see com.linkedin.pinot.core.segment.creator.impl.zonemap.ZoneMapCreator for the file format
+ */
+public class ZoneMapReader {
+  private static final int INT_SIZE = Integer.SIZE / Byte.SIZE;
+
+  private final int _numDocsPerBlock;
+  private final int[] _minDictIds;
+  private final int[] _maxDictIds;
+
+  public ZoneMapReader(PinotDataBuffer dataBuffer) {
+    _numDocsPerBlock = dataBuffer.getInt(0);
+    int numBlocks = dataBuffer.getInt(INT_SIZE);
+    _minDictIds = new int[numBlocks];
+    _maxDictIds = new int[numBlocks];
+    int offset = 2 * INT_SIZE;
+    for (int i = 0; i < numBlocks; i++) {
+      _minDictIds[i] = dataBuffer.getInt(offset);
+      _maxDictIds[i] = dataBuffer.getInt(offset + INT_SIZE);
+      offset += 2 * INT_SIZE;
+    }
+  }
+
+  public int getNumDocsPerBlock() {
+    return _numDocsPerBlock;
+  }
+
+  public int getNumBlocks() {
+    return _minDictIds.length;
+  }
+
+  public int getMinDictId(int blockId) {
+    return _minDictIds[blockId];
+  }
+
+  public int getMaxDictId(int blockId) {
+    return _maxDictIds[blockId];
+  }
+
+  /**
+   * Returns for each block whether it may contain one of the given dictionary ids.
+   *
+   * @param sortedDictIds matching dictionary ids, sorted in ascending order.
+   */
+  public boolean[] getMatchingBlocks(int[] sortedDictIds) {
+    int numBlocks = _minDictIds.length;
+    boolean[] matchingBlocks = new boolean[numBlocks];
+    for (int i = 0; i < numBlocks; i++) {
+      int index = Arrays.binarySearch(sortedDictIds, _minDictIds[i]);
+      if (index < 0) {
+        // First dictionary id larger than the min dictionary id of the block
+        index = -index - 1;
+      }
+      matchingBlocks[i] = index < sortedDictIds.length && sortedDictIds[index] <= _maxDictIds[i];
+    }
+    return matchingBlocks;
+  }
+}
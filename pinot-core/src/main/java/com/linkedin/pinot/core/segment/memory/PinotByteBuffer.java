@@ -270,6 +270,52 @@ public class PinotByteBuffer extends PinotDataBuffer {
     throw new UnsupportedOperationException("Long index is not supported");
   }
 
+  @Override
+  public void getInts(long index, int[] dest, int destOffset, int length) {
+    duplicateAt(index).asIntBuffer().get(dest, destOffset, length);
+  }
+
+  @Override
+  public void putInts(long index, int[] src, int srcOffset, int length) {
+    duplicateAt(index).asIntBuffer().put(src, srcOffset, length);
+  }
+
+  @Override
+  public void getLongs(long index, long[] dest, int destOffset, int length) {
+    duplicateAt(index).asLongBuffer().get(dest, destOffset, length);
+  }
+
+  @Override
+  public void putLongs(long index, long[] src, int srcOffset, int length) {
+    duplicateAt(index).asLongBuffer().put(src, srcOffset, length);
+  }
+
+  @Override
+  public void getFloats(long index, float[] dest, int destOffset, int length) {
+    duplicateAt(index).asFloatBuffer().get(dest, destOffset, length);
+  }
+
+  @Override
+  public void putFloats(long index, float[] src, int srcOffset, int length) {
+    duplicateAt(index).asFloatBuffer().put(src, srcOffset, length);
+  }
+
+  @Override
+  public void getDoubles(long index, double[] dest, int destOffset, int length) {
+    duplicateAt(index).asDoubleBuffer().get(dest, destOffset, length);
+  }
+
+  @Override
+  public void putDoubles(long index, double[] src, int srcOffset, int length) {
+    duplicateAt(index).asDoubleBuffer().put(src, srcOffset, length);
+  }
+
+  private ByteBuffer duplicateAt(long index) {
+    ByteBuffer dup = buffer.duplicate();
+    dup.position((int) index);
+    return dup;
+  }
+
   @Override
   public PinotDataBuffer view(long start, long end) {
     Preconditions.checkArgument(start >= 0 && start <= buffer.limit(),
@@ -45,7 +45,18 @@ import java.nio.channels.FileChannel;
 public abstract class PinotDataBuffer implements AutoCloseable {
 
   private static boolean USE_LBUFFER = false;
+  private static volatile boolean USE_UNSAFE_BUFFER = false;
   protected boolean owner;
+
+  /**
+   * Switches the buffers created by the factory methods to {@link PinotUnsafeBuffer}. Only affects the buffers
+   * created after the call.
+   * @param useUnsafeBuffer true to use {@link PinotUnsafeBuffer}
+   */
+  public static void setUseUnsafeBuffer(boolean useUnsafeBuffer) {
+    USE_UNSAFE_BUFFER = useUnsafeBuffer;
+  }
+
   /**
    * Fully load the file in to the in-memory buffer
    * @param file file containing index data
@@ -87,7 +98,9 @@ public abstract class PinotDataBuffer implements AutoCloseable {
   private static PinotDataBuffer mapFromFile(File file, long startPosition, long length, FileChannel.MapMode openMode,
       String context)
       throws IOException {
-    if (USE_LBUFFER) {
+    if (USE_UNSAFE_BUFFER) {
+      return PinotUnsafeBuffer.mapFromFile(file, startPosition, length, openMode, context);
+    } else if (USE_LBUFFER) {
       return PinotLByteBuffer.mapFromFile(file, startPosition, length, openMode, context);
     } else {
       return PinotByteBuffer.mapFromFile(file, startPosition, length, openMode, context);
@@ -96,7 +109,9 @@ public abstract class PinotDataBuffer implements AutoCloseable {
 
   private static PinotDataBuffer loadFromFile(File file, long startPosition, long length, String context)
       throws IOException {
-    if (USE_LBUFFER) {
+    if (USE_UNSAFE_BUFFER) {
+      return PinotUnsafeBuffer.loadFromFile(file, startPosition, length, context);
+    } else if (USE_LBUFFER) {
       return PinotLByteBuffer.loadFromFile(file, startPosition, length, context);
     } else {
       return PinotByteBuffer.loadFromFile(file, startPosition, length, context);
@@ -104,7 +119,9 @@ public abstract class PinotDataBuffer implements AutoCloseable {
   }
 
   public static PinotDataBuffer allocateDirect(long size) {
-    if (USE_LBUFFER) {
+    if (USE_UNSAFE_BUFFER) {
+      return PinotUnsafeBuffer.allocateDirect(size);
+    } else if (USE_LBUFFER) {
       return PinotLByteBuffer.allocateDirect(size);
     } else {
       // TODO: provide proper context
@@ -190,6 +207,79 @@ public abstract class PinotDataBuffer implements AutoCloseable {
 
   public abstract void putChar(int index, char value);
 
+  /**
+   * Bulk read of <code>length</code> ints starting at byte position <code>index</code> into <code>dest</code>.
+   * Implementations should override this with a batched copy where possible.
+   */
+  public void getInts(long index, int[] dest, int destOffset, int length) {
+    for (int i = 0; i < length; i++) {
+      dest[destOffset + i] = getInt(index + ((long) i << 2));
+    }
+  }
+
+  /**
+   * Bulk write of <code>length</code> ints from <code>src</code> starting at byte position <code>index</code>.
+   */
+  public void putInts(long index, int[] src, int srcOffset, int length) {
+    for (int i = 0; i < length; i++) {
+      putInt(index + ((long) i << 2), src[srcOffset + i]);
+    }
+  }
+
+  /**
+   * Bulk read of <code>length</code> longs starting at byte position <code>index</code> into <code>dest</code>.
+   */
+  public void getLongs(long index, long[] dest, int destOffset, int length) {
+    for (int i = 0; i < length; i++) {
+      dest[destOffset + i] = getLong(index + ((long) i << 3));
+    }
+  }
+
+  /**
+   * Bulk write of <code>length</code> longs from <code>src</code> starting at byte position <code>index</code>.
+   */
+  public void putLongs(long index, long[] src, int srcOffset, int length) {
+    for (int i = 0; i < length; i++) {
+      putLong(index + ((long) i << 3), src[srcOffset + i]);
+    }
+  }
+
+  /**
+   * Bulk read of <code>length</code> floats starting at byte position <code>index</code> into <code>dest</code>.
+   */
+  public void getFloats(long index, float[] dest, int destOffset, int length) {
+    for (int i = 0; i < length; i++) {
+      dest[destOffset + i] = getFloat(index + ((long) i << 2));
+    }
+  }
+
+  /**
+   * Bulk write of <code>length</code> floats from <code>src</code> starting at byte position <code>index</code>.
+   */
+  public void putFloats(long index, float[] src, int srcOffset, int length) {
+    for (int i = 0; i < length; i++) {
+      putFloat(index + ((long) i << 2), src[srcOffset + i]);
+    }
+  }
+
+  /**
+   * Bulk read of <code>length</code> doubles starting at byte position <code>index</code> into <code>dest</code>.
+   */
+  public void getDoubles(long index, double[] dest, int destOffset, int length) {
+    for (int i = 0; i < length; i++) {
+      dest[destOffset + i] = getDouble(index + ((long) i << 3));
+    }
+  }
+
+  /**
+   * Bulk write of <code>length</code> doubles from <code>src</code> starting at byte position <code>index</code>.
+   */
+  public void putDoubles(long index, double[] src, int srcOffset, int length) {
+    for (int i = 0; i < length; i++) {
+      putDouble(index + ((long) i << 3), src[srcOffset + i]);
+    }
+  }
+
   /**
    * creates a view on a slice of buffer with range [0, (end-start) ) mapped
    * to [start, end) of the original buffer. New buffer will share the same
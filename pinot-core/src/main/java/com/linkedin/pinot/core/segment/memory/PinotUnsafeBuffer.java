@@ -0,0 +1,475 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.core.segment.memory;
+
+import com.google.common.base.Preconditions;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import sun.misc.Unsafe;
+import xerial.larray.buffer.LBuffer;
+import xerial.larray.buffer.LBufferAPI;
+import xerial.larray.buffer.UnsafeUtil;
+import xerial.larray.mmap.MMapBuffer;
+import xerial.larray.mmap.MMapMode;
+
+
+/**
+ * {@link PinotDataBuffer} backed by a single native memory address, accessed through <code>sun.misc.Unsafe</code>.
+ *
+ * Unlike {@link PinotByteBuffer}, there is no 2GB limit and no bounds checking. Unlike {@link PinotLByteBuffer},
+ * accesses are a single memory read without any extra indirection, and values are read and written in BIG_ENDIAN
+ * order so the buffer is compatible with the files written by the segment creators (and with
+ * {@link PinotByteBuffer}).
+ *
+ * The bulk methods copy directly between native memory and java arrays, and only swap the bytes in the destination
+ * array when the native byte order is LITTLE_ENDIAN.
+ *
+ * <b>NOTE:</b> All the accesses to this buffer are unchecked. Accessing an index beyond the size of the buffer may
+ * crash the JVM.
+ */
+public class PinotUnsafeBuffer extends PinotDataBuffer {
+  private static final Unsafe UNSAFE = UnsafeUtil.unsafe;
+  private static final boolean NATIVE_ORDER_IS_BIG_ENDIAN = ByteOrder.nativeOrder() == ByteOrder.BIG_ENDIAN;
+
+  private static final long BYTE_ARRAY_OFFSET = UNSAFE.arrayBaseOffset(byte[].class);
+  private static final long INT_ARRAY_OFFSET = UNSAFE.arrayBaseOffset(int[].class);
+  private static final long LONG_ARRAY_OFFSET = UNSAFE.arrayBaseOffset(long[].class);
+  private static final long FLOAT_ARRAY_OFFSET = UNSAFE.arrayBaseOffset(float[].class);
+  private static final long DOUBLE_ARRAY_OFFSET = UNSAFE.arrayBaseOffset(double[].class);
+
+  // Limit the size of a single copy so that the JVM can reach a safepoint between copies (same as java.nio.Bits)
+  private static final long UNSAFE_COPY_THRESHOLD = 1024L * 1024L;
+
+  // Size of the reads when loading a file into memory
+  private static final int FILE_READ_SIZE = 10 * 1024 * 1024;
+
+  // Keeps the underlying memory (mmapped or allocated) reachable, null for empty buffers
+  private LBufferAPI buffer;
+  private final long address;
+  private final long size;
+
+  static PinotUnsafeBuffer mapFromFile(File file, long start, long length, FileChannel.MapMode openMode,
+      String context)
+      throws IOException {
+    Preconditions.checkNotNull(file);
+    Preconditions.checkArgument(start >= 0);
+    Preconditions.checkArgument(length >= 0);
+    Preconditions.checkNotNull(context);
+
+    if (openMode == FileChannel.MapMode.READ_ONLY) {
+      if (!file.exists()) {
+        throw new IllegalArgumentException("File: " + file + " must exist to open in read-only mode");
+      }
+      if (length > (file.length() - start)) {
+        throw new IllegalArgumentException(
+            String.format("Mapping limits exceed file size, start: %d, length: %d, file size: %d", start, length,
+                file.length()));
+      }
+    }
+
+    if (length == 0) {
+      return new PinotUnsafeBuffer(null, 0L, 0L, true);
+    }
+    MMapMode mmapMode = (openMode == FileChannel.MapMode.READ_ONLY) ? MMapMode.READ_ONLY : MMapMode.READ_WRITE;
+    MMapBuffer mmapBuffer = new MMapBuffer(file, start, length, mmapMode);
+    return new PinotUnsafeBuffer(mmapBuffer, mmapBuffer.address(), length, true);
+  }
+
+  static PinotUnsafeBuffer loadFromFile(File file, long startPosition, long length, String context)
+      throws IOException {
+    Preconditions.checkNotNull(file);
+    Preconditions.checkArgument(startPosition >= 0);
+    Preconditions.checkArgument(length >= 0);
+    Preconditions.checkNotNull(context);
+    Preconditions.checkState(file.exists(), "File: %s does not exist", file);
+    Preconditions.checkState(file.isFile(), "File: %s is not a regular file", file);
+
+    PinotUnsafeBuffer buffer = allocateDirect(length);
+    buffer.readFrom(file, startPosition, length);
+    return buffer;
+  }
+
+  public static PinotUnsafeBuffer allocateDirect(long size) {
+    Preconditions.checkArgument(size >= 0);
+    if (size == 0) {
+      return new PinotUnsafeBuffer(null, 0L, 0L, true);
+    }
+    LBuffer lBuffer = new LBuffer(size);
+    return new PinotUnsafeBuffer(lBuffer, lBuffer.address(), size, true);
+  }
+
+  private PinotUnsafeBuffer(LBufferAPI buffer, long address, long size, boolean owner) {
+    this.buffer = buffer;
+    this.address = address;
+    this.size = size;
+    this.owner = owner;
+  }
+
+  @Override
+  public PinotDataBuffer duplicate() {
+    return new PinotUnsafeBuffer(buffer, address, size, false);
+  }
+
+  @Override
+  public void close() {
+    if (!owner || buffer == null) {
+      return;
+    }
+    if (buffer instanceof MMapBuffer) {
+      ((MMapBuffer) buffer).flush();
+    }
+    buffer.release();
+    buffer = null;
+  }
+
+  @Override
+  public byte getByte(long index) {
+    return UNSAFE.getByte(address + index);
+  }
+
+  @Override
+  public byte getByte(int index) {
+    return UNSAFE.getByte(address + index);
+  }
+
+  @Override
+  public void putByte(long index, byte val) {
+    UNSAFE.putByte(address + index, val);
+  }
+
+  @Override
+  public void putByte(int index, byte value) {
+    UNSAFE.putByte(address + index, value);
+  }
+
+  @Override
+  public char getChar(long index) {
+    char value = UNSAFE.getChar(address + index);
+    return NATIVE_ORDER_IS_BIG_ENDIAN ? value : Character.reverseBytes(value);
+  }
+
+  @Override
+  public char getChar(int index) {
+    return getChar((long) index);
+  }
+
+  @Override
+  public void putChar(long index, char c) {
+    UNSAFE.putChar(address + index, NATIVE_ORDER_IS_BIG_ENDIAN ? c : Character.reverseBytes(c));
+  }
+
+  @Override
+  public void putChar(int index, char value) {
+    putChar((long) index, value);
+  }
+
+  @Override
+  public short getShort(long index) {
+    short value = UNSAFE.getShort(address + index);
+    return NATIVE_ORDER_IS_BIG_ENDIAN ? value : Short.reverseBytes(value);
+  }
+
+  @Override
+  public short getShort(int index) {
+    return getShort((long) index);
+  }
+
+  @Override
+  public void putShort(long index, short value) {
+    UNSAFE.putShort(address + index, NATIVE_ORDER_IS_BIG_ENDIAN ? value : Short.reverseBytes(value));
+  }
+
+  @Override
+  public void putShort(int index, short value) {
+    putShort((long) index, value);
+  }
+
+  @Override
+  public int getInt(long index) {
+    int value = UNSAFE.getInt(address + index);
+    return NATIVE_ORDER_IS_BIG_ENDIAN ? value : Integer.reverseBytes(value);
+  }
+
+  @Override
+  public int getInt(int index) {
+    return getInt((long) index);
+  }
+
+  @Override
+  public void putInt(long index, int value) {
+    UNSAFE.putInt(address + index, NATIVE_ORDER_IS_BIG_ENDIAN ? value : Integer.reverseBytes(value));
+  }
+
+  @Override
+  public void putInt(int index, int value) {
+    putInt((long) index, value);
+  }
+
+  @Override
+  public long getLong(long index) {
+    long value = UNSAFE.getLong(address + index);
+    return NATIVE_ORDER_IS_BIG_ENDIAN ? value : Long.reverseBytes(value);
+  }
+
+  @Override
+  public long getLong(int index) {
+    return getLong((long) index);
+  }
+
+  @Override
+  public void putLong(long index, long l1) {
+    UNSAFE.putLong(address + index, NATIVE_ORDER_IS_BIG_ENDIAN ? l1 : Long.reverseBytes(l1));
+  }
+
+  @Override
+  public void putLong(int index, long value) {
+    putLong((long) index, value);
+  }
+
+  @Override
+  public float getFloat(long index) {
+    return Float.intBitsToFloat(getInt(index));
+  }
+
+  @Override
+  public float getFloat(int index) {
+    return Float.intBitsToFloat(getInt((long) index));
+  }
+
+  @Override
+  public void putFloat(long index, float v) {
+    putInt(index, Float.floatToRawIntBits(v));
+  }
+
+  @Override
+  public void putFloat(int index, float value) {
+    putInt((long) index, Float.floatToRawIntBits(value));
+  }
+
+  @Override
+  public double getDouble(long l) {
+    return Double.longBitsToDouble(getLong(l));
+  }
+
+  @Override
+  public double getDouble(int index) {
+    return Double.longBitsToDouble(getLong((long) index));
+  }
+
+  @Override
+  public void putDouble(long index, double value) {
+    putLong(index, Double.doubleToRawLongBits(value));
+  }
+
+  @Override
+  public void putDouble(int index, double value) {
+    putLong((long) index, Double.doubleToRawLongBits(value));
+  }
+
+  @Override
+  public void getInts(long index, int[] dest, int destOffset, int length) {
+    copyToArray(address + index, dest, INT_ARRAY_OFFSET + ((long) destOffset << 2), (long) length << 2);
+    if (!NATIVE_ORDER_IS_BIG_ENDIAN) {
+      int end = destOffset + length;
+      for (int i = destOffset; i < end; i++) {
+        dest[i] = Integer.reverseBytes(dest[i]);
+      }
+    }
+  }
+
+  @Override
+  public void putInts(long index, int[] src, int srcOffset, int length) {
+    if (NATIVE_ORDER_IS_BIG_ENDIAN) {
+      copyFromArray(src, INT_ARRAY_OFFSET + ((long) srcOffset << 2), address + index, (long) length << 2);
+    } else {
+      for (int i = 0; i < length; i++) {
+        UNSAFE.putInt(address + index + ((long) i << 2), Integer.reverseBytes(src[srcOffset + i]));
+      }
+    }
+  }
+
+  @Override
+  public void getLongs(long index, long[] dest, int destOffset, int length) {
+    copyToArray(address + index, dest, LONG_ARRAY_OFFSET + ((long) destOffset << 3), (long) length << 3);
+    if (!NATIVE_ORDER_IS_BIG_ENDIAN) {
+      int end = destOffset + length;
+      for (int i = destOffset; i < end; i++) {
+        dest[i] = Long.reverseBytes(dest[i]);
+      }
+    }
+  }
+
+  @Override
+  public void putLongs(long index, long[] src, int srcOffset, int length) {
+    if (NATIVE_ORDER_IS_BIG_ENDIAN) {
+      copyFromArray(src, LONG_ARRAY_OFFSET + ((long) srcOffset << 3), address + index, (long) length << 3);
+    } else {
+      for (int i = 0; i < length; i++) {
+        UNSAFE.putLong(address + index + ((long) i << 3), Long.reverseBytes(src[srcOffset + i]));
+      }
+    }
+  }
+
+  @Override
+  public void getFloats(long index, float[] dest, int destOffset, int length) {
+    if (NATIVE_ORDER_IS_BIG_ENDIAN) {
+      copyToArray(address + index, dest, FLOAT_ARRAY_OFFSET + ((long) destOffset << 2), (long) length << 2);
+    } else {
+      for (int i = 0; i < length; i++) {
+        dest[destOffset + i] = getFloat(index + ((long) i << 2));
+      }
+    }
+  }
+
+  @Override
+  public void putFloats(long index, float[] src, int srcOffset, int length) {
+    if (NATIVE_ORDER_IS_BIG_ENDIAN) {
+      copyFromArray(src, FLOAT_ARRAY_OFFSET + ((long) srcOffset << 2), address + index, (long) length << 2);
+    } else {
+      for (int i = 0; i < length; i++) {
+        putFloat(index + ((long) i << 2), src[srcOffset + i]);
+      }
+    }
+  }
+
+  @Override
+  public void getDoubles(long index, double[] dest, int destOffset, int length) {
+    if (NATIVE_ORDER_IS_BIG_ENDIAN) {
+      copyToArray(address + index, dest, DOUBLE_ARRAY_OFFSET + ((long) destOffset << 3), (long) length << 3);
+    } else {
+      for (int i = 0; i < length; i++) {
+        dest[destOffset + i] = getDouble(index + ((long) i << 3));
+      }
+    }
+  }
+
+  @Override
+  public void putDoubles(long index, double[] src, int srcOffset, int length) {
+    if (NATIVE_ORDER_IS_BIG_ENDIAN) {
+      copyFromArray(src, DOUBLE_ARRAY_OFFSET + ((long) srcOffset << 3), address + index, (long) length << 3);
+    } else {
+      for (int i = 0; i < length; i++) {
+        putDouble(index + ((long) i << 3), src[srcOffset + i]);
+      }
+    }
+  }
+
+  @Override
+  public PinotDataBuffer view(long start, long end) {
+    Preconditions.checkArgument(start >= 0 && start <= size,
+        "View start position is not valid, start: %s, end: %s, buffer size: %s", start, end, size);
+    Preconditions.checkArgument(end >= start && end <= size,
+        "View end position is not valid, start: %s, end: %s, buffer size: %s", start, end, size);
+    return new PinotUnsafeBuffer(buffer, address + start, end - start, false);
+  }
+
+  @Override
+  public void copyTo(long srcOffset, byte[] destArray, int destOffset, int size) {
+    Preconditions.checkArgument(destOffset >= 0 && destOffset + size <= destArray.length);
+    copyToArray(address + srcOffset, destArray, BYTE_ARRAY_OFFSET + destOffset, size);
+  }
+
+  @Override
+  public int readFrom(byte[] src, long destOffset) {
+    return readFrom(src, 0, destOffset, src.length);
+  }
+
+  @Override
+  public int readFrom(byte[] src, int srcOffset, long destOffset, int length) {
+    Preconditions.checkArgument(srcOffset >= 0 && srcOffset + length <= src.length);
+    copyFromArray(src, BYTE_ARRAY_OFFSET + srcOffset, address + destOffset, length);
+    return length;
+  }
+
+  @Override
+  public int readFrom(ByteBuffer sourceBuffer, int srcOffset, long destOffset, int length) {
+    ByteBuffer srcDup = sourceBuffer.duplicate();
+    srcDup.position(srcOffset);
+    srcDup.limit(srcOffset + length);
+    toDirectByteBuffer(destOffset, length).put(srcDup);
+    return length;
+  }
+
+  @Override
+  public void readFrom(File dataFile)
+      throws IOException {
+    readFrom(dataFile, 0, dataFile.length());
+  }
+
+  @Override
+  protected void readFrom(File file, long startPosition, long length)
+      throws IOException {
+    try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+      FileChannel channel = raf.getChannel();
+      long bufferPosition = 0;
+      while (bufferPosition < length) {
+        int readSize = (int) Math.min(FILE_READ_SIZE, length - bufferPosition);
+        ByteBuffer destBuffer = toDirectByteBuffer(bufferPosition, readSize);
+        while (destBuffer.hasRemaining()) {
+          int bytesRead = channel.read(destBuffer, startPosition + bufferPosition + destBuffer.position());
+          if (bytesRead < 0) {
+            throw new IOException("Reached end of file: " + file + " before reading " + length + " bytes");
+          }
+        }
+        bufferPosition += readSize;
+      }
+    }
+  }
+
+  @Override
+  public long size() {
+    return size;
+  }
+
+  @Override
+  public long address() {
+    return address;
+  }
+
+  @Override
+  public ByteBuffer toDirectByteBuffer(long bufferOffset, int size) {
+    return UnsafeUtil.newDirectByteBuffer(address + bufferOffset, size).order(ByteOrder.BIG_ENDIAN);
+  }
+
+  @Override
+  protected long start() {
+    return 0;
+  }
+
+  private static void copyToArray(long srcAddress, Object dest, long destOffset, long length) {
+    while (length > 0) {
+      long copySize = Math.min(length, UNSAFE_COPY_THRESHOLD);
+      UNSAFE.copyMemory(null, srcAddress, dest, destOffset, copySize);
+      length -= copySize;
+      srcAddress += copySize;
+      destOffset += copySize;
+    }
+  }
+
+  private static void copyFromArray(Object src, long srcOffset, long destAddress, long length) {
+    while (length > 0) {
+      long copySize = Math.min(length, UNSAFE_COPY_THRESHOLD);
+      UNSAFE.copyMemory(src, srcOffset, null, destAddress, copySize);
+      length -= copySize;
+      srcOffset += copySize;
+      destAddress += copySize;
+    }
+  }
+}
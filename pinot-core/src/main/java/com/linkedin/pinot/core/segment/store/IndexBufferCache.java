@@ -0,0 +1,231 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.core.segment.store;
+
+import com.google.common.base.Preconditions;
+import com.linkedin.pinot.common.metrics.ServerMeter;
+import com.linkedin.pinot.common.metrics.ServerMetrics;
+import com.linkedin.pinot.common.metrics.ServerTimer;
+import com.linkedin.pinot.common.segment.ReadMode;
+import com.linkedin.pinot.core.segment.memory.PinotDataBuffer;
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.annotation.Nullable;
+import org.apache.commons.io.FileUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * Bounded local disk cache of index buffers fetched from the {@link SegmentDeepStore}.
+ * <p>Each cached entry is a byte range of a file in the deep store (typically the indexes of one column of a v3
+ * segment), stored as a separate local file. Entries are reference counted: each buffer handed out by {@link
+ * #getBuffer} pins its entry until it is given back through {@link #releaseBuffer}. When the total size of the local
+ * files goes over the limit, the least recently used unpinned entries are evicted and their local files deleted.
+ * Pinned entries are never evicted, so the cache may stay over its limit while the segments using them are loaded.
+ */
+public class IndexBufferCache {
+  private static final Logger LOGGER = LoggerFactory.getLogger(IndexBufferCache.class);
+  private static final String CACHED_FILE_SUFFIX = ".buf";
+
+  private static volatile IndexBufferCache _instance;
+
+  private final File _cacheDir;
+  private final long _maxSizeBytes;
+  private final ServerMetrics _serverMetrics;
+  // Access ordered, so that the eldest entry is the least recently used one
+  private final LinkedHashMap<String, CacheEntry> _cacheEntries = new LinkedHashMap<>(16, 0.75f, true);
+  private final AtomicLong _nextFileId = new AtomicLong();
+  private final AtomicLong _numHits = new AtomicLong();
+  private final AtomicLong _numMisses = new AtomicLong();
+  // Total size of the local files of the cache entries
+  private long _cachedSizeBytes;
+
+  /**
+   * Creates the cache used by all the remote segments of this process. Any content left in the cache directory by a
+   * previous process is deleted.
+   *
+   * @param cacheDir local directory holding the cached index buffers
+   * @param maxSizeBytes max total size of the cached index buffers
+   * @param serverMetrics server metrics to report cache hits, misses and fetch latency to, can be null
+   */
+  public static synchronized void init(File cacheDir, long maxSizeBytes, @Nullable ServerMetrics serverMetrics)
+      throws IOException {
+    _instance = new IndexBufferCache(cacheDir, maxSizeBytes, serverMetrics);
+  }
+
+  public static IndexBufferCache getInstance() {
+    IndexBufferCache instance = _instance;
+    Preconditions.checkState(instance != null, "Index buffer cache is not initialized");
+    return instance;
+  }
+
+  IndexBufferCache(File cacheDir, long maxSizeBytes, @Nullable ServerMetrics serverMetrics)
+      throws IOException {
+    Preconditions.checkArgument(maxSizeBytes > 0, "Invalid max size: %s for index buffer cache", maxSizeBytes);
+    if (cacheDir.exists()) {
+      FileUtils.cleanDirectory(cacheDir);
+    } else {
+      FileUtils.forceMkdir(cacheDir);
+    }
+    _cacheDir = cacheDir;
+    _maxSizeBytes = maxSizeBytes;
+    _serverMetrics = serverMetrics;
+    LOGGER.info("Initialized index buffer cache in: {} with max size: {} bytes", cacheDir, maxSizeBytes);
+  }
+
+  /**
+   * Returns a buffer over <code>length</code> bytes of the deep store file with the given URI starting at
+   * <code>offset</code>, fetching the range into the cache if it is not cached yet.
+   * <p>The caller owns the returned buffer: it must close it, then call {@link #releaseBuffer} with the same range so
+   * that the local file can be evicted.
+   */
+  public PinotDataBuffer getBuffer(String uri, long offset, long length, ReadMode readMode, String context)
+      throws IOException {
+    String key = getKey(uri, offset, length);
+    synchronized (this) {
+      CacheEntry cacheEntry = _cacheEntries.get(key);
+      if (cacheEntry != null) {
+        _numHits.incrementAndGet();
+        addMeteredValue(ServerMeter.INDEX_BUFFER_CACHE_HITS);
+        return acquire(cacheEntry, length, readMode, context);
+      }
+    }
+
+    // Fetch outside of the lock so that cached buffers can be served while fetching
+    _numMisses.incrementAndGet();
+    addMeteredValue(ServerMeter.INDEX_BUFFER_CACHE_MISSES);
+    File fetchedFile = new File(_cacheDir, _nextFileId.getAndIncrement() + CACHED_FILE_SUFFIX);
+    long startTime = System.currentTimeMillis();
+    try {
+      SegmentDeepStoreFactory.getDeepStoreBasedOnURI(uri).copyToLocal(uri, offset, length, fetchedFile);
+    } catch (IOException | RuntimeException e) {
+      FileUtils.deleteQuietly(fetchedFile);
+      addMeteredValue(ServerMeter.INDEX_BUFFER_FETCH_EXCEPTIONS);
+      throw e;
+    }
+    long fetchTimeMs = System.currentTimeMillis() - startTime;
+    if (_serverMetrics != null) {
+      _serverMetrics.addTimedValue(ServerTimer.INDEX_BUFFER_FETCH_LATENCY, fetchTimeMs, TimeUnit.MILLISECONDS);
+    }
+    LOGGER.debug("Fetched {} bytes at offset: {} of {} in {}ms", length, offset, uri, fetchTimeMs);
+
+    synchronized (this) {
+      CacheEntry cacheEntry = _cacheEntries.get(key);
+      if (cacheEntry != null) {
+        // Fetched concurrently by another thread
+        FileUtils.deleteQuietly(fetchedFile);
+      } else {
+        cacheEntry = new CacheEntry(fetchedFile);
+        _cacheEntries.put(key, cacheEntry);
+        _cachedSizeBytes += cacheEntry._sizeBytes;
+      }
+      PinotDataBuffer buffer = acquire(cacheEntry, length, readMode, context);
+      evictIfNeeded();
+      return buffer;
+    }
+  }
+
+  /**
+   * Gives back a buffer returned by {@link #getBuffer} once it is closed. The local file of the range can be evicted
+   * after all its buffers have been released.
+   */
+  public synchronized void releaseBuffer(String uri, long offset, long length) {
+    CacheEntry cacheEntry = _cacheEntries.get(getKey(uri, offset, length));
+    Preconditions.checkState(cacheEntry != null && cacheEntry._refCount > 0,
+        "Releasing index buffer at offset: %s of %s which is not in use", offset, uri);
+    cacheEntry._refCount--;
+    evictIfNeeded();
+  }
+
+  private PinotDataBuffer acquire(CacheEntry cacheEntry, long length, ReadMode readMode, String context)
+      throws IOException {
+    PinotDataBuffer buffer =
+        PinotDataBuffer.fromFile(cacheEntry._file, 0, length, readMode, FileChannel.MapMode.READ_ONLY, context);
+    cacheEntry._refCount++;
+    return buffer;
+  }
+
+  /**
+   * Evicts the least recently used unpinned entries until the local files fit in the max size of the cache.
+   */
+  private void evictIfNeeded() {
+    Iterator<CacheEntry> iterator = _cacheEntries.values().iterator();
+    while (_cachedSizeBytes > _maxSizeBytes && iterator.hasNext()) {
+      CacheEntry cacheEntry = iterator.next();
+      if (cacheEntry._refCount > 0) {
+        continue;
+      }
+      iterator.remove();
+      FileUtils.deleteQuietly(cacheEntry._file);
+      _cachedSizeBytes -= cacheEntry._sizeBytes;
+      addMeteredValue(ServerMeter.INDEX_BUFFER_CACHE_EVICTIONS);
+    }
+  }
+
+  private static String getKey(String uri, long offset, long length) {
+    return uri + "#" + offset + "#" + length;
+  }
+
+  private void addMeteredValue(ServerMeter meter) {
+    if (_serverMetrics != null) {
+      _serverMetrics.addMeteredGlobalValue(meter, 1L);
+    }
+  }
+
+  public long getNumHits() {
+    return _numHits.get();
+  }
+
+  public long getNumMisses() {
+    return _numMisses.get();
+  }
+
+  /**
+   * Returns the percentage of the requests served from the cache since it was created.
+   */
+  public long getHitRatePercent() {
+    long numHits = _numHits.get();
+    long numRequests = numHits + _numMisses.get();
+    return numRequests == 0 ? 0 : numHits * 100 / numRequests;
+  }
+
+  public synchronized long getCachedSizeBytes() {
+    return _cachedSizeBytes;
+  }
+
+  public synchronized int getNumCachedBuffers() {
+    return _cacheEntries.size();
+  }
+
+  private static class CacheEntry {
+    private final File _file;
+    // Actual size of the local file, which is what the cache limit is enforced against
+    private final long _sizeBytes;
+    // Number of buffers handed out and not released yet
+    private int _refCount;
+
+    CacheEntry(File file) {
+      _file = file;
+      _sizeBytes = file.length();
+    }
+  }
+}
@@ -0,0 +1,95 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.core.segment.store;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.net.URI;
+import java.nio.channels.FileChannel;
+import java.util.Map;
+import org.apache.commons.io.FileUtils;
+
+
+/**
+ * {@link SegmentDeepStore} backed by a local (or locally mounted) file system, addressed with <code>file:</code> URIs.
+ */
+public class LocalFSSegmentDeepStore implements SegmentDeepStore {
+
+  @Override
+  public void init(Map<String, String> configs) {
+  }
+
+  @Override
+  public boolean exists(String uri) {
+    return toFile(uri).exists();
+  }
+
+  @Override
+  public String[] listFiles(String uri)
+      throws IOException {
+    File[] files = toFile(uri).listFiles();
+    if (files == null) {
+      throw new FileNotFoundException("Not a directory: " + uri);
+    }
+    String[] uris = new String[files.length];
+    for (int i = 0; i < files.length; i++) {
+      uris[i] = files[i].toURI().toString();
+    }
+    return uris;
+  }
+
+  @Override
+  public long getLength(String uri)
+      throws IOException {
+    File file = toFile(uri);
+    if (!file.isFile()) {
+      throw new FileNotFoundException("File not found: " + uri);
+    }
+    return file.length();
+  }
+
+  @Override
+  public void copyToLocal(String uri, File dest)
+      throws IOException {
+    FileUtils.copyFile(toFile(uri), dest);
+  }
+
+  @Override
+  public void copyToLocal(String uri, long offset, long length, File dest)
+      throws IOException {
+    try (RandomAccessFile src = new RandomAccessFile(toFile(uri), "r");
+        RandomAccessFile dst = new RandomAccessFile(dest, "rw")) {
+      dst.setLength(0);
+      FileChannel srcChannel = src.getChannel();
+      FileChannel dstChannel = dst.getChannel();
+      long copied = 0;
+      while (copied < length) {
+        long transferred = srcChannel.transferTo(offset + copied, length - copied, dstChannel);
+        if (transferred <= 0) {
+          throw new IOException(
+              "Unexpected end of file: " + uri + " while copying range [" + offset + "," + (offset + length) + ")");
+        }
+        copied += transferred;
+      }
+    }
+  }
+
+  private static File toFile(String uri) {
+    return new File(URI.create(uri));
+  }
+}
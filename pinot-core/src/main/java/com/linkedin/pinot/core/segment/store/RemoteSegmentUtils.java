@@ -0,0 +1,82 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.core.segment.store;
+
+import java.io.File;
+import java.io.IOException;
+import org.apache.commons.io.FileUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * Utility methods for the segments of the cold tier, whose indexes stay in the {@link SegmentDeepStore} and are
+ * fetched on demand.
+ */
+public class RemoteSegmentUtils {
+  private static final Logger LOGGER = LoggerFactory.getLogger(RemoteSegmentUtils.class);
+
+  private RemoteSegmentUtils() {
+  }
+
+  /**
+   * Returns the URI of the v3 directory of the given segment under the given deep store root URI, or null if the deep
+   * store does not hold the segment in v3 format.
+   */
+  public static String getRemoteV3DirectoryUri(String rootUri, String tableName, String segmentName)
+      throws IOException {
+    String root = rootUri.endsWith("/") ? rootUri.substring(0, rootUri.length() - 1) : rootUri;
+    String v3DirUri = root + "/" + tableName + "/" + segmentName + "/" + SegmentDirectoryPaths.V3_SUBDIRECTORY_NAME;
+    SegmentDeepStore deepStore = SegmentDeepStoreFactory.getDeepStoreBasedOnURI(v3DirUri);
+    if (deepStore.exists(v3DirUri + "/" + SegmentDirectoryPaths.V3_INDEX_FILE_NAME)) {
+      return v3DirUri;
+    }
+    return null;
+  }
+
+  /**
+   * Creates a local segment directory for the v3 segment directory with the given deep store URI. All the files but
+   * the index file are copied locally, and the index file is referenced through its deep store URI.
+   *
+   * @param remoteV3DirUri deep store URI of the v3 segment directory
+   * @param indexDir local segment directory to create, any existing content is deleted
+   */
+  public static void linkRemoteSegment(String remoteV3DirUri, File indexDir)
+      throws IOException {
+    SegmentDeepStore deepStore = SegmentDeepStoreFactory.getDeepStoreBasedOnURI(remoteV3DirUri);
+    if (indexDir.exists()) {
+      FileUtils.deleteDirectory(indexDir);
+    }
+    File v3Dir = new File(indexDir, SegmentDirectoryPaths.V3_SUBDIRECTORY_NAME);
+    FileUtils.forceMkdir(v3Dir);
+
+    boolean foundIndexFile = false;
+    for (String fileUri : deepStore.listFiles(remoteV3DirUri)) {
+      String fileName = fileUri.substring(fileUri.lastIndexOf('/') + 1);
+      if (fileName.equals(SegmentDirectoryPaths.V3_INDEX_FILE_NAME)) {
+        FileUtils.writeStringToFile(new File(v3Dir, SegmentDirectoryPaths.REMOTE_INDEX_FILE_NAME), fileUri);
+        foundIndexFile = true;
+      } else {
+        deepStore.copyToLocal(fileUri, new File(v3Dir, fileName));
+      }
+    }
+    if (!foundIndexFile) {
+      FileUtils.deleteQuietly(indexDir);
+      throw new IOException("Index file not found in remote segment directory: " + remoteV3DirUri);
+    }
+    LOGGER.info("Linked remote segment directory: {} to: {}", remoteV3DirUri, indexDir);
+  }
+}
@@ -0,0 +1,158 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.core.segment.store;
+
+import com.linkedin.pinot.common.segment.ReadMode;
+import com.linkedin.pinot.core.segment.index.SegmentMetadataImpl;
+import com.linkedin.pinot.core.segment.memory.PinotDataBuffer;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import org.apache.commons.configuration.ConfigurationException;
+import org.apache.commons.io.FileUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * Read-only v3 column index directory whose index file lives in the {@link SegmentDeepStore}.
+ * <p>The local segment directory only holds the metadata, the index map and a {@link
+ * SegmentDirectoryPaths#REMOTE_INDEX_FILE_NAME} file containing the deep store URI of the index file. Each index is
+ * fetched through the {@link IndexBufferCache} the first time it is requested, and released back to the cache when
+ * the directory is closed.
+ */
+class RemoteSingleFileIndexDirectory extends ColumnIndexDirectory {
+  private static final Logger LOGGER = LoggerFactory.getLogger(RemoteSingleFileIndexDirectory.class);
+
+  private final IndexBufferCache indexBufferCache;
+  private final String indexFileUri;
+  private final Map<IndexKey, IndexEntry> columnEntries;
+  private final List<PinotDataBuffer> allocBuffers = new ArrayList<>();
+  // Index entries whose buffers were fetched through the cache, in the same order as allocBuffers
+  private final List<IndexEntry> fetchedEntries = new ArrayList<>();
+
+  RemoteSingleFileIndexDirectory(File segmentDirectory, SegmentMetadataImpl metadata, ReadMode readMode)
+      throws IOException, ConfigurationException {
+    super(segmentDirectory, metadata, readMode);
+    indexBufferCache = IndexBufferCache.getInstance();
+    indexFileUri =
+        FileUtils.readFileToString(new File(segmentDirectory, SegmentDirectoryPaths.REMOTE_INDEX_FILE_NAME)).trim();
+    columnEntries = SingleFileIndexDirectory.loadIndexMap(segmentDirectory);
+  }
+
+  @Override
+  public PinotDataBuffer getDictionaryBufferFor(String column)
+      throws IOException {
+    return getIndexBuffer(column, ColumnIndexType.DICTIONARY);
+  }
+
+  @Override
+  public PinotDataBuffer getForwardIndexBufferFor(String column)
+      throws IOException {
+    return getIndexBuffer(column, ColumnIndexType.FORWARD_INDEX);
+  }
+
+  @Override
+  public PinotDataBuffer getInvertedIndexBufferFor(String column)
+      throws IOException {
+    return getIndexBuffer(column, ColumnIndexType.INVERTED_INDEX);
+  }
+
+  @Override
+  public PinotDataBuffer getZoneMapBufferFor(String column)
+      throws IOException {
+    return getIndexBuffer(column, ColumnIndexType.ZONE_MAP);
+  }
+
+  private synchronized PinotDataBuffer getIndexBuffer(String column, ColumnIndexType type)
+      throws IOException {
+    IndexKey key = new IndexKey(column, type);
+    IndexEntry entry = columnEntries.get(key);
+    if (entry == null) {
+      throw new RuntimeException("Could not find index for column: " + column + ", type: " + type +
+          ", segment: " + segmentDirectory.toString());
+    }
+    if (entry.buffer == null) {
+      PinotDataBuffer buffer = indexBufferCache.getBuffer(indexFileUri, entry.startOffset, entry.size, readMode,
+          allocationContext(segmentDirectory, "remote_index." + key));
+      allocBuffers.add(buffer);
+      fetchedEntries.add(entry);
+      if (buffer.getLong(0) != SingleFileIndexDirectory.MAGIC_MARKER) {
+        LOGGER.error("Missing magic marker in index file: {} at position: {}", indexFileUri, entry.startOffset);
+        throw new RuntimeException("Inconsistent data read. Index data file " + indexFileUri + " is possibly corrupted");
+      }
+      entry.buffer = buffer.view(SingleFileIndexDirectory.MAGIC_MARKER_SIZE_BYTES, entry.size);
+    }
+    return entry.buffer;
+  }
+
+  @Override
+  public PinotDataBuffer newDictionaryBuffer(String column, int sizeBytes) {
+    throw new UnsupportedOperationException("Cannot create index for remote segment: " + segmentDirectory);
+  }
+
+  @Override
+  public PinotDataBuffer newForwardIndexBuffer(String column, int sizeBytes) {
+    throw new UnsupportedOperationException("Cannot create index for remote segment: " + segmentDirectory);
+  }
+
+  @Override
+  public PinotDataBuffer newInvertedIndexBuffer(String column, int sizeBytes) {
+    throw new UnsupportedOperationException("Cannot create index for remote segment: " + segmentDirectory);
+  }
+
+  @Override
+  public PinotDataBuffer newZoneMapBuffer(String column, int sizeBytes) {
+    throw new UnsupportedOperationException("Cannot create index for remote segment: " + segmentDirectory);
+  }
+
+  @Override
+  public boolean hasIndexFor(String column, ColumnIndexType type) {
+    return columnEntries.containsKey(new IndexKey(column, type));
+  }
+
+  @Override
+  public void removeIndex(String columnName, ColumnIndexType indexType) {
+    throw new UnsupportedOperationException("Index removal is not supported for remote segment: " + segmentDirectory
+        + ". Requested column: " + columnName + " indexType: " + indexType);
+  }
+
+  @Override
+  public boolean isIndexRemovalSupported() {
+    return false;
+  }
+
+  @Override
+  public synchronized void close() {
+    for (int i = 0; i < allocBuffers.size(); i++) {
+      allocBuffers.get(i).close();
+      IndexEntry entry = fetchedEntries.get(i);
+      indexBufferCache.releaseBuffer(indexFileUri, entry.startOffset, entry.size);
+    }
+    for (IndexEntry entry : columnEntries.values()) {
+      entry.buffer = null;
+    }
+    allocBuffers.clear();
+    fetchedEntries.clear();
+  }
+
+  @Override
+  public String toString() {
+    return segmentDirectory.toString() + "/" + indexFileUri;
+  }
+}
@@ -0,0 +1,65 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.core.segment.store;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Map;
+
+
+/**
+ * File system like view of the deep store holding the segments of the cold tier.
+ * <p>Files are addressed by URI, and can be copied to the local disk either entirely or by byte range so that the
+ * indexes of a single column can be fetched without downloading the whole segment.
+ */
+public interface SegmentDeepStore {
+
+  /**
+   * Initializes the deep store with the given configs.
+   */
+  void init(Map<String, String> configs);
+
+  /**
+   * Returns true if the given URI exists in the deep store.
+   */
+  boolean exists(String uri)
+      throws IOException;
+
+  /**
+   * Returns the URIs of the files directly under the given directory URI.
+   */
+  String[] listFiles(String uri)
+      throws IOException;
+
+  /**
+   * Returns the length in bytes of the file with the given URI.
+   */
+  long getLength(String uri)
+      throws IOException;
+
+  /**
+   * Copies the whole file with the given URI to the given local file.
+   */
+  void copyToLocal(String uri, File dest)
+      throws IOException;
+
+  /**
+   * Copies <code>length</code> bytes starting at <code>offset</code> of the file with the given URI to the given local
+   * file.
+   */
+  void copyToLocal(String uri, long offset, long length, File dest)
+      throws IOException;
+}
@@ -0,0 +1,70 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.core.segment.store;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * Registry of the {@link SegmentDeepStore} implementations by URI protocol. The local file system is always available
+ * under the <code>file</code> protocol.
+ */
+public class SegmentDeepStoreFactory {
+  private static final Logger LOGGER = LoggerFactory.getLogger(SegmentDeepStoreFactory.class);
+
+  public static final String DEEP_STORE_CLASS_KEY = "class";
+  public static final String DEEP_STORE_PROTOCOL_KEY = "protocol";
+
+  private static final Map<String, SegmentDeepStore> DEEP_STORE_MAP = new ConcurrentHashMap<>();
+
+  static {
+    DEEP_STORE_MAP.put("file", new LocalFSSegmentDeepStore());
+  }
+
+  private SegmentDeepStoreFactory() {
+  }
+
+  /**
+   * Instantiates, initializes and registers the deep store described by the given configs, which must contain the
+   * implementation class and the protocol it serves.
+   */
+  public static void initSegmentDeepStore(Map<String, String> configs) {
+    try {
+      String deepStoreClass = configs.get(DEEP_STORE_CLASS_KEY);
+      SegmentDeepStore deepStore = (SegmentDeepStore) Class.forName(deepStoreClass).newInstance();
+      deepStore.init(configs);
+      DEEP_STORE_MAP.put(configs.get(DEEP_STORE_PROTOCOL_KEY), deepStore);
+    } catch (Exception e) {
+      LOGGER.error("Failed to init SegmentDeepStore: {}", Arrays.toString(configs.entrySet().toArray()), e);
+    }
+  }
+
+  public static SegmentDeepStore getDeepStoreBasedOnURI(String uri) {
+    String[] splitUri = uri.split(":", 2);
+    if (splitUri.length < 2) {
+      throw new UnsupportedOperationException("Not supported uri: " + uri);
+    }
+    SegmentDeepStore deepStore = DEEP_STORE_MAP.get(splitUri[0]);
+    if (deepStore == null) {
+      throw new UnsupportedOperationException("No deep store registered for uri: " + uri);
+    }
+    return deepStore;
+  }
+}
@@ -28,6 +28,9 @@ public class SegmentDirectoryPaths {
   }
 
   public static final String V3_SUBDIRECTORY_NAME = "v3";
+  public static final String V3_INDEX_FILE_NAME = "columns.psf";
+  // Holds the deep store URI of the index file of a v3 segment whose indexes are fetched on demand
+  public static final String REMOTE_INDEX_FILE_NAME = "columns.psf.remote";
 
   @Nonnull
   public static File segmentDirectoryFor(@Nonnull File indexDir, @Nonnull SegmentVersion segmentVersion) {
@@ -48,6 +51,14 @@ public class SegmentDirectoryPaths {
     return path.toString().endsWith(V3_SUBDIRECTORY_NAME);
   }
 
+  /**
+   * Returns true if the index file of the given v3 segment directory lives in the deep store and its index buffers
+   * are fetched on demand.
+   */
+  public static boolean isRemoteSegmentDirectory(@Nonnull File segmentDirectory) {
+    return new File(segmentDirectory, REMOTE_INDEX_FILE_NAME).exists();
+  }
+
   @Nullable
   public static File findMetadataFile(@Nonnull File indexDir, @Nonnull SegmentVersion segmentVersion) {
     return findFormatFile(indexDir, V1Constants.MetadataKeys.METADATA_FILE_NAME, segmentVersion);
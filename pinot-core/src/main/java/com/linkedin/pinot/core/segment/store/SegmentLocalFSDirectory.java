@@ -195,7 +195,11 @@ class SegmentLocalFSDirectory extends SegmentDirectory {
         break;
       case v3:
         try {
-          columnIndexDirectory = new SingleFileIndexDirectory(segmentDirectory, segmentMetadata, readMode);
+          if (SegmentDirectoryPaths.isRemoteSegmentDirectory(segmentDirectory)) {
+            columnIndexDirectory = new RemoteSingleFileIndexDirectory(segmentDirectory, segmentMetadata, readMode);
+          } else {
+            columnIndexDirectory = new SingleFileIndexDirectory(segmentDirectory, segmentMetadata, readMode);
+          }
         } catch (ConfigurationException e) {
           LOGGER.error("Failed to create columnar index directory", e);
           throw new RuntimeException(e);
@@ -234,6 +238,9 @@ class SegmentLocalFSDirectory extends SegmentDirectory {
       case INVERTED_INDEX:
         buffer = columnIndexDirectory.getInvertedIndexBufferFor(column);
         break;
+      case ZONE_MAP:
+        buffer = columnIndexDirectory.getZoneMapBufferFor(column);
+        break;
       default:
         throw new RuntimeException("Unknown index type: " + type.name());
     }
@@ -414,6 +421,8 @@ class SegmentLocalFSDirectory extends SegmentDirectory {
           return columnIndexDirectory.newForwardIndexBuffer(key.name, (int) sizeBytes);
         case INVERTED_INDEX:
           return columnIndexDirectory.newInvertedIndexBuffer(key.name, ((int) sizeBytes));
+        case ZONE_MAP:
+          return columnIndexDirectory.newZoneMapBuffer(key.name, (int) sizeBytes);
         default:
           throw new RuntimeException("Unknown index type: " + indexType.name() +
               " for directory: " + segmentDirectory);
@@ -56,10 +56,10 @@ import org.slf4j.LoggerFactory;
 class SingleFileIndexDirectory extends ColumnIndexDirectory {
   private static Logger LOGGER = LoggerFactory.getLogger(SingleFileIndexDirectory.class);
 
-  private static final String DEFAULT_INDEX_FILE_NAME = "columns.psf";
-  private static final String INDEX_MAP_FILE = "index_map";
-  private static final long MAGIC_MARKER = 0xdeadbeefdeafbeadL;
-  private static final int MAGIC_MARKER_SIZE_BYTES = 8;
+  static final String DEFAULT_INDEX_FILE_NAME = SegmentDirectoryPaths.V3_INDEX_FILE_NAME;
+  static final String INDEX_MAP_FILE = "index_map";
+  static final long MAGIC_MARKER = 0xdeadbeefdeafbeadL;
+  static final int MAGIC_MARKER_SIZE_BYTES = 8;
   private static final String MAP_KEY_SEPARATOR = ".";
   private static final String MAP_KEY_NAME_START_OFFSET = "startOffset";
   private static final String MAP_KEY_NAME_SIZE = "size";
@@ -104,6 +104,12 @@ class SingleFileIndexDirectory extends ColumnIndexDirectory {
     return checkAndGetIndexBuffer(column, ColumnIndexType.INVERTED_INDEX);
   }
 
+  @Override
+  public PinotDataBuffer getZoneMapBufferFor(String column)
+      throws IOException {
+    return checkAndGetIndexBuffer(column, ColumnIndexType.ZONE_MAP);
+  }
+
   @Override
   public boolean hasIndexFor(String column, ColumnIndexType type) {
     IndexKey key = new IndexKey(column, type);
@@ -128,6 +134,12 @@ class SingleFileIndexDirectory extends ColumnIndexDirectory {
     return  allocNewBufferInternal(column, ColumnIndexType.INVERTED_INDEX, sizeBytes, "inverted_index.create");
   }
 
+  @Override
+  public PinotDataBuffer newZoneMapBuffer(String column, int sizeBytes)
+      throws IOException {
+    return allocNewBufferInternal(column, ColumnIndexType.ZONE_MAP, sizeBytes, "zone_map.create");
+  }
+
   private PinotDataBuffer checkAndGetIndexBuffer(String column, ColumnIndexType type) {
     IndexKey key = new IndexKey(column, type);
     IndexEntry entry = columnEntries.get(key);
@@ -197,6 +209,18 @@ class SingleFileIndexDirectory extends ColumnIndexDirectory {
 
   private void loadMap()
       throws ConfigurationException {
+    columnEntries.putAll(loadIndexMap(segmentDirectory));
+  }
+
+  /**
+   * Reads the index map of the given v3 segment directory.
+   * @param segmentDirectory segment directory containing the index map file
+   * @return index entries with start offset and size set, and no buffer
+   * @throws ConfigurationException if the index map is invalid
+   */
+  static Map<IndexKey, IndexEntry> loadIndexMap(File segmentDirectory)
+      throws ConfigurationException {
+    Map<IndexKey, IndexEntry> columnEntries = new HashMap<>();
     File mapFile = new File(segmentDirectory, INDEX_MAP_FILE);
 
     PropertiesConfiguration mapConfig = new PropertiesConfiguration(mapFile);
@@ -241,6 +265,7 @@ class SingleFileIndexDirectory extends ColumnIndexDirectory {
             ", segment: " + segmentDirectory.toString());
       }
     }
+    return columnEntries;
   }
 
   private void mapBufferEntries()
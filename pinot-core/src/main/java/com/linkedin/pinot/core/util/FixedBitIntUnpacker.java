@@ -0,0 +1,128 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.core.util;
+
+/**
+ * Unpacks values written by {@link com.linkedin.pinot.core.io.writer.impl.v1.FixedBitSingleValueWriter}, where each
+ * value takes <code>numBits</code> bits and the bits are stored most significant bit first.
+ *
+ * 32 values always fit in exactly <code>numBits</code> ints, so values are unpacked in batches of 32 from
+ * <code>numBits</code> (BIG_ENDIAN) ints. Bit widths that divide 32 never cross an int boundary and get their own
+ * loops, other bit widths go through a 64 bit accumulator.
+ */
+public final class FixedBitIntUnpacker {
+  public static final int BATCH_SIZE = 32;
+
+  private FixedBitIntUnpacker() {
+  }
+
+  /**
+   * Unpacks 32 values of <code>numBits</code> bits from <code>packed[packedOffset, packedOffset + numBits)</code>
+   * into <code>out[outOffset, outOffset + 32)</code>.
+   */
+  public static void unpack32(int[] packed, int packedOffset, int numBits, int[] out, int outOffset) {
+    switch (numBits) {
+      case 1:
+        unpack1(packed, packedOffset, out, outOffset);
+        break;
+      case 2:
+        unpack2(packed, packedOffset, out, outOffset);
+        break;
+      case 4:
+        unpack4(packed, packedOffset, out, outOffset);
+        break;
+      case 8:
+        unpack8(packed, packedOffset, out, outOffset);
+        break;
+      case 16:
+        unpack16(packed, packedOffset, out, outOffset);
+        break;
+      case 32:
+        System.arraycopy(packed, packedOffset, out, outOffset, BATCH_SIZE);
+        break;
+      default:
+        unpackUnaligned(packed, packedOffset, numBits, out, outOffset);
+        break;
+    }
+  }
+
+  private static void unpack1(int[] packed, int packedOffset, int[] out, int outOffset) {
+    int word = packed[packedOffset];
+    for (int shift = 31; shift >= 0; shift--) {
+      out[outOffset++] = (word >>> shift) & 1;
+    }
+  }
+
+  private static void unpack2(int[] packed, int packedOffset, int[] out, int outOffset) {
+    for (int i = 0; i < 2; i++) {
+      int word = packed[packedOffset + i];
+      for (int shift = 30; shift >= 0; shift -= 2) {
+        out[outOffset++] = (word >>> shift) & 0x3;
+      }
+    }
+  }
+
+  private static void unpack4(int[] packed, int packedOffset, int[] out, int outOffset) {
+    for (int i = 0; i < 4; i++) {
+      int word = packed[packedOffset + i];
+      out[outOffset] = word >>> 28;
+      out[outOffset + 1] = (word >>> 24) & 0xF;
+      out[outOffset + 2] = (word >>> 20) & 0xF;
+      out[outOffset + 3] = (word >>> 16) & 0xF;
+      out[outOffset + 4] = (word >>> 12) & 0xF;
+      out[outOffset + 5] = (word >>> 8) & 0xF;
+      out[outOffset + 6] = (word >>> 4) & 0xF;
+      out[outOffset + 7] = word & 0xF;
+      outOffset += 8;
+    }
+  }
+
+  private static void unpack8(int[] packed, int packedOffset, int[] out, int outOffset) {
+    for (int i = 0; i < 8; i++) {
+      int word = packed[packedOffset + i];
+      out[outOffset] = word >>> 24;
+      out[outOffset + 1] = (word >>> 16) & 0xFF;
+      out[outOffset + 2] = (word >>> 8) & 0xFF;
+      out[outOffset + 3] = word & 0xFF;
+      outOffset += 4;
+    }
+  }
+
+  private static void unpack16(int[] packed, int packedOffset, int[] out, int outOffset) {
+    for (int i = 0; i < 16; i++) {
+      int word = packed[packedOffset + i];
+      out[outOffset] = word >>> 16;
+      out[outOffset + 1] = word & 0xFFFF;
+      outOffset += 2;
+    }
+  }
+
+  private static void unpackUnaligned(int[] packed, int packedOffset, int numBits, int[] out, int outOffset) {
+    long mask = (1L << numBits) - 1;
+    long accumulator = 0;
+    int numBitsInAccumulator = 0;
+    int outEnd = outOffset + BATCH_SIZE;
+    while (outOffset < outEnd) {
+      if (numBitsInAccumulator < numBits) {
+        // Bits already consumed get shifted out of the top of the accumulator
+        accumulator = (accumulator << 32) | (packed[packedOffset++] & 0xFFFFFFFFL);
+        numBitsInAccumulator += 32;
+      }
+      numBitsInAccumulator -= numBits;
+      out[outOffset++] = (int) ((accumulator >>> numBitsInAccumulator) & mask);
+    }
+  }
+}
@@ -0,0 +1,107 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.core.common.datatable;
+
+import com.linkedin.pinot.common.data.FieldSpec.DataType;
+import com.linkedin.pinot.common.exception.QueryException;
+import com.linkedin.pinot.common.utils.DataSchema;
+import com.linkedin.pinot.common.utils.DataTable;
+import com.linkedin.pinot.core.io.compression.ChunkCompressorFactory.CompressionType;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Random;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+
+public class DataTableCompressionTest {
+  private static final long RANDOM_SEED = System.currentTimeMillis();
+  private static final Random RANDOM = new Random(RANDOM_SEED);
+  private static final String ERROR_MESSAGE = "Random seed: " + RANDOM_SEED;
+
+  private static final int NUM_ROWS = 1000;
+
+  @Test
+  public void testCompressDecompress()
+      throws IOException {
+    DataSchema dataSchema =
+        new DataSchema(new String[]{"intColumn", "stringColumn"}, new DataType[]{DataType.INT, DataType.STRING});
+    DataTableBuilder dataTableBuilder = new DataTableBuilder(dataSchema);
+    int[] ints = new int[NUM_ROWS];
+    String[] strings = new String[NUM_ROWS];
+    for (int rowId = 0; rowId < NUM_ROWS; rowId++) {
+      ints[rowId] = RANDOM.nextInt(100);
+      strings[rowId] = "value_" + RANDOM.nextInt(10);
+      dataTableBuilder.startRow();
+      dataTableBuilder.setColumn(0, ints[rowId]);
+      dataTableBuilder.setColumn(1, strings[rowId]);
+      dataTableBuilder.finishRow();
+    }
+    byte[] dataTableBytes = dataTableBuilder.build().toBytes();
+    Assert.assertFalse(DataTableCompression.isCompressed(dataTableBytes));
+
+    for (CompressionType compressionType : new CompressionType[]{CompressionType.SNAPPY, CompressionType.LZ4}) {
+      byte[] compressedBytes = DataTableCompression.compress(dataTableBytes, compressionType);
+      Assert.assertTrue(DataTableCompression.isCompressed(compressedBytes), ERROR_MESSAGE);
+      Assert.assertTrue(compressedBytes.length < dataTableBytes.length, ERROR_MESSAGE);
+      Assert.assertEquals(DataTableCompression.decompress(compressedBytes), dataTableBytes, ERROR_MESSAGE);
+
+      // Compressed data tables are decompressed by the factory
+      DataTable dataTable = DataTableFactory.getDataTable(compressedBytes);
+      Assert.assertEquals(dataTable.getNumberOfRows(), NUM_ROWS, ERROR_MESSAGE);
+      for (int rowId = 0; rowId < NUM_ROWS; rowId++) {
+        Assert.assertEquals(dataTable.getInt(rowId, 0), ints[rowId], ERROR_MESSAGE);
+        Assert.assertEquals(dataTable.getString(rowId, 1), strings[rowId], ERROR_MESSAGE);
+      }
+    }
+  }
+
+  @Test
+  public void testCompressedExceptionNotInspected()
+      throws IOException {
+    DataTable dataTable = new DataTableImplV2();
+    dataTable.addException(QueryException.SERVER_OVERLOADED_ERROR);
+    byte[] compressedBytes = DataTableCompression.compress(dataTable.toBytes(), CompressionType.LZ4);
+    Assert.assertFalse(DataTableFactory.isEmptyWithException(ByteBuffer.wrap(compressedBytes),
+        QueryException.SERVER_OVERLOADED_ERROR_CODE));
+    Assert.assertNotNull(DataTableFactory.getDataTable(compressedBytes).getMetadata()
+        .get(DataTable.EXCEPTION_METADATA_KEY + QueryException.SERVER_OVERLOADED_ERROR_CODE));
+  }
+
+  @Test
+  public void testCorruptedSize()
+      throws IOException {
+    byte[] dataTableBytes = new byte[1000];
+    for (CompressionType compressionType : new CompressionType[]{CompressionType.SNAPPY, CompressionType.LZ4}) {
+      byte[] compressedBytes = DataTableCompression.compress(dataTableBytes, compressionType);
+      for (int size : new int[]{-1, Integer.MAX_VALUE, dataTableBytes.length - 1, dataTableBytes.length + 1}) {
+        ByteBuffer.wrap(compressedBytes).putInt(8, size);
+        try {
+          DataTableCompression.decompress(compressedBytes);
+          Assert.fail("Size " + size + " should be rejected for compression type: " + compressionType);
+        } catch (IOException e) {
+          // Expected
+        }
+      }
+    }
+  }
+
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void testUnsupportedCompressionType()
+      throws IOException {
+    DataTableCompression.compress(new byte[10], CompressionType.PASS_THROUGH);
+  }
+}
@@ -21,6 +21,7 @@ import com.linkedin.pinot.common.response.ProcessingException;
 import com.linkedin.pinot.common.utils.DataSchema;
 import com.linkedin.pinot.common.utils.DataTable;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.Arrays;
 import java.util.Random;
 import org.apache.commons.lang.RandomStringUtils;
@@ -57,6 +58,41 @@ public class DataTableSerDeTest {
     Assert.assertEquals(actual, expected);
   }
 
+  @Test
+  public void testIsEmptyWithException()
+      throws IOException {
+    DataTable dataTable = new DataTableImplV2();
+    dataTable.getMetadata().put("foo", "bar");
+    dataTable.addException(QueryException.SERVER_OVERLOADED_ERROR);
+    byte[] bytes = dataTable.toBytes();
+    int errorCode = QueryException.SERVER_OVERLOADED_ERROR_CODE;
+    Assert.assertTrue(DataTableFactory.isEmptyWithException(ByteBuffer.wrap(bytes), errorCode));
+    Assert.assertFalse(DataTableFactory.isEmptyWithException(ByteBuffer.wrap(bytes),
+        QueryException.QUERY_EXECUTION_ERROR_CODE));
+
+    // Data table not starting at the beginning of the buffer, position must not change
+    byte[] paddedBytes = new byte[bytes.length + 10];
+    System.arraycopy(bytes, 0, paddedBytes, 10, bytes.length);
+    ByteBuffer byteBuffer = ByteBuffer.wrap(paddedBytes);
+    byteBuffer.position(10);
+    Assert.assertTrue(DataTableFactory.isEmptyWithException(byteBuffer, errorCode));
+    Assert.assertEquals(byteBuffer.position(), 10);
+
+    // Truncated data table
+    Assert.assertFalse(
+        DataTableFactory.isEmptyWithException(ByteBuffer.wrap(Arrays.copyOf(bytes, bytes.length / 2)), errorCode));
+
+    // Data table with columns
+    DataSchema dataSchema = new DataSchema(new String[]{"column"}, new DataType[]{DataType.INT});
+    DataTableBuilder dataTableBuilder = new DataTableBuilder(dataSchema);
+    dataTableBuilder.startRow();
+    dataTableBuilder.setColumn(0, 1);
+    dataTableBuilder.finishRow();
+    dataTable = dataTableBuilder.build();
+    dataTable.addException(QueryException.SERVER_OVERLOADED_ERROR);
+    Assert.assertFalse(DataTableFactory.isEmptyWithException(ByteBuffer.wrap(dataTable.toBytes()), errorCode));
+  }
+
   @Test
   public void testAllDataTypes()
       throws IOException {
@@ -59,6 +59,7 @@ public class LLRealtimeSegmentDataManagerTest {
   private static final long maxTimeForSegmentCloseMs = 64368000L;
 
   private static long _timeNow = System.currentTimeMillis();
+  private static long _maxMemoryBytesInSegment = -1L;
 
   private final String _tableConfigJson = "{\n" + "  \"metadata\": {}, \n" + "  \"segmentsConfig\": {\n"
       + "    \"replicasPerPartition\": \"3\", \n" + "    \"replication\": \"3\", \n"
@@ -525,13 +526,73 @@ public class LLRealtimeSegmentDataManagerTest {
     }
   }
 
+  @Test
+  public void testMemoryLimitReached() throws Exception {
+    final long maxMemoryBytes = 1024L * 1024L;
+    // The memory usage is only checked every 1000 rows
+    final int memoryCheckInterval = 1000;
+    _maxMemoryBytesInSegment = maxMemoryBytes;
+    try {
+      checkMemoryLimitReached(maxMemoryBytes, memoryCheckInterval);
+    } finally {
+      _maxMemoryBytesInSegment = -1L;
+    }
+    // No memory limit configured
+    {
+      FakeLLRealtimeSegmentDataManager segmentDataManager = createFakeSegmentManager();
+      segmentDataManager._state.set(segmentDataManager, LLRealtimeSegmentDataManager.State.INITIAL_CONSUMING);
+      replaceRealtimeSegment(segmentDataManager, memoryCheckInterval, Long.MAX_VALUE);
+      segmentDataManager.setNumRowsConsumed(memoryCheckInterval);
+      Assert.assertFalse(segmentDataManager.invokeEndCriteriaReached());
+    }
+  }
+
+  private void checkMemoryLimitReached(long maxMemoryBytes, int memoryCheckInterval) throws Exception {
+    // Below the memory limit
+    {
+      FakeLLRealtimeSegmentDataManager segmentDataManager = createFakeSegmentManager();
+      segmentDataManager._state.set(segmentDataManager, LLRealtimeSegmentDataManager.State.INITIAL_CONSUMING);
+      replaceRealtimeSegment(segmentDataManager, memoryCheckInterval, maxMemoryBytes - 1);
+      segmentDataManager.setNumRowsConsumed(memoryCheckInterval);
+      Assert.assertFalse(segmentDataManager.invokeEndCriteriaReached());
+    }
+    // Reaching the memory limit
+    {
+      FakeLLRealtimeSegmentDataManager segmentDataManager = createFakeSegmentManager();
+      segmentDataManager._state.set(segmentDataManager, LLRealtimeSegmentDataManager.State.INITIAL_CONSUMING);
+      replaceRealtimeSegment(segmentDataManager, memoryCheckInterval, maxMemoryBytes);
+      segmentDataManager.setNumRowsConsumed(memoryCheckInterval - 1);
+      // Not checked yet
+      Assert.assertFalse(segmentDataManager.invokeEndCriteriaReached());
+      segmentDataManager.setNumRowsConsumed(memoryCheckInterval);
+      Assert.assertTrue(segmentDataManager.invokeEndCriteriaReached());
+      // Stays reached until the segment is flushed
+      segmentDataManager.setNumRowsConsumed(memoryCheckInterval + 1);
+      Assert.assertTrue(segmentDataManager.invokeEndCriteriaReached());
+    }
+  }
+
   // Replace the realtime segment with a mock that returns numDocs for raw doc count.
   private void replaceRealtimeSegment(FakeLLRealtimeSegmentDataManager segmentDataManager, int numDocs) throws Exception {
     RealtimeSegmentImpl mockSegmentImpl = mock(RealtimeSegmentImpl.class);
     when(mockSegmentImpl.getRawDocumentCount()).thenReturn(numDocs);
+    setRealtimeSegment(segmentDataManager, mockSegmentImpl);
+  }
+
+  // Replace the realtime segment with a mock that also returns estimatedMemoryBytes for the estimated memory usage.
+  private void replaceRealtimeSegment(FakeLLRealtimeSegmentDataManager segmentDataManager, int numDocs,
+      long estimatedMemoryBytes) throws Exception {
+    RealtimeSegmentImpl mockSegmentImpl = mock(RealtimeSegmentImpl.class);
+    when(mockSegmentImpl.getRawDocumentCount()).thenReturn(numDocs);
+    when(mockSegmentImpl.getEstimatedMemoryUsageInBytes()).thenReturn(estimatedMemoryBytes);
+    setRealtimeSegment(segmentDataManager, mockSegmentImpl);
+  }
+
+  private void setRealtimeSegment(FakeLLRealtimeSegmentDataManager segmentDataManager,
+      RealtimeSegmentImpl realtimeSegment) throws Exception {
     Field segmentImpl = LLRealtimeSegmentDataManager.class.getDeclaredField("_realtimeSegment");
     segmentImpl.setAccessible(true);
-    segmentImpl.set(segmentDataManager, mockSegmentImpl);
+    segmentImpl.set(segmentDataManager, realtimeSegment);
   }
 
   public static class FakeLLRealtimeSegmentDataManager extends LLRealtimeSegmentDataManager {
@@ -611,6 +672,7 @@ public class LLRealtimeSegmentDataManagerTest {
       when(config.getStreamName()).thenReturn(_topicName);
       when(config.getSizeThresholdToFlushSegment()).thenReturn(maxRowsInSegment);
       when(config.getTimeThresholdToFlushSegment()).thenReturn(maxTimeForSegmentCloseMs);
+      when(config.getMemoryThresholdToFlushSegment()).thenReturn(_maxMemoryBytesInSegment);
       try {
         when(config.getDecoder()).thenReturn(null);
       } catch (Exception e) {
@@ -0,0 +1,132 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.core.query.scheduler;
+
+import com.google.common.util.concurrent.ListenableFuture;
+import com.linkedin.pinot.common.data.DataManager;
+import com.linkedin.pinot.common.exception.QueryException;
+import com.linkedin.pinot.common.metrics.ServerMetrics;
+import com.linkedin.pinot.common.query.QueryExecutor;
+import com.linkedin.pinot.common.query.QueryRequest;
+import com.linkedin.pinot.common.request.InstanceRequest;
+import com.linkedin.pinot.common.utils.DataTable;
+import com.linkedin.pinot.core.common.datatable.DataTableImplV2;
+import com.yammer.metrics.core.MetricsRegistry;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.apache.commons.configuration.Configuration;
+import org.apache.commons.configuration.PropertiesConfiguration;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+
+public class FCFSQuerySchedulerTest {
+
+  @Test
+  public void testCancelledQueryReleasesPendingSlot()
+      throws Exception {
+    BlockingQueryExecutor queryExecutor = new BlockingQueryExecutor();
+    FCFSQueryScheduler scheduler = new FCFSQueryScheduler(getSchedulerConfig(), queryExecutor);
+    try {
+      ListenableFuture<DataTable> runningQuery = scheduler.submit(getQueryRequest());
+      Assert.assertTrue(queryExecutor._started.await(10, TimeUnit.SECONDS));
+      ListenableFuture<DataTable> queuedQuery = scheduler.submit(getQueryRequest());
+      Assert.assertEquals(scheduler.getAdmissionController().getNumPendingQueries(), 2);
+
+      // Cancelling the query still waiting for the query runner gives back its slot
+      Assert.assertTrue(queuedQuery.cancel(false));
+      Assert.assertEquals(scheduler.getAdmissionController().getNumPendingQueries(), 1);
+
+      queryExecutor._release.countDown();
+      runningQuery.get(10, TimeUnit.SECONDS);
+      Assert.assertEquals(scheduler.getAdmissionController().getNumPendingQueries(), 0);
+    } finally {
+      queryExecutor._release.countDown();
+      scheduler.queryRunners.shutdownNow();
+      scheduler.queryWorkers.shutdownNow();
+    }
+  }
+
+  @Test
+  public void testRejectedQueryReleasesPendingSlot()
+      throws Exception {
+    FCFSQueryScheduler scheduler = new FCFSQueryScheduler(getSchedulerConfig(), new BlockingQueryExecutor());
+    scheduler.queryRunners.shutdown();
+    try {
+      DataTable dataTable = scheduler.submit(getQueryRequest()).get(10, TimeUnit.SECONDS);
+      Assert.assertTrue(dataTable.getMetadata()
+          .containsKey(DataTable.EXCEPTION_METADATA_KEY + QueryException.SERVER_OVERLOADED_ERROR.getErrorCode()));
+      Assert.assertEquals(scheduler.getAdmissionController().getNumPendingQueries(), 0);
+    } finally {
+      scheduler.queryWorkers.shutdownNow();
+    }
+  }
+
+  private static Configuration getSchedulerConfig() {
+    PropertiesConfiguration config = new PropertiesConfiguration();
+    config.setProperty(QueryScheduler.QUERY_RUNNER_CONFIG_KEY, 1);
+    config.setProperty(QueryScheduler.QUERY_WORKER_CONFIG_KEY, 1);
+    config.setProperty(QueryAdmissionController.MAX_PENDING_QUERIES_CONFIG_KEY, 2);
+    config.setProperty(QueryAdmissionController.SHED_EXPIRED_QUERIES_CONFIG_KEY, false);
+    return config;
+  }
+
+  private static QueryRequest getQueryRequest() {
+    InstanceRequest instanceRequest = new InstanceRequest();
+    instanceRequest.setRequestId(1L);
+    QueryRequest queryRequest = new QueryRequest(instanceRequest, new ServerMetrics(new MetricsRegistry()));
+    queryRequest.getTimerContext().setQueryArrivalTimeNs(System.nanoTime());
+    return queryRequest;
+  }
+
+  private static class BlockingQueryExecutor implements QueryExecutor {
+    private final CountDownLatch _started = new CountDownLatch(1);
+    private final CountDownLatch _release = new CountDownLatch(1);
+
+    @Override
+    public void init(Configuration queryExecutorConfig, DataManager dataManager, ServerMetrics serverMetrics) {
+    }
+
+    @Override
+    public void start() {
+    }
+
+    @Override
+    public DataTable processQuery(QueryRequest queryRequest, ExecutorService executorService) {
+      _started.countDown();
+      try {
+        _release.await();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      return new DataTableImplV2();
+    }
+
+    @Override
+    public void shutDown() {
+    }
+
+    @Override
+    public boolean isStarted() {
+      return true;
+    }
+
+    @Override
+    public void updateResourceTimeOutInMs(String resource, long timeOutMs) {
+    }
+  }
+}
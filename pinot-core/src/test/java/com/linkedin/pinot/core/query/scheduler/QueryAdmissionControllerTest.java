@@ -0,0 +1,127 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.core.query.scheduler;
+
+import com.linkedin.pinot.common.query.QueryRequest;
+import com.linkedin.pinot.common.request.InstanceRequest;
+import java.util.concurrent.TimeUnit;
+import org.apache.commons.configuration.PropertiesConfiguration;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+
+public class QueryAdmissionControllerTest {
+  private static final int NUM_QUERY_RUNNERS = 2;
+
+  @Test
+  public void testMaxPendingQueries() {
+    PropertiesConfiguration config = new PropertiesConfiguration();
+    config.setProperty(QueryAdmissionController.MAX_PENDING_QUERIES_CONFIG_KEY, 3);
+    QueryAdmissionController admissionController = new QueryAdmissionController(config, NUM_QUERY_RUNNERS);
+
+    for (int i = 0; i < 3; i++) {
+      Assert.assertTrue(admissionController.tryAdmit(getQueryRequest(-1L)));
+    }
+    Assert.assertEquals(admissionController.getNumPendingQueries(), 3);
+    Assert.assertFalse(admissionController.tryAdmit(getQueryRequest(-1L)));
+    Assert.assertEquals(admissionController.getNumPendingQueries(), 3);
+
+    admissionController.onQueryDone(getQueryRequest(-1L), TimeUnit.MILLISECONDS.toNanos(10));
+    Assert.assertEquals(admissionController.getNumPendingQueries(), 2);
+    Assert.assertTrue(admissionController.tryAdmit(getQueryRequest(-1L)));
+  }
+
+  @Test
+  public void testNoLimit() {
+    QueryAdmissionController admissionController =
+        new QueryAdmissionController(new PropertiesConfiguration(), NUM_QUERY_RUNNERS);
+    for (int i = 0; i < 1000; i++) {
+      Assert.assertTrue(admissionController.tryAdmit(getQueryRequest(-1L)));
+    }
+  }
+
+  @Test
+  public void testExpectedWaitTime() {
+    QueryAdmissionController admissionController =
+        new QueryAdmissionController(new PropertiesConfiguration(), NUM_QUERY_RUNNERS);
+    QueryRequest queryRequest = getQueryRequest(-1L);
+    Assert.assertTrue(admissionController.tryAdmit(queryRequest));
+    admissionController.onQueryDone(queryRequest, 100L);
+    Assert.assertTrue(admissionController.tryAdmit(queryRequest));
+    admissionController.onQueryDone(queryRequest, 200L);
+    // Moving average: 0.1 * 200 + 0.9 * 100
+    Assert.assertEquals(admissionController.getExpectedWaitTimeNs(0), 0L);
+    Assert.assertEquals(admissionController.getExpectedWaitTimeNs(1), 0L);
+    Assert.assertEquals(admissionController.getExpectedWaitTimeNs(2), 55L);
+    Assert.assertEquals(admissionController.getExpectedWaitTimeNs(5), 220L);
+
+    // Queries that were not executed do not change the average
+    Assert.assertTrue(admissionController.tryAdmit(queryRequest));
+    admissionController.onQueryDone(queryRequest, -1L);
+    Assert.assertEquals(admissionController.getExpectedWaitTimeNs(2), 55L);
+  }
+
+  @Test
+  public void testShedQueriesMissingDeadline() {
+    QueryAdmissionController admissionController =
+        new QueryAdmissionController(new PropertiesConfiguration(), NUM_QUERY_RUNNERS);
+    // Queries taking 1 second on average
+    QueryRequest queryRequest = getQueryRequest(-1L);
+    Assert.assertTrue(admissionController.tryAdmit(queryRequest));
+    admissionController.onQueryDone(queryRequest, TimeUnit.SECONDS.toNanos(1));
+
+    // Query runners are available
+    Assert.assertTrue(admissionController.tryAdmit(getQueryRequest(100L)));
+    Assert.assertTrue(admissionController.tryAdmit(getQueryRequest(100L)));
+    // Query would wait for about 500ms
+    Assert.assertFalse(admissionController.tryAdmit(getQueryRequest(100L)));
+    Assert.assertTrue(admissionController.tryAdmit(getQueryRequest(10000L)));
+    // Queries without broker timeout are always admitted
+    Assert.assertTrue(admissionController.tryAdmit(getQueryRequest(-1L)));
+    Assert.assertEquals(admissionController.getNumPendingQueries(), 4);
+  }
+
+  @Test
+  public void testExpiredQueries() {
+    QueryAdmissionController admissionController =
+        new QueryAdmissionController(new PropertiesConfiguration(), NUM_QUERY_RUNNERS);
+    QueryRequest queryRequest = getQueryRequest(1000L);
+    Assert.assertFalse(admissionController.isExpired(queryRequest));
+    Assert.assertFalse(admissionController.isExpired(getQueryRequest(-1L)));
+
+    queryRequest.getTimerContext()
+        .setQueryArrivalTimeNs(System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(2000L));
+    Assert.assertTrue(admissionController.isExpired(queryRequest));
+    Assert.assertTrue(QueryAdmissionController.getRemainingTimeNs(queryRequest, System.nanoTime()) < 0);
+
+    // Shedding disabled
+    PropertiesConfiguration config = new PropertiesConfiguration();
+    config.setProperty(QueryAdmissionController.SHED_EXPIRED_QUERIES_CONFIG_KEY, false);
+    admissionController = new QueryAdmissionController(config, NUM_QUERY_RUNNERS);
+    Assert.assertFalse(admissionController.isExpired(queryRequest));
+  }
+
+  private static QueryRequest getQueryRequest(long timeoutMs) {
+    InstanceRequest instanceRequest = new InstanceRequest();
+    instanceRequest.setRequestId(1L);
+    if (timeoutMs >= 0) {
+      instanceRequest.setTimeoutMs(timeoutMs);
+    }
+    QueryRequest queryRequest = new QueryRequest(instanceRequest, null);
+    queryRequest.getTimerContext().setQueryArrivalTimeNs(System.nanoTime());
+    return queryRequest;
+  }
+}
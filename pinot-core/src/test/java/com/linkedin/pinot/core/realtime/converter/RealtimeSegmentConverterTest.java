@@ -0,0 +1,127 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.core.realtime.converter;
+
+import com.linkedin.pinot.common.data.FieldSpec;
+import com.linkedin.pinot.common.data.Schema;
+import com.linkedin.pinot.common.metrics.ServerMetrics;
+import com.linkedin.pinot.core.data.GenericRow;
+import com.linkedin.pinot.core.data.readers.PinotSegmentRecordReader;
+import com.linkedin.pinot.core.indexsegment.generator.SegmentVersion;
+import com.linkedin.pinot.core.realtime.impl.RealtimeSegmentImpl;
+import com.yammer.metrics.core.MetricsRegistry;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.apache.commons.io.FileUtils;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.Test;
+
+
+/**
+ * Tests for {@link RealtimeSegmentConverter}, checking that the converted segment holds the same rows as the realtime
+ * segment it was built from.
+ */
+public class RealtimeSegmentConverterTest {
+  private static final File OUTPUT_DIR = new File(FileUtils.getTempDirectory(), "RealtimeSegmentConverterTest");
+  private static final String TABLE_NAME = "testTable";
+  private static final String SEGMENT_NAME = "testTable__0__0__12345";
+  private static final int NUM_ROWS = 1000;
+
+  private static final String SORTED_COLUMN = "sortedDim";
+  private static final String STRING_COLUMN = "stringDim";
+  private static final String MULTI_VALUE_COLUMN = "mvDim";
+  private static final String METRIC_COLUMN = "metric";
+  private static final String TIME_COLUMN = "time";
+
+  @Test
+  public void testConversion() throws Exception {
+    Schema schema = new Schema.SchemaBuilder().setSchemaName(TABLE_NAME)
+        .addSingleValueDimension(SORTED_COLUMN, FieldSpec.DataType.INT)
+        .addSingleValueDimension(STRING_COLUMN, FieldSpec.DataType.STRING)
+        .addMultiValueDimension(MULTI_VALUE_COLUMN, FieldSpec.DataType.STRING)
+        .addMetric(METRIC_COLUMN, FieldSpec.DataType.LONG)
+        .addTime(TIME_COLUMN, TimeUnit.DAYS, FieldSpec.DataType.LONG)
+        .build();
+    // No inverted index on the sorted column, the docs are sorted from its forward index
+    List<String> invertedIndexColumns = Arrays.asList(STRING_COLUMN, MULTI_VALUE_COLUMN);
+    RealtimeSegmentImpl realtimeSegment =
+        new RealtimeSegmentImpl(schema, NUM_ROWS, TABLE_NAME, SEGMENT_NAME, TABLE_NAME,
+            new ServerMetrics(new MetricsRegistry()), invertedIndexColumns, 2);
+
+    Random random = new Random(0);
+    List<String> expectedRows = new ArrayList<>(NUM_ROWS);
+    for (int i = 0; i < NUM_ROWS; i++) {
+      Map<String, Object> fields = new HashMap<>();
+      fields.put(SORTED_COLUMN, random.nextInt(50) - 25);
+      fields.put(STRING_COLUMN, "value" + random.nextInt(100));
+      Object[] multiValues = new Object[random.nextInt(3) + 1];
+      for (int j = 0; j < multiValues.length; j++) {
+        multiValues[j] = "mv" + (10 * j + random.nextInt(10));
+      }
+      fields.put(MULTI_VALUE_COLUMN, multiValues);
+      fields.put(METRIC_COLUMN, random.nextLong());
+      fields.put(TIME_COLUMN, 17000L + random.nextInt(10));
+      GenericRow row = new GenericRow();
+      row.init(fields);
+      realtimeSegment.index(row);
+      expectedRows.add(rowToString(row));
+    }
+
+    FileUtils.deleteQuietly(OUTPUT_DIR);
+    RealtimeSegmentConverter converter =
+        new RealtimeSegmentConverter(realtimeSegment, OUTPUT_DIR.getAbsolutePath(), schema, TABLE_NAME, SEGMENT_NAME,
+            SORTED_COLUMN, invertedIndexColumns, new ArrayList<String>(), null);
+    converter.build(SegmentVersion.v1);
+
+    List<String> actualRows = new ArrayList<>(NUM_ROWS);
+    PinotSegmentRecordReader recordReader = new PinotSegmentRecordReader(new File(OUTPUT_DIR, SEGMENT_NAME));
+    recordReader.init();
+    int previousSortedValue = Integer.MIN_VALUE;
+    while (recordReader.hasNext()) {
+      GenericRow row = recordReader.next();
+      int sortedValue = (Integer) row.getValue(SORTED_COLUMN);
+      Assert.assertTrue(previousSortedValue <= sortedValue);
+      previousSortedValue = sortedValue;
+      actualRows.add(rowToString(row));
+    }
+    recordReader.close();
+
+    Collections.sort(expectedRows);
+    Collections.sort(actualRows);
+    Assert.assertEquals(actualRows, expectedRows);
+  }
+
+  private static String rowToString(GenericRow row) {
+    // Multi-values are stored in dictionary order in the segment
+    Object[] multiValues = ((Object[]) row.getValue(MULTI_VALUE_COLUMN)).clone();
+    Arrays.sort(multiValues);
+    return row.getValue(SORTED_COLUMN) + "|" + row.getValue(STRING_COLUMN) + "|" + Arrays.toString(multiValues) + "|"
+        + row.getValue(METRIC_COLUMN) + "|" + row.getValue(TIME_COLUMN);
+  }
+
+  @AfterClass
+  public void tearDown() {
+    FileUtils.deleteQuietly(OUTPUT_DIR);
+  }
+}
@@ -0,0 +1,147 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.core.realtime.impl;
+
+import com.linkedin.pinot.common.data.FieldSpec;
+import com.linkedin.pinot.common.data.Schema;
+import com.linkedin.pinot.common.metadata.segment.RealtimeSegmentZKMetadata;
+import com.linkedin.pinot.common.metrics.ServerMetrics;
+import com.linkedin.pinot.core.common.Block;
+import com.linkedin.pinot.core.common.BlockValSet;
+import com.linkedin.pinot.core.common.DataSource;
+import com.linkedin.pinot.core.data.GenericRow;
+import com.linkedin.pinot.core.indexsegment.IndexSegment;
+import com.linkedin.pinot.core.segment.index.readers.Dictionary;
+import com.yammer.metrics.core.MetricsRegistry;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+
+/**
+ * Tests for {@link RealtimeSegmentSnapshot}, checking that a snapshot keeps exposing the same documents while the
+ * consuming segment keeps indexing.
+ */
+public class RealtimeSegmentSnapshotTest {
+  private static final String TABLE_NAME = "testTable";
+  private static final String SEGMENT_NAME = "testTable__0__0__12345";
+  private static final int CAPACITY = 1000;
+  private static final int NUM_ROWS_IN_SNAPSHOT = 100;
+  private static final int NUM_ROWS_AFTER_SNAPSHOT = 50;
+
+  private static final String SINGLE_VALUE_COLUMN = "svDim";
+  private static final String MULTI_VALUE_COLUMN = "mvDim";
+  private static final String METRIC_COLUMN = "metric";
+  private static final String TIME_COLUMN = "time";
+
+  @Test
+  public void testSnapshot() throws Exception {
+    Schema schema = new Schema.SchemaBuilder().setSchemaName(TABLE_NAME)
+        .addSingleValueDimension(SINGLE_VALUE_COLUMN, FieldSpec.DataType.STRING)
+        .addMultiValueDimension(MULTI_VALUE_COLUMN, FieldSpec.DataType.INT)
+        .addMetric(METRIC_COLUMN, FieldSpec.DataType.LONG)
+        .addTime(TIME_COLUMN, TimeUnit.DAYS, FieldSpec.DataType.LONG)
+        .build();
+    RealtimeSegmentImpl realtimeSegment =
+        new RealtimeSegmentImpl(schema, CAPACITY, TABLE_NAME, SEGMENT_NAME, TABLE_NAME,
+            new ServerMetrics(new MetricsRegistry()), Arrays.asList(SINGLE_VALUE_COLUMN), 2);
+    RealtimeSegmentZKMetadata segmentZKMetadata = new RealtimeSegmentZKMetadata();
+    segmentZKMetadata.setSegmentName(SEGMENT_NAME);
+    segmentZKMetadata.setTableName(TABLE_NAME);
+    realtimeSegment.setSegmentMetadata(segmentZKMetadata, schema);
+
+    Random random = new Random(0);
+    String[] singleValues = new String[NUM_ROWS_IN_SNAPSHOT];
+    int[][] multiValues = new int[NUM_ROWS_IN_SNAPSHOT][];
+    for (int i = 0; i < NUM_ROWS_IN_SNAPSHOT; i++) {
+      singleValues[i] = "value" + random.nextInt(20);
+      multiValues[i] = new int[random.nextInt(2) + 1];
+      for (int j = 0; j < multiValues[i].length; j++) {
+        multiValues[i][j] = 10 * j + random.nextInt(10);
+      }
+      realtimeSegment.index(buildRow(singleValues[i], multiValues[i], random));
+    }
+
+    IndexSegment snapshot = realtimeSegment.snapshot();
+
+    for (int i = 0; i < NUM_ROWS_AFTER_SNAPSHOT; i++) {
+      realtimeSegment.index(buildRow("newValue" + i, new int[]{100 + i}, random));
+    }
+
+    int totalRows = NUM_ROWS_IN_SNAPSHOT + NUM_ROWS_AFTER_SNAPSHOT;
+    Assert.assertEquals(realtimeSegment.getSegmentMetadata().getTotalDocs(), totalRows);
+    Assert.assertEquals(snapshot.getSegmentMetadata().getTotalDocs(), NUM_ROWS_IN_SNAPSHOT);
+    Assert.assertEquals(snapshot.getSegmentMetadata().getTotalRawDocs(), NUM_ROWS_IN_SNAPSHOT);
+    Assert.assertEquals(snapshot.getSegmentMetadata().getName(), SEGMENT_NAME);
+
+    // Single-value column, read through the batched dictionary id API
+    DataSource singleValueDataSource = snapshot.getDataSource(SINGLE_VALUE_COLUMN);
+    Block singleValueBlock = singleValueDataSource.nextBlock();
+    Assert.assertEquals(singleValueBlock.getMetadata().getLength(), NUM_ROWS_IN_SNAPSHOT);
+    Dictionary singleValueDictionary = singleValueBlock.getMetadata().getDictionary();
+    int[] docIds = new int[NUM_ROWS_IN_SNAPSHOT];
+    for (int i = 0; i < NUM_ROWS_IN_SNAPSHOT; i++) {
+      docIds[i] = i;
+    }
+    int[] dictIds = new int[NUM_ROWS_IN_SNAPSHOT];
+    singleValueBlock.getBlockValueSet().getDictionaryIds(docIds, 0, NUM_ROWS_IN_SNAPSHOT, dictIds, 0);
+    for (int i = 0; i < NUM_ROWS_IN_SNAPSHOT; i++) {
+      Assert.assertEquals(singleValueDictionary.get(dictIds[i]), singleValues[i]);
+    }
+
+    // Multi-value column, read one document at a time
+    Block multiValueBlock = snapshot.getDataSource(MULTI_VALUE_COLUMN).nextBlock();
+    Assert.assertEquals(multiValueBlock.getMetadata().getLength(), NUM_ROWS_IN_SNAPSHOT);
+    Dictionary multiValueDictionary = multiValueBlock.getMetadata().getDictionary();
+    BlockValSet multiValueSet = multiValueBlock.getBlockValueSet();
+    int[] multiValueDictIds = new int[multiValueBlock.getMetadata().getMaxNumberOfMultiValues()];
+    for (int i = 0; i < NUM_ROWS_IN_SNAPSHOT; i++) {
+      int numValues = multiValueSet.getDictionaryIdsForDocId(i, multiValueDictIds);
+      Assert.assertEquals(numValues, multiValues[i].length);
+      int[] actualValues = new int[numValues];
+      for (int j = 0; j < numValues; j++) {
+        actualValues[j] = multiValueDictionary.getIntValue(multiValueDictIds[j]);
+      }
+      Arrays.sort(actualValues);
+      int[] expectedValues = multiValues[i].clone();
+      Arrays.sort(expectedValues);
+      Assert.assertEquals(actualValues, expectedValues);
+    }
+
+    // Data sources from the segment itself see the documents indexed after the snapshot
+    Assert.assertEquals(realtimeSegment.getDataSource(SINGLE_VALUE_COLUMN).nextBlock().getMetadata().getLength(),
+        totalRows);
+  }
+
+  private static GenericRow buildRow(String singleValue, int[] multiValues, Random random) {
+    Object[] multiValueObjects = new Object[multiValues.length];
+    for (int i = 0; i < multiValues.length; i++) {
+      multiValueObjects[i] = multiValues[i];
+    }
+    Map<String, Object> fields = new HashMap<>();
+    fields.put(SINGLE_VALUE_COLUMN, singleValue);
+    fields.put(MULTI_VALUE_COLUMN, multiValueObjects);
+    fields.put(METRIC_COLUMN, random.nextLong());
+    fields.put(TIME_COLUMN, 17000L + random.nextInt(10));
+    GenericRow row = new GenericRow();
+    row.init(fields);
+    return row;
+  }
+}
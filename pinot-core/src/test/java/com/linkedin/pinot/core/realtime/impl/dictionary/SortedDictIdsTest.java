@@ -0,0 +1,58 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.core.realtime.impl.dictionary;
+
+import java.util.Random;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+
+public class SortedDictIdsTest {
+  private static final int NUM_VALUES = 10000;
+
+  @Test
+  public void testSortedDictIds() {
+    Random random = new Random();
+    IntOnHeapMutableDictionary intDictionary = new IntOnHeapMutableDictionary();
+    DoubleOnHeapMutableDictionary doubleDictionary = new DoubleOnHeapMutableDictionary();
+    StringOnHeapMutableDictionary stringDictionary = new StringOnHeapMutableDictionary();
+    for (int i = 0; i < NUM_VALUES; i++) {
+      int value = random.nextInt();
+      intDictionary.index(value);
+      doubleDictionary.index((double) value);
+      stringDictionary.index(Integer.toString(value));
+    }
+
+    checkSortedDictIds(intDictionary);
+    checkSortedDictIds(doubleDictionary);
+    checkSortedDictIds(stringDictionary);
+  }
+
+  @SuppressWarnings("unchecked")
+  private void checkSortedDictIds(BaseOnHeapMutableDictionary dictionary) {
+    int[] sortedDictIds = dictionary.getSortedDictIds();
+    Assert.assertEquals(sortedDictIds.length, dictionary.length());
+    boolean[] seen = new boolean[sortedDictIds.length];
+    for (int i = 0; i < sortedDictIds.length; i++) {
+      Assert.assertFalse(seen[sortedDictIds[i]]);
+      seen[sortedDictIds[i]] = true;
+      if (i > 0) {
+        Comparable previousValue = (Comparable) dictionary.get(sortedDictIds[i - 1]);
+        Assert.assertTrue(previousValue.compareTo(dictionary.get(sortedDictIds[i])) < 0);
+      }
+    }
+  }
+}
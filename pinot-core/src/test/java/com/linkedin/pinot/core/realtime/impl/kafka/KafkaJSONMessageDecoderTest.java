@@ -0,0 +1,87 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.core.realtime.impl.kafka;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import com.linkedin.pinot.common.data.FieldSpec;
+import com.linkedin.pinot.common.data.Schema;
+import com.linkedin.pinot.core.data.GenericRow;
+
+
+/**
+ * Tests for the streaming JSON message decoder.
+ */
+public class KafkaJSONMessageDecoderTest {
+  private static final Schema SCHEMA = new Schema.SchemaBuilder()
+      .setSchemaName("testSchema")
+      .addSingleValueDimension("dimension", FieldSpec.DataType.STRING)
+      .addMultiValueDimension("multiValueDimension", FieldSpec.DataType.INT)
+      .addMetric("metric", FieldSpec.DataType.LONG)
+      .addTime("time", TimeUnit.DAYS, FieldSpec.DataType.INT)
+      .build();
+
+  @Test
+  public void testDecode() throws Exception {
+    KafkaJSONMessageDecoder decoder = new KafkaJSONMessageDecoder();
+    decoder.init(Collections.<String, String>emptyMap(), SCHEMA, "testTopic");
+
+    String message = "{\"ignored\": {\"nested\": [1, 2, {\"dimension\": \"wrong\"}]}, \"dimension\": \"value\", "
+        + "\"multiValueDimension\": [1, \"2\", 3], \"metric\": 1234567890123, \"time\": 17000, \"other\": [\"a\"]}";
+    byte[] payload = ("garbage" + message).getBytes(StandardCharsets.UTF_8);
+    GenericRow row = decoder.decode(payload, 7, payload.length - 7, new GenericRow());
+
+    Assert.assertNotNull(row);
+    Assert.assertEquals(row.getValue("dimension"), "value");
+    Assert.assertEquals((Object[]) row.getValue("multiValueDimension"), new Object[]{1, 2, 3});
+    Assert.assertEquals(row.getValue("metric"), 1234567890123L);
+    Assert.assertEquals(row.getValue("time"), 17000);
+    Assert.assertNull(row.getValue("ignored"));
+    Assert.assertNull(row.getValue("other"));
+  }
+
+  @Test
+  public void testMissingAndNullFields() throws Exception {
+    KafkaJSONMessageDecoder decoder = new KafkaJSONMessageDecoder();
+    decoder.init(Collections.<String, String>emptyMap(), SCHEMA, "testTopic");
+
+    // First message has all columns, the second one must not see any of its values
+    GenericRow row = new GenericRow();
+    decoder.decode("{\"dimension\": \"value\", \"multiValueDimension\": [1], \"metric\": 1, \"time\": 1}"
+        .getBytes(StandardCharsets.UTF_8), row);
+    row = decoder.decode("{\"dimension\": null, \"multiValueDimension\": []}".getBytes(StandardCharsets.UTF_8), row);
+
+    Assert.assertNotNull(row);
+    Assert.assertEquals(row.getValue("dimension"), SCHEMA.getFieldSpecFor("dimension").getDefaultNullValue());
+    Assert.assertEquals((Object[]) row.getValue("multiValueDimension"),
+        new Object[]{SCHEMA.getFieldSpecFor("multiValueDimension").getDefaultNullValue()});
+    Assert.assertEquals(row.getValue("metric"), SCHEMA.getFieldSpecFor("metric").getDefaultNullValue());
+    Assert.assertEquals(row.getValue("time"), SCHEMA.getFieldSpecFor("time").getDefaultNullValue());
+  }
+
+  @Test
+  public void testInvalidMessage() throws Exception {
+    KafkaJSONMessageDecoder decoder = new KafkaJSONMessageDecoder();
+    decoder.init(Collections.<String, String>emptyMap(), SCHEMA, "testTopic");
+
+    Assert.assertNull(decoder.decode("[1, 2, 3]".getBytes(StandardCharsets.UTF_8), new GenericRow()));
+    Assert.assertNull(decoder.decode("{\"metric\": \"notANumber\"}".getBytes(StandardCharsets.UTF_8),
+        new GenericRow()));
+  }
+}
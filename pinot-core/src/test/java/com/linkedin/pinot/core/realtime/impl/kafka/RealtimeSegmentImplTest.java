@@ -78,4 +78,36 @@ public class RealtimeSegmentImplTest {
     Assert.assertEquals(notFull, true);
     Assert.assertEquals(realtimeSegment.getRawDocumentCount(), 2);
   }
+
+  @Test
+  public void testEstimatedMemoryUsage() throws Exception {
+    Schema schema = new Schema.SchemaBuilder()
+        .setSchemaName("potato")
+        .addSingleValueDimension("dimension", FieldSpec.DataType.STRING)
+        .addMetric("metric", FieldSpec.DataType.LONG)
+        .addTime("time", TimeUnit.SECONDS, FieldSpec.DataType.LONG)
+        .build();
+    int capacity = 1000;
+
+    RealtimeSegmentImpl realtimeSegment = createRealtimeSegmentImpl(schema, capacity, "noTable", "noSegment",
+        schema.getSchemaName(), new ServerMetrics(new MetricsRegistry()));
+
+    // The forward indexes are allocated for the capacity up front
+    long forwardIndexSize = 3L * capacity * Integer.SIZE / Byte.SIZE;
+    long estimatedMemoryUsage = realtimeSegment.getEstimatedMemoryUsageInBytes();
+    Assert.assertTrue(estimatedMemoryUsage >= forwardIndexSize);
+
+    Map<String, Object> genericRowContents = new HashMap<>();
+    genericRowContents.put("dimension", "potato");
+    genericRowContents.put("metric", 1234L);
+    genericRowContents.put("time", 4567L);
+    GenericRow row = new GenericRow();
+    row.init(genericRowContents);
+    realtimeSegment.index(row);
+
+    // Only the dictionaries grow with the rows indexed
+    long dictionarySize = realtimeSegment.getEstimatedMemoryUsageInBytes() - forwardIndexSize;
+    Assert.assertTrue(dictionarySize > 0);
+    Assert.assertTrue(dictionarySize < forwardIndexSize);
+  }
 }
@@ -0,0 +1,254 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.core.segment.creator;
+
+import com.google.common.io.Files;
+import com.linkedin.pinot.common.data.DimensionFieldSpec;
+import com.linkedin.pinot.common.data.FieldSpec;
+import com.linkedin.pinot.common.data.MetricFieldSpec;
+import com.linkedin.pinot.common.data.Schema;
+import com.linkedin.pinot.common.data.TimeFieldSpec;
+import com.linkedin.pinot.common.data.TimeGranularitySpec;
+import com.linkedin.pinot.core.data.GenericRow;
+import com.linkedin.pinot.core.data.readers.PinotSegmentRecordReader;
+import com.linkedin.pinot.core.data.readers.TestRecordReader;
+import com.linkedin.pinot.core.indexsegment.generator.SegmentGeneratorConfig;
+import com.linkedin.pinot.core.segment.creator.impl.SegmentIndexCreationDriverImpl;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.apache.commons.io.FileUtils;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+
+/**
+ * Tests that segments built in a single pass over the input records, or with parallel index creation, are identical
+ * to segments built sequentially in two passes.
+ */
+public class SinglePassSegmentCreationDataSourceTest {
+  private static final int NUM_ROWS = 10000;
+  private static final String D_SV = "d_sv";
+  private static final String D_MV = "d_mv";
+  private static final String M_INT = "m_int";
+  private static final String M_DOUBLE = "m_double";
+  private static final String TIME = "t";
+
+  private File _outputDir;
+  private Schema _schema;
+
+  @BeforeClass
+  public void setUp() {
+    _outputDir = Files.createTempDir();
+
+    _schema = new Schema();
+    _schema.setSchemaName("singlePassSchema");
+    _schema.addField(new DimensionFieldSpec(D_SV, FieldSpec.DataType.STRING, true));
+    _schema.addField(new DimensionFieldSpec(D_MV, FieldSpec.DataType.INT, false));
+    _schema.addField(new MetricFieldSpec(M_INT, FieldSpec.DataType.INT));
+    _schema.addField(new MetricFieldSpec(M_DOUBLE, FieldSpec.DataType.DOUBLE));
+    _schema.addField(new TimeFieldSpec(new TimeGranularitySpec(FieldSpec.DataType.LONG, TimeUnit.DAYS, TIME)));
+  }
+
+  /**
+   * Returns the same rows on each call, as the rows are modified in place while building a segment.
+   */
+  private List<GenericRow> createRows() {
+    Random random = new Random(42);
+    List<GenericRow> rows = new ArrayList<>(NUM_ROWS);
+    for (int i = 0; i < NUM_ROWS; i++) {
+      Map<String, Object> fields = new HashMap<>();
+      fields.put(D_SV, "value_" + random.nextInt(500));
+      Object[] multiValues = new Object[1 + random.nextInt(4)];
+      for (int j = 0; j < multiValues.length; j++) {
+        multiValues[j] = random.nextInt(100);
+      }
+      fields.put(D_MV, multiValues);
+      fields.put(M_INT, random.nextInt(1000));
+      fields.put(M_DOUBLE, random.nextDouble());
+      fields.put(TIME, 17000L + random.nextInt(30));
+      GenericRow row = new GenericRow();
+      row.init(fields);
+      rows.add(row);
+    }
+    return rows;
+  }
+
+  @Test
+  public void testSinglePassSegmentCreation() throws Exception {
+    File twoPassSegmentDir = buildSegment("twoPass",
+        new RecordReaderSegmentCreationDataSource(new TestRecordReader(createRows(), _schema)), 1);
+    File singlePassTempDir = new File(_outputDir, "singlePassTemp");
+    SinglePassSegmentCreationDataSource singlePassDataSource =
+        new SinglePassSegmentCreationDataSource(new TestRecordReader(createRows(), _schema), singlePassTempDir);
+    File singlePassSegmentDir = buildSegment("singlePass", singlePassDataSource, 1);
+
+    // Spilled dictionary ids are cleaned up once the segment is built
+    Assert.assertFalse(singlePassTempDir.exists());
+    // The extraction stats come from the single pass over the input records
+    Assert.assertNotNull(singlePassDataSource.getFieldExtractor());
+    Assert.assertEquals(singlePassDataSource.getFieldExtractor().getTotalErrors(), 0);
+    assertSameRows(singlePassSegmentDir, twoPassSegmentDir);
+  }
+
+  @Test
+  public void testParallelIndexCreation() throws Exception {
+    File sequentialSegmentDir = buildSegment("sequential",
+        new RecordReaderSegmentCreationDataSource(new TestRecordReader(createRows(), _schema)), 1);
+    File parallelSegmentDir = buildSegment("parallel", new SinglePassSegmentCreationDataSource(
+        new TestRecordReader(createRows(), _schema), new File(_outputDir, "parallelTemp")), 4);
+    File parallelTwoPassSegmentDir = buildSegment("parallelTwoPass",
+        new RecordReaderSegmentCreationDataSource(new TestRecordReader(createRows(), _schema)), 4);
+
+    assertSameRows(parallelSegmentDir, sequentialSegmentDir);
+    assertSameRows(parallelTwoPassSegmentDir, sequentialSegmentDir);
+  }
+
+  @Test
+  public void testIndexCreationThreadsReleasedOnFailure() throws Exception {
+    // Fails half way through the second pass, once the index creator is initialized
+    TestRecordReader failingRecordReader = new TestRecordReader(createRows(), _schema) {
+      private int _numRowsRead = 0;
+
+      @Override
+      public GenericRow next() {
+        if (++_numRowsRead > NUM_ROWS + NUM_ROWS / 2) {
+          throw new IllegalStateException("Failed to read row");
+        }
+        return super.next();
+      }
+    };
+    try {
+      buildSegment("failed", new RecordReaderSegmentCreationDataSource(failingRecordReader), 4);
+      Assert.fail("Segment creation should have failed");
+    } catch (IllegalStateException e) {
+      // Expected
+    }
+
+    long deadline = System.currentTimeMillis() + 10000L;
+    while (hasIndexCreationThreads() && System.currentTimeMillis() < deadline) {
+      Thread.sleep(100L);
+    }
+    Assert.assertFalse(hasIndexCreationThreads());
+  }
+
+  private static boolean hasIndexCreationThreads() {
+    for (Thread thread : Thread.getAllStackTraces().keySet()) {
+      if (thread.isAlive() && thread.getName().startsWith("SegmentIndexCreation-")) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private void assertSameRows(File actualSegmentDir, File expectedSegmentDir) throws Exception {
+    PinotSegmentRecordReader expectedReader = new PinotSegmentRecordReader(expectedSegmentDir);
+    PinotSegmentRecordReader actualReader = new PinotSegmentRecordReader(actualSegmentDir);
+    expectedReader.init();
+    actualReader.init();
+    int numRows = 0;
+    while (expectedReader.hasNext()) {
+      Assert.assertTrue(actualReader.hasNext());
+      GenericRow expected = expectedReader.next();
+      GenericRow actual = actualReader.next();
+      for (FieldSpec fieldSpec : _schema.getAllFieldSpecs()) {
+        String column = fieldSpec.getName();
+        if (fieldSpec.isSingleValueField()) {
+          Assert.assertEquals(actual.getValue(column), expected.getValue(column), column);
+        } else {
+          Assert.assertEquals((Object[]) actual.getValue(column), (Object[]) expected.getValue(column), column);
+        }
+      }
+      numRows++;
+    }
+    Assert.assertFalse(actualReader.hasNext());
+    Assert.assertEquals(numRows, NUM_ROWS);
+    expectedReader.close();
+    actualReader.close();
+  }
+
+  @Test
+  public void testSpilledColumn() throws Exception {
+    File tempDir = new File(_outputDir, "spilledColumn");
+    FileUtils.forceMkdir(tempDir);
+    SpilledDictionaryEncodedColumn singleValueColumn = new SpilledDictionaryEncodedColumn(D_SV, true, tempDir);
+    SpilledDictionaryEncodedColumn multiValueColumn = new SpilledDictionaryEncodedColumn(D_MV, false, tempDir);
+    List<GenericRow> rows = createRows();
+    for (GenericRow row : rows) {
+      singleValueColumn.add(row.getValue(D_SV));
+      multiValueColumn.add(row.getValue(D_MV));
+    }
+    singleValueColumn.seal();
+    multiValueColumn.seal();
+
+    Assert.assertEquals(singleValueColumn.getNumDocs(), NUM_ROWS);
+    Assert.assertEquals(multiValueColumn.getNumDocs(), NUM_ROWS);
+    int[] dictIds = new int[multiValueColumn.getMaxNumberOfMultiValues()];
+    for (int docId = 0; docId < NUM_ROWS; docId++) {
+      GenericRow row = rows.get(docId);
+      Assert.assertEquals(singleValueColumn.getValue(singleValueColumn.getDictionaryId(docId)), row.getValue(D_SV));
+      Object[] expectedValues = (Object[]) row.getValue(D_MV);
+      int numValues = multiValueColumn.getDictionaryIds(docId, dictIds);
+      Assert.assertEquals(numValues, expectedValues.length);
+      for (int i = 0; i < numValues; i++) {
+        Assert.assertEquals(multiValueColumn.getValue(dictIds[i]), expectedValues[i]);
+      }
+    }
+
+    singleValueColumn.close();
+    multiValueColumn.close();
+
+    // Enough values to spill the staging buffer multiple times
+    int numValues = 1000000;
+    SpilledDictionaryEncodedColumn largeColumn = new SpilledDictionaryEncodedColumn(M_INT, true, tempDir);
+    for (int i = 0; i < numValues; i++) {
+      largeColumn.add(i % 1000);
+    }
+    largeColumn.seal();
+    Assert.assertEquals(largeColumn.getCardinality(), 1000);
+    for (int docId = 0; docId < numValues; docId++) {
+      Assert.assertEquals(largeColumn.getValue(largeColumn.getDictionaryId(docId)), docId % 1000);
+    }
+    largeColumn.close();
+  }
+
+  private File buildSegment(String segmentName, SegmentCreationDataSource dataSource, int numIndexCreationThreads)
+      throws Exception {
+    SegmentGeneratorConfig config = new SegmentGeneratorConfig(_schema);
+    config.setTableName("singlePassTable");
+    config.setSegmentName(segmentName);
+    config.setOutDir(_outputDir.getAbsolutePath());
+    config.setInvertedIndexCreationColumns(Arrays.asList(D_SV, D_MV));
+    config.setNumIndexCreationThreads(numIndexCreationThreads);
+
+    SegmentIndexCreationDriverImpl driver = new SegmentIndexCreationDriverImpl();
+    driver.init(config, dataSource);
+    driver.build();
+    return new File(_outputDir, segmentName);
+  }
+
+  @AfterClass
+  public void tearDown() {
+    FileUtils.deleteQuietly(_outputDir);
+  }
+}
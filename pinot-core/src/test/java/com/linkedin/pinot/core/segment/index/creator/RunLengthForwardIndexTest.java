@@ -0,0 +1,237 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.core.segment.index.creator;
+
+import com.linkedin.pinot.common.data.DimensionFieldSpec;
+import com.linkedin.pinot.common.data.FieldSpec;
+import com.linkedin.pinot.common.data.Schema;
+import com.linkedin.pinot.common.segment.ReadMode;
+import com.linkedin.pinot.core.common.BlockDocIdIterator;
+import com.linkedin.pinot.core.common.BlockSingleValIterator;
+import com.linkedin.pinot.core.common.Constants;
+import com.linkedin.pinot.core.common.DataSource;
+import com.linkedin.pinot.core.common.Predicate;
+import com.linkedin.pinot.core.common.predicate.EqPredicate;
+import com.linkedin.pinot.core.common.predicate.NEqPredicate;
+import com.linkedin.pinot.core.common.predicate.RangePredicate;
+import com.linkedin.pinot.core.data.GenericRow;
+import com.linkedin.pinot.core.data.readers.TestRecordReader;
+import com.linkedin.pinot.core.indexsegment.IndexSegment;
+import com.linkedin.pinot.core.indexsegment.generator.SegmentGeneratorConfig;
+import com.linkedin.pinot.core.io.reader.impl.RunLengthReaderContext;
+import com.linkedin.pinot.core.io.reader.impl.RunLengthSingleValueReader;
+import com.linkedin.pinot.core.operator.blocks.BaseFilterBlock;
+import com.linkedin.pinot.core.operator.filter.RunLengthBasedFilterOperator;
+import com.linkedin.pinot.core.segment.creator.impl.SegmentIndexCreationDriverImpl;
+import com.linkedin.pinot.core.segment.creator.impl.V1Constants;
+import com.linkedin.pinot.core.segment.creator.impl.fwd.SingleValueRunLengthForwardIndexCreator;
+import com.linkedin.pinot.core.segment.index.ColumnMetadata;
+import com.linkedin.pinot.core.segment.index.SegmentMetadataImpl;
+import com.linkedin.pinot.core.segment.index.loader.IndexLoadingConfig;
+import com.linkedin.pinot.core.segment.index.loader.Loaders;
+import com.linkedin.pinot.core.segment.index.readers.Dictionary;
+import com.linkedin.pinot.core.segment.memory.PinotDataBuffer;
+import java.io.File;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import org.apache.commons.io.FileUtils;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+
+/**
+ * Unit test for run length encoded forward indexes:
+ * <ul>
+ *   <li> Test to cover the run length creator and reader. </li>
+ *   <li> Test to cover segment creation, value reads and run based filtering. </li>
+ * </ul>
+ */
+public class RunLengthForwardIndexTest {
+  private static final String SEGMENT_DIR_NAME =
+      System.getProperty("java.io.tmpdir") + File.separator + "runLengthForwardIndexTest";
+  private static final String TABLE_NAME = "runLengthTable";
+
+  private static final int NUM_ROWS = 10000;
+  private static final int NUM_DOCS_PER_RUN = 100;
+  private static final int NUM_VALUES = 7;
+  private static final String COLUMN_NAME = "column";
+
+  private Schema _schema;
+  private List<GenericRow> _rows;
+
+  @BeforeClass
+  public void setUp() {
+    _schema = new Schema();
+    _schema.addField(new DimensionFieldSpec(COLUMN_NAME, FieldSpec.DataType.INT, true));
+
+    // Values are clustered in runs, but the column is not sorted
+    _rows = new ArrayList<>(NUM_ROWS);
+    for (int row = 0; row < NUM_ROWS; row++) {
+      Map<String, Object> map = new HashMap<>();
+      map.put(COLUMN_NAME, getValue(row));
+      GenericRow genericRow = new GenericRow();
+      genericRow.init(map);
+      _rows.add(genericRow);
+    }
+  }
+
+  private static int getValue(int row) {
+    return (row / NUM_DOCS_PER_RUN) % NUM_VALUES;
+  }
+
+  @AfterClass
+  public void cleanup() {
+    FileUtils.deleteQuietly(new File(SEGMENT_DIR_NAME));
+  }
+
+  @Test
+  public void testReader()
+      throws Exception {
+    File indexDir = new File(SEGMENT_DIR_NAME, "reader");
+    FileUtils.forceMkdir(indexDir);
+    int[] dictIds = new int[]{3, 3, 3, 1, 2, 2, 3, 3, 0, 0, 0, 0};
+    int numDocs = dictIds.length;
+    SingleValueRunLengthForwardIndexCreator creator = new SingleValueRunLengthForwardIndexCreator(indexDir,
+        new DimensionFieldSpec(COLUMN_NAME, FieldSpec.DataType.INT, true));
+    for (int docId = 0; docId < numDocs; docId++) {
+      creator.index(docId, dictIds[docId]);
+    }
+    Assert.assertEquals(creator.getNumRuns(), 5);
+    creator.close();
+
+    File indexFile = new File(indexDir, COLUMN_NAME + V1Constants.Indexes.RUN_LENGTH_SV_FWD_IDX_FILE_EXTENTION);
+    Assert.assertEquals(indexFile.length(), 5 * 8);
+    RunLengthSingleValueReader reader = new RunLengthSingleValueReader(
+        PinotDataBuffer.fromFile(indexFile, ReadMode.heap, FileChannel.MapMode.READ_ONLY, "testing"), numDocs);
+    try {
+      Assert.assertEquals(reader.getNumRuns(), 5);
+      Assert.assertEquals(reader.getRunStartDocId(2), 4);
+      Assert.assertEquals(reader.getRunEndDocId(2), 5);
+      Assert.assertEquals(reader.getRunDictId(2), 2);
+      Assert.assertEquals(reader.getRunEndDocId(4), numDocs - 1);
+      Assert.assertEquals(reader.getRunId(0), 0);
+      Assert.assertEquals(reader.getRunId(7), 3);
+      Assert.assertEquals(reader.getRunId(11), 4);
+
+      // Random and sequential accesses
+      RunLengthReaderContext context = reader.createContext();
+      for (int docId : new int[]{11, 0, 5, 6, 7, 8, 2, 3}) {
+        Assert.assertEquals(reader.getInt(docId), dictIds[docId]);
+        Assert.assertEquals(reader.getInt(docId, context), dictIds[docId]);
+      }
+
+      int[] values = new int[numDocs + 1];
+      reader.readValues(1, numDocs - 1, values, 1);
+      Assert.assertEquals(Arrays.copyOfRange(values, 1, numDocs), Arrays.copyOfRange(dictIds, 1, numDocs));
+
+      int[] rows = new int[]{0, 2, 3, 5, 9, 10, 11};
+      reader.readValues(rows, 1, rows.length - 1, values, 0);
+      for (int i = 1; i < rows.length; i++) {
+        Assert.assertEquals(values[i - 1], dictIds[rows[i]]);
+      }
+    } finally {
+      reader.close();
+    }
+  }
+
+  @Test
+  public void testSegment()
+      throws Exception {
+    SegmentGeneratorConfig config = new SegmentGeneratorConfig(_schema);
+    config.setRunLengthEncodedColumns(Collections.singletonList(COLUMN_NAME));
+    IndexLoadingConfig indexLoadingConfig = new IndexLoadingConfig();
+    indexLoadingConfig.setInvertedIndexColumns(new HashSet<>(Collections.singletonList(COLUMN_NAME)));
+    IndexSegment segment = buildSegment("segment", config, indexLoadingConfig);
+    try {
+      ColumnMetadata columnMetadata =
+          ((SegmentMetadataImpl) segment.getSegmentMetadata()).getColumnMetadataFor(COLUMN_NAME);
+      Assert.assertTrue(columnMetadata.isRunLengthEncoded());
+      Assert.assertFalse(columnMetadata.isSorted());
+
+      DataSource dataSource = segment.getDataSource(COLUMN_NAME);
+      RunLengthSingleValueReader runLengthIndex = dataSource.getRunLengthIndex();
+      Assert.assertNotNull(runLengthIndex);
+      Assert.assertEquals(runLengthIndex.getNumRuns(), NUM_ROWS / NUM_DOCS_PER_RUN);
+
+      // Values read through the block iterator
+      Dictionary dictionary = dataSource.getDictionary();
+      BlockSingleValIterator valueIterator =
+          (BlockSingleValIterator) dataSource.nextBlock().getBlockValueSet().iterator();
+      for (int docId = 0; docId < NUM_ROWS; docId++) {
+        Assert.assertEquals(dictionary.getIntValue(valueIterator.nextIntVal()), getValue(docId));
+      }
+
+      // Inverted index built on segment load from the run length encoded forward index
+      Assert.assertEquals(segment.getDataSource(COLUMN_NAME).getInvertedIndex().getImmutable(dictionary.indexOf(3))
+          .getCardinality(), getExpectedDocIds(3, 3, false).size());
+
+      checkFilter(segment, new EqPredicate(COLUMN_NAME, Collections.singletonList("3")), 3, 3, false);
+      checkFilter(segment, new NEqPredicate(COLUMN_NAME, Collections.singletonList("3")), 3, 3, true);
+      checkFilter(segment,
+          new RangePredicate(COLUMN_NAME, Collections.singletonList("[2" + RangePredicate.DELIMITER + "4]")), 2, 4,
+          false);
+    } finally {
+      segment.destroy();
+    }
+  }
+
+  private void checkFilter(IndexSegment segment, Predicate predicate, int lower, int upper, boolean negate) {
+    // Data sources only hand out a single block, so get a new one for each filter
+    DataSource dataSource = segment.getDataSource(COLUMN_NAME);
+    RunLengthBasedFilterOperator filterOperator =
+        new RunLengthBasedFilterOperator(predicate, dataSource, 0, NUM_ROWS - 1);
+    BaseFilterBlock filterBlock = filterOperator.getNextBlock();
+    BlockDocIdIterator iterator = filterBlock.getFilteredBlockDocIdSet().iterator();
+    List<Integer> actualDocIds = new ArrayList<>();
+    int docId;
+    while ((docId = iterator.next()) != Constants.EOF) {
+      actualDocIds.add(docId);
+    }
+    Assert.assertEquals(actualDocIds, getExpectedDocIds(lower, upper, negate));
+  }
+
+  private List<Integer> getExpectedDocIds(int lower, int upper, boolean negate) {
+    List<Integer> expectedDocIds = new ArrayList<>();
+    for (int docId = 0; docId < NUM_ROWS; docId++) {
+      int value = getValue(docId);
+      if ((value >= lower && value <= upper) != negate) {
+        expectedDocIds.add(docId);
+      }
+    }
+    return expectedDocIds;
+  }
+
+  private IndexSegment buildSegment(String segmentName, SegmentGeneratorConfig config,
+      IndexLoadingConfig indexLoadingConfig)
+      throws Exception {
+    config.setOutDir(SEGMENT_DIR_NAME);
+    config.setSegmentName(segmentName);
+    config.setTableName(TABLE_NAME);
+
+    SegmentIndexCreationDriverImpl driver = new SegmentIndexCreationDriverImpl();
+    driver.init(config, new TestRecordReader(_rows, _schema));
+    driver.build();
+    return Loaders.IndexSegment.load(new File(SEGMENT_DIR_NAME, segmentName), indexLoadingConfig);
+  }
+}
@@ -0,0 +1,223 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.core.segment.index.creator;
+
+import com.linkedin.pinot.common.data.DimensionFieldSpec;
+import com.linkedin.pinot.common.data.FieldSpec;
+import com.linkedin.pinot.common.data.Schema;
+import com.linkedin.pinot.common.segment.ReadMode;
+import com.linkedin.pinot.core.common.BlockDocIdIterator;
+import com.linkedin.pinot.core.common.Constants;
+import com.linkedin.pinot.core.common.DataSource;
+import com.linkedin.pinot.core.common.Predicate;
+import com.linkedin.pinot.core.common.predicate.EqPredicate;
+import com.linkedin.pinot.core.common.predicate.RangePredicate;
+import com.linkedin.pinot.core.data.GenericRow;
+import com.linkedin.pinot.core.data.readers.TestRecordReader;
+import com.linkedin.pinot.core.indexsegment.IndexSegment;
+import com.linkedin.pinot.core.indexsegment.generator.SegmentGeneratorConfig;
+import com.linkedin.pinot.core.operator.blocks.BaseFilterBlock;
+import com.linkedin.pinot.core.operator.docidsets.FilterBlockDocIdSet;
+import com.linkedin.pinot.core.operator.filter.ScanBasedFilterOperator;
+import com.linkedin.pinot.core.segment.creator.impl.SegmentIndexCreationDriverImpl;
+import com.linkedin.pinot.core.segment.creator.impl.zonemap.ZoneMapCreator;
+import com.linkedin.pinot.core.segment.index.loader.IndexLoadingConfig;
+import com.linkedin.pinot.core.segment.index.loader.Loaders;
+import com.linkedin.pinot.core.segment.index.readers.ZoneMapReader;
+import com.linkedin.pinot.core.segment.memory.PinotDataBuffer;
+import java.io.File;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import org.apache.commons.io.FileUtils;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+
+/**
+ * Unit test for zone maps:
+ * <ul>
+ *   <li> Test to cover zone map generation during segment creation and segment pre-processing. </li>
+ *   <li> Test to cover block skipping in scan based filters. </li>
+ * </ul>
+ */
+public class ZoneMapTest {
+  private static final String SEGMENT_DIR_NAME =
+      System.getProperty("java.io.tmpdir") + File.separator + "zoneMapTest";
+  private static final String TABLE_NAME = "zoneMapTable";
+
+  private static final int NUM_ROWS = 4 * ZoneMapCreator.DEFAULT_NUM_DOCS_PER_BLOCK;
+  private static final int NUM_DOCS_PER_VALUE = 1000;
+  private static final String SV_COLUMN_NAME = "svColumn";
+  private static final String MV_COLUMN_NAME = "mvColumn";
+
+  private Schema _schema;
+  private List<GenericRow> _rows;
+
+  @BeforeClass
+  public void setUp() {
+    _schema = new Schema();
+    _schema.addField(new DimensionFieldSpec(SV_COLUMN_NAME, FieldSpec.DataType.INT, true));
+    _schema.addField(new DimensionFieldSpec(MV_COLUMN_NAME, FieldSpec.DataType.INT, false));
+
+    // Values increase along with the doc id (like a time column), but the column is not sorted
+    _rows = new ArrayList<>(NUM_ROWS);
+    for (int row = 0; row < NUM_ROWS; row++) {
+      int value = row / NUM_DOCS_PER_VALUE + row % 2;
+      Map<String, Object> map = new HashMap<>();
+      map.put(SV_COLUMN_NAME, value);
+      map.put(MV_COLUMN_NAME, new Object[]{value, value + 1});
+      GenericRow genericRow = new GenericRow();
+      genericRow.init(map);
+      _rows.add(genericRow);
+    }
+  }
+
+  @AfterClass
+  public void cleanup() {
+    FileUtils.deleteQuietly(new File(SEGMENT_DIR_NAME));
+  }
+
+  @Test
+  public void testZoneMapReader()
+      throws Exception {
+    File indexDir = new File(SEGMENT_DIR_NAME, "reader");
+    FileUtils.forceMkdir(indexDir);
+    ZoneMapCreator creator = new ZoneMapCreator(indexDir, SV_COLUMN_NAME, 10, 4);
+    for (int docId = 0; docId < 8; docId++) {
+      creator.add(docId, docId);
+    }
+    // Leave the last block empty
+    creator.seal();
+
+    File zoneMapFile = new File(indexDir, SV_COLUMN_NAME + ".zonemap");
+    Assert.assertTrue(zoneMapFile.exists());
+    ZoneMapReader reader = new ZoneMapReader(
+        PinotDataBuffer.fromFile(zoneMapFile, ReadMode.heap, FileChannel.MapMode.READ_ONLY, "testing"));
+    Assert.assertEquals(reader.getNumDocsPerBlock(), 4);
+    Assert.assertEquals(reader.getNumBlocks(), 3);
+    Assert.assertEquals(reader.getMinDictId(0), 0);
+    Assert.assertEquals(reader.getMaxDictId(0), 3);
+    Assert.assertEquals(reader.getMinDictId(1), 4);
+    Assert.assertEquals(reader.getMaxDictId(1), 7);
+
+    Assert.assertTrue(Arrays.equals(reader.getMatchingBlocks(new int[]{2}), new boolean[]{true, false, false}));
+    Assert.assertTrue(Arrays.equals(reader.getMatchingBlocks(new int[]{3, 4}), new boolean[]{true, true, false}));
+    Assert.assertTrue(Arrays.equals(reader.getMatchingBlocks(new int[]{8, 9}), new boolean[]{false, false, false}));
+  }
+
+  @Test
+  public void testSegmentCreation()
+      throws Exception {
+    SegmentGeneratorConfig config = new SegmentGeneratorConfig(_schema);
+    config.setZoneMapCreationColumns(Arrays.asList(SV_COLUMN_NAME, MV_COLUMN_NAME));
+    IndexSegment segment = buildSegment("creation", config, new IndexLoadingConfig());
+    try {
+      checkFilters(segment);
+    } finally {
+      segment.destroy();
+    }
+  }
+
+  @Test
+  public void testSegmentPreProcessing()
+      throws Exception {
+    IndexLoadingConfig indexLoadingConfig = new IndexLoadingConfig();
+    indexLoadingConfig.setZoneMapColumns(new HashSet<>(Arrays.asList(SV_COLUMN_NAME, MV_COLUMN_NAME)));
+    IndexSegment segment = buildSegment("preProcessing", new SegmentGeneratorConfig(_schema), indexLoadingConfig);
+    try {
+      checkFilters(segment);
+    } finally {
+      segment.destroy();
+    }
+  }
+
+  /**
+   * Ensures that zone maps are loaded, that the filter results are not affected by block skipping and that only the
+   * matching blocks are scanned.
+   */
+  private void checkFilters(IndexSegment segment)
+      throws Exception {
+    for (String column : new String[]{SV_COLUMN_NAME, MV_COLUMN_NAME}) {
+      DataSource dataSource = segment.getDataSource(column);
+      ZoneMapReader zoneMap = dataSource.getZoneMap();
+      Assert.assertNotNull(zoneMap);
+      Assert.assertEquals(zoneMap.getNumBlocks(), 4);
+
+      // Value 10 only appears in the first block
+      Predicate eqPredicate = new EqPredicate(column, Collections.singletonList("10"));
+      checkFilter(segment, eqPredicate, column, 10, 10);
+
+      // Values in [200, 210] only appear in the fourth block
+      Predicate rangePredicate =
+          new RangePredicate(column, Collections.singletonList("[200" + RangePredicate.DELIMITER + "210]"));
+      checkFilter(segment, rangePredicate, column, 200, 210);
+    }
+  }
+
+  private void checkFilter(IndexSegment segment, Predicate predicate, String column, int lower, int upper) {
+    List<Integer> expectedDocIds = new ArrayList<>();
+    for (int docId = 0; docId < NUM_ROWS; docId++) {
+      Object value = _rows.get(docId).getValue(column);
+      Object[] values = (value instanceof Object[]) ? (Object[]) value : new Object[]{value};
+      for (Object v : values) {
+        int intValue = (Integer) v;
+        if (intValue >= lower && intValue <= upper) {
+          expectedDocIds.add(docId);
+          break;
+        }
+      }
+    }
+
+    // Data sources only hand out a single block, so get a new one for each filter
+    DataSource dataSource = segment.getDataSource(column);
+    ScanBasedFilterOperator filterOperator = new ScanBasedFilterOperator(predicate, dataSource, 0, NUM_ROWS - 1);
+    BaseFilterBlock filterBlock = filterOperator.getNextBlock();
+    FilterBlockDocIdSet docIdSet = filterBlock.getFilteredBlockDocIdSet();
+    BlockDocIdIterator iterator = docIdSet.iterator();
+    List<Integer> actualDocIds = new ArrayList<>();
+    int docId;
+    while ((docId = iterator.next()) != Constants.EOF) {
+      actualDocIds.add(docId);
+    }
+    Assert.assertEquals(actualDocIds, expectedDocIds);
+
+    // Only one of the four blocks should have been scanned
+    long numEntriesScanned = docIdSet.getNumEntriesScannedInFilter();
+    Assert.assertTrue(numEntriesScanned <= ZoneMapCreator.DEFAULT_NUM_DOCS_PER_BLOCK,
+        "Scanned " + numEntriesScanned + " entries");
+  }
+
+  private IndexSegment buildSegment(String segmentName, SegmentGeneratorConfig config,
+      IndexLoadingConfig indexLoadingConfig)
+      throws Exception {
+    config.setOutDir(SEGMENT_DIR_NAME);
+    config.setSegmentName(segmentName);
+    config.setTableName(TABLE_NAME);
+
+    SegmentIndexCreationDriverImpl driver = new SegmentIndexCreationDriverImpl();
+    driver.init(config, new TestRecordReader(_rows, _schema));
+    driver.build();
+    return Loaders.IndexSegment.load(new File(SEGMENT_DIR_NAME, segmentName), indexLoadingConfig);
+  }
+}
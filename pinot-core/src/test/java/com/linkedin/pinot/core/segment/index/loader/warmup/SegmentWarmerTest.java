@@ -0,0 +1,108 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.core.segment.index.loader.warmup;
+
+import com.linkedin.pinot.common.segment.ReadMode;
+import com.linkedin.pinot.core.indexsegment.IndexSegment;
+import com.linkedin.pinot.core.indexsegment.generator.SegmentGeneratorConfig;
+import com.linkedin.pinot.core.indexsegment.generator.SegmentVersion;
+import com.linkedin.pinot.core.segment.creator.SegmentIndexCreationDriver;
+import com.linkedin.pinot.core.segment.creator.impl.SegmentCreationDriverFactory;
+import com.linkedin.pinot.core.segment.index.SegmentMetadataImpl;
+import com.linkedin.pinot.core.segment.index.loader.IndexLoadingConfig;
+import com.linkedin.pinot.core.segment.index.loader.Loaders;
+import com.linkedin.pinot.core.segment.store.ColumnIndexType;
+import com.linkedin.pinot.core.segment.store.SegmentDirectory;
+import com.linkedin.pinot.core.segment.store.SegmentDirectoryPaths;
+import com.linkedin.pinot.segments.v1.creator.SegmentTestUtils;
+import com.linkedin.pinot.util.TestUtils;
+import java.io.File;
+import java.nio.file.Files;
+import java.util.HashSet;
+import java.util.concurrent.TimeUnit;
+import org.apache.commons.io.FileUtils;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+
+public class SegmentWarmerTest {
+  private static final String AVRO_DATA = "data/test_data-sv.avro";
+
+  private File _indexDir;
+  private File _segmentDirectory;
+
+  @BeforeClass
+  public void setUp() throws Exception {
+    _indexDir = Files.createTempDirectory(SegmentWarmerTest.class.getName() + "_segmentDir").toFile();
+    String filePath = TestUtils.getFileFromResourceUrl(Loaders.class.getClassLoader().getResource(AVRO_DATA));
+    SegmentGeneratorConfig config =
+        SegmentTestUtils.getSegmentGenSpecWithSchemAndProjectedColumns(new File(filePath), _indexDir, "daysSinceEpoch",
+            TimeUnit.HOURS, "testTable");
+    config.setSegmentNamePostfix("1");
+    config.setTimeColumnName("daysSinceEpoch");
+    config.createInvertedIndexForAllColumns();
+    SegmentIndexCreationDriver driver = SegmentCreationDriverFactory.get(null);
+    driver.init(config);
+    driver.build();
+    _segmentDirectory = new File(_indexDir, driver.getSegmentName());
+  }
+
+  @Test
+  public void testWarmup() throws Exception {
+    SegmentMetadataImpl segmentMetadata = new SegmentMetadataImpl(_segmentDirectory);
+    SegmentDirectory segmentDirectory =
+        SegmentDirectory.createFromLocalFS(_segmentDirectory, segmentMetadata, ReadMode.mmap);
+    try (SegmentDirectory.Reader reader = segmentDirectory.createReader()) {
+      long dictionaryBytes = 0L;
+      long invertedIndexBytes = 0L;
+      long forwardIndexBytes = 0L;
+      for (String column : segmentMetadata.getColumnMetadataMap().keySet()) {
+        dictionaryBytes += reader.getIndexFor(column, ColumnIndexType.DICTIONARY).size();
+        invertedIndexBytes += reader.getIndexFor(column, ColumnIndexType.INVERTED_INDEX).size();
+        forwardIndexBytes += reader.getIndexFor(column, ColumnIndexType.FORWARD_INDEX).size();
+      }
+      Assert.assertTrue(invertedIndexBytes > 0L);
+
+      Assert.assertEquals(SegmentWarmer.warmup(reader, segmentMetadata, SegmentWarmupMode.NONE, 2), 0L);
+      Assert.assertEquals(SegmentWarmer.warmup(reader, segmentMetadata, SegmentWarmupMode.INDEX, 2),
+          dictionaryBytes + invertedIndexBytes);
+      Assert.assertEquals(SegmentWarmer.warmup(reader, segmentMetadata, SegmentWarmupMode.ALL, 2),
+          dictionaryBytes + invertedIndexBytes + forwardIndexBytes);
+    }
+  }
+
+  @Test
+  public void testWarmupOnLoad() throws Exception {
+    IndexLoadingConfig indexLoadingConfig = new IndexLoadingConfig();
+    indexLoadingConfig.setReadMode(ReadMode.mmap);
+    indexLoadingConfig.setSegmentVersion(SegmentVersion.v3);
+    indexLoadingConfig.setInvertedIndexColumns(new HashSet<String>());
+    indexLoadingConfig.setSegmentWarmupMode(SegmentWarmupMode.INDEX);
+
+    long bytesReadBefore = SegmentWarmer.getTotalWarmupBytesRead();
+    IndexSegment indexSegment = Loaders.IndexSegment.load(_segmentDirectory, indexLoadingConfig);
+    Assert.assertTrue(SegmentDirectoryPaths.segmentDirectoryFor(_segmentDirectory, SegmentVersion.v3).exists());
+    Assert.assertTrue(SegmentWarmer.getTotalWarmupBytesRead() > bytesReadBefore);
+    indexSegment.destroy();
+  }
+
+  @AfterClass
+  public void tearDown() {
+    FileUtils.deleteQuietly(_indexDir);
+  }
+}
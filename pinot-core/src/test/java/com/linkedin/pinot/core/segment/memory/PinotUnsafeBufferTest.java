@@ -0,0 +1,221 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.core.segment.memory;
+
+import com.linkedin.pinot.common.segment.ReadMode;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.nio.channels.FileChannel;
+import java.util.Random;
+import org.apache.commons.io.FileUtils;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+
+public class PinotUnsafeBufferTest {
+  private static final File TEMP_DIR = new File(FileUtils.getTempDirectory(), "PinotUnsafeBufferTest");
+  private static final int NUM_VALUES = 10_000;
+
+  private final Random _random = new Random();
+  private final int[] _ints = new int[NUM_VALUES];
+  private final long[] _longs = new long[NUM_VALUES];
+  private final float[] _floats = new float[NUM_VALUES];
+  private final double[] _doubles = new double[NUM_VALUES];
+
+  @BeforeClass
+  public void setUp()
+      throws Exception {
+    FileUtils.deleteQuietly(TEMP_DIR);
+    FileUtils.forceMkdir(TEMP_DIR);
+    for (int i = 0; i < NUM_VALUES; i++) {
+      _ints[i] = _random.nextInt();
+      _longs[i] = _random.nextLong();
+      _floats[i] = _random.nextFloat();
+      _doubles[i] = _random.nextDouble();
+    }
+  }
+
+  @AfterClass
+  public void tearDown() {
+    FileUtils.deleteQuietly(TEMP_DIR);
+  }
+
+  @Test
+  public void testReadWrite() {
+    PinotUnsafeBuffer buffer = PinotUnsafeBuffer.allocateDirect(1024 * 1024);
+    try {
+      PinotDataBufferTest.loadVerifyInt(buffer);
+      PinotDataBufferTest.loadVerifyLong(buffer);
+      PinotDataBufferTest.testLoadByte(buffer);
+      PinotDataBufferTest.testLoadFloat(buffer);
+      buffer.putDouble(11, Math.PI);
+      Assert.assertEquals(buffer.getDouble(11), Math.PI);
+
+      buffer.putShort(3, (short) -12345);
+      Assert.assertEquals(buffer.getShort(3), (short) -12345);
+      buffer.putChar(7L, 'x');
+      Assert.assertEquals(buffer.getChar(7L), 'x');
+    } finally {
+      buffer.close();
+    }
+  }
+
+  /**
+   * Files written by the segment creators are BIG_ENDIAN, so values must be read back the same way as
+   * {@link PinotByteBuffer} does.
+   */
+  @Test
+  public void testCompatibleWithFileFormat()
+      throws Exception {
+    File file = new File(TEMP_DIR, "bigEndian");
+    try (DataOutputStream out = new DataOutputStream(new FileOutputStream(file))) {
+      for (int i = 0; i < NUM_VALUES; i++) {
+        out.writeInt(_ints[i]);
+        out.writeLong(_longs[i]);
+        out.writeFloat(_floats[i]);
+        out.writeDouble(_doubles[i]);
+      }
+    }
+
+    PinotDataBuffer byteBuffer = PinotByteBuffer.fromFile(file, ReadMode.mmap, FileChannel.MapMode.READ_ONLY, "test");
+    PinotDataBuffer mmapBuffer =
+        PinotUnsafeBuffer.mapFromFile(file, 0, file.length(), FileChannel.MapMode.READ_ONLY, "test");
+    PinotDataBuffer heapBuffer = PinotUnsafeBuffer.loadFromFile(file, 0, file.length(), "test");
+    try {
+      for (PinotDataBuffer buffer : new PinotDataBuffer[]{mmapBuffer, heapBuffer}) {
+        Assert.assertEquals(buffer.size(), file.length());
+        int offset = 0;
+        for (int i = 0; i < NUM_VALUES; i++) {
+          Assert.assertEquals(buffer.getInt(offset), _ints[i]);
+          Assert.assertEquals(buffer.getInt(offset), byteBuffer.getInt(offset));
+          offset += 4;
+          Assert.assertEquals(buffer.getLong(offset), _longs[i]);
+          offset += 8;
+          Assert.assertEquals(buffer.getFloat(offset), _floats[i]);
+          offset += 4;
+          Assert.assertEquals(buffer.getDouble((long) offset), _doubles[i]);
+          offset += 8;
+        }
+
+        byte[] expectedBytes = new byte[100];
+        byte[] actualBytes = new byte[100];
+        byteBuffer.copyTo(50, expectedBytes, 0, 100);
+        buffer.copyTo(50, actualBytes, 0, 100);
+        Assert.assertEquals(actualBytes, expectedBytes);
+      }
+    } finally {
+      byteBuffer.close();
+      mmapBuffer.close();
+      heapBuffer.close();
+    }
+  }
+
+  @Test
+  public void testBulkReadWrite() {
+    int size = NUM_VALUES * 8;
+    PinotDataBuffer unsafeBuffer = PinotUnsafeBuffer.allocateDirect(size + 16);
+    PinotDataBuffer byteBuffer = PinotByteBuffer.allocateDirect(size + 16, "test");
+    try {
+      for (PinotDataBuffer buffer : new PinotDataBuffer[]{unsafeBuffer, byteBuffer}) {
+        // Unaligned start position
+        int index = 3;
+
+        buffer.putInts(index, _ints, 0, NUM_VALUES);
+        Assert.assertEquals(buffer.getInt(index + 4 * 5), _ints[5]);
+        int[] ints = new int[NUM_VALUES + 1];
+        buffer.getInts(index, ints, 1, NUM_VALUES);
+        for (int i = 0; i < NUM_VALUES; i++) {
+          Assert.assertEquals(ints[i + 1], _ints[i]);
+        }
+
+        buffer.putLongs(index, _longs, 0, NUM_VALUES);
+        Assert.assertEquals(buffer.getLong(index + 8 * 5), _longs[5]);
+        long[] longs = new long[NUM_VALUES];
+        buffer.getLongs(index, longs, 0, NUM_VALUES);
+        Assert.assertEquals(longs, _longs);
+
+        buffer.putFloats(index, _floats, 0, NUM_VALUES);
+        Assert.assertEquals(buffer.getFloat(index + 4 * 5), _floats[5]);
+        float[] floats = new float[NUM_VALUES];
+        buffer.getFloats(index, floats, 0, NUM_VALUES);
+        Assert.assertEquals(floats, _floats);
+
+        buffer.putDoubles(index, _doubles, 0, NUM_VALUES);
+        Assert.assertEquals(buffer.getDouble(index + 8 * 5), _doubles[5]);
+        double[] doubles = new double[NUM_VALUES];
+        buffer.getDoubles(index, doubles, 0, NUM_VALUES);
+        Assert.assertEquals(doubles, _doubles);
+
+        // Bulk reads through a view
+        PinotDataBuffer view = buffer.view(index + 8, index + size);
+        view.getDoubles(0, doubles, 0, NUM_VALUES - 1);
+        for (int i = 0; i < NUM_VALUES - 1; i++) {
+          Assert.assertEquals(doubles[i], _doubles[i + 1]);
+        }
+      }
+    } finally {
+      unsafeBuffer.close();
+      byteBuffer.close();
+    }
+  }
+
+  @Test
+  public void testLargeMappedFile()
+      throws Exception {
+    // Sparse file larger than 2GB, only the touched pages get allocated
+    File file = new File(TEMP_DIR, "large");
+    long size = 3L * PinotDataBufferTest.ONE_GB;
+    PinotDataBuffer buffer = PinotUnsafeBuffer.mapFromFile(file, 0, size, FileChannel.MapMode.READ_WRITE, "test");
+    try {
+      Assert.assertEquals(buffer.size(), size);
+      long index = size - 1024;
+      buffer.putLong(index, Long.MIN_VALUE);
+      buffer.putInts(index + 8, _ints, 0, 100);
+      Assert.assertEquals(buffer.getLong(index), Long.MIN_VALUE);
+      PinotDataBuffer view = buffer.view(index, size);
+      Assert.assertEquals(view.getInt(8 + 4 * 99), _ints[99]);
+    } finally {
+      buffer.close();
+    }
+  }
+
+  @Test
+  public void testFactory()
+      throws Exception {
+    PinotDataBuffer.setUseUnsafeBuffer(true);
+    try {
+      PinotDataBuffer buffer = PinotDataBuffer.allocateDirect(1024);
+      Assert.assertTrue(buffer instanceof PinotUnsafeBuffer);
+      buffer.close();
+
+      File file = new File(TEMP_DIR, "factory");
+      FileUtils.writeByteArrayToFile(file, new byte[]{0, 0, 0, 42});
+      buffer = PinotDataBuffer.fromFile(file, ReadMode.mmap, FileChannel.MapMode.READ_ONLY, "test");
+      Assert.assertTrue(buffer instanceof PinotUnsafeBuffer);
+      Assert.assertEquals(buffer.getInt(0), 42);
+      buffer.close();
+      buffer = PinotDataBuffer.fromFile(file, ReadMode.heap, FileChannel.MapMode.READ_ONLY, "test");
+      Assert.assertTrue(buffer instanceof PinotUnsafeBuffer);
+      Assert.assertEquals(buffer.getInt(0), 42);
+      buffer.close();
+    } finally {
+      PinotDataBuffer.setUseUnsafeBuffer(false);
+    }
+  }
+}
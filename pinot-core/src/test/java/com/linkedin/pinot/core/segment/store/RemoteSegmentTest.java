@@ -0,0 +1,228 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.core.segment.store;
+
+import com.linkedin.pinot.common.data.DimensionFieldSpec;
+import com.linkedin.pinot.common.data.FieldSpec;
+import com.linkedin.pinot.common.data.MetricFieldSpec;
+import com.linkedin.pinot.common.data.Schema;
+import com.linkedin.pinot.common.segment.ReadMode;
+import com.linkedin.pinot.core.common.BlockSingleValIterator;
+import com.linkedin.pinot.core.common.DataSource;
+import com.linkedin.pinot.core.data.GenericRow;
+import com.linkedin.pinot.core.data.readers.TestRecordReader;
+import com.linkedin.pinot.core.indexsegment.IndexSegment;
+import com.linkedin.pinot.core.indexsegment.generator.SegmentGeneratorConfig;
+import com.linkedin.pinot.core.indexsegment.generator.SegmentVersion;
+import com.linkedin.pinot.core.segment.creator.impl.SegmentIndexCreationDriverImpl;
+import com.linkedin.pinot.core.segment.index.loader.IndexLoadingConfig;
+import com.linkedin.pinot.core.segment.index.loader.Loaders;
+import com.linkedin.pinot.core.segment.index.readers.Dictionary;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.apache.commons.io.FileUtils;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+
+/**
+ * Tests loading v3 segments whose index file lives in the deep store, with the indexes fetched on demand through the
+ * index buffer cache.
+ */
+public class RemoteSegmentTest {
+  private static final File TEST_DIR = new File(FileUtils.getTempDirectory(), "remoteSegmentTest");
+  private static final File DEEP_STORE_DIR = new File(TEST_DIR, "deepStore");
+  private static final File CACHE_DIR = new File(TEST_DIR, "cache");
+  private static final File LOCAL_DIR = new File(TEST_DIR, "local");
+  private static final String TABLE_NAME = "remoteTable";
+  private static final String SEGMENT_NAME = "remoteSegment";
+  private static final String DIMENSION_COLUMN = "dimension";
+  private static final String METRIC_COLUMN = "metric";
+  private static final int NUM_ROWS = 1000;
+
+  private String _remoteV3DirUri;
+
+  @BeforeClass
+  public void setUp()
+      throws Exception {
+    FileUtils.deleteQuietly(TEST_DIR);
+
+    Schema schema = new Schema();
+    schema.addField(new DimensionFieldSpec(DIMENSION_COLUMN, FieldSpec.DataType.INT, true));
+    schema.addField(new MetricFieldSpec(METRIC_COLUMN, FieldSpec.DataType.LONG));
+    List<GenericRow> rows = new ArrayList<>(NUM_ROWS);
+    for (int i = 0; i < NUM_ROWS; i++) {
+      Map<String, Object> map = new HashMap<>();
+      map.put(DIMENSION_COLUMN, i % 10);
+      map.put(METRIC_COLUMN, (long) i);
+      GenericRow row = new GenericRow();
+      row.init(map);
+      rows.add(row);
+    }
+
+    // Build the segment in v3 format, and push it to the deep store
+    File tableDir = new File(DEEP_STORE_DIR, TABLE_NAME);
+    SegmentGeneratorConfig config = new SegmentGeneratorConfig(schema);
+    config.setOutDir(tableDir.getPath());
+    config.setSegmentName(SEGMENT_NAME);
+    config.setTableName(TABLE_NAME);
+    SegmentIndexCreationDriverImpl driver = new SegmentIndexCreationDriverImpl();
+    driver.init(config, new TestRecordReader(rows, schema));
+    driver.build();
+    IndexLoadingConfig indexLoadingConfig = new IndexLoadingConfig();
+    indexLoadingConfig.setSegmentVersion(SegmentVersion.v3);
+    Loaders.IndexSegment.load(new File(tableDir, SEGMENT_NAME), indexLoadingConfig).destroy();
+
+    _remoteV3DirUri =
+        RemoteSegmentUtils.getRemoteV3DirectoryUri(DEEP_STORE_DIR.toURI().toString(), TABLE_NAME, SEGMENT_NAME);
+    Assert.assertNotNull(_remoteV3DirUri);
+    Assert.assertNull(
+        RemoteSegmentUtils.getRemoteV3DirectoryUri(DEEP_STORE_DIR.toURI().toString(), TABLE_NAME, "missing"));
+  }
+
+  @AfterClass
+  public void tearDown() {
+    FileUtils.deleteQuietly(TEST_DIR);
+  }
+
+  @Test
+  public void testLoadRemoteSegment()
+      throws Exception {
+    IndexBufferCache.init(CACHE_DIR, 1024 * 1024, null);
+    IndexBufferCache cache = IndexBufferCache.getInstance();
+
+    File indexDir = new File(LOCAL_DIR, SEGMENT_NAME);
+    RemoteSegmentUtils.linkRemoteSegment(_remoteV3DirUri, indexDir);
+    File v3Dir = new File(indexDir, SegmentDirectoryPaths.V3_SUBDIRECTORY_NAME);
+    Assert.assertTrue(SegmentDirectoryPaths.isRemoteSegmentDirectory(v3Dir));
+    Assert.assertFalse(new File(v3Dir, SegmentDirectoryPaths.V3_INDEX_FILE_NAME).exists());
+
+    IndexSegment segment = Loaders.IndexSegment.load(indexDir, ReadMode.mmap);
+    try {
+      Assert.assertEquals(segment.getSegmentMetadata().getTotalRawDocs(), NUM_ROWS);
+      // Nothing is fetched until a column is accessed
+      Assert.assertEquals(cache.getNumMisses(), 0);
+
+      checkMetricValues(segment);
+      // Dictionary and forward index of the metric column
+      Assert.assertEquals(cache.getNumMisses(), 2);
+      Assert.assertEquals(cache.getNumHits(), 0);
+      Assert.assertEquals(cache.getNumCachedBuffers(), 2);
+    } finally {
+      segment.destroy();
+    }
+
+    // Loading the segment again is served from the cache
+    segment = Loaders.IndexSegment.load(indexDir, ReadMode.heap);
+    try {
+      checkMetricValues(segment);
+      Assert.assertEquals(cache.getNumMisses(), 2);
+      Assert.assertEquals(cache.getNumHits(), 2);
+      Assert.assertEquals(cache.getHitRatePercent(), 50);
+
+      DataSource dataSource = segment.getDataSource(DIMENSION_COLUMN);
+      Dictionary dictionary = dataSource.getDictionary();
+      BlockSingleValIterator iterator = (BlockSingleValIterator) dataSource.nextBlock().getBlockValueSet().iterator();
+      for (int i = 0; i < NUM_ROWS; i++) {
+        Assert.assertEquals(dictionary.getIntValue(iterator.nextIntVal()), i % 10);
+      }
+      Assert.assertEquals(cache.getNumMisses(), 4);
+    } finally {
+      segment.destroy();
+    }
+  }
+
+  @Test
+  public void testEviction()
+      throws Exception {
+    // Cache smaller than a single index buffer
+    IndexBufferCache.init(CACHE_DIR, 1, null);
+    IndexBufferCache cache = IndexBufferCache.getInstance();
+
+    File indexDir = new File(LOCAL_DIR, SEGMENT_NAME + "_eviction");
+    RemoteSegmentUtils.linkRemoteSegment(_remoteV3DirUri, indexDir);
+    IndexSegment segment = Loaders.IndexSegment.load(indexDir, ReadMode.mmap);
+    try {
+      checkMetricValues(segment);
+      // Buffers in use are not evicted, and the cache size is the actual size of the local files
+      Assert.assertEquals(cache.getNumCachedBuffers(), 2);
+      Assert.assertEquals(CACHE_DIR.listFiles().length, 2);
+      Assert.assertEquals(cache.getCachedSizeBytes(), FileUtils.sizeOfDirectory(CACHE_DIR));
+    } finally {
+      segment.destroy();
+    }
+
+    // Releasing the buffers frees the disk space
+    Assert.assertEquals(cache.getNumCachedBuffers(), 0);
+    Assert.assertEquals(CACHE_DIR.listFiles().length, 0);
+    Assert.assertEquals(cache.getCachedSizeBytes(), 0);
+  }
+
+  @Test
+  public void testEvictionOfReleasedBuffersOnly()
+      throws Exception {
+    File indexDir = new File(LOCAL_DIR, SEGMENT_NAME + "_lru");
+    RemoteSegmentUtils.linkRemoteSegment(_remoteV3DirUri, indexDir);
+
+    // Size the cache to hold the buffers of the metric column only
+    IndexBufferCache.init(CACHE_DIR, Long.MAX_VALUE, null);
+    IndexSegment segment = Loaders.IndexSegment.load(indexDir, ReadMode.mmap);
+    try {
+      checkMetricValues(segment);
+    } finally {
+      segment.destroy();
+    }
+    long metricColumnSizeBytes = FileUtils.sizeOfDirectory(CACHE_DIR);
+    IndexBufferCache.init(CACHE_DIR, metricColumnSizeBytes, null);
+    IndexBufferCache cache = IndexBufferCache.getInstance();
+
+    IndexSegment metricSegment = Loaders.IndexSegment.load(indexDir, ReadMode.mmap);
+    try {
+      checkMetricValues(metricSegment);
+      // Fetching the dimension column goes over the limit, but the metric column buffers are still in use
+      IndexSegment dimensionSegment = Loaders.IndexSegment.load(indexDir, ReadMode.mmap);
+      try {
+        dimensionSegment.getDataSource(DIMENSION_COLUMN).getDictionary();
+        Assert.assertEquals(cache.getNumCachedBuffers(), 4);
+        Assert.assertTrue(cache.getCachedSizeBytes() > metricColumnSizeBytes);
+      } finally {
+        dimensionSegment.destroy();
+      }
+      // Dimension column buffers are released, and evicted to get back under the limit
+      Assert.assertEquals(cache.getNumCachedBuffers(), 2);
+      Assert.assertEquals(cache.getCachedSizeBytes(), metricColumnSizeBytes);
+      Assert.assertEquals(FileUtils.sizeOfDirectory(CACHE_DIR), metricColumnSizeBytes);
+    } finally {
+      metricSegment.destroy();
+    }
+    // Within the limit, released buffers stay cached
+    Assert.assertEquals(cache.getNumCachedBuffers(), 2);
+  }
+
+  private void checkMetricValues(IndexSegment segment) {
+    DataSource dataSource = segment.getDataSource(METRIC_COLUMN);
+    Dictionary dictionary = dataSource.getDictionary();
+    BlockSingleValIterator iterator = (BlockSingleValIterator) dataSource.nextBlock().getBlockValueSet().iterator();
+    for (int i = 0; i < NUM_ROWS; i++) {
+      Assert.assertEquals(dictionary.getLongValue(iterator.nextIntVal()), i);
+    }
+  }
+}
@@ -25,6 +25,7 @@ import java.util.Arrays;
 import java.util.Random;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.testng.Assert;
 import org.testng.annotations.Test;
 
 public class FixedBitSingleValueTest {
@@ -58,4 +59,67 @@ public class FixedBitSingleValueTest {
       file.delete();
     }
   }
+
+  @Test
+  public void testV1BulkRead() throws Exception {
+    // Not a multiple of 32, so the last rows are not in a full batch
+    int ROWS = 1000;
+    Random random = new Random();
+    for (int numBits = 1; numBits < 32; numBits++) {
+      File file = new File(this.getClass().getName() + "_v1_" + numBits + ".test");
+      com.linkedin.pinot.core.io.writer.impl.v1.FixedBitSingleValueWriter writer =
+          new com.linkedin.pinot.core.io.writer.impl.v1.FixedBitSingleValueWriter(file, ROWS, numBits);
+      int data[] = new int[ROWS];
+      int max = (int) Math.min(Math.pow(2, numBits), Integer.MAX_VALUE);
+      for (int i = 0; i < ROWS; i++) {
+        data[i] = random.nextInt(max);
+        writer.setInt(i, data[i]);
+      }
+      writer.close();
+
+      PinotDataBuffer heapBuffer =
+          PinotDataBuffer.fromFile(file, ReadMode.heap, FileChannel.MapMode.READ_ONLY, "testing");
+      com.linkedin.pinot.core.io.reader.impl.v1.FixedBitSingleValueReader reader =
+          new com.linkedin.pinot.core.io.reader.impl.v1.FixedBitSingleValueReader(heapBuffer, ROWS, numBits, false);
+      String message = "Failed for bit: " + numBits;
+
+      // Contiguous rows, with start and end rows both aligned and unaligned with the batches of 32 values
+      int[] values = new int[ROWS + 1];
+      reader.readValues(0, ROWS, values, 1);
+      for (int i = 0; i < ROWS; i++) {
+        Assert.assertEquals(values[i + 1], data[i], message);
+      }
+      reader.readValues(37, 500, values, 0);
+      for (int i = 0; i < 500; i++) {
+        Assert.assertEquals(values[i], data[i + 37], message);
+      }
+
+      // Dense sorted rows
+      int[] rows = new int[ROWS];
+      int numRows = 0;
+      for (int i = 0; i < ROWS; i++) {
+        if (random.nextInt(4) != 0) {
+          rows[numRows++] = i;
+        }
+      }
+      reader.readValues(rows, 0, numRows, values, 0);
+      for (int i = 0; i < numRows; i++) {
+        Assert.assertEquals(values[i], data[rows[i]], message);
+      }
+
+      // Sparse sorted rows
+      numRows = 0;
+      for (int i = 0; i < ROWS; i += 1 + random.nextInt(100)) {
+        rows[numRows++] = i;
+      }
+      reader.readValues(rows, 0, numRows, values, 0);
+      for (int i = 0; i < numRows; i++) {
+        Assert.assertEquals(values[i], data[rows[i]], message);
+      }
+
+      reader.close();
+      heapBuffer.close();
+      file.delete();
+    }
+  }
 }
@@ -52,6 +52,13 @@ public class FixedByteChunkSingleValueReaderWriteTest {
   @Test
   public void testInt()
       throws Exception {
+    for (ChunkCompressorFactory.CompressionType compressionType : ChunkCompressorFactory.CompressionType.values()) {
+      testInt(compressionType);
+    }
+  }
+
+  private void testInt(ChunkCompressorFactory.CompressionType compressionType)
+      throws Exception {
     int[] expected = new int[NUM_VALUES];
     for (int i = 0; i < NUM_VALUES; i++) {
       expected[i] = _random.nextInt();
@@ -60,7 +67,7 @@ public class FixedByteChunkSingleValueReaderWriteTest {
     File outFile = new File(TEST_FILE);
     FileUtils.deleteQuietly(outFile);
 
-    ChunkCompressor compressor = ChunkCompressorFactory.getCompressor("snappy");
+    ChunkCompressor compressor = ChunkCompressorFactory.getCompressor(compressionType);
     FixedByteChunkSingleValueWriter writer =
         new FixedByteChunkSingleValueWriter(outFile, compressor, NUM_VALUES, NUM_DOCS_PER_CHUNK,
             V1Constants.Numbers.INTEGER_SIZE);
@@ -73,13 +80,13 @@ public class FixedByteChunkSingleValueReaderWriteTest {
     PinotDataBuffer pinotDataBuffer =
         PinotDataBuffer.fromFile(outFile, ReadMode.mmap, FileChannel.MapMode.READ_ONLY, getClass().getName());
 
-    ChunkDecompressor uncompressor = ChunkCompressorFactory.getDecompressor("snappy");
+    ChunkDecompressor uncompressor = ChunkCompressorFactory.getDecompressor(compressionType);
     FixedByteChunkSingleValueReader reader = new FixedByteChunkSingleValueReader(pinotDataBuffer, uncompressor);
     ChunkReaderContext context = reader.createContext();
 
     for (int i = 0; i < NUM_VALUES; i++) {
       int actual = reader.getInt(i, context);
-      Assert.assertEquals(actual, expected[i]);
+      Assert.assertEquals(actual, expected[i], "Mismatch for compression type: " + compressionType);
     }
     reader.close();
     FileUtils.deleteQuietly(outFile);
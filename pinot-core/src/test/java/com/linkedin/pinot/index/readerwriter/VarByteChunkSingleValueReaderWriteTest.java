@@ -56,6 +56,13 @@ public class VarByteChunkSingleValueReaderWriteTest {
   @Test
   public void test()
       throws Exception {
+    for (ChunkCompressorFactory.CompressionType compressionType : ChunkCompressorFactory.CompressionType.values()) {
+      test(compressionType);
+    }
+  }
+
+  private void test(ChunkCompressorFactory.CompressionType compressionType)
+      throws Exception {
     String[] expected = new String[NUM_STRINGS];
     Random random = new Random();
 
@@ -68,7 +75,7 @@ public class VarByteChunkSingleValueReaderWriteTest {
       maxStringLengthInBytes = Math.max(maxStringLengthInBytes, expected[i].getBytes(UTF_8).length);
     }
 
-    ChunkCompressor compressor = ChunkCompressorFactory.getCompressor("snappy");
+    ChunkCompressor compressor = ChunkCompressorFactory.getCompressor(compressionType);
     VarByteChunkSingleValueWriter writer =
         new VarByteChunkSingleValueWriter(outFile, compressor, NUM_STRINGS, NUM_DOCS_PER_CHUNK, maxStringLengthInBytes);
 
@@ -80,13 +87,13 @@ public class VarByteChunkSingleValueReaderWriteTest {
     PinotDataBuffer pinotDataBuffer =
         PinotDataBuffer.fromFile(outFile, ReadMode.mmap, FileChannel.MapMode.READ_ONLY, getClass().getName());
 
-    ChunkDecompressor uncompressor = ChunkCompressorFactory.getDecompressor("snappy");
+    ChunkDecompressor uncompressor = ChunkCompressorFactory.getDecompressor(compressionType);
     VarByteChunkSingleValueReader reader = new VarByteChunkSingleValueReader(pinotDataBuffer, uncompressor);
     ChunkReaderContext context = reader.createContext();
 
     for (int i = 0; i < NUM_STRINGS; i++) {
       String actual = reader.getString(i, context);
-      Assert.assertEquals(actual, expected[i]);
+      Assert.assertEquals(actual, expected[i], "Mismatch for compression type: " + compressionType);
     }
     reader.close();
     FileUtils.deleteQuietly(outFile);
@@ -17,7 +17,7 @@ package com.linkedin.pinot.integration.tests;
 
 import com.linkedin.pinot.common.utils.CommonConstants;
 import com.linkedin.pinot.common.utils.ZkStarter;
-import com.linkedin.pinot.core.data.partition.PartitionFunctionFactory;
+import com.linkedin.pinot.common.partition.PartitionFunctionFactory;
 import java.io.File;
 import java.util.Collections;
 import com.linkedin.pinot.common.data.Schema;
@@ -0,0 +1,207 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.perf;
+
+import com.linkedin.pinot.common.data.FieldSpec;
+import com.linkedin.pinot.common.data.Schema;
+import com.linkedin.pinot.core.data.GenericRow;
+import com.linkedin.pinot.core.realtime.impl.kafka.AvroRecordToPinotRowGenerator;
+import com.linkedin.pinot.core.realtime.impl.kafka.KafkaJSONMessageDecoder;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericDatumReader;
+import org.apache.avro.generic.GenericDatumWriter;
+import org.apache.avro.io.BinaryDecoder;
+import org.apache.avro.io.BinaryEncoder;
+import org.apache.avro.io.DatumReader;
+import org.apache.avro.io.DecoderFactory;
+import org.apache.avro.io.EncoderFactory;
+import org.json.JSONObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+
+/**
+ * Benchmark for the decoding of Kafka messages into {@link GenericRow}s, comparing full materialization of each
+ * message (org.json objects and complete Avro records) with schema-projected decoding of only the Pinot columns.
+ * <p>Complements {@link BenchmarkRealtimeConsumptionSpeed}, which measures end-to-end consumption, by isolating the
+ * decoding cost on synthetic messages with many fields that are not part of the Pinot schema.
+ */
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgs = {"-server", "-Xmx4G"})
+public class BenchmarkMessageDecoders {
+  private static final int NUM_MESSAGES = 10_000;
+  private static final int NUM_PINOT_COLUMNS = 5;
+  private static final Random RANDOM = new Random(123456L);
+
+  /** Total number of fields in each message, of which only {@link #NUM_PINOT_COLUMNS} are Pinot columns */
+  @Param({"10", "50"})
+  public int numFields;
+
+  private Schema _pinotSchema;
+  private org.apache.avro.Schema _avroSchema;
+  private AvroRecordToPinotRowGenerator _rowGenerator;
+
+  private byte[][] _jsonMessages;
+  private byte[][] _avroMessages;
+
+  private KafkaJSONMessageDecoder _jsonDecoder;
+  private DatumReader<GenericData.Record> _projectedDatumReader;
+  private GenericData.Record _reusableRecord;
+  private BinaryDecoder _reusableDecoder;
+
+  private final GenericRow _row = new GenericRow();
+
+  @Setup
+  public void setUp() throws Exception {
+    // Field i is a long for even i and a string for odd i; the first NUM_PINOT_COLUMNS fields are Pinot columns
+    Schema.SchemaBuilder schemaBuilder = new Schema.SchemaBuilder().setSchemaName("benchmark");
+    List<org.apache.avro.Schema.Field> avroFields = new ArrayList<>();
+    for (int i = 0; i < numFields; i++) {
+      String fieldName = "field" + i;
+      boolean isLong = i % 2 == 0;
+      if (i < NUM_PINOT_COLUMNS) {
+        if (isLong) {
+          schemaBuilder.addMetric(fieldName, FieldSpec.DataType.LONG);
+        } else {
+          schemaBuilder.addSingleValueDimension(fieldName, FieldSpec.DataType.STRING);
+        }
+      }
+      avroFields.add(new org.apache.avro.Schema.Field(fieldName,
+          org.apache.avro.Schema.create(isLong ? org.apache.avro.Schema.Type.LONG : org.apache.avro.Schema.Type.STRING),
+          null, null));
+    }
+    _pinotSchema = schemaBuilder.build();
+    _avroSchema = org.apache.avro.Schema.createRecord("benchmark", null, "com.linkedin.pinot.perf", false);
+    _avroSchema.setFields(avroFields);
+
+    GenericDatumWriter<GenericData.Record> datumWriter = new GenericDatumWriter<>(_avroSchema);
+    _jsonMessages = new byte[NUM_MESSAGES][];
+    _avroMessages = new byte[NUM_MESSAGES][];
+    for (int i = 0; i < NUM_MESSAGES; i++) {
+      JSONObject jsonObject = new JSONObject();
+      GenericData.Record record = new GenericData.Record(_avroSchema);
+      for (int j = 0; j < numFields; j++) {
+        String fieldName = "field" + j;
+        Object value = (j % 2 == 0) ? (Object) RANDOM.nextLong() : "value" + RANDOM.nextInt(1000);
+        jsonObject.put(fieldName, value);
+        record.put(fieldName, value);
+      }
+      _jsonMessages[i] = jsonObject.toString().getBytes(StandardCharsets.UTF_8);
+
+      ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+      BinaryEncoder encoder = EncoderFactory.get().binaryEncoder(outputStream, null);
+      datumWriter.write(record, encoder);
+      encoder.flush();
+      _avroMessages[i] = outputStream.toByteArray();
+    }
+
+    _jsonDecoder = new KafkaJSONMessageDecoder();
+    _jsonDecoder.init(Collections.<String, String>emptyMap(), _pinotSchema, "benchmark");
+
+    _rowGenerator = new AvroRecordToPinotRowGenerator(_pinotSchema);
+    _projectedDatumReader =
+        new GenericDatumReader<>(_avroSchema, _rowGenerator.getProjectedSchema(_avroSchema));
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  public int fullJsonObjectDecoding() throws Exception {
+    int count = 0;
+    for (byte[] message : _jsonMessages) {
+      JSONObject jsonObject = new JSONObject(new String(message, StandardCharsets.UTF_8));
+      for (FieldSpec fieldSpec : _pinotSchema.getAllFieldSpecs()) {
+        String fieldName = fieldSpec.getName();
+        String value = jsonObject.getString(fieldName);
+        _row.putField(fieldName,
+            fieldSpec.getDataType() == FieldSpec.DataType.LONG ? (Object) Long.parseLong(value) : value);
+      }
+      count++;
+    }
+    return count;
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  public int streamingJsonDecoding() {
+    int count = 0;
+    for (byte[] message : _jsonMessages) {
+      if (_jsonDecoder.decode(message, 0, message.length, _row) != null) {
+        count++;
+      }
+    }
+    return count;
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  public int fullAvroRecordDecoding() throws Exception {
+    int count = 0;
+    for (byte[] message : _avroMessages) {
+      DatumReader<GenericData.Record> datumReader = new GenericDatumReader<>(_avroSchema);
+      GenericData.Record record =
+          datumReader.read(null, DecoderFactory.get().binaryDecoder(message, 0, message.length, null));
+      _rowGenerator.transform(record, _avroSchema, _row);
+      count++;
+    }
+    return count;
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  public int projectedAvroRecordDecoding() throws Exception {
+    int count = 0;
+    for (byte[] message : _avroMessages) {
+      _reusableDecoder = DecoderFactory.get().binaryDecoder(message, 0, message.length, _reusableDecoder);
+      _reusableRecord = _projectedDatumReader.read(_reusableRecord, _reusableDecoder);
+      _rowGenerator.transform(_reusableRecord, _avroSchema, _row);
+      count++;
+    }
+    return count;
+  }
+
+  public static void main(String[] args) throws Exception {
+    ChainedOptionsBuilder opt = new OptionsBuilder()
+        .include(BenchmarkMessageDecoders.class.getSimpleName())
+        .warmupTime(TimeValue.seconds(10))
+        .warmupIterations(3)
+        .measurementTime(TimeValue.seconds(10))
+        .measurementIterations(5);
+
+    new Runner(opt.build()).run();
+  }
+}
@@ -0,0 +1,134 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.perf;
+
+import com.linkedin.pinot.core.segment.memory.PinotByteBuffer;
+import com.linkedin.pinot.core.segment.memory.PinotDataBuffer;
+import com.linkedin.pinot.core.segment.memory.PinotLByteBuffer;
+import com.linkedin.pinot.core.segment.memory.PinotUnsafeBuffer;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+
+/**
+ * Compares sequential, random and bulk int reads on the {@link PinotDataBuffer} implementations.
+ */
+@State(Scope.Benchmark)
+public class BenchmarkPinotDataBuffer {
+  private static final int NUM_VALUES = 10_000_000;
+  private static final int NUM_RANDOM_READS = 1_000_000;
+  private static final int BULK_READ_SIZE = 1024;
+
+  @Param({"PinotByteBuffer", "PinotLByteBuffer", "PinotUnsafeBuffer"})
+  private String _bufferType;
+
+  private PinotDataBuffer _buffer;
+  private int[] _randomIndexes;
+  private int[] _values;
+
+  @Setup
+  public void setUp() {
+    long size = NUM_VALUES * 4L;
+    switch (_bufferType) {
+      case "PinotByteBuffer":
+        _buffer = PinotByteBuffer.allocateDirect(size, "benchmark");
+        break;
+      case "PinotLByteBuffer":
+        _buffer = PinotLByteBuffer.allocateDirect(size);
+        break;
+      case "PinotUnsafeBuffer":
+        _buffer = PinotUnsafeBuffer.allocateDirect(size);
+        break;
+      default:
+        throw new IllegalArgumentException("Unsupported buffer type: " + _bufferType);
+    }
+
+    Random random = new Random();
+    for (int i = 0; i < NUM_VALUES; i++) {
+      _buffer.putInt(i * 4, random.nextInt());
+    }
+    _randomIndexes = new int[NUM_RANDOM_READS];
+    for (int i = 0; i < NUM_RANDOM_READS; i++) {
+      _randomIndexes[i] = random.nextInt(NUM_VALUES) * 4;
+    }
+    _values = new int[BULK_READ_SIZE];
+  }
+
+  @TearDown
+  public void tearDown() {
+    _buffer.close();
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  public long sequentialRead() {
+    long sum = 0;
+    for (int i = 0; i < NUM_VALUES; i++) {
+      sum += _buffer.getInt(i * 4);
+    }
+    return sum;
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  public long randomRead() {
+    long sum = 0;
+    for (int index : _randomIndexes) {
+      sum += _buffer.getInt(index);
+    }
+    return sum;
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  public long bulkRead() {
+    long sum = 0;
+    for (int i = 0; i < NUM_VALUES; i += BULK_READ_SIZE) {
+      int length = Math.min(BULK_READ_SIZE, NUM_VALUES - i);
+      _buffer.getInts(i * 4L, _values, 0, length);
+      for (int j = 0; j < length; j++) {
+        sum += _values[j];
+      }
+    }
+    return sum;
+  }
+
+  public static void main(String[] args)
+      throws Exception {
+    Options opt = new OptionsBuilder().include(BenchmarkPinotDataBuffer.class.getSimpleName())
+        .warmupIterations(3)
+        .measurementIterations(5)
+        .forks(1)
+        .build();
+
+    new Runner(opt).run();
+  }
+}
@@ -0,0 +1,169 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.perf;
+
+import com.linkedin.pinot.routing.IncrementalRoutingTableUpdater;
+import com.linkedin.pinot.routing.ServerToSegmentSetMap;
+import com.linkedin.pinot.routing.builder.BalancedRandomRoutingTableBuilder;
+import com.linkedin.pinot.routing.builder.LargeClusterRoutingTableBuilder;
+import com.linkedin.pinot.routing.builder.RoutingTableBuilder;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.apache.commons.configuration.BaseConfiguration;
+import org.apache.helix.model.ExternalView;
+import org.apache.helix.model.InstanceConfig;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+
+/**
+ * Benchmark for the update of the routing tables of an offline table on external view changes, comparing the time to
+ * rebuild all the routing tables from scratch with the time to update them incrementally with
+ * {@link IncrementalRoutingTableUpdater}, depending on the number of segments of the table.
+ * <p>Two external view changes are measured: a new segment being pushed, and a server going down during a rolling
+ * restart, which changes the online replicas of all the segments of that server.
+ */
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgs = {"-server", "-Xmx8G"})
+public class BenchmarkRoutingTableUpdate {
+  private static final String TABLE_NAME = "myTable_OFFLINE";
+  private static final int NUM_SERVERS = 60;
+  private static final int NUM_REPLICAS = 3;
+
+  @Param({"1000", "10000", "100000"})
+  public int numSegments;
+
+  /** Routing table builder used for the full rebuild and to build the routing tables to update incrementally */
+  @Param({"balancedRandom", "largeCluster"})
+  public String routingTableBuilder;
+
+  private RoutingTableBuilder _routingTableBuilder;
+  private List<InstanceConfig> _instanceConfigs;
+  private List<ServerToSegmentSetMap> _routingTables;
+  private Map<String, Set<String>> _onlineReplicas;
+  private ExternalView _newSegmentExternalView;
+  private ExternalView _serverDownExternalView;
+  private final Random _random = new Random(123456L);
+
+  @Setup
+  public void setUp() {
+    if ("largeCluster".equals(routingTableBuilder)) {
+      _routingTableBuilder = new LargeClusterRoutingTableBuilder();
+    } else {
+      _routingTableBuilder = new BalancedRandomRoutingTableBuilder();
+    }
+    _routingTableBuilder.init(new BaseConfiguration());
+
+    _instanceConfigs = new ArrayList<>(NUM_SERVERS);
+    for (int i = 0; i < NUM_SERVERS; i++) {
+      _instanceConfigs.add(new InstanceConfig(getServerName(i)));
+    }
+
+    ExternalView externalView = buildExternalView(numSegments);
+    _routingTables =
+        _routingTableBuilder.computeRoutingTableFromExternalView(TABLE_NAME, externalView, _instanceConfigs);
+    _onlineReplicas = IncrementalRoutingTableUpdater.computeOnlineReplicas(externalView, _instanceConfigs);
+
+    _newSegmentExternalView = buildExternalView(numSegments + 1);
+
+    _serverDownExternalView = buildExternalView(numSegments);
+    String downServer = getServerName(0);
+    for (String segment : _serverDownExternalView.getPartitionSet()) {
+      if (_serverDownExternalView.getStateMap(segment).containsKey(downServer)) {
+        _serverDownExternalView.setState(segment, downServer, "OFFLINE");
+      }
+    }
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  public List<ServerToSegmentSetMap> fullRebuildNewSegment() {
+    return _routingTableBuilder.computeRoutingTableFromExternalView(TABLE_NAME, _newSegmentExternalView,
+        _instanceConfigs);
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  public List<ServerToSegmentSetMap> incrementalUpdateNewSegment() {
+    return incrementalUpdate(_newSegmentExternalView);
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  public List<ServerToSegmentSetMap> fullRebuildServerDown() {
+    return _routingTableBuilder.computeRoutingTableFromExternalView(TABLE_NAME, _serverDownExternalView,
+        _instanceConfigs);
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  public List<ServerToSegmentSetMap> incrementalUpdateServerDown() {
+    return incrementalUpdate(_serverDownExternalView);
+  }
+
+  private List<ServerToSegmentSetMap> incrementalUpdate(ExternalView externalView) {
+    Map<String, Set<String>> onlineReplicas =
+        IncrementalRoutingTableUpdater.computeOnlineReplicas(externalView, _instanceConfigs);
+    Set<String> changedSegments =
+        IncrementalRoutingTableUpdater.computeChangedSegments(_onlineReplicas, onlineReplicas);
+    return IncrementalRoutingTableUpdater.updateRoutingTables(_routingTables, onlineReplicas, changedSegments, _random);
+  }
+
+  private static ExternalView buildExternalView(int numSegments) {
+    ExternalView externalView = new ExternalView(TABLE_NAME);
+    for (int i = 0; i < numSegments; i++) {
+      String segment = TABLE_NAME + "_" + i;
+      for (int j = 0; j < NUM_REPLICAS; j++) {
+        externalView.setState(segment, getServerName((i + j * (NUM_SERVERS / NUM_REPLICAS)) % NUM_SERVERS), "ONLINE");
+      }
+    }
+    return externalView;
+  }
+
+  private static String getServerName(int serverId) {
+    return "Server_localhost_" + (8000 + serverId);
+  }
+
+  public static void main(String[] args) throws Exception {
+    ChainedOptionsBuilder opt = new OptionsBuilder()
+        .include(BenchmarkRoutingTableUpdate.class.getSimpleName())
+        .warmupTime(TimeValue.seconds(10))
+        .warmupIterations(2)
+        .measurementTime(TimeValue.seconds(10))
+        .measurementIterations(3);
+
+    new Runner(opt.build()).run();
+  }
+}
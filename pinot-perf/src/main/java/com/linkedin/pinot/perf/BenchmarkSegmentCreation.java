@@ -0,0 +1,156 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.perf;
+
+import com.linkedin.pinot.common.data.DimensionFieldSpec;
+import com.linkedin.pinot.common.data.FieldSpec;
+import com.linkedin.pinot.common.data.MetricFieldSpec;
+import com.linkedin.pinot.common.data.Schema;
+import com.linkedin.pinot.core.data.readers.FileFormat;
+import com.linkedin.pinot.core.indexsegment.generator.SegmentGeneratorConfig;
+import com.linkedin.pinot.core.segment.creator.impl.SegmentIndexCreationDriverImpl;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.apache.avro.SchemaBuilder;
+import org.apache.avro.file.DataFileWriter;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericDatumWriter;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.commons.io.FileUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+
+/**
+ * Benchmark for end-to-end segment build time from an Avro file, reading the input records twice (stats collection,
+ * then indexing) or once (single pass index creation), with sequential or parallel per-column index creation.
+ */
+@State(Scope.Benchmark)
+public class BenchmarkSegmentCreation {
+  private static final String LOW_CARDINALITY_STRING = "lowCardinalityString";
+  private static final String HIGH_CARDINALITY_STRING = "highCardinalityString";
+  private static final String INT_MV = "intMV";
+  private static final String LONG_METRIC = "longMetric";
+  private static final String DOUBLE_METRIC = "doubleMetric";
+
+  @Param({"1000000"})
+  private int _numRows;
+
+  @Param({"false", "true"})
+  private boolean _singlePass;
+
+  @Param({"1", "4"})
+  private int _numIndexCreationThreads;
+
+  private File _tempDir;
+  private File _avroFile;
+  private Schema _schema;
+
+  @Setup(Level.Trial)
+  public void setUp() throws Exception {
+    _tempDir = new File(FileUtils.getTempDirectory(), "BenchmarkSegmentCreation_" + System.currentTimeMillis());
+    FileUtils.forceMkdir(_tempDir);
+
+    _schema = new Schema();
+    _schema.setSchemaName("benchmarkSegmentCreation");
+    _schema.addField(new DimensionFieldSpec(LOW_CARDINALITY_STRING, FieldSpec.DataType.STRING, true));
+    _schema.addField(new DimensionFieldSpec(HIGH_CARDINALITY_STRING, FieldSpec.DataType.STRING, true));
+    _schema.addField(new DimensionFieldSpec(INT_MV, FieldSpec.DataType.INT, false));
+    _schema.addField(new MetricFieldSpec(LONG_METRIC, FieldSpec.DataType.LONG));
+    _schema.addField(new MetricFieldSpec(DOUBLE_METRIC, FieldSpec.DataType.DOUBLE));
+
+    org.apache.avro.Schema avroSchema = SchemaBuilder.record("benchmarkSegmentCreation").fields()
+        .requiredString(LOW_CARDINALITY_STRING)
+        .requiredString(HIGH_CARDINALITY_STRING)
+        .name(INT_MV).type().array().items().intType().noDefault()
+        .requiredLong(LONG_METRIC)
+        .requiredDouble(DOUBLE_METRIC)
+        .endRecord();
+
+    _avroFile = new File(_tempDir, "input.avro");
+    Random random = new Random(0);
+    try (DataFileWriter<GenericRecord> writer =
+        new DataFileWriter<>(new GenericDatumWriter<GenericRecord>(avroSchema))) {
+      writer.create(avroSchema, _avroFile);
+      for (int i = 0; i < _numRows; i++) {
+        GenericRecord record = new GenericData.Record(avroSchema);
+        record.put(LOW_CARDINALITY_STRING, "low_" + random.nextInt(100));
+        record.put(HIGH_CARDINALITY_STRING, "high_" + random.nextInt(_numRows));
+        int numValues = 1 + random.nextInt(5);
+        List<Integer> values = new ArrayList<>(numValues);
+        for (int j = 0; j < numValues; j++) {
+          values.add(random.nextInt(1000));
+        }
+        record.put(INT_MV, values);
+        record.put(LONG_METRIC, (long) random.nextInt(100000));
+        record.put(DOUBLE_METRIC, random.nextDouble());
+        writer.append(record);
+      }
+    }
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  public File buildSegment() throws Exception {
+    File outDir = new File(_tempDir, "out");
+    FileUtils.deleteQuietly(outDir);
+
+    SegmentGeneratorConfig config = new SegmentGeneratorConfig(_schema);
+    config.setTableName("benchmarkSegmentCreation");
+    config.setSegmentName("benchmarkSegment");
+    config.setFormat(FileFormat.AVRO);
+    config.setInputFilePath(_avroFile.getAbsolutePath());
+    config.setOutDir(outDir.getAbsolutePath());
+    config.setEnableSinglePassIndexCreation(_singlePass);
+    config.setNumIndexCreationThreads(_numIndexCreationThreads);
+
+    SegmentIndexCreationDriverImpl driver = new SegmentIndexCreationDriverImpl();
+    driver.init(config);
+    driver.build();
+    return outDir;
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    FileUtils.deleteQuietly(_tempDir);
+  }
+
+  public static void main(String[] args) throws Exception {
+    Options opt = new OptionsBuilder()
+        .include(BenchmarkSegmentCreation.class.getSimpleName())
+        .warmupIterations(2)
+        .measurementIterations(3)
+        .forks(1)
+        .build();
+
+    new Runner(opt).run();
+  }
+}
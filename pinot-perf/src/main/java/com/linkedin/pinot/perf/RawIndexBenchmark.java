@@ -26,6 +26,7 @@ import com.linkedin.pinot.core.data.readers.RecordReader;
 import com.linkedin.pinot.core.data.readers.TestRecordReader;
 import com.linkedin.pinot.core.indexsegment.IndexSegment;
 import com.linkedin.pinot.core.indexsegment.generator.SegmentGeneratorConfig;
+import com.linkedin.pinot.core.io.compression.ChunkCompressorFactory;
 import com.linkedin.pinot.core.operator.BReusableFilteredDocIdSetOperator;
 import com.linkedin.pinot.core.operator.BaseOperator;
 import com.linkedin.pinot.core.operator.MProjectionOperator;
@@ -37,12 +38,13 @@ import com.linkedin.pinot.core.plan.DocIdSetPlanNode;
 import com.linkedin.pinot.core.segment.creator.impl.SegmentIndexCreationDriverImpl;
 import com.linkedin.pinot.core.segment.creator.impl.V1Constants;
 import com.linkedin.pinot.core.segment.index.loader.Loaders;
+import com.linkedin.pinot.core.segment.store.ColumnIndexType;
+import com.linkedin.pinot.core.segment.store.SegmentDirectory;
 import com.linkedin.pinot.operator.ArrayBasedFilterBlock;
 import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileReader;
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -56,12 +58,15 @@ import org.kohsuke.args4j.Option;
  * Class to perform benchmark on lookups for dictionary encoded fwd index v.s. raw index without dictionary.
  * It can take an existing segment with two columns to compare. It can also create a segment on the fly with a
  * given input file containing strings (one string per line).
+ * When creating the segment on the fly, it can also compare the size and scan time of the raw index for each of the
+ * supported chunk compression types.
  */
 @SuppressWarnings({"FieldCanBeLocal", "unused"})
 public class RawIndexBenchmark {
   private static final String SEGMENT_DIR_NAME = System.getProperty("java.io.tmpdir") + File.separator + "rawIndexPerf";
   private static final String SEGMENT_NAME = "perfTestSegment";
   private static final int NUM_COLUMNS = 2;
+  private static final String COMPRESSION_TYPE_COLUMN_PREFIX = "raw_";
 
   private static final String DEFAULT_RAW_INDEX_COLUMN = "column_0";
   private static final String DEFAULT_FWD_INDEX_COLUMN = "column_1";
@@ -89,6 +94,10 @@ public class RawIndexBenchmark {
   @Option(name = "-numConsecutiveLookups", required = false, usage = "Number of consecutive docIds to lookup")
   private int _numConsecutiveLookups = DEFAULT_NUM_CONSECUTIVE_LOOKUP;
 
+  @Option(name = "-compareCompressionTypes", required = false, forbids = {"-segmentDir"},
+      usage = "Compare size and scan time of raw index for each compression type")
+  private boolean _compareCompressionTypes = false;
+
   @Option(name = "-help", required = false, help = true, aliases = {"-h"}, usage = "print this message")
   private boolean _help = false;
 
@@ -105,6 +114,9 @@ public class RawIndexBenchmark {
     IndexSegment segment = Loaders.IndexSegment.load(segmentFile, ReadMode.valueOf(_loadMode));
     compareIndexSizes(segment, segmentFile, _fwdIndexColumn, _rawIndexColumn);
     compareLookups(segment);
+    if (_compareCompressionTypes) {
+      compareCompressionTypes(segment, segmentFile);
+    }
 
     // Cleanup the temporary directory
     if (_segmentDir != null) {
@@ -129,8 +141,23 @@ public class RawIndexBenchmark {
       schema.addField(dimensionFieldSpec);
     }
 
+    List<String> rawIndexColumns = new ArrayList<>();
+    rawIndexColumns.add(_rawIndexColumn);
+    Map<String, ChunkCompressorFactory.CompressionType> compressionTypes = new HashMap<>();
+
+    // One extra raw index column per compression type, all with the same data.
+    if (_compareCompressionTypes) {
+      for (ChunkCompressorFactory.CompressionType compressionType : ChunkCompressorFactory.CompressionType.values()) {
+        String column = COMPRESSION_TYPE_COLUMN_PREFIX + compressionType;
+        schema.addField(new DimensionFieldSpec(column, FieldSpec.DataType.STRING, true));
+        rawIndexColumns.add(column);
+        compressionTypes.put(column, compressionType);
+      }
+    }
+
     SegmentGeneratorConfig config = new SegmentGeneratorConfig(schema);
-    config.setRawIndexCreationColumns(Collections.singletonList(_rawIndexColumn));
+    config.setRawIndexCreationColumns(rawIndexColumns);
+    config.setRawIndexCompressionType(compressionTypes);
 
     config.setOutDir(SEGMENT_DIR_NAME);
     config.setSegmentName(SEGMENT_NAME);
@@ -207,6 +234,48 @@ public class RawIndexBenchmark {
     System.out.println("Percentage change: " + ((fwdIndexTime - rawIndexTime) * 100.0 / rawIndexTime) + " %");
   }
 
+  /**
+   * Compares the index size and the scan time of the raw index columns built with each of the compression types.
+   *
+   * @param segment Segment to compare the columns for
+   * @param segmentDir Segment directory
+   * @throws Exception
+   */
+  private void compareCompressionTypes(IndexSegment segment, File segmentDir)
+      throws Exception {
+    SegmentDirectory segmentDirectory = SegmentDirectory.createFromLocalFS(segmentDir, ReadMode.mmap);
+    SegmentDirectory.Reader segmentReader = segmentDirectory.createReader();
+
+    int numDocs = segment.getSegmentMetadata().getTotalDocs();
+    int[] docIds = new int[numDocs];
+    for (int i = 0; i < numDocs; i++) {
+      docIds[i] = i;
+    }
+
+    for (ChunkCompressorFactory.CompressionType compressionType : ChunkCompressorFactory.CompressionType.values()) {
+      String column = COMPRESSION_TYPE_COLUMN_PREFIX + compressionType;
+      long rawIndexSize = segmentReader.getIndexFor(column, ColumnIndexType.FORWARD_INDEX).size();
+
+      BaseFilterOperator filterOperator = new TestFilterOperator(docIds);
+      BReusableFilteredDocIdSetOperator docIdSetOperator =
+          new BReusableFilteredDocIdSetOperator(filterOperator, docIds.length, DocIdSetPlanNode.MAX_DOC_PER_CALL);
+      MProjectionOperator projectionOperator = new MProjectionOperator(buildDataSourceMap(segment), docIdSetOperator);
+
+      ProjectionBlock projectionBlock;
+      long start = System.currentTimeMillis();
+      while ((projectionBlock = (ProjectionBlock) projectionOperator.nextBlock()) != null) {
+        ProjectionBlockValSet blockValueSet = (ProjectionBlockValSet) projectionBlock.getBlockValueSet(column);
+        blockValueSet.getStringValuesSV();
+      }
+      long scanTime = System.currentTimeMillis() - start;
+
+      System.out.println(compressionType + ": index size: " + toMegaBytes(rawIndexSize) + " MB, scan time: "
+          + scanTime + " ms, throughput: " + (numDocs * 1000L / Math.max(scanTime, 1)) + " docs/s.");
+    }
+    segmentReader.close();
+    segmentDirectory.close();
+  }
+
   /**
    * Profiles the lookup time for a given column, for the given docIds.
    *
@@ -226,7 +295,7 @@ public class RawIndexBenchmark {
     long start = System.currentTimeMillis();
     while ((projectionBlock = (ProjectionBlock) projectionOperator.nextBlock()) != null) {
       ProjectionBlockValSet blockValueSet = (ProjectionBlockValSet) projectionBlock.getBlockValueSet(column);
-      blockValueSet.getDoubleValuesSV();
+      blockValueSet.getStringValuesSV();
     }
     return (System.currentTimeMillis() - start);
   }
@@ -238,7 +307,7 @@ public class RawIndexBenchmark {
    * @return Size in MB's
    */
   private double toMegaBytes(long sizeInBytes) {
-    return sizeInBytes / (1024 * 1024);
+    return sizeInBytes / (1024.0 * 1024);
   }
 
   /**
@@ -26,13 +26,18 @@ import com.linkedin.pinot.common.query.QueryRequest;
 import com.linkedin.pinot.common.query.context.TimerContext;
 import com.linkedin.pinot.common.request.InstanceRequest;
 import com.linkedin.pinot.common.utils.DataTable;
+import com.linkedin.pinot.core.common.datatable.DataTableCompression;
+import com.linkedin.pinot.core.common.datatable.DataTableFactory;
 import com.linkedin.pinot.core.common.datatable.DataTableImplV2;
+import com.linkedin.pinot.core.io.compression.ChunkCompressorFactory;
+import com.linkedin.pinot.core.io.compression.ChunkCompressorFactory.CompressionType;
 import com.linkedin.pinot.core.query.scheduler.QueryScheduler;
 import com.linkedin.pinot.serde.SerDe;
 import com.linkedin.pinot.transport.netty.NettyServer;
 import io.netty.buffer.ByteBuf;
 import io.netty.channel.ChannelHandlerContext;
 import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
 import javax.annotation.Nullable;
 import org.apache.thrift.protocol.TCompactProtocol;
 import org.slf4j.Logger;
@@ -42,12 +47,24 @@ import org.slf4j.LoggerFactory;
 public class ScheduledRequestHandler implements NettyServer.RequestHandler {
   private static final Logger LOGGER = LoggerFactory.getLogger(ScheduledRequestHandler.class);
 
+  public static final String RESPONSE_COMPRESSION_THRESHOLD_BYTES_CONFIG = "responseCompressionThresholdBytes";
+  // Responses are only compressed when the broker asks for it, and when they are at least this large. Negative value
+  // disables response compression.
+  public static final int DEFAULT_RESPONSE_COMPRESSION_THRESHOLD_BYTES = 64 * 1024;
+
   private final ServerMetrics serverMetrics;
   private final QueryScheduler queryScheduler;
+  private final int responseCompressionThresholdBytes;
 
   public ScheduledRequestHandler(QueryScheduler queryScheduler, ServerMetrics serverMetrics) {
+    this(queryScheduler, serverMetrics, DEFAULT_RESPONSE_COMPRESSION_THRESHOLD_BYTES);
+  }
+
+  public ScheduledRequestHandler(QueryScheduler queryScheduler, ServerMetrics serverMetrics,
+      int responseCompressionThresholdBytes) {
     this.queryScheduler = queryScheduler;
     this.serverMetrics = serverMetrics;
+    this.responseCompressionThresholdBytes = responseCompressionThresholdBytes;
   }
 
   @Override
@@ -71,7 +88,7 @@ public class ScheduledRequestHandler implements NettyServer.RequestHandler {
       serverMetrics.addMeteredGlobalValue(ServerMeter.REQUEST_DESERIALIZATION_EXCEPTIONS, 1);
       QueryRequest queryRequest = new QueryRequest(null, serverMetrics);
       queryRequest.getTimerContext().setQueryArrivalTimeNs(queryStartTimeNs);
-      return Futures.immediateFuture(serializeDataTable(queryRequest, result));
+      return Futures.immediateFuture(serializeDataTable(queryRequest, result, -1));
     }
     final QueryRequest queryRequest = new QueryRequest(instanceRequest, serverMetrics);
     final TimerContext timerContext = queryRequest.getTimerContext();
@@ -104,7 +121,7 @@ public class ScheduledRequestHandler implements NettyServer.RequestHandler {
       @Nullable
       @Override
       public byte[] apply(@Nullable DataTable instanceResponse) {
-        byte[] responseData = serializeDataTable(queryRequest, instanceResponse);
+        byte[] responseData = serializeDataTable(queryRequest, instanceResponse, responseCompressionThresholdBytes);
         LOGGER.info("Processed requestId {},reqSegments={},prunedToSegmentCount={},deserTimeMs={},planTimeMs={},planExecTimeMs={},totalExecMs={},serTimeMs={}TotalTimeMs={},broker={}",
             queryRequest.getInstanceRequest().getRequestId(),
             queryRequest.getInstanceRequest().getSearchSegments().size(),
@@ -123,7 +140,8 @@ public class ScheduledRequestHandler implements NettyServer.RequestHandler {
     return serializedQueryResponse;
   }
 
-  static byte[] serializeDataTable(QueryRequest queryRequest, DataTable instanceResponse) {
+  static byte[] serializeDataTable(QueryRequest queryRequest, DataTable instanceResponse,
+      int compressionThresholdBytes) {
     byte[] responseByte;
 
     InstanceRequest instanceRequest = queryRequest.getInstanceRequest();
@@ -148,9 +166,62 @@ public class ScheduledRequestHandler implements NettyServer.RequestHandler {
     }
 
     timerContext.getPhaseTimer(ServerQueryPhase.RESPONSE_SERIALIZATION).stopAndRecord();
+    responseByte = compressResponse(queryRequest, responseByte, compressionThresholdBytes);
     timerContext.startNewPhaseTimerAtNs(ServerQueryPhase.TOTAL_QUERY_TIME, timerContext.getQueryArrivalTimeNs());
     timerContext.getPhaseTimer(ServerQueryPhase.TOTAL_QUERY_TIME).stopAndRecord();
 
     return responseByte;
   }
+
+  /**
+   * Compresses the serialized response if the broker asked for it and the response is large enough, returns the
+   * serialized response as is otherwise.
+   * <p>Rejections by an overloaded server are never compressed, so that the broker can detect them to retry the request
+   * without decompressing the response.
+   */
+  static byte[] compressResponse(QueryRequest queryRequest, byte[] responseBytes, int compressionThresholdBytes) {
+    InstanceRequest instanceRequest = queryRequest.getInstanceRequest();
+    if (responseBytes == null || compressionThresholdBytes < 0 || instanceRequest == null
+        || !instanceRequest.isSetResponseCompression() || responseBytes.length < compressionThresholdBytes) {
+      return responseBytes;
+    }
+    if (DataTableFactory.isEmptyWithException(ByteBuffer.wrap(responseBytes),
+        QueryException.SERVER_OVERLOADED_ERROR_CODE)) {
+      return responseBytes;
+    }
+
+    CompressionType compressionType = null;
+    try {
+      compressionType = ChunkCompressorFactory.getCompressionType(instanceRequest.getResponseCompression());
+    } catch (IllegalArgumentException e) {
+      // Handled below
+    }
+    if (compressionType == null || !DataTableCompression.isSupported(compressionType)) {
+      LOGGER.debug("Unsupported response compression: {} for requestId: {}, brokerId: {}",
+          instanceRequest.getResponseCompression(), instanceRequest.getRequestId(), instanceRequest.getBrokerId());
+      return responseBytes;
+    }
+
+    ServerMetrics metrics = queryRequest.getServerMetrics();
+    TimerContext.Timer compressionTimer =
+        queryRequest.getTimerContext().startNewPhaseTimer(ServerQueryPhase.RESPONSE_COMPRESSION);
+    try {
+      byte[] compressedBytes = DataTableCompression.compress(responseBytes, compressionType);
+      // Incompressible responses are sent as is
+      byte[] sentBytes = compressedBytes.length < responseBytes.length ? compressedBytes : responseBytes;
+      if (sentBytes == compressedBytes) {
+        metrics.addMeteredGlobalValue(ServerMeter.COMPRESSED_RESPONSES, 1);
+      }
+      metrics.addMeteredGlobalValue(ServerMeter.RESPONSE_BYTES_BEFORE_COMPRESSION, responseBytes.length);
+      metrics.addMeteredGlobalValue(ServerMeter.RESPONSE_BYTES_AFTER_COMPRESSION, sentBytes.length);
+      return sentBytes;
+    } catch (Exception e) {
+      metrics.addMeteredGlobalValue(ServerMeter.RESPONSE_COMPRESSION_EXCEPTIONS, 1);
+      LOGGER.error("Got exception while compressing response for requestId: {}, brokerId: {}",
+          instanceRequest.getRequestId(), instanceRequest.getBrokerId(), e);
+      return responseBytes;
+    } finally {
+      compressionTimer.stopAndRecord();
+    }
+  }
 }
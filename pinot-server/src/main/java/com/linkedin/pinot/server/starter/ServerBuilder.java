@@ -152,10 +152,14 @@ public class ServerBuilder {
   }
 
   public RequestHandlerFactory buildRequestHandlerFactory(final QueryScheduler queryScheduler) {
+    final int responseCompressionThresholdBytes = _serverConf.getRequestConfig()
+        .getInt(ScheduledRequestHandler.RESPONSE_COMPRESSION_THRESHOLD_BYTES_CONFIG,
+            ScheduledRequestHandler.DEFAULT_RESPONSE_COMPRESSION_THRESHOLD_BYTES);
+    LOGGER.info("Response compression threshold: {} bytes", responseCompressionThresholdBytes);
     RequestHandlerFactory requestHandlerFactory = new RequestHandlerFactory() {
       @Override
       public NettyServer.RequestHandler createNewRequestHandler() {
-        return new ScheduledRequestHandler(queryScheduler, _serverMetrics);
+        return new ScheduledRequestHandler(queryScheduler, _serverMetrics, responseCompressionThresholdBytes);
       }
     };
     return requestHandlerFactory;
@@ -16,6 +16,7 @@
 package com.linkedin.pinot.server.starter.helix;
 
 import com.google.common.base.Preconditions;
+import com.google.common.util.concurrent.Striped;
 import com.linkedin.pinot.common.config.AbstractTableConfig;
 import com.linkedin.pinot.common.config.TableNameBuilder;
 import com.linkedin.pinot.common.data.Schema;
@@ -36,8 +37,10 @@ import com.linkedin.pinot.core.segment.index.loader.IndexLoadingConfig;
 import java.io.File;
 import java.io.FilenameFilter;
 import java.util.Collection;
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.locks.Lock;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import org.apache.commons.configuration.Configuration;
@@ -59,16 +62,21 @@ public class HelixInstanceDataManager implements InstanceDataManager {
   private static final Logger LOGGER = LoggerFactory.getLogger(HelixInstanceDataManager.class);
 
   private static final String RELOAD_TEMP_DIR_SUFFIX = ".reload.tmp";
+  private static final int NUM_SEGMENT_LOCKS = 256;
 
   private HelixInstanceDataManagerConfig _instanceDataManagerConfig;
-  private Map<String, TableDataManager> _tableDataManagerMap = new HashMap<>();
+  private Map<String, TableDataManager> _tableDataManagerMap = new ConcurrentHashMap<>();
   private boolean _isStarted = false;
   private SegmentMetadataLoader _segmentMetadataLoader;
+  private SegmentLoadThrottler _segmentLoadThrottler;
+  // Serializes the adds and replaces of the same segment, segments with different names are still loaded in parallel
+  private final Striped<Lock> _segmentLocks = Striped.lock(NUM_SEGMENT_LOCKS);
 
   public synchronized void init(HelixInstanceDataManagerConfig instanceDataManagerConfig)
       throws ConfigurationException, InstantiationException, IllegalAccessException, ClassNotFoundException {
     _instanceDataManagerConfig = instanceDataManagerConfig;
     _segmentMetadataLoader = getSegmentMetadataLoader(_instanceDataManagerConfig.getSegmentMetadataLoaderClass());
+    initSegmentLoadThrottler();
   }
 
   @Override
@@ -84,6 +92,7 @@ public class HelixInstanceDataManager implements InstanceDataManager {
       if (!instanceSegmentTarDir.exists()) {
         instanceSegmentTarDir.mkdirs();
       }
+      initSegmentLoadThrottler();
       try {
         _segmentMetadataLoader = getSegmentMetadataLoader(_instanceDataManagerConfig.getSegmentMetadataLoaderClass());
         LOGGER.info("Loaded SegmentMetadataLoader for class name : "
@@ -102,6 +111,17 @@ public class HelixInstanceDataManager implements InstanceDataManager {
 
   }
 
+  /**
+   * Constructs the segment load throttler on the first initialization only. Segments being loaded hold permits of the
+   * existing throttler, so it is never replaced.
+   */
+  private void initSegmentLoadThrottler() {
+    if (_segmentLoadThrottler == null) {
+      _segmentLoadThrottler =
+          new SegmentLoadThrottler(_instanceDataManagerConfig.getMaxParallelSegmentLoadsPerDisk());
+    }
+  }
+
   private static SegmentMetadataLoader getSegmentMetadataLoader(String segmentMetadataLoaderClassName)
       throws InstantiationException, IllegalAccessException, ClassNotFoundException {
     return (SegmentMetadataLoader) Class.forName(segmentMetadataLoaderClassName).newInstance();
@@ -153,8 +173,15 @@ public class HelixInstanceDataManager implements InstanceDataManager {
     }
   }
 
+  /**
+   * Adds an OFFLINE segment (or a REALTIME segment loaded from disk).
+   * <p>
+   * This method is not synchronized so that segments can be loaded in parallel by the Helix state transition threads
+   * and by the startup pre-loading. The number of segments loaded in parallel from the same disk is bounded by the
+   * {@link SegmentLoadThrottler}. Concurrent adds and replaces of the same segment are serialized.
+   */
   @Override
-  public synchronized void addSegment(@Nonnull SegmentMetadata segmentMetadata,
+  public void addSegment(@Nonnull SegmentMetadata segmentMetadata,
       @Nullable AbstractTableConfig tableConfig, @Nullable Schema schema)
       throws Exception {
     String segmentName = segmentMetadata.getName();
@@ -172,13 +199,29 @@ public class HelixInstanceDataManager implements InstanceDataManager {
       LOGGER.info("Trying to add TableDataManager for OFFLINE table: {}", tableName);
       addTableIfNeed(tableConfig, tableName, null);
     }
-    _tableDataManagerMap.get(tableName)
-        .addSegment(segmentMetadata, new IndexLoadingConfig(_instanceDataManagerConfig, tableConfig), schema);
+    Lock segmentLock = getSegmentLock(tableName, segmentName);
+    segmentLock.lock();
+    try {
+      Semaphore diskSemaphore = _segmentLoadThrottler.acquire(new File(segmentMetadata.getIndexDir()));
+      try {
+        _tableDataManagerMap.get(tableName)
+            .addSegment(segmentMetadata, new IndexLoadingConfig(_instanceDataManagerConfig, tableConfig), schema);
+      } finally {
+        diskSemaphore.release();
+      }
+    } finally {
+      segmentLock.unlock();
+    }
     LOGGER.info("Added segment: {} to OFFLINE table: {}", segmentName, tableName);
   }
 
+  /**
+   * Adds a REALTIME segment.
+   * <p>
+   * REALTIME table data managers are not thread safe, so segments of the same REALTIME table are added one at a time.
+   */
   @Override
-  public synchronized void addSegment(@Nonnull ZkHelixPropertyStore<ZNRecord> propertyStore,
+  public void addSegment(@Nonnull ZkHelixPropertyStore<ZNRecord> propertyStore,
       @Nonnull AbstractTableConfig tableConfig, @Nullable InstanceZKMetadata instanceZKMetadata,
       @Nonnull SegmentZKMetadata segmentZKMetadata, @Nonnull String serverInstance)
       throws Exception {
@@ -197,15 +240,25 @@ public class HelixInstanceDataManager implements InstanceDataManager {
       LOGGER.info("Trying to add TableDataManager for REALTIME table: {}", tableName);
       addTableIfNeed(tableConfig, tableName, serverInstance);
     }
-    _tableDataManagerMap.get(tableName)
-        .addSegment(propertyStore, tableConfig, instanceZKMetadata, segmentZKMetadata,
-            new IndexLoadingConfig(_instanceDataManagerConfig, tableConfig));
+    TableDataManager tableDataManager = _tableDataManagerMap.get(tableName);
+    synchronized (tableDataManager) {
+      tableDataManager.addSegment(propertyStore, tableConfig, instanceZKMetadata, segmentZKMetadata,
+          new IndexLoadingConfig(_instanceDataManagerConfig, tableConfig));
+    }
     LOGGER.info("Added segment: {} to REALTIME table: {}", segmentName, tableName);
   }
 
+  private Lock getSegmentLock(String tableName, String segmentName) {
+    return _segmentLocks.get(tableName + "__" + segmentName);
+  }
+
   public synchronized void addTableIfNeed(@Nullable AbstractTableConfig tableConfig, @Nonnull String tableName,
       @Nullable String serverInstance)
       throws ConfigurationException {
+    if (_tableDataManagerMap.containsKey(tableName)) {
+      // Added by another thread while waiting for the lock
+      return;
+    }
     TableDataManagerConfig tableDataManagerConfig = getDefaultHelixTableDataManagerConfig(tableName);
     if (tableConfig != null) {
       tableDataManagerConfig.overrideConfigs(tableConfig);
@@ -224,7 +277,9 @@ public class HelixInstanceDataManager implements InstanceDataManager {
   @Override
   public synchronized void removeSegment(String segmentName) {
     for (TableDataManager tableDataManager : _tableDataManagerMap.values()) {
-      tableDataManager.removeSegment(segmentName);
+      synchronized (tableDataManager) {
+        tableDataManager.removeSegment(segmentName);
+      }
     }
   }
 
@@ -277,7 +332,13 @@ public class HelixInstanceDataManager implements InstanceDataManager {
     }
 
     // Replace the old segment in memory
-    _tableDataManagerMap.get(tableName).addSegment(indexSegment);
+    Lock segmentLock = getSegmentLock(tableName, segmentName);
+    segmentLock.lock();
+    try {
+      _tableDataManagerMap.get(tableName).addSegment(indexSegment);
+    } finally {
+      segmentLock.unlock();
+    }
 
     // Replace the original index directory with the temporary one
     FileUtils.deleteQuietly(indexDir);
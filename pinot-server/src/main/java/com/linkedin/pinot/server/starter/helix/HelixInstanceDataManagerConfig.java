@@ -55,6 +55,14 @@ public class HelixInstanceDataManagerConfig implements InstanceDataManagerConfig
 
   // Key of whether to enable default columns
   private static final String ENABLE_DEFAULT_COLUMNS = "enable.default.columns";
+  // Key of the number of threads used to build the indexes of different columns in parallel when committing segments
+  private static final String NUM_INDEX_CREATION_THREADS = "segment.index.creation.threads";
+  // Key of which indexes to read into the page cache when loading segments (NONE, INDEX or ALL)
+  private static final String SEGMENT_WARMUP_MODE = "segment.warmup.mode";
+  // Key of the number of threads used to warm up segments
+  private static final String NUM_SEGMENT_WARMUP_THREADS = "segment.warmup.threads";
+  // Key of the maximum number of segments loaded in parallel from the same disk
+  private static final String MAX_PARALLEL_SEGMENT_LOADS_PER_DISK = "segment.load.max.parallelism.per.disk";
 
   private final static String[] REQUIRED_KEYS = { INSTANCE_ID, INSTANCE_DATA_DIR, READ_MODE };
   private Configuration _instanceDataManagerConfiguration = null;
@@ -123,6 +131,25 @@ public class HelixInstanceDataManagerConfig implements InstanceDataManagerConfig
     return _instanceDataManagerConfiguration.getBoolean(ENABLE_DEFAULT_COLUMNS, false);
   }
 
+  @Override
+  public int getNumIndexCreationThreads() {
+    return _instanceDataManagerConfiguration.getInt(NUM_INDEX_CREATION_THREADS, 1);
+  }
+
+  @Override
+  public String getSegmentWarmupMode() {
+    return _instanceDataManagerConfiguration.getString(SEGMENT_WARMUP_MODE, null);
+  }
+
+  @Override
+  public int getNumSegmentWarmupThreads() {
+    return _instanceDataManagerConfiguration.getInt(NUM_SEGMENT_WARMUP_THREADS, 2);
+  }
+
+  public int getMaxParallelSegmentLoadsPerDisk() {
+    return _instanceDataManagerConfiguration.getInt(MAX_PARALLEL_SEGMENT_LOADS_PER_DISK, 4);
+  }
+
   @Override
   public String getAvgMultiValueCount() {
     return _instanceDataManagerConfiguration.getString(AVERAGE_MV_COUNT, null);
@@ -17,6 +17,7 @@ package com.linkedin.pinot.server.starter.helix;
 
 import com.google.common.collect.ImmutableList;
 import com.google.common.util.concurrent.Uninterruptibles;
+import java.io.File;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -29,7 +30,13 @@ import org.apache.helix.HelixManager;
 import org.apache.helix.HelixManagerFactory;
 import org.apache.helix.InstanceType;
 import org.apache.helix.PreConnectCallback;
+import org.apache.helix.PropertyPathConfig;
+import org.apache.helix.PropertyType;
 import org.apache.helix.ZNRecord;
+import org.apache.helix.manager.zk.ZKHelixAdmin;
+import org.apache.helix.manager.zk.ZNRecordSerializer;
+import org.apache.helix.manager.zk.ZkBaseDataAccessor;
+import org.apache.helix.manager.zk.ZkClient;
 import org.apache.helix.model.HelixConfigScope;
 import org.apache.helix.model.HelixConfigScope.ConfigScopeProperty;
 import org.apache.helix.model.InstanceConfig;
@@ -51,6 +58,9 @@ import com.linkedin.pinot.common.utils.NetUtil;
 import com.linkedin.pinot.common.utils.ServiceStatus;
 import com.linkedin.pinot.common.utils.ZkUtils;
 import com.linkedin.pinot.core.indexsegment.columnar.ColumnarSegmentMetadataLoader;
+import com.linkedin.pinot.core.segment.index.loader.warmup.SegmentWarmer;
+import com.linkedin.pinot.core.segment.memory.PinotDataBuffer;
+import com.linkedin.pinot.core.segment.store.IndexBufferCache;
 import com.linkedin.pinot.server.conf.ServerConf;
 import com.linkedin.pinot.server.realtime.ControllerLeaderLocator;
 import com.linkedin.pinot.server.starter.ServerInstance;
@@ -109,11 +119,23 @@ public class HelixServerStarter {
                     CommonConstants.Helix.DEFAULT_SERVER_NETTY_PORT));
 
     pinotHelixProperties.addProperty("pinot.server.instance.id", _instanceId);
+    if (pinotHelixProperties.getBoolean(CommonConstants.Server.CONFIG_OF_USE_UNSAFE_DATA_BUFFER,
+        CommonConstants.Server.DEFAULT_USE_UNSAFE_DATA_BUFFER)) {
+      LOGGER.info("Using unsafe data buffers for segment indexes");
+      PinotDataBuffer.setUseUnsafeBuffer(true);
+    }
     startServerInstance(pinotHelixProperties);
+    if (pinotHelixProperties.getString(CommonConstants.Server.CONFIG_OF_DEEP_STORE_ROOT_URI) != null) {
+      initIndexBufferCache(pinotHelixProperties);
+    }
 
     LOGGER.info("Connecting Helix components");
     // Replace all white-spaces from list of zkServers.
     String zkServers = zkServer.replaceAll("\\s+", "");
+    if (pinotHelixProperties.getBoolean(CommonConstants.Server.CONFIG_OF_ENABLE_SEGMENT_PRELOAD,
+        CommonConstants.Server.DEFAULT_ENABLE_SEGMENT_PRELOAD)) {
+      preloadSegments(helixClusterName, zkServers, pinotHelixProperties);
+    }
     _helixManager =
         HelixManagerFactory.getZKHelixManager(helixClusterName, _instanceId, InstanceType.PARTICIPANT, zkServers);
     final StateMachineEngine stateMachineEngine = _helixManager.getStateMachineEngine();
@@ -202,6 +224,47 @@ public class HelixServerStarter {
                 return (long) MmapUtils.getAllocationFailureCount();
               }
             });
+
+    // Create metrics for segment warmup
+    _serverInstance.getServerMetrics().addCallbackGauge(
+        "segment.warmupBytesRead", new Callable<Long>() {
+              @Override
+              public Long call() throws Exception {
+                return SegmentWarmer.getTotalWarmupBytesRead();
+              }
+            });
+
+    _serverInstance.getServerMetrics().addCallbackGauge(
+        "segment.warmupTimeMs", new Callable<Long>() {
+              @Override
+              public Long call() throws Exception {
+                return SegmentWarmer.getTotalWarmupTimeMs();
+              }
+            });
+  }
+
+  /**
+   * Loads the local segments assigned to this instance in parallel before joining the cluster, so that the server
+   * does not have to load them one state transition at a time.
+   */
+  private void preloadSegments(String helixClusterName, String zkServers, Configuration pinotHelixProperties) {
+    ZkClient zkClient = new ZkClient(zkServers, ZkClient.DEFAULT_SESSION_TIMEOUT, ZkClient.DEFAULT_CONNECTION_TIMEOUT,
+        new ZNRecordSerializer());
+    try {
+      ZkHelixPropertyStore<ZNRecord> propertyStore =
+          new ZkHelixPropertyStore<>(new ZkBaseDataAccessor<ZNRecord>(zkClient),
+              PropertyPathConfig.getPath(PropertyType.PROPERTYSTORE, helixClusterName), null);
+      SegmentFetcherAndLoader fetcherAndLoader = new SegmentFetcherAndLoader(_serverInstance.getInstanceDataManager(),
+          new ColumnarSegmentMetadataLoader(), propertyStore, pinotHelixProperties, _instanceId);
+      int numThreads = pinotHelixProperties.getInt(CommonConstants.Server.CONFIG_OF_SEGMENT_PRELOAD_THREADS,
+          CommonConstants.Server.DEFAULT_SEGMENT_PRELOAD_THREADS);
+      new SegmentPreloader(helixClusterName, _instanceId, new ZKHelixAdmin(zkClient), fetcherAndLoader,
+          _serverInstance.getInstanceDataManager().getSegmentDataDirectory(), numThreads).preload();
+    } catch (Exception e) {
+      LOGGER.error("Caught exception while pre-loading segments, segments will be loaded by state transitions", e);
+    } finally {
+      zkClient.close();
+    }
   }
 
   private void updateInstanceConfigInHelix(int adminApiPort, boolean shuttingDown) {
@@ -240,6 +303,36 @@ public class HelixServerStarter {
     }
   }
 
+  /**
+   * Creates the local cache of the index buffers fetched from the deep store for the segments of the cold tier.
+   */
+  private void initIndexBufferCache(Configuration pinotHelixProperties)
+      throws Exception {
+    String cacheDir = pinotHelixProperties.getString(CommonConstants.Server.CONFIG_OF_INDEX_BUFFER_CACHE_DIR,
+        new File(pinotHelixProperties.getString(CommonConstants.Server.CONFIG_OF_INSTANCE_SEGMENT_TAR_DIR,
+            CommonConstants.Server.DEFAULT_INSTANCE_SEGMENT_TAR_DIR),
+            CommonConstants.Server.DEFAULT_INDEX_BUFFER_CACHE_DIR_NAME).getPath());
+    long maxSizeBytes = pinotHelixProperties.getLong(CommonConstants.Server.CONFIG_OF_INDEX_BUFFER_CACHE_MAX_SIZE_BYTES,
+        CommonConstants.Server.DEFAULT_INDEX_BUFFER_CACHE_MAX_SIZE_BYTES);
+    IndexBufferCache.init(new File(cacheDir), maxSizeBytes, _serverInstance.getServerMetrics());
+
+    _serverInstance.getServerMetrics().addCallbackGauge(
+        "indexBufferCache.hitRatePercent", new Callable<Long>() {
+              @Override
+              public Long call() throws Exception {
+                return IndexBufferCache.getInstance().getHitRatePercent();
+              }
+            });
+
+    _serverInstance.getServerMetrics().addCallbackGauge(
+        "indexBufferCache.sizeBytes", new Callable<Long>() {
+              @Override
+              public Long call() throws Exception {
+                return IndexBufferCache.getInstance().getCachedSizeBytes();
+              }
+            });
+  }
+
   private void startServerInstance(Configuration moreConfigurations) throws Exception {
     Utils.logVersions();
 
@@ -31,10 +31,16 @@ import com.linkedin.pinot.common.utils.TarGzCompressionUtils;
 import com.linkedin.pinot.common.utils.helix.PinotHelixPropertyStoreZnRecordProvider;
 import com.linkedin.pinot.core.segment.index.SegmentMetadataImpl;
 import com.linkedin.pinot.core.segment.index.loader.V3RemoveIndexException;
+import com.linkedin.pinot.core.segment.store.RemoteSegmentUtils;
+import com.linkedin.pinot.core.segment.store.SegmentDeepStoreFactory;
 import java.io.File;
 import java.io.IOException;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Set;
 import java.util.concurrent.TimeUnit;
 import org.apache.commons.configuration.Configuration;
+import org.apache.commons.configuration.ConfigurationMap;
 import org.apache.commons.io.FileUtils;
 import org.apache.helix.ZNRecord;
 import org.apache.helix.store.zk.ZkHelixPropertyStore;
@@ -52,6 +58,8 @@ public class SegmentFetcherAndLoader {
 
   private final int _segmentLoadMaxRetryCount;
   private final long _segmentLoadMinRetryDelayMs; // Min delay (in msecs) between retries
+  // Root URI of the deep store of the segments whose indexes are fetched on demand, null if not configured
+  private final String _deepStoreRootUri;
 
   public SegmentFetcherAndLoader(DataManager dataManager, SegmentMetadataLoader metadataLoader,
       ZkHelixPropertyStore<ZNRecord> propertyStore, Configuration pinotHelixProperties, String instanceId) {
@@ -80,6 +88,24 @@ public class SegmentFetcherAndLoader {
     _segmentLoadMinRetryDelayMs = minRetryDelayMillis;
 
     SegmentFetcherFactory.initSegmentFetcherFactory(pinotHelixProperties);
+
+    _deepStoreRootUri = pinotHelixProperties.getString(CommonConstants.Server.CONFIG_OF_DEEP_STORE_ROOT_URI, null);
+    if (_deepStoreRootUri != null) {
+      initSegmentDeepStores(pinotHelixProperties);
+    }
+  }
+
+  private void initSegmentDeepStores(Configuration pinotHelixProperties) {
+    Configuration deepStoreConfig =
+        pinotHelixProperties.subset(CommonConstants.Server.PREFIX_OF_CONFIG_OF_SEGMENT_DEEP_STORE);
+    Set<String> protocols = new HashSet<>();
+    Iterator keys = deepStoreConfig.getKeys();
+    while (keys.hasNext()) {
+      protocols.add(keys.next().toString().split("\\.", 2)[0]);
+    }
+    for (String protocol : protocols) {
+      SegmentDeepStoreFactory.initSegmentDeepStore(new ConfigurationMap(deepStoreConfig.subset(protocol)));
+    }
   }
 
   public void addOrReplaceOfflineSegment(String tableName, String segmentId, boolean retryOnFailure) {
@@ -166,7 +192,17 @@ public class SegmentFetcherAndLoader {
           try {
             AbstractTableConfig tableConfig = ZKMetadataProvider.getOfflineTableConfig(_propertyStore, tableName);
             final String uri = offlineSegmentZKMetadata.getDownloadUrl();
-            final String localSegmentDir = downloadSegmentToLocal(uri, tableName, segmentId);
+            String remoteSegmentUri = null;
+            if (_deepStoreRootUri != null) {
+              remoteSegmentUri = RemoteSegmentUtils.getRemoteV3DirectoryUri(_deepStoreRootUri, tableName, segmentId);
+            }
+            final String localSegmentDir;
+            if (remoteSegmentUri != null) {
+              // Only fetch the metadata, the indexes are fetched from the deep store on demand
+              localSegmentDir = linkRemoteSegment(remoteSegmentUri, tableName, segmentId);
+            } else {
+              localSegmentDir = downloadSegmentToLocal(uri, tableName, segmentId);
+            }
             final SegmentMetadata segmentMetadata =
                 _metadataLoader.loadIndexSegmentMetadataFromDir(localSegmentDir);
             _dataManager.addSegment(segmentMetadata, tableConfig, schema);
@@ -284,6 +320,15 @@ public class SegmentFetcherAndLoader {
     }
   }
 
+  private String linkRemoteSegment(String remoteSegmentUri, String tableName, String segmentId)
+      throws Exception {
+    final File segmentDir = new File(new File(_dataManager.getSegmentDataDirectory(), tableName), segmentId);
+    LOGGER.info("Linking segment {} of table {} to remote segment {}", segmentId, tableName, remoteSegmentUri);
+    RemoteSegmentUtils.linkRemoteSegment(remoteSegmentUri, segmentDir);
+    new File(segmentDir, "finishedLoading").createNewFile();
+    return segmentDir.getAbsolutePath();
+  }
+
   public String getSegmentLocalDirectory(String tableName, String segmentId) {
     return _dataManager.getSegmentDataDirectory() + "/" + tableName + "/" + segmentId;
   }
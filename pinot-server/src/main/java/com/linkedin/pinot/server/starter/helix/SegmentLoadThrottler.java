@@ -0,0 +1,91 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.server.starter.helix;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Semaphore;
+import javax.annotation.Nonnull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * Limits the number of segments loaded in parallel from the same disk.
+ * <p>
+ * Segment loading (including the pre-processing of the segment) is mostly IO bound, so instead of one global limit we
+ * keep one semaphore per file store, so that segments on different disks do not throttle each other.
+ */
+public class SegmentLoadThrottler {
+  private static final Logger LOGGER = LoggerFactory.getLogger(SegmentLoadThrottler.class);
+
+  private final int _maxParallelLoadsPerDisk;
+  private final ConcurrentMap<Object, Semaphore> _diskSemaphoreMap = new ConcurrentHashMap<>();
+
+  public SegmentLoadThrottler(int maxParallelLoadsPerDisk) {
+    _maxParallelLoadsPerDisk = Math.max(maxParallelLoadsPerDisk, 1);
+  }
+
+  /**
+   * Blocks until a segment can be loaded from the disk holding the given index directory, and returns the semaphore
+   * that must be released once the segment has been loaded.
+   */
+  @Nonnull
+  public Semaphore acquire(@Nonnull File indexDir)
+      throws InterruptedException {
+    Semaphore semaphore = getSemaphore(getDiskKey(indexDir));
+    if (!semaphore.tryAcquire()) {
+      LOGGER.info("Waiting to load segment from: {}, {} segments are already loading from the same disk", indexDir,
+          _maxParallelLoadsPerDisk);
+      semaphore.acquire();
+    }
+    return semaphore;
+  }
+
+  private Semaphore getSemaphore(Object diskKey) {
+    Semaphore semaphore = _diskSemaphoreMap.get(diskKey);
+    if (semaphore == null) {
+      Semaphore newSemaphore = new Semaphore(_maxParallelLoadsPerDisk);
+      semaphore = _diskSemaphoreMap.putIfAbsent(diskKey, newSemaphore);
+      if (semaphore == null) {
+        semaphore = newSemaphore;
+      }
+    }
+    return semaphore;
+  }
+
+  /**
+   * Returns the file store of the index directory (or of its closest existing parent), or the root of the path if the
+   * file store cannot be determined.
+   */
+  private static Object getDiskKey(File indexDir) {
+    File file = indexDir.getAbsoluteFile();
+    while (file != null && !file.exists()) {
+      file = file.getParentFile();
+    }
+    if (file != null) {
+      try {
+        return Files.getFileStore(file.toPath());
+      } catch (IOException e) {
+        LOGGER.warn("Caught exception while getting the file store of: {}", file, e);
+      }
+    }
+    return indexDir.getAbsoluteFile().toPath().getRoot();
+  }
+}
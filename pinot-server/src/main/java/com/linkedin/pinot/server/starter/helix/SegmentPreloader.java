@@ -0,0 +1,131 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.server.starter.helix;
+
+import com.linkedin.pinot.common.config.TableNameBuilder;
+import com.linkedin.pinot.common.utils.CommonConstants;
+import com.linkedin.pinot.common.utils.NamedThreadFactory;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.helix.HelixAdmin;
+import org.apache.helix.model.IdealState;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * Loads the OFFLINE segments that are already present on the local disk in parallel, before the server joins the
+ * cluster.
+ * <p>
+ * Only the segments assigned to this instance in the ideal state are loaded, so that no segment ends up loaded without
+ * a Helix state transition to drop it later. When the OFFLINE -> ONLINE transitions arrive after joining the cluster,
+ * {@link SegmentFetcherAndLoader} finds the segments already loaded with the same CRC and returns immediately.
+ * <p>
+ * Failures are only logged, the state transition for the segment will load it again.
+ */
+public class SegmentPreloader {
+  private static final Logger LOGGER = LoggerFactory.getLogger(SegmentPreloader.class);
+
+  private final String _helixClusterName;
+  private final String _instanceId;
+  private final HelixAdmin _helixAdmin;
+  private final SegmentFetcherAndLoader _fetcherAndLoader;
+  private final File _instanceDataDir;
+  private final int _numThreads;
+
+  public SegmentPreloader(String helixClusterName, String instanceId, HelixAdmin helixAdmin,
+      SegmentFetcherAndLoader fetcherAndLoader, String instanceDataDir, int numThreads) {
+    _helixClusterName = helixClusterName;
+    _instanceId = instanceId;
+    _helixAdmin = helixAdmin;
+    _fetcherAndLoader = fetcherAndLoader;
+    _instanceDataDir = new File(instanceDataDir);
+    _numThreads = Math.max(numThreads, 1);
+  }
+
+  /**
+   * Loads all the local segments assigned to this instance, and returns the number of segments loaded.
+   */
+  public int preload()
+      throws InterruptedException {
+    long startTime = System.currentTimeMillis();
+    File[] tableDirs = _instanceDataDir.listFiles();
+    if (tableDirs == null) {
+      LOGGER.info("No local segment to pre-load under: {}", _instanceDataDir);
+      return 0;
+    }
+
+    ExecutorService executorService =
+        Executors.newFixedThreadPool(_numThreads, new NamedThreadFactory("SegmentPreloader"));
+    final AtomicInteger numSegmentsLoaded = new AtomicInteger();
+    List<Future<?>> futures = new ArrayList<>();
+    try {
+      for (File tableDir : tableDirs) {
+        final String tableName = tableDir.getName();
+        if (!tableDir.isDirectory()
+            || TableNameBuilder.getTableTypeFromTableName(tableName) != CommonConstants.Helix.TableType.OFFLINE) {
+          continue;
+        }
+        IdealState idealState = _helixAdmin.getResourceIdealState(_helixClusterName, tableName);
+        if (idealState == null) {
+          LOGGER.info("Skip pre-loading table: {} without ideal state", tableName);
+          continue;
+        }
+        for (final String segmentName : idealState.getPartitionSet()) {
+          Map<String, String> instanceStateMap = idealState.getInstanceStateMap(segmentName);
+          if (instanceStateMap == null || !CommonConstants.Helix.StateModel.SegmentOnlineOfflineStateModel.ONLINE
+              .equals(instanceStateMap.get(_instanceId))) {
+            continue;
+          }
+          if (!new File(tableDir, segmentName).isDirectory()) {
+            continue;
+          }
+          futures.add(executorService.submit(new Runnable() {
+            @Override
+            public void run() {
+              try {
+                _fetcherAndLoader.addOrReplaceOfflineSegment(tableName, segmentName, false);
+                numSegmentsLoaded.incrementAndGet();
+              } catch (Exception e) {
+                LOGGER.warn("Caught exception while pre-loading segment: {} of table: {}", segmentName, tableName, e);
+              }
+            }
+          }));
+        }
+      }
+      for (Future<?> future : futures) {
+        try {
+          future.get();
+        } catch (ExecutionException e) {
+          // Exceptions are already handled inside the task
+        }
+      }
+    } finally {
+      executorService.shutdownNow();
+    }
+
+    LOGGER.info("Pre-loaded {} of {} local segments with {} threads in {}ms", numSegmentsLoaded.get(), futures.size(),
+        _numThreads, System.currentTimeMillis() - startTime);
+    return numSegmentsLoaded.get();
+  }
+}
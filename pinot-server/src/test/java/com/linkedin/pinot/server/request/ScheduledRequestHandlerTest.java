@@ -26,6 +26,7 @@ import com.linkedin.pinot.common.request.InstanceRequest;
 import com.linkedin.pinot.common.utils.DataSchema;
 import com.linkedin.pinot.common.utils.DataTable;
 import com.linkedin.pinot.core.common.datatable.DataTableBuilder;
+import com.linkedin.pinot.core.common.datatable.DataTableCompression;
 import com.linkedin.pinot.core.common.datatable.DataTableFactory;
 import com.linkedin.pinot.core.common.datatable.DataTableImplV2;
 import com.linkedin.pinot.core.query.executor.ServerQueryExecutorV1Impl;
@@ -37,6 +38,7 @@ import io.netty.buffer.Unpooled;
 import io.netty.channel.ChannelHandlerContext;
 import java.io.IOException;
 import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
 import java.util.Arrays;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
@@ -183,4 +185,79 @@ public class ScheduledRequestHandlerTest {
     Assert.assertEquals(responseDT.getInt(1, 1), 100);
   }
 
+  @Test
+  public void testCompressedQueryResponse()
+      throws Exception {
+    final int numRows = 1000;
+    QueryScheduler queryScheduler = new QueryScheduler(queryExecutor) {
+      @Override
+      public ListenableFuture<DataTable> submit(QueryRequest queryRequest) {
+        return queryRunners.submit(new Callable<DataTable>() {
+          @Override
+          public DataTable call()
+              throws Exception {
+            DataSchema dataSchema =
+                new DataSchema(new String[]{"foo"}, new FieldSpec.DataType[]{FieldSpec.DataType.INT});
+            DataTableBuilder dtBuilder = new DataTableBuilder(dataSchema);
+            for (int i = 0; i < numRows; i++) {
+              dtBuilder.startRow();
+              dtBuilder.setColumn(0, i % 10);
+              dtBuilder.finishRow();
+            }
+            return dtBuilder.build();
+          }
+        });
+      }
+    };
+    ScheduledRequestHandler handler = new ScheduledRequestHandler(queryScheduler, serverMetrics, 1024);
+
+    // Compression not asked by the broker
+    InstanceRequest instanceRequest = getInstanceRequest();
+    byte[] responseBytes = handler.processRequest(channelHandlerContext, getSerializedInstanceRequest(instanceRequest))
+        .get(2, TimeUnit.SECONDS);
+    Assert.assertFalse(DataTableCompression.isCompressed(responseBytes));
+    int uncompressedLength = responseBytes.length;
+
+    for (String compression : new String[]{"snappy", "LZ4"}) {
+      instanceRequest.setResponseCompression(compression);
+      responseBytes = handler.processRequest(channelHandlerContext, getSerializedInstanceRequest(instanceRequest))
+          .get(2, TimeUnit.SECONDS);
+      Assert.assertTrue(DataTableCompression.isCompressed(responseBytes));
+      Assert.assertTrue(responseBytes.length < uncompressedLength);
+      DataTable responseDT = DataTableFactory.getDataTable(responseBytes);
+      Assert.assertEquals(responseDT.getNumberOfRows(), numRows);
+      for (int i = 0; i < numRows; i++) {
+        Assert.assertEquals(responseDT.getInt(i, 0), i % 10);
+      }
+    }
+
+    // Unknown compression is ignored
+    instanceRequest.setResponseCompression("unknown");
+    responseBytes = handler.processRequest(channelHandlerContext, getSerializedInstanceRequest(instanceRequest))
+        .get(2, TimeUnit.SECONDS);
+    Assert.assertFalse(DataTableCompression.isCompressed(responseBytes));
+
+    // Response below the threshold
+    handler = new ScheduledRequestHandler(queryScheduler, serverMetrics, uncompressedLength + 1);
+    instanceRequest.setResponseCompression("LZ4");
+    responseBytes = handler.processRequest(channelHandlerContext, getSerializedInstanceRequest(instanceRequest))
+        .get(2, TimeUnit.SECONDS);
+    Assert.assertFalse(DataTableCompression.isCompressed(responseBytes));
+    Assert.assertEquals(responseBytes.length, uncompressedLength);
+  }
+
+  @Test
+  public void testRejectionNotCompressed()
+      throws Exception {
+    InstanceRequest instanceRequest = getInstanceRequest();
+    instanceRequest.setResponseCompression("LZ4");
+    QueryRequest queryRequest = new QueryRequest(instanceRequest, serverMetrics);
+    DataTable rejection = new DataTableImplV2();
+    rejection.addException(QueryException.SERVER_OVERLOADED_ERROR);
+
+    byte[] responseBytes = ScheduledRequestHandler.serializeDataTable(queryRequest, rejection, 0);
+    Assert.assertFalse(DataTableCompression.isCompressed(responseBytes));
+    Assert.assertTrue(DataTableFactory.isEmptyWithException(ByteBuffer.wrap(responseBytes),
+        QueryException.SERVER_OVERLOADED_ERROR_CODE));
+  }
 }
@@ -0,0 +1,71 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.server.starter.helix;
+
+import java.io.File;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import org.apache.commons.io.FileUtils;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+
+public class SegmentLoadThrottlerTest {
+  private static final File TEMP_DIR = FileUtils.getTempDirectory();
+
+  @Test
+  public void testPerDiskLimit()
+      throws Exception {
+    final SegmentLoadThrottler throttler = new SegmentLoadThrottler(2);
+    Semaphore first = throttler.acquire(new File(TEMP_DIR, "segment1"));
+    Semaphore second = throttler.acquire(new File(TEMP_DIR, "segment2"));
+    Assert.assertSame(first, second);
+    Assert.assertEquals(first.availablePermits(), 0);
+
+    // The third load from the same disk must wait until one of the first two finishes
+    final CountDownLatch acquired = new CountDownLatch(1);
+    Thread thread = new Thread(new Runnable() {
+      @Override
+      public void run() {
+        try {
+          throttler.acquire(new File(TEMP_DIR, "segment3")).release();
+          acquired.countDown();
+        } catch (InterruptedException e) {
+          // Test fails on the latch
+        }
+      }
+    });
+    thread.start();
+    Assert.assertFalse(acquired.await(200, TimeUnit.MILLISECONDS));
+    first.release();
+    Assert.assertTrue(acquired.await(10, TimeUnit.SECONDS));
+    thread.join();
+
+    second.release();
+    Assert.assertEquals(first.availablePermits(), 2);
+  }
+
+  @Test
+  public void testNonExistingDir()
+      throws Exception {
+    // Segments not yet on disk are throttled on the disk of their closest existing parent
+    SegmentLoadThrottler throttler = new SegmentLoadThrottler(1);
+    Semaphore semaphore = throttler.acquire(new File(TEMP_DIR, "nonExistingTable/nonExistingSegment"));
+    Assert.assertEquals(semaphore.availablePermits(), 0);
+    semaphore.release();
+  }
+}
@@ -15,6 +15,7 @@
  */
 package com.linkedin.pinot.routing;
 
+import java.util.List;
 import java.util.Map;
 
 import com.linkedin.pinot.common.response.ServerInstance;
@@ -50,6 +51,12 @@ public class CfgBasedRouting implements RoutingTable {
     return cfg.buildRequestRoutingMap();
   }
 
+  @Override
+  public Map<List<ServerInstance>, SegmentIdSet> findReplicaGroups(RoutingTableLookupRequest request) {
+    // Servers are statically configured for each segment set
+    return null;
+  }
+
   @Override
   public boolean routingTableExists(String tableName) {
     Map<ServerInstance, SegmentIdSet> routingTableEntry = findServers(new RoutingTableLookupRequest(tableName, null));
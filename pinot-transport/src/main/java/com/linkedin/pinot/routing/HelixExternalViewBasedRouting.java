@@ -16,6 +16,7 @@
 
 package com.linkedin.pinot.routing;
 
+import com.google.common.base.Splitter;
 import com.google.common.collect.Sets;
 import com.linkedin.pinot.common.utils.EqualityUtils;
 import com.linkedin.pinot.common.utils.helix.HelixHelper;
@@ -31,6 +32,7 @@ import java.util.Random;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
+import org.I0Itec.zkclient.IZkDataListener;
 import org.apache.commons.configuration.Configuration;
 import org.apache.helix.AccessOption;
 import org.apache.helix.HelixDataAccessor;
@@ -45,13 +47,20 @@ import org.json.JSONArray;
 import org.json.JSONObject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import com.linkedin.pinot.common.config.AbstractTableConfig;
 import com.linkedin.pinot.common.config.TableNameBuilder;
+import com.linkedin.pinot.common.metadata.ZKMetadataProvider;
+import com.linkedin.pinot.common.metadata.segment.OfflineSegmentZKMetadata;
+import com.linkedin.pinot.common.metadata.segment.RealtimeSegmentZKMetadata;
+import com.linkedin.pinot.common.metadata.segment.SegmentZKMetadata;
 import com.linkedin.pinot.common.metrics.BrokerMeter;
 import com.linkedin.pinot.common.metrics.BrokerMetrics;
 import com.linkedin.pinot.common.metrics.BrokerTimer;
 import com.linkedin.pinot.common.response.ServerInstance;
 import com.linkedin.pinot.common.utils.CommonConstants;
 import com.linkedin.pinot.common.utils.NetUtil;
+import com.linkedin.pinot.common.utils.request.FilterQueryTree;
+import com.linkedin.pinot.common.utils.request.RequestUtils;
 import com.linkedin.pinot.routing.builder.BalancedRandomRoutingTableBuilder;
 import com.linkedin.pinot.routing.builder.KafkaHighLevelConsumerBasedRoutingTableBuilder;
 import com.linkedin.pinot.routing.builder.KafkaLowLevelConsumerRoutingTableBuilder;
@@ -89,6 +98,71 @@ public class HelixExternalViewBasedRouting implements RoutingTable {
   private final Map<String, List<ServerToSegmentSetMap>> _llcBrokerRoutingTable =
       new ConcurrentHashMap<String, List<ServerToSegmentSetMap>>();
 
+  /*
+   * _replicaGroupsTable has entries for offline tables only when replica groups are enabled, and groups the segments by
+   * the sorted list of servers hosting an online replica of them, for the replica selection, hedging and retries done
+   * at query time.
+   */
+  private final Map<String, Map<List<ServerInstance>, SegmentIdSet>> _replicaGroupsTable = new ConcurrentHashMap<>();
+  private volatile boolean _enableReplicaGroups = false;
+
+  /*
+   * _segmentPartitionIndexes has entries for tables with a segment partition config only, and indexes their segments by
+   * partition id to prune the routing of queries with predicates on the partitioned columns.
+   */
+  private final Map<String, SegmentPartitionIndex> _segmentPartitionIndexes = new ConcurrentHashMap<>();
+
+  /*
+   * _segmentValueRangeIndexes has entries for all tables when segment metadata pruning is enabled, and keeps the
+   * empty segments and the min/max values of the columns of the segments to prune the routing of the queries.
+   */
+  private final Map<String, SegmentValueRangeIndex> _segmentValueRangeIndexes = new ConcurrentHashMap<>();
+  private boolean _enableSegmentMetadataPruning = false;
+
+  /*
+   * _segmentZKMetadataCache has entries for the tables with segment pruning indexes, and keeps the ZK metadata of their
+   * segments along with the ZK version it was read at, so that only the metadata of the added or changed segments is
+   * read again on external view changes. The ZK metadata of the cached segments is watched, as refreshing a segment
+   * changes its metadata without changing the external view.
+   */
+  private final Map<String, Map<String, CachedSegmentZKMetadata>> _segmentZKMetadataCache = new ConcurrentHashMap<>();
+  private final IZkDataListener _segmentZKMetadataChangeListener = new IZkDataListener() {
+    @Override
+    public void handleDataChange(String dataPath, Object data) {
+      List<String> zkPathParts = Splitter.on('/').splitToList(dataPath);
+      if (zkPathParts.size() < 2) {
+        return;
+      }
+      String tableName = zkPathParts.get(zkPathParts.size() - 2);
+      String segmentName = zkPathParts.get(zkPathParts.size() - 1);
+      try {
+        refreshSegmentPruningIndexes(tableName, segmentName);
+      } catch (Exception e) {
+        // Routing without pruning is still correct, the indexes are rebuilt on the next external view change
+        LOGGER.warn("Failed to refresh the segment pruning indexes for {} after segment {} changed", tableName,
+            segmentName, e);
+        removeSegmentPruningIndexes(tableName);
+        _lastKnownExternalViewVersionMap.put(tableName, INVALID_EXTERNAL_VIEW_VERSION);
+      }
+    }
+
+    @Override
+    public void handleDataDeleted(String dataPath) {
+      // The external view change removing the segment drops it from the indexes
+    }
+  };
+
+  /*
+   * _incrementalRoutingStates has entries for offline tables only when incremental routing updates are enabled, and
+   * keeps the online replicas of the segments the routing tables were computed for, so that the routing tables can be
+   * updated with only the segments that changed on the next external view change.
+   */
+  private final Map<String, IncrementalRoutingState> _incrementalRoutingStates = new ConcurrentHashMap<>();
+  private boolean _enableIncrementalRoutingUpdate = false;
+  // Routing tables are rebuilt from scratch once this ratio of the segments changed since the last full rebuild
+  private double _maxIncrementalRoutingUpdateRatio = DEFAULT_MAX_INCREMENTAL_ROUTING_UPDATE_RATIO;
+  private static final double DEFAULT_MAX_INCREMENTAL_ROUTING_UPDATE_RATIO = 0.1;
+
   private final Map<String, Integer> _lastKnownExternalViewVersionMap = new ConcurrentHashMap<>();
   private final Map<String, Map<String, InstanceConfig>> _lastKnownInstanceConfigsForTable = new ConcurrentHashMap<>();
   private final Map<String, InstanceConfig> _lastKnownInstanceConfigs = new ConcurrentHashMap<>();
@@ -98,10 +172,21 @@ public class HelixExternalViewBasedRouting implements RoutingTable {
   private final HelixExternalViewBasedTimeBoundaryService _timeBoundaryService;
   private final RoutingTableSelector _routingTableSelector;
   private final HelixManager _helixManager;
+  private final ZkHelixPropertyStore<ZNRecord> _propertyStore;
   private static final int INVALID_EXTERNAL_VIEW_VERSION = Integer.MIN_VALUE;
 
   private BrokerMetrics _brokerMetrics;
 
+  /**
+   * Enables the replica groups returned by {@link #findReplicaGroups(RoutingTableLookupRequest)}, which are only
+   * needed to pick the replicas per request, to hedge requests or to retry the requests rejected by overloaded servers.
+   * Must be called before the tables are marked online.
+   */
+  public void setEnableReplicaGroups(boolean enableReplicaGroups) {
+    _enableReplicaGroups = enableReplicaGroups;
+    LOGGER.info("Replica groups are {}", enableReplicaGroups ? "enabled" : "disabled");
+  }
+
   /**
    * Changes the small cluster routing builder, only used by tests.
    */
@@ -111,6 +196,7 @@ public class HelixExternalViewBasedRouting implements RoutingTable {
 
   public HelixExternalViewBasedRouting(ZkHelixPropertyStore<ZNRecord> propertyStore,
       RoutingTableSelector routingTableSelector, HelixManager helixManager, Configuration configuration) {
+    _propertyStore = propertyStore;
     _timeBoundaryService = new HelixExternalViewBasedTimeBoundaryService(propertyStore);
     _largeClusterRoutingTableBuilder = new LargeClusterRoutingTableBuilder();
     _smallClusterRoutingTableBuilder = new BalancedRandomRoutingTableBuilder();
@@ -145,6 +231,15 @@ public class HelixExternalViewBasedRouting implements RoutingTable {
       LOGGER.info("Using default value for large cluster min replica count of {}", MIN_REPLICA_COUNT_FOR_LARGE_CLUSTER);
     }
 
+    _enableSegmentMetadataPruning = configuration.getBoolean("enableSegmentMetadataPruning", false);
+    LOGGER.info("Segment metadata pruning on the broker is {}", _enableSegmentMetadataPruning ? "enabled" : "disabled");
+
+    _enableIncrementalRoutingUpdate = configuration.getBoolean("enableIncrementalRoutingUpdate", false);
+    _maxIncrementalRoutingUpdateRatio =
+        configuration.getDouble("maxIncrementalRoutingUpdateRatio", DEFAULT_MAX_INCREMENTAL_ROUTING_UPDATE_RATIO);
+    LOGGER.info("Incremental routing table update is {}, max ratio of segments changed between full rebuilds {}",
+        _enableIncrementalRoutingUpdate ? "enabled" : "disabled", _maxIncrementalRoutingUpdateRatio);
+
     _largeClusterRoutingTableBuilder.init(configuration);
     _smallClusterRoutingTableBuilder.init(configuration);
     _realtimeHLCRoutingTableBuilder.init(configuration);
@@ -207,7 +302,48 @@ public class HelixExternalViewBasedRouting implements RoutingTable {
     if (serverToSegmentSetMaps == null || serverToSegmentSetMaps.isEmpty()) {
       return Collections.emptyMap();
     }
-    return serverToSegmentSetMaps.get(_random.nextInt(serverToSegmentSetMaps.size())).getRouting();
+    return pruneSegments(request,
+        serverToSegmentSetMaps.get(_random.nextInt(serverToSegmentSetMaps.size())).getRouting());
+  }
+
+  /**
+   * Removes from the routing the segments which cannot match the filter of the request based on their partitions and
+   * metadata, dropping the servers left without segments.
+   */
+  private <K> Map<K, SegmentIdSet> pruneSegments(RoutingTableLookupRequest request, Map<K, SegmentIdSet> routing) {
+    String tableName = request.getTableName();
+    SegmentPartitionIndex segmentPartitionIndex = _segmentPartitionIndexes.get(tableName);
+    SegmentValueRangeIndex segmentValueRangeIndex = _segmentValueRangeIndexes.get(tableName);
+    if ((segmentPartitionIndex == null && segmentValueRangeIndex == null) || request.getBrokerRequest() == null) {
+      return routing;
+    }
+
+    FilterQueryTree filterQueryTree = RequestUtils.generateFilterQueryTree(request.getBrokerRequest());
+    Map<K, SegmentIdSet> prunedRouting = routing;
+    if (segmentPartitionIndex != null) {
+      prunedRouting = segmentPartitionIndex.prune(prunedRouting, filterQueryTree);
+    }
+    if (segmentValueRangeIndex != null) {
+      prunedRouting = segmentValueRangeIndex.prune(prunedRouting, filterQueryTree);
+    }
+    if (prunedRouting.isEmpty() && !routing.isEmpty()) {
+      request.setAllSegmentsPruned(true);
+    }
+    return prunedRouting;
+  }
+
+  @Override
+  public Map<List<ServerInstance>, SegmentIdSet> findReplicaGroups(RoutingTableLookupRequest request) {
+    String tableName = request.getTableName();
+    if (!CommonConstants.Helix.TableType.OFFLINE.equals(TableNameBuilder.getTableTypeFromTableName(tableName))) {
+      // Realtime routing depends on the consumer type (HLC segments of different groups are not replicas)
+      return null;
+    }
+    Map<List<ServerInstance>, SegmentIdSet> replicaGroups = _replicaGroupsTable.get(tableName);
+    if (replicaGroups == null) {
+      return null;
+    }
+    return pruneSegments(request, replicaGroups);
   }
 
   @Override
@@ -373,8 +509,18 @@ public class HelixExternalViewBasedRouting implements RoutingTable {
       Map<String, InstanceConfig> relevantInstanceConfigs = new HashMap<>();
 
       // Build a list of routing tables
-      List<ServerToSegmentSetMap> serverToSegmentSetMap =
-          routingTableBuilder.computeRoutingTableFromExternalView(tableName, externalView, instanceConfigs);
+      List<ServerToSegmentSetMap> serverToSegmentSetMap;
+      if (_enableIncrementalRoutingUpdate && CommonConstants.Helix.TableType.OFFLINE.equals(tableType)) {
+        serverToSegmentSetMap = updateOrComputeRoutingTables(tableName, externalView, instanceConfigs,
+            routingTableBuilder);
+      } else {
+        serverToSegmentSetMap =
+            routingTableBuilder.computeRoutingTableFromExternalView(tableName, externalView, instanceConfigs);
+        if (_enableReplicaGroups && CommonConstants.Helix.TableType.OFFLINE.equals(tableType)) {
+          _replicaGroupsTable.put(tableName, IncrementalRoutingTableUpdater.computeReplicaGroups(
+              IncrementalRoutingTableUpdater.computeOnlineReplicas(externalView, instanceConfigs)));
+        }
+      }
 
       // Keep track of the instance configs that are used in that routing table
       updateInstanceConfigsMapFromExternalView(relevantInstanceConfigs, instanceConfigs, externalView);
@@ -399,6 +545,14 @@ public class HelixExternalViewBasedRouting implements RoutingTable {
         }
       }
 
+      try {
+        updateSegmentPruningIndexes(tableName, tableType, externalView);
+      } catch (Exception e) {
+        // Routing without pruning is still correct
+        LOGGER.warn("Failed to update the segment pruning indexes for {}. Ignoring", tableName, e);
+        removeSegmentPruningIndexes(tableName);
+      }
+
       // Save the instance configs used so that we can avoid unnecessary routing table updates later
       _lastKnownInstanceConfigsForTable.put(tableName, relevantInstanceConfigs);
       for (InstanceConfig instanceConfig : relevantInstanceConfigs.values()) {
@@ -431,6 +585,7 @@ public class HelixExternalViewBasedRouting implements RoutingTable {
 
       // Mark the routing table as needing a rebuild
       _lastKnownExternalViewVersionMap.put(tableName, INVALID_EXTERNAL_VIEW_VERSION);
+      _incrementalRoutingStates.remove(tableName);
     }
 
     try {
@@ -482,6 +637,270 @@ public class HelixExternalViewBasedRouting implements RoutingTable {
     LOGGER.info("Routing table update for table {} completed in {} ms", tableName, updateTime);
   }
 
+  /**
+   * Updates the routing tables of an offline table with the segments whose online replicas changed since the routing
+   * tables were computed, or computes new routing tables if the routing tables were never computed for the table, if
+   * the routing table builder changed or if too many segments changed since the last full rebuild. The replica groups
+   * of the table are updated along with the routing tables when they are enabled.
+   */
+  private List<ServerToSegmentSetMap> updateOrComputeRoutingTables(String tableName, ExternalView externalView,
+      List<InstanceConfig> instanceConfigs, RoutingTableBuilder routingTableBuilder) {
+    Map<String, Set<String>> onlineReplicas =
+        IncrementalRoutingTableUpdater.computeOnlineReplicas(externalView, instanceConfigs);
+
+    IncrementalRoutingState previousState = _incrementalRoutingStates.get(tableName);
+    List<ServerToSegmentSetMap> previousRoutingTables = _brokerRoutingTable.get(tableName);
+    if (previousState != null && previousRoutingTables != null
+        && previousState._routingTableBuilder == routingTableBuilder) {
+      Set<String> changedSegments =
+          IncrementalRoutingTableUpdater.computeChangedSegments(previousState._onlineReplicas, onlineReplicas);
+      int numSegmentsChanged = previousState._numSegmentsChanged + changedSegments.size();
+      if (numSegmentsChanged <= _maxIncrementalRoutingUpdateRatio * onlineReplicas.size()) {
+        LOGGER.info("Updating routing tables for table {} incrementally with {} changed segments", tableName,
+            changedSegments.size());
+        List<ServerToSegmentSetMap> routingTables =
+            IncrementalRoutingTableUpdater.updateRoutingTables(previousRoutingTables, onlineReplicas, changedSegments,
+                _random);
+        if (_enableReplicaGroups) {
+          Map<List<ServerInstance>, SegmentIdSet> previousReplicaGroups = _replicaGroupsTable.get(tableName);
+          if (previousReplicaGroups != null) {
+            _replicaGroupsTable.put(tableName, IncrementalRoutingTableUpdater.updateReplicaGroups(previousReplicaGroups,
+                previousState._onlineReplicas, onlineReplicas, changedSegments));
+          } else {
+            _replicaGroupsTable.put(tableName, IncrementalRoutingTableUpdater.computeReplicaGroups(onlineReplicas));
+          }
+        }
+        _incrementalRoutingStates.put(tableName,
+            new IncrementalRoutingState(routingTableBuilder, onlineReplicas, numSegmentsChanged));
+        return routingTables;
+      }
+      LOGGER.info("Too many segments changed for table {} ({} out of {}) since the last full rebuild", tableName,
+          numSegmentsChanged, onlineReplicas.size());
+    }
+
+    List<ServerToSegmentSetMap> routingTables =
+        routingTableBuilder.computeRoutingTableFromExternalView(tableName, externalView, instanceConfigs);
+    if (_enableReplicaGroups) {
+      _replicaGroupsTable.put(tableName, IncrementalRoutingTableUpdater.computeReplicaGroups(onlineReplicas));
+    }
+    _incrementalRoutingStates.put(tableName, new IncrementalRoutingState(routingTableBuilder, onlineReplicas, 0));
+    return routingTables;
+  }
+
+  /**
+   * Updates the indexes used to prune the segments of the table from their ZK metadata: the partition index if the
+   * table is partitioned, and the value range index if segment metadata pruning is enabled. The indexes are only
+   * updated when segments were added, removed or changed, the value range index only with these segments.
+   */
+  private synchronized void updateSegmentPruningIndexes(String tableName, CommonConstants.Helix.TableType tableType,
+      ExternalView externalView) {
+    if (_propertyStore == null) {
+      return;
+    }
+
+    boolean isPartitioned = isPartitioned(tableName, tableType);
+    if (!isPartitioned) {
+      _segmentPartitionIndexes.remove(tableName);
+    }
+    if (!_enableSegmentMetadataPruning) {
+      _segmentValueRangeIndexes.remove(tableName);
+    }
+    if (!isPartitioned && !_enableSegmentMetadataPruning) {
+      removeSegmentZKMetadataCache(tableName);
+      return;
+    }
+
+    applySegmentZKMetadataChanges(tableName, isPartitioned,
+        updateSegmentZKMetadataCache(tableName, tableType, externalView));
+  }
+
+  /**
+   * Rebuilds the segment pruning indexes of the table after the ZK metadata of one of its segments changed, e.g. when
+   * the segment is refreshed with new data under the same name.
+   */
+  private synchronized void refreshSegmentPruningIndexes(String tableName, String segmentName) {
+    Map<String, CachedSegmentZKMetadata> cachedSegments = _segmentZKMetadataCache.get(tableName);
+    if (cachedSegments == null || !cachedSegments.containsKey(segmentName)) {
+      return;
+    }
+
+    CommonConstants.Helix.TableType tableType = TableNameBuilder.getTableTypeFromTableName(tableName);
+    Stat stat = new Stat();
+    ZNRecord znRecord = _propertyStore.get(ZKMetadataProvider.constructPropertyStorePathForSegment(tableName,
+        segmentName), stat, AccessOption.PERSISTENT);
+    if (znRecord == null || stat.getVersion() == cachedSegments.get(segmentName)._version) {
+      return;
+    }
+
+    LOGGER.info("Updating the segment pruning indexes of table {} after the ZK metadata of segment {} changed",
+        tableName, segmentName);
+    SegmentZKMetadata segmentZKMetadata = toSegmentZKMetadata(tableType, znRecord);
+    Map<String, CachedSegmentZKMetadata> updatedSegments = new HashMap<>(cachedSegments);
+    updatedSegments.put(segmentName, new CachedSegmentZKMetadata(segmentZKMetadata, stat.getVersion()));
+    _segmentZKMetadataCache.put(tableName, updatedSegments);
+
+    SegmentZKMetadataChanges changes = new SegmentZKMetadataChanges();
+    changes._changedSegments.add(segmentZKMetadata);
+    applySegmentZKMetadataChanges(tableName, isPartitioned(tableName, tableType), changes);
+  }
+
+  private boolean isPartitioned(String tableName, CommonConstants.Helix.TableType tableType) {
+    AbstractTableConfig tableConfig;
+    if (CommonConstants.Helix.TableType.OFFLINE.equals(tableType)) {
+      tableConfig = ZKMetadataProvider.getOfflineTableConfig(_propertyStore, tableName);
+    } else {
+      tableConfig = ZKMetadataProvider.getRealtimeTableConfig(_propertyStore, tableName);
+    }
+    return tableConfig != null && tableConfig.getIndexingConfig() != null
+        && tableConfig.getIndexingConfig().getSegmentPartitionConfig() != null;
+  }
+
+  private void applySegmentZKMetadataChanges(String tableName, boolean isPartitioned,
+      SegmentZKMetadataChanges changes) {
+    boolean segmentsChanged = !changes._removedSegments.isEmpty() || !changes._changedSegments.isEmpty();
+
+    // The partition index is rebuilt from all the segments, as a change of partitioning of one segment makes its
+    // columns not comparable anymore
+    if (isPartitioned && (segmentsChanged || !_segmentPartitionIndexes.containsKey(tableName))) {
+      Map<String, CachedSegmentZKMetadata> cachedSegments = _segmentZKMetadataCache.get(tableName);
+      List<SegmentZKMetadata> segmentZKMetadataList = new ArrayList<>(cachedSegments.size());
+      for (CachedSegmentZKMetadata cachedSegment : cachedSegments.values()) {
+        segmentZKMetadataList.add(cachedSegment._segmentZKMetadata);
+      }
+      SegmentPartitionIndex segmentPartitionIndex = SegmentPartitionIndex.build(tableName, segmentZKMetadataList);
+      if (segmentPartitionIndex == null) {
+        _segmentPartitionIndexes.remove(tableName);
+      } else {
+        LOGGER.info("Indexed segments of table {} by partition for columns {}", tableName,
+            segmentPartitionIndex.getColumns());
+        _segmentPartitionIndexes.put(tableName, segmentPartitionIndex);
+      }
+    } else if (!isPartitioned) {
+      _segmentPartitionIndexes.remove(tableName);
+    }
+
+    if (_enableSegmentMetadataPruning && segmentsChanged) {
+      SegmentValueRangeIndex segmentValueRangeIndex =
+          SegmentValueRangeIndex.update(tableName, _segmentValueRangeIndexes.get(tableName), changes._removedSegments,
+              changes._changedSegments);
+      if (segmentValueRangeIndex == null) {
+        _segmentValueRangeIndexes.remove(tableName);
+      } else {
+        _segmentValueRangeIndexes.put(tableName, segmentValueRangeIndex);
+      }
+    }
+  }
+
+  private synchronized void removeSegmentPruningIndexes(String tableName) {
+    _segmentPartitionIndexes.remove(tableName);
+    _segmentValueRangeIndexes.remove(tableName);
+    removeSegmentZKMetadataCache(tableName);
+  }
+
+  private void removeSegmentZKMetadataCache(String tableName) {
+    Map<String, CachedSegmentZKMetadata> cachedSegments = _segmentZKMetadataCache.remove(tableName);
+    if (cachedSegments != null) {
+      updateSegmentZKMetadataWatches(tableName, cachedSegments.keySet(), Collections.<String>emptySet());
+    }
+  }
+
+  /**
+   * Watches the ZK metadata of the segments added to the cache of the table, and stops watching the removed ones.
+   */
+  private void updateSegmentZKMetadataWatches(String tableName, Set<String> previousSegments,
+      Set<String> currentSegments) {
+    for (String segmentName : currentSegments) {
+      if (!previousSegments.contains(segmentName)) {
+        _propertyStore.subscribeDataChanges(
+            ZKMetadataProvider.constructPropertyStorePathForSegment(tableName, segmentName),
+            _segmentZKMetadataChangeListener);
+      }
+    }
+    for (String segmentName : previousSegments) {
+      if (!currentSegments.contains(segmentName)) {
+        _propertyStore.unsubscribeDataChanges(
+            ZKMetadataProvider.constructPropertyStorePathForSegment(tableName, segmentName),
+            _segmentZKMetadataChangeListener);
+      }
+    }
+  }
+
+  /**
+   * Caches the ZK metadata of the segments in the external view, and returns the segments removed from the cache and
+   * the segments added or changed since the last call. Only the ZK versions of the segments are read for all segments,
+   * the metadata itself is read for the segments that were added or changed.
+   */
+  private SegmentZKMetadataChanges updateSegmentZKMetadataCache(String tableName,
+      CommonConstants.Helix.TableType tableType, ExternalView externalView) {
+    Map<String, CachedSegmentZKMetadata> cachedSegments = _segmentZKMetadataCache.get(tableName);
+    if (cachedSegments == null) {
+      cachedSegments = Collections.emptyMap();
+    }
+
+    List<String> segmentNames = new ArrayList<>(externalView.getPartitionSet());
+    List<String> segmentPaths = new ArrayList<>(segmentNames.size());
+    for (String segmentName : segmentNames) {
+      segmentPaths.add(ZKMetadataProvider.constructPropertyStorePathForSegment(tableName, segmentName));
+    }
+    Stat[] segmentStats = _propertyStore.getStats(segmentPaths, AccessOption.PERSISTENT);
+
+    SegmentZKMetadataChanges changes = new SegmentZKMetadataChanges();
+    Map<String, CachedSegmentZKMetadata> updatedSegments = new HashMap<>(segmentNames.size());
+    List<String> changedSegmentNames = new ArrayList<>();
+    List<String> changedSegmentPaths = new ArrayList<>();
+    for (int i = 0; i < segmentNames.size(); i++) {
+      Stat segmentStat = segmentStats[i];
+      if (segmentStat == null) {
+        // No ZK metadata for the segment, which is then not indexed
+        continue;
+      }
+      String segmentName = segmentNames.get(i);
+      CachedSegmentZKMetadata cachedSegment = cachedSegments.get(segmentName);
+      if (cachedSegment != null && cachedSegment._version == segmentStat.getVersion()) {
+        updatedSegments.put(segmentName, cachedSegment);
+      } else {
+        changedSegmentNames.add(segmentName);
+        changedSegmentPaths.add(segmentPaths.get(i));
+      }
+    }
+
+    if (!changedSegmentPaths.isEmpty()) {
+      List<Stat> changedSegmentStats = new ArrayList<>(changedSegmentPaths.size());
+      for (int i = 0; i < changedSegmentPaths.size(); i++) {
+        changedSegmentStats.add(new Stat());
+      }
+      List<ZNRecord> znRecords = _propertyStore.get(changedSegmentPaths, changedSegmentStats, AccessOption.PERSISTENT);
+      for (int i = 0; i < changedSegmentNames.size(); i++) {
+        ZNRecord znRecord = znRecords.get(i);
+        if (znRecord == null) {
+          continue;
+        }
+        SegmentZKMetadata segmentZKMetadata = toSegmentZKMetadata(tableType, znRecord);
+        updatedSegments.put(changedSegmentNames.get(i),
+            new CachedSegmentZKMetadata(segmentZKMetadata, changedSegmentStats.get(i).getVersion()));
+        changes._changedSegments.add(segmentZKMetadata);
+      }
+    }
+    for (String segmentName : cachedSegments.keySet()) {
+      if (!updatedSegments.containsKey(segmentName)) {
+        changes._removedSegments.add(segmentName);
+      }
+    }
+    LOGGER.debug("Read the ZK metadata of {} out of {} segments of table {}", changedSegmentPaths.size(),
+        segmentNames.size(), tableName);
+    _segmentZKMetadataCache.put(tableName, updatedSegments);
+    updateSegmentZKMetadataWatches(tableName, cachedSegments.keySet(), updatedSegments.keySet());
+    return changes;
+  }
+
+  private static SegmentZKMetadata toSegmentZKMetadata(CommonConstants.Helix.TableType tableType, ZNRecord znRecord) {
+    if (CommonConstants.Helix.TableType.OFFLINE.equals(tableType)) {
+      return new OfflineSegmentZKMetadata(znRecord);
+    } else {
+      return new RealtimeSegmentZKMetadata(znRecord);
+    }
+  }
+
   private boolean isLargeCluster(ExternalView externalView) {
     // Check if the number of replicas is sufficient to treat it as a large cluster
     final String helixReplicaCount = externalView.getRecord().getSimpleField("REPLICAS");
@@ -542,6 +961,9 @@ public class HelixExternalViewBasedRouting implements RoutingTable {
   public void markDataResourceOffline(String tableName) {
     LOGGER.info("Trying to remove data table from broker for {}", tableName);
     _brokerRoutingTable.remove(tableName);
+    _replicaGroupsTable.remove(tableName);
+    removeSegmentPruningIndexes(tableName);
+    _incrementalRoutingStates.remove(tableName);
     _lastKnownExternalViewVersionMap.remove(tableName);
     _lastKnownInstanceConfigsForTable.remove(tableName);
     _timeBoundaryService.remove(tableName);
@@ -779,4 +1201,42 @@ public class HelixExternalViewBasedRouting implements RoutingTable {
 
     return ret.toString(2);
   }
+
+  /**
+   * State kept between external view changes to update the routing tables of a table incrementally.
+   */
+  private static class IncrementalRoutingState {
+    private final RoutingTableBuilder _routingTableBuilder;
+    private final Map<String, Set<String>> _onlineReplicas;
+    // Number of segments changed by incremental updates since the routing tables were last computed from scratch
+    private final int _numSegmentsChanged;
+
+    IncrementalRoutingState(RoutingTableBuilder routingTableBuilder, Map<String, Set<String>> onlineReplicas,
+        int numSegmentsChanged) {
+      _routingTableBuilder = routingTableBuilder;
+      _onlineReplicas = onlineReplicas;
+      _numSegmentsChanged = numSegmentsChanged;
+    }
+  }
+
+  /**
+   * Segments removed from the ZK metadata cache of a table, and ZK metadata of the segments added or changed.
+   */
+  private static class SegmentZKMetadataChanges {
+    private final List<String> _removedSegments = new ArrayList<>();
+    private final List<SegmentZKMetadata> _changedSegments = new ArrayList<>();
+  }
+
+  /**
+   * ZK metadata of a segment along with the ZK version it was read at.
+   */
+  private static class CachedSegmentZKMetadata {
+    private final SegmentZKMetadata _segmentZKMetadata;
+    private final int _version;
+
+    CachedSegmentZKMetadata(SegmentZKMetadata segmentZKMetadata, int version) {
+      _segmentZKMetadata = segmentZKMetadata;
+      _version = version;
+    }
+  }
 }
@@ -0,0 +1,297 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.routing;
+
+import com.linkedin.pinot.common.response.ServerInstance;
+import com.linkedin.pinot.common.utils.CommonConstants;
+import com.linkedin.pinot.routing.builder.RoutingTableInstancePruner;
+import com.linkedin.pinot.transport.common.SegmentId;
+import com.linkedin.pinot.transport.common.SegmentIdSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import javax.annotation.Nonnull;
+import org.apache.helix.model.ExternalView;
+import org.apache.helix.model.InstanceConfig;
+
+
+/**
+ * Updates existing routing tables with the changes between two versions of the external view of a table, instead of
+ * building new routing tables from scratch.
+ * <p>The changes are computed on the online replicas of each segment, which are the instances with the segment in
+ * ONLINE state in the external view that are neither disabled nor shutting down. Only the segments whose online
+ * replicas changed are reassigned, in each routing table:
+ * <ul>
+ *   <li>Segments without any online replica anymore are removed.</li>
+ *   <li>Segments still routed to one of their online replicas stay where they are.</li>
+ *   <li>Other segments are assigned to the online replica with the fewest segments among the servers already in the
+ *   routing table, to keep both the number of servers per query and the balance of the routing table. Only if none of
+ *   the servers of the routing table hosts the segment, a random online replica is added to the routing table.</li>
+ * </ul>
+ * Servers with unchanged segments share their segment sets with the previous routing tables, so the cost of an update
+ * is proportional to the number of changed segments rather than the total number of segments. The replica groups of
+ * the table, used to pick the replicas at query time, are updated the same way.
+ */
+public class IncrementalRoutingTableUpdater {
+  private IncrementalRoutingTableUpdater() {
+  }
+
+  /**
+   * Computes the online replicas of each segment of the external view. Segments without any online replica are not
+   * part of the returned map.
+   *
+   * @return map from segment name to the set of online instances serving it.
+   */
+  @Nonnull
+  public static Map<String, Set<String>> computeOnlineReplicas(@Nonnull ExternalView externalView,
+      @Nonnull List<InstanceConfig> instanceConfigs) {
+    RoutingTableInstancePruner pruner = new RoutingTableInstancePruner(instanceConfigs);
+    Map<String, Boolean> instanceActive = new HashMap<>();
+    Map<String, Set<String>> onlineReplicas = new HashMap<>();
+    for (String segment : externalView.getPartitionSet()) {
+      Set<String> instances = null;
+      for (Map.Entry<String, String> instanceAndState : externalView.getStateMap(segment).entrySet()) {
+        if (!CommonConstants.Helix.StateModel.SegmentOnlineOfflineStateModel.ONLINE.equals(
+            instanceAndState.getValue())) {
+          continue;
+        }
+        String instance = instanceAndState.getKey();
+        Boolean active = instanceActive.get(instance);
+        if (active == null) {
+          active = !pruner.isInactive(instance);
+          instanceActive.put(instance, active);
+        }
+        if (active) {
+          if (instances == null) {
+            instances = new HashSet<>();
+          }
+          instances.add(instance);
+        }
+      }
+      if (instances != null) {
+        onlineReplicas.put(segment, instances);
+      }
+    }
+    return onlineReplicas;
+  }
+
+  /**
+   * Computes the segments whose online replicas differ between two versions of the online replicas of a table,
+   * including the segments added and removed.
+   */
+  @Nonnull
+  public static Set<String> computeChangedSegments(@Nonnull Map<String, Set<String>> previousOnlineReplicas,
+      @Nonnull Map<String, Set<String>> currentOnlineReplicas) {
+    Set<String> changedSegments = new HashSet<>();
+    for (Map.Entry<String, Set<String>> entry : currentOnlineReplicas.entrySet()) {
+      if (!entry.getValue().equals(previousOnlineReplicas.get(entry.getKey()))) {
+        changedSegments.add(entry.getKey());
+      }
+    }
+    for (String segment : previousOnlineReplicas.keySet()) {
+      if (!currentOnlineReplicas.containsKey(segment)) {
+        changedSegments.add(segment);
+      }
+    }
+    return changedSegments;
+  }
+
+  /**
+   * Reassigns the changed segments in each routing table according to their current online replicas. The given
+   * routing tables are not modified, routing tables without any change are returned as is.
+   *
+   * @param routingTables routing tables built for the previous version of the online replicas.
+   * @param currentOnlineReplicas current online replicas of all the segments of the table.
+   * @param changedSegments segments whose online replicas changed since the routing tables were built.
+   * @param random random number generator used to pick new servers.
+   * @return updated routing tables.
+   */
+  @Nonnull
+  public static List<ServerToSegmentSetMap> updateRoutingTables(@Nonnull List<ServerToSegmentSetMap> routingTables,
+      @Nonnull Map<String, Set<String>> currentOnlineReplicas, @Nonnull Set<String> changedSegments,
+      @Nonnull Random random) {
+    List<ServerToSegmentSetMap> updatedRoutingTables = new ArrayList<>(routingTables.size());
+    for (ServerToSegmentSetMap routingTable : routingTables) {
+      updatedRoutingTables.add(updateRoutingTable(routingTable, currentOnlineReplicas, changedSegments, random));
+    }
+    return updatedRoutingTables;
+  }
+
+  /**
+   * Groups the segments by the sorted list of their online replicas.
+   *
+   * @return map from the sorted list of servers to the segments they all serve.
+   */
+  @Nonnull
+  public static Map<List<ServerInstance>, SegmentIdSet> computeReplicaGroups(
+      @Nonnull Map<String, Set<String>> onlineReplicas) {
+    return updateReplicaGroups(Collections.<List<ServerInstance>, SegmentIdSet>emptyMap(),
+        Collections.<String, Set<String>>emptyMap(), onlineReplicas, onlineReplicas.keySet());
+  }
+
+  /**
+   * Moves the changed segments from the replica group of their previous online replicas to the replica group of their
+   * current online replicas. The given replica groups are not modified, groups without any change are shared with the
+   * returned replica groups.
+   *
+   * @param replicaGroups replica groups built for the previous version of the online replicas.
+   * @param previousOnlineReplicas previous online replicas of all the segments of the table.
+   * @param currentOnlineReplicas current online replicas of all the segments of the table.
+   * @param changedSegments segments whose online replicas changed since the replica groups were built.
+   * @return updated replica groups.
+   */
+  @Nonnull
+  public static Map<List<ServerInstance>, SegmentIdSet> updateReplicaGroups(
+      @Nonnull Map<List<ServerInstance>, SegmentIdSet> replicaGroups,
+      @Nonnull Map<String, Set<String>> previousOnlineReplicas,
+      @Nonnull Map<String, Set<String>> currentOnlineReplicas, @Nonnull Set<String> changedSegments) {
+    if (changedSegments.isEmpty()) {
+      return replicaGroups;
+    }
+
+    Map<List<ServerInstance>, SegmentIdSet> updatedReplicaGroups = new HashMap<>(replicaGroups);
+    // Replica groups modified by this update, copied on first modification
+    Set<List<ServerInstance>> copiedReplicaGroups = new HashSet<>();
+    for (String segment : changedSegments) {
+      SegmentId segmentId = new SegmentId(segment);
+      Set<String> previousReplicas = previousOnlineReplicas.get(segment);
+      if (previousReplicas != null) {
+        List<ServerInstance> previousServers = toSortedServers(previousReplicas);
+        SegmentIdSet segmentIdSet = getSegmentIdSetForUpdate(updatedReplicaGroups, copiedReplicaGroups,
+            previousServers);
+        segmentIdSet.removeSegment(segmentId);
+        if (segmentIdSet.getSegments().isEmpty()) {
+          updatedReplicaGroups.remove(previousServers);
+        }
+      }
+      Set<String> currentReplicas = currentOnlineReplicas.get(segment);
+      if (currentReplicas != null) {
+        getSegmentIdSetForUpdate(updatedReplicaGroups, copiedReplicaGroups, toSortedServers(currentReplicas))
+            .addSegment(segmentId);
+      }
+    }
+    return Collections.unmodifiableMap(updatedReplicaGroups);
+  }
+
+  private static List<ServerInstance> toSortedServers(Set<String> instances) {
+    String[] sortedInstances = instances.toArray(new String[instances.size()]);
+    Arrays.sort(sortedInstances);
+    List<ServerInstance> servers = new ArrayList<>(sortedInstances.length);
+    for (String instance : sortedInstances) {
+      servers.add(ServerToSegmentSetMap.toServerInstance(instance));
+    }
+    return Collections.unmodifiableList(servers);
+  }
+
+  private static SegmentIdSet getSegmentIdSetForUpdate(Map<List<ServerInstance>, SegmentIdSet> replicaGroups,
+      Set<List<ServerInstance>> copiedReplicaGroups, List<ServerInstance> servers) {
+    SegmentIdSet segmentIdSet = replicaGroups.get(servers);
+    if (!copiedReplicaGroups.add(servers) && segmentIdSet != null) {
+      return segmentIdSet;
+    }
+    SegmentIdSet copiedSegmentIdSet = new SegmentIdSet();
+    if (segmentIdSet != null) {
+      copiedSegmentIdSet.addSegments(segmentIdSet.getSegments());
+    }
+    replicaGroups.put(servers, copiedSegmentIdSet);
+    return copiedSegmentIdSet;
+  }
+
+  private static ServerToSegmentSetMap updateRoutingTable(ServerToSegmentSetMap routingTable,
+      Map<String, Set<String>> currentOnlineReplicas, Set<String> changedSegments, Random random) {
+    // Segment sets of the servers modified by this update, copied on first modification
+    Map<String, Set<String>> updatedSegmentSets = new HashMap<>();
+
+    for (String segment : changedSegments) {
+      Set<String> onlineReplicas = currentOnlineReplicas.get(segment);
+      String currentServer = null;
+      for (String server : routingTable.getServerSet()) {
+        if (getSegmentSet(routingTable, updatedSegmentSets, server).contains(segment)) {
+          currentServer = server;
+          break;
+        }
+      }
+
+      if (currentServer != null) {
+        if (onlineReplicas != null && onlineReplicas.contains(currentServer)) {
+          continue;
+        }
+        getSegmentSetForUpdate(routingTable, updatedSegmentSets, currentServer).remove(segment);
+      }
+
+      if (onlineReplicas != null) {
+        String newServer = pickServer(routingTable, updatedSegmentSets, onlineReplicas, random);
+        getSegmentSetForUpdate(routingTable, updatedSegmentSets, newServer).add(segment);
+      }
+    }
+
+    if (updatedSegmentSets.isEmpty()) {
+      return routingTable;
+    }
+    return new ServerToSegmentSetMap(routingTable, updatedSegmentSets);
+  }
+
+  /**
+   * Picks the online replica with the fewest segments among the servers in the routing table, or a random online
+   * replica if none of them is in the routing table.
+   */
+  private static String pickServer(ServerToSegmentSetMap routingTable, Map<String, Set<String>> updatedSegmentSets,
+      Set<String> onlineReplicas, Random random) {
+    String pickedServer = null;
+    int minNumSegments = Integer.MAX_VALUE;
+    for (String replica : onlineReplicas) {
+      Set<String> segmentSet = getSegmentSet(routingTable, updatedSegmentSets, replica);
+      if (!segmentSet.isEmpty() && segmentSet.size() < minNumSegments) {
+        pickedServer = replica;
+        minNumSegments = segmentSet.size();
+      }
+    }
+    if (pickedServer != null) {
+      return pickedServer;
+    }
+    String[] replicas = onlineReplicas.toArray(new String[onlineReplicas.size()]);
+    return replicas[random.nextInt(replicas.length)];
+  }
+
+  private static Set<String> getSegmentSet(ServerToSegmentSetMap routingTable,
+      Map<String, Set<String>> updatedSegmentSets, String server) {
+    Set<String> segmentSet = updatedSegmentSets.get(server);
+    if (segmentSet == null) {
+      segmentSet = routingTable.getSegmentSet(server);
+    }
+    if (segmentSet == null) {
+      return new HashSet<>();
+    }
+    return segmentSet;
+  }
+
+  private static Set<String> getSegmentSetForUpdate(ServerToSegmentSetMap routingTable,
+      Map<String, Set<String>> updatedSegmentSets, String server) {
+    Set<String> segmentSet = updatedSegmentSets.get(server);
+    if (segmentSet == null) {
+      Set<String> originalSegmentSet = routingTable.getSegmentSet(server);
+      segmentSet = (originalSegmentSet == null) ? new HashSet<String>() : new HashSet<>(originalSegmentSet);
+      updatedSegmentSets.put(server, segmentSet);
+    }
+    return segmentSet;
+  }
+}
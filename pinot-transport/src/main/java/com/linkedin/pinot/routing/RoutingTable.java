@@ -15,6 +15,7 @@
  */
 package com.linkedin.pinot.routing;
 
+import java.util.List;
 import java.util.Map;
 
 import com.linkedin.pinot.common.response.ServerInstance;
@@ -31,6 +32,14 @@ public interface RoutingTable {
    */
   Map<ServerInstance, SegmentIdSet> findServers(RoutingTableLookupRequest request);
 
+  /**
+   * Return the segments grouped by the ordered list of servers hosting an online replica of each of them, so that
+   * the server can be picked per request by the replica selection policy.
+   *
+   * @return Servers to SegmentSet map, or null if the routing table does not support replica groups for the table.
+   */
+  Map<List<ServerInstance>, SegmentIdSet> findReplicaGroups(RoutingTableLookupRequest request);
+
   /**
    * Returns whether or not a routing table exists and is not empty for a given table.
    *
@@ -15,6 +15,7 @@
  */
 package com.linkedin.pinot.routing;
 
+import com.linkedin.pinot.common.request.BrokerRequest;
 import java.util.List;
 
 
@@ -29,6 +30,10 @@ public class RoutingTableLookupRequest {
 
   private final List<String> routingOptions;
 
+  private final BrokerRequest brokerRequest;
+
+  private volatile boolean allSegmentsPruned;
+
   public String getTableName() {
     return tableName;
   }
@@ -37,9 +42,36 @@ public class RoutingTableLookupRequest {
     return routingOptions;
   }
 
+  /**
+   * Returns the broker request to route, used to prune the routing by partition, or null if not known.
+   */
+  public BrokerRequest getBrokerRequest() {
+    return brokerRequest;
+  }
+
+  /**
+   * Returns whether the routing table found segments for the table but pruned all of them based on their partitions
+   * or value ranges, in which case the empty routing returned is a valid (empty) answer rather than a missing one.
+   */
+  public boolean isAllSegmentsPruned() {
+    return allSegmentsPruned;
+  }
+
+  /**
+   * Set by the routing table when it prunes all the segments of the table for this request.
+   */
+  public void setAllSegmentsPruned(boolean allSegmentsPruned) {
+    this.allSegmentsPruned = allSegmentsPruned;
+  }
+
   public RoutingTableLookupRequest(String tableName, List<String> routingOptions) {
+    this(tableName, routingOptions, null);
+  }
+
+  public RoutingTableLookupRequest(String tableName, List<String> routingOptions, BrokerRequest brokerRequest) {
     super();
     this.tableName = tableName;
     this.routingOptions = routingOptions;
+    this.brokerRequest = brokerRequest;
   }
 }
@@ -0,0 +1,285 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.routing;
+
+import com.linkedin.pinot.common.data.FieldSpec;
+import com.linkedin.pinot.common.metadata.segment.ColumnPartitionMetadata;
+import com.linkedin.pinot.common.metadata.segment.SegmentPartitionMetadata;
+import com.linkedin.pinot.common.metadata.segment.SegmentZKMetadata;
+import com.linkedin.pinot.common.partition.PartitionFunction;
+import com.linkedin.pinot.common.partition.PartitionFunctionFactory;
+import com.linkedin.pinot.common.request.FilterOperator;
+import com.linkedin.pinot.common.utils.request.FilterQueryTree;
+import com.linkedin.pinot.transport.common.SegmentId;
+import com.linkedin.pinot.transport.common.SegmentIdSet;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import org.apache.commons.lang.math.IntRange;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * Index of the segments of a table by partition id for each of its partitioned columns, built from the partition
+ * metadata of the segment ZK metadata.
+ *
+ * Queries with EQUALITY or IN predicates on a partitioned column only need the segments holding the partitions of
+ * the predicate values, so the routing of such queries is pruned down to these segments and the servers hosting them.
+ * Segments without partition metadata for the column (e.g. consuming segments, or segments added after the index was
+ * built) are always kept.
+ */
+public class SegmentPartitionIndex {
+  private static final Logger LOGGER = LoggerFactory.getLogger(SegmentPartitionIndex.class);
+
+  // Same as the delimiter of the values of the IN predicate in the filter query tree
+  private static final String IN_PREDICATE_DELIMITER = "\t\t";
+
+  private final Map<String, ColumnIndex> _columnIndexes;
+
+  private SegmentPartitionIndex(Map<String, ColumnIndex> columnIndexes) {
+    _columnIndexes = columnIndexes;
+  }
+
+  /**
+   * Builds the partition index of the given segments.
+   *
+   * @return the index, or null if none of the segments has partition metadata.
+   */
+  @Nullable
+  public static SegmentPartitionIndex build(@Nonnull String tableName,
+      @Nonnull List<? extends SegmentZKMetadata> segmentZKMetadataList) {
+    Map<String, ColumnIndex> columnIndexes = new HashMap<>();
+    Set<String> inconsistentColumns = new HashSet<>();
+    for (SegmentZKMetadata segmentZKMetadata : segmentZKMetadataList) {
+      SegmentPartitionMetadata partitionMetadata = segmentZKMetadata.getPartitionMetadata();
+      if (partitionMetadata == null) {
+        continue;
+      }
+      SegmentId segmentId = new SegmentId(segmentZKMetadata.getSegmentName());
+      for (Map.Entry<String, ColumnPartitionMetadata> entry : partitionMetadata.getColumnPartitionMap().entrySet()) {
+        String column = entry.getKey();
+        if (inconsistentColumns.contains(column)) {
+          continue;
+        }
+        ColumnPartitionMetadata columnPartitionMetadata = entry.getValue();
+        ColumnIndex columnIndex = columnIndexes.get(column);
+        if (columnIndex == null) {
+          try {
+            columnIndex = new ColumnIndex(columnPartitionMetadata);
+          } catch (Exception e) {
+            LOGGER.warn("Cannot index partitions of column {} of table {}", column, tableName, e);
+            inconsistentColumns.add(column);
+            continue;
+          }
+          columnIndexes.put(column, columnIndex);
+        } else if (!columnIndex.isSamePartitioning(columnPartitionMetadata)) {
+          // Partition ids of the segments are not comparable
+          LOGGER.warn("Segments of table {} have different partitioning for column {}, not indexing it", tableName,
+              column);
+          columnIndexes.remove(column);
+          inconsistentColumns.add(column);
+          continue;
+        }
+        columnIndex.addSegment(segmentId, columnPartitionMetadata.getPartitionRanges());
+      }
+    }
+    return columnIndexes.isEmpty() ? null : new SegmentPartitionIndex(columnIndexes);
+  }
+
+  /**
+   * Returns the set of partitioned columns in the index.
+   */
+  public Set<String> getColumns() {
+    return _columnIndexes.keySet();
+  }
+
+  /**
+   * Prunes the segments which cannot hold rows matching the filter from the routing, dropping the entries left without
+   * segments.
+   *
+   * @param routing routing to prune, e.g. servers to segments or replica groups to segments.
+   * @param filterQueryTree filter of the query, can be null.
+   * @return the pruned routing, or the given routing if the filter does not restrict the partitions of any column.
+   */
+  public <K> Map<K, SegmentIdSet> prune(@Nonnull Map<K, SegmentIdSet> routing,
+      @Nullable FilterQueryTree filterQueryTree) {
+    if (filterQueryTree == null) {
+      return routing;
+    }
+
+    // Pick the column whose predicates select the fewest partitions
+    ColumnIndex selectedColumnIndex = null;
+    Set<Integer> selectedPartitions = null;
+    for (Map.Entry<String, ColumnIndex> entry : _columnIndexes.entrySet()) {
+      Set<Integer> partitions = entry.getValue().getPartitions(filterQueryTree, entry.getKey());
+      if (partitions != null && (selectedPartitions == null || partitions.size() < selectedPartitions.size())) {
+        selectedColumnIndex = entry.getValue();
+        selectedPartitions = partitions;
+      }
+    }
+    if (selectedColumnIndex == null) {
+      return routing;
+    }
+
+    Map<K, SegmentIdSet> prunedRouting = new HashMap<>();
+    for (Map.Entry<K, SegmentIdSet> entry : routing.entrySet()) {
+      SegmentIdSet prunedSegments = null;
+      for (SegmentId segmentId : entry.getValue().getSegments()) {
+        if (selectedColumnIndex.mayContain(segmentId, selectedPartitions)) {
+          if (prunedSegments == null) {
+            prunedSegments = new SegmentIdSet();
+          }
+          prunedSegments.addSegment(segmentId);
+        }
+      }
+      if (prunedSegments != null) {
+        prunedRouting.put(entry.getKey(), prunedSegments);
+      }
+    }
+    return prunedRouting;
+  }
+
+  /**
+   * Partition ranges of the segments for one column.
+   * <p>The ranges are kept as stored in the segment metadata rather than bucketed by partition id, since partition
+   * functions can return partitions outside of [0, numPartitions), e.g. negative partitions for negative values with
+   * the modulo function. Membership is tested the same way as the server side partition pruner does.
+   */
+  private static class ColumnIndex {
+    private final String _functionName;
+    private final int _numPartitions;
+    private final FieldSpec.DataType _dataType;
+    private final PartitionFunction _partitionFunction;
+    private final Map<SegmentId, List<IntRange>> _segmentPartitionRanges = new HashMap<>();
+
+    ColumnIndex(ColumnPartitionMetadata columnPartitionMetadata) {
+      _functionName = columnPartitionMetadata.getFunctionName();
+      _numPartitions = columnPartitionMetadata.getNumPartitions();
+      _dataType = columnPartitionMetadata.getDataType();
+      _partitionFunction = PartitionFunctionFactory.getPartitionFunction(_functionName, _numPartitions);
+    }
+
+    boolean isSamePartitioning(ColumnPartitionMetadata columnPartitionMetadata) {
+      return _functionName.equalsIgnoreCase(columnPartitionMetadata.getFunctionName())
+          && _numPartitions == columnPartitionMetadata.getNumPartitions()
+          && _dataType == columnPartitionMetadata.getDataType();
+    }
+
+    void addSegment(SegmentId segmentId, List<IntRange> partitionRanges) {
+      _segmentPartitionRanges.put(segmentId, new ArrayList<>(partitionRanges));
+    }
+
+    boolean mayContain(SegmentId segmentId, Set<Integer> partitions) {
+      List<IntRange> partitionRanges = _segmentPartitionRanges.get(segmentId);
+      if (partitionRanges == null) {
+        return true;
+      }
+      for (IntRange partitionRange : partitionRanges) {
+        for (Integer partition : partitions) {
+          if (partitionRange.containsInteger(partition)) {
+            return true;
+          }
+        }
+      }
+      return false;
+    }
+
+    /**
+     * Returns the partitions of the column which can hold rows matching the filter, or null if the filter does not
+     * restrict the partitions of the column.
+     */
+    @Nullable
+    Set<Integer> getPartitions(FilterQueryTree filterQueryTree, String column) {
+      List<FilterQueryTree> children = filterQueryTree.getChildren();
+      if (children != null && !children.isEmpty()) {
+        FilterOperator operator = filterQueryTree.getOperator();
+        if (operator == FilterOperator.AND) {
+          Set<Integer> partitions = null;
+          for (FilterQueryTree child : children) {
+            Set<Integer> childPartitions = getPartitions(child, column);
+            if (childPartitions != null) {
+              if (partitions == null) {
+                partitions = childPartitions;
+              } else {
+                partitions.retainAll(childPartitions);
+              }
+            }
+          }
+          return partitions;
+        }
+        if (operator == FilterOperator.OR) {
+          Set<Integer> partitions = new HashSet<>();
+          for (FilterQueryTree child : children) {
+            Set<Integer> childPartitions = getPartitions(child, column);
+            if (childPartitions == null) {
+              return null;
+            }
+            partitions.addAll(childPartitions);
+          }
+          return partitions;
+        }
+        return null;
+      }
+
+      if (!column.equals(filterQueryTree.getColumn()) || filterQueryTree.getValue() == null) {
+        return null;
+      }
+      FilterOperator operator = filterQueryTree.getOperator();
+      if (operator != FilterOperator.EQUALITY && operator != FilterOperator.IN) {
+        return null;
+      }
+      Set<Integer> partitions = new HashSet<>();
+      for (String value : filterQueryTree.getValue()) {
+        String[] values = (operator == FilterOperator.IN) ? value.split(IN_PREDICATE_DELIMITER) : new String[]{value};
+        for (String singleValue : values) {
+          try {
+            partitions.add(_partitionFunction.getPartition(getValue(singleValue)));
+          } catch (Exception e) {
+            // Value cannot be partitioned the same way as the values of the segments, do not restrict the partitions
+            return null;
+          }
+        }
+      }
+      return partitions;
+    }
+
+    /**
+     * Converts the value of the predicate to the data type of the column, as done when the segment was created.
+     */
+    private Object getValue(String value) {
+      switch (_dataType) {
+        case INT:
+          return Integer.valueOf(value);
+        case LONG:
+          return Long.valueOf(value);
+        case FLOAT:
+          return Float.valueOf(value);
+        case DOUBLE:
+          return Double.valueOf(value);
+        case STRING:
+          return value;
+        default:
+          throw new IllegalStateException("Unsupported data type: " + _dataType);
+      }
+    }
+  }
+}
@@ -0,0 +1,317 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.routing;
+
+import com.linkedin.pinot.common.data.FieldSpec;
+import com.linkedin.pinot.common.metadata.segment.ColumnMinMaxMetadata;
+import com.linkedin.pinot.common.metadata.segment.RealtimeSegmentZKMetadata;
+import com.linkedin.pinot.common.metadata.segment.SegmentZKMetadata;
+import com.linkedin.pinot.common.request.FilterOperator;
+import com.linkedin.pinot.common.utils.CommonConstants;
+import com.linkedin.pinot.common.utils.request.FilterQueryTree;
+import com.linkedin.pinot.transport.common.SegmentId;
+import com.linkedin.pinot.transport.common.SegmentIdSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * Index of the empty segments of a table and of the value ranges (min/max values) of the columns of its segments,
+ * built from the segment ZK metadata. Used to prune on the broker the segments which cannot hold rows matching the
+ * filter of a query, the same way the servers do with their segment metadata, without paying for a round trip to the
+ * servers hosting them. As the time column is one of the indexed columns, this covers the time range of the segments.
+ *
+ * Segments without ZK metadata (e.g. segments added after the index was built) and columns without min/max values are
+ * never pruned.
+ */
+public class SegmentValueRangeIndex {
+  private static final Logger LOGGER = LoggerFactory.getLogger(SegmentValueRangeIndex.class);
+
+  // Same as the delimiter of the values of the IN and RANGE predicates in the filter query tree
+  private static final String VALUE_DELIMITER = "\t\t";
+  private static final String UNBOUNDED = "*";
+
+  private final Set<SegmentId> _emptySegments;
+  private final Map<SegmentId, Map<String, ValueRange>> _segmentValueRanges;
+
+  private SegmentValueRangeIndex(Set<SegmentId> emptySegments, Map<SegmentId, Map<String, ValueRange>> valueRanges) {
+    _emptySegments = emptySegments;
+    _segmentValueRanges = valueRanges;
+  }
+
+  /**
+   * Builds the value range index of the given segments.
+   *
+   * @return the index, or null if there is nothing to prune the segments with.
+   */
+  @Nullable
+  public static SegmentValueRangeIndex build(@Nonnull String tableName,
+      @Nonnull List<? extends SegmentZKMetadata> segmentZKMetadataList) {
+    return update(tableName, null, Collections.<String>emptySet(), segmentZKMetadataList);
+  }
+
+  /**
+   * Builds the value range index of the segments of a table from the index of the previous version of its segments,
+   * only reading the metadata of the segments added or changed since then. The previous index is not modified.
+   *
+   * @param previousIndex index of the previous version of the segments, null if it had nothing to prune with.
+   * @param removedSegments names of the segments removed since the previous index was built.
+   * @param changedSegmentZKMetadataList ZK metadata of the segments added or changed since the previous index was
+   *                                     built.
+   * @return the index, or null if there is nothing to prune the segments with.
+   */
+  @Nullable
+  public static SegmentValueRangeIndex update(@Nonnull String tableName, @Nullable SegmentValueRangeIndex previousIndex,
+      @Nonnull Collection<String> removedSegments,
+      @Nonnull List<? extends SegmentZKMetadata> changedSegmentZKMetadataList) {
+    Set<SegmentId> emptySegments;
+    Map<SegmentId, Map<String, ValueRange>> segmentValueRanges;
+    if (previousIndex == null) {
+      emptySegments = new HashSet<>();
+      segmentValueRanges = new HashMap<>();
+    } else {
+      emptySegments = new HashSet<>(previousIndex._emptySegments);
+      segmentValueRanges = new HashMap<>(previousIndex._segmentValueRanges);
+    }
+    for (String segmentName : removedSegments) {
+      SegmentId segmentId = new SegmentId(segmentName);
+      emptySegments.remove(segmentId);
+      segmentValueRanges.remove(segmentId);
+    }
+    for (SegmentZKMetadata segmentZKMetadata : changedSegmentZKMetadataList) {
+      SegmentId segmentId = new SegmentId(segmentZKMetadata.getSegmentName());
+      emptySegments.remove(segmentId);
+      segmentValueRanges.remove(segmentId);
+      addSegment(tableName, segmentId, segmentZKMetadata, emptySegments, segmentValueRanges);
+    }
+
+    if (emptySegments.isEmpty() && segmentValueRanges.isEmpty()) {
+      return null;
+    }
+    return new SegmentValueRangeIndex(emptySegments, segmentValueRanges);
+  }
+
+  private static void addSegment(String tableName, SegmentId segmentId, SegmentZKMetadata segmentZKMetadata,
+      Set<SegmentId> emptySegments, Map<SegmentId, Map<String, ValueRange>> segmentValueRanges) {
+    if (segmentZKMetadata instanceof RealtimeSegmentZKMetadata
+        && ((RealtimeSegmentZKMetadata) segmentZKMetadata).getStatus()
+        == CommonConstants.Segment.Realtime.Status.IN_PROGRESS) {
+      // Metadata of consuming segments is not final
+      return;
+    }
+    if (segmentZKMetadata.getTotalRawDocs() == 0) {
+      emptySegments.add(segmentId);
+      return;
+    }
+
+    Map<String, ColumnMinMaxMetadata> columnMinMaxMetadata = segmentZKMetadata.getColumnMinMaxMetadata();
+    if (columnMinMaxMetadata == null) {
+      return;
+    }
+    Map<String, ValueRange> valueRanges = new HashMap<>();
+    for (Map.Entry<String, ColumnMinMaxMetadata> entry : columnMinMaxMetadata.entrySet()) {
+      ColumnMinMaxMetadata minMaxMetadata = entry.getValue();
+      FieldSpec.DataType dataType = minMaxMetadata.getDataType();
+      try {
+        valueRanges.put(entry.getKey(),
+            new ValueRange(dataType, getValue(minMaxMetadata.getMinValue(), dataType),
+                getValue(minMaxMetadata.getMaxValue(), dataType)));
+      } catch (Exception e) {
+        LOGGER.warn("Cannot read the min/max values of column {} of segment {} of table {}", entry.getKey(),
+            segmentId.getSegmentId(), tableName, e);
+      }
+    }
+    if (!valueRanges.isEmpty()) {
+      segmentValueRanges.put(segmentId, valueRanges);
+    }
+  }
+
+  /**
+   * Prunes the empty segments and the segments which cannot hold rows matching the filter from the routing, dropping
+   * the entries left without segments.
+   *
+   * @param routing routing to prune, e.g. servers to segments or replica groups to segments.
+   * @param filterQueryTree filter of the query, can be null.
+   * @return the pruned routing.
+   */
+  public <K> Map<K, SegmentIdSet> prune(@Nonnull Map<K, SegmentIdSet> routing,
+      @Nullable FilterQueryTree filterQueryTree) {
+    if (filterQueryTree == null && _emptySegments.isEmpty()) {
+      return routing;
+    }
+
+    Map<K, SegmentIdSet> prunedRouting = new HashMap<>();
+    boolean pruned = false;
+    for (Map.Entry<K, SegmentIdSet> entry : routing.entrySet()) {
+      SegmentIdSet prunedSegments = null;
+      for (SegmentId segmentId : entry.getValue().getSegments()) {
+        if (canPrune(segmentId, filterQueryTree)) {
+          pruned = true;
+          continue;
+        }
+        if (prunedSegments == null) {
+          prunedSegments = new SegmentIdSet();
+        }
+        prunedSegments.addSegment(segmentId);
+      }
+      if (prunedSegments != null) {
+        prunedRouting.put(entry.getKey(), prunedSegments);
+      }
+    }
+    return pruned ? prunedRouting : routing;
+  }
+
+  private boolean canPrune(SegmentId segmentId, @Nullable FilterQueryTree filterQueryTree) {
+    if (_emptySegments.contains(segmentId)) {
+      return true;
+    }
+    if (filterQueryTree == null) {
+      return false;
+    }
+    Map<String, ValueRange> valueRanges = _segmentValueRanges.get(segmentId);
+    return valueRanges != null && canPrune(filterQueryTree, valueRanges);
+  }
+
+  /**
+   * Returns true if no row of a segment with the given value ranges can match the filter:
+   * <ul>
+   *   <li> For 'AND', as long as at least one child can prune it. </li>
+   *   <li> For 'OR', as long as all children can prune it. </li>
+   *   <li> For EQUALITY, IN and RANGE predicates, if no value of the predicate is within the value range of the
+   *        column. </li>
+   * </ul>
+   */
+  private static boolean canPrune(FilterQueryTree filterQueryTree, Map<String, ValueRange> valueRanges) {
+    List<FilterQueryTree> children = filterQueryTree.getChildren();
+    FilterOperator operator = filterQueryTree.getOperator();
+    if (children != null && !children.isEmpty()) {
+      if (operator == FilterOperator.AND) {
+        for (FilterQueryTree child : children) {
+          if (canPrune(child, valueRanges)) {
+            return true;
+          }
+        }
+        return false;
+      }
+      if (operator == FilterOperator.OR) {
+        for (FilterQueryTree child : children) {
+          if (!canPrune(child, valueRanges)) {
+            return false;
+          }
+        }
+        return true;
+      }
+      return false;
+    }
+
+    ValueRange valueRange = valueRanges.get(filterQueryTree.getColumn());
+    List<String> values = filterQueryTree.getValue();
+    if (valueRange == null || values == null || values.isEmpty()) {
+      return false;
+    }
+    try {
+      switch (operator) {
+        case EQUALITY:
+          return !valueRange.contains(getValue(values.get(0), valueRange._dataType));
+        case IN:
+          for (String value : values.get(0).split(VALUE_DELIMITER)) {
+            if (valueRange.contains(getValue(value, valueRange._dataType))) {
+              return false;
+            }
+          }
+          return true;
+        case RANGE:
+          return !valueRange.overlaps(values.get(0).trim());
+        default:
+          return false;
+      }
+    } catch (Exception e) {
+      // Value of the predicate cannot be compared with the values of the column, let the server handle it
+      return false;
+    }
+  }
+
+  private static Comparable getValue(String value, FieldSpec.DataType dataType) {
+    switch (dataType) {
+      case INT:
+        return Integer.valueOf(value);
+      case LONG:
+        return Long.valueOf(value);
+      case FLOAT:
+        return Float.valueOf(value);
+      case DOUBLE:
+        return Double.valueOf(value);
+      case STRING:
+        return value;
+      default:
+        throw new IllegalStateException("Unsupported data type: " + dataType);
+    }
+  }
+
+  /**
+   * Min and max values of a column of a segment.
+   */
+  @SuppressWarnings("unchecked")
+  private static class ValueRange {
+    private final FieldSpec.DataType _dataType;
+    private final Comparable _minValue;
+    private final Comparable _maxValue;
+
+    ValueRange(FieldSpec.DataType dataType, Comparable minValue, Comparable maxValue) {
+      _dataType = dataType;
+      _minValue = minValue;
+      _maxValue = maxValue;
+    }
+
+    boolean contains(Comparable value) {
+      return value.compareTo(_minValue) >= 0 && value.compareTo(_maxValue) <= 0;
+    }
+
+    /**
+     * Returns true if the range of the RANGE predicate (e.g. "[10\t\t*)") overlaps with this value range.
+     */
+    boolean overlaps(String range) {
+      String[] boundaries = range.split(VALUE_DELIMITER);
+      String lowerBoundary = boundaries[0].substring(1);
+      String upperBoundary = boundaries[1].substring(0, boundaries[1].length() - 1);
+      boolean includeLowerBoundary = !boundaries[0].startsWith("(");
+      boolean includeUpperBoundary = !boundaries[1].endsWith(")");
+
+      if (!lowerBoundary.equals(UNBOUNDED)) {
+        int compare = getValue(lowerBoundary, _dataType).compareTo(_maxValue);
+        if (compare > 0 || (compare == 0 && !includeLowerBoundary)) {
+          return false;
+        }
+      }
+      if (!upperBoundary.equals(UNBOUNDED)) {
+        int compare = getValue(upperBoundary, _dataType).compareTo(_minValue);
+        if (compare < 0 || (compare == 0 && !includeUpperBoundary)) {
+          return false;
+        }
+      }
+      return true;
+    }
+  }
+}
@@ -54,16 +54,7 @@ public class ServerToSegmentSetMap {
     _serverToSegmentSetMap = serverToSegmentSetMap;
     _routingTable = new HashMap<ServerInstance, SegmentIdSet>();
     for (Entry<String, Set<String>> entry : _serverToSegmentSetMap.entrySet()) {
-      String namePortStr = entry.getKey().split(CommonConstants.Helix.PREFIX_OF_SERVER_INSTANCE)[1];
-      String hostName = namePortStr.split(NAME_PORT_DELIMITER)[0];
-      int port;
-      try {
-        port = Integer.parseInt(namePortStr.split(NAME_PORT_DELIMITER)[1]);
-      } catch (Exception e) {
-        port = CommonConstants.Helix.DEFAULT_SERVER_NETTY_PORT;
-      }
-
-      ServerInstance serverInstance = new ServerInstance(hostName, port);
+      ServerInstance serverInstance = toServerInstance(entry.getKey());
       SegmentIdSet segmentIdSet = new SegmentIdSet();
       for (String segmentId : entry.getValue()) {
         segmentIdSet.addSegment(new SegmentId(segmentId));
@@ -72,6 +63,46 @@ public class ServerToSegmentSetMap {
     }
   }
 
+  /**
+   * Creates a mapping from another one where the segment sets of some servers are replaced. The segment sets of the
+   * other servers are shared with the original mapping, servers mapped to an empty segment set are removed.
+   */
+  ServerToSegmentSetMap(ServerToSegmentSetMap original, Map<String, Set<String>> updatedServerToSegmentSetMap) {
+    _serverToSegmentSetMap = new HashMap<>(original._serverToSegmentSetMap);
+    _routingTable = new HashMap<>(original._routingTable);
+    for (Entry<String, Set<String>> entry : updatedServerToSegmentSetMap.entrySet()) {
+      String server = entry.getKey();
+      Set<String> segmentSet = entry.getValue();
+      ServerInstance serverInstance = toServerInstance(server);
+      if (segmentSet.isEmpty()) {
+        _serverToSegmentSetMap.remove(server);
+        _routingTable.remove(serverInstance);
+      } else {
+        SegmentIdSet segmentIdSet = new SegmentIdSet();
+        for (String segmentId : segmentSet) {
+          segmentIdSet.addSegment(new SegmentId(segmentId));
+        }
+        _serverToSegmentSetMap.put(server, segmentSet);
+        _routingTable.put(serverInstance, segmentIdSet);
+      }
+    }
+  }
+
+  /**
+   * Converts a helix server instance name (e.g. Server_host_port) to a ServerInstance.
+   */
+  public static ServerInstance toServerInstance(String instanceName) {
+    String namePortStr = instanceName.split(CommonConstants.Helix.PREFIX_OF_SERVER_INSTANCE)[1];
+    String hostName = namePortStr.split(NAME_PORT_DELIMITER)[0];
+    int port;
+    try {
+      port = Integer.parseInt(namePortStr.split(NAME_PORT_DELIMITER)[1]);
+    } catch (Exception e) {
+      port = CommonConstants.Helix.DEFAULT_SERVER_NETTY_PORT;
+    }
+    return new ServerInstance(hostName, port);
+  }
+
   public Set<String> getServerSet() {
     return _serverToSegmentSetMap.keySet();
   }
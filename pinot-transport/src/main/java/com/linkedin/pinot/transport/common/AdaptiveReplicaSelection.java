@@ -0,0 +1,230 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.transport.common;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.apache.http.annotation.ThreadSafe;
+
+import com.linkedin.pinot.common.response.ServerInstance;
+
+
+/**
+ * Latency aware replica selection. For each server it keeps track of an exponentially weighted moving average
+ * of the response latency, the number of in-flight requests and a decaying count of recent errors, all fed back
+ * by the scatter-gather layer.
+ *
+ * Among the candidates, two distinct servers are picked at random and the one with the lower score
+ * (<code>latency * (1 + inFlight) * errorPenalty</code>) is selected. Comparing two random choices instead of
+ * always taking the best server avoids herding all the brokers onto the same replica between two updates.
+ * Servers without any statistics have the lowest score, so that new replicas get probed.
+ */
+@ThreadSafe
+public class AdaptiveReplicaSelection extends ReplicaSelection {
+  public static final double DEFAULT_LATENCY_SMOOTHING_FACTOR = 0.2;
+  public static final long DEFAULT_ERROR_DECAY_MS = 30000L;
+  // Each recent error multiplies the score of the server by (1 + ERROR_PENALTY_WEIGHT)
+  private static final double ERROR_PENALTY_WEIGHT = 4.0;
+
+  private final ConcurrentMap<ServerInstance, ServerStats> _serverStatsMap = new ConcurrentHashMap<>();
+  private final Random _random;
+  private final double _latencySmoothingFactor;
+  private final long _errorDecayMs;
+
+  public AdaptiveReplicaSelection() {
+    this(DEFAULT_LATENCY_SMOOTHING_FACTOR, DEFAULT_ERROR_DECAY_MS, new Random());
+  }
+
+  /**
+   * @param latencySmoothingFactor Weight of the latest latency sample in the moving average, in (0, 1]
+   * @param errorDecayMs Time constant of the exponential decay of the error count
+   * @param random Source of the random choices
+   */
+  public AdaptiveReplicaSelection(double latencySmoothingFactor, long errorDecayMs, Random random) {
+    if (latencySmoothingFactor <= 0 || latencySmoothingFactor > 1) {
+      throw new IllegalArgumentException("Latency smoothing factor must be in (0, 1], got: " + latencySmoothingFactor);
+    }
+    _latencySmoothingFactor = latencySmoothingFactor;
+    _errorDecayMs = errorDecayMs;
+    _random = random;
+  }
+
+  @Override
+  public void reset(SegmentId p) {
+    // Statistics are kept per server, nothing to be done here
+  }
+
+  @Override
+  public void reset(SegmentIdSet p) {
+    // Statistics are kept per server, nothing to be done here
+  }
+
+  @Override
+  public ServerInstance selectServer(SegmentId p, List<ServerInstance> orderedServers, Object hashKey) {
+    int size = orderedServers.size();
+
+    if (size <= 0) {
+      return null;
+    }
+    if (size == 1) {
+      return orderedServers.get(0);
+    }
+
+    ServerInstance first;
+    ServerInstance second;
+    if (size == 2) {
+      first = orderedServers.get(0);
+      second = orderedServers.get(1);
+    } else {
+      int firstIndex = _random.nextInt(size);
+      int secondIndex = _random.nextInt(size - 1);
+      if (secondIndex >= firstIndex) {
+        secondIndex++;
+      }
+      first = orderedServers.get(firstIndex);
+      second = orderedServers.get(secondIndex);
+    }
+
+    long now = System.currentTimeMillis();
+    double firstScore = getScore(first, now);
+    double secondScore = getScore(second, now);
+    if (firstScore == secondScore) {
+      return _random.nextBoolean() ? first : second;
+    }
+    return firstScore < secondScore ? first : second;
+  }
+
+  @Override
+  public void onRequestSent(ServerInstance server) {
+    getOrCreateStats(server).onRequestSent();
+  }
+
+  @Override
+  public void onResponse(ServerInstance server, long latencyMs) {
+    getOrCreateStats(server).onResponse(latencyMs, _latencySmoothingFactor);
+  }
+
+  @Override
+  public void onError(ServerInstance server, boolean requestSent) {
+    getOrCreateStats(server).onError(requestSent, System.currentTimeMillis(), _errorDecayMs);
+  }
+
+  /**
+   * Returns the current score of the server, lower is better.
+   */
+  public double getScore(ServerInstance server) {
+    return getScore(server, System.currentTimeMillis());
+  }
+
+  /**
+   * Returns the moving average of the response latency of the server, or -1 if it never responded.
+   */
+  public double getLatencyEwmaMs(ServerInstance server) {
+    ServerStats stats = _serverStatsMap.get(server);
+    return stats == null ? -1 : stats.getLatencyEwmaMs();
+  }
+
+  /**
+   * Returns the number of requests sent to the server that are not answered yet.
+   */
+  public int getNumInFlightRequests(ServerInstance server) {
+    ServerStats stats = _serverStatsMap.get(server);
+    return stats == null ? 0 : stats.getNumInFlightRequests();
+  }
+
+  private double getScore(ServerInstance server, long now) {
+    ServerStats stats = _serverStatsMap.get(server);
+    if (stats == null) {
+      return 0;
+    }
+    return stats.getScore(now, _errorDecayMs);
+  }
+
+  private ServerStats getOrCreateStats(ServerInstance server) {
+    ServerStats stats = _serverStatsMap.get(server);
+    if (stats == null) {
+      stats = new ServerStats();
+      ServerStats existing = _serverStatsMap.putIfAbsent(server, stats);
+      if (existing != null) {
+        stats = existing;
+      }
+    }
+    return stats;
+  }
+
+  private static class ServerStats {
+    private double _latencyEwmaMs = -1;
+    private int _numInFlightRequests;
+    private double _decayedNumErrors;
+    private long _lastErrorUpdateMs;
+
+    synchronized void onRequestSent() {
+      _numInFlightRequests++;
+    }
+
+    synchronized void onResponse(long latencyMs, double smoothingFactor) {
+      requestCompleted();
+      if (_latencyEwmaMs < 0) {
+        _latencyEwmaMs = latencyMs;
+      } else {
+        _latencyEwmaMs += smoothingFactor * (latencyMs - _latencyEwmaMs);
+      }
+    }
+
+    synchronized void onError(boolean requestSent, long now, long errorDecayMs) {
+      if (requestSent) {
+        requestCompleted();
+      }
+      _decayedNumErrors = getDecayedNumErrors(now, errorDecayMs) + 1;
+      _lastErrorUpdateMs = now;
+    }
+
+    synchronized double getScore(long now, long errorDecayMs) {
+      // Add 1ms so that in-flight requests still count against servers with sub-millisecond latency
+      double latency = (_latencyEwmaMs < 0 ? 0 : _latencyEwmaMs) + 1;
+      double errorPenalty = 1 + ERROR_PENALTY_WEIGHT * getDecayedNumErrors(now, errorDecayMs);
+      return latency * (1 + _numInFlightRequests) * errorPenalty;
+    }
+
+    synchronized double getLatencyEwmaMs() {
+      return _latencyEwmaMs;
+    }
+
+    synchronized int getNumInFlightRequests() {
+      return _numInFlightRequests;
+    }
+
+    private void requestCompleted() {
+      if (_numInFlightRequests > 0) {
+        _numInFlightRequests--;
+      }
+    }
+
+    private double getDecayedNumErrors(long now, long errorDecayMs) {
+      if (_decayedNumErrors == 0) {
+        return 0;
+      }
+      if (errorDecayMs <= 0) {
+        return _decayedNumErrors;
+      }
+      long elapsedMs = Math.max(0, now - _lastErrorUpdateMs);
+      return _decayedNumErrors * Math.exp(-(double) elapsedMs / errorDecayMs);
+    }
+  }
+}
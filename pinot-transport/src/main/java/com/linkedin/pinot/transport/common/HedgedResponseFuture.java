@@ -0,0 +1,357 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.transport.common;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import javax.annotation.Nullable;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.linkedin.pinot.common.response.ServerInstance;
+
+
+/**
+ * Future for a request which can be re-issued (hedged) to another server after it was sent to the primary server.
+ * Unlike {@link SelectingFuture}, the hedged future does not need to be known when this future is created.
+ *
+ * This future completes with the first successful response of either the primary or the hedged request, or with the
+ * error of the last request to fail. Its response and error maps are keyed by the server which provided them. The
+ * request which lost is not cancelled by this future, callers are expected to listen to this future for that.
+ *
+ * With a {@link RetryHandler}, a response reporting that the server rejected the request does not count as a success:
+ * a primary request rejected before being hedged is re-issued right away, and the rejection is only returned when no
+ * other request succeeds.
+ *
+ * @param <T> Response object.
+ */
+public class HedgedResponseFuture<T> implements ServerResponseFuture<T> {
+  private static final Logger LOGGER = LoggerFactory.getLogger(HedgedResponseFuture.class);
+
+  private final String _name;
+  private final ServerResponseFuture<T> _primaryFuture;
+  private final RetryHandler<T> _retryHandler;
+  private final long _startTime;
+  private final CountDownLatch _latch = new CountDownLatch(1);
+
+  // Guarded by this
+  private ServerResponseFuture<T> _hedgedFuture;
+  private boolean _done;
+  private boolean _cancelled;
+  // Rejection returned if no other request succeeds
+  private ServerResponseFuture<T> _rejectedFuture;
+  private Map<ServerInstance, T> _rejectedResponse;
+  private final List<Runnable> _pendingRunnable = new ArrayList<Runnable>();
+  private final List<Executor> _pendingRunnableExecutors = new ArrayList<Executor>();
+
+  // Set before the latch is released
+  private volatile ServerResponseFuture<T> _winner;
+  private volatile Map<ServerInstance, T> _response;
+  private volatile Map<ServerInstance, Throwable> _error;
+  private volatile long _endTime;
+
+  public HedgedResponseFuture(ServerResponseFuture<T> primaryFuture, String name) {
+    this(primaryFuture, name, null);
+  }
+
+  public HedgedResponseFuture(ServerResponseFuture<T> primaryFuture, String name,
+      @Nullable RetryHandler<T> retryHandler) {
+    _name = name;
+    _primaryFuture = primaryFuture;
+    _retryHandler = retryHandler;
+    _startTime = System.currentTimeMillis();
+    primaryFuture.addListener(new UnderlyingFutureListener(primaryFuture), null);
+  }
+
+  /**
+   * Adds the future of the request re-issued to another server. Only one hedged future can be added.
+   *
+   * @return false if this future is already complete, in which case the hedged request is not needed anymore.
+   */
+  public boolean hedge(ServerResponseFuture<T> hedgedFuture) {
+    synchronized (this) {
+      if (_done) {
+        return false;
+      }
+      if (_hedgedFuture != null) {
+        throw new IllegalStateException("Request " + _name + " has already been hedged");
+      }
+      _hedgedFuture = hedgedFuture;
+    }
+    hedgedFuture.addListener(new UnderlyingFutureListener(hedgedFuture), null);
+    return true;
+  }
+
+  /**
+   * Returns true if the request has been hedged.
+   */
+  public synchronized boolean isHedged() {
+    return _hedgedFuture != null;
+  }
+
+  /**
+   * Returns true if this future completed with the outcome of the hedged request.
+   */
+  public boolean isHedgeWinner() {
+    ServerResponseFuture<T> winner = _winner;
+    return winner != null && winner != _primaryFuture;
+  }
+
+  private void onUnderlyingFutureDone(ServerResponseFuture<T> future) {
+    Map<ServerInstance, T> response = null;
+    try {
+      response = future.get();
+    } catch (InterruptedException e) {
+      LOGGER.info("Got interrupted waiting for response", e);
+    } catch (ExecutionException e) {
+      LOGGER.info("Got execution exception waiting for response", e);
+    }
+    Map<ServerInstance, Throwable> error = future.getError();
+    boolean success = response != null && !response.isEmpty();
+    boolean rejected =
+        success && _retryHandler != null && _retryHandler.isRejected(response.values().iterator().next());
+    boolean retry = false;
+
+    synchronized (this) {
+      if (_done) {
+        return;
+      }
+      ServerResponseFuture<T> other = (future == _primaryFuture) ? _hedgedFuture : _primaryFuture;
+      if (rejected) {
+        _rejectedFuture = future;
+        _rejectedResponse = response;
+        if (other == null) {
+          retry = true;
+        } else if (!other.isDone()) {
+          LOGGER.debug("{} Request to {} rejected, waiting for the other request", _name, future.getServerInstance());
+          return;
+        }
+      } else if (!success && other != null && !other.isDone()) {
+        // The other request can still succeed
+        LOGGER.debug("{} Request to {} failed, waiting for the other request", _name, future.getServerInstance());
+        return;
+      }
+      if (!retry) {
+        complete(future, success && !rejected ? response : null, error);
+      }
+    }
+
+    if (retry) {
+      LOGGER.debug("{} Request to {} rejected, retrying", _name, future.getServerInstance());
+      if (_retryHandler.retry()) {
+        // The re-issued request completes this future
+        return;
+      }
+      synchronized (this) {
+        if (_done || (_hedgedFuture != null && !_hedgedFuture.isDone())) {
+          return;
+        }
+        complete(future, null, error);
+      }
+    }
+    setDone();
+  }
+
+  /**
+   * Completes this future with the response of the future, with the rejection if there is no response, or with the
+   * error otherwise.
+   */
+  private void complete(ServerResponseFuture<T> future, Map<ServerInstance, T> response,
+      Map<ServerInstance, Throwable> error) {
+    if (response != null) {
+      _winner = future;
+      _response = response;
+    } else if (_rejectedResponse != null) {
+      _winner = _rejectedFuture;
+      _response = _rejectedResponse;
+    } else {
+      _winner = future;
+      _error = error;
+    }
+    _done = true;
+  }
+
+  private void setDone() {
+    _endTime = System.currentTimeMillis();
+    _latch.countDown();
+
+    List<Runnable> runnables;
+    List<Executor> executors;
+    synchronized (this) {
+      runnables = new ArrayList<Runnable>(_pendingRunnable);
+      executors = new ArrayList<Executor>(_pendingRunnableExecutors);
+      _pendingRunnable.clear();
+      _pendingRunnableExecutors.clear();
+    }
+    for (int i = 0; i < runnables.size(); i++) {
+      Executor e = executors.get(i);
+      if (null != e) {
+        e.execute(runnables.get(i));
+      } else {
+        runnables.get(i).run(); // run in the current thread.
+      }
+    }
+  }
+
+  @Override
+  public boolean cancel(boolean mayInterruptIfRunning) {
+    ServerResponseFuture<T> hedgedFuture;
+    synchronized (this) {
+      if (_done) {
+        return false;
+      }
+      _done = true;
+      _cancelled = true;
+      hedgedFuture = _hedgedFuture;
+    }
+    setDone();
+    _primaryFuture.cancel(mayInterruptIfRunning);
+    if (hedgedFuture != null) {
+      hedgedFuture.cancel(mayInterruptIfRunning);
+    }
+    return true;
+  }
+
+  @Override
+  public synchronized boolean isCancelled() {
+    return _cancelled;
+  }
+
+  @Override
+  public synchronized boolean isDone() {
+    return _done;
+  }
+
+  @Override
+  public void addListener(Runnable listener, Executor executor) {
+    synchronized (this) {
+      if (!_done) {
+        _pendingRunnable.add(listener);
+        _pendingRunnableExecutors.add(executor);
+        return;
+      }
+    }
+    if (null != executor) {
+      executor.execute(listener);
+    } else {
+      listener.run(); // run in the same thread
+    }
+  }
+
+  @Override
+  public Map<ServerInstance, T> get() throws InterruptedException, ExecutionException {
+    _latch.await();
+    return _response;
+  }
+
+  @Override
+  public Map<ServerInstance, T> get(long timeout, TimeUnit unit)
+      throws InterruptedException, ExecutionException, TimeoutException {
+    if (!_latch.await(timeout, unit)) {
+      throw new TimeoutException("Timeout awaiting response for hedged future " + _name);
+    }
+    return _response;
+  }
+
+  @Override
+  public T getOne() throws InterruptedException, ExecutionException {
+    _latch.await();
+    return getOneResponse();
+  }
+
+  @Override
+  public T getOne(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
+    if (!_latch.await(timeout, unit)) {
+      throw new TimeoutException("Timeout awaiting response for hedged future " + _name);
+    }
+    return getOneResponse();
+  }
+
+  private T getOneResponse() {
+    Map<ServerInstance, T> response = _response;
+    if (response == null || response.isEmpty()) {
+      return null;
+    }
+    return response.values().iterator().next();
+  }
+
+  /**
+   * Get the duration between the time this future was created (approximately the time when the primary request was
+   * sent) and the time it completed, regardless of which request completed it.
+   */
+  @Override
+  public long getDurationMillis() {
+    long endTime = _endTime;
+    if (endTime > 0) {
+      return endTime - _startTime;
+    }
+    return -1L;
+  }
+
+  @Override
+  public Map<ServerInstance, Throwable> getError() {
+    return _error;
+  }
+
+  @Override
+  public ServerInstance getServerInstance() {
+    ServerResponseFuture<T> winner = _winner;
+    return winner != null ? winner.getServerInstance() : _primaryFuture.getServerInstance();
+  }
+
+  @Override
+  public String getName() {
+    return _name;
+  }
+
+  /**
+   * Identifies the responses of the servers which rejected the request, and re-issues rejected requests.
+   */
+  public interface RetryHandler<T> {
+    /**
+     * Returns true if the response reports that the server rejected the request without processing it.
+     */
+    boolean isRejected(T response);
+
+    /**
+     * Re-issues the request rejected by the primary server through {@link HedgedResponseFuture#hedge}.
+     *
+     * @return false if the request could not be re-issued.
+     */
+    boolean retry();
+  }
+
+  private class UnderlyingFutureListener implements Runnable {
+    private final ServerResponseFuture<T> _future;
+
+    UnderlyingFutureListener(ServerResponseFuture<T> future) {
+      _future = future;
+    }
+
+    @Override
+    public void run() {
+      onUnderlyingFutureDone(_future);
+    }
+  }
+}
@@ -85,4 +85,29 @@ public abstract class ReplicaSelection {
    */
   public abstract ServerInstance selectServer(SegmentId p, List<ServerInstance> orderedServers, Object hashKey);
 
+  /**
+   * Notification by the scatter-gather layer that a request has been dispatched to the server.
+   * Policies that do not track server load can ignore it.
+   * @param server Server to which the request was sent
+   */
+  public void onRequestSent(ServerInstance server) {
+  }
+
+  /**
+   * Notification by the scatter-gather layer that the server responded to a request previously
+   * reported through {@link #onRequestSent(ServerInstance)}.
+   * @param server Server which responded
+   * @param latencyMs Time between dispatching the request and receiving the response
+   */
+  public void onResponse(ServerInstance server, long latencyMs) {
+  }
+
+  /**
+   * Notification by the scatter-gather layer that a request to the server failed, timed out or was
+   * cancelled. It is called at most once per request, instead of {@link #onResponse(ServerInstance, long)}.
+   * @param server Server to which the request was sent
+   * @param requestSent Whether the request was reported through {@link #onRequestSent(ServerInstance)}
+   */
+  public void onError(ServerInstance server, boolean requestSent) {
+  }
 }
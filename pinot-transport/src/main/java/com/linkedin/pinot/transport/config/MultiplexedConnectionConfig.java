@@ -0,0 +1,94 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.transport.config;
+
+import org.apache.commons.configuration.Configuration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import com.linkedin.pinot.transport.netty.MultiplexedConnectionManager;
+
+
+/**
+ * Config of the multiplexed transport, where requests to a server share a few long-lived connections instead of
+ * checking out an exclusive connection from the pool. Servers must support the multiplexed framing.
+ */
+public class MultiplexedConnectionConfig {
+
+  // Use multiplexed connections instead of the connection pool
+  public static final String ENABLED_KEY = "enabled";
+
+  // Number of connections shared by the requests to each server
+  public static final String CONNECTIONS_PER_SERVER_KEY = "connectionsPerServer";
+
+  // Maximum number of outstanding requests to each server before requests starts getting rejected
+  public static final String MAX_OUTSTANDING_REQUESTS_PER_SERVER_KEY = "maxOutstandingRequestsPerServer";
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(MultiplexedConnectionConfig.class);
+
+  private boolean _enabled;
+  private int _connectionsPerServer;
+  private int _maxOutstandingRequestsPerServer;
+
+  public MultiplexedConnectionConfig() {
+    _enabled = false;
+    _connectionsPerServer = MultiplexedConnectionManager.DEFAULT_CONNECTIONS_PER_SERVER;
+    _maxOutstandingRequestsPerServer = MultiplexedConnectionManager.DEFAULT_MAX_OUTSTANDING_REQUESTS_PER_SERVER;
+  }
+
+  public void init(Configuration cfg) {
+    if (cfg.containsKey(ENABLED_KEY)) {
+      _enabled = cfg.getBoolean(ENABLED_KEY);
+    }
+
+    if (cfg.containsKey(CONNECTIONS_PER_SERVER_KEY)) {
+      _connectionsPerServer = cfg.getInt(CONNECTIONS_PER_SERVER_KEY);
+    }
+
+    if (cfg.containsKey(MAX_OUTSTANDING_REQUESTS_PER_SERVER_KEY)) {
+      _maxOutstandingRequestsPerServer = cfg.getInt(MAX_OUTSTANDING_REQUESTS_PER_SERVER_KEY);
+    }
+
+    if (_connectionsPerServer <= 0) {
+      LOGGER.warn("Invalid value for " + CONNECTIONS_PER_SERVER_KEY + "({}). Resetting to default.",
+          _connectionsPerServer);
+      _connectionsPerServer = MultiplexedConnectionManager.DEFAULT_CONNECTIONS_PER_SERVER;
+    }
+    if (_maxOutstandingRequestsPerServer <= 0) {
+      LOGGER.warn("Invalid value for " + MAX_OUTSTANDING_REQUESTS_PER_SERVER_KEY + "({}). Resetting to default.",
+          _maxOutstandingRequestsPerServer);
+      _maxOutstandingRequestsPerServer = MultiplexedConnectionManager.DEFAULT_MAX_OUTSTANDING_REQUESTS_PER_SERVER;
+    }
+
+    LOGGER.info(toString());
+  }
+
+  public String toString() {
+    return "enabled = " + _enabled + ", connectionsPerServer = " + _connectionsPerServer
+        + ", maxOutstandingRequestsPerServer = " + _maxOutstandingRequestsPerServer;
+  }
+
+  public boolean isEnabled() {
+    return _enabled;
+  }
+
+  public int getConnectionsPerServer() {
+    return _connectionsPerServer;
+  }
+
+  public int getMaxOutstandingRequestsPerServer() {
+    return _maxOutstandingRequestsPerServer;
+  }
+}
@@ -0,0 +1,183 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.transport.netty;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import javax.annotation.concurrent.ThreadSafe;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import com.linkedin.pinot.common.response.ServerInstance;
+import com.linkedin.pinot.transport.metrics.NettyClientMetrics;
+import com.linkedin.pinot.transport.netty.NettyClientConnection.ResponseFuture;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.EventLoopGroup;
+import io.netty.util.Timer;
+
+
+/**
+ * Keeps a few long-lived {@link NettyMultiplexedClientConnection}s per server and spreads the requests to a server
+ * over them in a round-robin fashion. Connections are created on first use and re-created when they get closed.
+ *
+ * The number of outstanding requests to each server is bounded: once it reaches the configured maximum, requests to
+ * the server fail right away with {@link TooManyOutstandingRequestsException} instead of piling up on the server.
+ */
+@ThreadSafe
+public class MultiplexedConnectionManager {
+  private static final Logger LOGGER = LoggerFactory.getLogger(MultiplexedConnectionManager.class);
+
+  public static final int DEFAULT_CONNECTIONS_PER_SERVER = 2;
+  public static final int DEFAULT_MAX_OUTSTANDING_REQUESTS_PER_SERVER = 1000;
+
+  public static class TooManyOutstandingRequestsException extends RuntimeException {
+    public TooManyOutstandingRequestsException(String msg) {
+      super(msg);
+    }
+  }
+
+  private final EventLoopGroup _eventLoop;
+  private final Timer _timer;
+  private final NettyClientMetrics _metrics;
+  private final int _connectionsPerServer;
+  private final int _maxOutstandingRequestsPerServer;
+  private final ConcurrentMap<ServerInstance, ServerConnections> _serverConnections =
+      new ConcurrentHashMap<ServerInstance, ServerConnections>();
+  private volatile boolean _shutdown = false;
+
+  public MultiplexedConnectionManager(EventLoopGroup eventLoop, Timer timer, NettyClientMetrics metrics,
+      int connectionsPerServer, int maxOutstandingRequestsPerServer) {
+    if (connectionsPerServer <= 0 || maxOutstandingRequestsPerServer <= 0) {
+      throw new IllegalArgumentException(
+          "Invalid connectionsPerServer (" + connectionsPerServer + ") or maxOutstandingRequestsPerServer ("
+              + maxOutstandingRequestsPerServer + ")");
+    }
+    _eventLoop = eventLoop;
+    _timer = timer;
+    _metrics = metrics;
+    _connectionsPerServer = connectionsPerServer;
+    _maxOutstandingRequestsPerServer = maxOutstandingRequestsPerServer;
+  }
+
+  /**
+   * Sends a request to the server over one of its shared connections. Does not block: the returned future fails if
+   * the server has too many outstanding requests, or if the connection cannot be established.
+   *
+   * @param server Server to send the request to
+   * @param serializedRequest serialized payload of the request
+   * @param requestId Request Id
+   * @param timeoutMs Timeout in milli-seconds. If timeout &lt; 0, then no timeout
+   * @return Future to return the response returned from the server.
+   */
+  public ResponseFuture sendRequest(ServerInstance server, ByteBuf serializedRequest, long requestId,
+      long timeoutMs) {
+    if (_shutdown) {
+      return new ResponseFuture(server, new IllegalStateException("Connection manager is shut down"),
+          "Error Future for request " + requestId);
+    }
+    final ServerConnections serverConnections = getServerConnections(server);
+    int numOutstandingRequests = serverConnections._numOutstandingRequests.incrementAndGet();
+    if (numOutstandingRequests > _maxOutstandingRequestsPerServer) {
+      serverConnections._numOutstandingRequests.decrementAndGet();
+      LOGGER.warn("Not sending request {} to server {}, it has {} outstanding requests", requestId, server,
+          numOutstandingRequests - 1);
+      return new ResponseFuture(server, new TooManyOutstandingRequestsException(
+          "Server " + server + " has too many outstanding requests (max=" + _maxOutstandingRequestsPerServer + ")"),
+          "Error Future for request " + requestId);
+    }
+
+    ResponseFuture responseFuture =
+        serverConnections.getConnection().sendRequest(serializedRequest, requestId, timeoutMs);
+    responseFuture.addListener(new Runnable() {
+      @Override
+      public void run() {
+        serverConnections._numOutstandingRequests.decrementAndGet();
+      }
+    }, null);
+    return responseFuture;
+  }
+
+  /**
+   * Returns the number of requests sent to the server which did not complete yet.
+   */
+  public int getNumOutstandingRequests(ServerInstance server) {
+    ServerConnections serverConnections = _serverConnections.get(server);
+    return serverConnections == null ? 0 : serverConnections._numOutstandingRequests.get();
+  }
+
+  /**
+   * Closes all the connections, pending requests fail.
+   */
+  public void shutdown() {
+    _shutdown = true;
+    for (ServerConnections serverConnections : _serverConnections.values()) {
+      for (int i = 0; i < _connectionsPerServer; i++) {
+        NettyMultiplexedClientConnection connection = serverConnections._connections.get(i);
+        if (connection != null) {
+          try {
+            connection.close();
+          } catch (InterruptedException e) {
+            LOGGER.warn("Interrupted while closing connection {}", connection, e);
+            Thread.currentThread().interrupt();
+            return;
+          }
+        }
+      }
+    }
+  }
+
+  private ServerConnections getServerConnections(ServerInstance server) {
+    ServerConnections serverConnections = _serverConnections.get(server);
+    if (serverConnections == null) {
+      serverConnections = new ServerConnections(server);
+      ServerConnections existing = _serverConnections.putIfAbsent(server, serverConnections);
+      if (existing != null) {
+        serverConnections = existing;
+      }
+    }
+    return serverConnections;
+  }
+
+  private class ServerConnections {
+    private final ServerInstance _server;
+    private final AtomicReferenceArray<NettyMultiplexedClientConnection> _connections =
+        new AtomicReferenceArray<NettyMultiplexedClientConnection>(_connectionsPerServer);
+    private final AtomicInteger _nextConnection = new AtomicInteger();
+    private final AtomicInteger _numOutstandingRequests = new AtomicInteger();
+
+    ServerConnections(ServerInstance server) {
+      _server = server;
+    }
+
+    NettyMultiplexedClientConnection getConnection() {
+      int index = (_nextConnection.getAndIncrement() & Integer.MAX_VALUE) % _connectionsPerServer;
+      while (true) {
+        NettyMultiplexedClientConnection connection = _connections.get(index);
+        if (connection != null && !connection.isClosed()) {
+          return connection;
+        }
+        NettyMultiplexedClientConnection newConnection =
+            new NettyMultiplexedClientConnection(_server, _eventLoop, _timer, _metrics);
+        if (_connections.compareAndSet(index, connection, newConnection)) {
+          LOGGER.info("Opening multiplexed connection {} to server {}", newConnection.getConnId(), _server);
+          newConnection.startConnect();
+          return newConnection;
+        }
+      }
+    }
+  }
+}
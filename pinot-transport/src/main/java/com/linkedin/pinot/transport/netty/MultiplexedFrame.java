@@ -0,0 +1,76 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.transport.netty;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+
+
+/**
+ * Framing of the requests and responses exchanged over multiplexed connections, where many requests are in flight on
+ * the same channel and responses can come back in any order. The payload is prefixed with a header carrying the id
+ * which correlates a response to its request. The header follows the length field of the regular framing:
+ *
+ * 0                                                         31
+ * ------------------------------------------------------------
+ * |                  Length ( 32 bits)                       |
+ * |                  Magic ( 32 bits)                        |
+ * |                  Correlation Id ( 64 bits)               |
+ * |                                                          |
+ * |                 Payload (Request/Response)               |
+ * |                    ...............                       |
+ * ------------------------------------------------------------
+ *
+ * Servers recognize multiplexed requests by the magic number and echo the header in the response. Requests without
+ * the header are processed as before, so servers keep serving brokers using pooled exclusive connections.
+ */
+public class MultiplexedFrame {
+  private MultiplexedFrame() {
+  }
+
+  // "PMXF", cannot be the first bytes of a thrift serialized request
+  public static final int MAGIC = 0x504D5846;
+  public static final int HEADER_SIZE = 12;
+
+  /**
+   * Returns true if the frame starts with the multiplexing header.
+   */
+  public static boolean isMultiplexed(ByteBuf frame) {
+    return frame.readableBytes() >= HEADER_SIZE && frame.getInt(frame.readerIndex()) == MAGIC;
+  }
+
+  /**
+   * Prefixes the payload with the multiplexing header for the given correlation id.
+   */
+  public static ByteBuf encode(long correlationId, ByteBuf payload) {
+    ByteBuf header = Unpooled.buffer(HEADER_SIZE);
+    header.writeInt(MAGIC);
+    header.writeLong(correlationId);
+    return Unpooled.wrappedBuffer(header, payload);
+  }
+
+  /**
+   * Reads the multiplexing header of the frame and returns the correlation id. The reader index of the frame is moved
+   * to the payload.
+   */
+  public static long decode(ByteBuf frame) {
+    int magic = frame.readInt();
+    if (magic != MAGIC) {
+      throw new IllegalArgumentException("Frame is not multiplexed, magic: " + Integer.toHexString(magic));
+    }
+    return frame.readLong();
+  }
+}
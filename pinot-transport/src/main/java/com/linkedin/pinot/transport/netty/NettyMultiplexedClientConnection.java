@@ -0,0 +1,277 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.transport.netty;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import com.linkedin.pinot.common.response.ServerInstance;
+import com.linkedin.pinot.transport.common.Cancellable;
+import com.linkedin.pinot.transport.metrics.NettyClientMetrics;
+import io.netty.bootstrap.Bootstrap;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelFutureListener;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.ChannelPipeline;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.socket.SocketChannel;
+import io.netty.channel.socket.nio.NioSocketChannel;
+import io.netty.handler.codec.LengthFieldBasedFrameDecoder;
+import io.netty.handler.codec.LengthFieldPrepender;
+import io.netty.util.Timeout;
+import io.netty.util.Timer;
+import io.netty.util.TimerTask;
+
+
+/**
+ * TCP based Netty Client Connection which can have many requests in flight at the same time. Requests and responses
+ * use the {@link MultiplexedFrame} framing, and responses are matched to requests by correlation id so the server can
+ * respond in any order.
+ *
+ * Unlike {@link NettyTCPClientConnection}, this connection is thread-safe and is not checked out of a pool: it is
+ * shared by all the requests to the server. A request which times out fails without closing the connection, its
+ * response is discarded if it arrives later. When the channel is closed, all the pending requests fail.
+ */
+public class NettyMultiplexedClientConnection extends NettyClientConnection {
+  private static final AtomicLong _connIdGen = new AtomicLong(0);
+
+  private final NettyClientMetrics _clientMetric;
+  private final AtomicLong _correlationIdGen = new AtomicLong(0);
+  private final Map<Long, PendingRequest> _pendingRequests = new ConcurrentHashMap<Long, PendingRequest>();
+
+  private volatile ChannelFuture _connectFuture;
+  private volatile boolean _closed = false;
+
+  public NettyMultiplexedClientConnection(ServerInstance server, EventLoopGroup eventGroup, Timer timer,
+      NettyClientMetrics metric) {
+    super(server, eventGroup, timer, _connIdGen.incrementAndGet());
+    _clientMetric = metric;
+    _bootstrap = new Bootstrap();
+    _bootstrap.group(_eventGroup).channel(NioSocketChannel.class).handler(new ChannelInitializer<SocketChannel>() {
+      @Override
+      protected void initChannel(SocketChannel ch) throws Exception {
+        ChannelPipeline pipeline = ch.pipeline();
+        pipeline.addLast("decoder", new LengthFieldBasedFrameDecoder(Integer.MAX_VALUE, 0, 4, 0, 4));
+        pipeline.addLast("encoder", new LengthFieldPrepender(4));
+        pipeline.addLast("handler", new MultiplexedResponseHandler());
+      }
+    });
+  }
+
+  /**
+   * Starts connecting to the server without waiting for the connection to be established. Requests sent before the
+   * connection is established are written once it is.
+   */
+  public synchronized ChannelFuture startConnect() {
+    if (_connectFuture == null) {
+      _connState = State.CONNECTED;
+      _connectFuture = _bootstrap.connect(_server.getHostname(), _server.getPort());
+      _channel = _connectFuture.channel();
+      _connectFuture.addListener(new ChannelFutureListener() {
+        @Override
+        public void operationComplete(ChannelFuture future) throws Exception {
+          if (!future.isSuccess()) {
+            LOGGER.info("Could not connect to server {} connId {}: {}", _server, _connId,
+                future.cause() != null ? future.cause().getMessage() : "cancelled");
+            onClose(new Exception("Could not connect to server " + _server, future.cause()));
+          }
+        }
+      });
+    }
+    return _connectFuture;
+  }
+
+  @Override
+  public boolean connect() {
+    startConnect().awaitUninterruptibly();
+    return validate();
+  }
+
+  /**
+   * Returns true if the connection is closed, or failed to connect, and cannot be used to send requests anymore.
+   */
+  public boolean isClosed() {
+    return _closed;
+  }
+
+  public int getNumPendingRequests() {
+    return _pendingRequests.size();
+  }
+
+  @Override
+  public ResponseFuture sendRequest(ByteBuf serializedRequest, long requestId, long timeoutMS) {
+    final long correlationId = _correlationIdGen.incrementAndGet();
+    final ResponseFuture responseFuture = new ResponseFuture(_server,
+        "Response Future for request " + requestId + " to server " + _server + " connId " + getConnId());
+    final PendingRequest pendingRequest = new PendingRequest(responseFuture, serializedRequest.readableBytes());
+    responseFuture.setCancellable(new Cancellable() {
+      @Override
+      public boolean cancel() {
+        // The response, if it arrives, is discarded
+        removePendingRequest(correlationId);
+        return true;
+      }
+    });
+    _pendingRequests.put(correlationId, pendingRequest);
+    if (_closed) {
+      failPendingRequest(correlationId, new Exception("Connection to server " + _server + " is closed"));
+      return responseFuture;
+    }
+    if (timeoutMS >= 0 && timeoutMS != Long.MAX_VALUE) {
+      pendingRequest._timeout = _timer.newTimeout(new TimerTask() {
+        @Override
+        public void run(Timeout timeout) throws Exception {
+          failPendingRequest(correlationId,
+              new TimeoutException("Timed out waiting for response of request " + correlationId + " from " + _server));
+        }
+      }, timeoutMS, TimeUnit.MILLISECONDS);
+    }
+
+    final ByteBuf frame = MultiplexedFrame.encode(correlationId, serializedRequest);
+    final ChannelFutureListener writeListener = new ChannelFutureListener() {
+      @Override
+      public void operationComplete(ChannelFuture future) throws Exception {
+        if (!future.isSuccess()) {
+          failPendingRequest(correlationId, future.cause());
+        }
+      }
+    };
+    ChannelFuture connectFuture = startConnect();
+    if (connectFuture.isSuccess()) {
+      connectFuture.channel().writeAndFlush(frame).addListener(writeListener);
+    } else {
+      // Write once connected, connection failures fail all the pending requests
+      connectFuture.addListener(new ChannelFutureListener() {
+        @Override
+        public void operationComplete(ChannelFuture future) throws Exception {
+          if (future.isSuccess()) {
+            future.channel().writeAndFlush(frame).addListener(writeListener);
+          } else {
+            frame.release();
+          }
+        }
+      });
+    }
+    return responseFuture;
+  }
+
+  private PendingRequest removePendingRequest(long correlationId) {
+    PendingRequest pendingRequest = _pendingRequests.remove(correlationId);
+    if (pendingRequest != null && pendingRequest._timeout != null) {
+      pendingRequest._timeout.cancel();
+    }
+    return pendingRequest;
+  }
+
+  private void failPendingRequest(long correlationId, Throwable cause) {
+    PendingRequest pendingRequest = removePendingRequest(correlationId);
+    if (pendingRequest != null) {
+      _clientMetric.addRequestResponseStats(pendingRequest._requestSizeInBytes, 1, 0, true, 0,
+          System.currentTimeMillis() - pendingRequest._startTime);
+      pendingRequest._responseFuture.onError(cause);
+    }
+  }
+
+  private void onClose(Throwable cause) {
+    _closed = true;
+    _connState = State.ERROR;
+    Iterator<Long> iterator = _pendingRequests.keySet().iterator();
+    while (iterator.hasNext()) {
+      failPendingRequest(iterator.next(), cause);
+    }
+  }
+
+  @Override
+  public void close() throws InterruptedException {
+    LOGGER.info("Closing multiplexed client channel to {} connId {}", _server, getConnId());
+    _closed = true;
+    ChannelFuture connectFuture = _connectFuture;
+    if (connectFuture != null) {
+      connectFuture.channel().close().sync();
+    }
+    onClose(new Exception("Connection to server " + _server + " was closed"));
+  }
+
+  @Override
+  public String toString() {
+    return "Server:" + _server + ",Multiplexed,PendingRequests:" + _pendingRequests.size() + ",connId:" + getConnId();
+  }
+
+  private static class PendingRequest {
+    private final ResponseFuture _responseFuture;
+    private final long _requestSizeInBytes;
+    private final long _startTime = System.currentTimeMillis();
+    private volatile Timeout _timeout;
+
+    PendingRequest(ResponseFuture responseFuture, long requestSizeInBytes) {
+      _responseFuture = responseFuture;
+      _requestSizeInBytes = requestSizeInBytes;
+    }
+  }
+
+  /**
+   * Channel Handler for incoming responses, dispatched to the pending requests by correlation id.
+   */
+  private class MultiplexedResponseHandler extends ChannelInboundHandlerAdapter {
+    @Override
+    public void channelRead(ChannelHandlerContext ctx, Object msg) {
+      ByteBuf response = (ByteBuf) msg;
+      if (!MultiplexedFrame.isMultiplexed(response)) {
+        // The server does not support multiplexing, responses cannot be matched to requests
+        response.release();
+        LOGGER.error("Got response without multiplexing header from server {} connId {}. Closing connection",
+            _server, getConnId());
+        onClose(new Exception("Server " + _server + " does not support multiplexed requests"));
+        ctx.close();
+        return;
+      }
+      long responseSizeInBytes = response.readableBytes();
+      long correlationId = MultiplexedFrame.decode(response);
+      PendingRequest pendingRequest = removePendingRequest(correlationId);
+      if (pendingRequest == null) {
+        LOGGER.debug("Discarding response of timed out or cancelled request {} from server {}", correlationId,
+            _server);
+        response.release();
+        return;
+      }
+      _clientMetric.addRequestResponseStats(pendingRequest._requestSizeInBytes, 1, responseSizeInBytes, false, 0,
+          System.currentTimeMillis() - pendingRequest._startTime);
+      pendingRequest._responseFuture.onSuccess(response);
+    }
+
+    @Override
+    public void channelInactive(ChannelHandlerContext ctx) throws Exception {
+      LOGGER.info("Multiplexed client channel to server ({}) (id = {}) in inactive state (closed).  !!", _server,
+          _connId);
+      onClose(new Exception("Client Channel to server (" + _server + ") is in inactive state (closed) !!"));
+      super.channelInactive(ctx);
+    }
+
+    @Override
+    public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) {
+      LOGGER.info("Got exception in the multiplexed channel to {}, connId {}, cause:{}", _server, getConnId(),
+          cause.getMessage());
+      onClose(cause);
+      ctx.close();
+    }
+  }
+}
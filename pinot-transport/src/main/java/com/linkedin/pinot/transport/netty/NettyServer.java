@@ -205,7 +205,8 @@ public abstract class NettyServer implements Runnable {
   }
 
   /**
-   * Request and Response have the following format
+   * Request and Response have the following format, or the {@link MultiplexedFrame} one for requests sent over
+   * multiplexed connections
    *
    * 0                                                         31
    * ------------------------------------------------------------
@@ -240,16 +241,22 @@ public abstract class NettyServer implements Runnable {
       final ByteBuf request = (ByteBuf) msg;
       final long requestSizeInBytes = request.readableBytes();
 
+      // Requests over multiplexed connections carry a correlation id which is echoed in the response
+      final boolean isMultiplexed = MultiplexedFrame.isMultiplexed(request);
+      final long correlationId = isMultiplexed ? MultiplexedFrame.decode(request) : 0L;
+      final ByteBuf payload = isMultiplexed ? request.slice() : request;
+
       //Call processing handler
       final TimerContext requestProcessingLatency = MetricsHelper.startTimer();
       final ChannelHandlerContext requestChannelHandlerContext = ctx;
-      ListenableFuture<byte[]> serializedQueryResponse = _handler.processRequest(ctx, request);
+      ListenableFuture<byte[]> serializedQueryResponse = _handler.processRequest(ctx, payload);
       Futures.addCallback(serializedQueryResponse, new FutureCallback<byte[]>() {
         void sendResponse(@Nonnull final byte[] result) {
           requestProcessingLatency.stop();
 
           // Send Response
-          final ByteBuf responseBuf = Unpooled.wrappedBuffer(result);
+          final ByteBuf responseBuf = isMultiplexed ? MultiplexedFrame.encode(correlationId,
+              Unpooled.wrappedBuffer(result)) : Unpooled.wrappedBuffer(result);
           final TimerContext responseSendLatency = MetricsHelper.startTimer();
           ChannelFuture f = requestChannelHandlerContext.writeAndFlush(responseBuf);
           f.addListener(new ChannelFutureListener() {
@@ -17,15 +17,19 @@ package com.linkedin.pinot.transport.scattergather;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
-import java.util.concurrent.CountDownLatch;
-import java.util.concurrent.ExecutorService;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
-import java.util.concurrent.atomic.AtomicBoolean;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import com.linkedin.pinot.common.metrics.BrokerMeter;
@@ -35,13 +39,16 @@ import com.linkedin.pinot.common.metrics.MetricsHelper;
 import com.linkedin.pinot.common.metrics.MetricsHelper.TimerContext;
 import com.linkedin.pinot.common.request.BrokerRequest;
 import com.linkedin.pinot.common.response.ServerInstance;
+import com.linkedin.pinot.transport.common.Cancellable;
 import com.linkedin.pinot.transport.common.CompositeFuture;
 import com.linkedin.pinot.transport.common.CompositeFuture.GatherModeOnError;
+import com.linkedin.pinot.transport.common.HedgedResponseFuture;
 import com.linkedin.pinot.transport.common.ServerResponseFuture;
 import com.linkedin.pinot.transport.common.ReplicaSelection;
 import com.linkedin.pinot.transport.common.ReplicaSelectionGranularity;
 import com.linkedin.pinot.transport.common.SegmentId;
 import com.linkedin.pinot.transport.common.SegmentIdSet;
+import com.linkedin.pinot.transport.netty.MultiplexedConnectionManager;
 import com.linkedin.pinot.transport.netty.NettyClientConnection.ResponseFuture;
 import com.linkedin.pinot.transport.netty.PooledNettyClientResourceManager;
 import com.linkedin.pinot.transport.pool.KeyedPool;
@@ -68,19 +75,40 @@ public class ScatterGatherImpl implements ScatterGather {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(ScatterGatherImpl.class);
 
-  private final ExecutorService _executorService;
+  // Requests are hedged only when at most this many servers did not respond after the hedge delay. When more servers
+  // are late, the slowness is not specific to a server and hedging would only add load.
+  private static final int MAX_OUTSTANDING_REQUESTS_TO_HEDGE = 1;
+
+  // Used to time out the dispatch of requests and to trigger hedged requests
+  private final ScheduledExecutorService _scheduler;
 
   private final Histogram _latency = MetricsHelper.newHistogram(null, new MetricName(ScatterGatherImpl.class,
       "ScatterGatherLatency"), false);
 
   /**
-   * Connection Pool for sending scatter-gather requests
+   * Connection Pool for sending scatter-gather requests, null if requests are sent over multiplexed connections
    */
   private final KeyedPool<PooledNettyClientResourceManager.PooledClientConnection> _connPool;
 
-  public ScatterGatherImpl(KeyedPool<PooledNettyClientResourceManager.PooledClientConnection> pool, ExecutorService service) {
+  /**
+   * Connections shared by the scatter-gather requests, null if requests are sent over pooled connections
+   */
+  private final MultiplexedConnectionManager _multiplexedConnections;
+
+  public ScatterGatherImpl(KeyedPool<PooledNettyClientResourceManager.PooledClientConnection> pool,
+      ScheduledExecutorService scheduler) {
+    this(pool, null, scheduler);
+  }
+
+  public ScatterGatherImpl(MultiplexedConnectionManager multiplexedConnections, ScheduledExecutorService scheduler) {
+    this(null, multiplexedConnections, scheduler);
+  }
+
+  private ScatterGatherImpl(KeyedPool<PooledNettyClientResourceManager.PooledClientConnection> pool,
+      MultiplexedConnectionManager multiplexedConnections, ScheduledExecutorService scheduler) {
     _connPool = pool;
-    _executorService = service;
+    _multiplexedConnections = multiplexedConnections;
+    _scheduler = scheduler;
   }
 
   @Nonnull
@@ -98,6 +126,11 @@ public class ScatterGatherImpl implements ScatterGather {
 
     // do Selection for each segment-set/segmentId
     selectServices(ctxt);
+    if (scatterGatherRequest.getSegmentsServicesMap() != null
+        && scatterGatherRequest.getSegmentReplicaGroups() != null) {
+      // Servers already picked by the routing table, the replica groups only provide the alternate servers
+      selectAlternateServers(ctxt);
+    }
 
     return sendRequest(ctxt, scatterGatherStats, isOfflineTable, brokerMetrics);
   }
@@ -119,19 +152,15 @@ public class ScatterGatherImpl implements ScatterGather {
    * @param isOfflineTable whether the scatter-gather target is an OFFLINE table.
    * @param brokerMetrics broker metrics to track execution statistics.
    * @return a composite future representing the gather process.
-   * @throws InterruptedException
    */
   protected CompositeFuture<ByteBuf> sendRequest(ScatterGatherRequestContext ctxt,
-      ScatterGatherStats scatterGatherStats, Boolean isOfflineTable, BrokerMetrics brokerMetrics)
-      throws InterruptedException {
+      ScatterGatherStats scatterGatherStats, Boolean isOfflineTable, BrokerMetrics brokerMetrics) {
     TimerContext t = MetricsHelper.startTimer();
 
     // Servers are expected to be selected at this stage
     Map<ServerInstance, SegmentIdSet> mp = ctxt.getSelectedServers();
 
-    CountDownLatch requestDispatchLatch = new CountDownLatch(mp.size());
-
-    // async checkout of connections and then dispatch of request
+    // Requests are sent asynchronously, the response futures report the requests which could not be sent
     List<SingleRequestHandler> handlers = new ArrayList<SingleRequestHandler>(mp.size());
 
     for (Entry<ServerInstance, SegmentIdSet> e : mp.entrySet()) {
@@ -146,10 +175,8 @@ public class ScatterGatherImpl implements ScatterGather {
       }
       scatterGatherStats.initServer(shortServerName);
       SingleRequestHandler handler =
-          new SingleRequestHandler(_connPool, server, ctxt.getRequest(), e.getValue(), ctxt.getTimeRemaining(),
-              requestDispatchLatch, brokerMetrics);
-      // Submit to thread-pool for checking-out and sending request
-      _executorService.submit(handler);
+          new SingleRequestHandler(_connPool, _multiplexedConnections, server, ctxt.getRequest(), e.getValue(),
+              ctxt.getTimeRemaining(), _scheduler, brokerMetrics);
       handlers.add(handler);
     }
 
@@ -157,39 +184,44 @@ public class ScatterGatherImpl implements ScatterGather {
     CompositeFuture<ByteBuf> response =
         new CompositeFuture<ByteBuf>("scatterRequest", GatherModeOnError.SHORTCIRCUIT_AND);
 
-    // Wait for requests to be sent
-    long timeRemaining = ctxt.getTimeRemaining();
-    boolean sentSuccessfully = requestDispatchLatch.await(timeRemaining, TimeUnit.MILLISECONDS);
-
-    if (sentSuccessfully) {
-      List<ServerResponseFuture<ByteBuf>> responseFutures =
-          new ArrayList<ServerResponseFuture<ByteBuf>>();
-      for (SingleRequestHandler h : handlers) {
+    List<ServerResponseFuture<ByteBuf>> responseFutures = new ArrayList<ServerResponseFuture<ByteBuf>>();
+    long hedgeDelayMs = ctxt.getRequest().getHedgeDelayMs();
+    boolean retryOverloadedServers = ctxt.getRequest().isRetryOverloadedServers();
+    Map<ServerInstance, List<ServerInstance>> alternateServers = ctxt.getAlternateServers();
+    List<HedgedRequest> hedgedRequests = new ArrayList<HedgedRequest>();
+    for (SingleRequestHandler h : handlers) {
+      List<ServerInstance> alternates = null;
+      if (hedgeDelayMs > 0 || retryOverloadedServers) {
+        alternates = alternateServers.get(h.getServer());
+      }
+      if (alternates != null) {
+        // The request can be hedged or retried on an alternate server if it is slow or rejected
+        HedgedRequest hedgedRequest = new HedgedRequest(ctxt, h, alternates, brokerMetrics);
+        hedgedRequests.add(hedgedRequest);
+        responseFutures.add(hedgedRequest.getResponseFuture());
+      } else {
         responseFutures.add(h.getResponseFuture());
-        String shortServerName = h.getServer().getShortHostName();
-        if (isOfflineTable != null) {
-          if (isOfflineTable) {
-            shortServerName += ScatterGatherStats.OFFLINE_TABLE_SUFFIX;
-          } else {
-            shortServerName += ScatterGatherStats.REALTIME_TABLE_SUFFIX;
-          }
+      }
+      // Check out a connection and send the request without waiting for either
+      h.start();
+      String shortServerName = h.getServer().getShortHostName();
+      if (isOfflineTable != null) {
+        if (isOfflineTable) {
+          shortServerName += ScatterGatherStats.OFFLINE_TABLE_SUFFIX;
+        } else {
+          shortServerName += ScatterGatherStats.REALTIME_TABLE_SUFFIX;
         }
-        scatterGatherStats.setSendStartTimeMillis(shortServerName, h.getConnStartTimeMillis());
-        scatterGatherStats.setConnStartTimeMillis(shortServerName, h.getStartDelayMillis());
-        scatterGatherStats.setSendCompletionTimeMillis(shortServerName, h.getSendCompletionTimeMillis());
       }
-      response.start(responseFutures);
-    } else {
-      LOGGER.error("Request (" + ctxt.getRequest().getRequestId() + ") not sent completely within time ("
-          + timeRemaining + " ms) !! Cancelling !!. NumSentFailed:" + requestDispatchLatch.getCount());
-      response.start(null);
+      // The send completion time is only known for the requests sent by now, e.g. on idle pooled connections
+      scatterGatherStats.setSendStartTimeMillis(shortServerName, h.getConnStartTimeMillis());
+      scatterGatherStats.setConnStartTimeMillis(shortServerName, h.getStartDelayMillis());
+      scatterGatherStats.setSendCompletionTimeMillis(shortServerName, h.getSendCompletionTimeMillis());
+    }
+    response.start(responseFutures);
 
-      // Some requests were not event sent (possibly because of checkout !!)
-      // and so we cancel all of them here
-      for (SingleRequestHandler h : handlers) {
-        LOGGER.info("Request to {} was sent successfully:{}, cancelling.", h.getServer(), h.isSent());
-        h.cancel();
-      }
+    if (hedgeDelayMs > 0 && !hedgedRequests.isEmpty()) {
+      long delayMs = Math.max(0L, hedgeDelayMs - ctxt.getTimeElapsed());
+      _scheduler.schedule(new HedgingTask(ctxt, hedgedRequests), delayMs, TimeUnit.MILLISECONDS);
     }
     t.stop();
     _latency.update(t.getLatencyMs());
@@ -204,10 +236,21 @@ public class ScatterGatherImpl implements ScatterGather {
    */
   protected void buildInvertedMap(ScatterGatherRequestContext requestContext) {
     ScatterGatherRequest request = requestContext.getRequest();
-    Map<ServerInstance, SegmentIdSet> segmentIdToInstanceMap = request.getSegmentsServicesMap();
-
     Map<List<ServerInstance>, SegmentIdSet> instanceToSegmentMap = new HashMap<List<ServerInstance>, SegmentIdSet>();
 
+    Map<List<ServerInstance>, SegmentIdSet> replicaGroups = request.getSegmentReplicaGroups();
+    if (replicaGroups != null && request.getSegmentsServicesMap() == null) {
+      // Copy the segment sets as they get merged into the selected servers map
+      for (Entry<List<ServerInstance>, SegmentIdSet> e : replicaGroups.entrySet()) {
+        SegmentIdSet segmentIdSet = new SegmentIdSet();
+        segmentIdSet.addSegments(e.getValue().getSegments());
+        instanceToSegmentMap.put(e.getKey(), segmentIdSet);
+      }
+      requestContext.setInvertedMap(instanceToSegmentMap);
+      return;
+    }
+
+    Map<ServerInstance, SegmentIdSet> segmentIdToInstanceMap = request.getSegmentsServicesMap();
     for (ServerInstance serverInstance : segmentIdToInstanceMap.keySet()) {
       instanceToSegmentMap.put(Arrays.asList(serverInstance), segmentIdToInstanceMap.get(serverInstance));
     }
@@ -256,10 +299,19 @@ public class ScatterGatherImpl implements ScatterGather {
     Map<List<ServerInstance>, SegmentIdSet> instanceToSegmentMap = requestContext.getInvertedMap();
     //int numDuplicateRequests = request.getNumSpeculativeRequests();
     ReplicaSelection selection = request.getReplicaSelection();
+    Map<ServerInstance, List<ServerInstance>> alternateServers = new HashMap<ServerInstance, List<ServerInstance>>();
     for (Entry<List<ServerInstance>, SegmentIdSet> e : instanceToSegmentMap.entrySet()) {
       ServerInstance s = selection.selectServer(e.getValue().getOneSegment(), e.getKey(), request.getHashKey());
       mergePartitionGroup(selectedServers, s, e.getValue());
 
+      // Alternates of a server must host all the segments sent to it
+      List<ServerInstance> alternates = alternateServers.get(s);
+      if (alternates == null) {
+        alternateServers.put(s, new ArrayList<ServerInstance>(e.getKey()));
+      } else {
+        alternates.retainAll(e.getKey());
+      }
+
       /**
        * TODO:
        * We can easily add speculative execution here. The below code will pick a distinct server
@@ -284,7 +336,64 @@ public class ScatterGatherImpl implements ScatterGather {
       }
        **/
     }
+
+    // A hedged request must not go to a server already queried, as responses are keyed by server
+    Iterator<List<ServerInstance>> iterator = alternateServers.values().iterator();
+    while (iterator.hasNext()) {
+      List<ServerInstance> alternates = iterator.next();
+      alternates.removeAll(selectedServers.keySet());
+      if (alternates.isEmpty()) {
+        iterator.remove();
+      }
+    }
     requestContext.setSelectedServers(selectedServers);
+    requestContext.setAlternateServers(alternateServers);
+  }
+
+  /**
+   * Finds the alternate servers of the selected servers from the replica groups of the request. The alternates of a
+   * server host a replica of all the segments sent to it, and are not queried already.
+   *
+   * @param requestContext
+   */
+  protected void selectAlternateServers(ScatterGatherRequestContext requestContext) {
+    Map<SegmentId, List<ServerInstance>> segmentToServers = new HashMap<SegmentId, List<ServerInstance>>();
+    for (Entry<List<ServerInstance>, SegmentIdSet> e : requestContext.getRequest()
+        .getSegmentReplicaGroups()
+        .entrySet()) {
+      for (SegmentId segmentId : e.getValue().getSegments()) {
+        segmentToServers.put(segmentId, e.getKey());
+      }
+    }
+
+    Map<ServerInstance, SegmentIdSet> selectedServers = requestContext.getSelectedServers();
+    Map<ServerInstance, List<ServerInstance>> alternateServers = new HashMap<ServerInstance, List<ServerInstance>>();
+    for (Entry<ServerInstance, SegmentIdSet> e : selectedServers.entrySet()) {
+      List<ServerInstance> alternates = null;
+      for (SegmentId segmentId : e.getValue().getSegments()) {
+        List<ServerInstance> servers = segmentToServers.get(segmentId);
+        if (servers == null) {
+          // Segment not in the replica groups, e.g. added after the routing table lookup
+          alternates = null;
+          break;
+        }
+        if (alternates == null) {
+          alternates = new ArrayList<ServerInstance>(servers);
+        } else {
+          alternates.retainAll(servers);
+        }
+        if (alternates.isEmpty()) {
+          break;
+        }
+      }
+      if (alternates != null) {
+        alternates.removeAll(selectedServers.keySet());
+        if (!alternates.isEmpty()) {
+          alternateServers.put(e.getKey(), alternates);
+        }
+      }
+    }
+    requestContext.setAlternateServers(alternateServers);
   }
 
   /**
@@ -325,6 +434,8 @@ public class ScatterGatherImpl implements ScatterGather {
 
     private Map<ServerInstance, SegmentIdSet> _selectedServers;
 
+    private Map<ServerInstance, List<ServerInstance>> _alternateServers = Collections.emptyMap();
+
     protected ScatterGatherRequestContext(ScatterGatherRequest request) {
       _request = request;
       _startTimeMs = System.currentTimeMillis();
@@ -350,6 +461,24 @@ public class ScatterGatherImpl implements ScatterGather {
       _selectedServers = selectedServers;
     }
 
+    /**
+     * Return, for the selected servers which can be hedged or retried, the other servers hosting all their segments.
+     */
+    public Map<ServerInstance, List<ServerInstance>> getAlternateServers() {
+      return _alternateServers;
+    }
+
+    public void setAlternateServers(Map<ServerInstance, List<ServerInstance>> alternateServers) {
+      _alternateServers = alternateServers;
+    }
+
+    /**
+     * Return time elapsed since the start of the request in MS
+     */
+    public long getTimeElapsed() {
+      return System.currentTimeMillis() - _startTimeMs;
+    }
+
     @Override
     public String toString() {
       return "ScatterGatherRequestContext [_request=" + _request + ", _invertedMap=" + _invertedMap
@@ -373,10 +502,143 @@ public class ScatterGatherImpl implements ScatterGather {
   }
 
   /**
-   * Runnable responsible for sending a request to the server once the connection is available
+   * Request to a server which can be re-issued to one of the alternate servers hosting the same segments, either when
+   * the server is slow to respond or right away when the server rejects the request.
+   */
+  private class HedgedRequest {
+    private final ScatterGatherRequestContext _ctxt;
+    private final SingleRequestHandler _primaryHandler;
+    private final List<ServerInstance> _alternateServers;
+    private final BrokerMetrics _brokerMetrics;
+    private final HedgedResponseFuture<ByteBuf> _responseFuture;
+    private volatile SingleRequestHandler _hedgeHandler;
+
+    HedgedRequest(final ScatterGatherRequestContext ctxt, SingleRequestHandler primaryHandler,
+        List<ServerInstance> alternateServers, final BrokerMetrics brokerMetrics) {
+      _ctxt = ctxt;
+      _primaryHandler = primaryHandler;
+      _alternateServers = alternateServers;
+      _brokerMetrics = brokerMetrics;
+      HedgedResponseFuture.RetryHandler<ByteBuf> retryHandler = null;
+      if (ctxt.getRequest().isRetryOverloadedServers()) {
+        retryHandler = new HedgedResponseFuture.RetryHandler<ByteBuf>() {
+          @Override
+          public boolean isRejected(ByteBuf response) {
+            return ctxt.getRequest().isServerOverloadedResponse(response);
+          }
+
+          @Override
+          public boolean retry() {
+            return hedge(BrokerMeter.OVERLOADED_SERVER_RETRIES);
+          }
+        };
+      }
+      _responseFuture = new HedgedResponseFuture<ByteBuf>(primaryHandler.getResponseFuture(),
+          "Hedged request " + primaryHandler._request.getRequestId() + " to " + primaryHandler.getServer(),
+          retryHandler);
+
+      // Cancel the request which lost
+      _responseFuture.addListener(new Runnable() {
+        @Override
+        public void run() {
+          if (_responseFuture.isHedgeWinner()) {
+            brokerMetrics.addMeteredQueryValue(_primaryHandler._request.getBrokerRequest(),
+                BrokerMeter.HEDGED_REQUEST_WINS, 1);
+            _primaryHandler.cancel();
+          } else {
+            SingleRequestHandler hedgeHandler = _hedgeHandler;
+            if (hedgeHandler != null) {
+              hedgeHandler.cancel();
+            }
+          }
+        }
+      }, null);
+    }
+
+    HedgedResponseFuture<ByteBuf> getResponseFuture() {
+      return _responseFuture;
+    }
+
+    /**
+     * Re-issues the request to one of the alternate servers.
+     *
+     * @param meter meter counting the re-issued requests.
+     * @return false if the request was already re-issued, if there is no time or alternate server left, or if the
+     * primary request completed in the meantime.
+     */
+    synchronized boolean hedge(BrokerMeter meter) {
+      if (_hedgeHandler != null) {
+        return false;
+      }
+      long timeRemaining = _ctxt.getTimeRemaining();
+      if (timeRemaining <= 0) {
+        return false;
+      }
+      ScatterGatherRequest request = _ctxt.getRequest();
+      ServerInstance server = request.getReplicaSelection()
+          .selectServer(_primaryHandler._segmentIds.getOneSegment(), _alternateServers, request.getHashKey());
+      if (server == null) {
+        return false;
+      }
+      LOGGER.debug("Re-issuing request {} to server {} with server {}", request.getRequestId(),
+          _primaryHandler.getServer(), server);
+      SingleRequestHandler hedgeHandler =
+          new SingleRequestHandler(_connPool, _multiplexedConnections, server, request, _primaryHandler._segmentIds,
+              timeRemaining, _scheduler, _brokerMetrics);
+      _hedgeHandler = hedgeHandler;
+      if (!_responseFuture.hedge(hedgeHandler.getResponseFuture())) {
+        return false;
+      }
+      _brokerMetrics.addMeteredQueryValue(request.getBrokerRequest(), meter, 1);
+      hedgeHandler.start();
+      return true;
+    }
+  }
+
+  /**
+   * Re-issues the requests of the servers which did not respond within the hedge delay to an alternate server.
+   */
+  private class HedgingTask implements Runnable {
+    private final ScatterGatherRequestContext _ctxt;
+    private final List<HedgedRequest> _hedgedRequests;
+
+    HedgingTask(ScatterGatherRequestContext ctxt, List<HedgedRequest> hedgedRequests) {
+      _ctxt = ctxt;
+      _hedgedRequests = hedgedRequests;
+    }
+
+    @Override
+    public void run() {
+      if (_ctxt.getTimeRemaining() <= 0) {
+        return;
+      }
+      List<HedgedRequest> outstandingRequests = new ArrayList<HedgedRequest>();
+      for (HedgedRequest hedgedRequest : _hedgedRequests) {
+        // Requests already retried after a rejection are not hedged again
+        HedgedResponseFuture<ByteBuf> responseFuture = hedgedRequest.getResponseFuture();
+        if (!responseFuture.isDone() && !responseFuture.isHedged()) {
+          outstandingRequests.add(hedgedRequest);
+        }
+      }
+      if (outstandingRequests.isEmpty() || outstandingRequests.size() > MAX_OUTSTANDING_REQUESTS_TO_HEDGE) {
+        return;
+      }
+
+      for (HedgedRequest hedgedRequest : outstandingRequests) {
+        hedgedRequest.hedge(BrokerMeter.HEDGED_REQUESTS);
+      }
+    }
+  }
+
+  /**
+   * Sends a request to a server without blocking any thread: the connection checkout, the retries on invalid
+   * connections and the dispatch of the request are driven by the callbacks of the connection pool and of the
+   * connection. The response future is created upfront and completes with the response, or with the error which
+   * prevented the request from being sent.
    *
+   * With multiplexed connections, there is no connection to check out and the request is sent right away.
    */
-  public static class SingleRequestHandler implements Runnable {
+  public static class SingleRequestHandler {
     private final static int MAX_CONN_RETRIES = 3;  // Max retries for getting a connection
     // Scatter Request
     private final ScatterGatherRequest _request;
@@ -384,175 +646,407 @@ public class ScatterGatherImpl implements ScatterGather {
     private final SegmentIdSet _segmentIds;
     // Server Instance to be queried
     private final ServerInstance _server;
-    // Latch to signal completion of dispatching request
-    private final CountDownLatch _requestDispatchLatch;
     // Future for the response
-    private volatile ResponseFuture _responseFuture;
+    private final ResponseFuture _responseFuture;
 
     // Connection Pool: Used if we need to checkin/destroy object in case of timeout
     private final KeyedPool<PooledNettyClientResourceManager.PooledClientConnection> _connPool;
 
-    // Track if request has been dispatched
-    private final AtomicBoolean _isSent = new AtomicBoolean(false);
+    // Shared connections, used instead of the connection pool if not null
+    private final MultiplexedConnectionManager _multiplexedConnections;
 
-    // Cancel dispatching request
-    private final AtomicBoolean _isCancelled = new AtomicBoolean(false);
+    // Used to time out the dispatch of the request and to cancel it
+    private final ScheduledExecutorService _scheduler;
 
     // Remaining time budget to connect and process the request.
     private final long _timeoutMS;
 
     private final long _initTime;
     private final BrokerMetrics _brokerMetrics;
-    private long _startTime;
-    private long _endTime;
 
-    public SingleRequestHandler(KeyedPool<PooledNettyClientResourceManager.PooledClientConnection> connPool, ServerInstance server,
-        ScatterGatherRequest request, SegmentIdSet segmentIds, long timeoutMS, CountDownLatch latch,
+    // Guarded by this
+    private ServerResponseFuture<PooledNettyClientResourceManager.PooledClientConnection> _checkoutFuture;
+    private ResponseFuture _requestFuture;
+    private ScheduledFuture<?> _dispatchTimeoutFuture;
+    private int _numCheckouts;
+    // Set once the request is sent, failed to be sent or is cancelled
+    private boolean _isDispatchDone;
+
+    private volatile byte[] _serializedRequest;
+    private volatile boolean _isSent;
+    private volatile boolean _isCancelled;
+    private volatile long _startTime;
+    private volatile long _startTimeNs;
+    private volatile long _endTime;
+
+    public SingleRequestHandler(KeyedPool<PooledNettyClientResourceManager.PooledClientConnection> connPool,
+        MultiplexedConnectionManager multiplexedConnections, ServerInstance server, ScatterGatherRequest request,
+        SegmentIdSet segmentIds, long timeoutMS, ScheduledExecutorService scheduler,
         final BrokerMetrics brokerMetrics) {
       _connPool = connPool;
+      _multiplexedConnections = multiplexedConnections;
       _server = server;
       _request = request;
       _segmentIds = segmentIds;
-      _requestDispatchLatch = latch;
       _timeoutMS = timeoutMS;
+      _scheduler = scheduler;
       _initTime = System.currentTimeMillis();
       _brokerMetrics = brokerMetrics;
+      _responseFuture = new ResponseFuture(server, "Response future for request " + request.getRequestId());
+      _responseFuture.setCancellable(new Cancellable() {
+        @Override
+        public boolean cancel() {
+          onCancel();
+          return true;
+        }
+      });
     }
 
-    @Override
-    public synchronized void run() {
+    /**
+     * Starts checking out a connection to send the request. Returns without waiting for the request to be sent.
+     */
+    public void start() {
+      _startTime = System.currentTimeMillis();
+      _startTimeNs = System.nanoTime();
+      if (_responseFuture.isDone()) {
+        LOGGER.error("Request {} to server {} cancelled even before request is sent !! Not sending request",
+            _request.getRequestId(), _server);
+        return;
+      }
+
       try {
-        _startTime = System.currentTimeMillis();
-        runInternal();
-      } finally {
-        _endTime = System.currentTimeMillis();
+        _serializedRequest = _request.getRequestForService(_server, _segmentIds);
+      } catch (Exception e) {
+        LOGGER.error("Got exception serializing request ({}). Setting error future", _request.getRequestId(), e);
+        if (markDispatchDone()) {
+          onDispatchError(e, false);
+        }
+        return;
       }
-    }
 
-    public long getConnStartTimeMillis() {
-      return _startTime - _initTime;
-    }
+      if (_multiplexedConnections != null) {
+        if (markDispatchDone()) {
+          sendRequest(null);
+        }
+        return;
+      }
 
-    public long getSendCompletionTimeMillis() {
-      return _endTime > _initTime ? _endTime - _initTime : 0;
+      if (_timeoutMS != Long.MAX_VALUE) {
+        long timeRemainingMillis = _timeoutMS - (_startTime - _initTime);
+        ScheduledFuture<?> dispatchTimeoutFuture = _scheduler.schedule(new Runnable() {
+          @Override
+          public void run() {
+            onDispatchTimeout();
+          }
+        }, Math.max(0L, timeRemainingMillis), TimeUnit.MILLISECONDS);
+        synchronized (this) {
+          _dispatchTimeoutFuture = dispatchTimeoutFuture;
+        }
+      }
+      checkout();
     }
 
-    // If the 'run' gets called more than 5ms after we created this object, something is wrong.
-    public long getStartDelayMillis() {
-      return _startTime - _initTime;
+    private void checkout() {
+      synchronized (this) {
+        if (_isDispatchDone) {
+          return;
+        }
+        _numCheckouts++;
+      }
+      final ServerResponseFuture<PooledNettyClientResourceManager.PooledClientConnection> checkoutFuture =
+          _connPool.checkoutObject(_server);
+      synchronized (this) {
+        _checkoutFuture = checkoutFuture;
+      }
+      // Run in the thread completing the checkout, which is either this thread or a thread of the pool
+      checkoutFuture.addListener(new Runnable() {
+        @Override
+        public void run() {
+          onCheckout(checkoutFuture);
+        }
+      }, null);
     }
 
-    private void runInternal() {
-      if (_isCancelled.get()) {
-        LOGGER.error("Request {} to server {} cancelled even before request is sent !! Not sending request",
-            _request.getRequestId(), _server);
-        _requestDispatchLatch.countDown();
+    private void onCheckout(ServerResponseFuture<PooledNettyClientResourceManager.PooledClientConnection> checkoutFuture) {
+      PooledNettyClientResourceManager.PooledClientConnection conn = null;
+      try {
+        conn = checkoutFuture.getOne();
+      } catch (Exception e) {
+        LOGGER.warn("Got exception checking out connection to server {}", _server, e);
+      }
+
+      if (conn != null && conn.validate()) {
+        if (markDispatchDone()) {
+          sendRequest(conn);
+        } else {
+          // Timed out or cancelled in the meantime
+          _connPool.checkinObject(_server, conn);
+        }
+        return;
+      }
+      if (checkoutFuture.isCancelled()) {
         return;
       }
 
-      PooledNettyClientResourceManager.PooledClientConnection conn = null;
-      ServerResponseFuture<PooledNettyClientResourceManager.PooledClientConnection> serverResponseFuture = null;
-      boolean gotConnection = false;
-      boolean error = true;
-      long timeRemainingMillis = _timeoutMS - (System.currentTimeMillis() - _startTime);
-      final long _startTimeNs = System.nanoTime();
-      long timeWaitedNs = 0;
+      // conn may be null when the AsyncPoolImpl.create()
+      // is not able to create a connection, and this tried to wait for a connection, and it reached the max waiters limit.
+      // In that case, there is no point in retrying  this request
+      // If we get a null error map, then it is most likely a case of max waiters limit.
+      // The connect errors are obtained from two different objects -- 'conn' and 'keyedFuture'.
+      // We pick the error from 'keyedFuture' here, if we find it. Unfortunately there is not a way (now) to pass the
+      // error from 'keyedFuture' to 'conn' (need to do it via AsyncPoolImpl)
+      Map<ServerInstance, Throwable> errorMap = checkoutFuture.getError();
+      String errStr = "";
+      if (errorMap != null && errorMap.containsKey(_server)) {
+        errStr = errorMap.get(_server).getMessage();
+      }
+      if (conn != null) {
+        LOGGER.warn("Destroying invalid conn {}:{}", conn, errStr);
+        _connPool.destroyObject(_server, conn);
+      }
+
+      int numCheckouts;
+      synchronized (this) {
+        numCheckouts = _numCheckouts;
+      }
+      if (numCheckouts >= MAX_CONN_RETRIES - 1) {
+        if (markDispatchDone()) {
+          ConnectionLimitReachedException e = new ConnectionLimitReachedException(
+              "Could not connect to " + _server + " after " + numCheckouts + " attempts(timeRemaining="
+                  + getTimeRemainingMillis() + "ms)");
+          LOGGER.warn("Request {} not sent (gotConnection=false):{}. See metric {}", _request.getRequestId(),
+              e.getMessage(), BrokerMeter.REQUEST_DROPPED_DUE_TO_CONNECTION_ERROR);
+          onDispatchError(e, false);
+        }
+      } else {
+        checkout();
+      }
+    }
+
+    /**
+     * Sends the request over the checked out connection, or over a multiplexed connection if conn is null.
+     */
+    private void sendRequest(@Nullable PooledNettyClientResourceManager.PooledClientConnection conn) {
+      BrokerRequest brokerRequest = (BrokerRequest) _request.getBrokerRequest();
+      _brokerMetrics.addPhaseTiming(brokerRequest, BrokerQueryPhase.REQUEST_CONNECTION_WAIT,
+          System.nanoTime() - _startTimeNs);
+
+      final ResponseFuture requestFuture;
       try {
-        serverResponseFuture = _connPool.checkoutObject(_server);
-
-        byte[] serializedRequest = _request.getRequestForService(_server, _segmentIds);
-        int ntries = 0;
-        // Try a maximum of pool size objects.
-        while (true) {
-          if (timeRemainingMillis <= 0) {
-            throw new TimeoutException("Timed out trying to connect to " + _server + "(timeout=" + _timeoutMS + "ms,ntries=" + ntries + ")");
-          }
-          conn = serverResponseFuture.getOne(timeRemainingMillis, TimeUnit.MILLISECONDS);
-          if (conn != null && conn.validate()) {
-            timeWaitedNs = System.nanoTime() - _startTimeNs;
-            gotConnection = true;
-            break;
-          }
-          // conn may be null when the AsyncPoolImpl.create()
-          // is not able to create a connection, and this tried to wait for a connection, and it reached the max waiters limit.
-          // In that case, there is no point in retrying  this request
-          // If we get a null error map, then it is most likely a case of max waiters limit.
-          // The connect errors are obtained from two different objects -- 'conn' and 'keyedFuture'.
-          // We pick the error from 'keyedFuture' here, if we find it. Unfortunately there is not a way (now) to pass the
-          // error from 'keyedFuture' to 'conn' (need to do it via AsyncPoolImpl)
-          Map<ServerInstance, Throwable> errorMap = serverResponseFuture.getError();
-          String errStr = "";
-          if (errorMap != null && errorMap.containsKey(_server)) {
-            errStr = errorMap.get(_server).getMessage();
-          }
-          if (conn != null) {
-            LOGGER.warn("Destroying invalid conn {}:{}", conn, errStr);
-            _connPool.destroyObject(_server, conn);
-          }
-          if (++ntries == MAX_CONN_RETRIES-1) {
-            throw new ConnectionLimitReachedException("Could not connect to " + _server + " after " + ntries + " attempts(timeRemaining=" + timeRemainingMillis + "ms)");
-          }
-          serverResponseFuture = _connPool.checkoutObject(_server);
-          timeRemainingMillis = _timeoutMS - (System.currentTimeMillis() - _startTime);
+        ByteBuf req = Unpooled.wrappedBuffer(_serializedRequest);
+        if (conn != null) {
+          requestFuture = conn.sendRequest(req, _request.getRequestId(), getTimeRemainingMillis());
+        } else {
+          requestFuture =
+              _multiplexedConnections.sendRequest(_server, req, _request.getRequestId(), getTimeRemainingMillis());
         }
-        ByteBuf req = Unpooled.wrappedBuffer(serializedRequest);
-        _responseFuture = conn.sendRequest(req, _request.getRequestId(), timeRemainingMillis);
-        _isSent.set(true);
-        LOGGER.debug("Response Future is : {}", _responseFuture);
-        error = false;
-      } catch (TimeoutException e1) {
-        LOGGER.warn("Timed out waiting for connection for server ({})({})(gotConnection={}):{}. See metric {}", _server,
-            _request.getRequestId(), gotConnection, e1.getMessage(), BrokerMeter.REQUEST_DROPPED_DUE_TO_CONNECTION_ERROR.toString());
-        _responseFuture = new ResponseFuture(_server, e1, "Error Future for request " + _request.getRequestId());
-      } catch (ConnectionLimitReachedException e) {
-        LOGGER.warn("Request {} not sent (gotConnection={}):{}. See metric {}", _request.getRequestId(), gotConnection,
-            e.getMessage(), BrokerMeter.REQUEST_DROPPED_DUE_TO_CONNECTION_ERROR);
-        _responseFuture = new ResponseFuture(_server, e, "Error Future for request " + _request.getRequestId());
       } catch (Exception e) {
-        LOGGER.error("Got exception sending request ({})(gotConnection={}). Setting error future",
-            _request.getRequestId(), gotConnection, e);
-        _responseFuture = new ResponseFuture(_server, e, "Error Future for request " + _request.getRequestId());
-      } finally {
-        _requestDispatchLatch.countDown();
-        BrokerRequest brokerRequest = (BrokerRequest) _request.getBrokerRequest();
-        _brokerMetrics.addPhaseTiming(brokerRequest, BrokerQueryPhase.REQUEST_CONNECTION_WAIT, timeWaitedNs);
-        if (timeRemainingMillis < 0) {
-          _brokerMetrics.addMeteredQueryValue(brokerRequest, BrokerMeter.REQUEST_CONNECTION_TIMEOUTS, 1);
-        }
-        if (error) {
-          if (gotConnection) {
-            // We must have failed sometime when sending the request
-            _brokerMetrics.addMeteredQueryValue(brokerRequest, BrokerMeter.REQUEST_DROPPED_DUE_TO_SEND_ERROR, 1);
-          } else {
-            // If we got a keyed future, but we did not get to send a request, then cancel the future.
-            if (serverResponseFuture != null) {
-              serverResponseFuture.cancel(true);
-            }
-            _brokerMetrics.addMeteredQueryValue(brokerRequest, BrokerMeter.REQUEST_DROPPED_DUE_TO_CONNECTION_ERROR, 1);
-          }
+        LOGGER.error("Got exception sending request ({})(gotConnection=true). Setting error future",
+            _request.getRequestId(), e);
+        onDispatchError(e, true);
+        return;
+      }
+      _endTime = System.currentTimeMillis();
+      _isSent = true;
+      LOGGER.debug("Response Future is : {}", requestFuture);
+
+      boolean isCancelled;
+      synchronized (this) {
+        _requestFuture = requestFuture;
+        isCancelled = _isCancelled;
+      }
+      reportRequestSent(requestFuture);
+      // Run in the thread completing the request, which is a thread of the event loop
+      requestFuture.addListener(new Runnable() {
+        @Override
+        public void run() {
+          onRequestDone(requestFuture);
         }
+      }, null);
+      if (isCancelled) {
+        requestFuture.cancel(true);
+      }
+    }
+
+    private void onRequestDone(ResponseFuture requestFuture) {
+      ByteBuf response = null;
+      try {
+        response = requestFuture.getOne();
+      } catch (Exception e) {
+        LOGGER.warn("Got exception getting response for request {} from server {}", _request.getRequestId(), _server,
+            e);
+      }
+      if (response != null) {
+        _responseFuture.onSuccess(response);
+        return;
+      }
+      Map<ServerInstance, Throwable> errorMap = requestFuture.getError();
+      Throwable error = (errorMap != null) ? errorMap.get(_server) : null;
+      if (error == null) {
+        error = new CancellationException(
+            "Request " + _request.getRequestId() + " to server " + _server + " was cancelled");
       }
+      _responseFuture.onError(error);
+    }
+
+    private void onDispatchTimeout() {
+      if (!markDispatchDone()) {
+        return;
+      }
+      ServerResponseFuture<PooledNettyClientResourceManager.PooledClientConnection> checkoutFuture;
+      int numCheckouts;
+      synchronized (this) {
+        checkoutFuture = _checkoutFuture;
+        numCheckouts = _numCheckouts;
+      }
+      if (checkoutFuture != null) {
+        checkoutFuture.cancel(true);
+      }
+      TimeoutException e = new TimeoutException(
+          "Timed out trying to connect to " + _server + "(timeout=" + _timeoutMS + "ms,ntries=" + numCheckouts + ")");
+      LOGGER.warn("Timed out waiting for connection for server ({})({})(gotConnection=false):{}. See metric {}",
+          _server, _request.getRequestId(), e.getMessage(), BrokerMeter.REQUEST_DROPPED_DUE_TO_CONNECTION_ERROR);
+      _brokerMetrics.addMeteredQueryValue(_request.getBrokerRequest(), BrokerMeter.REQUEST_CONNECTION_TIMEOUTS, 1);
+      onDispatchError(e, false);
     }
 
     /**
-     * Cancel checking-out request if possible. If in unsafe state (request already sent),
-     * discard the connection from the pool.
+     * Marks the dispatch of the request as done and stops the dispatch timeout.
+     * @return false if the dispatch was already done, in which case the caller must not complete it again.
      */
-    public synchronized void cancel() {
-      if (_isCancelled.get()) {
-        return;
+    private boolean markDispatchDone() {
+      ScheduledFuture<?> dispatchTimeoutFuture;
+      synchronized (this) {
+        if (_isDispatchDone) {
+          return false;
+        }
+        _isDispatchDone = true;
+        dispatchTimeoutFuture = _dispatchTimeoutFuture;
+      }
+      if (dispatchTimeoutFuture != null) {
+        dispatchTimeoutFuture.cancel(false);
+      }
+      return true;
+    }
+
+    private void onDispatchError(Throwable e, boolean gotConnection) {
+      _endTime = System.currentTimeMillis();
+      BrokerRequest brokerRequest = (BrokerRequest) _request.getBrokerRequest();
+      if (gotConnection) {
+        // We must have failed sometime when sending the request
+        _brokerMetrics.addMeteredQueryValue(brokerRequest, BrokerMeter.REQUEST_DROPPED_DUE_TO_SEND_ERROR, 1);
+      } else {
+        _brokerMetrics.addMeteredQueryValue(brokerRequest, BrokerMeter.REQUEST_DROPPED_DUE_TO_CONNECTION_ERROR, 1);
+      }
+      ReplicaSelection replicaSelection = _request.getReplicaSelection();
+      if (replicaSelection != null) {
+        replicaSelection.onError(_server, false);
       }
+      _responseFuture.onError(e);
+    }
 
-      _isCancelled.set(true);
+    /**
+     * Called with the lock of the response future held. The futures of the checkout and of the request complete
+     * the response future from their listeners, so they are cancelled from the scheduler to keep a single lock order.
+     */
+    private void onCancel() {
+      _isCancelled = true;
+      try {
+        _scheduler.execute(new Runnable() {
+          @Override
+          public void run() {
+            cancelDispatch();
+          }
+        });
+      } catch (RejectedExecutionException e) {
+        LOGGER.warn("Could not cancel request {} to server {}", _request.getRequestId(), _server, e);
+      }
+    }
 
-      if (_isSent.get()) {
+    private void cancelDispatch() {
+      boolean isDispatchPending = markDispatchDone();
+      ServerResponseFuture<PooledNettyClientResourceManager.PooledClientConnection> checkoutFuture;
+      ResponseFuture requestFuture;
+      synchronized (this) {
+        checkoutFuture = _checkoutFuture;
+        requestFuture = _requestFuture;
+      }
+      if (isDispatchPending && checkoutFuture != null) {
+        checkoutFuture.cancel(true);
+      }
+      if (requestFuture != null) {
         /**
          * If the request has already been sent, we cancel the
          * response future. The connection will automatically be returned to the pool if response
          * arrived within timeout or discarded if timeout happened. No need to handle it here.
          */
-        _responseFuture.cancel(true);
+        requestFuture.cancel(true);
+      }
+    }
+
+    private long getTimeRemainingMillis() {
+      if (_timeoutMS == Long.MAX_VALUE) {
+        return Long.MAX_VALUE;
       }
+      return _timeoutMS - (System.currentTimeMillis() - _initTime);
+    }
+
+    public long getConnStartTimeMillis() {
+      return _startTime - _initTime;
+    }
+
+    public long getSendCompletionTimeMillis() {
+      return _endTime > _initTime ? _endTime - _initTime : 0;
+    }
+
+    // If 'start' gets called more than 5ms after we created this object, something is wrong.
+    public long getStartDelayMillis() {
+      return _startTime - _initTime;
+    }
+
+    /**
+     * Feeds the outcome of the request back to the replica selection policy once the response future completes.
+     * A cancelled request (e.g. on broker timeout) is reported as a response that took at least the elapsed time, a
+     * rejection by an overloaded server is reported as an error.
+     */
+    private void reportRequestSent(final ResponseFuture responseFuture) {
+      final ReplicaSelection replicaSelection = _request.getReplicaSelection();
+      if (replicaSelection == null) {
+        return;
+      }
+      replicaSelection.onRequestSent(_server);
+      // Run in the thread completing the future, the update is cheap
+      responseFuture.addListener(new Runnable() {
+        @Override
+        public void run() {
+          Map<ServerInstance, Throwable> errorMap = responseFuture.getError();
+          if (errorMap != null && !errorMap.isEmpty()) {
+            replicaSelection.onError(_server, true);
+          } else if (isServerOverloadedResponse(responseFuture)) {
+            // The server answered fast because it did no work, reporting the latency would send it more requests
+            replicaSelection.onError(_server, true);
+          } else {
+            replicaSelection.onResponse(_server, Math.max(0L, responseFuture.getDurationMillis()));
+          }
+        }
+      }, null);
+    }
+
+    private boolean isServerOverloadedResponse(ResponseFuture responseFuture) {
+      ByteBuf response;
+      try {
+        response = responseFuture.getOne();
+      } catch (InterruptedException | ExecutionException e) {
+        return false;
+      }
+      return response != null && _request.isServerOverloadedResponse(response);
+    }
+
+    /**
+     * Cancel the request: the connection checkout if the request is not sent yet, the response future otherwise.
+     */
+    public void cancel() {
+      _responseFuture.cancel(true);
     }
 
     public ServerInstance getServer() {
@@ -564,7 +1058,7 @@ public class ScatterGatherImpl implements ScatterGather {
     }
 
     public boolean isSent() {
-      return _isSent.get();
+      return _isSent;
     }
   }
 
@@ -15,6 +15,7 @@
  */
 package com.linkedin.pinot.transport.scattergather;
 
+import java.util.List;
 import java.util.Map;
 import com.linkedin.pinot.common.request.BrokerRequest;
 import com.linkedin.pinot.common.response.ServerInstance;
@@ -22,6 +23,7 @@ import com.linkedin.pinot.transport.common.BucketingSelection;
 import com.linkedin.pinot.transport.common.ReplicaSelection;
 import com.linkedin.pinot.transport.common.ReplicaSelectionGranularity;
 import com.linkedin.pinot.transport.common.SegmentIdSet;
+import io.netty.buffer.ByteBuf;
 
 
 /**
@@ -40,6 +42,16 @@ public interface ScatterGatherRequest {
    */
   public Map<ServerInstance, SegmentIdSet> getSegmentsServicesMap();
 
+  /**
+   * Return the segments grouped by the ordered list of servers hosting a replica of each of them, or null. When
+   * {@link #getSegmentsServicesMap()} is null, the replica selection policy picks one server among the candidates of
+   * each group. When the servers have already been picked in {@link #getSegmentsServicesMap()}, the groups are only
+   * used to find the alternate servers for hedged and retried requests.
+   *
+   * @return Ordered candidate servers to SegmentSet map, or null.
+   */
+  public Map<List<ServerInstance>, SegmentIdSet> getSegmentReplicaGroups();
+
   /**
    * Return the requests that will be sent to the service which is hosting a group of interested segments
    * @param service Service to which segments will be sent.
@@ -78,6 +90,27 @@ public interface ScatterGatherRequest {
    */
   public int getNumSpeculativeRequests();
 
+  /**
+   * Return the delay in MS after which the request to a server which has not responded yet is re-issued to another
+   * server hosting the same segments, taking whichever response comes first. Hedging requires the alternate servers
+   * from {@link #getSegmentReplicaGroups()}. To turn off hedging, this method should return a non-positive value.
+   */
+  public long getHedgeDelayMs();
+
+  /**
+   * Return true if requests rejected by an overloaded server should be re-issued to another server hosting the same
+   * segments. Rejections are detected with {@link #isServerOverloadedResponse(ByteBuf)}.
+   */
+  public boolean isRetryOverloadedServers();
+
+  /**
+   * Return true if the response reports that the server rejected the request without processing it because it is
+   * overloaded. When {@link #isRetryOverloadedServers()} is set, a rejected request is re-issued right away to another
+   * server hosting the same segments when {@link #getSegmentReplicaGroups()} provides one, otherwise the rejection is
+   * returned as the response of the server.
+   */
+  public boolean isServerOverloadedResponse(ByteBuf response);
+
   /**
    * Used for diagnostics, A predefined selection of service can be chosen for each segments
    * and sent to the Scatter-Gather. Scatter-Gather will honor such selection and do not override them.
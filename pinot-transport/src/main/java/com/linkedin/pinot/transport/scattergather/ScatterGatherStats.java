@@ -59,7 +59,13 @@ public class ScatterGatherStats {
       } else {
         shortServerName += REALTIME_TABLE_SUFFIX;
       }
-      _perServerStatsMap.get(shortServerName).setResponseTimeMillis(entry.getValue());
+      PerServerStats perServerStats = _perServerStatsMap.get(shortServerName);
+      if (perServerStats == null) {
+        // Server which answered a hedged request
+        perServerStats = new PerServerStats();
+        _perServerStatsMap.put(shortServerName, perServerStats);
+      }
+      perServerStats.setResponseTimeMillis(entry.getValue());
     }
   }
 
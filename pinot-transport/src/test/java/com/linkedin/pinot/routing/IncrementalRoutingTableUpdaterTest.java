@@ -0,0 +1,242 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.routing;
+
+import com.linkedin.pinot.common.request.BrokerRequest;
+import com.linkedin.pinot.common.response.ServerInstance;
+import com.linkedin.pinot.routing.builder.BalancedRandomRoutingTableBuilder;
+import com.linkedin.pinot.transport.common.SegmentId;
+import com.linkedin.pinot.transport.common.SegmentIdSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import org.apache.commons.configuration.BaseConfiguration;
+import org.apache.helix.model.ExternalView;
+import org.apache.helix.model.InstanceConfig;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+
+public class IncrementalRoutingTableUpdaterTest {
+  private static final String TABLE_NAME = "myTable_OFFLINE";
+  private static final int NUM_SERVERS = 6;
+  private static final int NUM_SEGMENTS = 100;
+  private static final int NUM_REPLICAS = 3;
+
+  @Test
+  public void testComputeOnlineReplicas() {
+    ExternalView externalView = new ExternalView(TABLE_NAME);
+    externalView.setState("segment0", "Server_localhost_8000", "ONLINE");
+    externalView.setState("segment0", "Server_localhost_8001", "OFFLINE");
+    externalView.setState("segment0", "Server_localhost_8002", "ONLINE");
+    externalView.setState("segment1", "Server_localhost_8001", "ONLINE");
+    externalView.setState("segment2", "Server_localhost_8000", "ERROR");
+
+    List<InstanceConfig> instanceConfigs = getInstanceConfigs();
+    instanceConfigs.get(2).setInstanceEnabled(false);
+
+    Map<String, Set<String>> onlineReplicas =
+        IncrementalRoutingTableUpdater.computeOnlineReplicas(externalView, instanceConfigs);
+    Assert.assertEquals(onlineReplicas.size(), 2);
+    Assert.assertEquals(onlineReplicas.get("segment0"), Collections.singleton("Server_localhost_8000"));
+    Assert.assertEquals(onlineReplicas.get("segment1"), Collections.singleton("Server_localhost_8001"));
+
+    Map<String, Set<String>> previousOnlineReplicas = new HashMap<>(onlineReplicas);
+    previousOnlineReplicas.put("segment1",
+        new HashSet<>(Arrays.asList("Server_localhost_8001", "Server_localhost_8002")));
+    previousOnlineReplicas.put("segment3", Collections.singleton("Server_localhost_8001"));
+    Assert.assertEquals(IncrementalRoutingTableUpdater.computeChangedSegments(previousOnlineReplicas, onlineReplicas),
+        new HashSet<>(Arrays.asList("segment1", "segment3")));
+  }
+
+  @Test
+  public void testUpdateRoutingTables() {
+    ExternalView externalView = getExternalView(NUM_SEGMENTS);
+    List<InstanceConfig> instanceConfigs = getInstanceConfigs();
+    List<ServerToSegmentSetMap> routingTables = new BalancedRandomRoutingTableBuilder(5)
+        .computeRoutingTableFromExternalView(TABLE_NAME, externalView, instanceConfigs);
+    Map<String, Set<String>> previousOnlineReplicas =
+        IncrementalRoutingTableUpdater.computeOnlineReplicas(externalView, instanceConfigs);
+
+    // Nothing changed
+    Set<String> changedSegments =
+        IncrementalRoutingTableUpdater.computeChangedSegments(previousOnlineReplicas, previousOnlineReplicas);
+    List<ServerToSegmentSetMap> updatedRoutingTables =
+        IncrementalRoutingTableUpdater.updateRoutingTables(routingTables, previousOnlineReplicas, changedSegments,
+            new Random(0));
+    for (int i = 0; i < routingTables.size(); i++) {
+      Assert.assertSame(updatedRoutingTables.get(i), routingTables.get(i));
+    }
+
+    // Server 0 goes down, one segment is added and one segment is deleted
+    ExternalView newExternalView = getExternalView(NUM_SEGMENTS + 1);
+    for (String segment : newExternalView.getPartitionSet()) {
+      Map<String, String> stateMap = newExternalView.getStateMap(segment);
+      if (stateMap.containsKey("Server_localhost_8000")) {
+        newExternalView.setState(segment, "Server_localhost_8000", "OFFLINE");
+      }
+    }
+    newExternalView.getRecord().getMapFields().remove("segment0");
+    Map<String, Set<String>> onlineReplicas =
+        IncrementalRoutingTableUpdater.computeOnlineReplicas(newExternalView, instanceConfigs);
+    changedSegments = IncrementalRoutingTableUpdater.computeChangedSegments(previousOnlineReplicas, onlineReplicas);
+    updatedRoutingTables =
+        IncrementalRoutingTableUpdater.updateRoutingTables(routingTables, onlineReplicas, changedSegments,
+            new Random(0));
+
+    Assert.assertEquals(updatedRoutingTables.size(), routingTables.size());
+    for (int i = 0; i < updatedRoutingTables.size(); i++) {
+      ServerToSegmentSetMap routingTable = routingTables.get(i);
+      ServerToSegmentSetMap updatedRoutingTable = updatedRoutingTables.get(i);
+      Assert.assertFalse(updatedRoutingTable.getServerSet().contains("Server_localhost_8000"));
+      checkRoutingTable(updatedRoutingTable, onlineReplicas);
+
+      // Segments on other servers did not move
+      for (String server : updatedRoutingTable.getServerSet()) {
+        Set<String> previousSegments = routingTable.getSegmentSet(server);
+        for (String segment : previousSegments) {
+          if (onlineReplicas.containsKey(segment)) {
+            Assert.assertTrue(updatedRoutingTable.getSegmentSet(server).contains(segment));
+          }
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testUpdateReplicaGroups() {
+    ExternalView externalView = getExternalView(NUM_SEGMENTS);
+    List<InstanceConfig> instanceConfigs = getInstanceConfigs();
+    Map<String, Set<String>> previousOnlineReplicas =
+        IncrementalRoutingTableUpdater.computeOnlineReplicas(externalView, instanceConfigs);
+    Map<List<ServerInstance>, SegmentIdSet> replicaGroups =
+        IncrementalRoutingTableUpdater.computeReplicaGroups(previousOnlineReplicas);
+    Assert.assertEquals(replicaGroups.size(), NUM_SERVERS);
+
+    // Nothing changed
+    Assert.assertSame(IncrementalRoutingTableUpdater.updateReplicaGroups(replicaGroups, previousOnlineReplicas,
+        previousOnlineReplicas, Collections.<String>emptySet()), replicaGroups);
+
+    // Server 0 goes down, one segment is added and one segment is deleted
+    ExternalView newExternalView = getExternalView(NUM_SEGMENTS + 1);
+    for (String segment : newExternalView.getPartitionSet()) {
+      if (newExternalView.getStateMap(segment).containsKey("Server_localhost_8000")) {
+        newExternalView.setState(segment, "Server_localhost_8000", "OFFLINE");
+      }
+    }
+    newExternalView.getRecord().getMapFields().remove("segment0");
+    Map<String, Set<String>> onlineReplicas =
+        IncrementalRoutingTableUpdater.computeOnlineReplicas(newExternalView, instanceConfigs);
+    Set<String> changedSegments =
+        IncrementalRoutingTableUpdater.computeChangedSegments(previousOnlineReplicas, onlineReplicas);
+    Map<List<ServerInstance>, SegmentIdSet> updatedReplicaGroups =
+        IncrementalRoutingTableUpdater.updateReplicaGroups(replicaGroups, previousOnlineReplicas, onlineReplicas,
+            changedSegments);
+    Assert.assertEquals(updatedReplicaGroups, IncrementalRoutingTableUpdater.computeReplicaGroups(onlineReplicas));
+
+    // Groups without changed segments are shared, the previous groups are not modified
+    List<ServerInstance> unchangedGroup =
+        Arrays.asList(new ServerInstance("localhost", 8002), new ServerInstance("localhost", 8003),
+            new ServerInstance("localhost", 8004));
+    Assert.assertSame(updatedReplicaGroups.get(unchangedGroup), replicaGroups.get(unchangedGroup));
+    Assert.assertEquals(replicaGroups, IncrementalRoutingTableUpdater.computeReplicaGroups(previousOnlineReplicas));
+  }
+
+  @Test
+  public void testIncrementalRoutingUpdate() {
+    BaseConfiguration configuration = new BaseConfiguration();
+    configuration.addProperty("enableIncrementalRoutingUpdate", true);
+    configuration.addProperty("maxIncrementalRoutingUpdateRatio", 0.5);
+    HelixExternalViewBasedRouting routing =
+        new HelixExternalViewBasedRouting(null, new PercentageBasedRoutingTableSelector(), null, configuration);
+    routing.setEnableReplicaGroups(true);
+    List<InstanceConfig> instanceConfigs = getInstanceConfigs();
+
+    routing.markDataResourceOnline(TABLE_NAME, getExternalView(NUM_SEGMENTS), instanceConfigs);
+    ExternalView externalView = getExternalView(NUM_SEGMENTS + 10);
+    routing.markDataResourceOnline(TABLE_NAME, externalView, instanceConfigs);
+
+    Map<String, Set<String>> onlineReplicas =
+        IncrementalRoutingTableUpdater.computeOnlineReplicas(externalView, instanceConfigs);
+    RoutingTableLookupRequest request =
+        new RoutingTableLookupRequest(TABLE_NAME, Collections.<String>emptyList(), new BrokerRequest());
+    for (int i = 0; i < 10; i++) {
+      Map<ServerInstance, SegmentIdSet> servers = routing.findServers(request);
+      Set<String> routedSegments = new HashSet<>();
+      for (SegmentIdSet segmentIdSet : servers.values()) {
+        for (SegmentId segmentId : segmentIdSet.getSegments()) {
+          Assert.assertTrue(routedSegments.add(segmentId.getSegmentId()));
+        }
+      }
+      Assert.assertEquals(routedSegments, onlineReplicas.keySet());
+    }
+    Assert.assertEquals(routing.findReplicaGroups(request),
+        IncrementalRoutingTableUpdater.computeReplicaGroups(onlineReplicas));
+  }
+
+  @Test
+  public void testReplicaGroupsDisabled() {
+    HelixExternalViewBasedRouting routing = new HelixExternalViewBasedRouting(null,
+        new PercentageBasedRoutingTableSelector(), null, new BaseConfiguration());
+    routing.markDataResourceOnline(TABLE_NAME, getExternalView(NUM_SEGMENTS), getInstanceConfigs());
+    RoutingTableLookupRequest request =
+        new RoutingTableLookupRequest(TABLE_NAME, Collections.<String>emptyList(), new BrokerRequest());
+    Assert.assertFalse(routing.findServers(request).isEmpty());
+    Assert.assertNull(routing.findReplicaGroups(request));
+
+    routing.setEnableReplicaGroups(true);
+    routing.markDataResourceOnline(TABLE_NAME, getExternalView(NUM_SEGMENTS), getInstanceConfigs());
+    Assert.assertEquals(routing.findReplicaGroups(request), IncrementalRoutingTableUpdater.computeReplicaGroups(
+        IncrementalRoutingTableUpdater.computeOnlineReplicas(getExternalView(NUM_SEGMENTS), getInstanceConfigs())));
+  }
+
+  private static void checkRoutingTable(ServerToSegmentSetMap routingTable, Map<String, Set<String>> onlineReplicas) {
+    Set<String> routedSegments = new HashSet<>();
+    for (String server : routingTable.getServerSet()) {
+      for (String segment : routingTable.getSegmentSet(server)) {
+        Assert.assertTrue(onlineReplicas.get(segment).contains(server));
+        Assert.assertTrue(routedSegments.add(segment));
+      }
+    }
+    Assert.assertEquals(routedSegments, onlineReplicas.keySet());
+    Assert.assertEquals(routingTable.getRouting().size(), routingTable.getServerSet().size());
+  }
+
+  private static ExternalView getExternalView(int numSegments) {
+    ExternalView externalView = new ExternalView(TABLE_NAME);
+    for (int i = 0; i < numSegments; i++) {
+      for (int j = 0; j < NUM_REPLICAS; j++) {
+        int server = (i + j) % NUM_SERVERS;
+        externalView.setState("segment" + i, "Server_localhost_" + (8000 + server), "ONLINE");
+      }
+    }
+    return externalView;
+  }
+
+  private static List<InstanceConfig> getInstanceConfigs() {
+    List<InstanceConfig> instanceConfigs = new ArrayList<>();
+    for (int i = 0; i < NUM_SERVERS; i++) {
+      instanceConfigs.add(new InstanceConfig("Server_localhost_" + (8000 + i)));
+    }
+    return instanceConfigs;
+  }
+}
@@ -16,9 +16,13 @@
 package com.linkedin.pinot.routing;
 
 import com.linkedin.pinot.common.config.AbstractTableConfig;
+import com.linkedin.pinot.common.data.FieldSpec;
 import com.linkedin.pinot.common.metadata.ZKMetadataProvider;
+import com.linkedin.pinot.common.metadata.segment.ColumnMinMaxMetadata;
 import com.linkedin.pinot.common.metadata.segment.OfflineSegmentZKMetadata;
 import com.linkedin.pinot.common.metrics.BrokerMetrics;
+import com.linkedin.pinot.common.request.BrokerRequest;
+import com.linkedin.pinot.pql.parsers.Pql2Compiler;
 import com.yammer.metrics.core.MetricsRegistry;
 import java.lang.reflect.Field;
 import java.util.ArrayList;
@@ -143,6 +147,114 @@ public class RoutingTableTest {
     Assert.assertTrue(timeBoundaryUpdated.booleanValue());
   }
 
+  @Test
+  public void testSegmentZKMetadataReadOnlyForChangedSegments() throws Exception {
+    FakePropertyStore propertyStore = new FakePropertyStore();
+    for (int i = 0; i < 3; i++) {
+      OfflineSegmentZKMetadata segmentZKMetadata = new OfflineSegmentZKMetadata();
+      segmentZKMetadata.setSegmentName("segment" + i);
+      segmentZKMetadata.setTableName("myTable_OFFLINE");
+      propertyStore.setContents(
+          ZKMetadataProvider.constructPropertyStorePathForSegment("myTable_OFFLINE", "segment" + i),
+          segmentZKMetadata.toZNRecord());
+    }
+
+    BaseConfiguration configuration = new BaseConfiguration();
+    configuration.addProperty("enableSegmentMetadataPruning", true);
+    HelixExternalViewBasedRouting routingTable =
+        new HelixExternalViewBasedRouting(propertyStore, NO_LLC_ROUTING, null, configuration) {
+          @Override
+          protected void updateTimeBoundary(String tableName, ExternalView externalView) {
+          }
+        };
+    routingTable.setBrokerMetrics(new BrokerMetrics(new MetricsRegistry()));
+    List<InstanceConfig> instanceConfigs = generateInstanceConfigs("Server_localhost", 0, 0);
+
+    ExternalView externalView = new ExternalView("myTable_OFFLINE");
+    externalView.setState("segment0", "Server_localhost_0", "ONLINE");
+    externalView.setState("segment1", "Server_localhost_0", "ONLINE");
+    routingTable.markDataResourceOnline("myTable_OFFLINE", externalView, instanceConfigs);
+    Assert.assertEquals(propertyStore._numRecordsRead, 2);
+
+    // Only the added segment is read
+    externalView = new ExternalView("myTable_OFFLINE");
+    externalView.setState("segment0", "Server_localhost_0", "ONLINE");
+    externalView.setState("segment1", "Server_localhost_0", "ONLINE");
+    externalView.setState("segment2", "Server_localhost_0", "ONLINE");
+    routingTable.markDataResourceOnline("myTable_OFFLINE", externalView, instanceConfigs);
+    Assert.assertEquals(propertyStore._numRecordsRead, 3);
+
+    // Only the refreshed segment is read
+    OfflineSegmentZKMetadata refreshedSegmentZKMetadata = new OfflineSegmentZKMetadata();
+    refreshedSegmentZKMetadata.setSegmentName("segment1");
+    refreshedSegmentZKMetadata.setTableName("myTable_OFFLINE");
+    refreshedSegmentZKMetadata.setTotalRawDocs(10);
+    propertyStore.setContents(ZKMetadataProvider.constructPropertyStorePathForSegment("myTable_OFFLINE", "segment1"),
+        refreshedSegmentZKMetadata.toZNRecord());
+    externalView = new ExternalView("myTable_OFFLINE");
+    externalView.setState("segment0", "Server_localhost_0", "ONLINE");
+    externalView.setState("segment1", "Server_localhost_0", "OFFLINE");
+    externalView.setState("segment2", "Server_localhost_0", "ONLINE");
+    routingTable.markDataResourceOnline("myTable_OFFLINE", externalView, instanceConfigs);
+    Assert.assertEquals(propertyStore._numRecordsRead, 4);
+  }
+
+  @Test
+  public void testValueRangeIndexRefreshedOnSegmentRefresh() throws Exception {
+    FakePropertyStore propertyStore = new FakePropertyStore();
+    for (int i = 0; i < 2; i++) {
+      propertyStore.setContents(
+          ZKMetadataProvider.constructPropertyStorePathForSegment("myTable_OFFLINE", "segment" + i),
+          getSegmentZKMetadata("segment" + i, 10 * i, 10 * i + 9).toZNRecord());
+    }
+
+    BaseConfiguration configuration = new BaseConfiguration();
+    configuration.addProperty("enableSegmentMetadataPruning", true);
+    HelixExternalViewBasedRouting routingTable =
+        new HelixExternalViewBasedRouting(propertyStore, NO_LLC_ROUTING, null, configuration) {
+          @Override
+          protected void updateTimeBoundary(String tableName, ExternalView externalView) {
+          }
+        };
+    routingTable.setBrokerMetrics(new BrokerMetrics(new MetricsRegistry()));
+    ExternalView externalView = new ExternalView("myTable_OFFLINE");
+    externalView.setState("segment0", "Server_localhost_0", "ONLINE");
+    externalView.setState("segment1", "Server_localhost_0", "ONLINE");
+    routingTable.markDataResourceOnline("myTable_OFFLINE", externalView,
+        generateInstanceConfigs("Server_localhost", 0, 0));
+
+    BrokerRequest brokerRequest =
+        new Pql2Compiler().compileToBrokerRequest("SELECT * FROM myTable WHERE daysSinceEpoch = 25");
+    Assert.assertEquals(getSelectedSegments(routingTable, brokerRequest), Collections.<String>emptyList());
+
+    // Refreshing a segment with new data changes its ZK metadata but not the external view
+    propertyStore.setContents(ZKMetadataProvider.constructPropertyStorePathForSegment("myTable_OFFLINE", "segment1"),
+        getSegmentZKMetadata("segment1", 20, 29).toZNRecord());
+    Assert.assertEquals(getSelectedSegments(routingTable, brokerRequest), Collections.singletonList("segment1"));
+  }
+
+  private static OfflineSegmentZKMetadata getSegmentZKMetadata(String segmentName, int minDay, int maxDay) {
+    OfflineSegmentZKMetadata segmentZKMetadata = new OfflineSegmentZKMetadata();
+    segmentZKMetadata.setSegmentName(segmentName);
+    segmentZKMetadata.setTableName("myTable_OFFLINE");
+    segmentZKMetadata.setTotalRawDocs(10);
+    segmentZKMetadata.setColumnMinMaxMetadata(Collections.singletonMap("daysSinceEpoch",
+        new ColumnMinMaxMetadata(FieldSpec.DataType.INT, Integer.toString(minDay), Integer.toString(maxDay))));
+    return segmentZKMetadata;
+  }
+
+  private static List<String> getSelectedSegments(HelixExternalViewBasedRouting routingTable,
+      BrokerRequest brokerRequest) {
+    RoutingTableLookupRequest request =
+        new RoutingTableLookupRequest("myTable_OFFLINE", Collections.<String>emptyList(), brokerRequest);
+    List<String> selectedSegments = new ArrayList<>();
+    for (SegmentIdSet segmentIdSet : routingTable.findServers(request).values()) {
+      selectedSegments.addAll(segmentIdSet.getSegmentsNameList());
+    }
+    Collections.sort(selectedSegments);
+    return selectedSegments;
+  }
+
   private void assertResourceRequest(HelixExternalViewBasedRouting routingTable, String resource,
       String expectedSegmentList, int expectedNumSegment) {
     RoutingTableLookupRequest request = new RoutingTableLookupRequest(resource, Collections.<String>emptyList());
@@ -456,6 +568,8 @@ public class RoutingTableTest {
 
   class FakePropertyStore extends ZkHelixPropertyStore<ZNRecord> {
     private Map<String, ZNRecord> _contents = new HashMap<>();
+    private Map<String, Integer> _versions = new HashMap<>();
+    private int _numRecordsRead = 0;
     private IZkDataListener _listener = null;
 
     public FakePropertyStore() {
@@ -464,7 +578,40 @@ public class RoutingTableTest {
 
     @Override
     public ZNRecord get(String path, Stat stat, int options) {
-      return _contents.get(path);
+      ZNRecord record = _contents.get(path);
+      if (record != null && stat != null) {
+        _numRecordsRead++;
+        stat.setVersion(_versions.get(path));
+      }
+      return record;
+    }
+
+    @Override
+    public List<ZNRecord> get(List<String> paths, List<Stat> stats, int options) {
+      List<ZNRecord> records = new ArrayList<>();
+      for (int i = 0; i < paths.size(); i++) {
+        String path = paths.get(i);
+        ZNRecord record = _contents.get(path);
+        if (record != null) {
+          _numRecordsRead++;
+          stats.get(i).setVersion(_versions.get(path));
+        }
+        records.add(record);
+      }
+      return records;
+    }
+
+    @Override
+    public Stat[] getStats(List<String> paths, int options) {
+      Stat[] stats = new Stat[paths.size()];
+      for (int i = 0; i < paths.size(); i++) {
+        Integer version = _versions.get(paths.get(i));
+        if (version != null) {
+          stats[i] = new Stat();
+          stats[i].setVersion(version);
+        }
+      }
+      return stats;
     }
 
     @Override
@@ -472,8 +619,14 @@ public class RoutingTableTest {
       _listener = listener;
     }
 
+    @Override
+    public void unsubscribeDataChanges(String path, IZkDataListener listener) {
+    }
+
     public void setContents(String path, ZNRecord contents) throws Exception {
       _contents.put(path, contents);
+      Integer version = _versions.get(path);
+      _versions.put(path, version == null ? 0 : version + 1);
       if (_listener != null) {
         _listener.handleDataChange(path, contents);
       }
@@ -0,0 +1,155 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.routing;
+
+import com.linkedin.pinot.common.data.FieldSpec;
+import com.linkedin.pinot.common.metadata.segment.ColumnPartitionMetadata;
+import com.linkedin.pinot.common.metadata.segment.OfflineSegmentZKMetadata;
+import com.linkedin.pinot.common.metadata.segment.SegmentPartitionMetadata;
+import com.linkedin.pinot.common.response.ServerInstance;
+import com.linkedin.pinot.common.utils.request.FilterQueryTree;
+import com.linkedin.pinot.common.utils.request.RequestUtils;
+import com.linkedin.pinot.pql.parsers.Pql2Compiler;
+import com.linkedin.pinot.transport.common.SegmentId;
+import com.linkedin.pinot.transport.common.SegmentIdSet;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.apache.commons.lang.math.IntRange;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+
+public class SegmentPartitionIndexTest {
+  private static final String TABLE_NAME = "myTable_OFFLINE";
+  private static final Pql2Compiler COMPILER = new Pql2Compiler();
+
+  private final ServerInstance s1 = new ServerInstance("localhost", 8080);
+  private final ServerInstance s2 = new ServerInstance("localhost", 8081);
+  private final ServerInstance s3 = new ServerInstance("localhost", 8082);
+
+  @Test
+  public void testNoPartitionMetadata() {
+    List<OfflineSegmentZKMetadata> segments = Arrays.asList(buildSegment("segment0", null));
+    Assert.assertNull(SegmentPartitionIndex.build(TABLE_NAME, segments));
+  }
+
+  @Test
+  public void testPrune() {
+    // Modulo partitioning of memberId in 4 partitions, segment3 has no partition metadata
+    SegmentPartitionIndex index = SegmentPartitionIndex.build(TABLE_NAME,
+        Arrays.asList(buildSegment("segment0", new IntRange(0)), buildSegment("segment1", new IntRange(1)),
+            buildSegment("segment2", new IntRange(2, 3)), buildSegment("segment3", null)));
+    Assert.assertNotNull(index);
+    Assert.assertEquals(index.getColumns(), Collections.singleton("memberId"));
+
+    Map<ServerInstance, SegmentIdSet> routing = new HashMap<>();
+    routing.put(s1, buildSegmentIdSet("segment0", "segment1"));
+    routing.put(s2, buildSegmentIdSet("segment2", "segment3"));
+    routing.put(s3, buildSegmentIdSet("segment1"));
+
+    // No filter or no predicate on the partitioned column
+    Assert.assertSame(index.prune(routing, null), routing);
+    Assert.assertSame(index.prune(routing, filter("select * from myTable where country = 'us'")), routing);
+    Assert.assertSame(index.prune(routing, filter("select * from myTable where memberId > 5")), routing);
+    Assert.assertSame(index.prune(routing, filter("select * from myTable where memberId = 4 or country = 'us'")),
+        routing);
+
+    // Partition 0: segment0 on s1, segment3 is always kept
+    Map<ServerInstance, SegmentIdSet> pruned = index.prune(routing, filter("select * from myTable where memberId = 4"));
+    Assert.assertEquals(pruned.size(), 2);
+    Assert.assertEquals(getSegments(pruned.get(s1)), Collections.singleton("segment0"));
+    Assert.assertEquals(getSegments(pruned.get(s2)), Collections.singleton("segment3"));
+
+    // Partitions 1 and 3
+    pruned = index.prune(routing, filter("select * from myTable where memberId in (5, 7) and country = 'us'"));
+    Assert.assertEquals(pruned.size(), 3);
+    Assert.assertEquals(getSegments(pruned.get(s1)), Collections.singleton("segment1"));
+    Assert.assertEquals(getSegments(pruned.get(s2)), new HashSet<>(Arrays.asList("segment2", "segment3")));
+    Assert.assertEquals(getSegments(pruned.get(s3)), Collections.singleton("segment1"));
+
+    // Partition 2 or partition 0
+    pruned = index.prune(routing, filter("select * from myTable where memberId = 2 or memberId = 8"));
+    Assert.assertEquals(pruned.size(), 2);
+    Assert.assertEquals(getSegments(pruned.get(s1)), Collections.singleton("segment0"));
+    Assert.assertEquals(getSegments(pruned.get(s2)), new HashSet<>(Arrays.asList("segment2", "segment3")));
+
+    // Value which cannot be converted to the column type
+    Assert.assertSame(index.prune(routing, filter("select * from myTable where memberId = 'abc'")), routing);
+  }
+
+  @Test
+  public void testNegativePartitions() {
+    // Modulo partitioning returns negative partitions for negative values
+    SegmentPartitionIndex index = SegmentPartitionIndex.build(TABLE_NAME,
+        Arrays.asList(buildSegment("segment0", new IntRange(-3, -1)), buildSegment("segment1", new IntRange(1))));
+    Assert.assertNotNull(index);
+
+    Map<ServerInstance, SegmentIdSet> routing = new HashMap<>();
+    routing.put(s1, buildSegmentIdSet("segment0"));
+    routing.put(s2, buildSegmentIdSet("segment1"));
+
+    Map<ServerInstance, SegmentIdSet> pruned =
+        index.prune(routing, filter("select * from myTable where memberId = -3"));
+    Assert.assertEquals(pruned.size(), 1);
+    Assert.assertEquals(getSegments(pruned.get(s1)), Collections.singleton("segment0"));
+
+    pruned = index.prune(routing, filter("select * from myTable where memberId in (-5, 5)"));
+    Assert.assertEquals(pruned.size(), 2);
+    Assert.assertEquals(getSegments(pruned.get(s1)), Collections.singleton("segment0"));
+    Assert.assertEquals(getSegments(pruned.get(s2)), Collections.singleton("segment1"));
+  }
+
+  @Test
+  public void testInconsistentPartitioning() {
+    OfflineSegmentZKMetadata segment1 = buildSegment("segment1", new IntRange(1));
+    segment1.setPartitionMetadata(new SegmentPartitionMetadata(Collections.singletonMap("memberId",
+        new ColumnPartitionMetadata("Modulo", 8, FieldSpec.DataType.INT, Arrays.asList(new IntRange(1))))));
+    Assert.assertNull(
+        SegmentPartitionIndex.build(TABLE_NAME, Arrays.asList(buildSegment("segment0", new IntRange(0)), segment1)));
+  }
+
+  private static OfflineSegmentZKMetadata buildSegment(String segmentName, IntRange partitionRange) {
+    OfflineSegmentZKMetadata segmentZKMetadata = new OfflineSegmentZKMetadata();
+    segmentZKMetadata.setSegmentName(segmentName);
+    segmentZKMetadata.setTableName(TABLE_NAME);
+    if (partitionRange != null) {
+      segmentZKMetadata.setPartitionMetadata(new SegmentPartitionMetadata(Collections.singletonMap("memberId",
+          new ColumnPartitionMetadata("Modulo", 4, FieldSpec.DataType.INT, Arrays.asList(partitionRange)))));
+    }
+    return segmentZKMetadata;
+  }
+
+  private static SegmentIdSet buildSegmentIdSet(String... segmentNames) {
+    SegmentIdSet segmentIdSet = new SegmentIdSet();
+    for (String segmentName : segmentNames) {
+      segmentIdSet.addSegment(new SegmentId(segmentName));
+    }
+    return segmentIdSet;
+  }
+
+  private static Set<String> getSegments(SegmentIdSet segmentIdSet) {
+    return new HashSet<>(segmentIdSet.getSegmentsNameList());
+  }
+
+  private static FilterQueryTree filter(String query) {
+    return RequestUtils.generateFilterQueryTree(COMPILER.compileToBrokerRequest(query));
+  }
+}
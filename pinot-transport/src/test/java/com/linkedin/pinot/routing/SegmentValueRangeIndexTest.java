@@ -0,0 +1,163 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.routing;
+
+import com.linkedin.pinot.common.data.FieldSpec;
+import com.linkedin.pinot.common.metadata.segment.ColumnMinMaxMetadata;
+import com.linkedin.pinot.common.metadata.segment.OfflineSegmentZKMetadata;
+import com.linkedin.pinot.common.metadata.segment.RealtimeSegmentZKMetadata;
+import com.linkedin.pinot.common.response.ServerInstance;
+import com.linkedin.pinot.common.utils.CommonConstants;
+import com.linkedin.pinot.common.utils.request.FilterQueryTree;
+import com.linkedin.pinot.common.utils.request.RequestUtils;
+import com.linkedin.pinot.pql.parsers.Pql2Compiler;
+import com.linkedin.pinot.transport.common.SegmentId;
+import com.linkedin.pinot.transport.common.SegmentIdSet;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+
+public class SegmentValueRangeIndexTest {
+  private static final String TABLE_NAME = "myTable_OFFLINE";
+  private static final Pql2Compiler COMPILER = new Pql2Compiler();
+
+  private final ServerInstance s1 = new ServerInstance("localhost", 8080);
+  private final ServerInstance s2 = new ServerInstance("localhost", 8081);
+
+  @Test
+  public void testNoMetadata() {
+    Assert.assertNull(SegmentValueRangeIndex.build(TABLE_NAME, Arrays.asList(buildSegment("segment0", 10, -1, -1))));
+  }
+
+  @Test
+  public void testPrune() {
+    // segment0 and segment1 have consecutive days, segment2 is empty, segment3 has no min/max values
+    SegmentValueRangeIndex index = SegmentValueRangeIndex.build(TABLE_NAME,
+        Arrays.asList(buildSegment("segment0", 10, 17000, 17009), buildSegment("segment1", 10, 17010, 17019),
+            buildSegment("segment2", 0, -1, -1), buildSegment("segment3", 10, -1, -1)));
+    Assert.assertNotNull(index);
+
+    Map<ServerInstance, SegmentIdSet> routing = new HashMap<>();
+    routing.put(s1, buildSegmentIdSet("segment0", "segment2"));
+    routing.put(s2, buildSegmentIdSet("segment1", "segment3"));
+
+    // The empty segment is always pruned
+    Map<ServerInstance, SegmentIdSet> pruned = index.prune(routing, null);
+    Assert.assertEquals(getSegments(pruned.get(s1)), Collections.singleton("segment0"));
+    Assert.assertEquals(getSegments(pruned.get(s2)), new HashSet<>(Arrays.asList("segment1", "segment3")));
+    pruned = index.prune(routing, filter("select * from myTable where country = 'us'"));
+    Assert.assertEquals(pruned.size(), 2);
+    Assert.assertEquals(getSegments(pruned.get(s1)), Collections.singleton("segment0"));
+
+    // Equality, segment1 and segment3 on s2 only
+    pruned = index.prune(routing, filter("select * from myTable where daysSinceEpoch = 17015"));
+    Assert.assertEquals(pruned.size(), 1);
+    Assert.assertEquals(getSegments(pruned.get(s2)), new HashSet<>(Arrays.asList("segment1", "segment3")));
+
+    // Ranges, with exclusive boundaries
+    pruned = index.prune(routing, filter("select * from myTable where daysSinceEpoch > 17009"));
+    Assert.assertEquals(pruned.keySet(), Collections.singleton(s2));
+    pruned = index.prune(routing, filter("select * from myTable where daysSinceEpoch >= 17009"));
+    Assert.assertEquals(pruned.size(), 2);
+    pruned = index.prune(routing, filter("select * from myTable where daysSinceEpoch < 17010 and country = 'us'"));
+    Assert.assertEquals(getSegments(pruned.get(s1)), Collections.singleton("segment0"));
+    Assert.assertEquals(getSegments(pruned.get(s2)), Collections.singleton("segment3"));
+    pruned = index.prune(routing, filter("select * from myTable where daysSinceEpoch between 16000 and 16999"));
+    Assert.assertEquals(pruned.keySet(), Collections.singleton(s2));
+    Assert.assertEquals(getSegments(pruned.get(s2)), Collections.singleton("segment3"));
+
+    // In and or
+    pruned = index.prune(routing, filter("select * from myTable where daysSinceEpoch in (16000, 17005)"));
+    Assert.assertEquals(getSegments(pruned.get(s1)), Collections.singleton("segment0"));
+    Assert.assertEquals(getSegments(pruned.get(s2)), Collections.singleton("segment3"));
+    pruned = index.prune(routing,
+        filter("select * from myTable where daysSinceEpoch = 16000 or daysSinceEpoch = 17015"));
+    Assert.assertEquals(pruned.keySet(), Collections.singleton(s2));
+    pruned = index.prune(routing, filter("select * from myTable where daysSinceEpoch = 16000 or country = 'us'"));
+    Assert.assertEquals(pruned.size(), 2);
+
+    // Value which cannot be compared with the values of the column
+    pruned = index.prune(routing, filter("select * from myTable where daysSinceEpoch = 'abc'"));
+    Assert.assertEquals(pruned.size(), 2);
+  }
+
+  @Test
+  public void testUpdate() {
+    SegmentValueRangeIndex index = SegmentValueRangeIndex.build(TABLE_NAME,
+        Arrays.asList(buildSegment("segment0", 10, 17000, 17009), buildSegment("segment1", 0, -1, -1)));
+    Map<ServerInstance, SegmentIdSet> routing = new HashMap<>();
+    routing.put(s1, buildSegmentIdSet("segment0", "segment1", "segment2"));
+    FilterQueryTree filter = filter("select * from myTable where daysSinceEpoch = 17015");
+
+    // segment0 is refreshed with new days, segment1 is deleted and segment2 is added
+    SegmentValueRangeIndex updatedIndex = SegmentValueRangeIndex.update(TABLE_NAME, index,
+        Collections.singleton("segment1"),
+        Arrays.asList(buildSegment("segment0", 10, 17010, 17019), buildSegment("segment2", 10, 16000, 16009)));
+    Assert.assertNotNull(updatedIndex);
+    Assert.assertEquals(getSegments(updatedIndex.prune(routing, filter).get(s1)),
+        new HashSet<>(Arrays.asList("segment0", "segment1")));
+
+    // The previous index is not modified
+    Assert.assertEquals(getSegments(index.prune(routing, filter).get(s1)), Collections.singleton("segment2"));
+
+    Assert.assertNull(SegmentValueRangeIndex.update(TABLE_NAME, updatedIndex, Arrays.asList("segment0", "segment2"),
+        Collections.<OfflineSegmentZKMetadata>emptyList()));
+  }
+
+  @Test
+  public void testConsumingSegmentNotPruned() {
+    RealtimeSegmentZKMetadata segmentZKMetadata = new RealtimeSegmentZKMetadata();
+    segmentZKMetadata.setSegmentName("segment0");
+    segmentZKMetadata.setTotalRawDocs(0);
+    segmentZKMetadata.setStatus(CommonConstants.Segment.Realtime.Status.IN_PROGRESS);
+    Assert.assertNull(SegmentValueRangeIndex.build("myTable_REALTIME", Arrays.asList(segmentZKMetadata)));
+  }
+
+  private static OfflineSegmentZKMetadata buildSegment(String segmentName, long totalRawDocs, int minDay,
+      int maxDay) {
+    OfflineSegmentZKMetadata segmentZKMetadata = new OfflineSegmentZKMetadata();
+    segmentZKMetadata.setSegmentName(segmentName);
+    segmentZKMetadata.setTableName(TABLE_NAME);
+    segmentZKMetadata.setTotalRawDocs(totalRawDocs);
+    if (minDay >= 0) {
+      segmentZKMetadata.setColumnMinMaxMetadata(Collections.singletonMap("daysSinceEpoch",
+          new ColumnMinMaxMetadata(FieldSpec.DataType.INT, Integer.toString(minDay), Integer.toString(maxDay))));
+    }
+    return segmentZKMetadata;
+  }
+
+  private static SegmentIdSet buildSegmentIdSet(String... segmentNames) {
+    SegmentIdSet segmentIdSet = new SegmentIdSet();
+    for (String segmentName : segmentNames) {
+      segmentIdSet.addSegment(new SegmentId(segmentName));
+    }
+    return segmentIdSet;
+  }
+
+  private static Set<String> getSegments(SegmentIdSet segmentIdSet) {
+    return new HashSet<>(segmentIdSet.getSegmentsNameList());
+  }
+
+  private static FilterQueryTree filter(String query) {
+    return RequestUtils.generateFilterQueryTree(COMPILER.compileToBrokerRequest(query));
+  }
+}
@@ -0,0 +1,136 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.transport.common;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.linkedin.pinot.common.response.ServerInstance;
+
+
+public class AdaptiveReplicaSelectionTest {
+  private static final SegmentId SEGMENT = new SegmentId("1");
+
+  private final ServerInstance s1 = new ServerInstance("localhost", 8080);
+  private final ServerInstance s2 = new ServerInstance("localhost", 8081);
+  private final ServerInstance s3 = new ServerInstance("localhost", 8082);
+
+  @Test
+  public void testEmptyAndSingleCandidate() {
+    AdaptiveReplicaSelection selection = new AdaptiveReplicaSelection();
+    Assert.assertNull(selection.selectServer(SEGMENT, new ArrayList<ServerInstance>(), null));
+    Assert.assertEquals(selection.selectServer(SEGMENT, Arrays.asList(s1), null), s1);
+  }
+
+  @Test
+  public void testPrefersLowerLatency() {
+    AdaptiveReplicaSelection selection = newSelection();
+    sendAndRespond(selection, s1, 100);
+    sendAndRespond(selection, s2, 10);
+    Assert.assertEquals(selection.getLatencyEwmaMs(s1), 100.0);
+    Assert.assertEquals(selection.getNumInFlightRequests(s1), 0);
+
+    List<ServerInstance> candidates = Arrays.asList(s1, s2);
+    for (int i = 0; i < 10; i++) {
+      Assert.assertEquals(selection.selectServer(SEGMENT, candidates, null), s2);
+    }
+
+    // The moving average converges towards the new latency
+    for (int i = 0; i < 20; i++) {
+      sendAndRespond(selection, s1, 1);
+    }
+    Assert.assertTrue(selection.getLatencyEwmaMs(s1) < 10);
+    Assert.assertEquals(selection.selectServer(SEGMENT, candidates, null), s1);
+  }
+
+  @Test
+  public void testInFlightRequests() {
+    AdaptiveReplicaSelection selection = newSelection();
+    sendAndRespond(selection, s1, 10);
+    sendAndRespond(selection, s2, 10);
+
+    // Requests waiting on s1 make it less attractive than s2 with the same latency
+    selection.onRequestSent(s1);
+    selection.onRequestSent(s1);
+    Assert.assertEquals(selection.getNumInFlightRequests(s1), 2);
+    List<ServerInstance> candidates = Arrays.asList(s1, s2);
+    Assert.assertEquals(selection.selectServer(SEGMENT, candidates, null), s2);
+
+    selection.onResponse(s1, 10);
+    selection.onError(s1, true);
+    Assert.assertEquals(selection.getNumInFlightRequests(s1), 0);
+  }
+
+  @Test
+  public void testErrorsPenalizeServer() {
+    // No decay of the errors
+    AdaptiveReplicaSelection selection =
+        new AdaptiveReplicaSelection(AdaptiveReplicaSelection.DEFAULT_LATENCY_SMOOTHING_FACTOR, 0, new Random(0));
+    sendAndRespond(selection, s1, 10);
+    sendAndRespond(selection, s2, 20);
+    double scoreBeforeError = selection.getScore(s1);
+
+    // An error not preceded by a sent request (e.g. connection failure) must not change the in-flight count
+    selection.onError(s1, false);
+    Assert.assertEquals(selection.getNumInFlightRequests(s1), 0);
+    Assert.assertTrue(selection.getScore(s1) > scoreBeforeError);
+    Assert.assertEquals(selection.selectServer(SEGMENT, Arrays.asList(s1, s2), null), s2);
+  }
+
+  @Test
+  public void testUnknownServerIsProbed() {
+    AdaptiveReplicaSelection selection = newSelection();
+    sendAndRespond(selection, s1, 10);
+    sendAndRespond(selection, s2, 10);
+    Assert.assertEquals(selection.selectServer(SEGMENT, Arrays.asList(s1, s3), null), s3);
+  }
+
+  @Test
+  public void testPowerOfTwoChoices() {
+    AdaptiveReplicaSelection selection = newSelection();
+    sendAndRespond(selection, s1, 1);
+    sendAndRespond(selection, s2, 50);
+    sendAndRespond(selection, s3, 100);
+
+    // The slowest server is never picked as it loses against any other candidate, and the fastest server wins every
+    // comparison it takes part of
+    List<ServerInstance> candidates = Arrays.asList(s1, s2, s3);
+    int numS1 = 0;
+    for (int i = 0; i < 300; i++) {
+      ServerInstance selected = selection.selectServer(SEGMENT, candidates, null);
+      Assert.assertFalse(selected.equals(s3));
+      if (selected.equals(s1)) {
+        numS1++;
+      }
+    }
+    Assert.assertTrue(numS1 > 150, "Fastest server selected " + numS1 + " times");
+  }
+
+  private static AdaptiveReplicaSelection newSelection() {
+    return new AdaptiveReplicaSelection(AdaptiveReplicaSelection.DEFAULT_LATENCY_SMOOTHING_FACTOR,
+        AdaptiveReplicaSelection.DEFAULT_ERROR_DECAY_MS, new Random(0));
+  }
+
+  private static void sendAndRespond(AdaptiveReplicaSelection selection, ServerInstance server, long latencyMs) {
+    selection.onRequestSent(server);
+    selection.onResponse(server, latencyMs);
+  }
+}
@@ -0,0 +1,242 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.transport.common;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import com.linkedin.pinot.common.response.ServerInstance;
+
+
+public class HedgedResponseFutureTest {
+  private static final String REJECTED = "rejected";
+
+  private final ServerInstance primaryServer = new ServerInstance("localhost", 8080);
+  private final ServerInstance hedgeServer = new ServerInstance("localhost", 8081);
+
+  @Test
+  public void testPrimaryWinsWithoutHedge() throws Exception {
+    AsyncResponseFuture<String> primary = new AsyncResponseFuture<>(primaryServer, "");
+    HedgedResponseFuture<String> future = new HedgedResponseFuture<>(primary, "test");
+    CountingListener listener = new CountingListener();
+    future.addListener(listener, null);
+
+    try {
+      future.getOne(10, TimeUnit.MILLISECONDS);
+      Assert.fail("Future should not be complete");
+    } catch (TimeoutException e) {
+      // Expected
+    }
+
+    primary.onSuccess("primary");
+    Assert.assertTrue(future.isDone());
+    Assert.assertFalse(future.isHedgeWinner());
+    Assert.assertEquals(future.getOne(), "primary");
+    Assert.assertEquals(future.getServerInstance(), primaryServer);
+    Assert.assertNull(future.getError());
+    Assert.assertEquals(listener._count.get(), 1);
+
+    // Hedging a completed future is refused
+    Assert.assertFalse(future.hedge(new AsyncResponseFuture<String>(hedgeServer, "")));
+  }
+
+  @Test
+  public void testHedgeWins() throws Exception {
+    AsyncResponseFuture<String> primary = new AsyncResponseFuture<>(primaryServer, "");
+    AsyncResponseFuture<String> hedge = new AsyncResponseFuture<>(hedgeServer, "");
+    HedgedResponseFuture<String> future = new HedgedResponseFuture<>(primary, "test");
+    CountingListener listener = new CountingListener();
+    future.addListener(listener, null);
+    Assert.assertTrue(future.hedge(hedge));
+
+    hedge.onSuccess("hedge");
+    Assert.assertTrue(future.isDone());
+    Assert.assertTrue(future.isHedgeWinner());
+    Map<ServerInstance, String> response = future.get();
+    Assert.assertEquals(response.size(), 1);
+    Assert.assertEquals(response.get(hedgeServer), "hedge");
+    Assert.assertEquals(future.getServerInstance(), hedgeServer);
+
+    // Late response of the primary request is ignored
+    primary.onSuccess("primary");
+    Assert.assertEquals(future.getOne(), "hedge");
+    Assert.assertEquals(listener._count.get(), 1);
+  }
+
+  @Test
+  public void testPrimaryErrorWaitsForHedge() throws Exception {
+    AsyncResponseFuture<String> primary = new AsyncResponseFuture<>(primaryServer, "");
+    AsyncResponseFuture<String> hedge = new AsyncResponseFuture<>(hedgeServer, "");
+    HedgedResponseFuture<String> future = new HedgedResponseFuture<>(primary, "test");
+    Assert.assertTrue(future.hedge(hedge));
+
+    primary.onError(new Exception("primary error"));
+    Assert.assertFalse(future.isDone());
+
+    hedge.onSuccess("hedge");
+    Assert.assertTrue(future.isDone());
+    Assert.assertTrue(future.isHedgeWinner());
+    Assert.assertEquals(future.getOne(), "hedge");
+    Assert.assertNull(future.getError());
+  }
+
+  @Test
+  public void testAllErrors() throws Exception {
+    AsyncResponseFuture<String> primary = new AsyncResponseFuture<>(primaryServer, "");
+    AsyncResponseFuture<String> hedge = new AsyncResponseFuture<>(hedgeServer, "");
+    HedgedResponseFuture<String> future = new HedgedResponseFuture<>(primary, "test");
+    Assert.assertTrue(future.hedge(hedge));
+
+    hedge.onError(new Exception("hedge error"));
+    Assert.assertFalse(future.isDone());
+    Exception primaryError = new Exception("primary error");
+    primary.onError(primaryError);
+    Assert.assertTrue(future.isDone());
+    Assert.assertNull(future.get());
+    Assert.assertNull(future.getOne());
+    Assert.assertEquals(future.getError().get(primaryServer), primaryError);
+  }
+
+  @Test
+  public void testErrorWithoutHedge() throws Exception {
+    AsyncResponseFuture<String> primary = new AsyncResponseFuture<>(primaryServer, "");
+    HedgedResponseFuture<String> future = new HedgedResponseFuture<>(primary, "test");
+
+    primary.onError(new Exception("primary error"));
+    Assert.assertTrue(future.isDone());
+    Assert.assertNotNull(future.getError().get(primaryServer));
+  }
+
+  @Test
+  public void testCancel() throws Exception {
+    AsyncResponseFuture<String> primary = new AsyncResponseFuture<>(primaryServer, "");
+    AsyncResponseFuture<String> hedge = new AsyncResponseFuture<>(hedgeServer, "");
+    HedgedResponseFuture<String> future = new HedgedResponseFuture<>(primary, "test");
+    CountingListener listener = new CountingListener();
+    future.addListener(listener, null);
+    Assert.assertTrue(future.hedge(hedge));
+
+    Assert.assertTrue(future.cancel(true));
+    Assert.assertTrue(future.isCancelled());
+    Assert.assertTrue(future.isDone());
+    Assert.assertTrue(primary.isCancelled());
+    Assert.assertTrue(hedge.isCancelled());
+    Assert.assertNull(future.get());
+    Assert.assertEquals(listener._count.get(), 1);
+    Assert.assertFalse(future.cancel(true));
+  }
+
+  @Test
+  public void testRejectedPrimaryRetried() throws Exception {
+    AsyncResponseFuture<String> primary = new AsyncResponseFuture<>(primaryServer, "");
+    AsyncResponseFuture<String> retried = new AsyncResponseFuture<>(hedgeServer, "");
+    TestRetryHandler retryHandler = new TestRetryHandler(retried);
+    HedgedResponseFuture<String> future = new HedgedResponseFuture<>(primary, "test", retryHandler);
+    retryHandler._future = future;
+
+    primary.onSuccess(REJECTED);
+    Assert.assertEquals(retryHandler._numRetries, 1);
+    Assert.assertTrue(future.isHedged());
+    Assert.assertFalse(future.isDone());
+
+    retried.onSuccess("retried");
+    Assert.assertTrue(future.isDone());
+    Assert.assertTrue(future.isHedgeWinner());
+    Assert.assertEquals(future.getOne(), "retried");
+    Assert.assertEquals(future.getServerInstance(), hedgeServer);
+  }
+
+  @Test
+  public void testRejectedRetryFails() throws Exception {
+    AsyncResponseFuture<String> primary = new AsyncResponseFuture<>(primaryServer, "");
+    AsyncResponseFuture<String> retried = new AsyncResponseFuture<>(hedgeServer, "");
+    TestRetryHandler retryHandler = new TestRetryHandler(retried);
+    HedgedResponseFuture<String> future = new HedgedResponseFuture<>(primary, "test", retryHandler);
+    retryHandler._future = future;
+
+    primary.onSuccess(REJECTED);
+    retried.onError(new Exception("retry error"));
+    // The rejection is returned rather than the error
+    Assert.assertTrue(future.isDone());
+    Assert.assertEquals(future.getOne(), REJECTED);
+    Assert.assertEquals(future.getServerInstance(), primaryServer);
+    Assert.assertNull(future.getError());
+  }
+
+  @Test
+  public void testRejectedWithoutRetry() throws Exception {
+    AsyncResponseFuture<String> primary = new AsyncResponseFuture<>(primaryServer, "");
+    TestRetryHandler retryHandler = new TestRetryHandler(null);
+    HedgedResponseFuture<String> future = new HedgedResponseFuture<>(primary, "test", retryHandler);
+    retryHandler._future = future;
+
+    primary.onSuccess(REJECTED);
+    Assert.assertEquals(retryHandler._numRetries, 1);
+    Assert.assertTrue(future.isDone());
+    Assert.assertEquals(future.getOne(), REJECTED);
+  }
+
+  @Test
+  public void testRejectedHedgedPrimaryWaitsForHedge() throws Exception {
+    AsyncResponseFuture<String> primary = new AsyncResponseFuture<>(primaryServer, "");
+    AsyncResponseFuture<String> hedge = new AsyncResponseFuture<>(hedgeServer, "");
+    TestRetryHandler retryHandler = new TestRetryHandler(null);
+    HedgedResponseFuture<String> future = new HedgedResponseFuture<>(primary, "test", retryHandler);
+    retryHandler._future = future;
+    Assert.assertTrue(future.hedge(hedge));
+
+    primary.onSuccess(REJECTED);
+    Assert.assertEquals(retryHandler._numRetries, 0);
+    Assert.assertFalse(future.isDone());
+
+    hedge.onSuccess("hedge");
+    Assert.assertTrue(future.isDone());
+    Assert.assertEquals(future.getOne(), "hedge");
+  }
+
+  private static class TestRetryHandler implements HedgedResponseFuture.RetryHandler<String> {
+    private final AsyncResponseFuture<String> _retryFuture;
+    private HedgedResponseFuture<String> _future;
+    private int _numRetries;
+
+    TestRetryHandler(AsyncResponseFuture<String> retryFuture) {
+      _retryFuture = retryFuture;
+    }
+
+    @Override
+    public boolean isRejected(String response) {
+      return REJECTED.equals(response);
+    }
+
+    @Override
+    public boolean retry() {
+      _numRetries++;
+      return _retryFuture != null && _future.hedge(_retryFuture);
+    }
+  }
+
+  private static class CountingListener implements Runnable {
+    private final AtomicInteger _count = new AtomicInteger();
+
+    @Override
+    public void run() {
+      _count.incrementAndGet();
+    }
+  }
+}
@@ -0,0 +1,192 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.transport.netty;
+
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+import com.google.common.util.concurrent.Uninterruptibles;
+import com.linkedin.pinot.common.response.ServerInstance;
+import com.linkedin.pinot.transport.metrics.NettyClientMetrics;
+import com.linkedin.pinot.transport.netty.NettyClientConnection.ResponseFuture;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.util.HashedWheelTimer;
+import java.io.IOException;
+import java.net.Socket;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+
+public class NettyMultiplexedClientConnectionTest {
+  private static final int PORT = 9091;
+
+  private ServerInstance _serverInstance;
+  private DeferredRequestHandler _requestHandler;
+  private NettyTCPServer _nettyTCPServer;
+  private EventLoopGroup _eventLoopGroup;
+  private HashedWheelTimer _timer;
+
+  @BeforeMethod
+  public void setUp() {
+    _requestHandler = new DeferredRequestHandler();
+    _nettyTCPServer = new NettyTCPServer(PORT, new NettyServer.RequestHandlerFactory() {
+      @Override
+      public NettyServer.RequestHandler createNewRequestHandler() {
+        return _requestHandler;
+      }
+    }, null);
+    Thread serverThread = new Thread(_nettyTCPServer, "NettyTCPServer");
+    serverThread.start();
+    waitForServer();
+    _serverInstance = new ServerInstance("localhost", PORT);
+    _eventLoopGroup = new NioEventLoopGroup();
+    _timer = new HashedWheelTimer();
+  }
+
+  /**
+   * Requests in flight on the same connection get their own response, whatever the order of the responses.
+   */
+  @Test
+  public void testOutOfOrderResponses()
+      throws Exception {
+    NettyMultiplexedClientConnection connection =
+        new NettyMultiplexedClientConnection(_serverInstance, _eventLoopGroup, _timer, new NettyClientMetrics(null, "abc"));
+    Assert.assertTrue(connection.connect());
+
+    ResponseFuture responseFuture1 = connection.sendRequest(Unpooled.wrappedBuffer("request1".getBytes()), 1L, 5000L);
+    ResponseFuture responseFuture2 = connection.sendRequest(Unpooled.wrappedBuffer("request2".getBytes()), 2L, 5000L);
+    Assert.assertEquals(connection.getNumPendingRequests(), 2);
+
+    _requestHandler.respond("request2", "response2");
+    Assert.assertEquals(toString(responseFuture2.getOne(5, TimeUnit.SECONDS)), "response2");
+    Assert.assertFalse(responseFuture1.isDone());
+
+    _requestHandler.respond("request1", "response1");
+    Assert.assertEquals(toString(responseFuture1.getOne(5, TimeUnit.SECONDS)), "response1");
+    Assert.assertEquals(connection.getNumPendingRequests(), 0);
+    Assert.assertFalse(connection.isClosed());
+    connection.close();
+  }
+
+  /**
+   * A timed out request fails without affecting the other requests on the connection.
+   */
+  @Test
+  public void testTimeout()
+      throws Exception {
+    NettyMultiplexedClientConnection connection =
+        new NettyMultiplexedClientConnection(_serverInstance, _eventLoopGroup, _timer, new NettyClientMetrics(null, "abc"));
+    ResponseFuture responseFuture1 = connection.sendRequest(Unpooled.wrappedBuffer("request1".getBytes()), 1L, 100L);
+    ResponseFuture responseFuture2 = connection.sendRequest(Unpooled.wrappedBuffer("request2".getBytes()), 2L, 5000L);
+
+    Assert.assertNull(responseFuture1.getOne(5, TimeUnit.SECONDS));
+    Assert.assertTrue(responseFuture1.getError().get(_serverInstance) instanceof TimeoutException);
+
+    // The late response of the timed out request is discarded
+    _requestHandler.respond("request1", "response1");
+    _requestHandler.respond("request2", "response2");
+    Assert.assertEquals(toString(responseFuture2.getOne(5, TimeUnit.SECONDS)), "response2");
+    Assert.assertFalse(connection.isClosed());
+    connection.close();
+  }
+
+  @Test
+  public void testMaxOutstandingRequests()
+      throws Exception {
+    MultiplexedConnectionManager connectionManager =
+        new MultiplexedConnectionManager(_eventLoopGroup, _timer, new NettyClientMetrics(null, "abc"), 1, 1);
+    ResponseFuture responseFuture1 =
+        connectionManager.sendRequest(_serverInstance, Unpooled.wrappedBuffer("request1".getBytes()), 1L, 5000L);
+    Assert.assertEquals(connectionManager.getNumOutstandingRequests(_serverInstance), 1);
+
+    // Rejected right away, the server already has one outstanding request
+    ResponseFuture responseFuture2 =
+        connectionManager.sendRequest(_serverInstance, Unpooled.wrappedBuffer("request2".getBytes()), 2L, 5000L);
+    Assert.assertTrue(responseFuture2.isDone());
+    Assert.assertTrue(responseFuture2.getError().get(_serverInstance)
+        instanceof MultiplexedConnectionManager.TooManyOutstandingRequestsException);
+
+    _requestHandler.respond("request1", "response1");
+    Assert.assertEquals(toString(responseFuture1.getOne(5, TimeUnit.SECONDS)), "response1");
+    Assert.assertEquals(connectionManager.getNumOutstandingRequests(_serverInstance), 0);
+
+    ResponseFuture responseFuture3 =
+        connectionManager.sendRequest(_serverInstance, Unpooled.wrappedBuffer("request3".getBytes()), 3L, 5000L);
+    _requestHandler.respond("request3", "response3");
+    Assert.assertEquals(toString(responseFuture3.getOne(5, TimeUnit.SECONDS)), "response3");
+    connectionManager.shutdown();
+  }
+
+  @AfterMethod
+  public void tearDown()
+      throws Exception {
+    // Wait for at most 1 minute to shutdown the server completely
+    _nettyTCPServer.waitForShutdown(60 * 1000L);
+    _eventLoopGroup.shutdownGracefully();
+    _timer.stop();
+  }
+
+  private static void waitForServer() {
+    for (int i = 0; i < 100; i++) {
+      try (Socket socket = new Socket("localhost", PORT)) {
+        return;
+      } catch (IOException e) {
+        Uninterruptibles.sleepUninterruptibly(100L, TimeUnit.MILLISECONDS);
+      }
+    }
+    Assert.fail("Server did not start");
+  }
+
+  private static String toString(ByteBuf byteBuf) {
+    byte[] bytes = new byte[byteBuf.readableBytes()];
+    byteBuf.readBytes(bytes);
+    return new String(bytes);
+  }
+
+  /**
+   * Request handler which responds to a request only when the test asks for it.
+   */
+  private static class DeferredRequestHandler implements NettyServer.RequestHandler {
+    private final ConcurrentMap<String, SettableFuture<byte[]>> _responses =
+        new ConcurrentHashMap<String, SettableFuture<byte[]>>();
+
+    @Override
+    public ListenableFuture<byte[]> processRequest(ChannelHandlerContext channelHandlerContext, ByteBuf request) {
+      byte[] bytes = new byte[request.readableBytes()];
+      request.readBytes(bytes);
+      return getResponse(new String(bytes));
+    }
+
+    void respond(String request, String response) {
+      getResponse(request).set(response.getBytes());
+    }
+
+    private SettableFuture<byte[]> getResponse(String request) {
+      SettableFuture<byte[]> response = SettableFuture.create();
+      SettableFuture<byte[]> existing = _responses.putIfAbsent(request, response);
+      return existing != null ? existing : response;
+    }
+  }
+}
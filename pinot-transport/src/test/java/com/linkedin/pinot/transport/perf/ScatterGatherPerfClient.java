@@ -165,7 +165,7 @@ public class ScatterGatherPerfClient implements Runnable {
         new KeyedPoolImpl<PooledNettyClientResourceManager.PooledClientConnection>(1, _maxActiveConnections, 300000, 10, rm,
             _timedExecutor, MoreExecutors.sameThreadExecutor(), registry);
     rm.setPool(_pool);
-    _scatterGather = new ScatterGatherImpl(_pool, _service);
+    _scatterGather = new ScatterGatherImpl(_pool, _timedExecutor);
     for (AsyncReader r : _readerThreads) {
       r.start();
     }
@@ -453,6 +453,26 @@ public class ScatterGatherPerfClient implements Runnable {
       return _pgToServersMap;
     }
 
+    @Override
+    public Map<List<ServerInstance>, SegmentIdSet> getSegmentReplicaGroups() {
+      return null;
+    }
+
+    @Override
+    public long getHedgeDelayMs() {
+      return -1;
+    }
+
+    @Override
+    public boolean isRetryOverloadedServers() {
+      return false;
+    }
+
+    @Override
+    public boolean isServerOverloadedResponse(ByteBuf response) {
+      return false;
+    }
+
     @Override
     public byte[] getRequestForService(ServerInstance service, SegmentIdSet queryPartitions) {
       return _brokerRequest;
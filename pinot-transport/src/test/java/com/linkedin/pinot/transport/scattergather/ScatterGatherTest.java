@@ -16,6 +16,7 @@
 package com.linkedin.pinot.transport.scattergather;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -30,12 +31,14 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.testng.Assert;
 import org.testng.annotations.Test;
+import com.google.common.base.Charsets;
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.MoreExecutors;
 import com.linkedin.pinot.common.metrics.BrokerMetrics;
 import com.linkedin.pinot.common.request.BrokerRequest;
 import com.linkedin.pinot.common.response.ServerInstance;
+import com.linkedin.pinot.transport.common.AdaptiveReplicaSelection;
 import com.linkedin.pinot.transport.common.BucketingSelection;
 import com.linkedin.pinot.transport.common.CompositeFuture;
 import com.linkedin.pinot.transport.common.ReplicaSelection;
@@ -44,10 +47,12 @@ import com.linkedin.pinot.transport.common.RoundRobinReplicaSelection;
 import com.linkedin.pinot.transport.common.SegmentId;
 import com.linkedin.pinot.transport.common.SegmentIdSet;
 import com.linkedin.pinot.transport.metrics.NettyClientMetrics;
+import com.linkedin.pinot.transport.netty.MultiplexedConnectionManager;
 import com.linkedin.pinot.transport.netty.NettyServer.RequestHandler;
 import com.linkedin.pinot.transport.netty.NettyServer.RequestHandlerFactory;
 import com.linkedin.pinot.transport.netty.NettyTCPServer;
 import com.linkedin.pinot.transport.netty.PooledNettyClientResourceManager;
+import com.linkedin.pinot.transport.pool.KeyedPool;
 import com.linkedin.pinot.transport.pool.KeyedPoolImpl;
 import com.linkedin.pinot.transport.scattergather.ScatterGatherImpl.ScatterGatherRequestContext;
 import com.yammer.metrics.core.MetricsRegistry;
@@ -67,10 +72,121 @@ public class ScatterGatherTest {
     ResourceLeakDetector.setLevel(ResourceLeakDetector.Level.PARANOID);
   }
 
+  @Test
+  public void testSelectAlternateServers() throws Exception {
+    ScatterGatherImpl scImpl = new ScatterGatherImpl((KeyedPool<PooledNettyClientResourceManager.PooledClientConnection>) null, null);
+    ServerInstance serverInstance1 = new ServerInstance("localhost", 1011);
+    ServerInstance serverInstance2 = new ServerInstance("localhost", 1012);
+    ServerInstance serverInstance3 = new ServerInstance("localhost", 1013);
+    SegmentIdSet pg = new SegmentIdSet();
+    pg.addSegment(new SegmentId("0"));
+    pg.addSegment(new SegmentId("1"));
+    SegmentIdSet pg2 = new SegmentIdSet();
+    pg2.addSegment(new SegmentId("2"));
+
+    // Servers picked by the routing table
+    Map<ServerInstance, SegmentIdSet> pgMap = new HashMap<ServerInstance, SegmentIdSet>();
+    pgMap.put(serverInstance1, pg);
+    pgMap.put(serverInstance2, pg2);
+    final Map<List<ServerInstance>, SegmentIdSet> replicaGroups = new HashMap<List<ServerInstance>, SegmentIdSet>();
+    replicaGroups.put(Arrays.asList(serverInstance3, serverInstance1), pg);
+    replicaGroups.put(Arrays.asList(serverInstance1, serverInstance2), pg2);
+    ScatterGatherRequest req = new TestScatterGatherRequest(pgMap, new HashMap<SegmentIdSet, String>()) {
+      @Override
+      public Map<List<ServerInstance>, SegmentIdSet> getSegmentReplicaGroups() {
+        return replicaGroups;
+      }
+    };
+
+    ScatterGatherRequestContext ctxt = new ScatterGatherRequestContext(req);
+    scImpl.buildInvertedMap(ctxt);
+    scImpl.selectServices(ctxt);
+    scImpl.selectAlternateServers(ctxt);
+
+    // The selection of the routing table is kept
+    Assert.assertEquals(ctxt.getSelectedServers(), pgMap);
+    Map<ServerInstance, List<ServerInstance>> alternateServers = ctxt.getAlternateServers();
+    Assert.assertEquals(alternateServers.size(), 1);
+    Assert.assertEquals(alternateServers.get(serverInstance1), Arrays.asList(serverInstance3));
+  }
+
+  @Test
+  public void testOverloadedServerRetryWithAdaptiveReplicaSelection() throws Exception {
+    MetricsRegistry registry = new MetricsRegistry();
+
+    // Server 1 rejects the request as overloaded, server 2 hosts the same segment and processes it
+    int serverPort1 = 7101;
+    int serverPort2 = 7102;
+    NettyTCPServer server1 = new NettyTCPServer(serverPort1, new TestRequestHandlerFactory(1, 1), null);
+    NettyTCPServer server2 = new NettyTCPServer(serverPort2, new TestRequestHandlerFactory(2, 1), null);
+    Thread t1 = new Thread(server1);
+    Thread t2 = new Thread(server2);
+    t1.start();
+    t2.start();
+
+    //Client setup
+    ScheduledExecutorService timedExecutor = new ScheduledThreadPoolExecutor(1);
+    EventLoopGroup eventLoopGroup = new NioEventLoopGroup();
+    NettyClientMetrics clientMetrics = new NettyClientMetrics(registry, "client_");
+    MultiplexedConnectionManager connectionManager =
+        new MultiplexedConnectionManager(eventLoopGroup, new HashedWheelTimer(), clientMetrics, 1, 10);
+    ScatterGatherImpl scImpl = new ScatterGatherImpl(connectionManager, timedExecutor);
+
+    ServerInstance serverInstance1 = new ServerInstance("localhost", serverPort1);
+    ServerInstance serverInstance2 = new ServerInstance("localhost", serverPort2);
+    SegmentIdSet pg = new SegmentIdSet();
+    pg.addSegment(new SegmentId("0"));
+    Map<ServerInstance, SegmentIdSet> pgMap = new HashMap<ServerInstance, SegmentIdSet>();
+    pgMap.put(serverInstance1, pg);
+    Map<SegmentIdSet, String> pgMapStr = new HashMap<SegmentIdSet, String>();
+    pgMapStr.put(pg, "request_0");
+    final Map<List<ServerInstance>, SegmentIdSet> replicaGroups = new HashMap<List<ServerInstance>, SegmentIdSet>();
+    replicaGroups.put(Arrays.asList(serverInstance1, serverInstance2), pg);
+    AdaptiveReplicaSelection replicaSelection = new AdaptiveReplicaSelection();
+    ScatterGatherRequest req = new TestScatterGatherRequest(pgMap, pgMapStr, replicaSelection,
+        ReplicaSelectionGranularity.SEGMENT_ID_SET, 0, 10000) {
+      @Override
+      public Map<List<ServerInstance>, SegmentIdSet> getSegmentReplicaGroups() {
+        return replicaGroups;
+      }
+
+      @Override
+      public boolean isRetryOverloadedServers() {
+        return true;
+      }
+
+      @Override
+      public boolean isServerOverloadedResponse(ByteBuf response) {
+        return response.toString(Charsets.UTF_8).startsWith("response_1_");
+      }
+    };
+
+    final ScatterGatherStats scatterGatherStats = new ScatterGatherStats();
+    BrokerMetrics brokerMetrics = new BrokerMetrics(new MetricsRegistry());
+    CompositeFuture<ByteBuf> fut = scImpl.scatterGather(req, scatterGatherStats, brokerMetrics);
+    Map<ServerInstance, ByteBuf> v = fut.get();
+    Assert.assertEquals(v.size(), 1);
+    ByteBuf b = v.values().iterator().next();
+    byte[] b2 = new byte[b.readableBytes()];
+    b.readBytes(b2);
+    Assert.assertEquals(new String(b2), "response_2_0");
+
+    // The fast rejection counts against the overloaded server instead of lowering its latency average
+    Assert.assertEquals(replicaSelection.getLatencyEwmaMs(serverInstance1), -1.0);
+    Assert.assertEquals(replicaSelection.getNumInFlightRequests(serverInstance1), 0);
+    // An idle server without errors scores 1
+    Assert.assertTrue(replicaSelection.getScore(serverInstance1) > 1.0);
+
+    connectionManager.shutdown();
+    server1.shutdownGracefully();
+    server2.shutdownGracefully();
+    timedExecutor.shutdown();
+    eventLoopGroup.shutdownGracefully();
+  }
+
   @Test
   public void testSelectServers() throws Exception {
-    ExecutorService poolExecutor = MoreExecutors.sameThreadExecutor();
-    ScatterGatherImpl scImpl = new ScatterGatherImpl(null, poolExecutor);
+    ScatterGatherImpl scImpl = new ScatterGatherImpl((KeyedPool<PooledNettyClientResourceManager.PooledClientConnection>) null, null);
 
     {
       // 1 server with 2 partitions
@@ -227,7 +343,6 @@ public class ScatterGatherTest {
     //Client setup
     ScheduledExecutorService timedExecutor = new ScheduledThreadPoolExecutor(1);
     ExecutorService poolExecutor = MoreExecutors.sameThreadExecutor();
-    ExecutorService service = new ThreadPoolExecutor(1, 1, 1, TimeUnit.DAYS, new LinkedBlockingDeque<Runnable>());
     EventLoopGroup eventLoopGroup = new NioEventLoopGroup();
     NettyClientMetrics clientMetrics = new NettyClientMetrics(registry, "client_");
     PooledNettyClientResourceManager rm =
@@ -237,7 +352,7 @@ public class ScatterGatherTest {
             registry);
     rm.setPool(pool);
 
-    ScatterGatherImpl scImpl = new ScatterGatherImpl(pool, service);
+    ScatterGatherImpl scImpl = new ScatterGatherImpl(pool, timedExecutor);
 
     SegmentIdSet pg = new SegmentIdSet();
     pg.addSegment(new SegmentId("0"));
@@ -264,7 +379,68 @@ public class ScatterGatherTest {
     Assert.assertEquals(v.size(), 1);
     server1.shutdownGracefully();
     pool.shutdown();
-    service.shutdown();
+    eventLoopGroup.shutdownGracefully();
+  }
+
+  @Test
+  public void testMultiplexedConnections() throws Exception {
+
+    MetricsRegistry registry = new MetricsRegistry();
+
+    // Server start
+    int serverPort1 = 7071;
+    int serverPort2 = 7072;
+    NettyTCPServer server1 = new NettyTCPServer(serverPort1, new TestRequestHandlerFactory(0, 3), null);
+    NettyTCPServer server2 = new NettyTCPServer(serverPort2, new TestRequestHandlerFactory(1, 3), null);
+    Thread t1 = new Thread(server1);
+    Thread t2 = new Thread(server2);
+    t1.start();
+    t2.start();
+
+    //Client setup
+    ScheduledExecutorService timedExecutor = new ScheduledThreadPoolExecutor(1);
+    EventLoopGroup eventLoopGroup = new NioEventLoopGroup();
+    NettyClientMetrics clientMetrics = new NettyClientMetrics(registry, "client_");
+    MultiplexedConnectionManager connectionManager =
+        new MultiplexedConnectionManager(eventLoopGroup, new HashedWheelTimer(), clientMetrics, 1, 10);
+    ScatterGatherImpl scImpl = new ScatterGatherImpl(connectionManager, timedExecutor);
+
+    ServerInstance serverInstance1 = new ServerInstance("localhost", serverPort1);
+    ServerInstance serverInstance2 = new ServerInstance("localhost", serverPort2);
+    SegmentIdSet pg1 = new SegmentIdSet();
+    pg1.addSegment(new SegmentId("0"));
+    SegmentIdSet pg2 = new SegmentIdSet();
+    pg2.addSegment(new SegmentId("1"));
+    Map<ServerInstance, SegmentIdSet> pgMap = new HashMap<ServerInstance, SegmentIdSet>();
+    pgMap.put(serverInstance1, pg1);
+    pgMap.put(serverInstance2, pg2);
+    Map<SegmentIdSet, String> pgMapStr = new HashMap<SegmentIdSet, String>();
+    pgMapStr.put(pg1, "request_0");
+    pgMapStr.put(pg2, "request_1");
+    ScatterGatherRequest req = new TestScatterGatherRequest(pgMap, pgMapStr);
+
+    // Requests of successive queries share the same connection to each server
+    for (int i = 0; i < 3; i++) {
+      final ScatterGatherStats scatterGatherStats = new ScatterGatherStats();
+      BrokerMetrics brokerMetrics = new BrokerMetrics(new MetricsRegistry());
+      CompositeFuture<ByteBuf> fut = scImpl.scatterGather(req, scatterGatherStats, brokerMetrics);
+      Map<ServerInstance, ByteBuf> v = fut.get();
+      Assert.assertEquals(v.size(), 2);
+      ByteBuf b = v.get(serverInstance1);
+      byte[] b2 = new byte[b.readableBytes()];
+      b.readBytes(b2);
+      Assert.assertEquals(new String(b2), "response_0_" + i);
+      b = v.get(serverInstance2);
+      b2 = new byte[b.readableBytes()];
+      b.readBytes(b2);
+      Assert.assertEquals(new String(b2), "response_1_" + i);
+      Assert.assertEquals(connectionManager.getNumOutstandingRequests(serverInstance1), 0);
+    }
+
+    connectionManager.shutdown();
+    server1.shutdownGracefully();
+    server2.shutdownGracefully();
+    timedExecutor.shutdown();
     eventLoopGroup.shutdownGracefully();
   }
 
@@ -295,7 +471,6 @@ public class ScatterGatherTest {
     //Client setup
     ScheduledExecutorService timedExecutor = new ScheduledThreadPoolExecutor(1);
     ExecutorService poolExecutor = MoreExecutors.sameThreadExecutor();
-    ExecutorService service = new ThreadPoolExecutor(1, 1, 1, TimeUnit.DAYS, new LinkedBlockingDeque<Runnable>());
     EventLoopGroup eventLoopGroup = new NioEventLoopGroup();
     NettyClientMetrics clientMetrics = new NettyClientMetrics(registry, "client_");
     PooledNettyClientResourceManager rm =
@@ -337,7 +512,7 @@ public class ScatterGatherTest {
     pgMapStr.put(pg4, request4);
 
     ScatterGatherRequest req = new TestScatterGatherRequest(pgMap, pgMapStr);
-    ScatterGatherImpl scImpl = new ScatterGatherImpl(pool, service);
+    ScatterGatherImpl scImpl = new ScatterGatherImpl(pool, timedExecutor);
     final ScatterGatherStats scatterGatherStats = new ScatterGatherStats();
     BrokerMetrics brokerMetrics = new BrokerMetrics(new MetricsRegistry());
     CompositeFuture<ByteBuf> fut = scImpl.scatterGather(req, scatterGatherStats, brokerMetrics);
@@ -370,7 +545,6 @@ public class ScatterGatherTest {
     server3.shutdownGracefully();
     server4.shutdownGracefully();
     pool.shutdown();
-    service.shutdown();
     eventLoopGroup.shutdownGracefully();
   }
 
@@ -443,7 +617,7 @@ public class ScatterGatherTest {
     ScatterGatherRequest req =
         new TestScatterGatherRequest(pgMap, pgMapStr, new RoundRobinReplicaSelection(),
             ReplicaSelectionGranularity.SEGMENT_ID_SET, 0, 1000);
-    ScatterGatherImpl scImpl = new ScatterGatherImpl(pool, service);
+    ScatterGatherImpl scImpl = new ScatterGatherImpl(pool, timedExecutor);
     final ScatterGatherStats scatterGatherStats = new ScatterGatherStats();
     BrokerMetrics brokerMetrics = new BrokerMetrics(new MetricsRegistry());
     CompositeFuture<ByteBuf> fut = scImpl.scatterGather(req, scatterGatherStats, brokerMetrics);
@@ -515,7 +689,6 @@ public class ScatterGatherTest {
     //Client setup
     ScheduledExecutorService timedExecutor = new ScheduledThreadPoolExecutor(1);
     ExecutorService poolExecutor = MoreExecutors.sameThreadExecutor();
-    ExecutorService service = new ThreadPoolExecutor(1, 1, 1, TimeUnit.DAYS, new LinkedBlockingDeque<Runnable>());
     EventLoopGroup eventLoopGroup = new NioEventLoopGroup();
     NettyClientMetrics clientMetrics = new NettyClientMetrics(registry, "client_");
     PooledNettyClientResourceManager rm =
@@ -559,7 +732,7 @@ public class ScatterGatherTest {
     ScatterGatherRequest req =
         new TestScatterGatherRequest(pgMap, pgMapStr, new RoundRobinReplicaSelection(),
             ReplicaSelectionGranularity.SEGMENT_ID_SET, 0, 1000);
-    ScatterGatherImpl scImpl = new ScatterGatherImpl(pool, service);
+    ScatterGatherImpl scImpl = new ScatterGatherImpl(pool, timedExecutor);
     final ScatterGatherStats scatterGatherStats = new ScatterGatherStats();
     final BrokerMetrics brokerMetrics = new BrokerMetrics(new MetricsRegistry());
     CompositeFuture<ByteBuf> fut = scImpl.scatterGather(req, scatterGatherStats, brokerMetrics);
@@ -597,7 +770,6 @@ public class ScatterGatherTest {
     Assert.assertEquals(pool.getStats().getTotalBadDestroyed(), 1, "Total Bad destroyed");
 
     pool.shutdown();
-    service.shutdown();
     eventLoopGroup.shutdownGracefully();
 
     server1.shutdownGracefully();
@@ -713,6 +885,26 @@ public class ScatterGatherTest {
       return _partitionServicesMap;
     }
 
+    @Override
+    public Map<List<ServerInstance>, SegmentIdSet> getSegmentReplicaGroups() {
+      return null;
+    }
+
+    @Override
+    public long getHedgeDelayMs() {
+      return -1;
+    }
+
+    @Override
+    public boolean isRetryOverloadedServers() {
+      return false;
+    }
+
+    @Override
+    public boolean isServerOverloadedResponse(ByteBuf response) {
+      return false;
+    }
+
     @Override
     public byte[] getRequestForService(ServerInstance service, SegmentIdSet queryPartitions) {
       String s = _responsesMap.get(queryPartitions);